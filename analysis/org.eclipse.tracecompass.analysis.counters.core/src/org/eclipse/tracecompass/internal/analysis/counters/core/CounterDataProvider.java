@@ -15,11 +15,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.NavigableSet;
 import java.util.Objects;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -28,6 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.counters.core.CounterAnalysis;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.internal.tmf.core.model.xy.AbstractTreeCommonXDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
@@ -42,7 +42,7 @@ import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
-import com.google.common.collect.TreeMultimap;
+import com.google.common.primitives.Longs;
 
 /**
  * This data provider will return a XY model (model is wrapped in a response)
@@ -158,19 +158,19 @@ public class CounterDataProvider extends AbstractTreeCommonXDataProvider<Counter
             return null;
         }
         long stateSystemEndTime = ss.getCurrentEndTime();
-        Collection<Long> times = extractRequestedTimes(ss, filter, stateSystemEndTime);
+        long[] times = extractRequestedTimes(ss, filter, stateSystemEndTime);
 
         Map<Long, Integer> entries = Maps.filterValues(getSelectedEntries(filter), q -> ss.getSubAttributes(q, false).isEmpty());
 
-        TreeMultimap<Integer, ITmfStateInterval> countersIntervals = TreeMultimap.create(Comparator.naturalOrder(),
-                Comparator.comparingLong(ITmfStateInterval::getStartTime));
-
-        Iterable<@NonNull ITmfStateInterval> query2d = ss.query2D(entries.values(), times);
-        for (ITmfStateInterval interval : query2d) {
-            if (monitor != null && monitor.isCanceled()) {
-                return null;
-            }
-            countersIntervals.put(interval.getAttribute(), interval);
+        /*
+         * The values of the counters at the queried times do not depend on the
+         * resolution, nor on whether the counters are cumulative, so they are
+         * cached for all queries
+         */
+        Map<Long, double[]> countersValues = getSeriesValues(ss, Collections.emptySet(), XYSeriesCache.SampleType.POINT, entries.keySet(), times,
+                (ids, starts, sampleTimes) -> sampleCounters(ss, Maps.filterKeys(entries, ids::contains), sampleTimes, monitor));
+        if (countersValues == null) {
+            return null;
         }
 
         ImmutableList.Builder<IYModel> ySeries = ImmutableList.builder();
@@ -179,7 +179,7 @@ public class CounterDataProvider extends AbstractTreeCommonXDataProvider<Counter
                 return null;
             }
             int quark = entry.getValue();
-            double[] yValues = buildYValues(countersIntervals.get(quark), filter);
+            double[] yValues = buildYValues(times, Objects.requireNonNull(countersValues.get(entry.getKey())), filter);
             String seriesName = getTrace().getName() + '/' + ss.getFullAttributePath(quark);
             ySeries.add(new YModel(entry.getKey(), seriesName, yValues));
         }
@@ -187,6 +187,38 @@ public class CounterDataProvider extends AbstractTreeCommonXDataProvider<Counter
         return ySeries.build();
     }
 
+    /**
+     * Get the values of counters at times, with a single 2D query
+     */
+    private static @Nullable Map<Long, double[]> sampleCounters(ITmfStateSystem ss, Map<Long, Integer> entries, long[] times,
+            @Nullable IProgressMonitor monitor) throws StateSystemDisposedException {
+        Map<Integer, double[]> valuesPerQuark = new HashMap<>();
+        for (Integer quark : entries.values()) {
+            valuesPerQuark.put(quark, new double[times.length]);
+        }
+        Iterable<@NonNull ITmfStateInterval> query2d = ss.query2D(entries.values(), Longs.asList(times));
+        for (ITmfStateInterval interval : query2d) {
+            if (monitor != null && monitor.isCanceled()) {
+                return null;
+            }
+            double[] values = valuesPerQuark.get(interval.getAttribute());
+            if (values == null) {
+                continue;
+            }
+            int from = Arrays.binarySearch(times, interval.getStartTime());
+            from = (from >= 0) ? from : -1 - from;
+            int to = Arrays.binarySearch(times, from, times.length, interval.getEndTime());
+            to = (to >= 0) ? to + 1 : -1 - to;
+            Number value = (Number) interval.getValue();
+            Arrays.fill(values, from, to, value != null ? value.longValue() : 0L);
+        }
+        Map<Long, double[]> values = new HashMap<>();
+        for (Entry<Long, Integer> entry : entries.entrySet()) {
+            values.put(entry.getKey(), Objects.requireNonNull(valuesPerQuark.get(entry.getValue())));
+        }
+        return values;
+    }
+
     private static @Nullable SelectedCounterQueryFilter createCounterQuery(Map<String, Object> parameters) {
         List<Long> timeRequested = DataProviderParameterUtils.extractTimeRequested(parameters);
         List<Long> selectedItems = DataProviderParameterUtils.extractSelectedItems(parameters);
@@ -214,9 +246,9 @@ public class CounterDataProvider extends AbstractTreeCommonXDataProvider<Counter
      * @param currentEndTime
      *            We want to make sure that current end time is consistent
      *            throughout the query even if the analysis progresses
-     * @return A collection of time
+     * @return A sorted array of distinct times
      */
-    private static Collection<Long> extractRequestedTimes(ITmfStateSystem ss, SelectedCounterQueryFilter filter, long currentEndTime) {
+    private static long[] extractRequestedTimes(ITmfStateSystem ss, SelectedCounterQueryFilter filter, long currentEndTime) {
         Collection<Long> times = getTimes(filter, ss.getStartTime(), currentEndTime);
 
         long[] xValues = filter.getTimesRequested();
@@ -235,43 +267,50 @@ public class CounterDataProvider extends AbstractTreeCommonXDataProvider<Counter
             }
         }
 
-        return times;
+        long[] sortedTimes = Longs.toArray(times);
+        Arrays.sort(sortedTimes);
+        return sortedTimes;
     }
 
-    private static double[] buildYValues(NavigableSet<ITmfStateInterval> countersIntervals, SelectedCounterQueryFilter filter) {
+    /**
+     * Build the values of a counter at the requested times from its values at
+     * the queried times
+     *
+     * @param times
+     *            The queried times, sorted
+     * @param countersValues
+     *            The values of the counter at the queried times
+     * @param filter
+     *            The query filter
+     * @return The values at the requested times
+     */
+    private static double[] buildYValues(long[] times, double[] countersValues, SelectedCounterQueryFilter filter) {
 
-        long[] times = filter.getTimesRequested();
+        long[] xValues = filter.getTimesRequested();
         boolean isCumulative = filter.isCumulative();
 
-        double[] yValues = new double[times.length];
-        long prevValue = 0L;
-        if (!countersIntervals.isEmpty()) {
-            Object value = countersIntervals.first().getValue();
-            if (value instanceof Number) {
-                prevValue = ((Number) value).longValue();
-            }
+        double[] yValues = new double[xValues.length];
+        if (times.length == 0) {
+            return yValues;
         }
-        int to = 0;
-
-        for (ITmfStateInterval interval : countersIntervals) {
-            int from = Arrays.binarySearch(times, interval.getStartTime());
-            from = (from >= 0) ? from : -1 - from;
-            Number value = (Number) interval.getValue();
-            long l = value != null ? value.longValue() : 0l;
-            if (isCumulative) {
-                /* Fill in all the time stamps that the interval overlaps */
-                to = Arrays.binarySearch(times, interval.getEndTime());
-                to = (to >= 0) ? to + 1 : -1 - to;
-                Arrays.fill(yValues, from, to, l);
-            } else {
-                yValues[from] = (l - prevValue);
+        double lastValue = countersValues[times.length - 1];
+
+        for (int i = 0; i < xValues.length; i++) {
+            int index = Arrays.binarySearch(times, xValues[i]);
+            if (index < 0) {
+                /*
+                 * Not queried, so before or after the state system. For the
+                 * cumulative mode, fill the time stamps after the state system with
+                 * the last value.
+                 */
+                if (isCumulative && xValues[i] > times[times.length - 1]) {
+                    yValues[i] = lastValue;
+                }
+            } else if (isCumulative) {
+                yValues[i] = countersValues[index];
+            } else if (index > 0 && (i == 0 || xValues[i - 1] != xValues[i])) {
+                yValues[i] = countersValues[index] - countersValues[index - 1];
             }
-            prevValue = l;
-        }
-
-        /* Fill the time stamps after the state system, if any. */
-        if (isCumulative) {
-            Arrays.fill(yValues, to, yValues.length, prevValue);
         }
 
         return yValues;
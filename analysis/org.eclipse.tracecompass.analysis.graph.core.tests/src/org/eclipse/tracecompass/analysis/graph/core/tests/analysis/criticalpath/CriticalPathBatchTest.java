@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.tests.analysis.criticalpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathAlgorithmException;
+import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathBatch;
+import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathSummary;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphBuilder;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphFactory;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphOps;
+import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.CriticalPathAlgorithmBounded;
+import org.junit.Test;
+
+/**
+ * Test the {@link CriticalPathBatch} and {@link CriticalPathSummary} classes
+ */
+public class CriticalPathBatchTest {
+
+    private static void testBatch(GraphBuilder builder) throws CriticalPathAlgorithmException, IOException {
+        TmfGraph graph = builder.build();
+        graph.compact(null);
+        CriticalPathBatch batch = new CriticalPathBatch(graph);
+        Map<IGraphWorker, TmfGraph> criticalPaths = batch.getCriticalPaths(graph.getWorkers(), Long.MIN_VALUE, Long.MAX_VALUE, new NullProgressMonitor());
+        assertEquals(builder.getName(), graph.getWorkers(), criticalPaths.keySet());
+
+        /* Compare with the critical paths computed one at a time */
+        TmfGraph expectedGraph = builder.build();
+        for (IGraphWorker worker : expectedGraph.getWorkers()) {
+            TmfVertex head = expectedGraph.getHead(worker);
+            assertNotNull(head);
+            TmfGraph expected = new CriticalPathAlgorithmBounded(expectedGraph).compute(head, null);
+            TmfGraph actual = criticalPaths.get(worker);
+            assertNotNull(actual);
+            GraphOps.checkEquality(expected, actual);
+            /* The critical path is cached */
+            assertSame(actual, batch.getCriticalPath(worker, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+
+        /* The totals of the summary are the sums of the workers' durations */
+        CriticalPathSummary summary = CriticalPathSummary.create(criticalPaths);
+        assertEquals(criticalPaths.keySet(), summary.getWorkers());
+        for (EdgeType type : EdgeType.values()) {
+            long sum = 0;
+            for (IGraphWorker worker : summary.getWorkers()) {
+                sum += summary.getDurations(worker).getOrDefault(type, 0L);
+            }
+            assertEquals(builder.getName() + ' ' + type, sum, (long) summary.getTotalDurations().getOrDefault(type, 0L));
+        }
+    }
+
+    /**
+     * Test the critical paths of all the workers of the test graphs
+     *
+     * @throws CriticalPathAlgorithmException
+     *             If a critical path cannot be computed
+     * @throws IOException
+     *             If a graph cannot be compacted
+     */
+    @Test
+    public void testGraphs() throws CriticalPathAlgorithmException, IOException {
+        testBatch(GraphFactory.GRAPH_BASIC);
+        testBatch(GraphFactory.GRAPH_WAKEUP_SELF);
+        testBatch(GraphFactory.GRAPH_WAKEUP_NEW);
+        testBatch(GraphFactory.GRAPH_WAKEUP_MUTUAL);
+        testBatch(GraphFactory.GRAPH_NESTED);
+        testBatch(GraphFactory.GRAPH_OPENED);
+        testBatch(GraphFactory.GRAPH_WAKEUP_EMBEDDED);
+        testBatch(GraphFactory.GRAPH_WAKEUP_INTERLEAVE);
+        testBatch(GraphFactory.GRAPH_NET1);
+    }
+
+    /**
+     * Test the critical path of a time range
+     *
+     * @throws CriticalPathAlgorithmException
+     *             If a critical path cannot be computed
+     */
+    @Test
+    public void testTimeRange() throws CriticalPathAlgorithmException {
+        TmfGraph graph = GraphFactory.GRAPH_BASIC.build();
+        CriticalPathBatch batch = new CriticalPathBatch(graph);
+        IGraphWorker worker = GraphFactory.Actor0;
+        TmfGraph full = batch.getCriticalPath(worker, Long.MIN_VALUE, Long.MAX_VALUE);
+        TmfGraph range = batch.getCriticalPath(worker, 1, 3);
+        assertTrue(range.size() <= full.size());
+        for (TmfVertex vertex : range.getNodesOf(worker)) {
+            assertTrue(vertex.getTs() >= 1);
+        }
+        /* No vertex after the end of the graph */
+        assertEquals(0, batch.getCriticalPath(worker, 1000, Long.MAX_VALUE).size());
+    }
+
+}
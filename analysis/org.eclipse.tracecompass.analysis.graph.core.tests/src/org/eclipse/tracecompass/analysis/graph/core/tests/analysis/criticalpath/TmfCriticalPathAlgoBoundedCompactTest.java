@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.tests.analysis.criticalpath;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.CriticalPathAlgorithmBounded;
+
+/**
+ * Test the {@link CriticalPathAlgorithmBounded} critical path algorithm on
+ * compacted graphs
+ */
+public class TmfCriticalPathAlgoBoundedCompactTest extends TmfCriticalPathAlgoBoundedTest {
+
+    @Override
+    protected TmfGraph computeCriticalPath(TmfGraph graph, TmfVertex start) {
+        assertNotNull(graph);
+        /* The vertices change when compacting, find the start vertex again */
+        IGraphWorker worker = graph.getParentOf(start);
+        assertNotNull(worker);
+        int index = graph.getNodesOf(worker).indexOf(start);
+        try {
+            graph.compact(null);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+        TmfVertex compactStart = graph.getNodesOf(worker).get(index);
+        assertNotNull(compactStart);
+        return super.computeCriticalPath(graph, compactStart);
+    }
+
+}
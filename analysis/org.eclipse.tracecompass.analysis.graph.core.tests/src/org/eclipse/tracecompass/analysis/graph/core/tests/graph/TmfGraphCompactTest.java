@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.tests.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorkerSerializer;
+import org.eclipse.tracecompass.analysis.graph.core.base.ITmfGraphVisitor;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex.EdgeDirection;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphBuilder;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphFactory;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.GraphOps;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.TestGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.tests.stubs.TestGraphWorkerSerializer;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the compacted {@link TmfGraph}, on the heap, mapped from a file and
+ * saved to a file
+ */
+public class TmfGraphCompactTest {
+
+    private static final @NonNull IGraphWorker WORKER1 = new TestGraphWorker(1);
+    private static final @NonNull IGraphWorker WORKER2 = new TestGraphWorker(2);
+
+    private static final List<GraphBuilder> BUILDERS = Arrays.asList(GraphFactory.GRAPH_BASIC,
+            GraphFactory.GRAPH_WAKEUP_SELF, GraphFactory.GRAPH_WAKEUP_NEW, GraphFactory.GRAPH_WAKEUP_UNKNOWN,
+            GraphFactory.GRAPH_WAKEUP_MUTUAL, GraphFactory.GRAPH_NESTED, GraphFactory.GRAPH_OPENED,
+            GraphFactory.GRAPH_OPENED_DELAY, GraphFactory.GRAPH_WAKEUP_MISSING, GraphFactory.GRAPH_WAKEUP_EMBEDDED,
+            GraphFactory.GRAPH_WAKEUP_INTERLEAVE, GraphFactory.GRAPH_NET1);
+
+    private Path fFile;
+
+    /**
+     * Create the file of the mapped graphs
+     *
+     * @throws IOException
+     *             If the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fFile = Files.createTempFile("graph", ".graph");
+    }
+
+    /**
+     * Delete the file of the mapped graphs
+     *
+     * @throws IOException
+     *             If the file cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fFile);
+    }
+
+    /**
+     * Test that the compacted graphs are identical to the built graphs
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    @Test
+    public void testGraphs() throws IOException {
+        for (GraphBuilder builder : BUILDERS) {
+            TmfGraph expected = builder.build();
+            TmfGraph graph = builder.build();
+            graph.compact(null);
+            assertTrue(graph.isCompacted());
+            assertEquals(builder.getName(), expected.size(), graph.size());
+            GraphOps.checkEquality(expected, graph);
+
+            TmfGraph mapped = builder.build();
+            mapped.compact(fFile);
+            GraphOps.checkEquality(expected, mapped);
+            GraphOps.checkEquality(graph, mapped);
+        }
+    }
+
+    /**
+     * Test that the saved graphs are loaded identical to the built graphs, and
+     * only for the version they were saved with
+     *
+     * @throws IOException
+     *             If the file cannot be written or read
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        IGraphWorkerSerializer serializer = new TestGraphWorkerSerializer();
+        for (GraphBuilder builder : BUILDERS) {
+            TmfGraph expected = builder.build();
+            TmfGraph graph = builder.build();
+            graph.save(fFile, serializer, 2);
+            GraphOps.checkEquality(expected, graph);
+
+            TmfGraph loaded = TmfGraph.load(fFile, serializer, 2);
+            assertNotNull(builder.getName(), loaded);
+            assertTrue(loaded.isCompacted());
+            assertTrue(loaded.isDoneBuilding());
+            assertEquals(builder.getName(), expected.size(), loaded.size());
+            GraphOps.checkEquality(expected, loaded);
+            assertNull(TmfGraph.load(fFile, serializer, 3));
+        }
+
+        /* A graph compacted to a file without the workers cannot be loaded */
+        TmfGraph graph = GraphFactory.GRAPH_BASIC.build();
+        graph.compact(fFile);
+        assertNull(TmfGraph.load(fFile, serializer, 0));
+        Files.delete(fFile);
+        assertNull(TmfGraph.load(fFile, serializer, 0));
+    }
+
+    /**
+     * Test the vertices and edges of a compacted graph, with edges that are
+     * not between consecutive vertices and a vertex that is not in the graph
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    @Test
+    public void testVertices() throws IOException {
+        TmfGraph graph = new TmfGraph();
+        TmfVertex v0 = new TmfVertex(0);
+        TmfVertex v1 = new TmfVertex(1);
+        TmfVertex v2 = new TmfVertex(2);
+        TmfVertex v3 = new TmfVertex(3);
+        TmfVertex orphan = new TmfVertex(4);
+        graph.add(WORKER1, v0);
+        graph.append(WORKER1, v1, EdgeType.RUNNING);
+        graph.append(WORKER1, v2, EdgeType.BLOCKED, "qualifier");
+        graph.add(WORKER2, v3);
+        graph.link(v1, v3, EdgeType.NETWORK);
+        v2.linkVertical(orphan);
+        assertFalse(graph.isCompacted());
+        graph.compact(fFile);
+
+        assertEquals(4, graph.size());
+        assertEquals(new HashSet<>(Arrays.asList(WORKER1, WORKER2)), graph.getWorkers());
+        List<TmfVertex> nodes = graph.getNodesOf(WORKER1);
+        assertEquals(3, nodes.size());
+        TmfVertex c0 = nodes.get(0);
+        TmfVertex c1 = nodes.get(1);
+        TmfVertex c2 = nodes.get(2);
+        assertEquals(c0, graph.getHead());
+        assertEquals(c0, graph.getHead(WORKER1));
+        assertEquals(c2, graph.getTail(WORKER1));
+        assertEquals(c0, graph.getHead(c2));
+        assertEquals(c1, graph.getVertexAt(TmfTimestamp.fromNanos(1), WORKER1));
+        assertNull(graph.getVertexAt(TmfTimestamp.fromNanos(3), WORKER1));
+        assertEquals(WORKER1, graph.getParentOf(c1));
+        assertNull(graph.getParentOf(v1));
+
+        TmfEdge edge = c0.getEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.RUNNING, edge.getType());
+        assertEquals(c1, edge.getVertexTo());
+        edge = c2.getEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.BLOCKED, edge.getType());
+        assertEquals("qualifier", edge.getLinkQualifier());
+        assertEquals(c1, edge.getVertexFrom());
+        edge = c1.getEdge(EdgeDirection.OUTGOING_VERTICAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.NETWORK, edge.getType());
+        TmfVertex c3 = edge.getVertexTo();
+        assertEquals(graph.getHead(WORKER2), c3);
+        assertEquals(c1, c3.getEdge(EdgeDirection.INCOMING_VERTICAL_EDGE).getVertexFrom());
+
+        /* The vertex that is not in the graph is still reachable */
+        edge = c2.getEdge(EdgeDirection.OUTGOING_VERTICAL_EDGE);
+        assertNotNull(edge);
+        TmfVertex cOrphan = edge.getVertexTo();
+        assertEquals(4, cOrphan.getTs());
+        assertNull(graph.getParentOf(cOrphan));
+        assertEquals(c2, cOrphan.getEdge(EdgeDirection.INCOMING_VERTICAL_EDGE).getVertexFrom());
+
+        /* The visitor sees every vertex once */
+        Set<TmfVertex> visited = new HashSet<>();
+        graph.scanLineTraverse(WORKER1, new ITmfGraphVisitor() {
+            @Override
+            public void visitHead(TmfVertex vertex) {
+                // Nothing to do
+            }
+
+            @Override
+            public void visit(TmfVertex vertex) {
+                assertTrue(visited.add(vertex));
+            }
+
+            @Override
+            public void visit(TmfEdge link, boolean horizontal) {
+                // Nothing to do
+            }
+        });
+        assertEquals(5, visited.size());
+    }
+
+    /**
+     * Test that a compacted graph cannot be modified
+     *
+     * @throws IOException
+     *             If the graph cannot be compacted
+     */
+    @Test
+    public void testReadOnly() throws IOException {
+        TmfGraph graph = GraphFactory.GRAPH_BASIC.build();
+        graph.compact(null);
+        TmfVertex head = graph.getHead();
+        assertNotNull(head);
+        try {
+            graph.append(WORKER1, new TmfVertex(10));
+            fail("The graph should be read-only");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            head.linkHorizontal(new TmfVertex(10));
+            fail("The vertex should be read-only");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test that the graphs flushed after they are built are identical to the
+     * built graphs, before and after they are compacted
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    @Test
+    public void testFlushedGraphs() throws IOException {
+        for (GraphBuilder builder : BUILDERS) {
+            TmfGraph expected = builder.build();
+            TmfGraph graph = builder.build();
+            graph.flush();
+            assertFalse(graph.isCompacted());
+            assertEquals(builder.getName(), expected.size(), graph.size());
+            GraphOps.checkEquality(expected, graph);
+
+            graph.compact(fFile);
+            assertEquals(builder.getName(), expected.size(), graph.size());
+            GraphOps.checkEquality(expected, graph);
+        }
+    }
+
+    /**
+     * Test building a graph that is flushed while it is built, linking and
+     * removing vertices that are already flushed
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    @Test
+    public void testFlushWhileBuilding() throws IOException {
+        TmfGraph expected = buildGraph(false);
+        TmfGraph graph = buildGraph(true);
+        assertEquals(expected.size(), graph.size());
+        assertEquals(0, graph.getHead().getTs());
+        GraphOps.checkEquality(expected, graph);
+
+        graph.compact(null);
+        assertEquals(expected.size(), graph.size());
+        GraphOps.checkEquality(expected, graph);
+
+        /* The vertex removed from its worker is still reachable */
+        TmfEdge edge = graph.getNodesOf(WORKER2).get(0).getEdge(EdgeDirection.OUTGOING_VERTICAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.NETWORK, edge.getType());
+        assertEquals(12, edge.getVertexTo().getTs());
+        assertNull(graph.getParentOf(edge.getVertexTo()));
+    }
+
+    /**
+     * Test the vertex objects of a flushed graph, before and after the graph
+     * is compacted
+     *
+     * @throws IOException
+     *             If the graph cannot be compacted
+     */
+    @Test
+    public void testFlushedVertices() throws IOException {
+        TmfGraph graph = new TmfGraph();
+        TmfVertex v0 = new TmfVertex(0);
+        TmfVertex v1 = new TmfVertex(1);
+        TmfVertex v2 = new TmfVertex(2);
+        graph.add(WORKER1, v0);
+        graph.append(WORKER1, v1, EdgeType.RUNNING);
+        graph.append(WORKER1, v2, EdgeType.BLOCKED);
+        graph.flush();
+
+        assertEquals(3, graph.size());
+        assertEquals(v2, graph.getTail(WORKER1));
+        assertEquals(WORKER1, graph.getParentOf(v0));
+        TmfEdge edge = v0.getEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.RUNNING, edge.getType());
+        assertEquals(v0, edge.getVertexFrom());
+        assertEquals(1, edge.getVertexTo().getTs());
+        assertEquals(WORKER1, graph.getParentOf(edge.getVertexTo()));
+        edge = v2.getEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(EdgeType.BLOCKED, edge.getType());
+        assertEquals(WORKER1, graph.getParentOf(edge.getVertexFrom()));
+
+        graph.compact(null);
+        /* The flushed objects read their edges in the compacted graph */
+        edge = v0.getEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+        assertNotNull(edge);
+        assertEquals(graph.getNodesOf(WORKER1).get(1), edge.getVertexTo());
+        try {
+            v0.linkVertical(new TmfVertex(5));
+            fail("The vertex should be read-only");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test that the vertex objects returned for a flushed vertex are equal to
+     * each other and to the flushed object, before and after the graph is
+     * compacted
+     *
+     * @throws IOException
+     *             If the graph cannot be compacted
+     */
+    @Test
+    public void testFlushedVertexEquality() throws IOException {
+        TmfGraph graph = new TmfGraph();
+        TmfVertex v0 = new TmfVertex(0);
+        TmfVertex v1 = new TmfVertex(1);
+        graph.add(WORKER1, v0);
+        graph.append(WORKER1, v1, EdgeType.RUNNING);
+        graph.append(WORKER1, new TmfVertex(2), EdgeType.RUNNING);
+        graph.flush();
+
+        TmfVertex first = graph.getNodesOf(WORKER1).get(1);
+        TmfVertex second = graph.getNodesOf(WORKER1).get(1);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(v1, first);
+        assertEquals(first, v1);
+        assertEquals(v1, graph.getVertexAt(TmfTimestamp.fromNanos(1), WORKER1));
+        assertFalse(v0.equals(first));
+        assertFalse(new TmfVertex(1).equals(first));
+        Set<TmfVertex> vertices = new HashSet<>();
+        vertices.add(first);
+        assertTrue(vertices.contains(second));
+        assertTrue(vertices.contains(v1));
+
+        graph.compact(null);
+        TmfVertex compacted = graph.getNodesOf(WORKER1).get(1);
+        assertEquals(compacted, graph.getNodesOf(WORKER1).get(1));
+        assertEquals(v1, compacted);
+        assertEquals(compacted, v1);
+        assertEquals(first, compacted);
+        assertEquals(v1.hashCode(), compacted.hashCode());
+        assertFalse(compacted.equals(v0));
+        assertTrue(vertices.contains(compacted));
+    }
+
+    private static TmfGraph buildGraph(boolean flush) {
+        TmfGraph graph = new TmfGraph();
+        TmfVertex send = new TmfVertex(0);
+        graph.add(WORKER1, send);
+        for (int i = 1; i < 10; i++) {
+            graph.append(WORKER1, new TmfVertex(i), EdgeType.RUNNING);
+        }
+        graph.add(WORKER2, new TmfVertex(2));
+        graph.append(WORKER2, new TmfVertex(3), EdgeType.BLOCKED, "qualifier");
+        if (flush) {
+            graph.flush();
+        }
+
+        /* Link a vertex that is still referenced to a vertex flushed later */
+        TmfVertex receive = new TmfVertex(11);
+        graph.append(WORKER2, receive, EdgeType.PREEMPTED);
+        send.linkVertical(receive).setType(EdgeType.NETWORK);
+        /* Link a vertex returned by the graph */
+        TmfVertex wakeup = new TmfVertex(12);
+        graph.append(WORKER1, wakeup);
+        graph.link(graph.getNodesOf(WORKER2).get(0), wakeup, EdgeType.NETWORK);
+        graph.append(WORKER2, new TmfVertex(12));
+        if (flush) {
+            graph.flush();
+        }
+
+        /* Remove the tail of a worker until its flushed vertices */
+        graph.removeTail(WORKER1);
+        graph.removeTail(WORKER1);
+        graph.append(WORKER1, new TmfVertex(13), EdgeType.TIMER);
+        return graph;
+    }
+}
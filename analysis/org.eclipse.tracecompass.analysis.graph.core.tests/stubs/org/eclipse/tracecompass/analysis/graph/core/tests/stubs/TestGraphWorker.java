@@ -35,6 +35,15 @@ public class TestGraphWorker implements IGraphWorker {
         fValue = i;
     }
 
+    /**
+     * Get the integer that represents this worker
+     *
+     * @return The integer value
+     */
+    public Integer getValue() {
+        return fValue;
+    }
+
     @Override
     public String getHostId() {
         return "test";
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.tests.stubs;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorkerSerializer;
+
+/**
+ * A stub serializer of {@link TestGraphWorker}s for unit tests
+ */
+public class TestGraphWorkerSerializer implements IGraphWorkerSerializer {
+
+    @Override
+    public void write(DataOutput out, IGraphWorker worker) throws IOException {
+        out.writeInt(((TestGraphWorker) worker).getValue());
+    }
+
+    @Override
+    public IGraphWorker read(DataInput in) throws IOException {
+        return new TestGraphWorker(in.readInt());
+    }
+}
@@ -0,0 +1,1236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex.EdgeDirection;
+import org.eclipse.tracecompass.internal.analysis.graph.core.base.Messages;
+
+/**
+ * Read-only, array-backed storage of a {@link TmfGraph} that is done building.
+ * <p>
+ * The vertices of each worker are stored contiguously, in a run, and are
+ * identified by their index in the graph. A vertex is a timestamp and the type
+ * of the horizontal edge to the next vertex of its run, if there is one, which
+ * covers the vast majority of the edges of an execution graph. The other edges
+ * (vertical edges, horizontal edges between vertices that are not
+ * consecutive, edges with a qualifier) are stored in an edge table, with a
+ * sorted index of the (vertex, direction) slots that refer to them. The
+ * vertices that are linked to but are not in any worker are stored in a last
+ * run without worker.
+ * <p>
+ * The arrays can be kept on the heap or written to a file that is mapped in
+ * memory. With a worker serializer, the workers are saved after the arrays, so
+ * that the graph can be loaded again by mapping the file: the runs of the
+ * workers are then only read from the disk when they are traversed. The
+ * {@link TmfVertex} and {@link TmfEdge} objects are created on demand, and the
+ * vertices are equal if they have the same index.
+ * <p>
+ * The arrays are filled by a {@link Builder} while the graph is building, as
+ * the vertices are flushed from their objects.
+ */
+final class CompactGraph {
+
+    private static final EdgeType[] EDGE_TYPES = EdgeType.values();
+    private static final EdgeDirection[] DIRECTIONS = EdgeDirection.values();
+    /* Value of the horizontal type when there is no edge to the next vertex */
+    private static final byte NO_EDGE = 0;
+
+    private static final int MAGIC = 0x54474146;
+    private static final int NB_SECTIONS = 8;
+    /* Start of the metadata, version and magic number, at the end of the file */
+    private static final int TRAILER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    private final @Nullable IGraphWorker[] fWorkers;
+    private final int[] fRunStarts;
+    private final boolean[] fSortedRuns;
+    private final Map<IGraphWorker, Integer> fRunIndexes;
+    private final int fNbWorkerVertices;
+    private final String[] fQualifiers;
+
+    private final LongBuffer fTimestamps;
+    private final ByteBuffer fHorizontalTypes;
+    private final LongBuffer fSlotKeys;
+    private final IntBuffer fSlotEdges;
+    private final IntBuffer fEdgeFrom;
+    private final IntBuffer fEdgeTo;
+    private final ByteBuffer fEdgeTypes;
+    private final IntBuffer fEdgeQualifiers;
+
+    private CompactGraph(@Nullable IGraphWorker[] workers, int[] runStarts, boolean[] sortedRuns, int nbWorkerVertices, String[] qualifiers, Buffers buffers) {
+        fWorkers = workers;
+        fRunStarts = runStarts;
+        fSortedRuns = sortedRuns;
+        fNbWorkerVertices = nbWorkerVertices;
+        fQualifiers = qualifiers;
+        fRunIndexes = new LinkedHashMap<>();
+        for (int run = 0; run < fWorkers.length; run++) {
+            IGraphWorker worker = fWorkers[run];
+            if (worker != null) {
+                fRunIndexes.put(worker, run);
+            }
+        }
+        fTimestamps = buffers.fTimestamps;
+        fHorizontalTypes = buffers.fHorizontalTypes;
+        fSlotKeys = buffers.fSlotKeys;
+        fSlotEdges = buffers.fSlotEdges;
+        fEdgeFrom = buffers.fEdgeFrom;
+        fEdgeTo = buffers.fEdgeTo;
+        fEdgeTypes = buffers.fEdgeTypes;
+        fEdgeQualifiers = buffers.fEdgeQualifiers;
+    }
+
+    /**
+     * Create the compacted graph from its arrays
+     *
+     * @param layout
+     *            The arrays of the graph
+     * @param file
+     *            The file where to write the arrays, or null to keep them on
+     *            the heap
+     * @param serializer
+     *            The serializer of the workers, to save the workers in the
+     *            file so that the graph can be loaded later, or null if the
+     *            file is only used during this session
+     * @param version
+     *            The version of the graph, saved with the workers
+     * @return The compacted graph
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    private static CompactGraph create(Layout layout, @Nullable Path file,
+            @Nullable IGraphWorkerSerializer serializer, int version) throws IOException {
+        @Nullable IGraphWorker[] workers = layout.fWorkers;
+        int[] runStarts = layout.fRunStarts;
+        boolean[] sortedRuns = new boolean[workers.length];
+        for (int run = 0; run < workers.length; run++) {
+            boolean sorted = true;
+            for (int i = runStarts[run] + 1; i < runStarts[run + 1] && sorted; i++) {
+                sorted = layout.fTimestamps[i - 1] <= layout.fTimestamps[i];
+            }
+            sortedRuns[run] = sorted;
+        }
+        String[] qualifiers = layout.fQualifiers;
+        if (file == null) {
+            return new CompactGraph(workers, runStarts, sortedRuns, layout.fNbWorkerVertices, qualifiers, Buffers.wrap(layout));
+        }
+        /*
+         * Write to a temporary file that replaces the file once complete, so
+         * that a graph that is still mapped from a previous file stays valid
+         */
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+        CompactGraph graph;
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            SectionWriter writer = new SectionWriter(channel);
+            graph = new CompactGraph(workers, runStarts, sortedRuns, layout.fNbWorkerVertices, qualifiers, Buffers.write(layout, writer));
+            if (serializer != null) {
+                graph.writeMetadata(channel, writer, serializer, version);
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        return graph;
+    }
+
+    /**
+     * Load a graph from a file written with a worker serializer. The arrays
+     * are mapped from the file, so only the pages of the vertices and edges
+     * that are read are loaded in memory.
+     *
+     * @param file
+     *            The file
+     * @param serializer
+     *            The serializer of the workers
+     * @param version
+     *            The expected version of the graph
+     * @return The graph, or null if the file was not written with the
+     *         workers, or for another version
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public static @Nullable CompactGraph load(Path file, IGraphWorkerSerializer serializer, int version) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE) {
+                return null;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            while (trailer.hasRemaining()) {
+                if (channel.read(trailer, size - TRAILER_SIZE + trailer.position()) < 0) {
+                    return null;
+                }
+            }
+            trailer.flip();
+            long metadataStart = trailer.getLong();
+            if (trailer.getInt() != version || trailer.getInt() != MAGIC || metadataStart < 0 || metadataStart > size - TRAILER_SIZE) {
+                return null;
+            }
+            channel.position(metadataStart);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            int nbRuns = in.readInt();
+            @Nullable IGraphWorker[] workers = new IGraphWorker[nbRuns];
+            boolean[] sortedRuns = new boolean[nbRuns];
+            for (int run = 0; run < nbRuns; run++) {
+                workers[run] = in.readBoolean() ? serializer.read(in) : null;
+                sortedRuns[run] = in.readBoolean();
+            }
+            int[] runStarts = new int[nbRuns + 1];
+            for (int run = 0; run <= nbRuns; run++) {
+                runStarts[run] = in.readInt();
+            }
+            int nbWorkerVertices = in.readInt();
+            String[] qualifiers = new String[in.readInt()];
+            for (int i = 0; i < qualifiers.length; i++) {
+                qualifiers[i] = in.readUTF();
+            }
+            ByteBuffer[] sections = new ByteBuffer[NB_SECTIONS];
+            for (int i = 0; i < NB_SECTIONS; i++) {
+                long start = in.readLong();
+                long length = in.readLong();
+                if (start < 0 || length < 0 || length > Integer.MAX_VALUE || start + length > metadataStart) {
+                    return null;
+                }
+                sections[i] = channel.map(MapMode.READ_ONLY, start, length);
+            }
+            return new CompactGraph(workers, runStarts, sortedRuns, nbWorkerVertices, qualifiers, Buffers.map(sections));
+        }
+    }
+
+    private void writeMetadata(FileChannel channel, SectionWriter writer, IGraphWorkerSerializer serializer, int version) throws IOException {
+        long metadataStart = writer.fPosition;
+        channel.position(metadataStart);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        out.writeInt(fWorkers.length);
+        for (int run = 0; run < fWorkers.length; run++) {
+            IGraphWorker worker = fWorkers[run];
+            out.writeBoolean(worker != null);
+            if (worker != null) {
+                serializer.write(out, worker);
+            }
+            out.writeBoolean(fSortedRuns[run]);
+        }
+        for (int runStart : fRunStarts) {
+            out.writeInt(runStart);
+        }
+        out.writeInt(fNbWorkerVertices);
+        out.writeInt(fQualifiers.length);
+        for (String qualifier : fQualifiers) {
+            out.writeUTF(qualifier);
+        }
+        for (long[] section : writer.fSections) {
+            out.writeLong(section[0]);
+            out.writeLong(section[1]);
+        }
+        out.writeLong(metadataStart);
+        out.writeInt(version);
+        out.writeInt(MAGIC);
+        out.flush();
+    }
+
+    // ------------------------------------------------------------------------
+    // Construction
+    // ------------------------------------------------------------------------
+
+    /**
+     * Builds a compacted graph incrementally, while the graph is building.
+     * <p>
+     * The vertices of a worker are flushed in chunks: their timestamps and
+     * edges are copied to growable arrays, after which the vertex objects read
+     * and write their edges in the builder, so that the objects that are not
+     * referenced anymore can be garbage collected. An edge between two
+     * flushed vertices is stored in the edge arrays, with the type it has
+     * when the later of the two vertices is flushed. The other edges, to
+     * vertices that are not flushed yet or that are set after the flush, are
+     * kept as objects until both their vertices are flushed.
+     * <p>
+     * Once the compacted graph is built, with the runs of the workers laid out
+     * contiguously, the flushed vertex objects read their edges from it and
+     * are read-only.
+     */
+    static final class Builder {
+        /* Value of a slot without edge, the object edges are below */
+        private static final int NO_SLOT = -1;
+
+        private final Map<IGraphWorker, List<Integer>> fWorkerChunks = new LinkedHashMap<>();
+        private final List<IGraphWorker> fChunkWorkers = new ArrayList<>();
+        private final List<Integer> fChunkStarts = new ArrayList<>();
+        private final List<Integer> fChunkEnds = new ArrayList<>();
+        private final List<@Nullable TmfEdge> fObjectEdges = new ArrayList<>();
+        private final List<String> fQualifiers = new ArrayList<>();
+        private final Map<String, Integer> fQualifierIds = new HashMap<>();
+        private int fSize = 0;
+
+        private int fNbVertices = 0;
+        private long[] fTimestamps = new long[0];
+        private int[] fSlots = new int[0];
+        private int fNbEdges = 0;
+        private int[] fEdgeFrom = new int[0];
+        private int[] fEdgeTo = new int[0];
+        private byte[] fEdgeTypes = new byte[0];
+        private int[] fEdgeQualifiers = new int[0];
+
+        /* The compacted graph, and the position of each vertex in it, once built */
+        private @Nullable CompactGraph fGraph = null;
+        private int[] fPositions = new int[0];
+
+        /**
+         * Flush vertices of a worker, that follow the vertices of this worker
+         * that are already flushed
+         *
+         * @param worker
+         *            The worker
+         * @param vertices
+         *            The vertices to flush, in order
+         */
+        public void flush(IGraphWorker worker, List<TmfVertex> vertices) {
+            checkWritable();
+            int nbVertices = vertices.size();
+            if (nbVertices == 0) {
+                return;
+            }
+            int start = fNbVertices;
+            ensureVertexCapacity(start + nbVertices);
+            @Nullable TmfEdge[] edges = new TmfEdge[nbVertices * DIRECTIONS.length];
+            for (int i = 0; i < nbVertices; i++) {
+                TmfVertex vertex = vertices.get(i);
+                fTimestamps[start + i] = vertex.getTs();
+                for (EdgeDirection dir : DIRECTIONS) {
+                    edges[i * DIRECTIONS.length + dir.ordinal()] = vertex.getEdge(dir);
+                    fSlots[(start + i) * DIRECTIONS.length + dir.ordinal()] = NO_SLOT;
+                }
+                vertex.flushTo(this, start + i);
+            }
+            fNbVertices = start + nbVertices;
+            Map<TmfEdge, Integer> edgeIds = new IdentityHashMap<>();
+            for (int i = 0; i < nbVertices; i++) {
+                for (EdgeDirection dir : DIRECTIONS) {
+                    TmfEdge edge = edges[i * DIRECTIONS.length + dir.ordinal()];
+                    if (edge != null) {
+                        fSlots[(start + i) * DIRECTIONS.length + dir.ordinal()] = getSlot(start + i, dir, edge, edgeIds);
+                    }
+                }
+            }
+            fChunkWorkers.add(worker);
+            fChunkStarts.add(start);
+            fChunkEnds.add(fNbVertices);
+            fWorkerChunks.computeIfAbsent(worker, w -> new ArrayList<>()).add(fChunkStarts.size() - 1);
+            fSize += nbVertices;
+        }
+
+        private int getSlot(int index, EdgeDirection dir, TmfEdge edge, Map<TmfEdge, Integer> edgeIds) {
+            boolean outgoing = isOutgoing(dir);
+            TmfVertex self = outgoing ? edge.getVertexFrom() : edge.getVertexTo();
+            TmfVertex other = outgoing ? edge.getVertexTo() : edge.getVertexFrom();
+            int otherIndex = other.getIndexIn(this);
+            if (self.getIndexIn(this) != index || otherIndex < 0) {
+                return addObjectEdge(edge);
+            }
+            Integer id = edgeIds.get(edge);
+            if (id == null) {
+                id = outgoing ? addEdge(index, otherIndex, edge) : addEdge(otherIndex, index, edge);
+                edgeIds.put(edge, id);
+                /* The other vertex, flushed before, refers to the edge as an object */
+                int otherSlot = otherIndex * DIRECTIONS.length + getOpposite(dir).ordinal();
+                int slot = fSlots[otherSlot];
+                if (slot < NO_SLOT && fObjectEdges.get(-slot - 2) == edge) {
+                    fSlots[otherSlot] = id;
+                    fObjectEdges.set(-slot - 2, null);
+                }
+            }
+            return id;
+        }
+
+        private int addObjectEdge(TmfEdge edge) {
+            int last = fObjectEdges.size() - 1;
+            /* Both vertices of a new edge refer to the same object */
+            if (last < 0 || fObjectEdges.get(last) != edge) {
+                fObjectEdges.add(edge);
+                last++;
+            }
+            return -last - 2;
+        }
+
+        private int addEdge(int from, int to, TmfEdge edge) {
+            if (fNbEdges == fEdgeFrom.length) {
+                int capacity = Math.max(16, fNbEdges + (fNbEdges >> 1));
+                fEdgeFrom = Arrays.copyOf(fEdgeFrom, capacity);
+                fEdgeTo = Arrays.copyOf(fEdgeTo, capacity);
+                fEdgeTypes = Arrays.copyOf(fEdgeTypes, capacity);
+                fEdgeQualifiers = Arrays.copyOf(fEdgeQualifiers, capacity);
+            }
+            fEdgeFrom[fNbEdges] = from;
+            fEdgeTo[fNbEdges] = to;
+            fEdgeTypes[fNbEdges] = (byte) edge.getType().ordinal();
+            fEdgeQualifiers[fNbEdges] = getQualifierId(edge.getLinkQualifier());
+            return fNbEdges++;
+        }
+
+        private int getQualifierId(@Nullable String qualifier) {
+            if (qualifier == null) {
+                return -1;
+            }
+            return fQualifierIds.computeIfAbsent(qualifier, q -> {
+                fQualifiers.add(q);
+                return fQualifiers.size() - 1;
+            });
+        }
+
+        private void ensureVertexCapacity(int nbVertices) {
+            if (nbVertices > fTimestamps.length) {
+                int capacity = Math.max(nbVertices, fTimestamps.length + (fTimestamps.length >> 1));
+                fTimestamps = Arrays.copyOf(fTimestamps, capacity);
+                fSlots = Arrays.copyOf(fSlots, capacity * DIRECTIONS.length);
+            }
+        }
+
+        private void checkWritable() {
+            if (fGraph != null) {
+                throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+            }
+        }
+
+        /**
+         * Get an edge of a flushed vertex
+         *
+         * @param vertex
+         *            The vertex
+         * @param index
+         *            The index of the vertex
+         * @param dir
+         *            The direction of the edge
+         * @return The edge, or null if there is no edge in this direction
+         */
+        public @Nullable TmfEdge getEdge(TmfVertex vertex, int index, EdgeDirection dir) {
+            CompactGraph graph = fGraph;
+            if (graph != null) {
+                int position = fPositions[index];
+                return position < 0 ? null : graph.getEdge(graph.getVertex(position), dir);
+            }
+            int slot = fSlots[index * DIRECTIONS.length + dir.ordinal()];
+            if (slot == NO_SLOT) {
+                return null;
+            }
+            if (slot < NO_SLOT) {
+                return fObjectEdges.get(-slot - 2);
+            }
+            int from = fEdgeFrom[slot];
+            int to = fEdgeTo[slot];
+            int qualifier = fEdgeQualifiers[slot];
+            return createEdge(from == index ? vertex : getVertex(from), to == index ? vertex : getVertex(to),
+                    EDGE_TYPES[fEdgeTypes[slot]], qualifier < 0 ? null : fQualifiers.get(qualifier));
+        }
+
+        /**
+         * Set an edge of a flushed vertex
+         *
+         * @param index
+         *            The index of the vertex
+         * @param dir
+         *            The direction of the edge
+         * @param edge
+         *            The edge, or null to remove the edge
+         */
+        public void setEdge(int index, EdgeDirection dir, @Nullable TmfEdge edge) {
+            checkWritable();
+            fSlots[index * DIRECTIONS.length + dir.ordinal()] = (edge == null) ? NO_SLOT : addObjectEdge(edge);
+        }
+
+        /**
+         * Check whether a vertex is a flushed vertex, or the vertex of the
+         * compacted graph that it became
+         *
+         * @param index
+         *            The index of the flushed vertex
+         * @param vertex
+         *            The vertex to compare
+         * @return Whether the vertex is the flushed vertex
+         */
+        public boolean isVertex(int index, TmfVertex vertex) {
+            if (vertex.getIndexIn(this) >= 0) {
+                return vertex.getIndexIn(this) == index;
+            }
+            CompactGraph graph = fGraph;
+            if (graph == null || !(vertex instanceof Vertex)) {
+                return false;
+            }
+            Vertex other = (Vertex) vertex;
+            return other.fGraph == graph && other.fIndex == fPositions[index];
+        }
+
+        private TmfVertex getVertex(int index) {
+            TmfVertex vertex = new TmfVertex(fTimestamps[index]);
+            vertex.flushTo(this, index);
+            return vertex;
+        }
+
+        /**
+         * Get the number of flushed vertices of the workers
+         *
+         * @return The number of vertices
+         */
+        public int size() {
+            return fSize;
+        }
+
+        /**
+         * Get the workers that have flushed vertices
+         *
+         * @return The workers
+         */
+        public Set<IGraphWorker> getWorkers() {
+            return Collections.unmodifiableSet(fWorkerChunks.keySet());
+        }
+
+        /**
+         * Get the flushed vertices of a worker
+         *
+         * @param worker
+         *            The worker
+         * @return The vertices, empty if the worker has no flushed vertex
+         */
+        public List<TmfVertex> getNodesOf(IGraphWorker worker) {
+            List<Integer> chunks = fWorkerChunks.get(worker);
+            if (chunks == null) {
+                return Collections.emptyList();
+            }
+            int nbChunks = chunks.size();
+            int[] starts = new int[nbChunks];
+            int[] offsets = new int[nbChunks + 1];
+            for (int i = 0; i < nbChunks; i++) {
+                int chunk = chunks.get(i);
+                starts[i] = fChunkStarts.get(chunk);
+                offsets[i + 1] = offsets[i] + fChunkEnds.get(chunk) - starts[i];
+            }
+            return new AbstractList<TmfVertex>() {
+                @Override
+                public TmfVertex get(int index) {
+                    if (index < 0 || index >= offsets[nbChunks]) {
+                        throw new IndexOutOfBoundsException(String.valueOf(index));
+                    }
+                    /* Chunks are never empty, so their offsets are all different */
+                    int chunk = Arrays.binarySearch(offsets, index);
+                    chunk = chunk < 0 ? -chunk - 2 : chunk;
+                    return getVertex(starts[chunk] + index - offsets[chunk]);
+                }
+
+                @Override
+                public int size() {
+                    return offsets[nbChunks];
+                }
+            };
+        }
+
+        /**
+         * Get the worker of a flushed vertex
+         *
+         * @param vertex
+         *            The vertex
+         * @return The worker, or null if the vertex was not flushed to this
+         *         builder or was removed from its worker
+         */
+        public @Nullable IGraphWorker getParentOf(TmfVertex vertex) {
+            int index = vertex.getIndexIn(this);
+            if (index < 0) {
+                return null;
+            }
+            int chunk = Collections.binarySearch(fChunkStarts, index);
+            chunk = chunk < 0 ? -chunk - 2 : chunk;
+            return index < fChunkEnds.get(chunk) ? fChunkWorkers.get(chunk) : null;
+        }
+
+        /**
+         * Remove the last flushed vertex of a worker
+         *
+         * @param worker
+         *            The worker
+         * @return The removed vertex, or null if the worker has no flushed
+         *         vertex
+         */
+        public @Nullable TmfVertex removeLast(IGraphWorker worker) {
+            List<Integer> chunks = fWorkerChunks.get(worker);
+            if (chunks == null) {
+                return null;
+            }
+            checkWritable();
+            int chunk = chunks.get(chunks.size() - 1);
+            int index = fChunkEnds.get(chunk) - 1;
+            fChunkEnds.set(chunk, index);
+            fSize--;
+            if (index == fChunkStarts.get(chunk)) {
+                chunks.remove(chunks.size() - 1);
+                if (chunks.isEmpty()) {
+                    fWorkerChunks.remove(worker);
+                }
+            }
+            return getVertex(index);
+        }
+
+        /**
+         * Build the compacted graph from the flushed vertices. The vertices
+         * that are linked to but were not flushed with a worker are stored in
+         * a last run without worker. The builder is read-only afterwards.
+         *
+         * @param file
+         *            The file where to write the arrays, or null to keep them
+         *            on the heap
+         * @param serializer
+         *            The serializer of the workers, to save the workers in
+         *            the file, or null if the file is only used during this
+         *            session
+         * @param version
+         *            The version of the graph, saved with the workers
+         * @return The compacted graph
+         * @throws IOException
+         *             If the file cannot be written, the builder can then be
+         *             built again
+         */
+        public CompactGraph build(@Nullable Path file, @Nullable IGraphWorkerSerializer serializer, int version) throws IOException {
+            CompactGraph graph = fGraph;
+            if (graph != null) {
+                return graph;
+            }
+            Linker linker = new Linker();
+            graph = create(linker.link(), file, serializer, version);
+            fGraph = graph;
+            fPositions = linker.fPositions;
+            fTimestamps = new long[0];
+            fSlots = new int[0];
+            fEdgeFrom = new int[0];
+            fEdgeTo = new int[0];
+            fEdgeTypes = new byte[0];
+            fEdgeQualifiers = new int[0];
+            fObjectEdges.clear();
+            fWorkerChunks.clear();
+            return graph;
+        }
+
+        /**
+         * Lays out the flushed vertices in the runs of their workers, and
+         * resolves the edges to the positions of their vertices
+         */
+        private final class Linker {
+            private final int[] fPositions = new int[fNbVertices];
+            private final int[] fEdgeIds = new int[fNbEdges];
+            private final List<TmfVertex> fOrphans = new ArrayList<>();
+            private final Map<TmfVertex, Integer> fOrphanPositions = new IdentityHashMap<>();
+            private final Map<TmfEdge, Integer> fObjectEdgeIds = new IdentityHashMap<>();
+
+            /* The index of the vertex at each position, or -1 - i for the ith orphan */
+            private int[] fOrder = new int[fSize];
+            private int fNbPositions = 0;
+            private int fNbLinkedEdges = 0;
+            private int[] fLinkedFrom = new int[fNbEdges];
+            private int[] fLinkedTo = new int[fNbEdges];
+            private byte[] fLinkedTypes = new byte[fNbEdges];
+            private int[] fLinkedQualifiers = new int[fNbEdges];
+
+            public Linker() {
+                Arrays.fill(fPositions, -1);
+                Arrays.fill(fEdgeIds, -1);
+            }
+
+            public Layout link() {
+                List<@Nullable IGraphWorker> runWorkers = new ArrayList<>();
+                List<Integer> runStarts = new ArrayList<>();
+                for (Map.Entry<IGraphWorker, List<Integer>> entry : fWorkerChunks.entrySet()) {
+                    runWorkers.add(entry.getKey());
+                    runStarts.add(fNbPositions);
+                    for (int chunk : entry.getValue()) {
+                        for (int i = fChunkStarts.get(chunk); i < fChunkEnds.get(chunk); i++) {
+                            fPositions[i] = addPosition(i);
+                        }
+                    }
+                }
+                int nbWorkerVertices = fNbPositions;
+                runStarts.add(nbWorkerVertices);
+
+                byte[] horizontalTypes = new byte[nbWorkerVertices];
+                LongStream.Builder slotKeys = LongStream.builder();
+                IntStream.Builder slotEdges = IntStream.builder();
+                int run = 0;
+                /* The orphans are added to the positions while the edges are resolved */
+                for (int i = 0; i < fNbPositions; i++) {
+                    if (i < nbWorkerVertices) {
+                        while (runStarts.get(run + 1) <= i) {
+                            run++;
+                        }
+                        if (i + 1 < runStarts.get(run + 1)) {
+                            int outgoing = getEdgeId(i, EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+                            if (outgoing >= 0 && fLinkedTo[outgoing] == i + 1 && fLinkedQualifiers[outgoing] < 0
+                                    && getEdgeId(i + 1, EdgeDirection.INCOMING_HORIZONTAL_EDGE) == outgoing) {
+                                horizontalTypes[i] = (byte) (fLinkedTypes[outgoing] + 1);
+                            }
+                        }
+                    }
+                    for (EdgeDirection dir : DIRECTIONS) {
+                        int edge = getEdgeId(i, dir);
+                        if (edge >= 0 && !isImplicit(horizontalTypes, i, dir)) {
+                            slotKeys.add(getSlotKey(i, dir));
+                            slotEdges.add(edge);
+                        }
+                    }
+                }
+                if (fNbPositions > nbWorkerVertices) {
+                    runWorkers.add(null);
+                    runStarts.add(fNbPositions);
+                }
+
+                long[] timestamps = new long[fNbPositions];
+                for (int i = 0; i < fNbPositions; i++) {
+                    int index = fOrder[i];
+                    timestamps[i] = index >= 0 ? fTimestamps[index] : fOrphans.get(-index - 1).getTs();
+                }
+                return new Layout(runWorkers.toArray(new IGraphWorker[runWorkers.size()]),
+                        runStarts.stream().mapToInt(Integer::intValue).toArray(), nbWorkerVertices,
+                        fQualifiers.toArray(new String[fQualifiers.size()]), timestamps,
+                        Arrays.copyOf(horizontalTypes, fNbPositions), slotKeys.build().toArray(), slotEdges.build().toArray(),
+                        Arrays.copyOf(fLinkedFrom, fNbLinkedEdges), Arrays.copyOf(fLinkedTo, fNbLinkedEdges),
+                        Arrays.copyOf(fLinkedTypes, fNbLinkedEdges), Arrays.copyOf(fLinkedQualifiers, fNbLinkedEdges));
+            }
+
+            private boolean isImplicit(byte[] horizontalTypes, int position, EdgeDirection dir) {
+                switch (dir) {
+                case OUTGOING_HORIZONTAL_EDGE:
+                    return position < horizontalTypes.length && horizontalTypes[position] != NO_EDGE;
+                case INCOMING_HORIZONTAL_EDGE:
+                    /* The last vertex of a run never has an implicit edge */
+                    return position > 0 && position - 1 < horizontalTypes.length && horizontalTypes[position - 1] != NO_EDGE;
+                case INCOMING_VERTICAL_EDGE:
+                case OUTGOING_VERTICAL_EDGE:
+                default:
+                    return false;
+                }
+            }
+
+            private int addPosition(int index) {
+                if (fNbPositions == fOrder.length) {
+                    fOrder = Arrays.copyOf(fOrder, Math.max(16, fNbPositions + (fNbPositions >> 1)));
+                }
+                fOrder[fNbPositions] = index;
+                return fNbPositions++;
+            }
+
+            private int getPosition(int index) {
+                if (fPositions[index] < 0) {
+                    /* A vertex removed from its worker, but still linked to */
+                    fPositions[index] = addPosition(index);
+                }
+                return fPositions[index];
+            }
+
+            private int getPosition(TmfVertex vertex) {
+                int index = vertex.getIndexIn(Builder.this);
+                if (index >= 0) {
+                    return getPosition(index);
+                }
+                Integer position = fOrphanPositions.get(vertex);
+                if (position == null) {
+                    fOrphans.add(vertex);
+                    position = addPosition(-fOrphans.size());
+                    fOrphanPositions.put(vertex, position);
+                }
+                return position;
+            }
+
+            private int getEdgeId(int position, EdgeDirection dir) {
+                int index = fOrder[position];
+                if (index < 0) {
+                    TmfEdge edge = fOrphans.get(-index - 1).getEdge(dir);
+                    return edge == null ? -1 : getEdgeId(edge);
+                }
+                int slot = fSlots[index * DIRECTIONS.length + dir.ordinal()];
+                if (slot == NO_SLOT) {
+                    return -1;
+                }
+                if (slot < NO_SLOT) {
+                    TmfEdge edge = fObjectEdges.get(-slot - 2);
+                    return edge == null ? -1 : getEdgeId(edge);
+                }
+                if (fEdgeIds[slot] < 0) {
+                    fEdgeIds[slot] = addLinkedEdge(getPosition(fEdgeFrom[slot]), getPosition(fEdgeTo[slot]),
+                            fEdgeTypes[slot], fEdgeQualifiers[slot]);
+                }
+                return fEdgeIds[slot];
+            }
+
+            private int getEdgeId(TmfEdge edge) {
+                Integer id = fObjectEdgeIds.get(edge);
+                if (id == null) {
+                    id = addLinkedEdge(getPosition(edge.getVertexFrom()), getPosition(edge.getVertexTo()),
+                            (byte) edge.getType().ordinal(), getQualifierId(edge.getLinkQualifier()));
+                    fObjectEdgeIds.put(edge, id);
+                }
+                return id;
+            }
+
+            private int addLinkedEdge(int from, int to, byte type, int qualifier) {
+                if (fNbLinkedEdges == fLinkedFrom.length) {
+                    int capacity = Math.max(16, fNbLinkedEdges + (fNbLinkedEdges >> 1));
+                    fLinkedFrom = Arrays.copyOf(fLinkedFrom, capacity);
+                    fLinkedTo = Arrays.copyOf(fLinkedTo, capacity);
+                    fLinkedTypes = Arrays.copyOf(fLinkedTypes, capacity);
+                    fLinkedQualifiers = Arrays.copyOf(fLinkedQualifiers, capacity);
+                }
+                fLinkedFrom[fNbLinkedEdges] = from;
+                fLinkedTo[fNbLinkedEdges] = to;
+                fLinkedTypes[fNbLinkedEdges] = type;
+                fLinkedQualifiers[fNbLinkedEdges] = qualifier;
+                return fNbLinkedEdges++;
+            }
+        }
+    }
+
+    /**
+     * The arrays of a graph that is done building, before they are wrapped or
+     * written to a file
+     */
+    private static final class Layout {
+        private final @Nullable IGraphWorker[] fWorkers;
+        private final int[] fRunStarts;
+        private final int fNbWorkerVertices;
+        private final String[] fQualifiers;
+        private final long[] fTimestamps;
+        private final byte[] fHorizontalTypes;
+        private final long[] fSlotKeys;
+        private final int[] fSlotEdges;
+        private final int[] fEdgeFrom;
+        private final int[] fEdgeTo;
+        private final byte[] fEdgeTypes;
+        private final int[] fEdgeQualifiers;
+
+        public Layout(@Nullable IGraphWorker[] workers, int[] runStarts, int nbWorkerVertices, String[] qualifiers,
+                long[] timestamps, byte[] horizontalTypes, long[] slotKeys, int[] slotEdges,
+                int[] edgeFrom, int[] edgeTo, byte[] edgeTypes, int[] edgeQualifiers) {
+            fWorkers = workers;
+            fRunStarts = runStarts;
+            fNbWorkerVertices = nbWorkerVertices;
+            fQualifiers = qualifiers;
+            fTimestamps = timestamps;
+            fHorizontalTypes = horizontalTypes;
+            fSlotKeys = slotKeys;
+            fSlotEdges = slotEdges;
+            fEdgeFrom = edgeFrom;
+            fEdgeTo = edgeTo;
+            fEdgeTypes = edgeTypes;
+            fEdgeQualifiers = edgeQualifiers;
+        }
+    }
+
+    private static boolean isOutgoing(EdgeDirection dir) {
+        return dir == EdgeDirection.OUTGOING_HORIZONTAL_EDGE || dir == EdgeDirection.OUTGOING_VERTICAL_EDGE;
+    }
+
+    private static EdgeDirection getOpposite(EdgeDirection dir) {
+        switch (dir) {
+        case OUTGOING_HORIZONTAL_EDGE:
+            return EdgeDirection.INCOMING_HORIZONTAL_EDGE;
+        case INCOMING_HORIZONTAL_EDGE:
+            return EdgeDirection.OUTGOING_HORIZONTAL_EDGE;
+        case OUTGOING_VERTICAL_EDGE:
+            return EdgeDirection.INCOMING_VERTICAL_EDGE;
+        case INCOMING_VERTICAL_EDGE:
+        default:
+            return EdgeDirection.OUTGOING_VERTICAL_EDGE;
+        }
+    }
+
+    private static long getSlotKey(int index, EdgeDirection dir) {
+        return (long) index * DIRECTIONS.length + dir.ordinal();
+    }
+
+    /**
+     * The arrays of the graph, either wrapping heap arrays or mapped from a
+     * file
+     */
+    private static final class Buffers {
+        private final LongBuffer fTimestamps;
+        private final ByteBuffer fHorizontalTypes;
+        private final LongBuffer fSlotKeys;
+        private final IntBuffer fSlotEdges;
+        private final IntBuffer fEdgeFrom;
+        private final IntBuffer fEdgeTo;
+        private final ByteBuffer fEdgeTypes;
+        private final IntBuffer fEdgeQualifiers;
+
+        private Buffers(LongBuffer timestamps, ByteBuffer horizontalTypes, LongBuffer slotKeys, IntBuffer slotEdges,
+                IntBuffer edgeFrom, IntBuffer edgeTo, ByteBuffer edgeTypes, IntBuffer edgeQualifiers) {
+            fTimestamps = timestamps;
+            fHorizontalTypes = horizontalTypes;
+            fSlotKeys = slotKeys;
+            fSlotEdges = slotEdges;
+            fEdgeFrom = edgeFrom;
+            fEdgeTo = edgeTo;
+            fEdgeTypes = edgeTypes;
+            fEdgeQualifiers = edgeQualifiers;
+        }
+
+        public static Buffers wrap(Layout layout) {
+            return new Buffers(LongBuffer.wrap(layout.fTimestamps),
+                    ByteBuffer.wrap(layout.fHorizontalTypes),
+                    LongBuffer.wrap(layout.fSlotKeys),
+                    IntBuffer.wrap(layout.fSlotEdges),
+                    IntBuffer.wrap(layout.fEdgeFrom),
+                    IntBuffer.wrap(layout.fEdgeTo),
+                    ByteBuffer.wrap(layout.fEdgeTypes),
+                    IntBuffer.wrap(layout.fEdgeQualifiers));
+        }
+
+        public static Buffers write(Layout layout, SectionWriter writer) throws IOException {
+            return new Buffers(writer.write(layout.fTimestamps).asLongBuffer(),
+                    writer.write(layout.fHorizontalTypes),
+                    writer.write(layout.fSlotKeys).asLongBuffer(),
+                    writer.write(layout.fSlotEdges).asIntBuffer(),
+                    writer.write(layout.fEdgeFrom).asIntBuffer(),
+                    writer.write(layout.fEdgeTo).asIntBuffer(),
+                    writer.write(layout.fEdgeTypes),
+                    writer.write(layout.fEdgeQualifiers).asIntBuffer());
+        }
+
+        public static Buffers map(ByteBuffer[] sections) {
+            return new Buffers(sections[0].asLongBuffer(), sections[1], sections[2].asLongBuffer(), sections[3].asIntBuffer(),
+                    sections[4].asIntBuffer(), sections[5].asIntBuffer(), sections[6], sections[7].asIntBuffer());
+        }
+    }
+
+    /**
+     * Writes arrays one after the other in a file, and maps them back
+     * read-only. The mappings stay valid after the channel is closed.
+     */
+    private static final class SectionWriter {
+        private static final int CHUNK_SIZE = 1 << 16;
+        private final FileChannel fChannel;
+        private final ByteBuffer fChunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        /* The start and length of each section */
+        private final List<long[]> fSections = new ArrayList<>();
+        private long fPosition = 0;
+
+        public SectionWriter(FileChannel channel) {
+            fChannel = channel;
+        }
+
+        public ByteBuffer write(long[] values) throws IOException {
+            long start = fPosition;
+            for (long value : values) {
+                if (fChunk.remaining() < Long.BYTES) {
+                    flush();
+                }
+                fChunk.putLong(value);
+            }
+            return map(start);
+        }
+
+        public ByteBuffer write(int[] values) throws IOException {
+            long start = fPosition;
+            for (int value : values) {
+                if (fChunk.remaining() < Integer.BYTES) {
+                    flush();
+                }
+                fChunk.putInt(value);
+            }
+            return map(start);
+        }
+
+        public ByteBuffer write(byte[] values) throws IOException {
+            long start = fPosition;
+            for (byte value : values) {
+                if (!fChunk.hasRemaining()) {
+                    flush();
+                }
+                fChunk.put(value);
+            }
+            return map(start);
+        }
+
+        private void flush() throws IOException {
+            fChunk.flip();
+            while (fChunk.hasRemaining()) {
+                fPosition += fChannel.write(fChunk, fPosition);
+            }
+            fChunk.clear();
+        }
+
+        private ByteBuffer map(long start) throws IOException {
+            flush();
+            long size = fPosition - start;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Graph section too large to be mapped: " + size); //$NON-NLS-1$
+            }
+            fSections.add(new long[] { start, size });
+            return fChannel.map(MapMode.READ_ONLY, start, size);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Accessors
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the workers of the graph
+     *
+     * @return The workers, in the order of their runs
+     */
+    public Set<IGraphWorker> getWorkers() {
+        return Collections.unmodifiableSet(fRunIndexes.keySet());
+    }
+
+    /**
+     * Get the number of vertices of the workers
+     *
+     * @return The number of vertices
+     */
+    public int size() {
+        return fNbWorkerVertices;
+    }
+
+    /**
+     * Get the vertices of a worker
+     *
+     * @param worker
+     *            The worker
+     * @return The unmodifiable list of vertices, empty if the worker is not in
+     *         the graph
+     */
+    public List<TmfVertex> getNodesOf(IGraphWorker worker) {
+        Integer run = fRunIndexes.get(worker);
+        if (run == null) {
+            return Collections.emptyList();
+        }
+        int start = fRunStarts[run];
+        int size = fRunStarts[run + 1] - start;
+        return new AbstractList<TmfVertex>() {
+            @Override
+            public TmfVertex get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(String.valueOf(index));
+                }
+                return getVertex(start + index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get the worker of a vertex
+     *
+     * @param vertex
+     *            The vertex
+     * @return The worker, or null if the vertex is not a vertex of the workers
+     *         of this graph
+     */
+    public @Nullable IGraphWorker getParentOf(TmfVertex vertex) {
+        if (!(vertex instanceof Vertex) || ((Vertex) vertex).fGraph != this) {
+            return null;
+        }
+        int index = ((Vertex) vertex).fIndex;
+        if (index >= fNbWorkerVertices) {
+            return null;
+        }
+        return fWorkers[getRun(index)];
+    }
+
+    /**
+     * Get the first vertex of a worker at or after a time
+     *
+     * @param ts
+     *            The time
+     * @param worker
+     *            The worker
+     * @return The vertex, or null if there is no such vertex
+     */
+    public @Nullable TmfVertex getVertexAt(long ts, IGraphWorker worker) {
+        Integer run = fRunIndexes.get(worker);
+        if (run == null) {
+            return null;
+        }
+        int start = fRunStarts[run];
+        int end = fRunStarts[run + 1];
+        if (!fSortedRuns[run]) {
+            for (int i = start; i < end; i++) {
+                if (fTimestamps.get(i) >= ts) {
+                    return getVertex(i);
+                }
+            }
+            return null;
+        }
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fTimestamps.get(mid) < ts) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < end ? getVertex(low) : null;
+    }
+
+    private int getRun(int index) {
+        int run = Arrays.binarySearch(fRunStarts, index);
+        /* Runs are never empty, so their starts are all different */
+        return run < 0 ? -run - 2 : run;
+    }
+
+    private Vertex getVertex(int index) {
+        return new Vertex(this, index, fTimestamps.get(index));
+    }
+
+    private @Nullable TmfEdge getEdge(Vertex vertex, EdgeDirection dir) {
+        int index = vertex.fIndex;
+        int slot = findSlot(getSlotKey(index, dir));
+        if (slot >= 0) {
+            int edge = fSlotEdges.get(slot);
+            int from = fEdgeFrom.get(edge);
+            int to = fEdgeTo.get(edge);
+            int qualifier = fEdgeQualifiers.get(edge);
+            return createEdge(from == index ? vertex : getVertex(from), to == index ? vertex : getVertex(to),
+                    EDGE_TYPES[fEdgeTypes.get(edge)], qualifier < 0 ? null : fQualifiers[qualifier]);
+        }
+        switch (dir) {
+        case OUTGOING_HORIZONTAL_EDGE: {
+            byte type = fHorizontalTypes.get(index);
+            return type == NO_EDGE ? null : createEdge(vertex, getVertex(index + 1), EDGE_TYPES[type - 1], null);
+        }
+        case INCOMING_HORIZONTAL_EDGE: {
+            byte type = index > 0 ? fHorizontalTypes.get(index - 1) : NO_EDGE;
+            return type == NO_EDGE ? null : createEdge(getVertex(index - 1), vertex, EDGE_TYPES[type - 1], null);
+        }
+        case INCOMING_VERTICAL_EDGE:
+        case OUTGOING_VERTICAL_EDGE:
+        default:
+            return null;
+        }
+    }
+
+    private int findSlot(long key) {
+        int low = 0;
+        int high = fSlotKeys.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = fSlotKeys.get(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static TmfEdge createEdge(TmfVertex from, TmfVertex to, EdgeType type, @Nullable String qualifier) {
+        TmfEdge edge = new TmfEdge(from, to);
+        edge.setType(type, qualifier);
+        return edge;
+    }
+
+    /**
+     * A vertex of a compacted graph, whose edges are read from the arrays. Two
+     * vertices of the same graph are equal if they have the same index, and
+     * they are equal to the flushed vertex they were built from. The vertex
+     * cannot be linked to other vertices.
+     */
+    private static final class Vertex extends TmfVertex {
+        private final CompactGraph fGraph;
+        private final int fIndex;
+
+        public Vertex(CompactGraph graph, int index, long ts) {
+            super(ts, index);
+            fGraph = graph;
+            fIndex = index;
+        }
+
+        @Override
+        public @Nullable TmfEdge getEdge(EdgeDirection dir) {
+            return fGraph.getEdge(this, dir);
+        }
+
+        @Override
+        public TmfEdge linkHorizontal(TmfVertex to) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        public TmfEdge linkHorizontal(TmfVertex to, EdgeType type, @Nullable String linkQualifier) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        public TmfEdge linkVertical(TmfVertex to) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        public TmfEdge linkVertical(TmfVertex to, EdgeType type, @Nullable String linkQualifier) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        public void removeEdge(EdgeDirection dir) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        void setEdge(EdgeDirection dir, @Nullable TmfEdge edge) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj instanceof Vertex) {
+                Vertex other = (Vertex) obj;
+                return fGraph == other.fGraph && fIndex == other.fIndex;
+            }
+            /* A flushed vertex knows the vertex it became */
+            return obj instanceof TmfVertex && obj.equals(this);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.base;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Interface to write and read the workers of a graph, so that the graph can be
+ * saved to a file and loaded again, see
+ * {@link TmfGraph#save(java.nio.file.Path, IGraphWorkerSerializer, int)}.
+ *
+ * @since 3.2
+ */
+public interface IGraphWorkerSerializer {
+
+    /**
+     * Write a worker
+     *
+     * @param out
+     *            The output to write to
+     * @param worker
+     *            The worker to write
+     * @throws IOException
+     *             If the worker cannot be written
+     */
+    void write(DataOutput out, IGraphWorker worker) throws IOException;
+
+    /**
+     * Read a worker written by {@link #write(DataOutput, IGraphWorker)}. The
+     * worker must be equal to the worker that was written.
+     *
+     * @param in
+     *            The input to read from
+     * @return The worker
+     * @throws IOException
+     *             If the worker cannot be read
+     */
+    IGraphWorker read(DataInput in) throws IOException;
+
+}
@@ -15,10 +15,15 @@
 
 package org.eclipse.tracecompass.analysis.graph.core.base;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -34,7 +39,6 @@ import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 
 /**
@@ -45,23 +49,38 @@ import com.google.common.collect.ListMultimap;
  * belongs to an object (the key of the multimap) at a given time. This is why
  * we use a ListMultimap to represent the graph, instead of a simple list.
  *
+ * Once the graph is built, it can be compacted in arrays with
+ * {@link #compact(Path)}, after which it is read-only. While it is building,
+ * the vertices are flushed to these arrays when there are too many vertex
+ * objects, see {@link #flush()}.
+ *
  * @author Francis Giraldeau
  * @author Geneviève Bastien
  */
 public class TmfGraph {
 
+    /* Number of vertex objects above which the vertices are flushed */
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
     private final ListMultimap<IGraphWorker, TmfVertex> fNodeMap;
     private final Map<TmfVertex, IGraphWorker> fReverse;
 
     /* Latch tracking if the graph is done building or not */
     private final CountDownLatch fFinishedLatch = new CountDownLatch(1);
 
+    /* The compacted graph, that replaces the node map once set */
+    private volatile @Nullable CompactGraph fCompactGraph = null;
+
+    /* The builder of the compacted graph, once vertices are flushed */
+    private CompactGraph.@Nullable Builder fBuilder = null;
+    private int fFlushThreshold = FLUSH_THRESHOLD;
+
     /**
      * Constructor
      */
     public TmfGraph() {
         fNodeMap = NonNullUtils.checkNotNull(ArrayListMultimap.create());
-        fReverse = new HashMap<>();
+        fReverse = new IdentityHashMap<>();
     }
 
     /**
@@ -73,6 +92,8 @@ public class TmfGraph {
      *            The new vertex
      */
     public void add(IGraphWorker worker, TmfVertex vertex) {
+        checkWritable();
+        flushIfNeeded();
         List<TmfVertex> list = fNodeMap.get(worker);
         list.add(vertex);
         fReverse.put(vertex, worker);
@@ -103,6 +124,8 @@ public class TmfGraph {
      * @return The edge constructed
      */
     public @Nullable TmfEdge append(IGraphWorker worker, TmfVertex vertex, EdgeType type) {
+        checkWritable();
+        flushIfNeeded();
         List<TmfVertex> list = fNodeMap.get(worker);
         TmfVertex tail = getTail(worker);
         TmfEdge link = null;
@@ -130,6 +153,8 @@ public class TmfGraph {
      * @since 2.1
      */
     public @Nullable TmfEdge append(IGraphWorker worker, TmfVertex vertex, EdgeType type, @Nullable String linkQualifier) {
+        checkWritable();
+        flushIfNeeded();
         List<TmfVertex> list = fNodeMap.get(worker);
         TmfVertex tail = getTail(worker);
         TmfEdge link = null;
@@ -178,8 +203,9 @@ public class TmfGraph {
      * @return The newly created edge
      */
     public TmfEdge link(TmfVertex from, TmfVertex to, EdgeType type) {
-        IGraphWorker ofrom = fReverse.get(from);
-        IGraphWorker oto = fReverse.get(to);
+        checkWritable();
+        IGraphWorker ofrom = getWorkerOf(from);
+        IGraphWorker oto = getWorkerOf(to);
         if (ofrom == null) {
             throw new IllegalArgumentException(Messages.TmfGraph_FromNotInGraph);
         }
@@ -221,8 +247,9 @@ public class TmfGraph {
      * @since 2.1
      */
     public TmfEdge link(TmfVertex from, TmfVertex to, EdgeType type, String linkQualifier) {
-        IGraphWorker ofrom = fReverse.get(from);
-        IGraphWorker oto = fReverse.get(to);
+        checkWritable();
+        IGraphWorker ofrom = getWorkerOf(from);
+        IGraphWorker oto = getWorkerOf(to);
         if (ofrom == null) {
             throw new IllegalArgumentException(Messages.TmfGraph_FromNotInGraph);
         }
@@ -250,7 +277,11 @@ public class TmfGraph {
      * @return The last vertex of obj
      */
     public @Nullable TmfVertex getTail(IGraphWorker worker) {
-        List<TmfVertex> list = fNodeMap.get(worker);
+        CompactGraph compactGraph = fCompactGraph;
+        List<TmfVertex> list = (compactGraph != null) ? compactGraph.getNodesOf(worker) : fNodeMap.get(worker);
+        if (list.isEmpty()) {
+            list = getFlushedNodesOf(worker);
+        }
         if (!list.isEmpty()) {
             return list.get(list.size() - 1);
         }
@@ -265,13 +296,16 @@ public class TmfGraph {
      * @return The removed vertex
      */
     public @Nullable TmfVertex removeTail(IGraphWorker worker) {
+        checkWritable();
+        flushIfNeeded();
         List<TmfVertex> list = fNodeMap.get(worker);
         if (!list.isEmpty()) {
             TmfVertex last = list.remove(list.size() - 1);
             fReverse.remove(last);
             return last;
         }
-        return null;
+        CompactGraph.Builder builder = fBuilder;
+        return (builder != null) ? builder.removeLast(worker) : null;
     }
 
     /**
@@ -283,8 +317,7 @@ public class TmfGraph {
      * @return The head vertex
      */
     public @Nullable TmfVertex getHead(IGraphWorker worker) {
-        IGraphWorker ref = worker;
-        List<TmfVertex> list = fNodeMap.get(ref);
+        List<TmfVertex> list = getNodesOf(worker);
         if (!list.isEmpty()) {
             return list.get(0);
         }
@@ -298,12 +331,20 @@ public class TmfGraph {
      * @return The head vertex
      */
     public @Nullable TmfVertex getHead() {
-        if (fNodeMap.isEmpty()) {
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            Optional<TmfVertex> min = compactGraph.getWorkers().stream()
+                    .map(w -> compactGraph.getNodesOf(w).get(0))
+                    .min((k1, k2) -> k1.compareTo(k2));
+            return min.isPresent() ? min.get() : null;
+        }
+        if (fNodeMap.isEmpty() && fBuilder == null) {
             return null;
         }
-        Optional<TmfVertex> min = fNodeMap.asMap().values().stream()
+        Optional<TmfVertex> min = getWorkers().stream()
+                .map(w -> getNodesOf(w))
                 .filter(c -> !c.isEmpty())
-                .map(c -> Iterables.get(c, 0))
+                .map(c -> c.get(0))
                 .min((k1, k2) -> k1.compareTo(k2));
         // issue with annotations, cannot return min.orElse(null);
         return min.isPresent() ? min.get() : null;
@@ -323,7 +364,7 @@ public class TmfGraph {
         TmfEdge edge = headNode.getEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE);
         while (edge != null) {
             headNode = edge.getVertexFrom();
-            if (headNode == vertex) {
+            if (headNode.equals(vertex)) {
                 throw new CycleDetectedException();
             }
             edge = headNode.getEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE);
@@ -339,7 +380,31 @@ public class TmfGraph {
      * @return The list of vertices for the object
      */
     public List<TmfVertex> getNodesOf(IGraphWorker obj) {
-        return fNodeMap.get(obj);
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return compactGraph.getNodesOf(obj);
+        }
+        List<TmfVertex> flushed = getFlushedNodesOf(obj);
+        List<TmfVertex> nodes = fNodeMap.get(obj);
+        if (flushed.isEmpty()) {
+            return nodes;
+        }
+        return new AbstractList<TmfVertex>() {
+            @Override
+            public TmfVertex get(int index) {
+                return (index < flushed.size()) ? flushed.get(index) : nodes.get(index - flushed.size());
+            }
+
+            @Override
+            public int size() {
+                return flushed.size() + nodes.size();
+            }
+        };
+    }
+
+    private List<TmfVertex> getFlushedNodesOf(IGraphWorker worker) {
+        CompactGraph.Builder builder = fBuilder;
+        return (builder != null) ? builder.getNodesOf(worker) : Collections.emptyList();
     }
 
     /**
@@ -350,7 +415,20 @@ public class TmfGraph {
      * @return The object the vertex belongs to
      */
     public @Nullable IGraphWorker getParentOf(TmfVertex node) {
-        return fReverse.get(node);
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return compactGraph.getParentOf(node);
+        }
+        return getWorkerOf(node);
+    }
+
+    private @Nullable IGraphWorker getWorkerOf(TmfVertex vertex) {
+        IGraphWorker worker = fReverse.get(vertex);
+        CompactGraph.Builder builder = fBuilder;
+        if (worker == null && builder != null) {
+            worker = builder.getParentOf(vertex);
+        }
+        return worker;
     }
 
     /**
@@ -359,6 +437,14 @@ public class TmfGraph {
      * @return The vertex map
      */
     public Set<IGraphWorker> getWorkers() {
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return compactGraph.getWorkers();
+        }
+        CompactGraph.Builder builder = fBuilder;
+        if (builder != null) {
+            return ImmutableSet.<IGraphWorker> builder().addAll(builder.getWorkers()).addAll(fNodeMap.keySet()).build();
+        }
         return ImmutableSet.copyOf(fNodeMap.keySet());
     }
 
@@ -368,13 +454,23 @@ public class TmfGraph {
      * @return number of vertices
      */
     public int size() {
-        return fReverse.size();
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return compactGraph.size();
+        }
+        CompactGraph.Builder builder = fBuilder;
+        return fReverse.size() + ((builder != null) ? builder.size() : 0);
     }
 
     @Override
     public String toString() {
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return NonNullUtils.nullToEmptyString(String.format("Graph { actors=%d, nodes=%d }", //$NON-NLS-1$
+                    compactGraph.getWorkers().size(), compactGraph.size()));
+        }
         return NonNullUtils.nullToEmptyString(String.format("Graph { actors=%d, nodes=%d }", //$NON-NLS-1$
-                fNodeMap.keySet().size(), fNodeMap.values().size()));
+                getWorkers().size(), size()));
     }
 
     /**
@@ -384,9 +480,9 @@ public class TmfGraph {
      */
     public String dump() {
         StringBuilder str = new StringBuilder();
-        for (IGraphWorker obj : fNodeMap.keySet()) {
+        for (IGraphWorker obj : getWorkers()) {
             str.append(String.format("%10s ", obj)); //$NON-NLS-1$
-            str.append(fNodeMap.get(obj));
+            str.append(getNodesOf(obj));
             str.append("\n"); //$NON-NLS-1$
         }
         return NonNullUtils.nullToEmptyString(str.toString());
@@ -478,7 +574,11 @@ public class TmfGraph {
      * @return Vertex at timestamp or null if no vertex at or after timestamp
      */
     public @Nullable TmfVertex getVertexAt(ITmfTimestamp startTime, IGraphWorker worker) {
-        List<TmfVertex> list = fNodeMap.get(worker);
+        CompactGraph compactGraph = fCompactGraph;
+        if (compactGraph != null) {
+            return compactGraph.getVertexAt(startTime.getValue(), worker);
+        }
+        List<TmfVertex> list = getNodesOf(worker);
 
         long ts = startTime.getValue();
         // Scan the list until vertex is later than time
@@ -506,4 +606,158 @@ public class TmfGraph {
         fFinishedLatch.countDown();
     }
 
+    /**
+     * Compact the graph once it is built. The vertices and edges are stored in
+     * arrays instead of objects, which takes a fraction of the memory, and the
+     * vertex and edge objects returned by the graph are created on demand. The
+     * vertices of a compacted graph are equal if they are at the same place in
+     * the graph, but are not the same objects as the vertices that were added.
+     * The graph cannot be modified after this call.
+     *
+     * @param spillFile
+     *            The file where to write the arrays, that are then mapped in
+     *            memory, or null to keep the arrays on the heap
+     * @throws IOException
+     *             If the file cannot be written, the graph is then not
+     *             compacted
+     * @since 3.2
+     */
+    public synchronized void compact(@Nullable Path spillFile) throws IOException {
+        compact(spillFile, null, 0);
+    }
+
+    /**
+     * Compact the graph and save it to a file, from which it can be loaded
+     * again with {@link #load(Path, IGraphWorkerSerializer, int)}. The graph
+     * is then mapped from the file, see {@link #compact(Path)}.
+     *
+     * @param file
+     *            The file where to save the graph
+     * @param serializer
+     *            The serializer of the workers of the graph
+     * @param version
+     *            The version of the graph, usually the version of the graph
+     *            provider, that must match when loading the graph
+     * @throws IOException
+     *             If the file cannot be written, the graph is then not
+     *             compacted
+     * @since 3.2
+     */
+    public synchronized void save(Path file, IGraphWorkerSerializer serializer, int version) throws IOException {
+        compact(file, serializer, version);
+    }
+
+    private void compact(@Nullable Path file, @Nullable IGraphWorkerSerializer serializer, int version) throws IOException {
+        if (fCompactGraph != null) {
+            return;
+        }
+        /* Once flushed, the vertices can be compacted again if the file cannot be written */
+        flush(true);
+        CompactGraph.Builder builder = getBuilder();
+        fCompactGraph = builder.build(file, serializer, version);
+        fBuilder = null;
+    }
+
+    /**
+     * Flush the vertices of the workers, except their tail, to the arrays of
+     * the compacted graph. This is done while the graph is building whenever
+     * there are too many vertex objects, so that the memory used by a large
+     * graph is not that of its objects until it is compacted.
+     * <p>
+     * The flushed vertices can still be read and linked: their objects read
+     * and write their edges in the arrays, and are only kept in memory while
+     * they are referenced elsewhere. The vertices returned by the graph for
+     * flushed vertices are new objects, equal to the flushed ones. An edge
+     * between flushed vertices is stored with the type it has when the later
+     * of its vertices is flushed.
+     *
+     * @since 3.2
+     */
+    public void flush() {
+        checkWritable();
+        flush(false);
+    }
+
+    private void flushIfNeeded() {
+        if (fReverse.size() >= fFlushThreshold) {
+            flush(false);
+        }
+    }
+
+    private void flush(boolean all) {
+        CompactGraph.Builder builder = getBuilder();
+        for (IGraphWorker worker : ImmutableSet.copyOf(fNodeMap.keySet())) {
+            List<TmfVertex> list = fNodeMap.get(worker);
+            List<TmfVertex> flushed = list.subList(0, all ? list.size() : list.size() - 1);
+            builder.flush(worker, flushed);
+            for (TmfVertex vertex : flushed) {
+                fReverse.remove(vertex);
+            }
+            flushed.clear();
+        }
+        if (all) {
+            fNodeMap.clear();
+        }
+        /* Do not flush again before the objects doubled, if there are many workers */
+        fFlushThreshold = Math.max(FLUSH_THRESHOLD, 2 * fReverse.size());
+    }
+
+    private CompactGraph.Builder getBuilder() {
+        CompactGraph.Builder builder = fBuilder;
+        if (builder == null) {
+            builder = new CompactGraph.Builder();
+            fBuilder = builder;
+        }
+        return builder;
+    }
+
+    /**
+     * Load a graph saved with
+     * {@link #save(Path, IGraphWorkerSerializer, int)}. The graph is mapped
+     * from the file, so the vertices of a worker are only read from the disk
+     * when they are accessed. The loaded graph is compacted and is done
+     * building.
+     *
+     * @param file
+     *            The file of the graph
+     * @param serializer
+     *            The serializer of the workers of the graph
+     * @param version
+     *            The expected version of the graph
+     * @return The graph, or null if the file does not exist or is for another
+     *         version
+     * @throws IOException
+     *             If the file cannot be read
+     * @since 3.2
+     */
+    public static @Nullable TmfGraph load(Path file, IGraphWorkerSerializer serializer, int version) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CompactGraph compactGraph = CompactGraph.load(file, serializer, version);
+        if (compactGraph == null) {
+            return null;
+        }
+        TmfGraph graph = new TmfGraph();
+        graph.fCompactGraph = compactGraph;
+        graph.closeGraph();
+        return graph;
+    }
+
+    /**
+     * Returns whether the graph was compacted, see {@link #compact(Path)}
+     *
+     * @return Whether the graph is compacted and read-only
+     * @since 3.2
+     */
+    public boolean isCompacted() {
+        return fCompactGraph != null;
+    }
+
+    private void checkWritable() {
+        if (fCompactGraph != null) {
+            throw new IllegalStateException(Messages.TmfGraph_ReadOnly);
+        }
+    }
+
 }
@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.analysis.graph.core.base;
 
 import java.util.Comparator;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
@@ -32,7 +33,7 @@ public class TmfVertex implements Comparable<TmfVertex> {
 
     private static final String UNKNOWN_EDGE_DIRECTION_TYPE = "Unknown edge direction type : "; //$NON-NLS-1$
 
-    private static long count = 0;
+    private static final AtomicLong COUNT = new AtomicLong();
 
     /**
      * Describe the four edges coming in and out of a vertex
@@ -72,6 +73,9 @@ public class TmfVertex implements Comparable<TmfVertex> {
     private @Nullable TmfEdge fIncomingHorizontal = null;
     private final long fTimestamp;
     private final long fId;
+    /* The builder that stores the edges of this vertex once it is flushed */
+    private CompactGraph.@Nullable Builder fBuilder = null;
+    private int fIndex = -1;
 
     /**
      * Default Constructor
@@ -88,9 +92,20 @@ public class TmfVertex implements Comparable<TmfVertex> {
      */
     public TmfVertex(final long ts) {
         fTimestamp = ts;
-        synchronized (TmfVertex.class) {
-            fId = count++;
-        }
+        fId = COUNT.getAndIncrement();
+    }
+
+    /**
+     * Constructor with timestamp and ID, for the vertices of a compacted graph
+     *
+     * @param ts
+     *            The vertex's timestamp
+     * @param id
+     *            The vertex's ID
+     */
+    TmfVertex(final long ts, final long id) {
+        fTimestamp = ts;
+        fId = id;
     }
 
     /**
@@ -113,13 +128,11 @@ public class TmfVertex implements Comparable<TmfVertex> {
      */
     public TmfVertex(TmfVertex node, final long ts) {
         fTimestamp = ts;
-        synchronized (TmfVertex.class) {
-            fId = count++;
-        }
-        fOutgoingVertical = node.fOutgoingVertical;
-        fIncomingVertical = node.fIncomingVertical;
-        fOutgoingHorizontal = node.fOutgoingHorizontal;
-        fIncomingHorizontal = node.fIncomingHorizontal;
+        fId = COUNT.getAndIncrement();
+        fOutgoingVertical = node.getEdge(EdgeDirection.OUTGOING_VERTICAL_EDGE);
+        fIncomingVertical = node.getEdge(EdgeDirection.INCOMING_VERTICAL_EDGE);
+        fOutgoingHorizontal = node.getEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+        fIncomingHorizontal = node.getEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE);
     }
 
     /*
@@ -181,8 +194,8 @@ public class TmfVertex implements Comparable<TmfVertex> {
 
     private TmfEdge linkHorizontalRaw(TmfVertex node) {
         TmfEdge link = new TmfEdge(this, node);
-        fOutgoingHorizontal = link;
-        node.fIncomingHorizontal = link;
+        setEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE, link);
+        node.setEdge(EdgeDirection.INCOMING_HORIZONTAL_EDGE, link);
         return link;
     }
 
@@ -221,8 +234,8 @@ public class TmfVertex implements Comparable<TmfVertex> {
 
     private TmfEdge linkVerticalRaw(TmfVertex to) {
         TmfEdge link = new TmfEdge(this, to);
-        fOutgoingVertical = link;
-        to.fIncomingVertical = link;
+        setEdge(EdgeDirection.OUTGOING_VERTICAL_EDGE, link);
+        to.setEdge(EdgeDirection.INCOMING_VERTICAL_EDGE, link);
         return link;
     }
 
@@ -248,6 +261,10 @@ public class TmfVertex implements Comparable<TmfVertex> {
      * @return The edge from this vertex to the requested direction
      */
     public @Nullable TmfEdge getEdge(EdgeDirection dir) {
+        CompactGraph.Builder builder = fBuilder;
+        if (builder != null) {
+            return builder.getEdge(this, fIndex, dir);
+        }
         switch (dir) {
         case OUTGOING_VERTICAL_EDGE:
             return fOutgoingVertical;
@@ -270,24 +287,72 @@ public class TmfVertex implements Comparable<TmfVertex> {
      *            The direction to remove the edge from
      */
     public void removeEdge(EdgeDirection dir) {
+        setEdge(dir, null);
+    }
+
+    /**
+     * Set the edge of this vertex in a direction, without changing the other
+     * vertex of the edge
+     *
+     * @param dir
+     *            The direction of the edge
+     * @param edge
+     *            The edge, or null to remove the edge
+     */
+    void setEdge(EdgeDirection dir, @Nullable TmfEdge edge) {
+        CompactGraph.Builder builder = fBuilder;
+        if (builder != null) {
+            builder.setEdge(fIndex, dir, edge);
+            return;
+        }
         switch (dir) {
         case OUTGOING_VERTICAL_EDGE:
-            fOutgoingVertical = null;
+            fOutgoingVertical = edge;
             break;
         case INCOMING_VERTICAL_EDGE:
-            fIncomingVertical = null;
+            fIncomingVertical = edge;
             break;
         case OUTGOING_HORIZONTAL_EDGE:
-            fOutgoingHorizontal = null;
+            fOutgoingHorizontal = edge;
             break;
         case INCOMING_HORIZONTAL_EDGE:
-            fIncomingHorizontal = null;
+            fIncomingHorizontal = edge;
             break;
         default:
             throw new IllegalStateException(UNKNOWN_EDGE_DIRECTION_TYPE + dir);
         }
     }
 
+    /**
+     * Hand the edges of this vertex over to the builder of a compacted graph.
+     * The edges are then read from and written to the builder.
+     *
+     * @param builder
+     *            The builder
+     * @param index
+     *            The index of this vertex in the builder
+     */
+    void flushTo(CompactGraph.Builder builder, int index) {
+        fOutgoingVertical = null;
+        fIncomingVertical = null;
+        fOutgoingHorizontal = null;
+        fIncomingHorizontal = null;
+        fBuilder = builder;
+        fIndex = index;
+    }
+
+    /**
+     * Get the index of this vertex in a builder
+     *
+     * @param builder
+     *            The builder
+     * @return The index of this vertex, or -1 if it was not flushed to this
+     *         builder
+     */
+    int getIndexIn(CompactGraph.Builder builder) {
+        return fBuilder == builder ? fIndex : -1;
+    }
+
     /**
      * Get the neighbor of a vertex from a directed edge. Incoming edges will
      * return the vertex from the edge and outgoing edges will return the vertex
@@ -325,6 +390,24 @@ public class TmfVertex implements Comparable<TmfVertex> {
         return Long.compare(fTimestamp, other.fTimestamp);
     }
 
+    /*
+     * A vertex flushed to a builder is equal to the objects the graph returns
+     * for it afterwards, the other vertices are only equal to themselves
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fTimestamp);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        CompactGraph.Builder builder = fBuilder;
+        return builder != null && obj instanceof TmfVertex && builder.isVertex(fIndex, (TmfVertex) obj);
+    }
+
     @Override
     public String toString() {
         return "[" + fId + "," + fTimestamp + "]"; //$NON-NLS-1$ //$NON-NLS-2$//$NON-NLS-3$
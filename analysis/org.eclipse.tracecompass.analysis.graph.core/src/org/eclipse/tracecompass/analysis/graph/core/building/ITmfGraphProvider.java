@@ -91,4 +91,17 @@ public interface ITmfGraphProvider {
      */
     void done();
 
+    /**
+     * Get the version of the graph built by this provider. It is saved with
+     * the graph and used to determine if a saved graph can be loaded again,
+     * so it must be incremented when the graph built from the same trace
+     * changes.
+     *
+     * @return The version number of the graph provider
+     * @since 3.2
+     */
+    default int getVersion() {
+        return 0;
+    }
+
 }
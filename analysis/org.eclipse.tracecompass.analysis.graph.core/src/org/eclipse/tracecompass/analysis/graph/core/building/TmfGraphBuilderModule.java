@@ -11,9 +11,15 @@
 
 package org.eclipse.tracecompass.analysis.graph.core.building;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorkerSerializer;
 import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
 import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathModule;
 import org.eclipse.tracecompass.analysis.graph.core.criticalpath.ICriticalPathProvider;
@@ -26,6 +32,7 @@ import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 /**
  * Base class for all modules building graphs
@@ -35,7 +42,15 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  */
 public abstract class TmfGraphBuilderModule extends TmfAbstractAnalysisModule implements ICriticalPathProvider {
 
+    /**
+     * Number of vertices above which the compacted graph is written to a
+     * supplementary file instead of being kept on the heap
+     */
+    private static final int SPILL_THRESHOLD = 1 << 22;
+    private static final String GRAPH_FILE_EXTENSION = ".graph"; //$NON-NLS-1$
+
     private @Nullable TmfGraph fGraph;
+    private @Nullable Path fSpillFile;
     private @Nullable ITmfEventRequest fRequest;
     private final CriticalPathModule fCriticalPathModule;
 
@@ -62,6 +77,20 @@ public abstract class TmfGraphBuilderModule extends TmfAbstractAnalysisModule im
         return fGraph;
     }
 
+    /**
+     * Gets the serializer of the workers of the graph. When there is one, the
+     * graph is saved in a supplementary file once it is built, and loaded
+     * from that file instead of being built again when the trace is opened
+     * later.
+     *
+     * @return The serializer of the workers, or null if the graph is not
+     *         saved
+     * @since 3.2
+     */
+    protected @Nullable IGraphWorkerSerializer getWorkerSerializer() {
+        return null;
+    }
+
     // ------------------------------------------------------------------------
     // TmfAbstractAnalysisModule
     // ------------------------------------------------------------------------
@@ -70,15 +99,28 @@ public abstract class TmfGraphBuilderModule extends TmfAbstractAnalysisModule im
     protected boolean executeAnalysis(final IProgressMonitor monitor) {
         if (fGraph == null) {
             final ITmfGraphProvider provider = getGraphProvider();
-
-            /*
-             * TODO: This will eventually support multiple backends so we can
-             * save the graph on disk, like the state system, but for now, it is
-             * just in memory
-             */
+            IGraphWorkerSerializer serializer = getWorkerSerializer();
+            Path file = getGraphFile();
+
+            /* Load the graph saved by a previous session */
+            if (serializer != null && file != null) {
+                try {
+                    fGraph = TmfGraph.load(file, serializer, provider.getVersion());
+                } catch (IOException e) {
+                    Activator.getInstance().logWarning("Cannot load the graph file " + file, e); //$NON-NLS-1$
+                }
+                if (fGraph != null) {
+                    return !monitor.isCanceled();
+                }
+            }
 
             createGraph(provider);
 
+            TmfGraph graph = fGraph;
+            if (graph != null && !monitor.isCanceled()) {
+                graph.closeGraph();
+                compactGraph(graph, file, serializer, provider.getVersion());
+            }
         }
         return !monitor.isCanceled();
     }
@@ -105,6 +147,15 @@ public abstract class TmfGraphBuilderModule extends TmfAbstractAnalysisModule im
     public void dispose() {
         fCriticalPathModule.dispose();
         super.dispose();
+        Path spillFile = fSpillFile;
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                /* The file may still be mapped, it will be overwritten */
+                Activator.getInstance().logWarning("Cannot delete the graph file " + spillFile, e); //$NON-NLS-1$
+            }
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -120,6 +171,36 @@ public abstract class TmfGraphBuilderModule extends TmfAbstractAnalysisModule im
 
     }
 
+    private @Nullable Path getGraphFile() {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return null;
+        }
+        return Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), getId() + GRAPH_FILE_EXTENSION);
+    }
+
+    private void compactGraph(TmfGraph graph, @Nullable Path file, @Nullable IGraphWorkerSerializer serializer, int version) {
+        try {
+            if (file != null && serializer != null) {
+                graph.save(file, serializer, version);
+            } else if (file != null && graph.size() > SPILL_THRESHOLD) {
+                graph.compact(file);
+                /* The file cannot be loaded again, delete it when disposed */
+                fSpillFile = file;
+            } else {
+                graph.compact(null);
+            }
+        } catch (IOException e) {
+            Activator.getInstance().logError("Cannot write the graph file " + file, e); //$NON-NLS-1$
+            try {
+                graph.compact(null);
+            } catch (IOException e1) {
+                /* Cannot happen without a file */
+                Activator.getInstance().logError("Cannot compact the graph", e1); //$NON-NLS-1$
+            }
+        }
+    }
+
     private void build(ITmfGraphProvider provider) {
         /* Cancel any previous request */
         ITmfEventRequest request = fRequest;
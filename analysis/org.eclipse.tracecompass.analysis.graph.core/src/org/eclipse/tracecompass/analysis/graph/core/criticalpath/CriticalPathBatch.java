@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.criticalpath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.CriticalPathAlgorithmBounded;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+
+/**
+ * Computes the critical paths of workers of a graph that is done building,
+ * and caches them by worker and time range. The critical paths of several
+ * workers are computed concurrently: the algorithm only reads the graph, and
+ * each worker gets its own result graph.
+ *
+ * @since 3.2
+ */
+public class CriticalPathBatch {
+
+    /** Maximum number of critical paths kept in the cache */
+    private static final int MAX_CACHED_PATHS = 256;
+
+    private static final class Key {
+        private final IGraphWorker fWorker;
+        private final long fStart;
+        private final long fEnd;
+
+        public Key(IGraphWorker worker, long start, long end) {
+            fWorker = worker;
+            fStart = start;
+            fEnd = end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fWorker, fStart, fEnd);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fWorker.equals(other.fWorker) && fStart == other.fStart && fEnd == other.fEnd;
+        }
+    }
+
+    private final TmfGraph fGraph;
+    private final Map<Key, TmfGraph> fCache = new LinkedHashMap<Key, TmfGraph>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<Key, TmfGraph> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param graph
+     *            The graph on which to compute the critical paths. It must not
+     *            be modified anymore.
+     */
+    public CriticalPathBatch(TmfGraph graph) {
+        fGraph = graph;
+    }
+
+    /**
+     * Get the graph on which the critical paths are computed
+     *
+     * @return The graph
+     */
+    public TmfGraph getGraph() {
+        return fGraph;
+    }
+
+    /**
+     * Get the critical path of a worker, from the cache if it was already
+     * computed for the same time range
+     *
+     * @param worker
+     *            The worker
+     * @param start
+     *            The start of the time range, {@link Long#MIN_VALUE} for the
+     *            start of the graph
+     * @param end
+     *            The end of the time range, {@link Long#MAX_VALUE} for the end
+     *            of the graph
+     * @return The critical path, empty if the worker has no vertex in the
+     *         time range
+     * @throws CriticalPathAlgorithmException
+     *             If the critical path cannot be computed
+     */
+    public TmfGraph getCriticalPath(IGraphWorker worker, long start, long end) throws CriticalPathAlgorithmException {
+        Key key = new Key(worker, start, end);
+        synchronized (fCache) {
+            TmfGraph criticalPath = fCache.get(key);
+            if (criticalPath != null) {
+                return criticalPath;
+            }
+        }
+        TmfGraph criticalPath = compute(worker, start, end);
+        synchronized (fCache) {
+            fCache.put(key, criticalPath);
+        }
+        return criticalPath;
+    }
+
+    /**
+     * Get the critical paths of several workers, computing those that are not
+     * in the cache concurrently
+     *
+     * @param workers
+     *            The workers
+     * @param start
+     *            The start of the time range, {@link Long#MIN_VALUE} for the
+     *            start of the graph
+     * @param end
+     *            The end of the time range, {@link Long#MAX_VALUE} for the end
+     *            of the graph
+     * @param monitor
+     *            The progress monitor, to cancel the computation
+     * @return The critical path of each worker, in the order of the workers,
+     *         or an incomplete map if the computation was cancelled
+     * @throws CriticalPathAlgorithmException
+     *             If a critical path cannot be computed
+     */
+    public Map<IGraphWorker, TmfGraph> getCriticalPaths(Collection<IGraphWorker> workers, long start, long end, IProgressMonitor monitor) throws CriticalPathAlgorithmException {
+        Map<IGraphWorker, TmfGraph> criticalPaths = new LinkedHashMap<>();
+        int nbThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), workers.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<TmfGraph>> futures = new ArrayList<>();
+            for (IGraphWorker worker : workers) {
+                futures.add(executor.submit(() -> monitor.isCanceled() ? new TmfGraph() : getCriticalPath(worker, start, end)));
+            }
+            int i = 0;
+            for (IGraphWorker worker : workers) {
+                TmfGraph criticalPath = futures.get(i++).get();
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                criticalPaths.put(worker, criticalPath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CriticalPathAlgorithmException) {
+                throw (CriticalPathAlgorithmException) cause;
+            }
+            throw new CriticalPathAlgorithmException(String.valueOf(cause));
+        } finally {
+            executor.shutdownNow();
+        }
+        return criticalPaths;
+    }
+
+    /**
+     * Remove the cached critical paths
+     */
+    public void clearCache() {
+        synchronized (fCache) {
+            fCache.clear();
+        }
+    }
+
+    private TmfGraph compute(IGraphWorker worker, long start, long end) throws CriticalPathAlgorithmException {
+        TmfVertex startVertex = (start == Long.MIN_VALUE) ? fGraph.getHead(worker) : fGraph.getVertexAt(TmfTimestamp.fromNanos(start), worker);
+        if (startVertex == null || startVertex.getTs() > end) {
+            /* Nothing happens with this worker, return an empty graph */
+            return new TmfGraph();
+        }
+        TmfVertex endVertex = (end == Long.MAX_VALUE) ? null : new TmfVertex(end);
+        return new CriticalPathAlgorithmBounded(fGraph).compute(startVertex, endVertex);
+    }
+
+}
@@ -11,17 +11,19 @@
 
 package org.eclipse.tracecompass.analysis.graph.core.criticalpath;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
 import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
-import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
 import org.eclipse.tracecompass.analysis.graph.core.building.TmfGraphBuilderModule;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.internal.analysis.graph.core.Activator;
-import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.CriticalPathAlgorithmBounded;
 import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.Messages;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
@@ -48,6 +50,7 @@ public class CriticalPathModule extends TmfAbstractAnalysisModule implements ICr
     private final TmfGraphBuilderModule fGraphModule;
 
     private volatile @Nullable TmfGraph fCriticalPath;
+    private volatile @Nullable CriticalPathBatch fBatch;
     private volatile boolean fScheduleOnParameterChange = true;
 
     /**
@@ -97,35 +100,79 @@ public class CriticalPathModule extends TmfAbstractAnalysisModule implements ICr
         }
         IGraphWorker worker = (IGraphWorker) workerObj;
 
-        /* Get the graph */
+        CriticalPathBatch batch = getBatch(monitor);
+        if (batch == null) {
+            return false;
+        }
+
+        /* The critical paths of the previously selected workers are cached */
+        try {
+            fCriticalPath = batch.getCriticalPath(worker, Long.MIN_VALUE, Long.MAX_VALUE);
+            return true;
+        } catch (CriticalPathAlgorithmException e) {
+            Activator.getInstance().logError(NonNullUtils.nullToEmptyString(e.getMessage()), e);
+        }
+        return false;
+    }
+
+    /**
+     * Compute the critical paths of several workers concurrently. The critical
+     * paths are cached, so the paths of workers that were already computed
+     * for the same time range are not computed again.
+     *
+     * @param workers
+     *            The workers
+     * @param start
+     *            The start of the time range, {@link Long#MIN_VALUE} for the
+     *            start of the graph
+     * @param end
+     *            The end of the time range, {@link Long#MAX_VALUE} for the end
+     *            of the graph
+     * @param monitor
+     *            The progress monitor
+     * @return The critical path of each worker, or an incomplete map if the
+     *         computation was cancelled
+     * @throws TmfAnalysisException
+     *             If the graph is not available or a critical path cannot be
+     *             computed
+     * @since 3.2
+     */
+    public Map<IGraphWorker, TmfGraph> getCriticalPaths(Collection<IGraphWorker> workers, long start, long end, IProgressMonitor monitor) throws TmfAnalysisException {
+        CriticalPathBatch batch = getBatch(monitor);
+        if (batch == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return batch.getCriticalPaths(workers, start, end, monitor);
+        } catch (CriticalPathAlgorithmException e) {
+            throw new TmfAnalysisException(e);
+        }
+    }
+
+    /**
+     * Wait for the graph and get the batch that computes its critical paths
+     */
+    private @Nullable CriticalPathBatch getBatch(IProgressMonitor monitor) throws TmfAnalysisException {
         TmfGraphBuilderModule graphModule = fGraphModule;
         graphModule.schedule();
 
         monitor.setTaskName(NLS.bind(Messages.CriticalPathModule_waitingForGraph, graphModule.getName()));
         if (!graphModule.waitForCompletion(monitor)) {
             Activator.getInstance().logInfo("Critical path execution: graph building was cancelled.  Results may not be accurate."); //$NON-NLS-1$
-            return false;
+            return null;
         }
         TmfGraph graph = graphModule.getGraph();
         if (graph == null) {
             throw new TmfAnalysisException("Critical Path analysis: graph " + graphModule.getName() + " is null"); //$NON-NLS-1$//$NON-NLS-2$
         }
-
-        TmfVertex head = graph.getHead(worker);
-        if (head == null) {
-            /* Nothing happens with this worker, return an empty graph */
-            fCriticalPath = new TmfGraph();
-            return true;
+        synchronized (this) {
+            CriticalPathBatch batch = fBatch;
+            if (batch == null || batch.getGraph() != graph) {
+                batch = new CriticalPathBatch(graph);
+                fBatch = batch;
+            }
+            return batch;
         }
-
-        ICriticalPathAlgorithm cp = getAlgorithm(graph);
-        try {
-            fCriticalPath = cp.compute(head, null);
-            return true;
-        } catch (CriticalPathAlgorithmException e) {
-            Activator.getInstance().logError(NonNullUtils.nullToEmptyString(e.getMessage()), e);
-        }
-        return false;
     }
 
     @Override
@@ -143,10 +190,6 @@ public class CriticalPathModule extends TmfAbstractAnalysisModule implements ICr
         }
     }
 
-    private static ICriticalPathAlgorithm getAlgorithm(TmfGraph graph) {
-        return new CriticalPathAlgorithmBounded(graph);
-    }
-
     @Override
     public boolean canExecute(@NonNull ITmfTrace trace) {
         /*
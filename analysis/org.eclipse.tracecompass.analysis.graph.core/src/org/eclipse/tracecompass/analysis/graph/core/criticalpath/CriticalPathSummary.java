@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.graph.core.criticalpath;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex.EdgeDirection;
+
+/**
+ * Summary of the critical paths of several workers: the time spent in each
+ * type of edge (running, preempted, blocked on a device, on the network,
+ * etc.) along the critical path of each worker, and for all the workers.
+ *
+ * @since 3.2
+ */
+public class CriticalPathSummary {
+
+    private final Map<IGraphWorker, Map<EdgeType, Long>> fDurations = new LinkedHashMap<>();
+    private final Map<EdgeType, Long> fTotals = new EnumMap<>(EdgeType.class);
+
+    /**
+     * Create the summary of critical paths
+     *
+     * @param criticalPaths
+     *            The critical path of each worker
+     * @return The summary
+     */
+    public static CriticalPathSummary create(Map<IGraphWorker, TmfGraph> criticalPaths) {
+        CriticalPathSummary summary = new CriticalPathSummary();
+        for (Map.Entry<IGraphWorker, TmfGraph> entry : criticalPaths.entrySet()) {
+            summary.add(entry.getKey(), entry.getValue());
+        }
+        return summary;
+    }
+
+    /**
+     * Add the critical path of a worker to the summary
+     *
+     * @param worker
+     *            The worker
+     * @param criticalPath
+     *            The critical path of the worker
+     */
+    public void add(IGraphWorker worker, TmfGraph criticalPath) {
+        Map<EdgeType, Long> durations = fDurations.computeIfAbsent(worker, w -> new EnumMap<>(EdgeType.class));
+        /* The horizontal edges of all the workers of the path cover its duration */
+        for (IGraphWorker pathWorker : criticalPath.getWorkers()) {
+            for (TmfVertex vertex : criticalPath.getNodesOf(pathWorker)) {
+                TmfEdge edge = vertex.getEdge(EdgeDirection.OUTGOING_HORIZONTAL_EDGE);
+                if (edge != null) {
+                    durations.merge(edge.getType(), edge.getDuration(), Long::sum);
+                    fTotals.merge(edge.getType(), edge.getDuration(), Long::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the workers whose critical path is in the summary
+     *
+     * @return The workers
+     */
+    public Set<IGraphWorker> getWorkers() {
+        return Collections.unmodifiableSet(fDurations.keySet());
+    }
+
+    /**
+     * Get the time spent in each type of edge along the critical path of a
+     * worker
+     *
+     * @param worker
+     *            The worker
+     * @return The duration of each type of edge, empty if the worker is not in
+     *         the summary
+     */
+    public Map<EdgeType, Long> getDurations(IGraphWorker worker) {
+        Map<EdgeType, Long> durations = fDurations.get(worker);
+        return durations == null ? Collections.emptyMap() : Collections.unmodifiableMap(durations);
+    }
+
+    /**
+     * Get the time spent in each type of edge along the critical paths of all
+     * the workers
+     *
+     * @return The total duration of each type of edge
+     */
+    public Map<EdgeType, Long> getTotalDurations() {
+        return Collections.unmodifiableMap(fTotals);
+    }
+
+}
@@ -51,6 +51,8 @@ public class Messages extends NLS {
 
     public static @Nullable String TmfGraph_FromNotInGraph;
 
+    public static @Nullable String TmfGraph_ReadOnly;
+
     public static @Nullable String TmfVertex_ArgumentTimestampLower;
 
     public static @Nullable String TmfVertex_CannotLinkToSelf;
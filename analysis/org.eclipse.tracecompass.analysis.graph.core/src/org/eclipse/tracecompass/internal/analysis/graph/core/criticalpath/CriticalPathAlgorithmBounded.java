@@ -277,7 +277,7 @@ public class CriticalPathAlgorithmBounded extends AbstractCriticalPathAlgorithm
                 if (!stack.isEmpty()) {
                     TmfVertex v = stack.removeFirst();
                     /* rewind subpath */
-                    while (!subPath.isEmpty() && subPath.getLast().getVertexFrom() != v) {
+                    while (!subPath.isEmpty() && !subPath.getLast().getVertexFrom().equals(v)) {
                         subPath.removeLast();
                     }
                     TmfEdge edge = v.getEdge(EdgeDirection.INCOMING_VERTICAL_EDGE);
@@ -17,6 +17,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URL;
 import java.util.Collections;
 import java.util.List;
@@ -31,6 +32,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.lami.core.tests.Activator;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiAnalysis;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiChartModel;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiResultParser;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiResultTable;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -74,9 +76,12 @@ public class LamiAnalysisStub extends LamiAnalysis {
     }
 
     @Override
-    protected String getResultsFromCommand(List<String> command, IProgressMonitor monitor)
+    protected void parseResultsFromCommand(List<String> command, IProgressMonitor monitor, LamiResultParser parser)
             throws CoreException {
-        return readLamiFile(fResultFilename);
+        String results = readLamiFile(fResultFilename);
+        if (!results.isEmpty()) {
+            parser.parse(new StringReader(results));
+        }
     }
 
     @Override
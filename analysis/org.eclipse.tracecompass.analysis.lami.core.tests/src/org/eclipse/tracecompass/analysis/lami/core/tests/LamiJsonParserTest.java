@@ -18,13 +18,21 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.tracecompass.analysis.lami.core.tests.shared.analysis.LamiAnalysisStub;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.aspect.LamiTableEntryAspect;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiAnalysis;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiResultTable;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiTableClass;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiTableEntry;
@@ -214,6 +222,45 @@ public class LamiJsonParserTest {
         assertNull(aspects.get(7).resolveString(readEntry));
     }
 
+    /**
+     * Test the results parsed from the output of a stub script, which outputs
+     * progress lines before the results.
+     *
+     * @throws CoreException
+     *             when execute() fails.
+     * @throws IOException
+     *             if the script cannot be found
+     */
+    @Test
+    public void testResultsFromScript() throws CoreException, IOException {
+        URL url = FileLocator.find(Activator.instance().getBundle(), new Path("testfiles/lami-stub.sh"), null);
+        assertNotNull(url);
+        File script = new File(FileLocator.toFileURL(url).getPath());
+        script.setExecutable(true);
+        LamiAnalysis analysis = new LamiAnalysis("Stub script", false, trace -> true, Collections.singletonList(script.getAbsolutePath()));
+
+        LamiTmfTraceStub trace = fTrace;
+        assertNotNull(trace);
+        assertTrue(analysis.canExecute(trace));
+        assertEquals("LAMI test", analysis.getAnalysisTitle());
+
+        List<LamiResultTable> readTables = new ArrayList<>();
+        List<LamiResultTable> resultTables = analysis.execute(trace, null, "", new NullProgressMonitor(), readTables::add);
+        assertEquals(4, resultTables.size());
+        assertEquals(resultTables, readTables);
+
+        LamiResultTable perSyscallTable = resultTables.get(1);
+        assertEquals("per-syscall", perSyscallTable.getTableClass().getTableClassName());
+        List<LamiTableEntry> syscallEntries = perSyscallTable.getEntries();
+        assertEquals(5, syscallEntries.size());
+        LamiTableEntry readEntry = syscallEntries.get(0);
+        assertEquals("read", ((LamiSystemCall) readEntry.getValue(0)).getValue());
+        assertEquals(new LamiDuration(2398123), readEntry.getValue(1));
+        assertEquals(new LamiSize(8123982), readEntry.getValue(2));
+        assertEquals(new LamiBitrate(223232), readEntry.getValue(3));
+        assertEquals(new LamiTimeRange(new LamiTimestamp(98233), new LamiTimestamp(1293828)), readEntry.getCorrespondingTimeRange());
+    }
+
     /**
      * Test the error parsing of the results.
      *
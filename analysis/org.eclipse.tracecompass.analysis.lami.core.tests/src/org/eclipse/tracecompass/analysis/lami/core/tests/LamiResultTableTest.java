@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.lami.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiResultParser;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiResultTable;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiTableClass;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module.LamiTableEntry;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiDuration;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiLongNumber;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiRatio;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiSystemCall;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimeRange;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimestamp;
+import org.json.JSONException;
+import org.junit.Test;
+
+/**
+ * Test the column storage of {@link LamiResultTable} and the streaming
+ * {@link LamiResultParser}.
+ */
+public class LamiResultTableTest {
+
+    private static final LamiTimeRange TIME_RANGE = new LamiTimeRange(new LamiTimestamp(0), new LamiTimestamp(100));
+    private static final LamiTableClass TABLE_CLASS = new LamiTableClass("test", "Test", Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * Test building a table whose columns are stored as numbers or as data
+     * objects
+     */
+    @Test
+    public void testBuilder() {
+        LamiResultTable.Builder builder = new LamiResultTable.Builder();
+        builder.addRow(Arrays.asList(new LamiDuration(10), new LamiRatio(0.5), LamiData.empty(), new LamiLongNumber(1L)));
+        builder.addRow(Arrays.asList(LamiData.empty(), new LamiRatio(0.25), new LamiSystemCall("read"), new LamiLongNumber(1L, 2L, 3L)));
+        /* A short row is padded with empty values */
+        builder.addValue(new LamiDuration(30)).endRow();
+        assertEquals(3, builder.getRowCount());
+
+        LamiResultTable table = builder.build(TIME_RANGE, TABLE_CLASS);
+        assertEquals(4, table.getColumnCount());
+        List<LamiTableEntry> entries = table.getEntries();
+        assertEquals(3, entries.size());
+
+        assertEquals(new LamiDuration(10), table.getValue(0, 0));
+        assertSame(LamiData.empty(), table.getValue(1, 0));
+        assertEquals(new LamiDuration(30), table.getValue(2, 0));
+
+        assertEquals(new LamiRatio(0.5), table.getValue(0, 1));
+        assertEquals(new LamiRatio(0.25), table.getValue(1, 1));
+        assertSame(LamiData.empty(), table.getValue(2, 1));
+
+        assertSame(LamiData.empty(), table.getValue(0, 2));
+        assertEquals("read", ((LamiSystemCall) table.getValue(1, 2)).getValue());
+
+        /* The number with limits falls back to data objects */
+        assertEquals(new LamiLongNumber(1L), table.getValue(0, 3));
+        assertEquals(new LamiLongNumber(1L, 2L, 3L), table.getValue(1, 3));
+        assertSame(LamiData.empty(), table.getValue(2, 3));
+
+        LamiTableEntry entry = entries.get(1);
+        assertEquals(new LamiRatio(0.25), entry.getValue(1));
+        assertEquals(entry, table.getEntries().get(1));
+        assertNotEquals(entry, entries.get(0));
+    }
+
+    /**
+     * Test the tables reported while the results are parsed
+     */
+    @Test
+    public void testParser() {
+        String results = "{\"results\": [" +
+                "{\"class\": \"test\", \"data\": [[1, {\"class\": \"duration\", \"value\": 5}], [2, null]]," +
+                "\"time-range\": {\"class\": \"time-range\", \"begin\": 0, \"end\": 100}}," +
+                "{\"time-range\": {\"class\": \"time-range\", \"begin\": 10, \"end\": 20}, \"unknown\": [1, 2], \"class\": \"test\", \"data\": []}" +
+                "]}";
+        List<LamiResultTable> readTables = new ArrayList<>();
+        LamiResultParser parser = new LamiResultParser(classObject -> TABLE_CLASS, readTables::add);
+        parser.parse(new StringReader(results));
+
+        assertEquals(readTables, parser.getResults());
+        assertEquals(2, readTables.size());
+        LamiResultTable table = readTables.get(0);
+        assertEquals(TIME_RANGE, table.getTimeRange());
+        assertEquals(2, table.getEntries().size());
+        assertEquals(new LamiLongNumber(1L), table.getValue(0, 0));
+        assertEquals(new LamiDuration(5), table.getValue(0, 1));
+        assertSame(LamiData.empty(), table.getValue(1, 1));
+        assertEquals(0, readTables.get(1).getEntries().size());
+    }
+
+    /**
+     * Test parsing results without their "results" member
+     */
+    @Test(expected = JSONException.class)
+    public void testParserNoResults() {
+        LamiResultParser parser = new LamiResultParser(classObject -> TABLE_CLASS, table -> { });
+        parser.parse(new StringReader("{\"other\": []}"));
+    }
+}
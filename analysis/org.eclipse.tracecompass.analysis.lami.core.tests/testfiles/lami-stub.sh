@@ -0,0 +1,23 @@
+#!/bin/sh
+#
+# Stub of a LAMI analysis script, printing the test metadata and results,
+# preceded by progress lines.
+#
+
+dir=$(dirname "$0")
+
+case "$1" in
+--mi-version)
+    echo "1.0"
+    ;;
+--metadata)
+    cat "$dir/test-metadata.json"
+    ;;
+--test-compatibility)
+    ;;
+*)
+    echo "0.25 Reading the trace"
+    echo "0.5 1000 of 2000 events processed"
+    cat "$dir/test-results.json"
+    ;;
+esac
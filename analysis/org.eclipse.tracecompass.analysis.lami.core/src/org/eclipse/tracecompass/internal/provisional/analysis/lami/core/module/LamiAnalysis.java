@@ -15,10 +15,12 @@ import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNullContents;
 import static org.eclipse.tracecompass.common.core.NonNullUtils.nullToEmptyString;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.PushbackReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -26,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,7 +44,6 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.common.core.process.ProcessUtils;
-import org.eclipse.tracecompass.common.core.process.ProcessUtils.OutputReaderFunction;
 import org.eclipse.tracecompass.internal.analysis.lami.core.Activator;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.LamiStrings;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.ShellUtils;
@@ -62,7 +64,6 @@ import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.aspect.L
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.aspect.LamiTimestampAspect;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData.DataType;
-import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimeRange;
 import org.eclipse.tracecompass.tmf.core.analysis.ondemand.IOnDemandAnalysis;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -646,6 +647,34 @@ public class LamiAnalysis implements IOnDemandAnalysis {
     @Override
     public List<LamiResultTable> execute(ITmfTrace trace, @Nullable TmfTimeRange timeRange,
             String extraParamsString, IProgressMonitor monitor) throws CoreException {
+        return execute(trace, timeRange, extraParamsString, monitor, table -> {
+            /* Only the complete results are returned */
+        });
+    }
+
+    /**
+     * Execute the analysis, reporting each result table as soon as it is read
+     * from the output of the analysis, so it can be displayed before the
+     * analysis completes.
+     *
+     * @param trace
+     *            The trace on which to execute the analysis
+     * @param timeRange
+     *            The time range on which to execute the analysis, or null for
+     *            the whole trace
+     * @param extraParamsString
+     *            The extra parameters passed to the analysis
+     * @param monitor
+     *            The progress monitor
+     * @param tableListener
+     *            The listener notified of each table once it is read
+     * @return All the result tables
+     * @throws CoreException
+     *             If the analysis did not complete normally, or did not return
+     *             any result
+     */
+    public List<LamiResultTable> execute(ITmfTrace trace, @Nullable TmfTimeRange timeRange,
+            String extraParamsString, IProgressMonitor monitor, Consumer<LamiResultTable> tableListener) throws CoreException {
         /* Should have been called already, but in case it was not */
         initialize();
 
@@ -659,160 +688,81 @@ public class LamiAnalysis implements IOnDemandAnalysis {
         builder.add(tracePath);
         List<String> command = builder.build();
         TraceCompassLogUtils.traceInstant(LOGGER, Level.INFO, RUNNING_EXECUTE_COMMAND, COMMAND, command);
-        String output = getResultsFromCommand(command, monitor);
-
-        if (output.isEmpty()) {
-            IStatus status = new Status(IStatus.INFO, Activator.instance().getPluginId(), Messages.LamiAnalysis_NoResults);
-            throw new CoreException(status);
-        }
 
         /*
-         * {
-         *   "results": [
-         *     {
-         *       "time-range": {
-         *         "type": "time-range",
-         *         "begin": 1444334398154194201,
-         *         "end": 1444334425194487548
-         *       },
-         *       "class": "syscall-latency",
-         *       "data": [
-         *         [
-         *           {"type": "syscall", "name": "open"},
-         *           45,
-         *           {"type": "duration", "value": 5562},
-         *           {"type": "duration", "value": 13835},
-         *           {"type": "duration", "value": 77683},
-         *           {"type": "duration", "value": 15263}
-         *         ],
-         *         [
-         *           {"type": "syscall", "name": "read"},
-         *           109,
-         *           {"type": "duration", "value": 316},
-         *           {"type": "duration", "value": 5774},
-         *           {"type": "duration", "value": 62569},
-         *           {"type": "duration", "value": 9277}
-         *         ]
-         *       ]
-         *     },
-         *     {
-         *       "time-range": {
-         *         "type": "time-range",
-         *         "begin": 1444334425194487549,
-         *         "end": 1444334425254887190
-         *       },
-         *       "class": "syscall-latency",
-         *       "data": [
-         *         [
-         *           {"type": "syscall", "name": "open"},
-         *           45,
-         *           {"type": "duration", "value": 1578},
-         *           {"type": "duration", "value": 16648},
-         *           {"type": "duration", "value": 15444},
-         *           {"type": "duration", "value": 68540}
-         *         ],
-         *         [
-         *           {"type": "syscall", "name": "read"},
-         *           109,
-         *           {"type": "duration", "value": 78},
-         *           {"type": "duration", "value": 1948},
-         *           {"type": "duration", "value": 11184},
-         *           {"type": "duration", "value": 94670}
-         *         ]
-         *       ]
-         *     }
-         *   ]
-         * }
-         *
+         * The results are parsed while the analysis outputs them, see
+         * LamiResultParser for their format.
          */
-
-        ImmutableList.Builder<LamiResultTable> resultsBuilder = new ImmutableList.Builder<>();
-
+        LamiResultParser parser = new LamiResultParser(this::getTableClass, tableListener);
         try {
-            JSONObject obj = new JSONObject(output);
-            JSONArray results = obj.getJSONArray(LamiStrings.RESULTS);
-
-            if (results.length() == 0) {
-                /*
-                 * No results were reported. This may be normal, but warn the
-                 * user why a report won't be created.
-                 */
-                IStatus status = new Status(IStatus.INFO, Activator.instance().getPluginId(), Messages.LamiAnalysis_NoResults);
+            parseResultsFromCommand(command, monitor, parser);
+        } catch (JSONException e) {
+            if (monitor.isCanceled()) {
+                /* The output was interrupted by the cancellation */
+                IStatus status = new Status(IStatus.CANCEL, Activator.instance().getPluginId(), null);
                 throw new CoreException(status);
             }
+            TraceCompassLogUtils.traceInstant(LOGGER, Level.WARNING, ERROR_PARSING_EXECUTION_OUTPUT, e.getMessage());
+            IStatus status = new Status(IStatus.ERROR, Activator.instance().getPluginId(), e.getMessage(), e);
+            throw new CoreException(status);
+        }
 
-            for (int i = 0; i < results.length(); i++) {
-                JSONObject result = results.getJSONObject(i);
-
-                /* Parse the time-range */
-                JSONObject trObject = checkNotNull(result.getJSONObject(LamiStrings.TIME_RANGE));
-                LamiData trData = LamiData.createFromObject(trObject);
-                if (!(trData instanceof LamiTimeRange)) {
-                    throw new JSONException("Time range did not have expected class type."); //$NON-NLS-1$
-                }
-                LamiTimeRange tr = (LamiTimeRange) trData;
-
-                /* Parse the table's class */
-                LamiTableClass tableClass;
-                JSONObject tableClassObject = result.optJSONObject(LamiStrings.CLASS);
-                if (tableClassObject == null) {
-                    /*
-                     * "class" is just a standard string, indicating we use a
-                     * metadata-defined table class as-is
-                     */
-                    @NonNull String tableClassName = checkNotNull(result.getString(LamiStrings.CLASS));
-                    tableClass = getTableClassFromName(tableClassName);
-
-                    // FIXME Rest will become more generic eventually in the LAMI format.
-                } else if (tableClassObject.has(LamiStrings.INHERIT)) {
-                    /*
-                     * Dynamic title: We reuse an existing table class but
-                     * override the title.
-                     */
-                    String baseTableName = checkNotNull(tableClassObject.getString(LamiStrings.INHERIT));
-                    LamiTableClass baseTableClass = getTableClassFromName(baseTableName);
-                    String newTitle = checkNotNull(tableClassObject.getString(LamiStrings.TITLE));
-
-                    tableClass = new LamiTableClass(baseTableClass, newTitle);
-                } else {
-                    /*
-                     * Dynamic column descriptions: we implement a new table
-                     * class entirely.
-                     */
-                    String title = checkNotNull(tableClassObject.getString(LamiStrings.TITLE));
-                    JSONArray columnDescriptions = checkNotNull(tableClassObject.getJSONArray(LamiStrings.COLUMN_DESCRIPTIONS));
-                    List<LamiTableEntryAspect> aspects = getAspectsFromColumnDescriptions(columnDescriptions);
-
-                    tableClass = new LamiTableClass(nullToEmptyString(Messages.LamiAnalysis_DefaultDynamicTableName), title, aspects, Collections.emptySet());
-                }
-
-                /* Parse the "data", which is the array of rows */
-                JSONArray data = result.getJSONArray(LamiStrings.DATA);
-                ImmutableList.Builder<LamiTableEntry> dataBuilder = new ImmutableList.Builder<>();
-
-                for (int j = 0; j < data.length(); j++) {
-                    /* A row is an array of cells */
-                    JSONArray row = data.getJSONArray(j);
-                    ImmutableList.Builder<LamiData> rowBuilder = ImmutableList.builder();
-
-                    for (int k = 0; k < row.length(); k++) {
-                        Object cellObject = checkNotNull(row.get(k));
-                        LamiData cellValue = LamiData.createFromObject(cellObject);
-                        rowBuilder.add(cellValue);
+        List<LamiResultTable> results = parser.getResults();
+        if (results.isEmpty()) {
+            /*
+             * No results were reported. This may be normal, but warn the user
+             * why a report won't be created.
+             */
+            IStatus status = new Status(IStatus.INFO, Activator.instance().getPluginId(), Messages.LamiAnalysis_NoResults);
+            throw new CoreException(status);
+        }
+        return ImmutableList.copyOf(results);
+    }
 
-                    }
-                    dataBuilder.add(new LamiTableEntry(rowBuilder.build()));
-                }
-                resultsBuilder.add(new LamiResultTable(tr, tableClass, dataBuilder.build()));
+    /**
+     * Get the class of a result table from its "class" member.
+     *
+     * @param classObject
+     *            The name of a class defined in the metadata, or the JSON
+     *            object of a dynamic table class
+     * @return The table class
+     * @throws JSONException
+     *             If the class is unknown or invalid
+     */
+    private LamiTableClass getTableClass(Object classObject) throws JSONException {
+        if (!(classObject instanceof JSONObject)) {
+            /*
+             * "class" is just a standard string, indicating we use a
+             * metadata-defined table class as-is
+             */
+            if (!(classObject instanceof String)) {
+                throw new JSONException("Invalid table class: " + classObject); //$NON-NLS-1$
             }
+            return getTableClassFromName((String) classObject);
 
-        } catch (JSONException e) {
-            TraceCompassLogUtils.traceInstant(LOGGER, Level.WARNING, ERROR_PARSING_EXECUTION_OUTPUT, e.getMessage());
-            IStatus status = new Status(IStatus.ERROR, Activator.instance().getPluginId(), e.getMessage(), e);
-            throw new CoreException(status);
+            // FIXME Rest will become more generic eventually in the LAMI format.
         }
+        JSONObject tableClassObject = (JSONObject) classObject;
+        if (tableClassObject.has(LamiStrings.INHERIT)) {
+            /*
+             * Dynamic title: We reuse an existing table class but override the
+             * title.
+             */
+            String baseTableName = checkNotNull(tableClassObject.getString(LamiStrings.INHERIT));
+            LamiTableClass baseTableClass = getTableClassFromName(baseTableName);
+            String newTitle = checkNotNull(tableClassObject.getString(LamiStrings.TITLE));
 
-        return resultsBuilder.build();
+            return new LamiTableClass(baseTableClass, newTitle);
+        }
+        /*
+         * Dynamic column descriptions: we implement a new table class
+         * entirely.
+         */
+        String title = checkNotNull(tableClassObject.getString(LamiStrings.TITLE));
+        JSONArray columnDescriptions = checkNotNull(tableClassObject.getJSONArray(LamiStrings.COLUMN_DESCRIPTIONS));
+        List<LamiTableEntryAspect> aspects = getAspectsFromColumnDescriptions(columnDescriptions);
+
+        return new LamiTableClass(nullToEmptyString(Messages.LamiAnalysis_DefaultDynamicTableName), title, aspects, Collections.emptySet());
     }
 
     private LamiTableClass getTableClassFromName(String tableClassName) throws JSONException {
@@ -846,28 +796,48 @@ public class LamiAnalysis implements IOnDemandAnalysis {
     }
 
     /**
-     * Get the results of invoking the specified command.
+     * Parse the results of invoking the specified command, while the command
+     * outputs them.
      *
-     * The result should start with '{"results":...', as specified by the LAMI
-     * JSON protocol. The JSON itself may be split over multiple lines.
+     * The results should start with '{"results":...', as specified by the
+     * LAMI JSON protocol. The JSON itself may be split over multiple lines.
      *
      * @param command
      *            The command to run (program and its arguments)
      * @param monitor
      *            The progress monitor
-     * @return The analysis results
+     * @param parser
+     *            The parser of the results
      * @throws CoreException
      *             If the command ended abnormally, and normal results were not
      *             returned
+     * @throws JSONException
+     *             If the results could not be parsed
      */
     @VisibleForTesting
-    protected String getResultsFromCommand(List<String> command, IProgressMonitor monitor)
-            throws CoreException {
-        List<String> lines = ProcessUtils.getOutputFromCommandCancellable(command, monitor, nullToEmptyString(Messages.LamiAnalysis_MainTaskName), OUTPUT_READER);
-        return checkNotNull(String.join("", lines)); //$NON-NLS-1$
+    protected void parseResultsFromCommand(List<String> command, IProgressMonitor monitor, LamiResultParser parser)
+            throws CoreException, JSONException {
+        ProcessUtils.getOutputFromCommandCancellable(command, monitor, nullToEmptyString(Messages.LamiAnalysis_MainTaskName), (reader, mon) -> {
+            String line = readProgress(reader, mon);
+            if (line != null) {
+                /*
+                 * We have seen the first line containing a '{', this is our
+                 * JSON output! Parse it with the rest of the output.
+                 */
+                PushbackReader jsonReader = new PushbackReader(reader, line.length() + 1);
+                jsonReader.unread((line + '\n').toCharArray());
+                parser.parse(jsonReader);
+            }
+            return Collections.emptyList();
+        });
     }
 
-    private static final OutputReaderFunction OUTPUT_READER = (reader, monitor) -> {
+    /*
+     * Read the progress lines at the start of the output, reporting the
+     * progress to the monitor. Returns the first line of the JSON output, or
+     * null if there is none.
+     */
+    private static @Nullable String readProgress(BufferedReader reader, IProgressMonitor monitor) throws IOException {
         double workedSoFar = 0.0;
 
         String line = reader.readLine();
@@ -914,17 +884,8 @@ public class LamiAnalysis implements IOnDemandAnalysis {
             line = reader.readLine();
         }
 
-        List<String> results = new ArrayList<>();
-        while (line != null) {
-            /*
-             * We have seen the first line containing a '{', this is our JSON
-             * output!
-             */
-            results.add(line);
-            line = reader.readLine();
-        }
-        return results;
-    };
+        return line;
+    }
 
 
     @Override
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.LamiStrings;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimeRange;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Streaming parser of the results of a LAMI analysis.
+ *
+ * The results are read as they are output by the analysis, without holding the
+ * whole output nor its JSON tree in memory: only the cells of the rows are
+ * parsed as JSON values, and their data is added to the columns of the table
+ * being read. Each table is reported to the listener as soon as it is
+ * complete.
+ */
+public class LamiResultParser {
+
+    /**
+     * Function returning the class of a table from the "class" member of a
+     * result
+     */
+    @FunctionalInterface
+    public interface TableClassResolver {
+        /**
+         * Get the class of a table
+         *
+         * @param classObject
+         *            The "class" member of the result, either the name of a
+         *            table class or a JSON object
+         * @return The table class
+         * @throws JSONException
+         *             If the class is invalid or unknown
+         */
+        LamiTableClass resolve(Object classObject) throws JSONException;
+    }
+
+    private final TableClassResolver fClassResolver;
+    private final Consumer<LamiResultTable> fListener;
+    private final List<LamiResultTable> fResults = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param classResolver
+     *            The function returning the class of the tables
+     * @param listener
+     *            The listener notified of each table once it is read
+     */
+    public LamiResultParser(TableClassResolver classResolver, Consumer<LamiResultTable> listener) {
+        fClassResolver = classResolver;
+        fListener = listener;
+    }
+
+    /**
+     * Get the tables read so far
+     *
+     * @return The result tables
+     */
+    public List<LamiResultTable> getResults() {
+        return Collections.unmodifiableList(fResults);
+    }
+
+    /**
+     * Parse the results object, of the form:
+     *
+     * <pre>
+     * {
+     *   "results": [
+     *     {
+     *       "time-range": {...},
+     *       "class": "syscall-latency",
+     *       "data": [
+     *         [ cell, cell, ... ],
+     *         ...
+     *       ]
+     *     },
+     *     ...
+     *   ]
+     * }
+     * </pre>
+     *
+     * @param reader
+     *            The reader of the JSON output, positioned at the start of the
+     *            results object
+     * @throws JSONException
+     *             If the output is not a valid results object, or cannot be
+     *             read
+     */
+    public void parse(Reader reader) throws JSONException {
+        JSONTokener tokener = new JSONTokener(reader);
+        boolean hasResults = false;
+        expect(tokener, '{');
+        if (!endOf(tokener, '}')) {
+            do {
+                String key = readKey(tokener);
+                if (key.equals(LamiStrings.RESULTS)) {
+                    parseResults(tokener);
+                    hasResults = true;
+                } else {
+                    /* Unknown member, skip it */
+                    tokener.nextValue();
+                }
+            } while (nextMember(tokener, '}'));
+        }
+        if (!hasResults) {
+            throw new JSONException("JSONObject[\"" + LamiStrings.RESULTS + "\"] not found."); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private void parseResults(JSONTokener tokener) throws JSONException {
+        expect(tokener, '[');
+        if (endOf(tokener, ']')) {
+            return;
+        }
+        do {
+            LamiResultTable table = parseResult(tokener);
+            fResults.add(table);
+            fListener.accept(table);
+        } while (nextMember(tokener, ']'));
+    }
+
+    private LamiResultTable parseResult(JSONTokener tokener) throws JSONException {
+        expect(tokener, '{');
+        @Nullable Object timeRangeObject = null;
+        @Nullable Object classObject = null;
+        LamiResultTable.@Nullable Builder builder = null;
+        if (!endOf(tokener, '}')) {
+            do {
+                String key = readKey(tokener);
+                if (key.equals(LamiStrings.TIME_RANGE)) {
+                    timeRangeObject = tokener.nextValue();
+                } else if (key.equals(LamiStrings.CLASS)) {
+                    classObject = tokener.nextValue();
+                } else if (key.equals(LamiStrings.DATA)) {
+                    builder = parseData(tokener);
+                } else {
+                    tokener.nextValue();
+                }
+            } while (nextMember(tokener, '}'));
+        }
+
+        /* Parse the time-range */
+        if (!(timeRangeObject instanceof JSONObject)) {
+            throw new JSONException("JSONObject[\"" + LamiStrings.TIME_RANGE + "\"] not found."); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        LamiData trData = LamiData.createFromObject(timeRangeObject);
+        if (!(trData instanceof LamiTimeRange)) {
+            throw new JSONException("Time range did not have expected class type."); //$NON-NLS-1$
+        }
+        if (classObject == null) {
+            throw new JSONException("JSONObject[\"" + LamiStrings.CLASS + "\"] not found."); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (builder == null) {
+            throw new JSONException("JSONObject[\"" + LamiStrings.DATA + "\"] not found."); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return builder.build((LamiTimeRange) trData, fClassResolver.resolve(classObject));
+    }
+
+    /*
+     * Parse the "data", which is the array of rows, each row being an array
+     * of cells
+     */
+    private static LamiResultTable.Builder parseData(JSONTokener tokener) throws JSONException {
+        LamiResultTable.Builder builder = new LamiResultTable.Builder();
+        expect(tokener, '[');
+        if (endOf(tokener, ']')) {
+            return builder;
+        }
+        do {
+            expect(tokener, '[');
+            if (!endOf(tokener, ']')) {
+                do {
+                    Object cellObject = tokener.nextValue();
+                    builder.addValue(LamiData.createFromObject(cellObject));
+                } while (nextMember(tokener, ']'));
+            }
+            builder.endRow();
+        } while (nextMember(tokener, ']'));
+        return builder;
+    }
+
+    // ------------------------------------------------------------------------
+    // Tokens
+    // ------------------------------------------------------------------------
+
+    private static void expect(JSONTokener tokener, char expected) throws JSONException {
+        char c = tokener.nextClean();
+        if (c != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "' but found " + describe(c)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /*
+     * Check if an object or array is empty, consuming its end if it is
+     */
+    private static boolean endOf(JSONTokener tokener, char end) throws JSONException {
+        if (tokener.nextClean() == end) {
+            return true;
+        }
+        tokener.back();
+        return false;
+    }
+
+    /*
+     * Read the separator after a member of an object or array
+     */
+    private static boolean nextMember(JSONTokener tokener, char end) throws JSONException {
+        char c = tokener.nextClean();
+        if (c == ',') {
+            return true;
+        }
+        if (c == end) {
+            return false;
+        }
+        throw tokener.syntaxError("Expected ',' or '" + end + "' but found " + describe(c)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static String readKey(JSONTokener tokener) throws JSONException {
+        char c = tokener.nextClean();
+        if (c != '"') {
+            throw tokener.syntaxError("Expected a key but found " + describe(c)); //$NON-NLS-1$
+        }
+        String key = tokener.nextString('"');
+        expect(tokener, ':');
+        return key;
+    }
+
+    private static String describe(char c) {
+        return (c == 0 ? "the end of the output" : "'" + c + "'"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
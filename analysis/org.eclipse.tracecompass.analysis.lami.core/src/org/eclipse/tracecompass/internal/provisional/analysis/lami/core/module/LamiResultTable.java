@@ -13,6 +13,7 @@ package org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -22,6 +23,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.aspect.LamiEmptyAspect;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.aspect.LamiTableEntryAspect;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData;
 import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimeRange;
 import org.eclipse.tracecompass.internal.provisional.tmf.chart.core.descriptor.DataChartNumericalDescriptor;
 import org.eclipse.tracecompass.internal.provisional.tmf.chart.core.descriptor.DataChartStringDescriptor;
@@ -38,6 +40,9 @@ import com.google.common.collect.ImmutableList;
  * Class holding the results contained in one table outputted by a LAMI
  * analysis.
  *
+ * The values are stored by column, see {@link Builder}. The entries of the
+ * table are views of its rows, created when they are accessed.
+ *
  * @author Alexandre Montplaisir
  * @author Gabriel-Andrew Pollo-Guilbert
  */
@@ -49,6 +54,8 @@ public class LamiResultTable implements IDataChartProvider<LamiTableEntry> {
 
     private final LamiTimeRange fTimeRange;
     private final LamiTableClass fTableClass;
+    private final LamiTableColumn[] fColumns;
+    private final int fRowCount;
     private final List<LamiTableEntry> fEntries;
     private final List<IDataChartDescriptor<LamiTableEntry, ?>> fDescriptors;
 
@@ -69,9 +76,43 @@ public class LamiResultTable implements IDataChartProvider<LamiTableEntry> {
      */
     public LamiResultTable(LamiTimeRange timeRange, LamiTableClass tableClass,
             Iterable<LamiTableEntry> entries) {
+        this(timeRange, tableClass, addEntries(new Builder(), entries));
+    }
+
+    private static Builder addEntries(Builder builder, Iterable<LamiTableEntry> entries) {
+        for (LamiTableEntry entry : entries) {
+            builder.addRow(entry.getValues());
+        }
+        return builder;
+    }
+
+    private LamiResultTable(LamiTimeRange timeRange, LamiTableClass tableClass, Builder builder) {
         fTimeRange = timeRange;
         fTableClass = tableClass;
-        fEntries = ImmutableList.copyOf(entries);
+        fRowCount = builder.fRowCount;
+        fColumns = new LamiTableColumn[builder.fColumns.size()];
+        for (int i = 0; i < fColumns.length; i++) {
+            LamiTableColumn column = builder.fColumns.get(i);
+            if (column == null) {
+                column = LamiTableColumn.empty(fRowCount);
+            }
+            column.trim();
+            fColumns[i] = column;
+        }
+        fEntries = new AbstractList<LamiTableEntry>() {
+            @Override
+            public LamiTableEntry get(int index) {
+                if (index < 0 || index >= fRowCount) {
+                    throw new IndexOutOfBoundsException("Row " + index + ", size " + fRowCount); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                return new LamiTableEntry(LamiResultTable.this, index);
+            }
+
+            @Override
+            public int size() {
+                return fRowCount;
+            }
+        };
         fDescriptors = new ArrayList<>();
 
         for (LamiTableEntryAspect aspect : getTableClass().getAspects()) {
@@ -157,6 +198,127 @@ public class LamiResultTable implements IDataChartProvider<LamiTableEntry> {
         return fEntries;
     }
 
+    /**
+     * Get the number of columns of this table, which is the number of values
+     * of its longest row.
+     *
+     * @return The number of columns
+     */
+    public int getColumnCount() {
+        return fColumns.length;
+    }
+
+    /**
+     * Get a value of this table
+     *
+     * @param row
+     *            The index of the row
+     * @param column
+     *            The index of the column
+     * @return The value
+     */
+    public LamiData getValue(int row, int column) {
+        return fColumns[column].get(row);
+    }
+
+    // ------------------------------------------------------------------------
+    // Builder
+    // ------------------------------------------------------------------------
+
+    /**
+     * Builder of the values of a table, row by row. The values of a column
+     * are stored in a primitive array when they are numbers of the same type,
+     * so the tables of large results do not hold one object per value.
+     *
+     * The rows shorter than the longest row are completed with empty values.
+     */
+    public static class Builder {
+
+        /* The columns are created at their first non-empty value */
+        private final List<@Nullable LamiTableColumn> fColumns = new ArrayList<>();
+        private int fRowCount = 0;
+        private int fColumnIndex = 0;
+
+        /**
+         * Add a value to the current row
+         *
+         * @param data
+         *            The value
+         * @return This builder
+         */
+        public Builder addValue(LamiData data) {
+            int index = fColumnIndex++;
+            if (index == fColumns.size()) {
+                fColumns.add(null);
+            }
+            LamiTableColumn column = fColumns.get(index);
+            if (column == null) {
+                if (data != LamiData.empty()) {
+                    fColumns.set(index, LamiTableColumn.create(fRowCount, data));
+                }
+            } else if (!column.add(data)) {
+                column = column.toObjectColumn();
+                column.add(data);
+                fColumns.set(index, column);
+            }
+            return this;
+        }
+
+        /**
+         * End the current row
+         *
+         * @return This builder
+         */
+        public Builder endRow() {
+            for (int i = fColumnIndex; i < fColumns.size(); i++) {
+                LamiTableColumn column = fColumns.get(i);
+                if (column != null) {
+                    column.add(LamiData.empty());
+                }
+            }
+            fColumnIndex = 0;
+            fRowCount++;
+            return this;
+        }
+
+        /**
+         * Add a complete row
+         *
+         * @param values
+         *            The values of the row
+         * @return This builder
+         */
+        public Builder addRow(List<LamiData> values) {
+            values.forEach(this::addValue);
+            return endRow();
+        }
+
+        /**
+         * Get the number of rows added so far
+         *
+         * @return The number of complete rows
+         */
+        public int getRowCount() {
+            return fRowCount;
+        }
+
+        /**
+         * Build the table. The builder must not be used afterwards.
+         *
+         * @param timeRange
+         *            The time range represented by the table
+         * @param tableClass
+         *            The class of the table
+         * @return The table
+         */
+        public LamiResultTable build(LamiTimeRange timeRange, LamiTableClass tableClass) {
+            if (fColumnIndex != 0) {
+                endRow();
+            }
+            return new LamiResultTable(timeRange, tableClass, this);
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Data resolvers
     // ------------------------------------------------------------------------
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiBitrate;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiData;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiDoubleNumber;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiDuration;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiLongNumber;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiNumber;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiRatio;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiSize;
+import org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types.LamiTimestamp;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Storage of the values of one column of a {@link LamiResultTable}.
+ *
+ * The numbers of a same type are stored in primitive arrays and their
+ * {@link LamiData} objects are only created when they are read. A column whose
+ * values do not all fit such an array stores the data objects.
+ */
+abstract class LamiTableColumn {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @FunctionalInterface
+    private interface LongNumberFactory {
+        LamiLongNumber create(@Nullable Long low, @Nullable Long value, @Nullable Long high);
+    }
+
+    @FunctionalInterface
+    private interface DoubleNumberFactory {
+        LamiDoubleNumber create(@Nullable Double low, @Nullable Double value, @Nullable Double high);
+    }
+
+    private static final Map<Class<?>, LongNumberFactory> LONG_FACTORIES = ImmutableMap.of(
+            LamiLongNumber.class, (low, value, high) -> new LamiLongNumber(low, value, high),
+            LamiTimestamp.class, (low, value, high) -> new LamiTimestamp(low, value, high),
+            LamiDuration.class, (low, value, high) -> new LamiDuration(low, value, high),
+            LamiSize.class, (low, value, high) -> new LamiSize(low, value, high));
+
+    private static final Map<Class<?>, DoubleNumberFactory> DOUBLE_FACTORIES = ImmutableMap.of(
+            LamiDoubleNumber.class, (low, value, high) -> new LamiDoubleNumber(low, value, high),
+            LamiRatio.class, (low, value, high) -> new LamiRatio(low, value, high),
+            LamiBitrate.class, (low, value, high) -> new LamiBitrate(low, value, high));
+
+    /**
+     * Create a column whose storage fits the given first value
+     *
+     * @param rowCount
+     *            The number of rows before this value, they are empty
+     * @param data
+     *            The first value of the column
+     * @return The new column, containing the value
+     */
+    static LamiTableColumn create(int rowCount, LamiData data) {
+        LamiTableColumn column;
+        LongNumberFactory longFactory = LONG_FACTORIES.get(data.getClass());
+        DoubleNumberFactory doubleFactory = DOUBLE_FACTORIES.get(data.getClass());
+        if (longFactory != null && isSingleValue((LamiNumber) data)) {
+            column = new LongColumn(data.getClass(), longFactory, hasLimits((LamiNumber) data));
+        } else if (doubleFactory != null && isSingleValue((LamiNumber) data)) {
+            column = new DoubleColumn(data.getClass(), doubleFactory, hasLimits((LamiNumber) data));
+        } else {
+            column = new ObjectColumn();
+        }
+        for (int i = 0; i < rowCount; i++) {
+            column.add(LamiData.empty());
+        }
+        if (!column.add(data)) {
+            throw new IllegalStateException();
+        }
+        return column;
+    }
+
+    /**
+     * Create a column of empty values
+     *
+     * @param rowCount
+     *            The number of rows
+     * @return The new column
+     */
+    static LamiTableColumn empty(int rowCount) {
+        LamiTableColumn column = new ObjectColumn();
+        for (int i = 0; i < rowCount; i++) {
+            column.add(LamiData.empty());
+        }
+        return column;
+    }
+
+    /*
+     * The numbers without limits, or whose limits are equal to the value, as
+     * created for exact values
+     */
+    private static boolean isSingleValue(LamiNumber number) {
+        Number value = number.getValue();
+        if (value == null) {
+            return false;
+        }
+        return !hasLimits(number) || (value.equals(number.getLowerLimit()) && value.equals(number.getHigherLimit()));
+    }
+
+    private static boolean hasLimits(LamiNumber number) {
+        return number.getLowerLimit() != null || number.getHigherLimit() != null;
+    }
+
+    /**
+     * Get the number of values of this column
+     *
+     * @return The number of values
+     */
+    abstract int size();
+
+    /**
+     * Add a value at the end of this column
+     *
+     * @param data
+     *            The value
+     * @return False if the value does not fit the storage of this column, in
+     *         which case it is not added
+     */
+    abstract boolean add(LamiData data);
+
+    /**
+     * Get a value
+     *
+     * @param row
+     *            The row of the value
+     * @return The value
+     */
+    abstract LamiData get(int row);
+
+    /**
+     * Release the extra capacity, once all the values are added
+     */
+    abstract void trim();
+
+    /**
+     * Copy this column to a column storing the data objects
+     *
+     * @return The column of data objects
+     */
+    LamiTableColumn toObjectColumn() {
+        ObjectColumn column = new ObjectColumn();
+        for (int i = 0; i < size(); i++) {
+            column.add(get(i));
+        }
+        return column;
+    }
+
+    // ------------------------------------------------------------------------
+    // Column types
+    // ------------------------------------------------------------------------
+
+    private abstract static class NumberColumn extends LamiTableColumn {
+        private final Class<?> fClass;
+        private final boolean fLimits;
+        private final BitSet fEmpty = new BitSet();
+        private int fSize = 0;
+
+        protected NumberColumn(Class<?> cls, boolean limits) {
+            fClass = cls;
+            fLimits = limits;
+        }
+
+        @Override
+        int size() {
+            return fSize;
+        }
+
+        @Override
+        boolean add(LamiData data) {
+            if (data == LamiData.empty()) {
+                ensureCapacity(fSize + 1);
+                fEmpty.set(fSize);
+                fSize++;
+                return true;
+            }
+            if (data.getClass() != fClass) {
+                return false;
+            }
+            LamiNumber number = (LamiNumber) data;
+            if (!isSingleValue(number) || hasLimits(number) != fLimits) {
+                return false;
+            }
+            ensureCapacity(fSize + 1);
+            set(fSize, Objects.requireNonNull(number.getValue()));
+            fSize++;
+            return true;
+        }
+
+        @Override
+        LamiData get(int row) {
+            if (row < 0 || row >= fSize) {
+                throw new IndexOutOfBoundsException("Row " + row + ", size " + fSize); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (fEmpty.get(row)) {
+                return LamiData.empty();
+            }
+            return create(row, fLimits);
+        }
+
+        protected abstract void ensureCapacity(int capacity);
+
+        protected abstract void set(int row, Number value);
+
+        protected abstract LamiData create(int row, boolean limits);
+    }
+
+    private static final class LongColumn extends NumberColumn {
+        private final LongNumberFactory fFactory;
+        private long[] fValues = new long[INITIAL_CAPACITY];
+
+        public LongColumn(Class<?> cls, LongNumberFactory factory, boolean limits) {
+            super(cls, limits);
+            fFactory = factory;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > fValues.length) {
+                fValues = Arrays.copyOf(fValues, Math.max(capacity, fValues.length * 2));
+            }
+        }
+
+        @Override
+        protected void set(int row, Number value) {
+            fValues[row] = value.longValue();
+        }
+
+        @Override
+        protected LamiData create(int row, boolean limits) {
+            Long value = fValues[row];
+            return fFactory.create(limits ? value : null, value, limits ? value : null);
+        }
+
+        @Override
+        void trim() {
+            fValues = Arrays.copyOf(fValues, size());
+        }
+    }
+
+    private static final class DoubleColumn extends NumberColumn {
+        private final DoubleNumberFactory fFactory;
+        private double[] fValues = new double[INITIAL_CAPACITY];
+
+        public DoubleColumn(Class<?> cls, DoubleNumberFactory factory, boolean limits) {
+            super(cls, limits);
+            fFactory = factory;
+        }
+
+        @Override
+        protected void ensureCapacity(int capacity) {
+            if (capacity > fValues.length) {
+                fValues = Arrays.copyOf(fValues, Math.max(capacity, fValues.length * 2));
+            }
+        }
+
+        @Override
+        protected void set(int row, Number value) {
+            fValues[row] = value.doubleValue();
+        }
+
+        @Override
+        protected LamiData create(int row, boolean limits) {
+            Double value = fValues[row];
+            return fFactory.create(limits ? value : null, value, limits ? value : null);
+        }
+
+        @Override
+        void trim() {
+            fValues = Arrays.copyOf(fValues, size());
+        }
+    }
+
+    private static final class ObjectColumn extends LamiTableColumn {
+        private LamiData[] fValues = new LamiData[INITIAL_CAPACITY];
+        private int fSize = 0;
+
+        @Override
+        int size() {
+            return fSize;
+        }
+
+        @Override
+        boolean add(LamiData data) {
+            if (fSize == fValues.length) {
+                fValues = Arrays.copyOf(fValues, fValues.length * 2);
+            }
+            fValues[fSize++] = data;
+            return true;
+        }
+
+        @Override
+        LamiData get(int row) {
+            if (row < 0 || row >= fSize) {
+                throw new IndexOutOfBoundsException("Row " + row + ", size " + fSize); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            return fValues[row];
+        }
+
+        @Override
+        void trim() {
+            fValues = Arrays.copyOf(fValues, fSize);
+        }
+
+        @Override
+        LamiTableColumn toObjectColumn() {
+            return this;
+        }
+    }
+}
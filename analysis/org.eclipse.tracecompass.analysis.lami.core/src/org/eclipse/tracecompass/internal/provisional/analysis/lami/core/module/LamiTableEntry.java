@@ -13,7 +13,9 @@ package org.eclipse.tracecompass.internal.provisional.analysis.lami.core.module;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +35,9 @@ import com.google.common.collect.ImmutableList;
 public class LamiTableEntry {
 
     private final List<LamiData> fValues;
+    /* The table of which this entry is a row, if any */
+    private final @Nullable LamiResultTable fTable;
+    private final int fRow;
 
     /**
      * Constructor
@@ -41,6 +46,41 @@ public class LamiTableEntry {
      */
     public LamiTableEntry(List<LamiData> values) {
         fValues = checkNotNull(ImmutableList.copyOf(values));
+        fTable = null;
+        fRow = -1;
+    }
+
+    /**
+     * Constructor for a row of a table, whose values are read from the table
+     *
+     * @param table
+     *            The table
+     * @param row
+     *            The index of the row in the table
+     */
+    LamiTableEntry(LamiResultTable table, int row) {
+        fTable = table;
+        fRow = row;
+        fValues = new AbstractList<LamiData>() {
+            @Override
+            public LamiData get(int index) {
+                return table.getValue(row, index);
+            }
+
+            @Override
+            public int size() {
+                return table.getColumnCount();
+            }
+        };
+    }
+
+    /**
+     * Get the values of this entry
+     *
+     * @return The values
+     */
+    List<LamiData> getValues() {
+        return fValues;
     }
 
     /**
@@ -105,4 +145,25 @@ public class LamiTableEntry {
         /* Didn't find any timestamp we can't use */
         return null;
     }
+
+    @Override
+    public int hashCode() {
+        if (fTable == null) {
+            return super.hashCode();
+        }
+        return Objects.hash(System.identityHashCode(fTable), fRow);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (fTable == null || !(obj instanceof LamiTableEntry)) {
+            return false;
+        }
+        /* The entries of a table are equal if they are the same row */
+        LamiTableEntry other = (LamiTableEntry) obj;
+        return fTable == other.fTable && fRow == other.fRow;
+    }
 }
@@ -146,6 +146,16 @@ public abstract class LamiData {
     @Override
     public abstract @Nullable String toString();
 
+    /**
+     * Get the data of the empty values, for example the JSON null values or
+     * the missing cells of a row.
+     *
+     * @return The empty data
+     */
+    public static LamiData empty() {
+        return LamiEmpty.INSTANCE;
+    }
+
     // ------------------------------------------------------------------------
     // Convenience methods
     // ------------------------------------------------------------------------
@@ -40,7 +40,7 @@ public class LamiDoubleNumber extends LamiNumber {
      * @param highLimit
      *            Higher limit
      */
-    protected LamiDoubleNumber(@Nullable Double lowLimit, @Nullable Double value, @Nullable Double highLimit) {
+    public LamiDoubleNumber(@Nullable Double lowLimit, @Nullable Double value, @Nullable Double highLimit) {
         super(lowLimit, value, highLimit);
     }
 
@@ -13,12 +13,31 @@ package org.eclipse.tracecompass.internal.provisional.analysis.lami.core.types;
 
 import org.eclipse.jdt.annotation.Nullable;
 
-class LamiRatio extends LamiDoubleNumber {
-
+/**
+ * Class for LAMI 'ratio' types.
+ */
+public class LamiRatio extends LamiDoubleNumber {
+
+    /**
+     * Constructor
+     *
+     * @param value
+     *            The ratio value
+     */
     public LamiRatio(double value) {
         super(value);
     }
 
+    /**
+     * Constructor (with limits)
+     *
+     * @param low
+     *            Lower bound of value
+     * @param value
+     *            Value
+     * @param high
+     *            Higher bound of value
+     */
     public LamiRatio(@Nullable Double low, @Nullable Double value, @Nullable Double high) {
         super(low, value, high);
     }
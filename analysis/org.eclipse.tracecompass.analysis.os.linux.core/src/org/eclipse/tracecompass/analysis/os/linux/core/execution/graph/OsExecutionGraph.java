@@ -11,8 +11,11 @@
 
 package org.eclipse.tracecompass.analysis.os.linux.core.execution.graph;
 
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorkerSerializer;
 import org.eclipse.tracecompass.analysis.graph.core.building.ITmfGraphProvider;
 import org.eclipse.tracecompass.analysis.graph.core.building.TmfGraphBuilderModule;
+import org.eclipse.tracecompass.internal.analysis.os.linux.core.execution.graph.OsWorkerSerializer;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
@@ -47,6 +50,11 @@ public class OsExecutionGraph extends TmfGraphBuilderModule {
         return new OsExecutionGraphProvider(trace);
     }
 
+    @Override
+    protected @Nullable IGraphWorkerSerializer getWorkerSerializer() {
+        return new OsWorkerSerializer();
+    }
+
     @Override
     protected String getFullHelpText() {
         return super.getFullHelpText();
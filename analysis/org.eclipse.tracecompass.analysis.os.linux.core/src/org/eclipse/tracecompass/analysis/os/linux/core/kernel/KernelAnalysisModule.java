@@ -69,6 +69,13 @@ public class KernelAnalysisModule extends TmfStateSystemAnalysisModule {
             // LttngStrings.SYSCALL_PREFIX
             // );
 
+    /**
+     * Size of the history written between two checkpoints of the
+     * construction, the state provider keeps all its state in the state
+     * system
+     */
+    private static final long CHECKPOINT_SIZE = 1024L * 1024 * 1024;
+
     /** The requirements as an immutable set */
     private static final Set<TmfAbstractAnalysisRequirement> REQUIREMENTS;
 
@@ -84,6 +91,11 @@ public class KernelAnalysisModule extends TmfStateSystemAnalysisModule {
         REQUIREMENTS = Collections.emptySet();
     }
 
+    @Override
+    protected long getCheckpointSize() {
+        return CHECKPOINT_SIZE;
+    }
+
     @Override
     protected @NonNull ITmfStateProvider createStateProvider() {
         ITmfTrace trace = checkNotNull(getTrace());
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,9 +31,11 @@ import org.eclipse.tracecompass.analysis.os.linux.core.cpuusage.KernelCpuUsageAn
 import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelAnalysisModule;
 import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelThreadInformationProvider;
 import org.eclipse.tracecompass.analysis.os.linux.core.model.OsStrings;
+import org.eclipse.tracecompass.analysis.os.linux.core.tid.TidAnalysisModule;
 import org.eclipse.tracecompass.common.core.format.SubSecondTimeWithUnitFormat;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.internal.tmf.core.model.xy.AbstractTreeCommonXDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
@@ -42,6 +45,7 @@ import org.eclipse.tracecompass.tmf.core.model.filters.SelectionTimeQueryFilter;
 import org.eclipse.tracecompass.tmf.core.model.filters.TimeQueryFilter;
 import org.eclipse.tracecompass.tmf.core.model.tree.TmfTreeModel;
 import org.eclipse.tracecompass.tmf.core.model.xy.IYModel;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfStateSystemAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
@@ -122,7 +126,8 @@ public class CpuUsageDataProvider extends AbstractTreeCommonXDataProvider<Kernel
      * @since 2.5
      */
     @Override
-    protected @Nullable Collection<IYModel> getYSeriesModels(ITmfStateSystem ss, Map<String, Object> fetchParameters, @Nullable IProgressMonitor monitor) {
+    protected @Nullable Collection<IYModel> getYSeriesModels(ITmfStateSystem ss, Map<String, Object> fetchParameters, @Nullable IProgressMonitor monitor)
+            throws StateSystemDisposedException {
         Set<Integer> cpus = Collections.emptySet();
 
         SelectionTimeQueryFilter filter = createCpuQuery(fetchParameters);
@@ -137,83 +142,98 @@ public class CpuUsageDataProvider extends AbstractTreeCommonXDataProvider<Kernel
             cpus = ((SelectedCpuQueryFilter) filter).getSelectedCpus();
         }
 
-        long[] xValues = filter.getTimesRequested();
-
-        /* CPU usage values for total and selected thread */
-        double[] totalValues = new double[xValues.length];
-        Map<String, IYModel> selectedThreadValues = new HashMap<>();
+        long totalId = getId(ITmfStateSystem.ROOT_ATTRIBUTE);
+        Map<Long, String> threadNames = new HashMap<>();
         for (Entry<Long, Integer> entry : getSelectedEntries(filter).entrySet()) {
-            String name = Integer.toString(entry.getValue());
-            selectedThreadValues.put(name, new YModel(entry.getKey(), getTrace().getName() + ':' + name, new double[xValues.length]));
+            threadNames.put(entry.getKey(), Integer.toString(entry.getValue()));
+        }
+        Set<Long> ids = new HashSet<>(threadNames.keySet());
+        ids.add(totalId);
+
+        Set<Integer> selectedCpus = cpus;
+        XYSeriesCache.ISeriesSampler sampler = (sampledIds, starts, times) -> sampleCpuUsage(ss, selectedCpus, threadNames, totalId, starts, times, monitor);
+        /* The usage also depends on the thread analysis, do not cache it until it is built */
+        ITmfStateSystem tidSs = TmfStateSystemAnalysisModule.getStateSystem(getTrace(), TidAnalysisModule.ID);
+        Map<Long, double[]> values = (tidSs != null && tidSs.waitUntilBuilt(0)) ?
+                getSeriesValues(ss, cpus, XYSeriesCache.SampleType.AVERAGE, ids, filter.getTimesRequested(), sampler) :
+                XYSeriesCache.sample(sampler, ids, filter.getTimesRequested());
+        if (values == null) {
+            return null;
         }
 
-        long prevTime = Math.max(getInitialPrevTime(filter), ss.getStartTime());
-        long currentEnd = ss.getCurrentEndTime();
+        ImmutableList.Builder<IYModel> ySeries = ImmutableList.builder();
+        String key = TOTAL + getTrace().getName();
+        ySeries.add(new YModel(totalId, key, Objects.requireNonNull(values.get(totalId))));
+        for (Entry<Long, String> entry : threadNames.entrySet()) {
+            ySeries.add(new YModel(entry.getKey(), getTrace().getName() + ':' + entry.getValue(), Objects.requireNonNull(values.get(entry.getKey()))));
+        }
+        return ySeries.build();
+    }
+
+    /**
+     * Get the CPU usage of the total and selected threads during the range of
+     * each time, since the previous requested time
+     *
+     * @return a map of the entry ids to their values, one per time, or null if
+     *         the query was cancelled
+     */
+    private @Nullable Map<Long, double[]> sampleCpuUsage(ITmfStateSystem ss, Set<Integer> cpus, Map<Long, String> threadNames,
+            long totalId, long[] starts, long[] times, @Nullable IProgressMonitor monitor) {
+        double[] totalValues = new double[times.length];
+        Map<String, double[]> selectedThreadValues = new HashMap<>();
+        for (String name : threadNames.values()) {
+            selectedThreadValues.put(name, new double[times.length]);
+        }
 
-        for (int i = 0; i < xValues.length; i++) {
-            long time = xValues[i];
+        long currentEnd = ss.getCurrentEndTime();
+        for (int i = 0; i < times.length; i++) {
+            long time = times[i];
+            long prevTime = Math.max(starts[i], ss.getStartTime());
             if (time < ss.getStartTime() || time > currentEnd) {
                 /* Leave empty if time xValue is out of bounds */
-                prevTime = time;
                 continue;
             }
-            if (prevTime < time) {
-                Map<String, Long> cpuUsageMap = Maps.filterKeys(getAnalysisModule().getCpuUsageInRange(cpus, prevTime, time),
-                    key -> key.startsWith(KernelCpuUsageAnalysis.TOTAL)
-                );
-
-                /*
-                 * Calculate the sum of all total entries, and add a data point to the selected
-                 * one
-                 */
-                long totalCpu = 0;
-                for (Entry<String, Long> entry : cpuUsageMap.entrySet()) {
-                    String threadName = extractThreadName(entry.getKey());
-                    if (threadName != null) {
-                        long cpuTime = entry.getValue();
-                        totalCpu += cpuTime;
-                        IYModel values = selectedThreadValues.get(threadName);
-                        if (values != null) {
-                            values.getData()[i] = normalize(prevTime, time, cpuTime);
-                        }
+            if (prevTime >= time) {
+                if (i > 0 && times[i - 1] == time) {
+                    /* In case of duplicate time xValue copy previous yValues */
+                    for (double[] values : selectedThreadValues.values()) {
+                        values[i] = values[i - 1];
                     }
+                    totalValues[i] = totalValues[i - 1];
                 }
-                totalValues[i] = normalize(prevTime, time, totalCpu);
-            } else if (i > 0) {
-                /* In case of duplicate time xValue copy previous yValues */
-                for (IYModel values : selectedThreadValues.values()) {
-                    values.getData()[i] = values.getData()[i - 1];
+                continue;
+            }
+            Map<String, Long> cpuUsageMap = Maps.filterKeys(getAnalysisModule().getCpuUsageInRange(cpus, prevTime, time),
+                    key -> key.startsWith(KernelCpuUsageAnalysis.TOTAL));
+
+            /*
+             * Calculate the sum of all total entries, and add a data point to
+             * the selected one
+             */
+            long totalCpu = 0;
+            for (Entry<String, Long> entry : cpuUsageMap.entrySet()) {
+                String threadName = extractThreadName(entry.getKey());
+                if (threadName != null) {
+                    long cpuTime = entry.getValue();
+                    totalCpu += cpuTime;
+                    double[] values = selectedThreadValues.get(threadName);
+                    if (values != null) {
+                        values[i] = normalize(prevTime, time, cpuTime);
+                    }
                 }
-                totalValues[i] = totalValues[i - 1];
             }
-            prevTime = time;
+            totalValues[i] = normalize(prevTime, time, totalCpu);
             if (monitor != null && monitor.isCanceled()) {
                 return null;
             }
         }
 
-        ImmutableList.Builder<IYModel> ySeries = ImmutableList.builder();
-        String key = TOTAL + getTrace().getName();
-        ySeries.add(new YModel(getId(ITmfStateSystem.ROOT_ATTRIBUTE), key, totalValues));
-        for (IYModel entry : selectedThreadValues.values()) {
-            ySeries.add(entry);
-        }
-
-        return ySeries.build();
-    }
-
-    private static long getInitialPrevTime(SelectionTimeQueryFilter filter) {
-        /*
-         * Subtract from start time the same interval as the interval from start
-         * time to next time, ignoring duplicates in the times requested.
-         */
-        long startTime = filter.getStart();
-        for (long time : filter.getTimesRequested()) {
-            if (time > startTime) {
-                return startTime - (time - startTime);
-            }
+        Map<Long, double[]> values = new HashMap<>();
+        values.put(totalId, totalValues);
+        for (Entry<Long, String> entry : threadNames.entrySet()) {
+            values.put(entry.getKey(), Objects.requireNonNull(selectedThreadValues.get(entry.getValue())));
         }
-        return startTime;
+        return values;
     }
 
     private static double normalize(long prevTime, long time, long value) {
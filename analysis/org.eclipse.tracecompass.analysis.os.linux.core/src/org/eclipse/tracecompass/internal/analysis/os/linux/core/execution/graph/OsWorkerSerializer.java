@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.os.linux.core.execution.graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorkerSerializer;
+import org.eclipse.tracecompass.analysis.os.linux.core.execution.graph.OsWorker;
+import org.eclipse.tracecompass.analysis.os.linux.core.model.HostThread;
+
+/**
+ * Serializer of the {@link OsWorker}s of the execution graph. The host thread,
+ * name and start time of the workers are saved, their status is only used
+ * while building the graph.
+ */
+public class OsWorkerSerializer implements IGraphWorkerSerializer {
+
+    @Override
+    public void write(DataOutput out, IGraphWorker worker) throws IOException {
+        if (!(worker instanceof OsWorker)) {
+            throw new IOException("Unexpected worker in the execution graph: " + worker); //$NON-NLS-1$
+        }
+        OsWorker osWorker = (OsWorker) worker;
+        HostThread hostThread = osWorker.getHostThread();
+        out.writeUTF(hostThread.getHost());
+        out.writeInt(hostThread.getTid());
+        out.writeUTF(osWorker.getName());
+        out.writeLong(osWorker.getStart());
+    }
+
+    @Override
+    public IGraphWorker read(DataInput in) throws IOException {
+        String host = in.readUTF();
+        int tid = in.readInt();
+        String name = in.readUTF();
+        long start = in.readLong();
+        return new OsWorker(new HostThread(host, tid), name, start);
+    }
+
+}
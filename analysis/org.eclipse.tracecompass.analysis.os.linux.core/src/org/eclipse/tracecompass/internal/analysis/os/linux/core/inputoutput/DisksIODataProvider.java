@@ -14,6 +14,7 @@ package org.eclipse.tracecompass.internal.analysis.os.linux.core.inputoutput;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -24,6 +25,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.internal.tmf.core.model.xy.AbstractTreeCommonXDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
@@ -48,6 +50,7 @@ import org.eclipse.tracecompass.tmf.core.util.Pair;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 
 /**
  * This data provider will return a XY model (model is wrapped in a response)
@@ -240,30 +243,35 @@ public class DisksIODataProvider extends AbstractTreeCommonXDataProvider<InputOu
             return Collections.emptyList();
         }
 
+        /*
+         * The numbers of sectors at the requested times do not depend on the
+         * resolution, so they are cached for all queries
+         */
+        Map<Long, Integer> quarks = new HashMap<>();
+        for (DiskBuilder entry : builders) {
+            quarks.put(entry.fId, entry.fSectorQuark);
+        }
+        Map<Long, double[]> counts = getSeriesValues(ss, Collections.emptySet(), XYSeriesCache.SampleType.POINT, quarks.keySet(), xValues,
+                (ids, starts, times) -> sampleCounts(ss, Maps.filterKeys(quarks, ids::contains), times, monitor));
+        if (counts == null) {
+            return null;
+        }
+
         long currentEnd = ss.getCurrentEndTime();
         long prevTime = filter.getStart();
         if (prevTime >= ss.getStartTime() && prevTime <= currentEnd) {
-            // reuse the results from the full query
-            List<ITmfStateInterval> states = ss.queryFullState(prevTime);
-
             for (DiskBuilder entry : builders) {
-                entry.setPrevCount(Disk.extractCount(entry.fSectorQuark, ss, states, prevTime));
+                entry.setPrevCount(Objects.requireNonNull(counts.get(entry.fId))[0]);
             }
         }
 
         for (int i = 1; i < xValues.length; i++) {
-            if (monitor != null && monitor.isCanceled()) {
-                return null;
-            }
             long time = xValues[i];
             if (time > currentEnd) {
                 break;
             } else if (time >= ss.getStartTime()) {
-                // reuse the results from the full query
-                List<ITmfStateInterval> states = ss.queryFullState(time);
-
                 for (DiskBuilder entry : builders) {
-                    double count = Disk.extractCount(entry.fSectorQuark, ss, states, time);
+                    double count = Objects.requireNonNull(counts.get(entry.fId))[i];
                     entry.updateValue(i, count, time - prevTime);
                 }
             }
@@ -272,6 +280,36 @@ public class DisksIODataProvider extends AbstractTreeCommonXDataProvider<InputOu
         return ImmutableList.copyOf(Iterables.transform(builders, DiskBuilder::build));
     }
 
+    /**
+     * Get the number of read or written sectors of disks at times
+     *
+     * @return the numbers of sectors for each entry id, one per time, or null if
+     *         the query was cancelled
+     */
+    private static @Nullable Map<Long, double[]> sampleCounts(ITmfStateSystem ss, Map<Long, Integer> quarks, long[] times,
+            @Nullable IProgressMonitor monitor) throws StateSystemDisposedException {
+        Map<Long, double[]> counts = new HashMap<>();
+        for (Long id : quarks.keySet()) {
+            counts.put(id, new double[times.length]);
+        }
+        long currentEnd = ss.getCurrentEndTime();
+        for (int i = 0; i < times.length; i++) {
+            if (monitor != null && monitor.isCanceled()) {
+                return null;
+            }
+            long time = times[i];
+            if (time >= ss.getStartTime() && time <= currentEnd) {
+                // reuse the results from the full query
+                List<ITmfStateInterval> states = ss.queryFullState(time);
+
+                for (Entry<Long, Integer> entry : quarks.entrySet()) {
+                    Objects.requireNonNull(counts.get(entry.getKey()))[i] = Disk.extractCount(entry.getValue(), ss, states, time);
+                }
+            }
+        }
+        return counts;
+    }
+
     private List<DiskBuilder> initBuilders(ITmfStateSystem ss, SelectionTimeQueryFilter filter) {
         int length = filter.getTimesRequested().length;
         List<DiskBuilder> builders = new ArrayList<>();
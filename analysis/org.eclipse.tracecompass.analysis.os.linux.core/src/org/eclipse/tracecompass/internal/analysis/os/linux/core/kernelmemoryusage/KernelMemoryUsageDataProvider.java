@@ -16,10 +16,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -31,6 +33,7 @@ import org.eclipse.tracecompass.analysis.os.linux.core.kernelmemoryusage.KernelM
 import org.eclipse.tracecompass.analysis.os.linux.core.memory.MemoryUsageTreeModel;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.internal.tmf.core.model.xy.AbstractTreeCommonXDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
@@ -44,6 +47,7 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 
 /**
  * This data provider will return a XY model based on a query filter. The model
@@ -122,39 +126,26 @@ public class KernelMemoryUsageDataProvider extends AbstractTreeCommonXDataProvid
          * For a given time range, we plot lines representing the memory allocation for
          * the total and the selected entries.
          */
-        double[] totalKernelMemoryValues = new double[xValues.length];
-        Map<Integer, IYModel> selectedSeries = initSeries(ss, filter);
-
         List<Integer> threadQuarkList = ss.getSubAttributes(-1, false);
         if(threadQuarkList.isEmpty()) {
             return Collections.emptyList();
         }
-        Collection<Long> times = getTimes(filter, ss.getStartTime(), currentEnd);
-        for (ITmfStateInterval interval : ss.query2D(threadQuarkList, times)) {
-            if (monitor != null && monitor.isCanceled()) {
-                return null;
-            }
-
-            Object object = interval.getValue();
-            if (object instanceof Number) {
-                double value = ((Number) object).doubleValue();
-                int from = Arrays.binarySearch(xValues, interval.getStartTime());
-                from = (from >= 0) ? from : -1 - from;
-
-                int to = Arrays.binarySearch(xValues, from, xValues.length, interval.getEndTime());
-                to = (to >= 0) ? to + 1 : -1 - to;
-
-                /* We add the value of each thread to the total quantity */
-                for (int i = from; i < to; i++) {
-                    totalKernelMemoryValues[i] += value;
-                }
+        Map<Long, Integer> selectedEntries = getSelectedEntries(filter);
+        long totalId = getId(ITmfStateSystem.ROOT_ATTRIBUTE);
+        Set<Long> ids = new HashSet<>(selectedEntries.keySet());
+        ids.add(totalId);
 
-                IYModel selectedThreadValues = selectedSeries.get(interval.getAttribute());
-                if (selectedThreadValues != null) {
-                    Arrays.fill(selectedThreadValues.getData(), from, to, value);
-                }
-            }
+        /*
+         * The values before the shift do not depend on the queried time range, so
+         * they are cached for all queries
+         */
+        Map<Long, double[]> values = getSeriesValues(ss, Collections.emptySet(), XYSeriesCache.SampleType.POINT, ids, xValues,
+                (sampledIds, starts, times) -> sampleMemory(ss, threadQuarkList, Maps.filterKeys(selectedEntries, sampledIds::contains), totalId, times, monitor));
+        if (values == null) {
+            return null;
         }
+        double[] totalKernelMemoryValues = Objects.requireNonNull(values.get(totalId));
+        Map<Integer, IYModel> selectedSeries = initSeries(ss, selectedEntries, values);
 
         /**
          * We shift the series up.
@@ -162,7 +153,8 @@ public class KernelMemoryUsageDataProvider extends AbstractTreeCommonXDataProvid
         List<ITmfStateInterval> endState = ss.queryFullState(Long.min(filter.getEnd(), currentEnd));
 
         double d = extractTotalValueShift(ss, endState);
-        Arrays.setAll(totalKernelMemoryValues, i -> totalKernelMemoryValues[i] + d);
+        double[] totalValues = new double[totalKernelMemoryValues.length];
+        Arrays.setAll(totalValues, i -> totalKernelMemoryValues[i] + d);
 
         for (Entry<Integer, IYModel> entry : selectedSeries.entrySet()) {
             int lowestMemoryQuark = ss.optQuarkRelative(entry.getKey(),
@@ -180,27 +172,85 @@ public class KernelMemoryUsageDataProvider extends AbstractTreeCommonXDataProvid
         ImmutableList.Builder<IYModel> ySeries = ImmutableList.builder();
 
         String total = getTrace().getName() + MemoryUsageTreeModel.TOTAL_SUFFIX;
-        ySeries.add(new YModel(getId(ITmfStateSystem.ROOT_ATTRIBUTE), total, totalKernelMemoryValues));
+        ySeries.add(new YModel(totalId, total, totalValues));
         ySeries.addAll(selectedSeries.values());
 
         return ySeries.build();
     }
 
     /**
-     * Initialize a map of quark to primitive double array
+     * Get the memory usage of the selected threads and the total memory usage
+     * at times, before they are shifted
+     *
+     * @return a map of the entry ids to their values, one per time, or null if
+     *         the query was cancelled
+     */
+    private static @Nullable Map<Long, double[]> sampleMemory(ITmfStateSystem ss, List<Integer> threadQuarkList,
+            Map<Long, Integer> selectedEntries, long totalId, long[] xValues, @Nullable IProgressMonitor monitor)
+            throws StateSystemDisposedException {
+        double[] totalKernelMemoryValues = new double[xValues.length];
+        Map<Integer, double[]> selectedValues = new HashMap<>();
+        for (Integer quark : selectedEntries.values()) {
+            selectedValues.put(quark, new double[xValues.length]);
+        }
+
+        Collection<Long> times = new HashSet<>();
+        for (long time : xValues) {
+            if (ss.getStartTime() <= time && time <= ss.getCurrentEndTime()) {
+                times.add(time);
+            }
+        }
+        for (ITmfStateInterval interval : ss.query2D(threadQuarkList, times)) {
+            if (monitor != null && monitor.isCanceled()) {
+                return null;
+            }
+
+            Object object = interval.getValue();
+            if (object instanceof Number) {
+                double value = ((Number) object).doubleValue();
+                int from = Arrays.binarySearch(xValues, interval.getStartTime());
+                from = (from >= 0) ? from : -1 - from;
+
+                int to = Arrays.binarySearch(xValues, from, xValues.length, interval.getEndTime());
+                to = (to >= 0) ? to + 1 : -1 - to;
+
+                /* We add the value of each thread to the total quantity */
+                for (int i = from; i < to; i++) {
+                    totalKernelMemoryValues[i] += value;
+                }
+
+                double[] selectedThreadValues = selectedValues.get(interval.getAttribute());
+                if (selectedThreadValues != null) {
+                    Arrays.fill(selectedThreadValues, from, to, value);
+                }
+            }
+        }
+
+        Map<Long, double[]> values = new HashMap<>();
+        values.put(totalId, totalKernelMemoryValues);
+        for (Entry<Long, Integer> entry : selectedEntries.entrySet()) {
+            values.put(entry.getKey(), Objects.requireNonNull(selectedValues.get(entry.getValue())));
+        }
+        return values;
+    }
+
+    /**
+     * Initialize a map of quark to the series of the selected entries
      *
-     * @param filter
-     *            the query object
+     * @param selectedEntries
+     *            the ids and quarks of the selected entries
+     * @param values
+     *            the values of each entry
      * @return a Map of quarks for the entries which exist for this provider to
-     *         newly initialized primitive double arrays of the same length as the
-     *         number of requested timestamps.
+     *         their series, with one value per requested time.
      */
-    private Map<Integer, IYModel> initSeries(ITmfStateSystem ss, SelectionTimeQueryFilter filter) {
-        int length = filter.getTimesRequested().length;
+    private Map<Integer, IYModel> initSeries(ITmfStateSystem ss, Map<Long, Integer> selectedEntries, Map<Long, double[]> values) {
         Map<Integer, IYModel> map = new HashMap<>();
-        for (Entry<Long, Integer> entry : getSelectedEntries(filter).entrySet()) {
+        for (Entry<Long, Integer> entry : selectedEntries.entrySet()) {
             String selectedThreadName = getTrace().getName() + ':' + ss.getAttributeName(entry.getValue());
-            map.put(entry.getValue(), new YModel(entry.getKey(), selectedThreadName, new double[length]));
+            /* Copy the values, which may be cached, before they are shifted */
+            double[] threadValues = Objects.requireNonNull(values.get(entry.getKey())).clone();
+            map.put(entry.getValue(), new YModel(entry.getKey(), selectedThreadName, threadValues));
         }
         return map;
     }
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.profiling.core.tests.flamegraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.profiling.core.callstack.CallStackAnalysis;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.AggregatedCalledFunction;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.CallGraphAnalysis;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.ThreadNode;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the concurrent construction of the call graph of many threads, the
+ * merge of their aggregation trees and the call graphs of time ranges.
+ */
+public class CallGraphParallelTest {
+
+    private static final @NonNull String PROCESS_PATH = "Processes";
+    private static final String @NonNull [] PP = { PROCESS_PATH };
+    private static final String @NonNull [] TP = { "*" };
+    private static final int NB_THREADS = 20;
+    private static final long THREAD_PERIOD = 100;
+
+    private static final Integer MAIN = 1;
+    private static final Integer FUNCTION = 2;
+
+    /**
+     * This class is used to make the CallGraphAnalysis's method
+     * iterateOverStateSystem() visible to test
+     */
+    private static class CGAnalysis extends CallGraphAnalysis {
+
+        @Override
+        protected boolean iterateOverStateSystem(ITmfStateSystem ss, String[] threadsPattern, String[] processesPattern, IProgressMonitor monitor) {
+            return super.iterateOverStateSystem(ss, threadsPattern, processesPattern, monitor);
+        }
+
+    }
+
+    private ITmfStateSystemBuilder fFixture;
+
+    /**
+     * Build a state system where each thread calls main, which calls another
+     * function, at a different time than the other threads:
+     *
+     * <pre>
+     * Thread 0  [main ___[f]___ ]
+     * Thread 1                     [main ___[f]___ ]
+     * ...
+     * </pre>
+     */
+    @Before
+    public void setUp() {
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("Test", 0L);
+        ITmfStateSystemBuilder fixture = StateSystemFactory.newStateSystem(backend);
+        for (int i = 0; i < NB_THREADS; i++) {
+            long base = i * THREAD_PERIOD;
+            int threadQuark = fixture.getQuarkAbsoluteAndAdd(PROCESS_PATH, Integer.toString(i));
+            int callStackQuark = fixture.getQuarkRelativeAndAdd(threadQuark, CallStackAnalysis.CALL_STACK);
+            int mainQuark = fixture.getQuarkRelativeAndAdd(callStackQuark, "1");
+            int functionQuark = fixture.getQuarkRelativeAndAdd(callStackQuark, "2");
+            fixture.modifyAttribute(base + 10, MAIN, mainQuark);
+            fixture.modifyAttribute(base + 30, FUNCTION, functionQuark);
+            fixture.modifyAttribute(base + 40, (Object) null, functionQuark);
+            fixture.modifyAttribute(base + 60, (Object) null, mainQuark);
+        }
+        fixture.closeHistory(NB_THREADS * THREAD_PERIOD + 10);
+        fFixture = fixture;
+    }
+
+    private CGAnalysis createAnalysis(int parallelism) {
+        CGAnalysis cga = new CGAnalysis();
+        cga.setParallelism(parallelism);
+        assertTrue(cga.iterateOverStateSystem(fFixture, TP, PP, new NullProgressMonitor()));
+        return cga;
+    }
+
+    private static void assertSameTree(Collection<AggregatedCalledFunction> expected, Collection<AggregatedCalledFunction> actual) {
+        assertEquals("Number of children", expected.size(), actual.size());
+        for (AggregatedCalledFunction expectedFunction : expected) {
+            AggregatedCalledFunction actualFunction = null;
+            for (AggregatedCalledFunction function : actual) {
+                if (function.getSymbol().equals(expectedFunction.getSymbol())) {
+                    actualFunction = function;
+                }
+            }
+            assertNotNull("Missing function " + expectedFunction.getSymbol(), actualFunction);
+            assertEquals("Duration", expectedFunction.getDuration(), actualFunction.getDuration());
+            assertEquals("Self time", expectedFunction.getSelfTime(), actualFunction.getSelfTime());
+            assertEquals("Nb calls", expectedFunction.getNbCalls(), actualFunction.getNbCalls());
+            assertSameTree(expectedFunction.getChildren(), actualFunction.getChildren());
+        }
+    }
+
+    /**
+     * Test that the concurrent construction gives the same thread nodes and
+     * flame graph as the sequential one
+     */
+    @Test
+    public void testParallelBuild() {
+        CGAnalysis sequential = createAnalysis(1);
+        CGAnalysis parallel = createAnalysis(4);
+        List<ThreadNode> expected = sequential.getThreadNodes();
+        List<ThreadNode> actual = parallel.getThreadNodes();
+        assertEquals("Number of threads", NB_THREADS, actual.size());
+        for (int i = 0; i < NB_THREADS; i++) {
+            assertEquals("Thread id", expected.get(i).getId(), actual.get(i).getId());
+            assertSameTree(expected.get(i).getChildren(), actual.get(i).getChildren());
+        }
+
+        Collection<ThreadNode> flameGraph = parallel.getFlameGraph();
+        assertEquals(1, flameGraph.size());
+        List<AggregatedCalledFunction> roots = new ArrayList<>(flameGraph.iterator().next().getChildren());
+        assertEquals("Number of root functions", 1, roots.size());
+        AggregatedCalledFunction main = roots.get(0);
+        assertEquals("Main duration", NB_THREADS * 50, main.getDuration());
+        assertEquals("Main self time", NB_THREADS * 40, main.getSelfTime());
+        assertEquals("Main nb calls", NB_THREADS, main.getNbCalls());
+        assertSameTree(sequential.getFlameGraph().iterator().next().getChildren(), roots);
+
+        /* The thread nodes are not modified by the merge */
+        assertSameTree(expected.get(0).getChildren(), actual.get(0).getChildren());
+        sequential.dispose();
+        parallel.dispose();
+    }
+
+    /**
+     * Test the call graph of a time range, where only the threads with
+     * function calls partly in the range are computed
+     */
+    @Test
+    public void testTimeRange() {
+        CGAnalysis cga = createAnalysis(4);
+        List<ThreadNode> full = cga.getThreadNodes();
+
+        /* Thread 1 is cut by the range, threads 2 to 9 are fully in it */
+        List<ThreadNode> threads = cga.getThreadNodes(150, 1000, new NullProgressMonitor());
+        assertEquals("Number of threads", 9, threads.size());
+        ThreadNode cut = threads.get(0);
+        assertEquals("Thread id", 1, cut.getId());
+        List<AggregatedCalledFunction> children = new ArrayList<>(cut.getChildren());
+        assertEquals("Number of root functions", 1, children.size());
+        assertEquals("Main duration", 10, children.get(0).getDuration());
+        assertEquals("Main children", 0, children.get(0).getChildren().size());
+        for (int i = 1; i < threads.size(); i++) {
+            assertSame("Thread fully in range", full.get(i + 1), threads.get(i));
+        }
+
+        /* The thread cut by the range is cached */
+        assertSame(cut, cga.getThreadNodes(150, 1000, new NullProgressMonitor()).get(0));
+
+        Collection<ThreadNode> flameGraph = cga.getFlameGraph(150, 1000, new NullProgressMonitor());
+        assertEquals(1, flameGraph.size());
+        AggregatedCalledFunction main = flameGraph.iterator().next().getChildren().iterator().next();
+        assertEquals("Main duration", 10 + 8 * 50, main.getDuration());
+        assertEquals("Main nb calls", 9, main.getNbCalls());
+
+        /* No thread in a range without function calls */
+        assertTrue(cga.getThreadNodes(61, 109, new NullProgressMonitor()).isEmpty());
+        cga.dispose();
+    }
+
+    /**
+     * Test that an error while processing the intervals of a thread in
+     * another task fails the construction with its cause
+     */
+    @Test
+    public void testFailureInTask() {
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("Test", 0L);
+        ITmfStateSystemBuilder fixture = StateSystemFactory.newStateSystem(backend);
+        for (int i = 0; i < 2; i++) {
+            int threadQuark = fixture.getQuarkAbsoluteAndAdd(PROCESS_PATH, Integer.toString(i));
+            int callStackQuark = fixture.getQuarkRelativeAndAdd(threadQuark, CallStackAnalysis.CALL_STACK);
+            int mainQuark = fixture.getQuarkRelativeAndAdd(callStackQuark, "1");
+            /* A double is not a valid function symbol */
+            fixture.modifyAttribute(10, i == 0 ? MAIN : (Object) 1.5, mainQuark);
+            fixture.modifyAttribute(20, (Object) null, mainQuark);
+        }
+        fixture.closeHistory(30);
+        CGAnalysis cga = new CGAnalysis();
+        cga.setParallelism(2);
+        try {
+            cga.iterateOverStateSystem(fixture, TP, PP, new NullProgressMonitor());
+            fail("The construction should fail");
+        } catch (IllegalArgumentException e) {
+            /* Expected, the cause is not wrapped */
+        } finally {
+            cga.dispose();
+            fixture.dispose();
+        }
+    }
+
+}
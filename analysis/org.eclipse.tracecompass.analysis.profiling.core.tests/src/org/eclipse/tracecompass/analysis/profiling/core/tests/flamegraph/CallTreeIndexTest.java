@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.profiling.core.tests.flamegraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Random;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.profiling.core.callstack.CallStackAnalysis;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.AggregatedCalledFunction;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.CallGraphAnalysis;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.CallTreeIndex;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.ThreadNode;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link CallTreeIndex}: the flame graphs of time ranges merged from
+ * the index must be the same as the ones computed from the state system.
+ */
+public class CallTreeIndexTest {
+
+    private static final @NonNull String PROCESS_PATH = "Processes";
+    private static final String @NonNull [] PP = { PROCESS_PATH };
+    private static final String @NonNull [] TP = { "*" };
+    private static final int NB_THREADS = 5;
+    private static final int MAX_DEPTH = 3;
+    private static final long END_TIME = 10000;
+
+    /**
+     * This class is used to make the CallGraphAnalysis's method
+     * iterateOverStateSystem() visible to test
+     */
+    private static class CGAnalysis extends CallGraphAnalysis {
+
+        @Override
+        protected boolean iterateOverStateSystem(ITmfStateSystem ss, String[] threadsPattern, String[] processesPattern, IProgressMonitor monitor) {
+            return super.iterateOverStateSystem(ss, threadsPattern, processesPattern, monitor);
+        }
+
+    }
+
+    private ITmfStateSystemBuilder fFixture;
+
+    /**
+     * Build a state system where the threads make nested calls to a few
+     * functions at random times
+     */
+    @Before
+    public void setUp() {
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("Test", 0L);
+        ITmfStateSystemBuilder fixture = StateSystemFactory.newStateSystem(backend);
+        Random random = new Random(42);
+        for (int i = 0; i < NB_THREADS; i++) {
+            int threadQuark = fixture.getQuarkAbsoluteAndAdd(PROCESS_PATH, Integer.toString(i));
+            int callStackQuark = fixture.getQuarkRelativeAndAdd(threadQuark, CallStackAnalysis.CALL_STACK);
+            int[] quarks = new int[MAX_DEPTH];
+            for (int depth = 0; depth < MAX_DEPTH; depth++) {
+                quarks[depth] = fixture.getQuarkRelativeAndAdd(callStackQuark, Integer.toString(depth + 1));
+            }
+            long time = random.nextInt(100);
+            while (time < END_TIME - 500) {
+                time = addCall(fixture, random, quarks, 0, time) + random.nextInt(50);
+            }
+        }
+        fixture.closeHistory(END_TIME);
+        fFixture = fixture;
+    }
+
+    /* Add a call with random children, returns the end of the call */
+    private static long addCall(ITmfStateSystemBuilder fixture, Random random, int[] quarks, int depth, long start) {
+        fixture.modifyAttribute(start, depth * 10 + random.nextInt(3) + 1, quarks[depth]);
+        long time = start + 1 + random.nextInt(20);
+        if (depth + 1 < quarks.length) {
+            int nbChildren = random.nextInt(3);
+            for (int i = 0; i < nbChildren; i++) {
+                time = addCall(fixture, random, quarks, depth + 1, time) + 1 + random.nextInt(20);
+            }
+        }
+        fixture.modifyAttribute(time, (Object) null, quarks[depth]);
+        return time;
+    }
+
+    private CGAnalysis createAnalysis() {
+        CGAnalysis cga = new CGAnalysis();
+        cga.iterateOverStateSystem(fFixture, TP, PP, new NullProgressMonitor());
+        return cga;
+    }
+
+    private static void assertSameTree(String range, Collection<AggregatedCalledFunction> expected, Collection<AggregatedCalledFunction> actual) {
+        assertEquals(range + " Number of children", expected.size(), actual.size());
+        for (AggregatedCalledFunction expectedFunction : expected) {
+            AggregatedCalledFunction actualFunction = null;
+            for (AggregatedCalledFunction function : actual) {
+                if (function.getSymbol().equals(expectedFunction.getSymbol())) {
+                    actualFunction = function;
+                }
+            }
+            String message = range + ' ' + expectedFunction.getSymbol();
+            assertNotNull(message, actualFunction);
+            assertEquals(message + " duration", expectedFunction.getDuration(), actualFunction.getDuration());
+            assertEquals(message + " self time", expectedFunction.getSelfTime(), actualFunction.getSelfTime());
+            assertEquals(message + " nb calls", expectedFunction.getNbCalls(), actualFunction.getNbCalls());
+            assertSameTree(range, expectedFunction.getChildren(), actualFunction.getChildren());
+        }
+    }
+
+    private static void assertSameFlameGraph(CGAnalysis expected, CGAnalysis actual, long start, long end) {
+        Collection<ThreadNode> expectedGraph = expected.getFlameGraph(start, end, new NullProgressMonitor());
+        Collection<ThreadNode> actualGraph = actual.getFlameGraph(start, end, new NullProgressMonitor());
+        assertEquals(1, expectedGraph.size());
+        assertEquals(1, actualGraph.size());
+        assertSameTree("[" + start + ", " + end + "]", expectedGraph.iterator().next().getChildren(), actualGraph.iterator().next().getChildren());
+    }
+
+    /**
+     * Test the flame graphs of ranges aligned or not with the buckets
+     */
+    @Test
+    public void testQuery() {
+        CGAnalysis expected = createAnalysis();
+        CGAnalysis indexed = createAnalysis();
+        CallTreeIndex index = indexed.buildIndex(50, new NullProgressMonitor());
+        assertNotNull(index);
+        assertEquals(50, index.getNbBuckets());
+
+        /* Full range, bucket boundaries, and arbitrary ranges */
+        assertSameFlameGraph(expected, indexed, 0, END_TIME);
+        assertSameFlameGraph(expected, indexed, 200, 399);
+        assertSameFlameGraph(expected, indexed, 200, END_TIME);
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            long start = random.nextInt((int) END_TIME);
+            long end = start + random.nextInt((int) (END_TIME - start));
+            assertSameFlameGraph(expected, indexed, start, end);
+        }
+
+        /* A range smaller than a bucket is not answered by the index */
+        assertNull(index.query(201, 300, (s, e) -> null));
+        expected.dispose();
+        indexed.dispose();
+    }
+
+    /**
+     * Test saving and loading the index
+     *
+     * @throws IOException
+     *             If the index cannot be saved or loaded
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        CGAnalysis cga = createAnalysis();
+        CallTreeIndex index = cga.buildIndex(20, new NullProgressMonitor());
+        assertNotNull(index);
+        Path file = Files.createTempFile("calltree", ".calltree");
+        try {
+            index.save(file);
+            assertNull(CallTreeIndex.load(file, 0, END_TIME + 1));
+            CallTreeIndex loaded = CallTreeIndex.load(file, 0, END_TIME);
+            assertNotNull(loaded);
+            assertEquals(index.getNbBuckets(), loaded.getNbBuckets());
+            ThreadNode expected = index.query(0, END_TIME, (s, e) -> null);
+            ThreadNode actual = loaded.query(0, END_TIME, (s, e) -> null);
+            assertNotNull(expected);
+            assertNotNull(actual);
+            assertSameTree("Loaded", expected.getChildren(), actual.getChildren());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        cga.dispose();
+    }
+
+}
@@ -49,6 +49,8 @@ public class AggregatedCalledFunction implements Cloneable {
     private final AggregatedCalledFunctionStatistics fStatistics;
     private long fDuration;
     private long fSelfTime;
+    /* Calls aggregated elsewhere, without statistics on each call */
+    private long fIndexedCalls;
     private final int fProcessId;
 
     /**
@@ -90,6 +92,38 @@ public class AggregatedCalledFunction implements Cloneable {
         fStatistics = new AggregatedCalledFunctionStatistics();
     }
 
+    /**
+     * Constructor of a function whose calls were aggregated elsewhere, for
+     * instance in a {@link CallTreeIndex}. The durations and number of calls
+     * are known, but there are no statistics on the individual calls.
+     *
+     * @param symbol
+     *            The function's symbol
+     * @param depth
+     *            The depth of the function
+     * @param processId
+     *            The process ID
+     * @param parent
+     *            the parent entry
+     * @param duration
+     *            The total duration of the calls
+     * @param selfTime
+     *            The total self time of the calls
+     * @param nbCalls
+     *            The number of calls
+     */
+    public AggregatedCalledFunction(Object symbol, int depth, int processId, AggregatedCalledFunction parent, long duration, long selfTime, long nbCalls) {
+        fSymbol = symbol;
+        fDuration = duration;
+        fSelfTime = selfTime;
+        fIndexedCalls = nbCalls;
+        fDepth = depth;
+        fProcessId = processId;
+        fMaxDepth = parent.getMaxDepth();
+        fParent = parent;
+        fStatistics = new AggregatedCalledFunctionStatistics();
+    }
+
     /**
      * copy constructor, used by the clone method
      *
@@ -108,6 +142,7 @@ public class AggregatedCalledFunction implements Cloneable {
         fProcessId = toCopy.fProcessId;
         fDuration = toCopy.fDuration;
         fSelfTime = toCopy.fSelfTime;
+        fIndexedCalls = toCopy.fIndexedCalls;
     }
 
     /**
@@ -210,6 +245,7 @@ public class AggregatedCalledFunction implements Cloneable {
     private static void merge(AggregatedCalledFunction destination, AggregatedCalledFunction source) {
         destination.addToDuration(source.getDuration());
         destination.addToSelfTime(source.getSelfTime());
+        destination.fIndexedCalls += source.fIndexedCalls;
         destination.getFunctionStatistics().merge(source.getFunctionStatistics());
         // merge the children callees.
         mergeChildren(destination, source);
@@ -248,7 +284,7 @@ public class AggregatedCalledFunction implements Cloneable {
      * @return The number of calls of a function
      */
     public long getNbCalls() {
-        return fStatistics.getDurationStatistics().getNbElements();
+        return fStatistics.getDurationStatistics().getNbElements() + fIndexedCalls;
     }
 
     /**
@@ -11,26 +11,38 @@
 
 package org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.profiling.core.callgraph.ICallGraphProvider;
 import org.eclipse.tracecompass.analysis.profiling.core.callstack.CallStackAnalysis;
+import org.eclipse.tracecompass.internal.analysis.profiling.core.Activator;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -60,6 +72,23 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
      */
     public static final String ID = "org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph.callgraphanalysis"; //$NON-NLS-1$
 
+    /** Maximum number of thread call graphs of time ranges kept in the cache */
+    private static final int MAX_CACHED_RANGES = 1024;
+
+    /** Number of intervals of a task processed at once */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Number of thread nodes under which the flame graph merge is not split
+     * anymore
+     */
+    private static final int MERGE_THRESHOLD = 8;
+
+    /** Maximum number of time buckets of the call tree index */
+    private static final int INDEX_BUCKETS = 256;
+
+    private static final String INDEX_FILE_EXTENSION = ".calltree"; //$NON-NLS-1$
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -70,6 +99,28 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
      */
     private List<ThreadNode> fThreadNodes = new ArrayList<>();
 
+    /**
+     * The call stack of each thread, used to compute the call graph of a time
+     * range
+     */
+    private List<ThreadCallStack> fThreadCallStacks = new ArrayList<>();
+
+    /** The call graphs of the threads for time ranges, by thread and range */
+    private final Map<ThreadRangeKey, ThreadNode> fRangeCache = new LinkedHashMap<ThreadRangeKey, ThreadNode>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<ThreadRangeKey, ThreadNode> eldest) {
+            return size() > MAX_CACHED_RANGES;
+        }
+    };
+
+    private @Nullable ITmfStateSystem fStateSystem = null;
+
+    private @Nullable CallTreeIndex fIndex = null;
+
+    private int fParallelism = Runtime.getRuntime().availableProcessors();
+
     private final @Nullable CallStackAnalysis fCallStackAnalysis;
 
     /**
@@ -139,6 +190,7 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
         if (ss == null || !iterateOverStateSystem(ss, threadsPattern, processesPattern, monitor)) {
             return false;
         }
+        fIndex = loadOrBuildIndex(ss, Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), getId() + INDEX_FILE_EXTENSION), monitor);
         monitor.worked(1);
         monitor.done();
         return true;
@@ -162,7 +214,7 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
     @VisibleForTesting
     protected boolean iterateOverStateSystem(ITmfStateSystem ss, String[] threadsPattern, String[] processesPattern, IProgressMonitor monitor) {
         List<Integer> processQuarks = ss.getQuarks(processesPattern);
-        Map<ThreadNode, List<Integer>> mainAttribs = new HashMap<>();
+        List<ThreadCallStack> threads = new ArrayList<>();
         for (int processQuark : processQuarks) {
             int processId = getProcessId(ss, processQuark, ss.getCurrentEndTime());
             for (int threadQuark : ss.getQuarks(processQuark, threadsPattern)) {
@@ -176,17 +228,122 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
                 }
                 String threadName = ss.getAttributeName(threadQuark);
                 long threadId = getProcessId(ss, threadQuark, ss.getStartTime());
-                AbstractCalledFunction initSegment = CalledFunctionFactory.create(0, 0, -1, threadName, processId, null);
-                ThreadNode init = new ThreadNode(initSegment, 0, threadId);
-                fThreadNodes.add(init);
-                mainAttribs.put(init, subAttributes);
+                threads.add(new ThreadCallStack(threadName, processId, threadId, subAttributes));
+            }
+        }
 
+        /*
+         * The call graph of each thread only depends on the thread's own
+         * attributes, build them concurrently
+         */
+        CallgraphRange bounds = new CallgraphRange(ss.getStartTime(), ss.getCurrentEndTime());
+        List<@Nullable ThreadNode> threadNodes = buildThreadNodes(ss, threads, bounds, monitor);
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadNode threadNode = threadNodes.get(i);
+            if (threadNode == null) {
+                return false;
             }
+            threads.get(i).fThreadNode = threadNode;
+            fThreadNodes.add(threadNode);
         }
-        iterateOverCallStack2D(ss, mainAttribs, monitor);
+        synchronized (fRangeCache) {
+            fRangeCache.clear();
+        }
+        fIndex = null;
+        fThreadCallStacks = threads;
+        fStateSystem = ss;
         return true;
     }
 
+    /**
+     * Build the call graph of threads in a range. The call stacks of all the
+     * threads are read with a single 2D query, and the intervals of each
+     * thread are processed in order, the threads being spread over tasks.
+     *
+     * @return The thread nodes, in the order of the threads, with null values
+     *         if the build was cancelled or the state system disposed
+     */
+    private List<@Nullable ThreadNode> buildThreadNodes(ITmfStateSystem ss, List<ThreadCallStack> threads, CallgraphRange bounds, IProgressMonitor monitor) {
+        List<ThreadBuild> builds = new ArrayList<>();
+        Map<Integer, ThreadBuild> attribToBuild = new HashMap<>();
+        List<Integer> attributes = new ArrayList<>();
+        int nbTasks = Math.max(1, Math.min(fParallelism, threads.size()));
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadCallStack thread = threads.get(i);
+            ThreadBuild build = new ThreadBuild(thread, bounds, i % nbTasks);
+            builds.add(build);
+            for (Integer attribute : thread.fSubAttributes) {
+                attribToBuild.put(attribute, build);
+            }
+            attributes.addAll(thread.fSubAttributes);
+        }
+        boolean completed = attributes.isEmpty() || iterateOverCallStacks2D(ss, attributes, attribToBuild, nbTasks, bounds, monitor);
+        List<@Nullable ThreadNode> threadNodes = new ArrayList<>();
+        for (ThreadBuild build : builds) {
+            threadNodes.add(completed ? build.fThreadNode : null);
+        }
+        return threadNodes;
+    }
+
+    /** The call stack attributes of a thread */
+    private static class ThreadCallStack {
+        private final String fThreadName;
+        private final int fProcessId;
+        private final long fThreadId;
+        private final List<Integer> fSubAttributes;
+        private @Nullable ThreadNode fThreadNode = null;
+        /* The time range during which there are function calls */
+        private long fActiveStart = Long.MAX_VALUE;
+        private long fActiveEnd = Long.MIN_VALUE;
+
+        public ThreadCallStack(String threadName, int processId, long threadId, List<Integer> subAttributes) {
+            fThreadName = threadName;
+            fProcessId = processId;
+            fThreadId = threadId;
+            fSubAttributes = subAttributes;
+        }
+
+        public synchronized void updateActiveRange(long start, long end) {
+            fActiveStart = Math.min(fActiveStart, start);
+            fActiveEnd = Math.max(fActiveEnd, end);
+        }
+
+        public synchronized boolean isActiveIn(CallgraphRange range) {
+            return fActiveStart <= range.fEnd && fActiveEnd >= range.fStart;
+        }
+
+        public synchronized boolean isActiveOnlyIn(CallgraphRange range) {
+            return range.fStart <= fActiveStart && range.fEnd >= fActiveEnd;
+        }
+    }
+
+    /** The key of the call graph of a thread for a time range */
+    private static final class ThreadRangeKey {
+        private final ThreadCallStack fThread;
+        private final long fStart;
+        private final long fEnd;
+
+        public ThreadRangeKey(ThreadCallStack thread, long start, long end) {
+            fThread = thread;
+            fStart = start;
+            fEnd = end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(fThread), fStart, fEnd);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof ThreadRangeKey)) {
+                return false;
+            }
+            ThreadRangeKey other = (ThreadRangeKey) obj;
+            return fThread == other.fThread && fStart == other.fStart && fEnd == other.fEnd;
+        }
+    }
+
     /** A class that represents a time range for an interval or function */
     private static class CallgraphRange {
         private final long fStart;
@@ -223,11 +380,6 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
             return (fStart <= other.fStart && fEnd >= other.fEnd);
         }
 
-        /* Is the interval fully included in this range */
-        public boolean includes(ITmfStateInterval interval) {
-            return (fStart <= interval.getStartTime() && fEnd >= interval.getEndTime());
-        }
-
         /*
          * Get the callgraph range that represents the intersection with the
          * other range
@@ -268,13 +420,20 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
         private final Map<AggregatedCalledFunction, FunctionCall> fAggregated = new HashMap<>();
         private final List<ITmfStateInterval> fOrphanedIntervals = new ArrayList<>();
         private final @Nullable CallGraphLevel fParent;
+        private final CallgraphRange fBounds;
         private final int fDepth;
         private @Nullable CallGraphLevel fChild = null;
 
-        public CallGraphLevel(ThreadNode threadNode, int depth, @Nullable CallGraphLevel parent) {
+        public CallGraphLevel(ThreadNode threadNode, int depth, @Nullable CallGraphLevel parent, CallgraphRange bounds) {
             fThreadNode = threadNode;
             fDepth = depth;
             fParent = parent;
+            fBounds = bounds;
+        }
+
+        /* The range of an interval, cut to the bounds of the call graph */
+        public CallgraphRange getRange(ITmfStateInterval interval) {
+            return new CallgraphRange(Math.max(interval.getStartTime(), fBounds.fStart), Math.min(interval.getEndTime(), fBounds.fEnd));
         }
 
         public void addInterval(ITmfStateInterval interval) {
@@ -349,7 +508,8 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
             List<ITmfStateInterval> toRemove = new ArrayList<>();
             // Look if any orphaned interval in the child is within range
             for (ITmfStateInterval interval : child.fOrphanedIntervals) {
-                if (!range.includes(interval)) {
+                CallgraphRange childRange = child.getRange(interval);
+                if (!range.includes(childRange)) {
                     continue;
                 }
                 /*
@@ -358,7 +518,6 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
                  * Create a function and aggregated call site for it
                  */
                 toRemove.add(interval);
-                CallgraphRange childRange = new CallgraphRange(interval.getStartTime(), interval.getEndTime());
                 AbstractCalledFunction childFunc = CalledFunctionFactory.create(childRange.fStart, childRange.fEnd + 1, fDepth + 1, Objects.requireNonNull(interval.getValue()), fThreadNode.getProcessId(), function);
                 AggregatedCalledFunction childAgg = new AggregatedCalledFunction(childFunc, aggregated);
 
@@ -448,109 +607,269 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
 
     }
 
-    private static boolean iterateOverCallStack2D(ITmfStateSystem ss, Map<ThreadNode, List<Integer>> parentAttribs, IProgressMonitor monitor) {
-        try {
-            long start = ss.getStartTime();
-            long end = ss.getCurrentEndTime();
-
-            Map<Integer, CallGraphLevel> attribToLevel = new HashMap<>();
-            List<Integer> attributes = new ArrayList<>();
-
-            // Create the levels for all the thread nodes and attributes
-            for (Entry<ThreadNode, List<Integer>> entry : parentAttribs.entrySet()) {
-                ThreadNode threadNode = entry.getKey();
-                List<Integer> subAttributes = entry.getValue();
-                attributes.addAll(subAttributes);
-                CallGraphLevel prevLevel = null;
-                for (int i = 0; i < subAttributes.size(); i++) {
-                    CallGraphLevel level = new CallGraphLevel(threadNode, i, prevLevel);
-                    if (prevLevel != null) {
-                        prevLevel.setChild(level);
-                    }
-                    prevLevel = level;
-                    attribToLevel.put(subAttributes.get(i), level);
+    /** The call graph of a thread being built from its intervals */
+    private static class ThreadBuild {
+        private final ThreadCallStack fThread;
+        private final ThreadNode fThreadNode;
+        private final Map<Integer, CallGraphLevel> fAttribToLevel = new HashMap<>();
+        /* The task processing the intervals of this thread */
+        private final int fTask;
+
+        public ThreadBuild(ThreadCallStack thread, CallgraphRange bounds, int task) {
+            fThread = thread;
+            fTask = task;
+            AbstractCalledFunction initSegment = CalledFunctionFactory.create(0, 0, -1, thread.fThreadName, thread.fProcessId, null);
+            fThreadNode = new ThreadNode(initSegment, 0, thread.fThreadId);
+
+            // Create the levels for the attributes of the thread
+            List<Integer> attributes = thread.fSubAttributes;
+            CallGraphLevel prevLevel = null;
+            for (int i = 0; i < attributes.size(); i++) {
+                CallGraphLevel level = new CallGraphLevel(fThreadNode, i, prevLevel, bounds);
+                if (prevLevel != null) {
+                    prevLevel.setChild(level);
                 }
+                prevLevel = level;
+                fAttribToLevel.put(attributes.get(i), level);
+            }
+        }
+
+        public void process(ITmfStateInterval interval) {
+            CallGraphLevel level = fAttribToLevel.get(interval.getAttribute());
+            if (level == null) {
+                throw new NullPointerException("The level should not be null, we created it just before!"); //$NON-NLS-1$
+            }
+
+            CallgraphRange range = level.getRange(interval);
+            long intervalStart = range.fStart;
+            long intervalEnd = range.fEnd;
+            Object value = interval.getValue();
+            /* Is the interval null ? */
+            if (value == null) {
+                /*
+                 * Yes, there is no function to process at this level so we
+                 * set this range as covered
+                 */
+                level.setCovered(range);
+
+            } else {
+                /* No, this interval represents a called function */
+                fThread.updateActiveRange(interval.getStartTime(), interval.getEndTime());
+                /*
+                 * Is there a parent aggregated site already for this
+                 * function ?
+                 */
+                AggregatedCalledFunction parent = level.findParentAggregated(range);
+                if (parent == null) {
+                    /* No, keep this interval for later and continue */
+                    level.addInterval(interval);
+                    return;
+                }
+                /*
+                 * Yes, create the function and aggregated callsite from
+                 * this interval
+                 */
+                FunctionCall parentData = level.getParentData(parent);
+                AbstractCalledFunction function = CalledFunctionFactory.create(intervalStart, intervalEnd + 1, level.getDepth(), value, level.getProcessId(), (parentData == null) ? null : parentData.fFunc);
+                AggregatedCalledFunction aggregated = new AggregatedCalledFunction(function, parent);
+                /*
+                 * See if there are any children intervals to process and
+                 * add to this aggregated site
+                 */
+                /*
+                 * Do we have all children information for this interval's
+                 * function ?
+                 */
+                if (!level.recursiveCoverChildren(range, function, aggregated)) {
+                    /*
+                     * No, save this function to be completed later and
+                     * continue
+                     */
+                    level.fAggregated.put(aggregated, new FunctionCall(range, function));
+                    return;
+                }
+                /*
+                 * Yes, add the current site to the parent and set this
+                 * range as covered for the current level
+                 */
+                parent.addChild(function, aggregated);
+                level.setCovered(range);
             }
 
+            /*
+             * See if we can complete the parent(s) with this new information
+             */
+            level.tryToCompleteParentCoverage(range);
+        }
+    }
+
+    private static boolean iterateOverCallStacks2D(ITmfStateSystem ss, List<Integer> attributes, Map<Integer, ThreadBuild> attribToBuild, int nbTasks, CallgraphRange bounds, IProgressMonitor monitor) {
+        /*
+         * The intervals of a thread are processed in batches, chained so that
+         * a thread is only ever processed by one task at a time.
+         */
+        Executor pool = (nbTasks > 1) ? ForkJoinPool.commonPool() : null;
+        List<CompletableFuture<@Nullable Void>> tails = new ArrayList<>();
+        List<List<ITmfStateInterval>> batches = new ArrayList<>();
+        for (int i = 0; i < nbTasks; i++) {
+            tails.add(CompletableFuture.completedFuture(null));
+            batches.add(new ArrayList<>());
+        }
+        try {
             /*
              * Do a 2D query, starting from the end of the state system, the
              * intervals ending last (ie typically the ones of lower depth) will
              * come first, though they are not sorted by end time per se, but as
              * a general trend, the callstack will be parsed from the end.
              */
-            for (ITmfStateInterval interval : ss.query2D(attributes, end, start)) {
+            for (ITmfStateInterval interval : ss.query2D(attributes, bounds.fEnd, bounds.fStart)) {
                 if (monitor.isCanceled()) {
                     return false;
                 }
-                CallGraphLevel level = attribToLevel.get(interval.getAttribute());
-                if (level == null) {
-                    throw new NullPointerException("The level should not be null, we created it just before!"); //$NON-NLS-1$
+                ThreadBuild build = attribToBuild.get(interval.getAttribute());
+                if (build == null) {
+                    throw new NullPointerException("The thread should not be null, we created it just before!"); //$NON-NLS-1$
+                }
+                if (pool == null) {
+                    build.process(interval);
+                    continue;
+                }
+                List<ITmfStateInterval> batch = batches.get(build.fTask);
+                batch.add(interval);
+                if (batch.size() >= BATCH_SIZE) {
+                    tails.set(build.fTask, processBatch(tails.get(build.fTask), batch, attribToBuild, pool));
+                    batches.set(build.fTask, new ArrayList<>());
+                }
+            }
+            if (pool != null) {
+                for (int i = 0; i < nbTasks; i++) {
+                    tails.set(i, processBatch(tails.get(i), batches.get(i), attribToBuild, pool));
                 }
+            }
+        } catch (StateSystemDisposedException e) {
+            return false;
+        } finally {
+            /* Wait for the submitted batches, even when stopping early */
+            for (CompletableFuture<@Nullable Void> tail : tails) {
+                tail.handle((result, exception) -> null).join();
+            }
+        }
+        try {
+            for (CompletableFuture<@Nullable Void> tail : tails) {
+                tail.join();
+            }
+        } catch (CompletionException e) {
+            /* Fail like the sequential construction, with the cause */
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        return true;
+    }
 
-                long intervalStart = interval.getStartTime();
-                long intervalEnd = interval.getEndTime();
-                CallgraphRange range = new CallgraphRange(intervalStart, intervalEnd);
-                Object value = interval.getValue();
-                /* Is the interval null ? */
-                if (value == null) {
-                    /*
-                     * Yes, there is no function to process at this level so we
-                     * set this range as covered
-                     */
-                    level.setCovered(range);
+    private static CompletableFuture<@Nullable Void> processBatch(CompletableFuture<@Nullable Void> tail, List<ITmfStateInterval> batch, Map<Integer, ThreadBuild> attribToBuild, Executor pool) {
+        return tail.thenRunAsync(() -> {
+            for (ITmfStateInterval interval : batch) {
+                ThreadBuild build = Objects.requireNonNull(attribToBuild.get(interval.getAttribute()));
+                build.process(interval);
+            }
+        }, pool);
+    }
 
-                } else {
-                    /* No, this interval represents a called function */
-                    /*
-                     * Is there a parent aggregated site already for this
-                     * function ?
-                     */
-                    AggregatedCalledFunction parent = level.findParentAggregated(range);
-                    if (parent == null) {
-                        /* No, keep this interval for later and continue */
-                        level.addInterval(interval);
-                        continue;
-                    }
-                    /*
-                     * Yes, create the function and aggregated callsite from
-                     * this interval
-                     */
-                    FunctionCall parentData = level.getParentData(parent);
-                    AbstractCalledFunction function = CalledFunctionFactory.create(intervalStart, intervalEnd + 1, level.getDepth(), value, level.getProcessId(), (parentData == null) ? null : parentData.fFunc);
-                    AggregatedCalledFunction aggregated = new AggregatedCalledFunction(function, parent);
-                    /*
-                     * See if there are any children intervals to process and
-                     * add to this aggregated site
-                     */
-                    /*
-                     * Do we have all children information for this interval's
-                     * function ?
-                     */
-                    if (!level.recursiveCoverChildren(range, function, aggregated)) {
-                        /*
-                         * No, save this function to be completed later and
-                         * continue
-                         */
-                        level.fAggregated.put(aggregated, new FunctionCall(range, function));
-                        continue;
-                    }
-                    /*
-                     * Yes, add the current site to the parent and set this
-                     * range as covered for the current level
-                     */
-                    parent.addChild(function, aggregated);
-                    level.setCovered(range);
+    private @Nullable CallTreeIndex loadOrBuildIndex(ITmfStateSystem ss, Path file, IProgressMonitor monitor) {
+        if (Files.exists(file)) {
+            try {
+                CallTreeIndex index = CallTreeIndex.load(file, ss.getStartTime(), ss.getCurrentEndTime());
+                if (index != null) {
+                    return index;
                 }
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Cannot read the call tree index " + file, e); //$NON-NLS-1$
+            }
+        }
+        CallTreeIndex index = buildIndex(INDEX_BUCKETS, monitor);
+        if (index != null) {
+            try {
+                index.save(file);
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Cannot write the call tree index " + file, e); //$NON-NLS-1$
+            }
+        }
+        return index;
+    }
 
-                /*
-                 * See if we can complete the parent(s) with this new information
-                 */
-                level.tryToCompleteParentCoverage(range);
+    /**
+     * Build the index of the call tree of all the threads, used to get the
+     * flame graph of a time range. The call graph of the threads must be
+     * built.
+     *
+     * @param maxBuckets
+     *            The maximum number of time buckets of the index
+     * @param monitor
+     *            The progress monitor
+     * @return The index, or <code>null</code> if the call graph is not built
+     *         or the build was cancelled
+     */
+    @VisibleForTesting
+    public @Nullable CallTreeIndex buildIndex(int maxBuckets, IProgressMonitor monitor) {
+        ITmfStateSystem ss = fStateSystem;
+        if (ss == null) {
+            return null;
+        }
+        List<ThreadCallStack> threads = fThreadCallStacks;
+        CallTreeIndex index = CallTreeIndex.build(ss.getStartTime(), ss.getCurrentEndTime(), maxBuckets, (start, end) -> {
+            /* Do not cache the thread nodes of the buckets */
+            CallgraphRange bounds = new CallgraphRange(start, end);
+            List<ThreadCallStack> active = new ArrayList<>();
+            for (ThreadCallStack thread : threads) {
+                if (thread.isActiveIn(bounds)) {
+                    active.add(thread);
+                }
+            }
+            List<ThreadNode> threadNodes = new ArrayList<>();
+            for (ThreadNode threadNode : buildThreadNodes(ss, active, bounds, monitor)) {
+                if (threadNode == null) {
+                    return null;
+                }
+                threadNodes.add(threadNode);
             }
+            return new MergeTask(threadNodes, 0, threadNodes.size()).invoke();
+        }, time -> getActiveCalls(ss, threads, time), monitor);
+        fIndex = index;
+        return index;
+    }
+
+    /*
+     * Get the symbols of the calls of each thread that are running at a time
+     * and started before
+     */
+    private static @Nullable Collection<List<Object>> getActiveCalls(ITmfStateSystem ss, List<ThreadCallStack> threads, long time) {
+        try {
+            List<ITmfStateInterval> fullState = ss.queryFullState(time);
+            List<List<Object>> activeCalls = new ArrayList<>();
+            for (ThreadCallStack thread : threads) {
+                List<Object> stack = new ArrayList<>();
+                for (int depth = 0; depth < thread.fSubAttributes.size(); depth++) {
+                    ITmfStateInterval interval = fullState.get(thread.fSubAttributes.get(depth));
+                    Object value = interval.getValue();
+                    if (value == null || interval.getStartTime() >= time) {
+                        break;
+                    }
+                    stack.add(CalledFunctionFactory.create(interval.getStartTime(), interval.getEndTime() + 1, depth, value, thread.fProcessId, null).getSymbol());
+                }
+                if (!stack.isEmpty()) {
+                    activeCalls.add(stack);
+                }
+            }
+            return activeCalls;
         } catch (StateSystemDisposedException e) {
-            return false;
+            return null;
         }
-        return true;
     }
 
     @Override
@@ -564,13 +883,85 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
      * @return the merged threadnodes
      */
     public Collection<ThreadNode> getFlameGraph() {
-        AbstractCalledFunction initSegment = CalledFunctionFactory.create(0, 0, -1, "", 0, null); //$NON-NLS-1$
-        ThreadNode init = new ThreadNode(initSegment, 0, 0);
-        fThreadNodes.forEach(
-                tn -> tn.getChildren().forEach(
-                        child -> init.addChild(initSegment, child.clone())));
-        return Collections.singleton(init);
+        return Collections.singleton(new MergeTask(fThreadNodes, 0, fThreadNodes.size()).invoke());
+    }
 
+    /**
+     * Merged threadnodes of a time range. If the call tree index is built, the
+     * flame graph is merged from the index and the functions have no
+     * statistics on the individual calls. Otherwise, only the call graphs of
+     * the threads that have function calls partly in the range are computed,
+     * the others are either entirely in the range or not at all.
+     *
+     * @param start
+     *            The start of the time range
+     * @param end
+     *            The end of the time range
+     * @param monitor
+     *            The progress monitor
+     * @return the merged threadnodes, empty if the call graph is not available
+     *         or the computation was cancelled
+     */
+    public Collection<ThreadNode> getFlameGraph(long start, long end, IProgressMonitor monitor) {
+        CallTreeIndex index = fIndex;
+        if (index != null) {
+            /*
+             * Merge the buckets of the index in the range, only the calls of
+             * the partial buckets at both ends are computed
+             */
+            ThreadNode root = index.query(start, end, (rangeStart, rangeEnd) -> {
+                List<ThreadNode> threadNodes = getThreadNodes(rangeStart, rangeEnd, monitor);
+                return monitor.isCanceled() ? null : new MergeTask(threadNodes, 0, threadNodes.size()).invoke();
+            });
+            if (root != null) {
+                return Collections.singleton(root);
+            }
+        }
+        List<ThreadNode> threadNodes = getThreadNodes(start, end, monitor);
+        if (monitor.isCanceled()) {
+            return Collections.emptyList();
+        }
+        return Collections.singleton(new MergeTask(threadNodes, 0, threadNodes.size()).invoke());
+    }
+
+    /**
+     * Task merging the children of a slice of thread nodes into a new node,
+     * splitting the slice in two halves merged concurrently
+     */
+    private static class MergeTask extends RecursiveTask<ThreadNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<ThreadNode> fNodes;
+        private final int fFrom;
+        private final int fTo;
+
+        public MergeTask(List<ThreadNode> nodes, int from, int to) {
+            fNodes = nodes;
+            fFrom = from;
+            fTo = to;
+        }
+
+        @Override
+        protected ThreadNode compute() {
+            AbstractCalledFunction initSegment = CalledFunctionFactory.create(0, 0, -1, "", 0, null); //$NON-NLS-1$
+            ThreadNode init = new ThreadNode(initSegment, 0, 0);
+            if (fTo - fFrom <= MERGE_THRESHOLD) {
+                for (int i = fFrom; i < fTo; i++) {
+                    fNodes.get(i).getChildren().forEach(child -> init.addChild(initSegment, child.clone()));
+                }
+                return init;
+            }
+            int middle = (fFrom + fTo) >>> 1;
+            MergeTask left = new MergeTask(fNodes, fFrom, middle);
+            MergeTask right = new MergeTask(fNodes, middle, fTo);
+            right.fork();
+            ThreadNode merged = left.compute();
+            /* The merged nodes are copies, their children can be moved */
+            for (AggregatedCalledFunction child : new ArrayList<>(right.join().getChildren())) {
+                merged.addChild(initSegment, child);
+            }
+            return merged;
+        }
     }
 
     /**
@@ -583,6 +974,82 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
         return ImmutableList.copyOf(fThreadNodes);
     }
 
+    /**
+     * List of thread nodes of a time range, with the functions called during
+     * that range. The thread nodes are cached by time range and only the
+     * threads whose function calls are partly in the range are computed.
+     *
+     * @param start
+     *            The start of the time range
+     * @param end
+     *            The end of the time range
+     * @param monitor
+     *            The progress monitor
+     * @return The thread nodes of the threads with function calls in the range,
+     *         empty if the call graph is not available or the computation was
+     *         cancelled
+     */
+    public List<ThreadNode> getThreadNodes(long start, long end, IProgressMonitor monitor) {
+        ITmfStateSystem ss = fStateSystem;
+        if (ss == null) {
+            return Collections.emptyList();
+        }
+        CallgraphRange bounds = new CallgraphRange(Math.max(start, ss.getStartTime()), Math.min(end, ss.getCurrentEndTime()));
+        List<ThreadCallStack> threads = fThreadCallStacks;
+        @Nullable ThreadNode[] threadNodes = new @Nullable ThreadNode[threads.size()];
+        List<ThreadCallStack> toBuild = new ArrayList<>();
+        List<Integer> toBuildIndexes = new ArrayList<>();
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadCallStack thread = threads.get(i);
+            if (!thread.isActiveIn(bounds)) {
+                continue;
+            }
+            if (thread.isActiveOnlyIn(bounds)) {
+                /* All the calls of this thread are in the range */
+                threadNodes[i] = thread.fThreadNode;
+                continue;
+            }
+            synchronized (fRangeCache) {
+                threadNodes[i] = fRangeCache.get(new ThreadRangeKey(thread, bounds.fStart, bounds.fEnd));
+            }
+            if (threadNodes[i] == null) {
+                toBuild.add(thread);
+                toBuildIndexes.add(i);
+            }
+        }
+        List<@Nullable ThreadNode> built = buildThreadNodes(ss, toBuild, bounds, monitor);
+        for (int i = 0; i < toBuild.size(); i++) {
+            ThreadNode threadNode = built.get(i);
+            if (threadNode == null) {
+                return Collections.emptyList();
+            }
+            threadNodes[toBuildIndexes.get(i)] = threadNode;
+            synchronized (fRangeCache) {
+                fRangeCache.put(new ThreadRangeKey(toBuild.get(i), bounds.fStart, bounds.fEnd), threadNode);
+            }
+        }
+        List<ThreadNode> result = new ArrayList<>();
+        for (ThreadNode threadNode : threadNodes) {
+            if (threadNode != null) {
+                result.add(threadNode);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Set the maximum number of threads whose call graph is computed
+     * concurrently
+     *
+     * @param parallelism
+     *            The number of threads, 1 to compute the call graphs
+     *            sequentially
+     */
+    @VisibleForTesting
+    public void setParallelism(int parallelism) {
+        fParallelism = Math.max(1, parallelism);
+    }
+
     private static int getProcessId(ITmfStateSystem ss, int processQuark, long curTime) {
         if (processQuark != ITmfStateSystem.ROOT_ATTRIBUTE) {
             try {
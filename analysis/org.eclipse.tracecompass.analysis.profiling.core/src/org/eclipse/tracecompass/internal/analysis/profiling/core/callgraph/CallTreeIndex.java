@@ -0,0 +1,527 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.profiling.core.callgraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Precomputed index of the aggregated call tree of all the threads, used to
+ * get the flame graph of a time range without walking all the call stack
+ * intervals of the range.
+ *
+ * The time range of the trace is split in buckets of equal duration. For each
+ * bucket, the index keeps the number of calls, the duration and the self time
+ * of each node of the call tree, the calls being cut to the bucket. For each
+ * bucket start, it also keeps the number of calls that started before and are
+ * still running, as those calls are in both adjacent buckets.
+ *
+ * The flame graph of a time range merges the buckets fully in the range and
+ * only computes the calls of the partial buckets at both ends of the range.
+ * The index can be saved to a file and loaded again.
+ */
+public final class CallTreeIndex {
+
+    private static final int MAGIC = 0x43544958;
+    private static final int FORMAT_VERSION = 1;
+    private static final byte LONG_SYMBOL = 0;
+    private static final byte STRING_SYMBOL = 1;
+
+    /** Identifier of the root of the tree, that has no symbol */
+    private static final int ROOT = 0;
+
+    /**
+     * Computes the aggregated calls of all threads during a time range, the
+     * calls being cut to the range
+     */
+    @FunctionalInterface
+    public interface IRangeAggregator {
+
+        /**
+         * Aggregate the calls of a time range
+         *
+         * @param start
+         *            The start of the range
+         * @param end
+         *            The end of the range, inclusive
+         * @return The root of the aggregated calls, or <code>null</code> if
+         *         they cannot be computed
+         */
+        @Nullable AggregatedCalledFunction aggregate(long start, long end);
+    }
+
+    /** Gets the calls running at a time that started before that time */
+    @FunctionalInterface
+    public interface IActiveCallsProvider {
+
+        /**
+         * Get the calls running at a time that started before that time
+         *
+         * @param time
+         *            The time
+         * @return The symbols of the running calls of each thread, from the
+         *         root function to the deepest, or <code>null</code> if they
+         *         cannot be computed
+         */
+        @Nullable Collection<List<Object>> getActiveCalls(long time);
+    }
+
+    private static final class ChildKey {
+        private final int fParent;
+        private final Object fSymbol;
+
+        public ChildKey(int parent, Object symbol) {
+            fParent = parent;
+            fSymbol = symbol;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fParent, fSymbol);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof ChildKey)) {
+                return false;
+            }
+            ChildKey other = (ChildKey) obj;
+            return fParent == other.fParent && fSymbol.equals(other.fSymbol);
+        }
+    }
+
+    /** The nodes of the call tree, shared by all the buckets */
+    private static final class NodeTable {
+        private final List<Object> fSymbols = new ArrayList<>();
+        private final List<Integer> fParents = new ArrayList<>();
+        private final List<Integer> fDepths = new ArrayList<>();
+        private final List<Integer> fProcessIds = new ArrayList<>();
+        private final Map<ChildKey, Integer> fChildren = new HashMap<>();
+
+        public NodeTable() {
+            add(ROOT, "", -1, 0); //$NON-NLS-1$
+        }
+
+        public int add(int parent, Object symbol, int depth, int processId) {
+            int node = fSymbols.size();
+            fSymbols.add(symbol);
+            fParents.add(parent);
+            fDepths.add(depth);
+            fProcessIds.add(processId);
+            if (node != ROOT) {
+                fChildren.put(new ChildKey(parent, symbol), node);
+            }
+            return node;
+        }
+
+        public @Nullable Integer get(int parent, Object symbol) {
+            return fChildren.get(new ChildKey(parent, symbol));
+        }
+
+        public int getOrAdd(int parent, Object symbol, int depth, int processId) {
+            Integer node = get(parent, symbol);
+            return node != null ? node : add(parent, symbol, depth, processId);
+        }
+
+        public int size() {
+            return fSymbols.size();
+        }
+    }
+
+    /** The calls of the nodes during a time range */
+    private static final class Counts {
+        private final int[] fNodes;
+        private final long[] fCalls;
+        private final long[] fDurations;
+        private final long[] fSelfTimes;
+
+        public Counts(int size) {
+            fNodes = new int[size];
+            fCalls = new long[size];
+            fDurations = new long[size];
+            fSelfTimes = new long[size];
+        }
+
+        public static Counts create(TreeMap<Integer, long[]> values) {
+            Counts counts = new Counts(values.size());
+            int i = 0;
+            for (Map.Entry<Integer, long[]> entry : values.entrySet()) {
+                long[] value = entry.getValue();
+                counts.fNodes[i] = entry.getKey();
+                counts.fCalls[i] = value[0];
+                counts.fDurations[i] = value[1];
+                counts.fSelfTimes[i] = value[2];
+                i++;
+            }
+            return counts;
+        }
+
+        public void addTo(long[] calls, long[] durations, long[] selfTimes, int sign) {
+            for (int i = 0; i < fNodes.length; i++) {
+                calls[fNodes[i]] += sign * fCalls[i];
+                durations[fNodes[i]] += sign * fDurations[i];
+                selfTimes[fNodes[i]] += sign * fSelfTimes[i];
+            }
+        }
+
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(fNodes.length);
+            for (int i = 0; i < fNodes.length; i++) {
+                out.writeInt(fNodes[i]);
+                out.writeLong(fCalls[i]);
+                out.writeLong(fDurations[i]);
+                out.writeLong(fSelfTimes[i]);
+            }
+        }
+
+        public static Counts read(DataInputStream in, int nbNodes) throws IOException {
+            int size = in.readInt();
+            if (size < 0 || size > nbNodes) {
+                throw new IOException("Invalid number of call tree entries: " + size); //$NON-NLS-1$
+            }
+            Counts counts = new Counts(size);
+            for (int i = 0; i < size; i++) {
+                counts.fNodes[i] = in.readInt();
+                if (counts.fNodes[i] < 0 || counts.fNodes[i] >= nbNodes) {
+                    throw new IOException("Invalid call tree node: " + counts.fNodes[i]); //$NON-NLS-1$
+                }
+                counts.fCalls[i] = in.readLong();
+                counts.fDurations[i] = in.readLong();
+                counts.fSelfTimes[i] = in.readLong();
+            }
+            return counts;
+        }
+    }
+
+    private final long fStart;
+    private final long fEnd;
+    private final long fBucketDuration;
+    private final NodeTable fNodes;
+    /* The calls of each bucket, cut to the bucket */
+    private final Counts[] fBuckets;
+    /* The calls running at the start of each bucket that started before */
+    private final Counts[] fActiveCalls;
+
+    private CallTreeIndex(long start, long end, long bucketDuration, NodeTable nodes, Counts[] buckets, Counts[] activeCalls) {
+        fStart = start;
+        fEnd = end;
+        fBucketDuration = bucketDuration;
+        fNodes = nodes;
+        fBuckets = buckets;
+        fActiveCalls = activeCalls;
+    }
+
+    /**
+     * Build the index of a time range
+     *
+     * @param start
+     *            The start of the time range
+     * @param end
+     *            The end of the time range, inclusive
+     * @param maxBuckets
+     *            The maximum number of buckets
+     * @param aggregator
+     *            Computes the aggregated calls of each bucket
+     * @param activeCalls
+     *            Gets the calls running at the start of each bucket
+     * @param monitor
+     *            The progress monitor
+     * @return The index, or <code>null</code> if it was cancelled or the calls
+     *         could not be computed
+     */
+    public static @Nullable CallTreeIndex build(long start, long end, int maxBuckets, IRangeAggregator aggregator, IActiveCallsProvider activeCalls, IProgressMonitor monitor) {
+        long length = end - start + 1;
+        if (length <= 0 || maxBuckets <= 0) {
+            return null;
+        }
+        long bucketDuration = (length + Math.min(maxBuckets, length) - 1) / Math.min(maxBuckets, length);
+        int nbBuckets = (int) ((length + bucketDuration - 1) / bucketDuration);
+        NodeTable nodes = new NodeTable();
+        Counts[] buckets = new Counts[nbBuckets];
+        Counts[] active = new Counts[nbBuckets];
+        for (int i = 0; i < nbBuckets; i++) {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            long bucketStart = start + i * bucketDuration;
+            long bucketEnd = Math.min(bucketStart + bucketDuration - 1, end);
+            AggregatedCalledFunction root = aggregator.aggregate(bucketStart, bucketEnd);
+            if (root == null) {
+                return null;
+            }
+            TreeMap<Integer, long[]> values = new TreeMap<>();
+            addCalls(nodes, root.getChildren(), ROOT, values);
+            buckets[i] = Counts.create(values);
+
+            values = new TreeMap<>();
+            if (i > 0) {
+                Collection<List<Object>> calls = activeCalls.getActiveCalls(bucketStart);
+                if (calls == null) {
+                    return null;
+                }
+                for (List<Object> stack : calls) {
+                    int node = ROOT;
+                    for (Object symbol : stack) {
+                        node = nodes.getOrAdd(node, symbol, nodes.fDepths.get(node) + 1, -1);
+                        values.computeIfAbsent(node, n -> new long[3])[0]++;
+                    }
+                }
+            }
+            active[i] = Counts.create(values);
+        }
+        return new CallTreeIndex(start, end, bucketDuration, nodes, buckets, active);
+    }
+
+    private static void addCalls(NodeTable nodes, Collection<AggregatedCalledFunction> functions, int parent, TreeMap<Integer, long[]> values) {
+        for (AggregatedCalledFunction function : functions) {
+            int node = nodes.getOrAdd(parent, function.getSymbol(), function.getDepth(), function.getProcessId());
+            long[] value = values.computeIfAbsent(node, n -> new long[3]);
+            value[0] += function.getNbCalls();
+            value[1] += function.getDuration();
+            value[2] += function.getSelfTime();
+            addCalls(nodes, function.getChildren(), node, values);
+        }
+    }
+
+    /**
+     * Get the start of the indexed time range
+     *
+     * @return The start time
+     */
+    public long getStart() {
+        return fStart;
+    }
+
+    /**
+     * Get the end of the indexed time range
+     *
+     * @return The end time, inclusive
+     */
+    public long getEnd() {
+        return fEnd;
+    }
+
+    /**
+     * Get the number of buckets of the index
+     *
+     * @return The number of buckets
+     */
+    public int getNbBuckets() {
+        return fBuckets.length;
+    }
+
+    private long getBucketStart(int bucket) {
+        return fStart + bucket * fBucketDuration;
+    }
+
+    private long getBucketEnd(int bucket) {
+        return Math.min(getBucketStart(bucket) + fBucketDuration - 1, fEnd);
+    }
+
+    /**
+     * Get the aggregated calls of all the threads during a time range, the
+     * calls being cut to the range. The functions of the result have no
+     * statistics on the individual calls.
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range, inclusive
+     * @param aggregator
+     *            Computes the aggregated calls of the parts of the range that
+     *            do not cover a full bucket
+     * @return The root of the aggregated calls, or <code>null</code> if the
+     *         range does not cover a full bucket or the calls of its ends
+     *         could not be computed
+     */
+    public @Nullable ThreadNode query(long start, long end, IRangeAggregator aggregator) {
+        long rangeStart = Math.max(start, fStart);
+        long rangeEnd = Math.min(end, fEnd);
+        if (rangeStart > rangeEnd) {
+            return null;
+        }
+        int first = (int) ((rangeStart - fStart + fBucketDuration - 1) / fBucketDuration);
+        int last = (rangeEnd == fEnd) ? fBuckets.length - 1 : (int) ((rangeEnd - fStart + 1) / fBucketDuration) - 1;
+        if (first > last) {
+            return null;
+        }
+        int nbNodes = fNodes.size();
+        long[] calls = new long[nbNodes];
+        long[] durations = new long[nbNodes];
+        long[] selfTimes = new long[nbNodes];
+        for (int i = first; i <= last; i++) {
+            fBuckets[i].addTo(calls, durations, selfTimes, 1);
+            if (i > first) {
+                /* Calls running across the bucket start are in both buckets */
+                fActiveCalls[i].addTo(calls, durations, selfTimes, -1);
+            }
+        }
+        long firstStart = getBucketStart(first);
+        if (rangeStart < firstStart) {
+            AggregatedCalledFunction root = aggregator.aggregate(rangeStart, firstStart - 1);
+            if (root == null || !addRange(root.getChildren(), ROOT, calls, durations, selfTimes)) {
+                return null;
+            }
+            fActiveCalls[first].addTo(calls, durations, selfTimes, -1);
+        }
+        long lastEnd = getBucketEnd(last);
+        if (rangeEnd > lastEnd) {
+            AggregatedCalledFunction root = aggregator.aggregate(lastEnd + 1, rangeEnd);
+            if (root == null || !addRange(root.getChildren(), ROOT, calls, durations, selfTimes)) {
+                return null;
+            }
+            fActiveCalls[last + 1].addTo(calls, durations, selfTimes, -1);
+        }
+        return createTree(calls, durations, selfTimes);
+    }
+
+    /*
+     * Add the calls of a range to the counts, returns false if a call is not
+     * in the tree
+     */
+    private boolean addRange(Collection<AggregatedCalledFunction> functions, int parent, long[] calls, long[] durations, long[] selfTimes) {
+        for (AggregatedCalledFunction function : functions) {
+            Integer node = fNodes.get(parent, function.getSymbol());
+            if (node == null) {
+                return false;
+            }
+            calls[node] += function.getNbCalls();
+            durations[node] += function.getDuration();
+            selfTimes[node] += function.getSelfTime();
+            if (!addRange(function.getChildren(), node, calls, durations, selfTimes)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ThreadNode createTree(long[] calls, long[] durations, long[] selfTimes) {
+        AbstractCalledFunction initSegment = CalledFunctionFactory.create(0, 0, -1, "", 0, null); //$NON-NLS-1$
+        ThreadNode root = new ThreadNode(initSegment, 0, 0);
+        /* The parents are always before their children in the table */
+        @Nullable AggregatedCalledFunction[] functions = new @Nullable AggregatedCalledFunction[fNodes.size()];
+        functions[ROOT] = root;
+        for (int node = ROOT + 1; node < functions.length; node++) {
+            AggregatedCalledFunction parent = functions[fNodes.fParents.get(node)];
+            if (parent == null || (calls[node] <= 0 && durations[node] <= 0)) {
+                continue;
+            }
+            AggregatedCalledFunction function = new AggregatedCalledFunction(fNodes.fSymbols.get(node), fNodes.fDepths.get(node), fNodes.fProcessIds.get(node), parent,
+                    durations[node], selfTimes[node], calls[node]);
+            parent.addChild(initSegment, function);
+            functions[node] = function;
+        }
+        return root;
+    }
+
+    /**
+     * Save the index to a file
+     *
+     * @param file
+     *            The file
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fStart);
+            out.writeLong(fEnd);
+            out.writeLong(fBucketDuration);
+            out.writeInt(fBuckets.length);
+            out.writeInt(fNodes.size());
+            for (int node = ROOT + 1; node < fNodes.size(); node++) {
+                out.writeInt(fNodes.fParents.get(node));
+                out.writeInt(fNodes.fDepths.get(node));
+                out.writeInt(fNodes.fProcessIds.get(node));
+                Object symbol = fNodes.fSymbols.get(node);
+                if (symbol instanceof Long) {
+                    out.writeByte(LONG_SYMBOL);
+                    out.writeLong((Long) symbol);
+                } else {
+                    out.writeByte(STRING_SYMBOL);
+                    out.writeUTF(String.valueOf(symbol));
+                }
+            }
+            for (int i = 0; i < fBuckets.length; i++) {
+                fBuckets[i].write(out);
+                fActiveCalls[i].write(out);
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Load an index saved with {@link #save(Path)}
+     *
+     * @param file
+     *            The file
+     * @param start
+     *            The start of the time range that the index must cover
+     * @param end
+     *            The end of the time range that the index must cover
+     * @return The index, or <code>null</code> if the file is not an index of
+     *         that time range
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public static @Nullable CallTreeIndex load(Path file, long start, long end) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != start || in.readLong() != end) {
+                return null;
+            }
+            long bucketDuration = in.readLong();
+            int nbBuckets = in.readInt();
+            int nbNodes = in.readInt();
+            if (bucketDuration <= 0 || nbBuckets <= 0 || nbNodes <= 0) {
+                throw new IOException("Invalid call tree index header"); //$NON-NLS-1$
+            }
+            NodeTable nodes = new NodeTable();
+            for (int node = ROOT + 1; node < nbNodes; node++) {
+                int parent = in.readInt();
+                int depth = in.readInt();
+                int processId = in.readInt();
+                Object symbol = (in.readByte() == LONG_SYMBOL) ? (Object) in.readLong() : in.readUTF();
+                if (parent < 0 || parent >= node) {
+                    throw new IOException("Invalid call tree parent: " + parent); //$NON-NLS-1$
+                }
+                nodes.add(parent, symbol, depth, processId);
+            }
+            Counts[] buckets = new Counts[nbBuckets];
+            Counts[] active = new Counts[nbBuckets];
+            for (int i = 0; i < nbBuckets; i++) {
+                buckets[i] = Counts.read(in, nbNodes);
+                active[i] = Counts.read(in, nbNodes);
+            }
+            return new CallTreeIndex(start, end, bucketDuration, nodes, buckets, active);
+        }
+    }
+
+}
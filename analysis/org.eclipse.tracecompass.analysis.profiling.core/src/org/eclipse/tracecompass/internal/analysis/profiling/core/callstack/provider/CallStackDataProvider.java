@@ -14,7 +14,6 @@ package org.eclipse.tracecompass.internal.analysis.profiling.core.callstack.prov
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +32,7 @@ import org.eclipse.tracecompass.internal.provisional.tmf.core.model.annotations.
 import org.eclipse.tracecompass.internal.tmf.core.analysis.callsite.CallsiteAnalysis;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.internal.tmf.core.model.timegraph.AbstractTimeGraphDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.timegraph.SampledStateQuery;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
@@ -62,7 +62,6 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 
@@ -145,22 +144,14 @@ public class CallStackDataProvider extends AbstractTimeGraphDataProvider<@NonNul
                 public @Nullable String load(TimePidNameValue value) {
                     Object nameValue = value.getNameValue();
 
-                    Long address = null;
+                    Long address = getAddress(nameValue);
                     String name = null;
                     if (nameValue instanceof String) {
                         name = (String) nameValue;
-                        try {
-                            address = Long.parseLong(name, 16);
-                        } catch (NumberFormatException e) {
-                            // leave name as null
-                        }
                     } else if (nameValue instanceof Integer) {
-                        Integer intValue = (Integer) nameValue;
-                        name = "0x" + Integer.toUnsignedString(intValue, 16); //$NON-NLS-1$
-                        address = intValue.longValue();
+                        name = "0x" + Integer.toUnsignedString((Integer) nameValue, 16); //$NON-NLS-1$
                     } else if (nameValue instanceof Long) {
-                        address = (long) nameValue;
-                        name = "0x" + Long.toUnsignedString(address, 16); //$NON-NLS-1$
+                        name = "0x" + Long.toUnsignedString((Long) nameValue, 16); //$NON-NLS-1$
                     }
                     if (address != null) {
                         synchronized (fProviders) {
@@ -171,6 +162,21 @@ public class CallStackDataProvider extends AbstractTimeGraphDataProvider<@NonNul
                 }
             });
 
+    private static @Nullable Long getAddress(Object nameValue) {
+        if (nameValue instanceof String) {
+            try {
+                return Long.parseLong((String) nameValue, 16);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else if (nameValue instanceof Integer) {
+            return ((Integer) nameValue).longValue();
+        } else if (nameValue instanceof Long) {
+            return (Long) nameValue;
+        }
+        return null;
+    }
+
     /**
      * Constructor
      *
@@ -308,14 +314,10 @@ public class CallStackDataProvider extends AbstractTimeGraphDataProvider<@NonNul
 
         SubMonitor subMonitor = SubMonitor.convert(monitor, "CallStackDataProvider#fetchRowModel", 2); //$NON-NLS-1$
 
-        ArrayListMultimap<Integer, ITmfStateInterval> intervals = ArrayListMultimap.create();
-        Collection<Long> times = getTimes(filter, ss.getStartTime(), ss.getCurrentEndTime());
         /* Do the actual query */
-        for (ITmfStateInterval interval : ss.query2D(entries.values(), times)) {
-            if (subMonitor.isCanceled()) {
-                return null;
-            }
-            intervals.put(interval.getAttribute(), interval);
+        SampledStateQuery sampled = querySampledStates(ss, entries.values(), filter, subMonitor);
+        if (sampled == null) {
+            return null;
         }
         subMonitor.worked(1);
 
@@ -325,32 +327,74 @@ public class CallStackDataProvider extends AbstractTimeGraphDataProvider<@NonNul
             predicates.putAll(computeRegexPredicate(regexesMap));
         }
 
+        Map<TimePidNameValue, String> names = resolveFunctionNames(sampled);
         List<@NonNull ITimeGraphRowModel> rows = new ArrayList<>();
         for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
             if (subMonitor.isCanceled()) {
                 return null;
             }
-            Collection<ITmfStateInterval> states = intervals.get(entry.getValue());
+            int quark = entry.getValue();
             Long key = Objects.requireNonNull(entry.getKey());
-            List<ITimeGraphState> eventList = new ArrayList<>(states.size());
-            states.forEach(state -> {
-                ITimeGraphState timeGraphState = createTimeGraphState(state);
+            List<ITimeGraphState> eventList = new ArrayList<>(sampled.size(quark));
+            sampled.forEach(quark, (q, start, end, value) -> {
+                ITimeGraphState timeGraphState = createTimeGraphState(q, start, end, value, names);
                 applyFilterAndAddState(eventList, timeGraphState, key, predicates, monitor);
             });
-            eventList.sort(Comparator.comparingLong(ITimeGraphState::getStartTime));
             rows.add(new TimeGraphRowModel(entry.getKey(), eventList));
         }
         subMonitor.worked(1);
         return new TimeGraphModel(rows);
     }
 
-    private ITimeGraphState createTimeGraphState(ITmfStateInterval interval) {
-        long startTime = interval.getStartTime();
-        long duration = interval.getEndTime() - startTime + 1;
-        Object value = interval.getValue();
-        Integer pid = fQuarkToPid.get(interval.getAttribute());
+    /**
+     * Resolve the function addresses of the intervals that are not in the
+     * cache, with one request to the symbol providers for each process
+     *
+     * @return The names of the resolved addresses
+     */
+    private Map<TimePidNameValue, String> resolveFunctionNames(SampledStateQuery intervals) {
+        Map<Integer, Map<TimePidNameValue, Long>> toResolve = new HashMap<>();
+        intervals.forEach((quark, start, end, value) -> {
+            Integer pid = fQuarkToPid.get(quark);
+            if (value == null || pid == null) {
+                return;
+            }
+            TimePidNameValue key = new TimePidNameValue(pid, value, start);
+            Long address = getAddress(value);
+            if (address != null && fTimeEventNames.getIfPresent(key) == null) {
+                toResolve.computeIfAbsent(pid, p -> new HashMap<>()).put(key, address);
+            }
+        });
+        Map<TimePidNameValue, String> names = new HashMap<>();
+        for (Entry<Integer, Map<TimePidNameValue, Long>> entry : toResolve.entrySet()) {
+            List<TimePidNameValue> keys = new ArrayList<>(entry.getValue().keySet());
+            long[] timestamps = new long[keys.size()];
+            long[] addresses = new long[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                timestamps[i] = keys.get(i).getTime();
+                addresses[i] = Objects.requireNonNull(entry.getValue().get(keys.get(i)));
+            }
+            String[] symbols;
+            synchronized (fProviders) {
+                symbols = SymbolProviderUtils.getSymbolTexts(fProviders, entry.getKey(), timestamps, addresses);
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                names.put(keys.get(i), symbols[i]);
+            }
+        }
+        fTimeEventNames.putAll(names);
+        return names;
+    }
+
+    private ITimeGraphState createTimeGraphState(int quark, long startTime, long endTime, @Nullable Object value, Map<TimePidNameValue, String> names) {
+        long duration = endTime - startTime + 1;
+        Integer pid = fQuarkToPid.get(quark);
         if (value != null && pid != null) {
-            String name = fTimeEventNames.getUnchecked(new TimePidNameValue(pid, interval.getValue(), interval.getStartTime()));
+            TimePidNameValue nameKey = new TimePidNameValue(pid, value, startTime);
+            String name = names.get(nameKey);
+            if (name == null) {
+                name = fTimeEventNames.getUnchecked(nameKey);
+            }
             Object key = name == null ? value : name;
             return new TimeGraphState(startTime, duration, name, FlameDefaultPalette.getStyleFor(key));
         }
@@ -187,15 +187,22 @@ public class FlameGraphPresentationProvider extends TimeGraphPresentationProvide
         AggregatedCalledFunctionStatistics statistics = fgEvent.getStatistics();
         ImmutableMap.Builder<String, String> builder = new ImmutableMap.Builder<>();
         builder.put(Messages.FlameGraph_Symbol, fgEvent.getLabel());
-        builder.put(Messages.FlameGraph_NbCalls, NumberFormat.getIntegerInstance().format(statistics.getDurationStatistics().getNbElements())); // $NON-NLS-1$
+        builder.put(Messages.FlameGraph_NbCalls, NumberFormat.getIntegerInstance().format(fgEvent.getNbCalls())); // $NON-NLS-1$
+        /* The functions merged from the call tree index have no statistics */
+        boolean hasStatistics = statistics.getDurationStatistics().getNbElements() > 0;
         builder.put(String.valueOf(Messages.FlameGraph_Durations), ""); //$NON-NLS-1$
         builder.put("\t" + Messages.FlameGraph_Duration, FORMATTER.format(event.getDuration())); //$NON-NLS-1$
-        builder.put("\t" + Messages.FlameGraph_AverageDuration, FORMATTER.format(statistics.getDurationStatistics().getMean())); // $NON-NLS-1$ //$NON-NLS-1$
-        builder.put("\t" + Messages.FlameGraph_MaxDuration, FORMATTER.format((statistics.getDurationStatistics().getMaxNumber()))); // $NON-NLS-1$ //$NON-NLS-1$
-        builder.put("\t" + Messages.FlameGraph_MinDuration, FORMATTER.format(statistics.getDurationStatistics().getMinNumber())); // $NON-NLS-1$ //$NON-NLS-1$
-        builder.put("\t" + Messages.FlameGraph_Deviation, FORMATTER.format(statistics.getDurationStatistics().getStdDev())); //$NON-NLS-1$
+        if (hasStatistics) {
+            builder.put("\t" + Messages.FlameGraph_AverageDuration, FORMATTER.format(statistics.getDurationStatistics().getMean())); // $NON-NLS-1$ //$NON-NLS-1$
+            builder.put("\t" + Messages.FlameGraph_MaxDuration, FORMATTER.format((statistics.getDurationStatistics().getMaxNumber()))); // $NON-NLS-1$ //$NON-NLS-1$
+            builder.put("\t" + Messages.FlameGraph_MinDuration, FORMATTER.format(statistics.getDurationStatistics().getMinNumber())); // $NON-NLS-1$ //$NON-NLS-1$
+            builder.put("\t" + Messages.FlameGraph_Deviation, FORMATTER.format(statistics.getDurationStatistics().getStdDev())); //$NON-NLS-1$
+        }
         builder.put(Messages.FlameGraph_SelfTimes, ""); //$NON-NLS-1$
         builder.put("\t" + Messages.FlameGraph_SelfTime, FORMATTER.format(fgEvent.getSelfTime())); //$NON-NLS-1$
+        if (!hasStatistics) {
+            return builder.build();
+        }
         builder.put("\t" + Messages.FlameGraph_AverageSelfTime, FORMATTER.format(statistics.getSelfTimeStatistics().getMean())); // $NON-NLS-1$ //$NON-NLS-1$
         builder.put("\t" + Messages.FlameGraph_MaxSelfTime, FORMATTER.format(statistics.getSelfTimeStatistics().getMax())); // $NON-NLS-1$ //$NON-NLS-1$
         builder.put("\t" + Messages.FlameGraph_MinSelfTime, FORMATTER.format(statistics.getSelfTimeStatistics().getMin())); // $NON-NLS-1$ //$NON-NLS-1$
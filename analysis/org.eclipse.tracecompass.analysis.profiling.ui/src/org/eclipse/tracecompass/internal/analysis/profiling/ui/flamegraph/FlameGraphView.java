@@ -15,6 +15,7 @@ package org.eclipse.tracecompass.internal.analysis.profiling.ui.flamegraph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Semaphore;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -51,6 +52,8 @@ import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceClosedSignal;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceSelectedSignal;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
@@ -127,6 +130,9 @@ public class FlameGraphView extends TmfView {
 
     private Iterable<CallGraphAnalysis> fFlamegraphModules = null;
 
+    /* The selected time range, null to show the whole trace */
+    private volatile @Nullable TmfTimeRange fSelectionRange = null;
+
     /**
      * Constructor
      */
@@ -201,6 +207,7 @@ public class FlameGraphView extends TmfView {
         ITmfTrace trace = signal.getTrace();
         fTrace = trace;
         if (trace != null) {
+            fSelectionRange = getRange(TmfTraceManager.getInstance().getTraceContext(trace).getSelectionRange());
             Iterable<CallStackAnalysis> csModules = TmfTraceUtils.getAnalysisModulesOfClass(trace, CallStackAnalysis.class);
             List<CallGraphAnalysis> cgModules = new ArrayList<>();
             for (CallStackAnalysis csModule : csModules) {
@@ -263,10 +270,22 @@ public class FlameGraphView extends TmfView {
                     if (monitor.isCanceled()) {
                         return Status.CANCEL_STATUS;
                     }
+                    TmfTimeRange range = fSelectionRange;
                     List<ThreadNode> input = new ArrayList<>();
                     for (CallGraphAnalysis callGraphAnalysis : callGraphProviders) {
                         callGraphAnalysis.waitForCompletion(monitor);
-                        input.addAll(fContentPresentation == ContentPresentation.BY_THREAD ? callGraphAnalysis.getThreadNodes() : callGraphAnalysis.getFlameGraph());
+                        if (range == null) {
+                            input.addAll(fContentPresentation == ContentPresentation.BY_THREAD ? callGraphAnalysis.getThreadNodes() : callGraphAnalysis.getFlameGraph());
+                        } else if (fContentPresentation == ContentPresentation.BY_THREAD) {
+                            /* Only the threads cut by the range are computed */
+                            input.addAll(callGraphAnalysis.getThreadNodes(range.getStartTime().toNanos(), range.getEndTime().toNanos(), monitor));
+                        } else {
+                            /* Merged from the call tree index of the analysis */
+                            input.addAll(callGraphAnalysis.getFlameGraph(range.getStartTime().toNanos(), range.getEndTime().toNanos(), monitor));
+                        }
+                    }
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
                     }
                     // compute input outside of display thread.
                     Display.getDefault().asyncExec(() -> {
@@ -284,6 +303,45 @@ public class FlameGraphView extends TmfView {
         job.schedule();
     }
 
+    /**
+     * Handler for the selection range signal, the flame graph shows the calls
+     * of the selected range, or of the whole trace if a single time is
+     * selected
+     *
+     * @param signal
+     *            The incoming signal
+     */
+    @TmfSignalHandler
+    public void selectionRangeUpdated(final TmfSelectionRangeUpdatedSignal signal) {
+        ITmfTrace trace = fTrace;
+        if (trace == null || (signal.getTrace() != null && signal.getTrace() != trace)) {
+            return;
+        }
+        TmfTimeRange range = getRange(new TmfTimeRange(signal.getBeginTime(), signal.getEndTime()));
+        if (Objects.equals(range, fSelectionRange)) {
+            return;
+        }
+        fSelectionRange = range;
+        Iterable<CallGraphAnalysis> modules = fFlamegraphModules;
+        if (modules != null) {
+            buildFlameGraph(modules);
+        }
+    }
+
+    /*
+     * Get the time range of a selection, in order, or null if it is a single
+     * time
+     */
+    private static @Nullable TmfTimeRange getRange(TmfTimeRange selection) {
+        ITmfTimestamp begin = selection.getStartTime();
+        ITmfTimestamp end = selection.getEndTime();
+        int compare = begin.compareTo(end);
+        if (compare == 0) {
+            return null;
+        }
+        return compare < 0 ? selection : new TmfTimeRange(end, begin);
+    }
+
     /**
      * Await the next refresh
      *
@@ -30,6 +30,7 @@ public class FlamegraphEvent extends TimeEvent {
     private final Object fSymbol;
     private final long fSelfTime;
     private final int fProcessId;
+    private final long fNbCalls;
     private final AggregatedCalledFunctionStatistics fStatistics;
 
     /**
@@ -48,6 +49,7 @@ public class FlamegraphEvent extends TimeEvent {
         fStatistics = aggregatedFunction.getFunctionStatistics();
         fProcessId = aggregatedFunction.getProcessId();
         fSelfTime = aggregatedFunction.getSelfTime();
+        fNbCalls = aggregatedFunction.getNbCalls();
     }
 
     /**
@@ -59,6 +61,16 @@ public class FlamegraphEvent extends TimeEvent {
         return fSymbol;
     }
 
+    /**
+     * The number of calls of the function, including the calls that have no
+     * statistics
+     *
+     * @return The number of calls
+     */
+    public long getNbCalls() {
+        return fNbCalls;
+    }
+
     /**
      * The event's statistics
      *
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.jsontrace.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.tracecompass.internal.jsontrace.core.job.LoserTree;
+import org.junit.Test;
+
+/**
+ * Test the {@link LoserTree} merge used by the sorting job
+ */
+public class LoserTreeTest {
+
+    /**
+     * Test merging no sources
+     */
+    @Test
+    public void testEmpty() {
+        LoserTree<Integer> tree = new LoserTree<>(Collections.<Iterator<Integer>> emptyList(), Comparator.<Integer> naturalOrder());
+        assertFalse(tree.hasNext());
+    }
+
+    /**
+     * Test merging random sorted sources, including empty ones
+     */
+    @Test
+    public void testMerge() {
+        Random random = new Random(42);
+        for (int nbSources = 1; nbSources < 20; nbSources++) {
+            List<Iterator<Integer>> sources = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < nbSources; i++) {
+                List<Integer> source = new ArrayList<>();
+                int size = random.nextInt(50);
+                for (int j = 0; j < size; j++) {
+                    source.add(random.nextInt(100));
+                }
+                Collections.sort(source);
+                expected.addAll(source);
+                sources.add(source.iterator());
+            }
+            Collections.sort(expected);
+            List<Integer> actual = new ArrayList<>();
+            LoserTree<Integer> tree = new LoserTree<>(sources, Comparator.naturalOrder());
+            tree.forEachRemaining(actual::add);
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Test that equal elements are returned in the order of their sources
+     */
+    @Test
+    public void testStable() {
+        List<Iterator<int[]>> sources = new ArrayList<>();
+        sources.add(Arrays.asList(new int[] { 1, 0 }, new int[] { 2, 0 }).iterator());
+        sources.add(Arrays.asList(new int[] { 1, 1 }, new int[] { 2, 1 }).iterator());
+        sources.add(Arrays.asList(new int[] { 1, 2 }).iterator());
+        LoserTree<int[]> tree = new LoserTree<>(sources, Comparator.comparingInt(e -> e[0]));
+        int[][] expected = { { 1, 0 }, { 1, 1 }, { 1, 2 }, { 2, 0 }, { 2, 1 } };
+        for (int[] element : expected) {
+            int[] next = tree.next();
+            assertEquals(element[0], next[0]);
+            assertEquals(element[1], next[1]);
+        }
+        assertFalse(tree.hasNext());
+    }
+}
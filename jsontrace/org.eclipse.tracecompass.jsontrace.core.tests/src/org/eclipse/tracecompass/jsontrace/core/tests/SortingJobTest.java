@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.jsontrace.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.jsontrace.core.tests.stub.JsonStubTrace;
+import org.eclipse.tracecompass.jsontrace.core.tests.stub.JsonStubTraceSortingJob;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link org.eclipse.tracecompass.internal.jsontrace.core.job.SortingJob}
+ * on a trace that spans several mapped windows
+ */
+public class SortingJobTest {
+
+    private static final int NB_EVENTS = 2000;
+    private static final long WINDOW_SIZE = 4096;
+
+    private File fTraceFile;
+    private ITmfTrace fTrace;
+
+    /**
+     * Sorting job mapping small windows of the trace file
+     */
+    private static class SmallWindowSortingJob extends JsonStubTraceSortingJob {
+
+        public SmallWindowSortingJob(ITmfTrace trace, String path) {
+            super(trace, path);
+        }
+
+        @Override
+        protected long getWindowSize() {
+            return WINDOW_SIZE;
+        }
+
+        public IStatus runSynchronously() {
+            return run(new NullProgressMonitor());
+        }
+    }
+
+    /**
+     * Write a trace whose events are shuffled
+     *
+     * @throws IOException
+     *             If the trace cannot be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        List<Integer> timestamps = new ArrayList<>();
+        for (int i = 0; i < NB_EVENTS; i++) {
+            timestamps.add(i);
+        }
+        Collections.shuffle(timestamps, new Random(42));
+        StringBuilder sb = new StringBuilder("{\"events\":["); //$NON-NLS-1$
+        for (int i = 0; i < NB_EVENTS; i++) {
+            if (i > 0) {
+                sb.append(",\n"); //$NON-NLS-1$
+            }
+            sb.append("{\"timestamp\":").append(timestamps.get(i)) //$NON-NLS-1$
+                    .append(", \"eventContent\":{\"description\":\"This is event ").append(timestamps.get(i)).append("\"}}"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        sb.append("]}"); //$NON-NLS-1$
+        fTraceFile = File.createTempFile("unsorted", ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.write(fTraceFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        assertTrue(fTraceFile.length() > 10 * WINDOW_SIZE);
+        fTrace = new JsonStubTrace() {
+            @Override
+            public String getPath() {
+                return fTraceFile.getAbsolutePath();
+            }
+        };
+    }
+
+    /**
+     * Delete the trace and the sorted trace
+     *
+     * @throws IOException
+     *             If the files cannot be listed
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(new File(TmfTraceManager.getSupplementaryFileDir(fTrace)).toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        Files.deleteIfExists(fTraceFile.toPath());
+        fTrace.dispose();
+    }
+
+    /**
+     * Test that the events copied in random order from several windows are
+     * all sorted and intact
+     *
+     * @throws IOException
+     *             If the sorted trace cannot be read
+     */
+    @Test
+    public void testSortAcrossWindows() throws IOException {
+        SmallWindowSortingJob job = new SmallWindowSortingJob(fTrace, fTraceFile.getAbsolutePath());
+        IStatus status = job.runSynchronously();
+        assertTrue(status.getMessage(), status.isOK());
+
+        File sorted = new File(TmfTraceManager.getSupplementaryFileDir(fTrace) + File.separator + fTraceFile.getName());
+        List<String> lines = Files.readAllLines(sorted.toPath(), StandardCharsets.UTF_8);
+        assertEquals("[", lines.get(0)); //$NON-NLS-1$
+        assertEquals("]", lines.get(lines.size() - 1)); //$NON-NLS-1$
+        assertEquals(NB_EVENTS + 2, lines.size());
+        for (int i = 0; i < NB_EVENTS; i++) {
+            String expected = "{\"timestamp\":" + i + ", \"eventContent\":{\"description\":\"This is event " + i + "\"}}"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            String separator = (i < NB_EVENTS - 1 ? "," : ""); //$NON-NLS-1$ //$NON-NLS-2$
+            assertEquals(expected + separator, lines.get(i + 1));
+        }
+    }
+}
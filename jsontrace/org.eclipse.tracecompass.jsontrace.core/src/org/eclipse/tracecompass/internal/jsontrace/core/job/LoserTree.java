@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.jsontrace.core.job;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * K-way merge of sorted sources using a tournament tree of losers. Each call
+ * to {@link #next()} costs log2(k) comparisons, against roughly 2 log2(k) for
+ * a binary heap, and elements that compare equal are returned in the order of
+ * their sources, so the merge is stable.
+ *
+ * @param <T>
+ *            The type of the merged elements
+ */
+public class LoserTree<T> implements Iterator<T> {
+
+    private final List<Iterator<T>> fSources;
+    private final Comparator<T> fComparator;
+    private final Object[] fHeads;
+    private final boolean[] fExhausted;
+    /*
+     * fTree[0] is the index of the current winner, fTree[1..k-1] are the
+     * indexes of the losers of each match. Index k is a virtual source that
+     * beats everyone, it is only used while building the tree.
+     */
+    private final int[] fTree;
+    private final int fSize;
+
+    /**
+     * Constructor
+     *
+     * @param sources
+     *            The sources to merge, each of them must already be sorted
+     *            according to the comparator
+     * @param comparator
+     *            The element comparator
+     */
+    public LoserTree(List<Iterator<T>> sources, Comparator<T> comparator) {
+        fSources = sources;
+        fComparator = comparator;
+        fSize = sources.size();
+        fHeads = new Object[fSize];
+        fExhausted = new boolean[fSize];
+        fTree = new int[Math.max(fSize, 1)];
+        for (int i = 0; i < fSize; i++) {
+            pull(i);
+        }
+        for (int i = 0; i < fTree.length; i++) {
+            fTree[i] = fSize;
+        }
+        for (int i = fSize - 1; i >= 0; i--) {
+            adjust(i);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return fSize > 0 && !fExhausted[fTree[0]];
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int winner = fTree[0];
+        @SuppressWarnings("unchecked")
+        T value = (T) fHeads[winner];
+        pull(winner);
+        adjust(winner);
+        return value;
+    }
+
+    private void pull(int source) {
+        Iterator<T> iterator = fSources.get(source);
+        if (iterator.hasNext()) {
+            fHeads[source] = iterator.next();
+        } else {
+            fHeads[source] = null;
+            fExhausted[source] = true;
+        }
+    }
+
+    /**
+     * Replay the matches from a leaf up to the root
+     */
+    private void adjust(int source) {
+        int winner = source;
+        for (int node = (source + fSize) / 2; node > 0; node /= 2) {
+            int opponent = fTree[node];
+            if (beats(opponent, winner)) {
+                fTree[node] = winner;
+                winner = opponent;
+            }
+        }
+        fTree[0] = winner;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean beats(int first, int second) {
+        if (first == fSize) {
+            return true;
+        }
+        if (second == fSize) {
+            return false;
+        }
+        if (fExhausted[first]) {
+            return false;
+        }
+        if (fExhausted[second]) {
+            return true;
+        }
+        int cmp = fComparator.compare((T) fHeads[first], (T) fHeads[second]);
+        return cmp != 0 ? cmp < 0 : first < second;
+    }
+}
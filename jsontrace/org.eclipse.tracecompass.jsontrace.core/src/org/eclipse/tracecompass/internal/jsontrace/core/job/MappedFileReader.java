@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.jsontrace.core.job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access byte reader over a memory-mapped file. The file is mapped in
+ * windows so that files larger than 2GB can be read, a window is remapped only
+ * when a read falls outside of it. The ranges that are copied in random order
+ * are read with positional reads instead, so they do not remap the file.
+ */
+class MappedFileReader implements Closeable {
+
+    /** The default size of the mapped windows */
+    static final long DEFAULT_WINDOW_SIZE = 1L << 26;
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel fChannel;
+    private final long fSize;
+    private final long fWindowSize;
+    private final ByteBuffer fCopyBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+    private MappedByteBuffer fWindow;
+    private long fWindowStart;
+    private long fWindowEnd;
+
+    /**
+     * Constructor
+     *
+     * @param path
+     *            The file to read
+     * @throws IOException
+     *             If the file cannot be opened or mapped
+     */
+    public MappedFileReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param path
+     *            The file to read
+     * @param windowSize
+     *            The size of the mapped windows
+     * @throws IOException
+     *             If the file cannot be opened or mapped
+     */
+    public MappedFileReader(Path path, long windowSize) throws IOException {
+        fChannel = FileChannel.open(path, StandardOpenOption.READ);
+        fSize = fChannel.size();
+        fWindowSize = windowSize;
+        fWindow = map(0);
+    }
+
+    /**
+     * Get the size of the file
+     *
+     * @return the size in bytes
+     */
+    public long size() {
+        return fSize;
+    }
+
+    /**
+     * Read one byte
+     *
+     * @param position
+     *            the position in the file
+     * @return the unsigned byte value, or -1 if the position is past the end of
+     *         the file
+     * @throws IOException
+     *             If the file cannot be mapped
+     */
+    public int read(long position) throws IOException {
+        if (position >= fSize) {
+            return -1;
+        }
+        if (position < fWindowStart || position >= fWindowEnd) {
+            fWindow = map(position);
+        }
+        return fWindow.get((int) (position - fWindowStart)) & 0xff;
+    }
+
+    /**
+     * Copy a range of the file to a stream. The range is read with positional
+     * reads in a reused buffer, the mapped window is left as is.
+     *
+     * @param position
+     *            the start of the range
+     * @param length
+     *            the length of the range
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             If the file cannot be read or the stream cannot be written
+     */
+    public void copy(long position, int length, OutputStream out) throws IOException {
+        ByteBuffer buffer = fCopyBuffer;
+        long pos = position;
+        long end = Math.min(position + length, fSize);
+        while (pos < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(end - pos, buffer.capacity()));
+            int read = fChannel.read(buffer, pos);
+            if (read < 0) {
+                return;
+            }
+            out.write(buffer.array(), 0, read);
+            pos += read;
+        }
+    }
+
+    private MappedByteBuffer map(long position) throws IOException {
+        fWindowStart = position;
+        fWindowEnd = Math.min(fSize, position + fWindowSize);
+        return fChannel.map(MapMode.READ_ONLY, fWindowStart, fWindowEnd - fWindowStart);
+    }
+
+    @Override
+    public void close() throws IOException {
+        fChannel.close();
+    }
+}
@@ -12,16 +12,30 @@
 package org.eclipse.tracecompass.internal.jsontrace.core.job;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,8 +55,11 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 /**
- * On-disk sorting job. It splits a trace into tracelets. Each tracelet is
- * sorted in ram and written to disk, then the tracelets are merged into a big
+ * On-disk sorting job. The trace is scanned through a memory-mapped file and
+ * split into tracelets of event positions. Each tracelet is sorted in ram on a
+ * small worker pool and spilled to disk as compact binary records (timestamp,
+ * offset and length of the event in the original file), then the tracelets are
+ * merged with a loser tree and the events are copied in order into a big
  * trace.
  *
  * @author Matthew Khouzam
@@ -51,56 +68,100 @@ public abstract class SortingJob extends Job {
 
     private static final char CLOSE_BRACKET = ']';
     private static final char OPEN_BRACKET = '[';
-    private static final int CHARS_PER_LINE_ESTIMATE = 50;
+    private static final byte[] SEPARATOR = ",\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(SortingJob.class);
-    private static final int CHUNK_SIZE = 65535;
+    private static final int CHUNK_SIZE = 1 << 18;
+    private static final int MAX_WORKERS = 4;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int SPLIT_WORK = 60;
+    private static final int MERGE_WORK = 40;
 
-    private static final Comparator<PartiallyParsedEvent> EVENT_COMPARATOR = Comparator
-            .comparing(PartiallyParsedEvent::getTs);
+    private static final Comparator<EventRange> EVENT_COMPARATOR = Comparator
+            .comparing(EventRange::getTs);
 
-    private static final class PartiallyParsedEvent {
+    /**
+     * Position of an event in the original trace file, with its sorting key
+     */
+    private static final class EventRange {
         private static final @NonNull BigDecimal MINUS_ONE = BigDecimal.valueOf(-1);
 
         private final BigDecimal fTs;
-        private String fLine;
-        private final int fPos;
-
-        public PartiallyParsedEvent(String key, String string, int i) {
-            fLine = string;
-            int indexOf = string.indexOf(key);
-            fPos = i;
-            if (indexOf < 0) {
-                fTs = MINUS_ONE;
-            } else {
-                int index = indexOf + key.length();
-                int end = string.indexOf(',', index);
-                if (end == -1) {
-                    end = string.indexOf('}', index);
-                }
-                BigDecimal ts;
-                String number = string.substring(index, end).trim().replace("\"", "");
-                if (!number.isEmpty()) {
-                    try {
-                        // This may be a bit slow, it can be optimized if need be.
-                        ts = new BigDecimal(number);
-                    } catch (NumberFormatException e) {
-                        // Cannot be parsed as a number, set to -1
-                        ts = MINUS_ONE;
-                    }
-                } else {
-                    ts = MINUS_ONE;
-                }
-                fTs = ts;
-            }
+        private final long fOffset;
+        private final int fLength;
+
+        public EventRange(BigDecimal ts, long offset, int length) {
+            fTs = ts;
+            fOffset = offset;
+            fLength = length;
         }
 
         public BigDecimal getTs() {
             return fTs;
         }
+
+        public void write(DataOutputStream out) throws IOException {
+            out.writeLong(fOffset);
+            out.writeInt(fLength);
+            out.writeInt(fTs.scale());
+            byte[] unscaled = fTs.unscaledValue().toByteArray();
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+
+        public static @Nullable EventRange read(DataInputStream in) throws IOException {
+            long offset;
+            try {
+                offset = in.readLong();
+            } catch (EOFException e) {
+                return null;
+            }
+            int length = in.readInt();
+            int scale = in.readInt();
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            return new EventRange(new BigDecimal(new BigInteger(unscaled), scale), offset, length);
+        }
+    }
+
+    /**
+     * Sequential reader of a spilled tracelet
+     */
+    private static final class TraceletReader implements Iterator<EventRange> {
+        private final DataInputStream fInput;
+        private @Nullable EventRange fNext;
+
+        public TraceletReader(File traceling) throws IOException {
+            fInput = new DataInputStream(new BufferedInputStream(new FileInputStream(traceling)));
+            fNext = EventRange.read(fInput);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return fNext != null;
+        }
+
+        @Override
+        public EventRange next() {
+            EventRange next = fNext;
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            try {
+                fNext = EventRange.read(fInput);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next;
+        }
+
+        public void close() throws IOException {
+            fInput.close();
+        }
     }
 
     private final Integer fBracketsToSkip;
-    private final String fTsKey;
+    private final byte[] fTsKey;
     private final String fPath;
     private final ITmfTrace fTrace;
 
@@ -121,7 +182,7 @@ public abstract class SortingJob extends Job {
         super(Messages.SortingJob_description);
         fTrace = trace;
         fPath = path;
-        fTsKey = tsKey;
+        fTsKey = tsKey.getBytes(StandardCharsets.UTF_8);
         fBracketsToSkip = bracketsToSkip;
     }
 
@@ -137,106 +198,84 @@ public abstract class SortingJob extends Job {
     @Override
     protected IStatus run(IProgressMonitor monitor) {
         ITmfTrace trace = fTrace;
-        IProgressMonitor subMonitor = SubMonitor.convert(monitor, 3);
+        SubMonitor subMonitor = SubMonitor.convert(monitor, Messages.SortingJob_sorting, SPLIT_WORK + MERGE_WORK);
         if (trace == null) {
             return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Trace cannot be null"); //$NON-NLS-1$
         }
         String dir = TmfTraceManager.getSupplementaryFileDir(trace);
-        subMonitor.beginTask(Messages.SortingJob_sorting, (int) (new File(fPath).length() / CHARS_PER_LINE_ESTIMATE));
         subMonitor.subTask(Messages.SortingJob_splitting);
         File tempDir = new File(dir + ".tmp"); //$NON-NLS-1$
         tempDir.mkdirs();
         List<File> tracelings = new ArrayList<>();
-        try (BufferedInputStream parser = new BufferedInputStream(new FileInputStream(fPath))) {
-            int data = 0;
+        int nbWorkers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKERS));
+        /*
+         * The queue is bounded and the scanning thread sorts the chunk itself
+         * when it is full, so at most 2 * nbWorkers + 1 chunks are in memory.
+         */
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(nbWorkers, nbWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(nbWorkers), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<TraceletReader> readers = new ArrayList<>();
+        try (MappedFileReader reader = new MappedFileReader(new File(fPath).toPath(), getWindowSize())) {
+            long pos = 0;
             for (int nbBracket = 0; nbBracket < fBracketsToSkip; nbBracket++) {
-                data = parser.read();
-                while (data != '[') {
-                    data = parser.read();
+                int data = reader.read(pos++);
+                while (data != OPEN_BRACKET) {
+                    data = reader.read(pos++);
                     if (data == -1) {
                         return new Status(IStatus.ERROR, Activator.PLUGIN_ID,
                                 "Missing symbol \'[\' or \']\' in " + fPath); //$NON-NLS-1$
                     }
                 }
             }
-            List<PartiallyParsedEvent> events = new ArrayList<>(CHUNK_SIZE);
-            String eventString = JsonTrace.readNextEventString(parser::read);
-            if (eventString == null) {
+            SubMonitor splitMonitor = subMonitor.split(SPLIT_WORK).setWorkRemaining(100);
+            long fileSize = Math.max(1, reader.size());
+            int progress = 0;
+
+            List<Future<?>> sortTasks = new ArrayList<>();
+            List<EventRange> events = new ArrayList<>(CHUNK_SIZE);
+            long[] bounds = new long[2];
+            pos = nextEvent(reader, pos, bounds);
+            if (pos < 0) {
                 return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Empty event in " + fPath); //$NON-NLS-1$
             }
-            PartiallyParsedEvent line = new PartiallyParsedEvent(fTsKey, eventString, 0);
-            line.fLine = data + '"' + line.fLine;
-            int cnt = 0;
-            int filen = 0;
-            while (eventString != null) {
-                while (cnt < CHUNK_SIZE) {
-                    events.add(line);
-                    subMonitor.worked(1);
+            while (pos >= 0) {
+                events.add(parseEvent(reader, bounds[0], bounds[1]));
+                if (events.size() >= CHUNK_SIZE) {
+                    sortTasks.add(spill(workers, events, tempDir, tracelings));
+                    events = new ArrayList<>(CHUNK_SIZE);
+                    int newProgress = (int) (100 * pos / fileSize);
+                    splitMonitor.worked(newProgress - progress);
+                    progress = newProgress;
                     if (subMonitor.isCanceled()) {
                         return Status.CANCEL_STATUS;
                     }
-                    eventString = JsonTrace.readNextEventString(parser::read);
-                    if (eventString == null) {
-                        break;
-                    }
-                    line = new PartiallyParsedEvent(fTsKey, eventString, 0);
-                    cnt++;
-                }
-                events.sort(EVENT_COMPARATOR);
-                cnt = 0;
-                File traceling = new File(tempDir + File.separator + "test" + filen + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
-                tracelings.add(traceling);
-                boolean success = traceling.createNewFile();
-                if (!success) {
-                    return new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-                            "Could not create partial file " + traceling.getAbsolutePath()); //$NON-NLS-1$
                 }
-                try (PrintWriter fs = new PrintWriter(traceling)) {
-                    fs.println(OPEN_BRACKET);
-                    for (PartiallyParsedEvent sortedEvent : events) {
-                        fs.println(sortedEvent.fLine + ',');
-                    }
-                    fs.println(CLOSE_BRACKET);
-                }
-                events.clear();
-                filen++;
-                subMonitor.worked(1);
-                if (subMonitor.isCanceled()) {
-                    return Status.CANCEL_STATUS;
-                }
-
+                pos = nextEvent(reader, pos, bounds);
+            }
+            if (!events.isEmpty()) {
+                sortTasks.add(spill(workers, events, tempDir, tracelings));
+            }
+            long endOfEvents = -pos - 1;
+            for (Future<?> sortTask : sortTasks) {
+                sortTask.get();
             }
+            splitMonitor.done();
+
             subMonitor.subTask(Messages.SortingJob_merging);
-            PriorityQueue<PartiallyParsedEvent> evs = new PriorityQueue<>(EVENT_COMPARATOR);
-            List<BufferedInputStream> parsers = new ArrayList<>();
-            int i = 0;
+            List<Iterator<EventRange>> sources = new ArrayList<>();
             for (File traceling : tracelings) {
-
-                /*
-                 * This resource is added to a priority queue and then removed at the very end.
-                 */
-                BufferedInputStream createParser = new BufferedInputStream(new FileInputStream(traceling));
-                while (data != '[') {
-                    data = createParser.read();
-                    if (data == -1) {
-                        break;
-                    }
-                }
-                eventString = JsonTrace.readNextEventString(createParser::read);
-                PartiallyParsedEvent parse = new PartiallyParsedEvent(fTsKey, eventString, i);
-                evs.add(parse);
-                i++;
-                parsers.add(createParser);
-                subMonitor.worked(1);
-                if (subMonitor.isCanceled()) {
-                    break;
-                }
+                TraceletReader tracelet = new TraceletReader(traceling);
+                readers.add(tracelet);
+                sources.add(tracelet);
             }
             if (subMonitor.isCanceled()) {
                 return Status.CANCEL_STATUS;
             }
 
-            processMetadata(trace, dir, parser);
+            try (BufferedInputStream parser = new BufferedInputStream(new FileInputStream(fPath))) {
+                skipFully(parser, endOfEvents);
+                processMetadata(trace, dir, parser);
+            }
 
             File file = new File(dir + File.separator + new File(trace.getPath()).getName());
             boolean success = file.createNewFile();
@@ -244,42 +283,49 @@ public abstract class SortingJob extends Job {
                 return new Status(IStatus.ERROR, Activator.PLUGIN_ID,
                         "Could not create file " + file.getAbsolutePath()); //$NON-NLS-1$
             }
-            try (PrintWriter tempWriter = new PrintWriter(file)) {
-                tempWriter.println('[');
-                while (!evs.isEmpty()) {
-                    PartiallyParsedEvent sortedEvent = evs.poll();
-                    if (sortedEvent == null) {
-                        break;
-                    }
-                    PartiallyParsedEvent parse = readNextEvent(parsers.get(sortedEvent.fPos), fTsKey, sortedEvent.fPos);
-                    if (parse != null) {
-                        tempWriter.println(sortedEvent.fLine.trim() + ',');
-                        evs.add(parse);
-                    } else {
-                        tempWriter.println(sortedEvent.fLine.trim() + (evs.isEmpty() ? "" : ',')); //$NON-NLS-1$
-                    }
-                    subMonitor.worked(1);
-                    if (subMonitor.isCanceled()) {
-                        return Status.CANCEL_STATUS;
+            SubMonitor mergeMonitor = subMonitor.split(MERGE_WORK).setWorkRemaining(tracelings.size());
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), COPY_BUFFER_SIZE)) {
+                out.write(OPEN_BRACKET);
+                out.write(NEW_LINE);
+                LoserTree<EventRange> merger = new LoserTree<>(sources, EVENT_COMPARATOR);
+                int count = 0;
+                while (merger.hasNext()) {
+                    EventRange sortedEvent = merger.next();
+                    reader.copy(sortedEvent.fOffset, sortedEvent.fLength, out);
+                    out.write(merger.hasNext() ? SEPARATOR : NEW_LINE);
+                    if (++count == CHUNK_SIZE) {
+                        count = 0;
+                        mergeMonitor.worked(1);
+                        if (subMonitor.isCanceled()) {
+                            return Status.CANCEL_STATUS;
+                        }
                     }
                 }
-                tempWriter.println(']');
+                out.write(CLOSE_BRACKET);
+                out.write(NEW_LINE);
             }
-            for (BufferedInputStream tmpParser : parsers) {
-                tmpParser.close();
-            }
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException | ExecutionException e) {
             TraceCompassLogUtils.traceInstant(LOGGER, Level.WARNING, "IOException in sorting job", "trace", fPath, //$NON-NLS-1$ //$NON-NLS-2$
                     "exception", e); //$NON-NLS-1$
             return new Status(IStatus.WARNING, Activator.PLUGIN_ID, "IOException in sorting job for " + fPath, e); //$NON-NLS-1$
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Status.CANCEL_STATUS;
         } finally {
+            workers.shutdownNow();
             try {
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+                for (TraceletReader tracelet : readers) {
+                    tracelet.close();
+                }
                 for (File tl : tracelings) {
-                    Files.delete(tl.toPath());
+                    Files.deleteIfExists(tl.toPath());
                 }
                 Files.delete(tempDir.toPath());
             } catch (IOException e) {
                 Activator.getInstance().logError(e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
 
             subMonitor.done();
@@ -288,6 +334,140 @@ public abstract class SortingJob extends Job {
 
     }
 
+    /**
+     * Sort a chunk of events and write it to a new tracelet on a worker thread
+     */
+    private static Future<?> spill(ThreadPoolExecutor workers, List<EventRange> events, File tempDir, List<File> tracelings) {
+        File traceling = new File(tempDir + File.separator + "test" + tracelings.size() + ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+        tracelings.add(traceling);
+        return workers.submit(() -> {
+            events.sort(EVENT_COMPARATOR);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(traceling), COPY_BUFFER_SIZE))) {
+                for (EventRange event : events) {
+                    event.write(out);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Find the next json object of the event list, with the same rules as
+     * {@link JsonTrace#readNextEventString(JsonTrace.IReaderWrapper)}.
+     *
+     * @param reader
+     *            the file reader
+     * @param from
+     *            the position to start reading from
+     * @param bounds
+     *            filled with the position of the opening and closing braces of
+     *            the object
+     * @return the position after the object, or if there are no more events,
+     *         -(position after the end of the list) - 1
+     */
+    private static long nextEvent(MappedFileReader reader, long from, long[] bounds) throws IOException {
+        int scope = -1;
+        int arrScope = 0;
+        boolean inQuotes = false;
+        long pos = from;
+        int elem = reader.read(pos);
+        while (elem != -1) {
+            if (elem == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (elem == OPEN_BRACKET) {
+                    arrScope++;
+                } else if (elem == CLOSE_BRACKET) {
+                    if (arrScope > 0) {
+                        arrScope--;
+                    } else {
+                        return -(pos + 1) - 1;
+                    }
+                } else if (elem == '{') {
+                    scope++;
+                    if (scope == 0) {
+                        bounds[0] = pos;
+                    }
+                } else if (elem == '}') {
+                    if (scope > 0) {
+                        scope--;
+                    } else if (scope == 0) {
+                        bounds[1] = pos;
+                        return pos + 1;
+                    }
+                }
+            }
+            elem = reader.read(++pos);
+        }
+        return -pos - 1;
+    }
+
+    /**
+     * Extract the timestamp of an event, directly from the mapped bytes.
+     * Events without a parsable timestamp get -1.
+     */
+    private EventRange parseEvent(MappedFileReader reader, long start, long end) throws IOException {
+        byte[] key = fTsKey;
+        long index = -1;
+        for (long pos = start; pos + key.length <= end + 1 && index < 0; pos++) {
+            int i = 0;
+            while (i < key.length && reader.read(pos + i) == (key[i] & 0xff)) {
+                i++;
+            }
+            if (i == key.length) {
+                index = pos + key.length;
+            }
+        }
+        int length = (int) (end - start + 1);
+        if (index < 0) {
+            return new EventRange(EventRange.MINUS_ONE, start, length);
+        }
+        StringBuilder sb = new StringBuilder();
+        long valueEnd = index;
+        int elem = reader.read(valueEnd);
+        while (valueEnd <= end && elem != ',') {
+            sb.append((char) elem);
+            elem = reader.read(++valueEnd);
+        }
+        if (valueEnd > end) {
+            /* No comma, the value ends with the object */
+            int closing = sb.indexOf("}"); //$NON-NLS-1$
+            sb.setLength(Math.max(0, closing));
+        }
+        BigDecimal ts = EventRange.MINUS_ONE;
+        String number = sb.toString().trim().replace("\"", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        if (!number.isEmpty()) {
+            try {
+                ts = new BigDecimal(number);
+            } catch (NumberFormatException e) {
+                // Cannot be parsed as a number, set to -1
+                ts = EventRange.MINUS_ONE;
+            }
+        }
+        return new EventRange(ts, start, length);
+    }
+
+    /**
+     * Get the size of the windows of the trace file that are mapped in memory
+     * while it is scanned
+     *
+     * @return the size in bytes
+     */
+    protected long getWindowSize() {
+        return MappedFileReader.DEFAULT_WINDOW_SIZE;
+    }
+
+    private static void skipFully(BufferedInputStream parser, long toSkip) throws IOException {
+        long remaining = toSkip;
+        while (remaining > 0) {
+            long skipped = parser.skip(remaining);
+            if (skipped <= 0) {
+                return;
+            }
+            remaining -= skipped;
+        }
+    }
+
     /**
      * Process whatever metadata that can be found after the event list in the
      * trace file file
@@ -317,11 +497,4 @@ public abstract class SortingJob extends Job {
      *             Exceptions thrown by reading file
      */
     protected abstract void processMetadata(ITmfTrace trace, String dir) throws IOException;
-
-    private static @Nullable PartiallyParsedEvent readNextEvent(BufferedInputStream parser, String key, int i)
-            throws IOException {
-        String event = JsonTrace.readNextEventString(parser::read);
-        return event == null ? null : new PartiallyParsedEvent(key, event, i);
-
-    }
-}
\ No newline at end of file
+}
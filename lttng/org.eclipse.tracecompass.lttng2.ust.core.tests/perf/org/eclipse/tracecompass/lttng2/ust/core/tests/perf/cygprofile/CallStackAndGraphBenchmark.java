@@ -13,6 +13,7 @@ package org.eclipse.tracecompass.lttng2.ust.core.tests.perf.cygprofile;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.util.Arrays;
@@ -33,6 +34,7 @@ import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
 import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestHelper;
@@ -63,6 +65,8 @@ public class CallStackAndGraphBenchmark {
     private static final String TEST_CALLSTACK_BUILD = "Building Callstack (%s)";
     private static final String TEST_CALLSTACK_PARSESEGSTORE = "Callstack segment store (%s)";
     private static final String TEST_CALLGRAPH_BUILD = "Building CallGraph (%s)";
+    private static final String TEST_CALLGRAPH_BUILD_SEQUENTIAL = "Building CallGraph sequentially (%s)";
+    private static final String TEST_FLAMEGRAPH_MERGE = "Merging FlameGraph (%s)";
 
     private static final int LOOP_COUNT = 25;
 
@@ -122,6 +126,10 @@ public class CallStackAndGraphBenchmark {
         perf.tagAsSummary(callStackSegStorePm, String.format(TEST_CALLSTACK_PARSESEGSTORE, fName), Dimension.CPU_TIME);
         PerformanceMeter callgraphBuildPm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + String.format(TEST_CALLGRAPH_BUILD, fName)));
         perf.tagAsSummary(callgraphBuildPm, String.format(TEST_CALLGRAPH_BUILD, fName), Dimension.CPU_TIME);
+        PerformanceMeter callgraphSequentialPm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + String.format(TEST_CALLGRAPH_BUILD_SEQUENTIAL, fName)));
+        perf.tagAsSummary(callgraphSequentialPm, String.format(TEST_CALLGRAPH_BUILD_SEQUENTIAL, fName), Dimension.CPU_TIME);
+        PerformanceMeter flamegraphMergePm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + String.format(TEST_FLAMEGRAPH_MERGE, fName)));
+        perf.tagAsSummary(flamegraphMergePm, String.format(TEST_FLAMEGRAPH_MERGE, fName), Dimension.CPU_TIME);
 
         for (int i = 0; i < fLoopCount; i++) {
             TmfTrace trace = null;
@@ -151,10 +159,30 @@ public class CallStackAndGraphBenchmark {
                 ICallGraphProvider callGraphModule = callStackModule.getCallGraph();
                 assertTrue(callGraphModule instanceof CallGraphAnalysis);
                 // Benchmark the call graph analysis
+                CallGraphAnalysis callGraphAnalysis = (CallGraphAnalysis) callGraphModule;
                 callgraphBuildPm.start();
-                TmfTestHelper.executeAnalysis((CallGraphAnalysis) callGraphModule);
+                TmfTestHelper.executeAnalysis(callGraphAnalysis);
                 callgraphBuildPm.stop();
 
+                // Benchmark the merge of the threads' call graphs
+                flamegraphMergePm.start();
+                callGraphAnalysis.getFlameGraph();
+                flamegraphMergePm.stop();
+
+                // Benchmark the call graph analysis, one thread at a time
+                CallGraphAnalysis sequentialAnalysis = new CallGraphAnalysis(callStackModule);
+                try {
+                    sequentialAnalysis.setTrace(trace);
+                    sequentialAnalysis.setParallelism(1);
+                    callgraphSequentialPm.start();
+                    TmfTestHelper.executeAnalysis(sequentialAnalysis);
+                    callgraphSequentialPm.stop();
+                } catch (TmfAnalysisException e) {
+                    fail(e.getMessage());
+                } finally {
+                    sequentialAnalysis.dispose();
+                }
+
                 /*
                  * Delete the supplementary files, so that the next iteration rebuilds the state
                  * system.
@@ -172,6 +200,8 @@ public class CallStackAndGraphBenchmark {
         }
         callStackBuildPm.commit();
         callgraphBuildPm.commit();
+        callgraphSequentialPm.commit();
+        flamegraphMergePm.commit();
     }
 
     private TmfTrace getTrace() throws TmfTraceException {
@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.lttng2.ust.core.tests.analysis.debuginfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo.BinaryDebugInfo;
+import org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo.ElfFile;
+import org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo.FileOffsetMapper;
+import org.eclipse.tracecompass.tmf.core.event.lookup.TmfCallsite;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link BinaryDebugInfo} index, built from a small ELF file
+ * with a symbol table, a DWARF 4 line table and the compilation unit entry
+ * that gives its compilation directory.
+ */
+public class BinaryDebugInfoTest {
+
+    private static final int SHT_PROGBITS = 1;
+    private static final int SHT_SYMTAB = 2;
+    private static final int SHT_STRTAB = 3;
+    private static final int SHT_NOTE = 7;
+    private static final int STT_OBJECT = 1;
+    private static final int STT_FUNC = 2;
+
+    private ElfFile fElf;
+
+    /**
+     * Build the ELF file
+     *
+     * @throws IOException
+     *             If the ELF file is invalid
+     */
+    @Before
+    public void setUp() throws IOException {
+        fElf = ElfFile.read(buildElf());
+    }
+
+    /**
+     * Test the function symbols and build id of the ELF file
+     *
+     * @throws IOException
+     *             If the ELF file is invalid
+     */
+    @Test
+    public void testElfFile() throws IOException {
+        assertEquals("deadbeef", fElf.getBuildId());
+        List<String> names = new ArrayList<>();
+        for (ElfFile.Symbol symbol : fElf.getFunctionSymbols()) {
+            names.add(symbol.getName());
+        }
+        assertEquals(3, names.size());
+        assertEquals("first", names.get(0));
+        assertEquals("second", names.get(1));
+        assertEquals("third", names.get(2));
+    }
+
+    /**
+     * Test looking up single addresses
+     *
+     * @throws IOException
+     *             If the ELF file is invalid
+     */
+    @Test
+    public void testLookup() throws IOException {
+        checkLookups(BinaryDebugInfo.create(fElf));
+    }
+
+    /**
+     * Test looking up addresses with a saved and memory-mapped index
+     *
+     * @throws IOException
+     *             If the index cannot be saved or loaded
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path file = Files.createTempFile("debuginfo", ".idx");
+        try {
+            BinaryDebugInfo.create(fElf).save(file);
+            BinaryDebugInfo loaded = BinaryDebugInfo.load(file);
+            assertNotNull(loaded);
+            checkLookups(loaded);
+
+            Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24 });
+            assertNull(BinaryDebugInfo.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test that malformed ELF files are rejected instead of read out of their
+     * bounds
+     *
+     * @throws IOException
+     *             If the ELF file cannot be written
+     */
+    @Test
+    public void testMalformedElf() throws IOException {
+        ByteBuffer elf = buildElf();
+        long shoff = elf.getLong(0x28);
+
+        /* A 64-bit header cut before its section header fields */
+        assertMalformed(copyOf(elf, 56));
+
+        /* Section headers smaller than the 64-bit ones */
+        ByteBuffer buffer = copyOf(elf, elf.limit());
+        buffer.putShort(0x3a, (short) 40);
+        assertMalformed(buffer);
+
+        /* Section names past the end of the file */
+        buffer = copyOf(elf, elf.limit());
+        buffer.putLong((int) (shoff + 64 * 7 + 0x18), 0x100000000L);
+        assertMalformed(buffer);
+
+        /* Symbol names past the end of the file */
+        buffer = copyOf(elf, elf.limit());
+        buffer.putLong((int) (shoff + 64 + 0x18), 0x100000000L);
+        try {
+            ElfFile.read(buffer).getFunctionSymbols();
+            fail("Symbols read out of the file");
+        } catch (IOException e) {
+            /* Expected */
+        }
+
+        /* Build id note with a negative name size */
+        buffer = copyOf(elf, elf.limit());
+        buffer.putInt((int) buffer.getLong((int) (shoff + 64 * 4 + 0x18)), -1);
+        assertNull(ElfFile.read(buffer).getBuildId());
+
+        /* The offsets of a malformed binary are not resolved */
+        Path file = Files.createTempFile("malformed", ".so");
+        try {
+            Files.write(file, copyOf(elf, 56).array());
+            assertNull(FileOffsetMapper.getFunctionNameFromOffset(file.toFile(), null, 0x1000));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertMalformed(ByteBuffer buffer) {
+        try {
+            ElfFile.read(buffer);
+            fail("Malformed ELF file read");
+        } catch (IOException e) {
+            /* Expected */
+        }
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer elf, int size) {
+        ByteBuffer copy = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(elf.array(), 0, size);
+        copy.clear();
+        return copy;
+    }
+
+    private static void checkLookups(BinaryDebugInfo info) {
+        assertNull(info.getFunctionName(0xfff));
+        assertEquals("first", info.getFunctionName(0x1000));
+        assertEquals("first", info.getFunctionName(0x100f));
+        /* The size of the second function is unknown, it ends at the third */
+        assertEquals("second", info.getFunctionName(0x1010));
+        assertEquals("second", info.getFunctionName(0x102f));
+        assertEquals("third", info.getFunctionName(0x1030));
+        assertNull(info.getFunctionName(0x1038));
+        /* Not a function */
+        assertNull(info.getFunctionName(0x2000));
+
+        /* The relative paths are in the compilation directory */
+        assertNull(info.getCallsite(0xfff));
+        assertEquals(new TmfCallsite("/build/src/a.c", 10L), info.getCallsite(0x1000));
+        assertEquals(new TmfCallsite("/build/src/a.c", 10L), info.getCallsite(0x1003));
+        assertEquals(new TmfCallsite("/build/src/a.c", 11L), info.getCallsite(0x1004));
+        assertEquals(new TmfCallsite("/build/b.c", 21L), info.getCallsite(0x1010));
+        assertEquals(new TmfCallsite("/build/b.c", 21L), info.getCallsite(0x102f));
+        assertEquals(new TmfCallsite("/usr/include/c.h", 31L), info.getCallsite(0x1040));
+        /* After the end of the sequence */
+        assertNull(info.getCallsite(0x1030));
+    }
+
+    // ------------------------------------------------------------------------
+    // ELF file builder
+    // ------------------------------------------------------------------------
+
+    private static ByteBuffer buildElf() {
+        ByteArrayOutputStream strtab = new ByteArrayOutputStream();
+        strtab.write(0);
+        ByteBuffer symtab = ByteBuffer.allocate(24 * 5).order(ByteOrder.LITTLE_ENDIAN);
+        symtab.position(24);
+        addSymbol(symtab, strtab, "first", STT_FUNC, 0x1000, 0x10);
+        addSymbol(symtab, strtab, "second", STT_FUNC, 0x1010, 0);
+        addSymbol(symtab, strtab, "third", STT_FUNC, 0x1030, 0x8);
+        addSymbol(symtab, strtab, "data", STT_OBJECT, 0x2000, 0x100);
+
+        ByteBuffer note = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        note.putInt(4).putInt(4).putInt(3).put("GNU\0".getBytes(StandardCharsets.US_ASCII));
+        note.put((byte) 0xde).put((byte) 0xad).put((byte) 0xbe).put((byte) 0xef);
+
+        List<String> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        List<int[]> types = new ArrayList<>();
+        names.add(".strtab");
+        contents.add(strtab.toByteArray());
+        types.add(new int[] { SHT_STRTAB, 0 });
+        names.add(".symtab");
+        contents.add(symtab.array());
+        types.add(new int[] { SHT_SYMTAB, 1 });
+        names.add(".debug_line");
+        contents.add(buildLineTable());
+        types.add(new int[] { SHT_PROGBITS, 0 });
+        names.add(".note.gnu.build-id");
+        contents.add(note.array());
+        types.add(new int[] { SHT_NOTE, 0 });
+        names.add(".debug_info");
+        contents.add(buildCompilationUnit());
+        types.add(new int[] { SHT_PROGBITS, 0 });
+        names.add(".debug_abbrev");
+        contents.add(buildAbbreviations());
+        types.add(new int[] { SHT_PROGBITS, 0 });
+
+        /* Section 0 is null, the section names are the last section */
+        ByteArrayOutputStream shstrtab = new ByteArrayOutputStream();
+        shstrtab.write(0);
+        int[] nameOffsets = new int[names.size() + 1];
+        for (int i = 0; i < names.size(); i++) {
+            nameOffsets[i] = shstrtab.size();
+            writeString(shstrtab, names.get(i));
+        }
+        nameOffsets[names.size()] = shstrtab.size();
+        writeString(shstrtab, ".shstrtab");
+        names.add(".shstrtab");
+        contents.add(shstrtab.toByteArray());
+        types.add(new int[] { SHT_STRTAB, 0 });
+
+        int dataSize = 0;
+        for (byte[] content : contents) {
+            dataSize += content.length;
+        }
+        int nbSections = names.size() + 1;
+        int shoff = 64 + dataSize;
+        ByteBuffer elf = ByteBuffer.allocate(shoff + 64 * nbSections).order(ByteOrder.LITTLE_ENDIAN);
+        elf.put(new byte[] { 0x7f, 'E', 'L', 'F', 2, 1, 1 });
+        elf.putLong(0x28, shoff);
+        elf.putShort(0x3a, (short) 64);
+        elf.putShort(0x3c, (short) nbSections);
+        elf.putShort(0x3e, (short) (nbSections - 1));
+        int offset = 64;
+        for (int i = 0; i < contents.size(); i++) {
+            byte[] content = contents.get(i);
+            elf.position(offset);
+            elf.put(content);
+            int header = shoff + 64 * (i + 1);
+            elf.putInt(header, nameOffsets[i]);
+            elf.putInt(header + 4, types.get(i)[0]);
+            elf.putLong(header + 0x18, offset);
+            elf.putLong(header + 0x20, content.length);
+            elf.putInt(header + 0x28, types.get(i)[1]);
+            offset += content.length;
+        }
+        elf.clear();
+        return elf;
+    }
+
+    private static void addSymbol(ByteBuffer symtab, ByteArrayOutputStream strtab, String name, int type, long value, long size) {
+        symtab.putInt(strtab.size());
+        symtab.put((byte) (0x10 | type));
+        symtab.put((byte) 0);
+        symtab.putShort((short) 1);
+        symtab.putLong(value);
+        symtab.putLong(size);
+        writeString(strtab, name);
+    }
+
+    private static void writeString(ByteArrayOutputStream stream, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        stream.write(bytes, 0, bytes.length);
+        stream.write(0);
+    }
+
+    /*
+     * Line table: a.c lines 10 and 11 at 0x1000 and 0x1004, b.c line 21 at
+     * 0x1010, sequence ending at 0x1030. Then c.h, in an absolute directory,
+     * line 31 from 0x1040 to 0x1050.
+     */
+    private static byte[] buildLineTable() {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        /* min_inst_length, max_ops, default_is_stmt, line_base, line_range, opcode_base */
+        header.write(1);
+        header.write(1);
+        header.write(1);
+        header.write(-5);
+        header.write(14);
+        header.write(13);
+        byte[] opcodeLengths = { 0, 1, 1, 1, 1, 0, 0, 0, 1, 0, 0, 1 };
+        header.write(opcodeLengths, 0, opcodeLengths.length);
+        writeString(header, "src");
+        writeString(header, "/usr/include");
+        header.write(0);
+        writeString(header, "a.c");
+        header.write(1);
+        header.write(0);
+        header.write(0);
+        writeString(header, "b.c");
+        header.write(0);
+        header.write(0);
+        header.write(0);
+        writeString(header, "c.h");
+        header.write(2);
+        header.write(0);
+        header.write(0);
+        header.write(0);
+
+        ByteBuffer program = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        /* DW_LNE_set_address 0x1000 */
+        program.put((byte) 0).put((byte) 9).put((byte) 2).putLong(0x1000);
+        /* DW_LNS_advance_line 9, DW_LNS_copy */
+        program.put((byte) 3).put((byte) 9).put((byte) 1);
+        /* Special opcode: address + 4, line + 1 */
+        program.put((byte) ((1 + 5) + 14 * 4 + 13));
+        /* DW_LNS_set_file 2, DW_LNS_advance_pc 12, DW_LNS_advance_line 10, DW_LNS_copy */
+        program.put((byte) 4).put((byte) 2).put((byte) 2).put((byte) 12).put((byte) 3).put((byte) 10).put((byte) 1);
+        /* DW_LNS_advance_pc 32, DW_LNE_end_sequence */
+        program.put((byte) 2).put((byte) 32).put((byte) 0).put((byte) 1).put((byte) 1);
+        /* DW_LNE_set_address 0x1040, DW_LNS_set_file 3, DW_LNS_advance_line 30, DW_LNS_copy */
+        program.put((byte) 0).put((byte) 9).put((byte) 2).putLong(0x1040);
+        program.put((byte) 4).put((byte) 3).put((byte) 3).put((byte) 30).put((byte) 1);
+        /* DW_LNS_advance_pc 16, DW_LNE_end_sequence */
+        program.put((byte) 2).put((byte) 16).put((byte) 0).put((byte) 1).put((byte) 1);
+
+        byte[] headerBytes = header.toByteArray();
+        int programSize = program.position();
+        ByteBuffer unit = ByteBuffer.allocate(4 + 2 + 4 + headerBytes.length + programSize).order(ByteOrder.LITTLE_ENDIAN);
+        unit.putInt(unit.capacity() - 4);
+        unit.putShort((short) 4);
+        unit.putInt(headerBytes.length);
+        unit.put(headerBytes);
+        unit.put(program.array(), 0, programSize);
+        return unit.array();
+    }
+
+    /*
+     * Compilation unit entry with a producer that is not read, its address, its
+     * line table at offset 0 and its compilation directory
+     */
+    private static byte[] buildCompilationUnit() {
+        ByteBuffer entry = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        entry.put((byte) 1);
+        entry.putInt(0);
+        entry.putLong(0x1000);
+        entry.putInt(0);
+        ByteArrayOutputStream compDir = new ByteArrayOutputStream();
+        writeString(compDir, "/build");
+        entry.put(compDir.toByteArray());
+
+        int entrySize = entry.position();
+        ByteBuffer unit = ByteBuffer.allocate(4 + 2 + 4 + 1 + entrySize).order(ByteOrder.LITTLE_ENDIAN);
+        unit.putInt(unit.capacity() - 4);
+        unit.putShort((short) 4);
+        unit.putInt(0);
+        unit.put((byte) 8);
+        unit.put(entry.array(), 0, entrySize);
+        return unit.array();
+    }
+
+    /*
+     * Abbreviations: an unused one, then the compilation unit with
+     * DW_AT_producer (strp), DW_AT_low_pc (addr), DW_AT_stmt_list (sec_offset)
+     * and DW_AT_comp_dir (string)
+     */
+    private static byte[] buildAbbreviations() {
+        return new byte[] {
+                2, 0x2e, 0, 0x03, 0x08, 0, 0,
+                1, 0x11, 0, 0x25, 0x0e, 0x11, 0x01, 0x10, 0x17, 0x1b, 0x08, 0, 0,
+                0 };
+    }
+
+}
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.process.ProcessUtils;
+import org.eclipse.tracecompass.tmf.core.event.lookup.TmfCallsite;
+
+/**
+ * Index of the debug information of a binary: its function symbols and its
+ * DWARF line table, sorted by address. The index can be saved to a file and
+ * memory-mapped again, so that the binary does not need to be parsed again.
+ */
+public final class BinaryDebugInfo {
+
+    private static final int MAGIC = 0x54434449;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+
+    private static final String DEMANGLER_EXECUTABLE = "c++filt"; //$NON-NLS-1$
+    private static final String MANGLED_PREFIX = "_Z"; //$NON-NLS-1$
+    private static final int DEMANGLER_BATCH_SIZE = 500;
+
+    /* Marks the end of a sequence in the line table */
+    private static final int NO_FILE = -1;
+
+    /**
+     * Index of a binary without functions and line table
+     */
+    public static final BinaryDebugInfo EMPTY = new BinaryDebugInfo(LongBuffer.allocate(0), LongBuffer.allocate(0), IntBuffer.allocate(0),
+            LongBuffer.allocate(0), IntBuffer.allocate(0), IntBuffer.allocate(0), new String[0]);
+
+    private final LongBuffer fFunctionStarts;
+    private final LongBuffer fFunctionEnds;
+    private final IntBuffer fFunctionNames;
+    private final LongBuffer fLineAddresses;
+    private final IntBuffer fLineFiles;
+    private final IntBuffer fLineNumbers;
+    private final String[] fStrings;
+
+    private BinaryDebugInfo(LongBuffer functionStarts, LongBuffer functionEnds, IntBuffer functionNames,
+            LongBuffer lineAddresses, IntBuffer lineFiles, IntBuffer lineNumbers, String[] strings) {
+        fFunctionStarts = functionStarts;
+        fFunctionEnds = functionEnds;
+        fFunctionNames = functionNames;
+        fLineAddresses = lineAddresses;
+        fLineFiles = lineFiles;
+        fLineNumbers = lineNumbers;
+        fStrings = strings;
+    }
+
+    /**
+     * Create the index of an ELF binary. The C++ symbols are demangled.
+     *
+     * @param elf
+     *            The binary
+     * @return The index
+     * @throws IOException
+     *             If the binary cannot be read
+     */
+    public static BinaryDebugInfo create(ElfFile elf) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+
+        /* Functions, keeping one symbol per address */
+        List<ElfFile.Symbol> symbols = new ArrayList<>(elf.getFunctionSymbols());
+        symbols.sort(Comparator.comparingLong(ElfFile.Symbol::getAddress).thenComparing(Comparator.comparingLong(ElfFile.Symbol::getSize).reversed()));
+        List<ElfFile.Symbol> unique = new ArrayList<>();
+        for (ElfFile.Symbol symbol : symbols) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1).getAddress() != symbol.getAddress()) {
+                unique.add(symbol);
+            }
+        }
+        List<String> names = demangle(unique);
+        int nbFunctions = unique.size();
+        long[] functionStarts = new long[nbFunctions];
+        long[] functionEnds = new long[nbFunctions];
+        int[] functionNames = new int[nbFunctions];
+        for (int i = 0; i < nbFunctions; i++) {
+            ElfFile.Symbol symbol = unique.get(i);
+            functionStarts[i] = symbol.getAddress();
+            if (symbol.getSize() > 0) {
+                functionEnds[i] = symbol.getAddress() + symbol.getSize();
+            } else {
+                /* Unknown size, the function ends at the next one */
+                functionEnds[i] = (i + 1 < nbFunctions) ? unique.get(i + 1).getAddress() : symbol.getAddress() + 1;
+            }
+            functionNames[i] = getStringId(names.get(i), strings, stringIds);
+        }
+
+        /* Line table */
+        List<long[]> rows = new ArrayList<>();
+        ByteBuffer debugLine = elf.getSection(".debug_line"); //$NON-NLS-1$
+        if (debugLine != null) {
+            DwarfLineReader reader = new DwarfLineReader(debugLine, elf.getSection(".debug_line_str"), elf.getSection(".debug_str"), //$NON-NLS-1$ //$NON-NLS-2$
+                    elf.getSection(".debug_info"), elf.getSection(".debug_abbrev")); //$NON-NLS-1$ //$NON-NLS-2$
+            reader.read((address, file, line, endSequence) -> {
+                int fileId = (endSequence || file == null) ? NO_FILE : getStringId(file, strings, stringIds);
+                rows.add(new long[] { address, fileId, line, rows.size() });
+            });
+        }
+        /*
+         * Sort by address. At the same address, the end of a sequence comes
+         * before the start of the next one, and the last row of a sequence
+         * wins, as it is found last by the lookup.
+         */
+        rows.sort((a, b) -> {
+            int cmp = Long.compareUnsigned(a[0], b[0]);
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Boolean.compare(a[1] != NO_FILE, b[1] != NO_FILE);
+            return cmp != 0 ? cmp : Long.compare(a[3], b[3]);
+        });
+        int nbRows = rows.size();
+        long[] lineAddresses = new long[nbRows];
+        int[] lineFiles = new int[nbRows];
+        int[] lineNumbers = new int[nbRows];
+        for (int i = 0; i < nbRows; i++) {
+            long[] row = rows.get(i);
+            lineAddresses[i] = row[0];
+            lineFiles[i] = (int) row[1];
+            lineNumbers[i] = (int) row[2];
+        }
+
+        return new BinaryDebugInfo(LongBuffer.wrap(functionStarts), LongBuffer.wrap(functionEnds), IntBuffer.wrap(functionNames),
+                LongBuffer.wrap(lineAddresses), IntBuffer.wrap(lineFiles), IntBuffer.wrap(lineNumbers), strings.toArray(new String[strings.size()]));
+    }
+
+    private static int getStringId(String string, List<String> strings, Map<String, Integer> stringIds) {
+        return stringIds.computeIfAbsent(string, s -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+    }
+
+    /*
+     * Demangle the C++ symbols, with a few calls to the demangler for the
+     * whole binary. The names stay mangled if it is not available.
+     */
+    private static List<String> demangle(List<ElfFile.Symbol> symbols) {
+        List<String> names = new ArrayList<>();
+        List<Integer> mangled = new ArrayList<>();
+        for (ElfFile.Symbol symbol : symbols) {
+            if (symbol.getName().startsWith(MANGLED_PREFIX)) {
+                mangled.add(names.size());
+            }
+            names.add(symbol.getName());
+        }
+        for (int start = 0; start < mangled.size(); start += DEMANGLER_BATCH_SIZE) {
+            List<Integer> batch = mangled.subList(start, Math.min(start + DEMANGLER_BATCH_SIZE, mangled.size()));
+            List<String> command = new ArrayList<>();
+            command.add(DEMANGLER_EXECUTABLE);
+            for (int index : batch) {
+                command.add(names.get(index));
+            }
+            List<String> output = ProcessUtils.getOutputFromCommand(command);
+            if (output == null || output.size() != batch.size()) {
+                /* No demangler, keep the mangled names */
+                return names;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                names.set(batch.get(i), output.get(i).trim());
+            }
+        }
+        return names;
+    }
+
+    // ------------------------------------------------------------------------
+    // Lookups
+    // ------------------------------------------------------------------------
+
+    /* Index of the last element of the buffer smaller or equal to a value */
+    private static int floor(LongBuffer values, long value) {
+        int low = 0;
+        int high = values.limit() - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(values.get(mid), value) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the name of the function containing an address
+     *
+     * @param address
+     *            The address in the binary
+     * @return The name of the function, or <code>null</code> if no function
+     *         contains the address
+     */
+    public @Nullable String getFunctionName(long address) {
+        int index = floor(fFunctionStarts, address);
+        if (index < 0 || Long.compareUnsigned(address, fFunctionEnds.get(index)) >= 0) {
+            return null;
+        }
+        return fStrings[fFunctionNames.get(index)];
+    }
+
+    /**
+     * Get the source file and line of an address
+     *
+     * @param address
+     *            The address in the binary
+     * @return The call site, or <code>null</code> if the line table does not
+     *         cover the address
+     */
+    public @Nullable TmfCallsite getCallsite(long address) {
+        int index = floor(fLineAddresses, address);
+        if (index < 0 || fLineFiles.get(index) == NO_FILE) {
+            return null;
+        }
+        int line = fLineNumbers.get(index);
+        return new TmfCallsite(fStrings[fLineFiles.get(index)], line > 0 ? Long.valueOf(line) : null);
+    }
+
+    // ------------------------------------------------------------------------
+    // Persistence
+    // ------------------------------------------------------------------------
+
+    /**
+     * Save the index to a file
+     *
+     * @param file
+     *            The file
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        byte[][] strings = new byte[fStrings.length][];
+        long stringsSize = 0;
+        for (int i = 0; i < fStrings.length; i++) {
+            strings[i] = fStrings[i].getBytes(StandardCharsets.UTF_8);
+            stringsSize += Integer.BYTES + strings[i].length;
+        }
+        int nbFunctions = fFunctionStarts.limit();
+        int nbRows = fLineAddresses.limit();
+        long size = HEADER_SIZE + Long.BYTES * (2L * nbFunctions + nbRows) + Integer.BYTES * (nbFunctions + 2L * nbRows) + stringsSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Debug information index too large: " + size); //$NON-NLS-1$
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.nativeOrder());
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(nbFunctions).putInt(nbRows).putInt(fStrings.length).putInt(0);
+        putLongs(buffer, fFunctionStarts);
+        putLongs(buffer, fFunctionEnds);
+        putLongs(buffer, fLineAddresses);
+        putInts(buffer, fFunctionNames);
+        putInts(buffer, fLineFiles);
+        putInts(buffer, fLineNumbers);
+        for (byte[] string : strings) {
+            buffer.putInt(string.length).put(string);
+        }
+        buffer.flip();
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void putLongs(ByteBuffer buffer, LongBuffer values) {
+        for (int i = 0; i < values.limit(); i++) {
+            buffer.putLong(values.get(i));
+        }
+    }
+
+    private static void putInts(ByteBuffer buffer, IntBuffer values) {
+        for (int i = 0; i < values.limit(); i++) {
+            buffer.putInt(values.get(i));
+        }
+    }
+
+    /**
+     * Load an index saved with {@link #save(Path)}. The functions and line
+     * table stay in the memory-mapped file.
+     *
+     * @param file
+     *            The file
+     * @return The index, or <code>null</code> if the file is not an index of
+     *         this version
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public static @Nullable BinaryDebugInfo load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.nativeOrder());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            return null;
+        }
+        int nbFunctions = buffer.getInt(8);
+        int nbRows = buffer.getInt(12);
+        int nbStrings = buffer.getInt(16);
+        long stringsStart = HEADER_SIZE + Long.BYTES * (2L * nbFunctions + nbRows) + Integer.BYTES * (nbFunctions + 2L * nbRows);
+        if (nbFunctions < 0 || nbRows < 0 || nbStrings < 0 || stringsStart > buffer.limit()) {
+            throw new IOException("Invalid debug information index: " + file); //$NON-NLS-1$
+        }
+        int position = HEADER_SIZE;
+        LongBuffer functionStarts = slice(buffer, position, nbFunctions * Long.BYTES).asLongBuffer();
+        position += nbFunctions * Long.BYTES;
+        LongBuffer functionEnds = slice(buffer, position, nbFunctions * Long.BYTES).asLongBuffer();
+        position += nbFunctions * Long.BYTES;
+        LongBuffer lineAddresses = slice(buffer, position, nbRows * Long.BYTES).asLongBuffer();
+        position += nbRows * Long.BYTES;
+        IntBuffer functionNames = slice(buffer, position, nbFunctions * Integer.BYTES).asIntBuffer();
+        position += nbFunctions * Integer.BYTES;
+        IntBuffer lineFiles = slice(buffer, position, nbRows * Integer.BYTES).asIntBuffer();
+        position += nbRows * Integer.BYTES;
+        IntBuffer lineNumbers = slice(buffer, position, nbRows * Integer.BYTES).asIntBuffer();
+        position += nbRows * Integer.BYTES;
+
+        String[] strings = new String[nbStrings];
+        for (int i = 0; i < nbStrings; i++) {
+            int length = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (length < 0 || position + length > buffer.limit()) {
+                throw new IOException("Invalid debug information index: " + file); //$NON-NLS-1$
+            }
+            byte[] bytes = new byte[length];
+            ByteBuffer string = buffer.duplicate();
+            string.position(position);
+            string.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += length;
+        }
+        for (int i = 0; i < nbFunctions; i++) {
+            if (functionNames.get(i) < 0 || functionNames.get(i) >= nbStrings) {
+                throw new IOException("Invalid debug information index: " + file); //$NON-NLS-1$
+            }
+        }
+        for (int i = 0; i < nbRows; i++) {
+            if (lineFiles.get(i) >= nbStrings) {
+                throw new IOException("Invalid debug information index: " + file); //$NON-NLS-1$
+            }
+        }
+        return new BinaryDebugInfo(functionStarts, functionEnds, functionNames, lineAddresses, lineFiles, lineNumbers, strings);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return slice.slice().order(buffer.order());
+    }
+
+}
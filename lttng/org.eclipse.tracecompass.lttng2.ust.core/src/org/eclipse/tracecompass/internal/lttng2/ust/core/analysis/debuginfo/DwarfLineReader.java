@@ -0,0 +1,651 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Reader of the DWARF line number programs of the <code>.debug_line</code>
+ * section, versions 2 to 5. It runs the line number state machine of each
+ * compilation unit and reports the rows of the resulting line table.
+ *
+ * Before DWARF 5, the compilation directory is not in the line table header.
+ * It is read from the compilation unit entries of the <code>.debug_info</code>
+ * section, which refer to their line table, so that the relative file paths
+ * can be made absolute.
+ */
+public final class DwarfLineReader {
+
+    /* Standard opcodes */
+    private static final int DW_LNS_COPY = 1;
+    private static final int DW_LNS_ADVANCE_PC = 2;
+    private static final int DW_LNS_ADVANCE_LINE = 3;
+    private static final int DW_LNS_SET_FILE = 4;
+    private static final int DW_LNS_CONST_ADD_PC = 8;
+    private static final int DW_LNS_FIXED_ADVANCE_PC = 9;
+
+    /* Extended opcodes */
+    private static final int DW_LNE_END_SEQUENCE = 1;
+    private static final int DW_LNE_SET_ADDRESS = 2;
+    private static final int DW_LNE_DEFINE_FILE = 3;
+
+    /* Compilation unit entries */
+    private static final int DW_UT_COMPILE = 1;
+    private static final int DW_UT_PARTIAL = 3;
+    private static final int DW_UT_SKELETON = 4;
+    private static final int DW_UT_SPLIT_COMPILE = 5;
+    private static final int DW_AT_STMT_LIST = 0x10;
+    private static final int DW_AT_COMP_DIR = 0x1b;
+
+    /* Line number header entry formats, DWARF 5 */
+    private static final int DW_LNCT_PATH = 1;
+    private static final int DW_LNCT_DIRECTORY_INDEX = 2;
+
+    /* Attribute forms */
+    private static final int DW_FORM_ADDR = 0x01;
+    private static final int DW_FORM_BLOCK2 = 0x03;
+    private static final int DW_FORM_BLOCK4 = 0x04;
+    private static final int DW_FORM_DATA2 = 0x05;
+    private static final int DW_FORM_DATA4 = 0x06;
+    private static final int DW_FORM_DATA8 = 0x07;
+    private static final int DW_FORM_STRING = 0x08;
+    private static final int DW_FORM_BLOCK = 0x09;
+    private static final int DW_FORM_BLOCK1 = 0x0a;
+    private static final int DW_FORM_DATA1 = 0x0b;
+    private static final int DW_FORM_FLAG = 0x0c;
+    private static final int DW_FORM_SDATA = 0x0d;
+    private static final int DW_FORM_STRP = 0x0e;
+    private static final int DW_FORM_UDATA = 0x0f;
+    private static final int DW_FORM_REF_ADDR = 0x10;
+    private static final int DW_FORM_REF1 = 0x11;
+    private static final int DW_FORM_REF2 = 0x12;
+    private static final int DW_FORM_REF4 = 0x13;
+    private static final int DW_FORM_REF8 = 0x14;
+    private static final int DW_FORM_REF_UDATA = 0x15;
+    private static final int DW_FORM_INDIRECT = 0x16;
+    private static final int DW_FORM_SEC_OFFSET = 0x17;
+    private static final int DW_FORM_EXPRLOC = 0x18;
+    private static final int DW_FORM_FLAG_PRESENT = 0x19;
+    private static final int DW_FORM_STRX = 0x1a;
+    private static final int DW_FORM_ADDRX = 0x1b;
+    private static final int DW_FORM_REF_SUP4 = 0x1c;
+    private static final int DW_FORM_STRP_SUP = 0x1d;
+    private static final int DW_FORM_DATA16 = 0x1e;
+    private static final int DW_FORM_LINE_STRP = 0x1f;
+    private static final int DW_FORM_REF_SIG8 = 0x20;
+    private static final int DW_FORM_IMPLICIT_CONST = 0x21;
+    private static final int DW_FORM_LOCLISTX = 0x22;
+    private static final int DW_FORM_RNGLISTX = 0x23;
+    private static final int DW_FORM_REF_SUP8 = 0x24;
+    private static final int DW_FORM_STRX1 = 0x25;
+    private static final int DW_FORM_STRX2 = 0x26;
+    private static final int DW_FORM_STRX3 = 0x27;
+    private static final int DW_FORM_STRX4 = 0x28;
+    private static final int DW_FORM_ADDRX1 = 0x29;
+    private static final int DW_FORM_ADDRX2 = 0x2a;
+    private static final int DW_FORM_ADDRX3 = 0x2b;
+    private static final int DW_FORM_ADDRX4 = 0x2c;
+    private static final int DW_FORM_GNU_ADDR_INDEX = 0x1f01;
+    private static final int DW_FORM_GNU_STR_INDEX = 0x1f02;
+    private static final int DW_FORM_GNU_REF_ALT = 0x1f20;
+    private static final int DW_FORM_GNU_STRP_ALT = 0x1f21;
+
+    /** Receives the rows of the line tables */
+    @FunctionalInterface
+    public interface IRowHandler {
+
+        /**
+         * A row of a line table
+         *
+         * @param address
+         *            The address of the row
+         * @param file
+         *            The source file, or <code>null</code> if unknown
+         * @param line
+         *            The line number, 0 if unknown
+         * @param endSequence
+         *            Whether the row is the end of a sequence of addresses,
+         *            the address is then the first one after the sequence
+         */
+        void row(long address, @Nullable String file, long line, boolean endSequence);
+    }
+
+    private final ByteBuffer fDebugLine;
+    private final @Nullable ByteBuffer fDebugLineStr;
+    private final @Nullable ByteBuffer fDebugStr;
+    private final @Nullable ByteBuffer fDebugInfo;
+    private final @Nullable ByteBuffer fDebugAbbrev;
+
+    /**
+     * Constructor
+     *
+     * @param debugLine
+     *            The content of the <code>.debug_line</code> section
+     * @param debugLineStr
+     *            The content of the <code>.debug_line_str</code> section, if
+     *            any
+     * @param debugStr
+     *            The content of the <code>.debug_str</code> section, if any
+     * @param debugInfo
+     *            The content of the <code>.debug_info</code> section, if any
+     * @param debugAbbrev
+     *            The content of the <code>.debug_abbrev</code> section, if
+     *            any
+     */
+    public DwarfLineReader(ByteBuffer debugLine, @Nullable ByteBuffer debugLineStr, @Nullable ByteBuffer debugStr,
+            @Nullable ByteBuffer debugInfo, @Nullable ByteBuffer debugAbbrev) {
+        fDebugLine = debugLine;
+        fDebugLineStr = debugLineStr;
+        fDebugStr = debugStr;
+        fDebugInfo = debugInfo;
+        fDebugAbbrev = debugAbbrev;
+    }
+
+    /**
+     * Read the line tables of all the compilation units
+     *
+     * @param handler
+     *            The handler of the rows
+     * @throws IOException
+     *             If the section is malformed
+     */
+    public void read(IRowHandler handler) throws IOException {
+        Map<Long, String> compilationDirectories = readCompilationDirectories();
+        ByteBuffer buffer = fDebugLine.duplicate().order(fDebugLine.order());
+        buffer.position(0);
+        try {
+            while (buffer.remaining() > 4) {
+                String compilationDirectory = compilationDirectories.get((long) buffer.position());
+                readUnit(buffer, compilationDirectory == null ? "" : compilationDirectory, handler); //$NON-NLS-1$
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed DWARF line table", e); //$NON-NLS-1$
+        }
+    }
+
+    private void readUnit(ByteBuffer buffer, String compilationDirectory, IRowHandler handler) throws IOException {
+        long unitLength = Integer.toUnsignedLong(buffer.getInt());
+        boolean dwarf64 = false;
+        if (unitLength == 0xffffffffL) {
+            unitLength = buffer.getLong();
+            dwarf64 = true;
+        }
+        if (unitLength > buffer.remaining()) {
+            throw new IOException("Invalid DWARF line table length: " + unitLength); //$NON-NLS-1$
+        }
+        int unitEnd = buffer.position() + (int) unitLength;
+        int version = Short.toUnsignedInt(buffer.getShort());
+        if (version < 2 || version > 5) {
+            /* Unsupported version, skip the unit */
+            buffer.position(unitEnd);
+            return;
+        }
+        int addressSize = -1;
+        if (version >= 5) {
+            addressSize = Byte.toUnsignedInt(buffer.get());
+            /* segment selector size */
+            buffer.get();
+        }
+        long headerLength = dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt());
+        int programStart = buffer.position() + (int) headerLength;
+        int minInstructionLength = Byte.toUnsignedInt(buffer.get());
+        if (version >= 4) {
+            /* maximum operations per instruction, only for VLIW */
+            buffer.get();
+        }
+        /* default_is_stmt, not needed to map addresses to lines */
+        buffer.get();
+        int lineBase = buffer.get();
+        int lineRange = Byte.toUnsignedInt(buffer.get());
+        int opcodeBase = Byte.toUnsignedInt(buffer.get());
+        int[] opcodeLengths = new int[Math.max(opcodeBase, 1)];
+        for (int i = 1; i < opcodeBase; i++) {
+            opcodeLengths[i] = Byte.toUnsignedInt(buffer.get());
+        }
+        if (lineRange == 0) {
+            throw new IOException("Invalid DWARF line range"); //$NON-NLS-1$
+        }
+
+        List<@Nullable String> files = new ArrayList<>();
+        if (version >= 5) {
+            List<String> directories = new ArrayList<>();
+            for (@Nullable String[] entry : readEntries(buffer, dwarf64, addressSize, version)) {
+                String directory = entry[0];
+                directories.add(directories.isEmpty() ? nullToEmpty(directory) : getPath(directories, 0, directory));
+            }
+            for (@Nullable String[] entry : readEntries(buffer, dwarf64, addressSize, version)) {
+                String directory = entry[1];
+                files.add(getPath(directories, directory == null ? 0 : Integer.parseInt(directory), entry[0]));
+            }
+        } else {
+            List<String> directories = new ArrayList<>();
+            /* Directory 0 is the compilation directory, not in the table */
+            directories.add(compilationDirectory);
+            for (String directory = readString(buffer); !directory.isEmpty(); directory = readString(buffer)) {
+                directories.add(getPath(directories, 0, directory));
+            }
+            /* Files are numbered from 1 */
+            files.add(null);
+            for (String file = readString(buffer); !file.isEmpty(); file = readString(buffer)) {
+                int directory = (int) readUleb128(buffer);
+                readUleb128(buffer);
+                readUleb128(buffer);
+                files.add(getPath(directories, directory, file));
+            }
+        }
+
+        buffer.position(programStart);
+        runProgram(buffer, unitEnd, files, version, addressSize, minInstructionLength, lineBase, lineRange, opcodeBase, opcodeLengths, handler);
+        buffer.position(unitEnd);
+    }
+
+    private static void runProgram(ByteBuffer buffer, int unitEnd, List<@Nullable String> files, int version, int addressSize, int minInstructionLength, int lineBase, int lineRange, int opcodeBase, int[] opcodeLengths, IRowHandler handler) {
+        long address = 0;
+        int file = 1;
+        long line = 1;
+        while (buffer.position() < unitEnd) {
+            int opcode = Byte.toUnsignedInt(buffer.get());
+            if (opcode >= opcodeBase) {
+                /* Special opcode */
+                int adjusted = opcode - opcodeBase;
+                address += (long) minInstructionLength * (adjusted / lineRange);
+                line += lineBase + (adjusted % lineRange);
+                handler.row(address, getFile(files, file), line, false);
+            } else if (opcode == 0) {
+                /* Extended opcode */
+                long length = readUleb128(buffer);
+                int next = buffer.position() + (int) length;
+                int extended = length > 0 ? Byte.toUnsignedInt(buffer.get()) : -1;
+                switch (extended) {
+                case DW_LNE_END_SEQUENCE:
+                    handler.row(address, getFile(files, file), line, true);
+                    address = 0;
+                    file = 1;
+                    line = 1;
+                    break;
+                case DW_LNE_SET_ADDRESS:
+                    int size = addressSize > 0 ? addressSize : (int) length - 1;
+                    address = (size == 8) ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt());
+                    break;
+                case DW_LNE_DEFINE_FILE:
+                    if (version < 5) {
+                        files.add(readString(buffer));
+                    }
+                    break;
+                default:
+                    break;
+                }
+                buffer.position(next);
+            } else {
+                switch (opcode) {
+                case DW_LNS_COPY:
+                    handler.row(address, getFile(files, file), line, false);
+                    break;
+                case DW_LNS_ADVANCE_PC:
+                    address += minInstructionLength * readUleb128(buffer);
+                    break;
+                case DW_LNS_ADVANCE_LINE:
+                    line += readSleb128(buffer);
+                    break;
+                case DW_LNS_SET_FILE:
+                    file = (int) readUleb128(buffer);
+                    break;
+                case DW_LNS_CONST_ADD_PC:
+                    address += (long) minInstructionLength * ((255 - opcodeBase) / lineRange);
+                    break;
+                case DW_LNS_FIXED_ADVANCE_PC:
+                    address += Short.toUnsignedInt(buffer.getShort());
+                    break;
+                default:
+                    /* Skip the operands of the other standard opcodes */
+                    for (int i = 0; i < opcodeLengths[opcode]; i++) {
+                        readUleb128(buffer);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private static @Nullable String getFile(List<@Nullable String> files, int file) {
+        return (file >= 0 && file < files.size()) ? files.get(file) : null;
+    }
+
+    private static String nullToEmpty(@Nullable String string) {
+        return string == null ? "" : string; //$NON-NLS-1$
+    }
+
+    /*
+     * Join a file or directory to a directory of the table, unless it is
+     * absolute
+     */
+    private static String getPath(List<String> directories, int directory, @Nullable String file) {
+        if (file == null) {
+            return ""; //$NON-NLS-1$
+        }
+        if (file.startsWith("/") || directory < 0 || directory >= directories.size() || directories.get(directory).isEmpty()) { //$NON-NLS-1$
+            return file;
+        }
+        return directories.get(directory) + '/' + file;
+    }
+
+    /*
+     * Read the directory or file name entries of a DWARF 5 header, returns the
+     * path and directory index of each entry
+     */
+    private List<@Nullable String[]> readEntries(ByteBuffer buffer, boolean dwarf64, int addressSize, int version) throws IOException {
+        int formatCount = Byte.toUnsignedInt(buffer.get());
+        long[] contentTypes = new long[formatCount];
+        int[] forms = new int[formatCount];
+        for (int i = 0; i < formatCount; i++) {
+            contentTypes[i] = readUleb128(buffer);
+            forms[i] = (int) readUleb128(buffer);
+        }
+        long count = readUleb128(buffer);
+        List<@Nullable String[]> entries = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            @Nullable String[] entry = new @Nullable String[2];
+            for (int j = 0; j < formatCount; j++) {
+                String value = readForm(buffer, forms[j], dwarf64, addressSize, version);
+                if (contentTypes[j] == DW_LNCT_PATH) {
+                    entry[0] = value;
+                } else if (contentTypes[j] == DW_LNCT_DIRECTORY_INDEX) {
+                    entry[1] = value;
+                }
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /*
+     * Map the offsets of the line tables to the compilation directories of
+     * their units. It is best effort: the units after a malformed or
+     * unsupported one are not read.
+     */
+    private Map<Long, String> readCompilationDirectories() {
+        Map<Long, String> directories = new HashMap<>();
+        ByteBuffer debugInfo = fDebugInfo;
+        ByteBuffer debugAbbrev = fDebugAbbrev;
+        if (debugInfo == null || debugAbbrev == null) {
+            return directories;
+        }
+        ByteBuffer buffer = debugInfo.duplicate().order(debugInfo.order());
+        buffer.position(0);
+        try {
+            while (buffer.remaining() > 4) {
+                long unitLength = Integer.toUnsignedLong(buffer.getInt());
+                boolean dwarf64 = false;
+                if (unitLength == 0xffffffffL) {
+                    unitLength = buffer.getLong();
+                    dwarf64 = true;
+                }
+                if (unitLength > buffer.remaining()) {
+                    break;
+                }
+                int unitEnd = buffer.position() + (int) unitLength;
+                readCompilationDirectory(buffer, debugAbbrev, dwarf64, directories);
+                buffer.position(unitEnd);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | IOException e) {
+            /* Keep the directories read so far */
+        }
+        return directories;
+    }
+
+    private void readCompilationDirectory(ByteBuffer buffer, ByteBuffer debugAbbrev, boolean dwarf64, Map<Long, String> directories) throws IOException {
+        int version = Short.toUnsignedInt(buffer.getShort());
+        if (version < 2 || version > 5) {
+            return;
+        }
+        long abbrevOffset;
+        int addressSize;
+        if (version >= 5) {
+            int unitType = Byte.toUnsignedInt(buffer.get());
+            addressSize = Byte.toUnsignedInt(buffer.get());
+            abbrevOffset = dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt());
+            if (unitType == DW_UT_SKELETON || unitType == DW_UT_SPLIT_COMPILE) {
+                /* dwo_id */
+                buffer.getLong();
+            } else if (unitType != DW_UT_COMPILE && unitType != DW_UT_PARTIAL) {
+                /* Type units have no line table of their own */
+                return;
+            }
+        } else {
+            abbrevOffset = dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt());
+            addressSize = Byte.toUnsignedInt(buffer.get());
+        }
+        long code = readUleb128(buffer);
+        if (code == 0 || abbrevOffset >= debugAbbrev.limit()) {
+            return;
+        }
+
+        /* Find the abbreviation of the unit entry, its first entry */
+        ByteBuffer abbrev = debugAbbrev.duplicate().order(debugAbbrev.order());
+        abbrev.position((int) abbrevOffset);
+        for (long abbrevCode = readUleb128(abbrev); abbrevCode != code; abbrevCode = readUleb128(abbrev)) {
+            if (abbrevCode == 0) {
+                return;
+            }
+            /* tag, children, then the attributes */
+            readUleb128(abbrev);
+            abbrev.get();
+            skipAttributeSpecifications(abbrev);
+        }
+        readUleb128(abbrev);
+        abbrev.get();
+
+        String compilationDirectory = null;
+        Long lineTable = null;
+        while (true) {
+            long name = readUleb128(abbrev);
+            long form = readUleb128(abbrev);
+            if (name == 0 && form == 0) {
+                break;
+            }
+            if (form == DW_FORM_IMPLICIT_CONST) {
+                /* The value is in the abbreviation */
+                readSleb128(abbrev);
+                continue;
+            }
+            String value = readForm(buffer, (int) form, dwarf64, addressSize, version);
+            if (name == DW_AT_COMP_DIR) {
+                compilationDirectory = value;
+            } else if (name == DW_AT_STMT_LIST && value != null) {
+                lineTable = Long.valueOf(value);
+            }
+        }
+        if (compilationDirectory != null && lineTable != null) {
+            directories.put(lineTable, compilationDirectory);
+        }
+    }
+
+    private static void skipAttributeSpecifications(ByteBuffer abbrev) {
+        while (true) {
+            long name = readUleb128(abbrev);
+            long form = readUleb128(abbrev);
+            if (name == 0 && form == 0) {
+                return;
+            }
+            if (form == DW_FORM_IMPLICIT_CONST) {
+                readSleb128(abbrev);
+            }
+        }
+    }
+
+    /*
+     * Read an attribute value, returns the strings and the integers. The other
+     * values, and the strings in sections that are not read, are skipped.
+     */
+    private @Nullable String readForm(ByteBuffer buffer, int form, boolean dwarf64, int addressSize, int version) throws IOException {
+        int offsetSize = dwarf64 ? 8 : 4;
+        switch (form) {
+        case DW_FORM_STRING:
+            return readString(buffer);
+        case DW_FORM_LINE_STRP:
+            return readString(fDebugLineStr, dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt()));
+        case DW_FORM_STRP:
+            return readString(fDebugStr, dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt()));
+        case DW_FORM_UDATA:
+            return Long.toString(readUleb128(buffer));
+        case DW_FORM_SDATA:
+            return Long.toString(readSleb128(buffer));
+        case DW_FORM_DATA1:
+            return Integer.toString(Byte.toUnsignedInt(buffer.get()));
+        case DW_FORM_DATA2:
+            return Integer.toString(Short.toUnsignedInt(buffer.getShort()));
+        case DW_FORM_DATA4:
+            return Long.toString(Integer.toUnsignedLong(buffer.getInt()));
+        case DW_FORM_DATA8:
+            return Long.toString(buffer.getLong());
+        case DW_FORM_DATA16:
+            skip(buffer, 16);
+            return null;
+        case DW_FORM_BLOCK1:
+            skip(buffer, Byte.toUnsignedInt(buffer.get()));
+            return null;
+        case DW_FORM_BLOCK2:
+            skip(buffer, Short.toUnsignedInt(buffer.getShort()));
+            return null;
+        case DW_FORM_BLOCK4:
+            skip(buffer, buffer.getInt());
+            return null;
+        case DW_FORM_BLOCK:
+        case DW_FORM_EXPRLOC:
+            skip(buffer, (int) readUleb128(buffer));
+            return null;
+        case DW_FORM_SEC_OFFSET:
+            return Long.toString(dwarf64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt()));
+        case DW_FORM_FLAG_PRESENT:
+        case DW_FORM_IMPLICIT_CONST:
+            return null;
+        case DW_FORM_FLAG:
+        case DW_FORM_REF1:
+        case DW_FORM_STRX1:
+        case DW_FORM_ADDRX1:
+            skip(buffer, 1);
+            return null;
+        case DW_FORM_REF2:
+        case DW_FORM_STRX2:
+        case DW_FORM_ADDRX2:
+            skip(buffer, 2);
+            return null;
+        case DW_FORM_STRX3:
+        case DW_FORM_ADDRX3:
+            skip(buffer, 3);
+            return null;
+        case DW_FORM_REF4:
+        case DW_FORM_REF_SUP4:
+        case DW_FORM_STRX4:
+        case DW_FORM_ADDRX4:
+            skip(buffer, 4);
+            return null;
+        case DW_FORM_REF8:
+        case DW_FORM_REF_SIG8:
+        case DW_FORM_REF_SUP8:
+            skip(buffer, 8);
+            return null;
+        case DW_FORM_REF_UDATA:
+        case DW_FORM_STRX:
+        case DW_FORM_ADDRX:
+        case DW_FORM_LOCLISTX:
+        case DW_FORM_RNGLISTX:
+        case DW_FORM_GNU_ADDR_INDEX:
+        case DW_FORM_GNU_STR_INDEX:
+            readUleb128(buffer);
+            return null;
+        case DW_FORM_STRP_SUP:
+        case DW_FORM_GNU_REF_ALT:
+        case DW_FORM_GNU_STRP_ALT:
+            skip(buffer, offsetSize);
+            return null;
+        case DW_FORM_ADDR:
+            skip(buffer, addressSize);
+            return null;
+        case DW_FORM_REF_ADDR:
+            /* Address sized in DWARF 2, offset sized afterwards */
+            skip(buffer, version <= 2 ? addressSize : offsetSize);
+            return null;
+        case DW_FORM_INDIRECT:
+            return readForm(buffer, (int) readUleb128(buffer), dwarf64, addressSize, version);
+        default:
+            throw new IOException("Unsupported DWARF form: " + form); //$NON-NLS-1$
+        }
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = start;
+        while (buffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(bytes);
+        /* Skip the terminating null */
+        buffer.get();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static @Nullable String readString(@Nullable ByteBuffer table, long offset) {
+        if (table == null || offset < 0 || offset >= table.limit()) {
+            return null;
+        }
+        ByteBuffer buffer = table.duplicate();
+        buffer.position((int) offset);
+        return readString(buffer);
+    }
+
+    private static long readUleb128(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            if (shift < 64) {
+                result |= (long) (b & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static long readSleb128(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            if (shift < 64) {
+                result |= (long) (b & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (shift < 64 && (b & 0x40) != 0) {
+            result |= -1L << shift;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Minimal reader of ELF binaries: the sections, the build ID and the function
+ * symbols. The file is memory-mapped, the sections are read only when they
+ * are requested.
+ */
+public final class ElfFile {
+
+    private static final int ELF_MAGIC = 0x7f454c46;
+    private static final byte ELFCLASS32 = 1;
+    private static final byte ELFCLASS64 = 2;
+    private static final byte ELFDATA2MSB = 2;
+
+    private static final int EHDR32_SIZE = 52;
+    private static final int EHDR64_SIZE = 64;
+    private static final int SHDR32_SIZE = 40;
+    private static final int SHDR64_SIZE = 64;
+    private static final int CHDR32_SIZE = 12;
+    private static final int CHDR64_SIZE = 24;
+
+    private static final int SHT_SYMTAB = 2;
+    private static final int SHT_NOBITS = 8;
+    private static final int SHT_DYNSYM = 11;
+    private static final long SHF_COMPRESSED = 0x800;
+    private static final int ELFCOMPRESS_ZLIB = 1;
+    private static final int STT_FUNC = 2;
+    private static final int SHN_UNDEF = 0;
+    private static final int NT_GNU_BUILD_ID = 3;
+
+    private static final String BUILD_ID_SECTION = ".note.gnu.build-id"; //$NON-NLS-1$
+
+    /** A function symbol of the binary */
+    public static final class Symbol {
+        private final String fName;
+        private final long fAddress;
+        private final long fSize;
+
+        Symbol(String name, long address, long size) {
+            fName = name;
+            fAddress = address;
+            fSize = size;
+        }
+
+        /**
+         * @return The name of the symbol
+         */
+        public String getName() {
+            return fName;
+        }
+
+        /**
+         * @return The address of the symbol
+         */
+        public long getAddress() {
+            return fAddress;
+        }
+
+        /**
+         * @return The size of the symbol, 0 if unknown
+         */
+        public long getSize() {
+            return fSize;
+        }
+    }
+
+    private static final class Section {
+        private final String fName;
+        private final int fType;
+        private final long fFlags;
+        private final long fOffset;
+        private final long fSize;
+        private final int fLink;
+
+        public Section(String name, int type, long flags, long offset, long size, int link) {
+            fName = name;
+            fType = type;
+            fFlags = flags;
+            fOffset = offset;
+            fSize = size;
+            fLink = link;
+        }
+    }
+
+    private final ByteBuffer fBuffer;
+    private final boolean fIs64;
+    private final List<Section> fSections = new ArrayList<>();
+    private final Map<String, Section> fSectionsByName = new HashMap<>();
+
+    private ElfFile(ByteBuffer buffer) throws IOException {
+        fBuffer = buffer;
+        if (buffer.limit() < EHDR32_SIZE || buffer.getInt(0) != ELF_MAGIC) {
+            throw new IOException("Not an ELF file"); //$NON-NLS-1$
+        }
+        byte elfClass = buffer.get(4);
+        if (elfClass != ELFCLASS32 && elfClass != ELFCLASS64) {
+            throw new IOException("Invalid ELF class: " + elfClass); //$NON-NLS-1$
+        }
+        fIs64 = elfClass == ELFCLASS64;
+        if (buffer.limit() < (fIs64 ? EHDR64_SIZE : EHDR32_SIZE)) {
+            throw new IOException("Truncated ELF header"); //$NON-NLS-1$
+        }
+        fBuffer.order(buffer.get(5) == ELFDATA2MSB ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        readSections();
+    }
+
+    /**
+     * Open an ELF file
+     *
+     * @param file
+     *            The path of the file
+     * @return The ELF file
+     * @throws IOException
+     *             If the file cannot be read or is not an ELF file
+     */
+    public static ElfFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("ELF file too large: " + file); //$NON-NLS-1$
+            }
+            return new ElfFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read an ELF file from a buffer
+     *
+     * @param buffer
+     *            The content of the file
+     * @return The ELF file
+     * @throws IOException
+     *             If the buffer is not an ELF file
+     */
+    public static ElfFile read(ByteBuffer buffer) throws IOException {
+        return new ElfFile(buffer.duplicate());
+    }
+
+    private void readSections() throws IOException {
+        ByteBuffer buffer = fBuffer;
+        long shoff = fIs64 ? buffer.getLong(0x28) : Integer.toUnsignedLong(buffer.getInt(0x20));
+        int shentsize = Short.toUnsignedInt(buffer.getShort(fIs64 ? 0x3a : 0x2e));
+        int shnum = Short.toUnsignedInt(buffer.getShort(fIs64 ? 0x3c : 0x30));
+        int shstrndx = Short.toUnsignedInt(buffer.getShort(fIs64 ? 0x3e : 0x32));
+        if (shoff <= 0 || shnum == 0) {
+            return;
+        }
+        if (shentsize < (fIs64 ? SHDR64_SIZE : SHDR32_SIZE) || shoff > buffer.limit()
+                || shoff + (long) shnum * shentsize > buffer.limit() || shstrndx >= shnum) {
+            throw new IOException("Invalid ELF section headers"); //$NON-NLS-1$
+        }
+        int[] nameOffsets = new int[shnum];
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < shnum; i++) {
+            int pos = (int) (shoff + (long) i * shentsize);
+            nameOffsets[i] = buffer.getInt(pos);
+            int type = buffer.getInt(pos + 4);
+            long flags;
+            long offset;
+            long size;
+            int link;
+            if (fIs64) {
+                flags = buffer.getLong(pos + 8);
+                offset = buffer.getLong(pos + 0x18);
+                size = buffer.getLong(pos + 0x20);
+                link = buffer.getInt(pos + 0x28);
+            } else {
+                flags = Integer.toUnsignedLong(buffer.getInt(pos + 8));
+                offset = Integer.toUnsignedLong(buffer.getInt(pos + 0x10));
+                size = Integer.toUnsignedLong(buffer.getInt(pos + 0x14));
+                link = buffer.getInt(pos + 0x18);
+            }
+            sections.add(new Section("", type, flags, offset, size, link)); //$NON-NLS-1$
+        }
+        Section shstrtab = sections.get(shstrndx);
+        for (int i = 0; i < shnum; i++) {
+            Section section = sections.get(i);
+            String name = readString(shstrtab, nameOffsets[i]);
+            Section named = new Section(name, section.fType, section.fFlags, section.fOffset, section.fSize, section.fLink);
+            fSections.add(named);
+            fSectionsByName.putIfAbsent(name, named);
+        }
+    }
+
+    private String readString(Section table, long offset) throws IOException {
+        if (offset < 0 || offset >= table.fSize) {
+            return ""; //$NON-NLS-1$
+        }
+        if (table.fOffset < 0 || table.fOffset > fBuffer.limit() - offset) {
+            throw new IOException("Invalid ELF string table: " + table.fName); //$NON-NLS-1$
+        }
+        int start = (int) (table.fOffset + offset);
+        int end = start;
+        /* The size of the table may be anything, do not let the end overflow */
+        int limit = (int) Math.min(fBuffer.limit(), table.fOffset + Math.min(table.fSize, fBuffer.limit()));
+        while (end < limit && fBuffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = fBuffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the file is a 64-bit ELF file
+     *
+     * @return true for a 64-bit file
+     */
+    public boolean is64Bit() {
+        return fIs64;
+    }
+
+    /**
+     * Get the content of a section, decompressed if needed
+     *
+     * @param name
+     *            The name of the section
+     * @return The content of the section, in the byte order of the file, or
+     *         <code>null</code> if there is no such section
+     * @throws IOException
+     *             If the section cannot be read
+     */
+    public @Nullable ByteBuffer getSection(String name) throws IOException {
+        Section section = fSectionsByName.get(name);
+        return section == null ? null : getContent(section);
+    }
+
+    private ByteBuffer getContent(Section section) throws IOException {
+        if (section.fType == SHT_NOBITS) {
+            return ByteBuffer.allocate(0).order(fBuffer.order());
+        }
+        if (section.fOffset < 0 || section.fSize < 0 || section.fOffset > fBuffer.limit() - section.fSize) {
+            throw new IOException("Invalid ELF section: " + section.fName); //$NON-NLS-1$
+        }
+        ByteBuffer content = fBuffer.duplicate();
+        content.position((int) section.fOffset);
+        content.limit((int) (section.fOffset + section.fSize));
+        content = content.slice().order(fBuffer.order());
+        if ((section.fFlags & SHF_COMPRESSED) != 0) {
+            return decompress(content);
+        }
+        return content;
+    }
+
+    private ByteBuffer decompress(ByteBuffer content) throws IOException {
+        int headerSize = fIs64 ? CHDR64_SIZE : CHDR32_SIZE;
+        if (content.limit() < headerSize) {
+            throw new IOException("Truncated ELF compression header"); //$NON-NLS-1$
+        }
+        int type = content.getInt(0);
+        long size = fIs64 ? content.getLong(8) : Integer.toUnsignedLong(content.getInt(4));
+        if (type != ELFCOMPRESS_ZLIB || size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Unsupported ELF section compression: " + type); //$NON-NLS-1$
+        }
+        byte[] input = new byte[content.limit() - headerSize];
+        content.position(headerSize);
+        content.get(input);
+        byte[] output = new byte[(int) size];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int length = 0;
+            while (length < output.length && !inflater.finished()) {
+                int read = inflater.inflate(output, length, output.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output).order(fBuffer.order());
+    }
+
+    /**
+     * Get the GNU build ID of the binary
+     *
+     * @return The build ID in hexadecimal, or <code>null</code> if the binary
+     *         does not have one
+     * @throws IOException
+     *             If the note cannot be read
+     */
+    public @Nullable String getBuildId() throws IOException {
+        ByteBuffer note = getSection(BUILD_ID_SECTION);
+        if (note == null || note.limit() < 12) {
+            return null;
+        }
+        int nameSize = note.getInt(0);
+        int descSize = note.getInt(4);
+        int type = note.getInt(8);
+        if (type != NT_GNU_BUILD_ID || nameSize < 0 || nameSize > note.limit() || descSize <= 0) {
+            return null;
+        }
+        int descStart = 12 + ((nameSize + 3) & ~3);
+        if (descStart > note.limit() - descSize) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < descSize; i++) {
+            builder.append(String.format("%02x", note.get(descStart + i))); //$NON-NLS-1$
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get the defined function symbols of the binary, from the symbol table,
+     * or from the dynamic symbol table if the binary is stripped
+     *
+     * @return The function symbols
+     * @throws IOException
+     *             If the symbol table cannot be read
+     */
+    public List<Symbol> getFunctionSymbols() throws IOException {
+        List<Symbol> symbols = new ArrayList<>();
+        readSymbols(SHT_SYMTAB, symbols);
+        if (symbols.isEmpty()) {
+            readSymbols(SHT_DYNSYM, symbols);
+        }
+        return symbols;
+    }
+
+    private void readSymbols(int tableType, List<Symbol> symbols) throws IOException {
+        for (Section section : fSections) {
+            if (section.fType != tableType || section.fLink <= 0 || section.fLink >= fSections.size()) {
+                continue;
+            }
+            Section strtab = fSections.get(section.fLink);
+            ByteBuffer table = getContent(section);
+            int entrySize = fIs64 ? 24 : 16;
+            for (int pos = 0; pos + entrySize <= table.limit(); pos += entrySize) {
+                int nameOffset = table.getInt(pos);
+                int info;
+                int shndx;
+                long value;
+                long size;
+                if (fIs64) {
+                    info = table.get(pos + 4);
+                    shndx = Short.toUnsignedInt(table.getShort(pos + 6));
+                    value = table.getLong(pos + 8);
+                    size = table.getLong(pos + 16);
+                } else {
+                    value = Integer.toUnsignedLong(table.getInt(pos + 4));
+                    size = Integer.toUnsignedLong(table.getInt(pos + 8));
+                    info = table.get(pos + 12);
+                    shndx = Short.toUnsignedInt(table.getShort(pos + 14));
+                }
+                if ((info & 0xf) != STT_FUNC || shndx == SHN_UNDEF || value == 0) {
+                    continue;
+                }
+                String name = readString(strtab, Integer.toUnsignedLong(nameOffset));
+                if (!name.isEmpty()) {
+                    symbols.add(new Symbol(name, value, size));
+                }
+            }
+        }
+    }
+
+}
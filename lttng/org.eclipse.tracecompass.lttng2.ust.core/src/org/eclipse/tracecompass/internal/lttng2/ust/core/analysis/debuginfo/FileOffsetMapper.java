@@ -14,11 +14,16 @@ package org.eclipse.tracecompass.internal.lttng2.ust.core.analysis.debuginfo;
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +34,7 @@ import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.ScopeLog;
 import org.eclipse.tracecompass.common.core.process.ProcessUtils;
+import org.eclipse.tracecompass.internal.lttng2.ust.core.Activator;
 import org.eclipse.tracecompass.tmf.core.event.lookup.TmfCallsite;
 
 import com.google.common.cache.CacheBuilder;
@@ -40,6 +46,12 @@ import com.google.common.collect.Iterables;
  * Utility class to get file name, function/symbol name and line number from a
  * given offset. In TMF this is represented as a {@link TmfCallsite}.
  *
+ * ELF binaries are read directly: the function names come from their symbol
+ * table and the source locations from their DWARF line table. The resulting
+ * {@link BinaryDebugInfo} index is saved in the plugin state location, keyed
+ * by build id, so each binary is only parsed once. Other files are resolved
+ * with 'addr2line'.
+ *
  * @author Alexandre Montplaisir
  */
 public final class FileOffsetMapper {
@@ -50,6 +62,10 @@ public final class FileOffsetMapper {
     private static final String ADDR2LINE_EXECUTABLE = "addr2line"; //$NON-NLS-1$
 
     private static final long CACHE_SIZE = 1000;
+    private static final long BINARY_CACHE_SIZE = 64;
+
+    private static final String INDEX_DIRECTORY = "debuginfo"; //$NON-NLS-1$
+    private static final String INDEX_EXTENSION = ".idx"; //$NON-NLS-1$
 
     private FileOffsetMapper() {}
 
@@ -100,6 +116,40 @@ public final class FileOffsetMapper {
         }
     }
 
+    /**
+     * Class representing a binary file with its expected build id
+     */
+    private static class BinaryFile {
+
+        private final String fFilePath;
+        private final @Nullable String fBuildId;
+
+        public BinaryFile(String filePath, @Nullable String buildId) {
+            fFilePath = filePath;
+            fBuildId = buildId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fFilePath, fBuildId);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            BinaryFile other = (BinaryFile) obj;
+            return Objects.equals(fFilePath, other.fFilePath) &&
+                    Objects.equals(fBuildId, other.fBuildId);
+        }
+    }
 
     /**
      * Generate the callsite from a given binary file and address offset.
@@ -111,13 +161,17 @@ public final class FileOffsetMapper {
      * @param file
      *            The binary file to look at
      * @param buildId
-     *            The expected buildId of the binary file (is not verified at
-     *            the moment)
+     *            The expected buildId of the binary file. Nothing is resolved
+     *            if the file has another build id.
      * @param offset
      *            The memory offset in the file
      * @return The corresponding call site
      */
     public static @Nullable TmfCallsite getCallsiteFromOffset(File file, @Nullable String buildId, long offset) {
+       Optional<BinaryDebugInfo> debugInfo = getBinaryDebugInfo(file, buildId);
+       if (debugInfo.isPresent()) {
+           return debugInfo.get().getCallsite(offset);
+       }
        Iterable<Addr2lineInfo> output = getAddr2lineInfo(file, buildId, offset);
        if (output == null || Iterables.isEmpty(output)) {
            return null;
@@ -139,20 +193,17 @@ public final class FileOffsetMapper {
      * @param file
      *            The binary file to look at
      * @param buildId
-     *            The expected buildId of the binary file (is not verified at
-     *            the moment)
+     *            The expected buildId of the binary file. Nothing is resolved
+     *            if the file has another build id.
      * @param offset
      *            The memory offset in the file
      * @return The corresponding function/symbol name
      */
     public static @Nullable String getFunctionNameFromOffset(File file, @Nullable String buildId, long offset) {
-        /*
-         * TODO We are currently also using 'addr2line' to resolve function
-         * names, which requires the binary's DWARF information to be available.
-         * A better approach would be to use the binary's symbol table (if it is
-         * not stripped), since this is usually more readily available than
-         * DWARF.
-         */
+        Optional<BinaryDebugInfo> debugInfo = getBinaryDebugInfo(file, buildId);
+        if (debugInfo.isPresent()) {
+            return debugInfo.get().getFunctionName(offset);
+        }
         Iterable<Addr2lineInfo> output = getAddr2lineInfo(file, buildId, offset);
         if (output == null || Iterables.isEmpty(output)) {
             return null;
@@ -161,6 +212,115 @@ public final class FileOffsetMapper {
         return info.fFunctionName;
     }
 
+    // ------------------------------------------------------------------------
+    // Utility methods reading the binary files
+    // ------------------------------------------------------------------------
+
+    /**
+     * Cache of the indexes of the binary files. Files that are not ELF
+     * binaries have no index, they are resolved with 'addr2line'.
+     */
+    private static final LoadingCache<BinaryFile, Optional<BinaryDebugInfo>> BINARY_CACHE;
+    static {
+        BINARY_CACHE = checkNotNull(CacheBuilder.newBuilder()
+                .maximumSize(BINARY_CACHE_SIZE)
+                .build(new CacheLoader<BinaryFile, Optional<BinaryDebugInfo>>() {
+                    @Override
+                    public Optional<BinaryDebugInfo> load(BinaryFile binary) {
+                        try (ScopeLog sl = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "FileOffsetMapper:LoadBinary",  //$NON-NLS-1$
+                                "File", binary.fFilePath,  //$NON-NLS-1$
+                                "Build id", binary.fBuildId)) { //$NON-NLS-1$
+                            return Optional.of(loadBinaryDebugInfo(binary));
+                        } catch (IOException | RuntimeException e) {
+                            /*
+                             * Not an ELF file that we can read, or a malformed
+                             * one, it is resolved with 'addr2line'
+                             */
+                            return Optional.empty();
+                        }
+                    }
+                }));
+    }
+
+    private static Optional<BinaryDebugInfo> getBinaryDebugInfo(File file, @Nullable String buildId) {
+        return BINARY_CACHE.getUnchecked(new BinaryFile(checkNotNull(file.toString()), buildId));
+    }
+
+    private static BinaryDebugInfo loadBinaryDebugInfo(BinaryFile binary) throws IOException {
+        Path indexDirectory = getIndexDirectory();
+        String buildId = binary.fBuildId;
+        if (indexDirectory != null && buildId != null) {
+            BinaryDebugInfo debugInfo = loadIndex(indexDirectory.resolve(buildId.toLowerCase() + INDEX_EXTENSION));
+            if (debugInfo != null) {
+                return debugInfo;
+            }
+        }
+
+        Path path = new File(binary.fFilePath).toPath();
+        ElfFile elf = ElfFile.open(path);
+        String fileBuildId = elf.getBuildId();
+        if (buildId != null && fileBuildId != null && !buildId.equalsIgnoreCase(fileBuildId)) {
+            Activator activator = Activator.getDefault();
+            if (activator != null) {
+                activator.logWarning("Build id of " + binary.fFilePath + " is " + fileBuildId + ", expected " + buildId); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            /* Do not resolve the offsets in the wrong binary */
+            return BinaryDebugInfo.EMPTY;
+        }
+
+        /* Binaries without build id are identified by their attributes */
+        Path indexFile = null;
+        if (indexDirectory != null) {
+            String key = fileBuildId;
+            if (key == null) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                key = path.getFileName() + "-" + Integer.toHexString(path.toAbsolutePath().hashCode()) + '-' //$NON-NLS-1$
+                        + Long.toHexString(attributes.size()) + '-' + Long.toHexString(attributes.lastModifiedTime().toMillis());
+            }
+            indexFile = indexDirectory.resolve(key.toLowerCase() + INDEX_EXTENSION);
+            BinaryDebugInfo debugInfo = loadIndex(indexFile);
+            if (debugInfo != null) {
+                return debugInfo;
+            }
+        }
+
+        BinaryDebugInfo debugInfo = BinaryDebugInfo.create(elf);
+        if (indexFile != null) {
+            try {
+                debugInfo.save(indexFile);
+            } catch (IOException e) {
+                Activator.getDefault().logWarning("Could not save the debug information index " + indexFile, e); //$NON-NLS-1$
+            }
+        }
+        return debugInfo;
+    }
+
+    private static @Nullable BinaryDebugInfo loadIndex(Path indexFile) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try {
+            return BinaryDebugInfo.load(indexFile);
+        } catch (IOException e) {
+            /* Corrupted index, it will be rebuilt */
+            return null;
+        }
+    }
+
+    private static @Nullable Path getIndexDirectory() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        try {
+            Path directory = activator.getStateLocation().append(INDEX_DIRECTORY).toFile().toPath();
+            Files.createDirectories(directory);
+            return directory;
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Utility methods making use of 'addr2line'
     // ------------------------------------------------------------------------
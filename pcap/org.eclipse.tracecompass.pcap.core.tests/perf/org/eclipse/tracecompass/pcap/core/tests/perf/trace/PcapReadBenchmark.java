@@ -14,10 +14,12 @@
 
 package org.eclipse.tracecompass.pcap.core.tests.perf.trace;
 
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.eclipse.test.performance.Dimension;
 import org.eclipse.test.performance.Performance;
@@ -42,6 +44,7 @@ public class PcapReadBenchmark {
     private static final String TEST_ID = "org.eclipse.linuxtools#" + TEST_SUITE_NAME;
     private static final int LOOP_COUNT = 25;
     private static final int RUN_BETWEEN_COMMIT_COUNT = 15;
+    private static final int THROUGHPUT_RUN_COUNT = 5;
 
     /**
      * Benchmark reading the pcap trace
@@ -51,6 +54,51 @@ public class PcapReadBenchmark {
         readTrace(PcapTestTrace.BENCHMARK_TRACE, "trace-pcap", true);
     }
 
+    /**
+     * Benchmark the read throughput of the pcap trace: the file is opened
+     * once and the payload of every packet is read, from the mapped buffers.
+     */
+    @Test
+    public void testPcapTraceThroughput() {
+        readTraceThroughput(PcapTestTrace.BENCHMARK_TRACE, "trace-pcap-throughput");
+    }
+
+    private static void readTraceThroughput(PcapTestTrace testTrace, String testName) {
+        assumeTrue(testTrace.exists());
+
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
+        perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
+
+        try (PcapFile trace = testTrace.getTrace();) {
+            /* Index the trace first, only the reading is measured */
+            trace.getTotalNbPackets();
+            for (int loop = 0; loop < LOOP_COUNT; loop++) {
+                pm.start();
+                long checksum = 0;
+                for (int i = 0; i < THROUGHPUT_RUN_COUNT; i++) {
+                    trace.seekPacket(0);
+                    Packet packet = trace.parseNextPacket();
+                    while (packet != null) {
+                        ByteBuffer payload = packet.getPayload();
+                        if (payload != null) {
+                            for (int pos = payload.position(); pos < payload.limit(); pos++) {
+                                checksum += payload.get(pos);
+                            }
+                        }
+                        packet = trace.parseNextPacket();
+                    }
+                }
+                pm.stop();
+                /* Use the checksum so the reads are not optimized away */
+                assertTrue(checksum != Long.MIN_VALUE);
+            }
+        } catch (IOException | BadPcapFileException | BadPacketException e) {
+            fail("Test failed: " + e.getMessage());
+        }
+        pm.commit();
+    }
+
     private static void readTrace(PcapTestTrace testTrace, String testName, boolean inGlobalSummary) {
         assumeTrue(testTrace.exists());
 
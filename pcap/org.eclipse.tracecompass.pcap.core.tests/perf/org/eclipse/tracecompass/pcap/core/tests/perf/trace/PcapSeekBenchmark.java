@@ -18,6 +18,8 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
@@ -52,6 +54,7 @@ public class PcapSeekBenchmark {
 
     private static final int LOOP_COUNT = 25;
     private static final int NB_SEEKS = 1000000;
+    private static final int NB_REOPEN_SEEKS = 1000;
     private static final String TEST_SUITE_NAME = "Pcap Read & Seek Benchmark (" + NB_SEEKS + " seeks)";
     private static final String TEST_ID = "org.eclipse.linuxtools#" + TEST_SUITE_NAME;
 
@@ -63,6 +66,55 @@ public class PcapSeekBenchmark {
         readAndSeekTrace(PcapTestTrace.BENCHMARK_TRACE, "trace-pcap", true);
     }
 
+    /**
+     * Run the benchmark scenario for the pcap trace, reopening it with the
+     * packet index saved from a previous session.
+     *
+     * @throws IOException
+     *             If the index file cannot be created
+     */
+    @Test
+    public void testPcapTraceSavedIndex() throws IOException {
+        Path indexFile = Files.createTempFile("pcap-index", ".idx");
+        try {
+            reopenAndSeekTrace(PcapTestTrace.BENCHMARK_TRACE, "trace-pcap-saved-index", indexFile);
+        } finally {
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    private static void reopenAndSeekTrace(PcapTestTrace testTrace, String testName, Path indexFile) {
+        assumeTrue(testTrace.exists());
+
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
+        perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
+
+        long nbPackets = 0;
+        try (PcapFile trace = testTrace.getTrace()) {
+            nbPackets = trace.getTotalNbPackets();
+            trace.saveIndex(indexFile);
+        } catch (IOException | BadPcapFileException e) {
+            fail("Could not index the trace: " + e.getMessage());
+        }
+
+        for (int loop = 0; loop < LOOP_COUNT; loop++) {
+            /* Benchmark opening the trace and seeking right away */
+            pm.start();
+            try (PcapFile trace = testTrace.getTrace()) {
+                trace.loadIndex(indexFile);
+                for (int i = 0; i < NB_REOPEN_SEEKS; i++) {
+                    trace.seekPacket(Math.floorMod(RND.nextLong(), nbPackets));
+                    trace.parseNextPacket();
+                }
+            } catch (IOException | BadPcapFileException | BadPacketException e) {
+                fail("Test failed at iteration " + loop + ':' + e.getMessage());
+            }
+            pm.stop();
+        }
+        pm.commit();
+    }
+
     private static void readAndSeekTrace(PcapTestTrace testTrace, String testName, boolean inGlobalSummary) {
         assumeTrue(testTrace.exists());
 
@@ -17,10 +17,13 @@ package org.eclipse.tracecompass.pcap.core.tests.file;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.eclipse.tracecompass.internal.pcap.core.packet.BadPacketException;
 import org.eclipse.tracecompass.internal.pcap.core.protocol.PcapProtocol;
@@ -136,4 +139,45 @@ public class PcapFileReadTest {
             assertNull(packet);
         }
     }
+
+    /**
+     * Test that the packet index saved for a file is used when the file is
+     * opened again.
+     *
+     * @throws BadPcapFileException
+     *             Thrown when the file is erroneous. Fails the test.
+     * @throws IOException
+     *             Thrown when an IO error occurs. Fails the test.
+     * @throws BadPacketException
+     *             Thrown when a packet is erroneous. Fails the test.
+     */
+    @Test
+    public void FileIndexSaveLoadTest() throws IOException, BadPcapFileException, BadPacketException {
+
+        PcapTestTrace trace = PcapTestTrace.MOSTLY_UDP;
+        assumeTrue(trace.exists());
+        Path indexFile = Files.createTempFile("pcap-index", ".idx");
+        try {
+            try (PcapFile file = trace.getTrace();) {
+                assertEquals(647, file.getTotalNbPackets());
+                file.saveIndex(indexFile);
+            }
+            try (PcapFile file = trace.getTrace();) {
+                assertTrue(file.loadIndex(indexFile));
+                assertEquals(648, file.getFileIndex().size());
+                assertEquals(647, file.getTotalNbPackets());
+
+                file.seekPacket(58);
+                PcapPacket packet = file.parseNextPacket();
+                if (packet == null) {
+                    fail("FileIndexSaveLoadTest() failed!");
+                    return;
+                }
+                assertEquals(58, packet.getIndex());
+                assertEquals(1120469635045415L, packet.getTimestamp());
+            }
+        } finally {
+            Files.deleteIfExists(indexFile);
+        }
+    }
 }
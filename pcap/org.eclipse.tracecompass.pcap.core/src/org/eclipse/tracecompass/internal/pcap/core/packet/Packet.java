@@ -292,7 +292,7 @@ public abstract class Packet {
         if (payload == null) {
             return 0;
         }
-        return ByteBuffer.wrap(payload.array(), payload.arrayOffset(), payload.limit()).hashCode();
+        return wholePayload(payload).hashCode();
     }
 
     /**
@@ -312,9 +312,17 @@ public abstract class Packet {
         if (otherPayload == null) {
             return false;
         }
-        ByteBuffer buffer = ByteBuffer.wrap(payload.array(), payload.arrayOffset(), payload.limit());
-        ByteBuffer otherBuffer = ByteBuffer.wrap(otherPayload.array(), otherPayload.arrayOffset(), otherPayload.limit());
-        return buffer.equals(otherBuffer);
+        return wholePayload(payload).equals(wholePayload(otherPayload));
+    }
+
+    /**
+     * Get a view of a payload from its start to its limit. The payload may be
+     * a slice of a mapped file, so its backing array cannot be used.
+     */
+    private static ByteBuffer wholePayload(ByteBuffer payload) {
+        ByteBuffer buffer = payload.duplicate();
+        buffer.position(0);
+        return buffer;
     }
 
     /**
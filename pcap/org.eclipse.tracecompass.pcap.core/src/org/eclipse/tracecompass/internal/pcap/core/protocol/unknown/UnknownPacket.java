@@ -16,7 +16,6 @@ package org.eclipse.tracecompass.internal.pcap.core.protocol.unknown;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 
@@ -89,9 +88,17 @@ public class UnknownPacket extends Packet {
         return null;
     }
 
+    private byte[] getPayloadBytes() {
+        ByteBuffer payload = fPayload.duplicate();
+        payload.position(0);
+        byte[] array = new byte[payload.limit()];
+        payload.get(array);
+        return array;
+    }
+
     @Override
     public String toString() {
-        byte[] array = Arrays.copyOfRange(fPayload.array(), fPayload.arrayOffset(), fPayload.arrayOffset() + fPayload.limit());
+        byte[] array = getPayloadBytes();
         String string = "Payload: " + ConversionHelper.bytesToHex(array, true); //$NON-NLS-1$
         final Packet child = fChildPacket;
         if (child != null) {
@@ -134,7 +141,7 @@ public class UnknownPacket extends Packet {
     public Map<String, String> getFields() {
         Map<String, String> map = fFields;
         if (map == null) {
-            byte[] array = Arrays.copyOfRange(fPayload.array(), fPayload.arrayOffset(), fPayload.arrayOffset() + fPayload.limit());
+            byte[] array = getPayloadBytes();
 
             Builder<String, String> builder = ImmutableMap.<@NonNull String, @NonNull String> builder()
                     .put("Binary", ConversionHelper.bytesToHex(array, true)); //$NON-NLS-1$
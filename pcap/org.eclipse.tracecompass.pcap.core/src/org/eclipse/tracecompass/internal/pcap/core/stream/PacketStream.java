@@ -47,6 +47,8 @@ public class PacketStream {
     private long fNbBytesBtoA;
     private long fStartTime;
     private long fEndTime;
+    private long fFirstRank;
+    private long fLastRank;
 
     /**
      * Constructor of a packet stream.
@@ -69,6 +71,8 @@ public class PacketStream {
         fNbBytesBtoA = 0;
         fStartTime = Long.MAX_VALUE;
         fEndTime = Long.MIN_VALUE;
+        fFirstRank = Long.MAX_VALUE;
+        fLastRank = Long.MIN_VALUE;
     }
 
     /**
@@ -112,6 +116,8 @@ public class PacketStream {
         }
         fStartTime = Math.min(fStartTime, timestamp);
         fEndTime = Math.max(fEndTime, timestamp);
+        fFirstRank = Math.min(fFirstRank, packet.getIndex());
+        fLastRank = Math.max(fLastRank, packet.getIndex());
     }
 
     /**
@@ -232,6 +238,24 @@ public class PacketStream {
         return fEndTime;
     }
 
+    /**
+     * Get the rank of the first packet of this stream in the file.
+     *
+     * @return The rank of the first packet.
+     */
+    public synchronized long getFirstRank() {
+        return fFirstRank;
+    }
+
+    /**
+     * Get the rank of the last packet of this stream in the file.
+     *
+     * @return The rank of the last packet.
+     */
+    public synchronized long getLastRank() {
+        return fLastRank;
+    }
+
     /**
      * Get the duration of this stream, in seconds
      *
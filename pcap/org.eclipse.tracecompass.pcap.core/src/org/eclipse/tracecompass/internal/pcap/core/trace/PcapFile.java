@@ -17,12 +17,15 @@ package org.eclipse.tracecompass.internal.pcap.core.trace;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Objects;
-import java.util.TreeMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.pcap.core.packet.BadPacketException;
@@ -31,11 +34,17 @@ import org.eclipse.tracecompass.internal.pcap.core.util.PcapTimestampScale;
 
 /**
  * Class that allows the interaction with a pcap file.
+ * <p>
+ * The file is read through memory-mapped windows. Packet headers and data are
+ * slices of the mapped window, so reading a packet does not allocate nor copy
+ * its bytes.
  *
  * @author Vincent Perot
  */
 public abstract class PcapFile implements Closeable {
 
+    private static final long MAPPING_WINDOW_SIZE = 1L << 26;
+
     private long fCurrentRank = 0;
     private long fTotalNumberPackets = -1;
 
@@ -45,7 +54,13 @@ public abstract class PcapFile implements Closeable {
     private int fMajorVersion;
     private int fMinorVersion;
 
-    private TreeMap<Long, Long> fFileIndex = new TreeMap<>();
+    private long fPosition = 0;
+    private long fFileSize;
+    private @Nullable MappedByteBuffer fWindow = null;
+    private long fWindowStart = 0;
+    private long fWindowEnd = 0;
+
+    private final PcapPacketIndex fFileIndex = new PcapPacketIndex();
 
     /**
      * Constructor of the PcapFile Class
@@ -59,7 +74,6 @@ public abstract class PcapFile implements Closeable {
      *
      */
     public PcapFile(Path filePath) throws BadPcapFileException, IOException {
-        fFileIndex = new TreeMap<>();
         fPcapFilePath = filePath;
         // Check file validity
         if (Files.notExists(fPcapFilePath) || !Files.isRegularFile(fPcapFilePath) ||
@@ -73,6 +87,7 @@ public abstract class PcapFile implements Closeable {
 
         // File is not empty. Try to open.
         fFileChannel = Objects.requireNonNull(FileChannel.open(fPcapFilePath));
+        fFileSize = fFileChannel.size();
     }
 
     /**
@@ -136,21 +151,21 @@ public abstract class PcapFile implements Closeable {
             throw new IllegalArgumentException();
         }
 
-        TreeMap<Long, Long> fileIndex = getFileIndex();
-        Long positionInBytes = fileIndex.get(rank);
+        PcapPacketIndex fileIndex = getFileIndex();
+        long positionInBytes = fileIndex.getPosition(rank);
 
-        if (positionInBytes != null) {
+        if (positionInBytes >= 0) {
             // Index is known. Move to position.
-            getFileChannel().position(positionInBytes.longValue());
+            setPosition(positionInBytes);
             setCurrentRank(rank);
         } else {
             // Index is unknown. Find the corresponding position.
             // Find closest index
-            long floorRank = fileIndex.floorKey(rank);
+            long floorRank = fileIndex.floorRank(rank);
             setCurrentRank(floorRank);
-            positionInBytes = fileIndex.get(floorRank);
-            if (positionInBytes != null) {
-                getFileChannel().position(positionInBytes);
+            positionInBytes = fileIndex.getPosition(floorRank);
+            if (positionInBytes >= 0) {
+                setPosition(positionInBytes);
                 // skip until wanted packet is found
                 while (getCurrentRank() < rank && skipNextPacket()) {
                     // Do nothing
@@ -178,7 +193,7 @@ public abstract class PcapFile implements Closeable {
     public synchronized long getTotalNbPackets() throws IOException, BadPcapFileException {
         if (fTotalNumberPackets == -1) {
             long rank = fCurrentRank;
-            fCurrentRank = fFileIndex.floorKey(rank);
+            fCurrentRank = fFileIndex.floorRank(rank);
 
             // skip until end of file.
             while (skipNextPacket()) {
@@ -252,16 +267,128 @@ public abstract class PcapFile implements Closeable {
      *
      * @return The current file index
      */
-    public TreeMap<Long, Long> getFileIndex() {
+    public PcapPacketIndex getFileIndex() {
         return fFileIndex;
     }
 
+    /**
+     * Load the packet index previously saved for this file. The index is
+     * ignored if the file changed since it was saved.
+     *
+     * @param indexFile
+     *            The index file
+     * @return true if the index was loaded
+     * @throws IOException
+     *             Thrown when the index file cannot be read.
+     */
+    public synchronized boolean loadIndex(Path indexFile) throws IOException {
+        long totalPackets;
+        try {
+            totalPackets = fFileIndex.load(indexFile, fFileSize, Files.getLastModifiedTime(fPcapFilePath).toMillis());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (totalPackets < -1) {
+            return false;
+        }
+        if (totalPackets >= 0) {
+            fTotalNumberPackets = totalPackets;
+        }
+        return true;
+    }
+
+    /**
+     * Save the packet index of this file, if new packets were indexed since it
+     * was loaded or last saved.
+     *
+     * @param indexFile
+     *            The index file
+     * @throws IOException
+     *             Thrown when the index file cannot be written.
+     */
+    public synchronized void saveIndex(Path indexFile) throws IOException {
+        if (fFileIndex.isDirty()) {
+            fFileIndex.save(indexFile, fFileSize, Files.getLastModifiedTime(fPcapFilePath).toMillis(), fTotalNumberPackets);
+        }
+    }
+
+    /**
+     * Get the current read position in the file
+     *
+     * @return The position in bytes
+     */
+    public long getPosition() {
+        return fPosition;
+    }
+
+    /**
+     * Set the current read position in the file
+     *
+     * @param position
+     *            The position in bytes
+     */
+    public void setPosition(long position) {
+        fPosition = position;
+    }
+
+    /**
+     * Get the number of bytes between the current position and the end of the
+     * file. The size of the file is refreshed when the end is reached, in case
+     * it is still being written.
+     *
+     * @return The number of remaining bytes
+     * @throws IOException
+     *             Thrown when the size of the file cannot be read.
+     */
+    public long getRemaining() throws IOException {
+        if (fPosition >= fFileSize) {
+            fFileSize = fFileChannel.size();
+        }
+        return fFileSize - fPosition;
+    }
+
+    /**
+     * Get a buffer on the next bytes of the file and move the position after
+     * them. The buffer is a slice of the mapped file, it is not a copy.
+     *
+     * @param length
+     *            The number of bytes to read
+     * @return A buffer of the given length, in the byte order of the file
+     * @throws IOException
+     *             Thrown when the file cannot be mapped or is too short.
+     */
+    public ByteBuffer readBuffer(int length) throws IOException {
+        long position = fPosition;
+        long end = position + length;
+        if (end > fFileSize) {
+            fFileSize = fFileChannel.size();
+            if (end > fFileSize) {
+                throw new IOException("Read past the end of file " + fPcapFilePath); //$NON-NLS-1$
+            }
+        }
+        MappedByteBuffer window = fWindow;
+        if (window == null || position < fWindowStart || end > fWindowEnd) {
+            fWindowStart = position;
+            fWindowEnd = Math.min(fFileSize, position + Math.max(MAPPING_WINDOW_SIZE, length));
+            window = Objects.requireNonNull(fFileChannel.map(MapMode.READ_ONLY, fWindowStart, fWindowEnd - fWindowStart));
+            fWindow = window;
+        }
+        ByteBuffer buffer = window.duplicate();
+        buffer.position((int) (position - fWindowStart));
+        buffer.limit((int) (end - fWindowStart));
+        ByteBuffer slice = Objects.requireNonNull(buffer.slice());
+        slice.order(fByteOrder);
+        fPosition = end;
+        return slice;
+    }
+
     /**
      * Method that closes the file.
      *
      */
     @Override
     public void close() throws IOException {
+        fWindow = null;
         getFileChannel().close();
     }
 
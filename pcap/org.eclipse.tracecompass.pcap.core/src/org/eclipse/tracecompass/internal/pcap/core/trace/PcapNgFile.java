@@ -44,6 +44,12 @@ public class PcapNgFile extends PcapFile {
     /** The list of interfaces. The index in the list is the Interface ID. */
     private List<PcapNgInterface> fInterfaceList = new ArrayList<>();
 
+    /** The position of the first block after the SHB */
+    private final long fFirstBlockPosition;
+
+    /** The position up to which the IDB blocks have all been parsed */
+    private long fInterfacesParsedPosition;
+
     /**
      * Constructor of the PcapNgFile class where the parent is PcapFile class.
      * This method allows to initialize the pcapNG configuration from the first
@@ -71,9 +77,7 @@ public class PcapNgFile extends PcapFile {
         // - 2 bytes of Minor Version
         // - 8 bytes of Section Length
         // ---------------------------------------------------------------
-        ByteBuffer header = ByteBuffer.allocate(PcapNgFileValues.BLOCK_HEADER_SIZE + PcapNgFileValues.SHB_MIN_BODY_SIZE);
-        getFileChannel().read(header);
-        header.flip();
+        ByteBuffer header = readBuffer(PcapNgFileValues.BLOCK_HEADER_SIZE + PcapNgFileValues.SHB_MIN_BODY_SIZE);
         // By default, try little-endian byte order
         ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
         header.order(byteOrder);
@@ -102,9 +106,11 @@ public class PcapNgFile extends PcapFile {
         int minorVersion = ConversionHelper.unsignedShortToInt(header.getShort());
 
         // Set position at end of SHB block
-        getFileChannel().position(blockLength);
+        setPosition(blockLength);
+        fFirstBlockPosition = getPosition();
+        fInterfacesParsedPosition = fFirstBlockPosition;
         // Set initial file position for seeking next packet
-        getFileIndex().put(0L, getFileChannel().position());
+        getFileIndex().put(0L, getPosition());
         // initialize the pcapNG configuration
         init(byteOrder, majorVersion, minorVersion);
     }
@@ -185,10 +191,38 @@ public class PcapNgFile extends PcapFile {
         fInterfaceList.sort(Comparator.comparingLong(i -> i.getPosition()));
     }
 
+    /**
+     * Get the description of an interface. When the packets are reached by a
+     * saved index, the IDB blocks that precede the packet may not have been
+     * parsed yet, so they are looked for between the first block and the
+     * packet, and the current position is restored afterwards.
+     */
+    private PcapNgInterface getInterface(int interfaceID, long blockPosition) throws IOException, BadPcapFileException, BadPacketException {
+        if (interfaceID >= fInterfaceList.size() && blockPosition > fInterfacesParsedPosition) {
+            long position = getPosition();
+            setPosition(fInterfacesParsedPosition);
+            while (getPosition() < blockPosition) {
+                PcapNgBlock block = parseBlock();
+                if (block == null || block.getBlockType() == PcapNgFileValues.SHB) {
+                    break;
+                }
+                if (block.getBlockType() == PcapNgFileValues.IDB) {
+                    parseIDB(block);
+                }
+            }
+            fInterfacesParsedPosition = Math.max(fInterfacesParsedPosition, Math.min(getPosition(), blockPosition));
+            setPosition(position);
+        }
+        if (interfaceID >= fInterfaceList.size()) {
+            throw new BadPacketException("Undefined Interface ID: " + interfaceID); //$NON-NLS-1$
+        }
+        return fInterfaceList.get(interfaceID);
+    }
+
     /**
      * Parse an EPB (or PB) block and return a PcapNgPacket
      */
-    private PcapNgPacket parseEPB(PcapNgBlock block) throws BadPacketException {
+    private PcapNgPacket parseEPB(PcapNgBlock block) throws IOException, BadPcapFileException, BadPacketException {
         ByteBuffer body = block.getBlockBody();
         int interfaceID;
         if (block.getBlockType() == PcapNgFileValues.EPB) {
@@ -200,10 +234,7 @@ public class PcapNgFile extends PcapFile {
             // PB: Drops Count (2 octets)
             body.getShort();
         }
-        if (interfaceID >= fInterfaceList.size()) {
-            throw new BadPacketException("Undefined Interface ID: " + interfaceID); //$NON-NLS-1$
-        }
-        PcapNgInterface interfaceDesc = fInterfaceList.get(interfaceID);
+        PcapNgInterface interfaceDesc = getInterface(interfaceID, block.getPosition());
         long timestampHigh = ConversionHelper.unsignedIntToLong(body.getInt());
         long timestampLow = ConversionHelper.unsignedIntToLong(body.getInt());
         long timestamp = (timestampHigh << 32) + timestampLow;
@@ -219,13 +250,10 @@ public class PcapNgFile extends PcapFile {
     /**
      * Parse an SPB block and return a PcapNgPacket
      */
-    private PcapNgPacket parseSPB(PcapNgBlock block) throws BadPacketException {
+    private PcapNgPacket parseSPB(PcapNgBlock block) throws IOException, BadPcapFileException, BadPacketException {
         ByteBuffer body = block.getBlockBody();
         int interfaceID = 0;
-        if (interfaceID >= fInterfaceList.size()) {
-            throw new BadPacketException("Undefined Interface ID: " + interfaceID); //$NON-NLS-1$
-        }
-        PcapNgInterface interfaceDesc = fInterfaceList.get(interfaceID);
+        PcapNgInterface interfaceDesc = getInterface(interfaceID, block.getPosition());
         int originalLength = body.getInt();
         // Captured length is minimum of Original Packet Length and SnapLen
         int capturedLength = Math.min(originalLength, interfaceDesc.getSnapLen());
@@ -316,33 +344,26 @@ public class PcapNgFile extends PcapFile {
      *             Thrown when the block is erroneous.
      */
     private @Nullable PcapNgBlock parseBlock() throws IOException, BadPcapFileException {
-        long position = getFileChannel().position();
-        if (getFileChannel().size() - position < PcapNgFileValues.BLOCK_HEADER_SIZE) {
+        long position = getPosition();
+        if (getRemaining() < PcapNgFileValues.BLOCK_HEADER_SIZE) {
             return null; // End of file reached
         }
-        ByteOrder byteOrder = getByteOrder();
 
-        ByteBuffer blockHeader = ByteBuffer.allocate(PcapNgFileValues.BLOCK_HEADER_SIZE);
-        blockHeader.order(byteOrder);
         // Read block header from the current position based on byte order
-        getFileChannel().read(blockHeader);
-        blockHeader.flip();
+        ByteBuffer blockHeader = readBuffer(PcapNgFileValues.BLOCK_HEADER_SIZE);
         // Get block type
         int blockType = blockHeader.getInt();
         // Get block length
         int blockLength = blockHeader.getInt();
+        int bodyLength = blockLength - PcapNgFileValues.BLOCK_HEADER_SIZE - PcapNgFileValues.BLOCK_FOOTER_SIZE;
+        if (bodyLength < 0 || getRemaining() < bodyLength + PcapNgFileValues.BLOCK_FOOTER_SIZE) {
+            throw new BadPcapFileException("Invalid Block Total Length"); //$NON-NLS-1$
+        }
 
-        // Read the body of the block or packet data
-        ByteBuffer blockBody = ByteBuffer.allocate(blockLength - PcapNgFileValues.BLOCK_HEADER_SIZE - PcapNgFileValues.BLOCK_FOOTER_SIZE);
-        blockBody.order(byteOrder);
-        // Read block body from the current position based on byte order
-        getFileChannel().read(blockBody);
-        blockBody.flip();
+        // Read the body of the block or packet data, based on byte order
+        ByteBuffer blockBody = readBuffer(bodyLength);
 
-        ByteBuffer blockFooter = ByteBuffer.allocate(PcapNgFileValues.BLOCK_FOOTER_SIZE);
-        blockFooter.order(byteOrder);
-        getFileChannel().read(blockFooter);
-        blockFooter.flip();
+        ByteBuffer blockFooter = readBuffer(PcapNgFileValues.BLOCK_FOOTER_SIZE);
         int blockLengthFooter = blockFooter.getInt();
         if (blockLengthFooter != blockLength) {
             throw new BadPcapFileException("Inconsistent Block Total Length"); //$NON-NLS-1$
@@ -352,27 +373,23 @@ public class PcapNgFile extends PcapFile {
 
     @Override
     public synchronized boolean skipNextPacket() throws IOException, BadPcapFileException {
-        ByteOrder byteOrder = getByteOrder();
-        long position = getFileChannel().position();
-        while (getFileChannel().size() - position >= PcapNgFileValues.BLOCK_HEADER_SIZE) {
-            ByteBuffer blockHeader = ByteBuffer.allocate(PcapNgFileValues.BLOCK_HEADER_SIZE);
-            getFileChannel().read(blockHeader);
-            blockHeader.flip();
-            blockHeader.order(byteOrder);
+        long position = getPosition();
+        while (getRemaining() >= PcapNgFileValues.BLOCK_HEADER_SIZE) {
+            ByteBuffer blockHeader = readBuffer(PcapNgFileValues.BLOCK_HEADER_SIZE);
             // Get block type
             int blockType = blockHeader.getInt();
             // Get block length
             int blockLength = blockHeader.getInt();
 
             if (blockType == PcapNgFileValues.IDB) {
-                getFileChannel().position(position);
+                setPosition(position);
                 PcapNgBlock block = parseBlock();
                 if (block != null) {
                     parseIDB(block);
                 }
             }
 
-            getFileChannel().position(position + blockLength);
+            setPosition(position + blockLength);
             if (blockType == PcapNgFileValues.SHB) {
                 break; // ignore other sections
             }
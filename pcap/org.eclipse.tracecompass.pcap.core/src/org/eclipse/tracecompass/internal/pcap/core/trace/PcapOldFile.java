@@ -18,7 +18,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.file.Path;
-import java.util.TreeMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.pcap.core.packet.BadPacketException;
@@ -57,13 +56,12 @@ public class PcapOldFile extends PcapFile {
 
         ByteOrder byteOrder;
 
-        TreeMap<Long, Long> fileIndex = getFileIndex();
+        PcapPacketIndex fileIndex = getFileIndex();
         // Parse the global header.
         // Read the magic number (4 bytes) from the input stream
         // and determine the mode (big endian or little endian)
-        ByteBuffer globalHeader = ByteBuffer.allocate(PcapFileValues.GLOBAL_HEADER_SIZE);
-        getFileChannel().read(globalHeader);
-        globalHeader.flip();
+        ByteBuffer globalHeader = readBuffer(PcapFileValues.GLOBAL_HEADER_SIZE);
+        globalHeader.order(ByteOrder.BIG_ENDIAN);
         int magicNumber = globalHeader.getInt();
 
         switch (magicNumber) {
@@ -99,7 +97,7 @@ public class PcapOldFile extends PcapFile {
         fSnapshotLength = ConversionHelper.unsignedIntToLong(globalHeader.getInt());
         fDataLinkType = ConversionHelper.unsignedIntToLong(globalHeader.getInt());
 
-        fileIndex.put(getCurrentRank(), getFileChannel().position());
+        fileIndex.put(getCurrentRank(), getPosition());
         // Data initialization
         init(byteOrder, fMajorVersion, fMinorVersion);
     }
@@ -118,23 +116,20 @@ public class PcapOldFile extends PcapFile {
     public synchronized @Nullable PcapOldPacket parseNextPacket() throws IOException, BadPcapFileException, BadPacketException {
 
         // Parse the packet header
-        if (getFileChannel().size() - getFileChannel().position() == 0) {
+        long remaining = getRemaining();
+        if (remaining == 0) {
             return null;
         }
-        if (getFileChannel().size() - getFileChannel().position() < PcapFileValues.PACKET_HEADER_SIZE) {
+        if (remaining < PcapFileValues.PACKET_HEADER_SIZE) {
             throw new BadPcapFileException("A pcap header is invalid."); //$NON-NLS-1$
         }
 
-        ByteBuffer pcapPacketHeader = ByteBuffer.allocate(PcapFileValues.PACKET_HEADER_SIZE);
-        pcapPacketHeader.clear();
-        pcapPacketHeader.order(getByteOrder());
-        getFileChannel().read(pcapPacketHeader);
-        pcapPacketHeader.flip();
+        ByteBuffer pcapPacketHeader = readBuffer(PcapFileValues.PACKET_HEADER_SIZE);
 
         pcapPacketHeader.position(PcapFileValues.INCLUDED_LENGTH_POSITION);
         long includedPacketLength = ConversionHelper.unsignedIntToLong(pcapPacketHeader.getInt());
 
-        if (getFileChannel().size() - getFileChannel().position() < includedPacketLength) {
+        if (remaining - PcapFileValues.PACKET_HEADER_SIZE < includedPacketLength) {
             throw new BadPcapFileException("A packet header is invalid."); //$NON-NLS-1$
         }
 
@@ -142,16 +137,11 @@ public class PcapOldFile extends PcapFile {
             throw new BadPacketException("Packets that are bigger than 2^31-1 bytes are not supported."); //$NON-NLS-1$
         }
 
-        ByteBuffer pcapPacketData = ByteBuffer.allocate((int) includedPacketLength);
-        pcapPacketData.clear();
-        pcapPacketData.order(getByteOrder());
-        getFileChannel().read(pcapPacketData);
+        ByteBuffer pcapPacketData = readBuffer((int) includedPacketLength);
 
-        pcapPacketData.flip();
-
-        TreeMap<Long, Long> fFileIndex = getFileIndex();
+        PcapPacketIndex fFileIndex = getFileIndex();
         setCurrentRank(getCurrentRank()+1);
-        fFileIndex.put(getCurrentRank(), getFileChannel().position());
+        fFileIndex.put(getCurrentRank(), getPosition());
 
         return new PcapOldPacket(this, pcapPacketHeader, pcapPacketData, getCurrentRank() - 1);
 
@@ -161,30 +151,27 @@ public class PcapOldFile extends PcapFile {
     public synchronized boolean skipNextPacket() throws IOException, BadPcapFileException {
 
         // Parse the packet header
-        if (getFileChannel().size() - getFileChannel().position() == 0) {
+        long remaining = getRemaining();
+        if (remaining == 0) {
             return false;
         }
-        if (getFileChannel().size() - getFileChannel().position() < PcapFileValues.GLOBAL_HEADER_SIZE) {
+        if (remaining < PcapFileValues.GLOBAL_HEADER_SIZE) {
             throw new BadPcapFileException("A pcap header is invalid."); //$NON-NLS-1$
         }
 
-        ByteBuffer pcapPacketHeader = ByteBuffer.allocate(PcapFileValues.PACKET_HEADER_SIZE);
-        pcapPacketHeader.clear();
-        pcapPacketHeader.order(getByteOrder());
-        getFileChannel().read(pcapPacketHeader);
-        pcapPacketHeader.flip();
+        ByteBuffer pcapPacketHeader = readBuffer(PcapFileValues.PACKET_HEADER_SIZE);
         pcapPacketHeader.position(PcapFileValues.INCLUDED_LENGTH_POSITION);
         long includedPacketLength = ConversionHelper.unsignedIntToLong(pcapPacketHeader.getInt());
 
-        if (getFileChannel().size() - getFileChannel().position() < includedPacketLength) {
+        if (remaining - PcapFileValues.PACKET_HEADER_SIZE < includedPacketLength) {
             throw new BadPcapFileException("A packet header is invalid."); //$NON-NLS-1$
         }
 
-        getFileChannel().position(getFileChannel().position() + includedPacketLength);
+        setPosition(getPosition() + includedPacketLength);
 
-        TreeMap<Long, Long> fFileIndex = getFileIndex();
+        PcapPacketIndex fFileIndex = getFileIndex();
         setCurrentRank(getCurrentRank() + 1);
-        fFileIndex.put(getCurrentRank(), getFileChannel().position());
+        fFileIndex.put(getCurrentRank(), getPosition());
         return true;
     }
 
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.pcap.core.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Index of the file positions of the packets of a pcap/pcapNg file, by rank.
+ * The ranks are discovered sequentially, so the index is a dense array of
+ * positions for ranks 0 to {@link #size()} - 1, which costs 8 bytes per packet
+ * and gives the position of any known rank in constant time.
+ * <p>
+ * The index can be saved to a file next to the trace and loaded back by
+ * mapping it, so that reopening a trace does not need to skip through the
+ * packets again.
+ */
+public class PcapPacketIndex {
+
+    private static final int MAGIC = 0x50434958;
+    private static final int VERSION = 1;
+    /* magic, version, trace size, trace modification time, total packets, count */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 4 * Long.BYTES;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int WRITE_CHUNK = 1 << 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private long[] fPositions = new long[INITIAL_CAPACITY];
+    private int fSize = 0;
+    private int fSavedSize = 0;
+
+    /**
+     * Get the position of a packet
+     *
+     * @param rank
+     *            The rank of the packet
+     * @return The position of the packet in the file, or -1 if the rank is not
+     *         indexed yet
+     */
+    public synchronized long getPosition(long rank) {
+        if (rank < 0 || rank >= fSize) {
+            return -1;
+        }
+        return fPositions[(int) rank];
+    }
+
+    /**
+     * Set the position of a packet. Only the ranks already indexed and the
+     * rank following the last indexed one can be set, other ranks are ignored.
+     *
+     * @param rank
+     *            The rank of the packet
+     * @param position
+     *            The position of the packet in the file
+     */
+    public synchronized void put(long rank, long position) {
+        if (rank < 0 || rank > fSize || rank >= MAX_CAPACITY) {
+            return;
+        }
+        int index = (int) rank;
+        if (index == fSize) {
+            if (fSize == fPositions.length) {
+                fPositions = Arrays.copyOf(fPositions, (int) Math.min(MAX_CAPACITY, 2L * fPositions.length));
+            }
+            fSize++;
+        }
+        fPositions[index] = position;
+    }
+
+    /**
+     * Get the greatest indexed rank lower than or equal to a rank
+     *
+     * @param rank
+     *            The rank
+     * @return The closest indexed rank, or -1 if the index is empty
+     */
+    public synchronized long floorRank(long rank) {
+        return Math.min(rank, fSize - 1L);
+    }
+
+    /**
+     * Get the number of indexed packets
+     *
+     * @return The number of ranks in the index
+     */
+    public synchronized long size() {
+        return fSize;
+    }
+
+    /**
+     * Whether ranks were added since the index was loaded or last saved
+     *
+     * @return true if the index needs to be saved
+     */
+    public synchronized boolean isDirty() {
+        return fSize > fSavedSize;
+    }
+
+    /**
+     * Save the index to a file
+     *
+     * @param indexFile
+     *            The file to write
+     * @param traceSize
+     *            The size of the indexed trace file
+     * @param traceModified
+     *            The modification time of the indexed trace file
+     * @param totalPackets
+     *            The total number of packets of the trace, or -1 if unknown
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public synchronized void save(Path indexFile, long traceSize, long traceModified, long totalPackets) throws IOException {
+        Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(traceSize);
+            header.putLong(traceModified);
+            header.putLong(totalPackets);
+            header.putLong(fSize);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.allocate(WRITE_CHUNK * Long.BYTES);
+            for (int start = 0; start < fSize; start += WRITE_CHUNK) {
+                int length = Math.min(WRITE_CHUNK, fSize - start);
+                body.clear();
+                body.asLongBuffer().put(fPositions, start, length);
+                body.limit(length * Long.BYTES);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+        }
+        Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        fSavedSize = fSize;
+    }
+
+    /**
+     * Load the index from a file. Nothing is loaded if the file was written
+     * for a different version of the trace file.
+     *
+     * @param indexFile
+     *            The file to read
+     * @param traceSize
+     *            The size of the trace file
+     * @param traceModified
+     *            The modification time of the trace file
+     * @return The total number of packets saved with the index, -1 if it was
+     *         unknown, or -2 if the index file does not match the trace
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public synchronized long load(Path indexFile, long traceSize, long traceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return -2;
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION ||
+                    buffer.getLong() != traceSize || buffer.getLong() != traceModified) {
+                return -2;
+            }
+            long totalPackets = buffer.getLong();
+            long count = buffer.getLong();
+            if (count < 0 || count > MAX_CAPACITY || HEADER_SIZE + count * Long.BYTES != fileSize) {
+                return -2;
+            }
+            LongBuffer positions = buffer.asLongBuffer();
+            int size = (int) count;
+            if (size > fPositions.length) {
+                fPositions = Arrays.copyOf(fPositions, size);
+            }
+            positions.get(fPositions, 0, size);
+            fSize = Math.max(fSize, size);
+            fSavedSize = size;
+            return totalPackets;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.pcap.core.tests.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.tracecompass.internal.tmf.pcap.core.analysis.PacketFlowIndex;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.event.PacketFlow;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit that test the PacketFlowIndex class.
+ */
+public class PacketFlowIndexTest {
+
+    private Path fTraceFile;
+    private Path fIndexFile;
+
+    /**
+     * Create a fake capture file
+     *
+     * @throws IOException
+     *             If the files cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fTraceFile = Files.createTempFile("flows", ".pcap");
+        fIndexFile = Files.createTempFile("flows", ".idx");
+        byte[] content = new byte[10000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(fTraceFile, content);
+    }
+
+    /**
+     * Delete the files
+     *
+     * @throws IOException
+     *             If the files cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fTraceFile);
+        Files.deleteIfExists(fIndexFile);
+    }
+
+    private PacketFlowIndex saveAndLoad() throws IOException {
+        long size = Files.size(fTraceFile);
+        long modified = Files.getLastModifiedTime(fTraceFile).toMillis();
+        Map<TmfPcapProtocol, List<PacketFlow>> flows = new EnumMap<>(TmfPcapProtocol.class);
+        new PacketFlowIndex(size, modified, PacketFlowIndex.computeTailChecksum(fTraceFile, size), 42, flows).save(fIndexFile);
+        PacketFlowIndex index = PacketFlowIndex.load(fIndexFile);
+        assertNotNull(index);
+        return index;
+    }
+
+    /**
+     * Test that an unchanged file is up to date
+     *
+     * @throws IOException
+     *             If the files cannot be read
+     */
+    @Test
+    public void testUpToDate() throws IOException {
+        PacketFlowIndex index = saveAndLoad();
+        assertEquals(42, index.getNbPackets());
+        assertTrue(index.getFlows(TmfPcapProtocol.TCP).isEmpty());
+        assertEquals(PacketFlowIndex.State.UP_TO_DATE, index.check(fTraceFile));
+    }
+
+    /**
+     * Test that a file with appended data has grown
+     *
+     * @throws IOException
+     *             If the files cannot be read or written
+     */
+    @Test
+    public void testGrown() throws IOException {
+        PacketFlowIndex index = saveAndLoad();
+        Files.write(fTraceFile, new byte[100], StandardOpenOption.APPEND);
+        assertEquals(PacketFlowIndex.State.GROWN, index.check(fTraceFile));
+    }
+
+    /**
+     * Test that a file modified before the indexed end is invalid
+     *
+     * @throws IOException
+     *             If the files cannot be read or written
+     */
+    @Test
+    public void testModified() throws IOException {
+        PacketFlowIndex index = saveAndLoad();
+        byte[] content = Files.readAllBytes(fTraceFile);
+        content[content.length - 1]++;
+        Files.write(fTraceFile, content);
+        Files.write(fTraceFile, new byte[100], StandardOpenOption.APPEND);
+        assertEquals(PacketFlowIndex.State.INVALID, index.check(fTraceFile));
+
+        Files.write(fTraceFile, new byte[10]);
+        assertEquals(PacketFlowIndex.State.INVALID, index.check(fTraceFile));
+    }
+
+    /**
+     * Test loading a file that is not a flow index
+     *
+     * @throws IOException
+     *             If the files cannot be read
+     */
+    @Test
+    public void testLoadInvalid() throws IOException {
+        assertNull(PacketFlowIndex.load(fTraceFile));
+        Files.delete(fIndexFile);
+        assertNull(PacketFlowIndex.load(fIndexFile));
+    }
+}
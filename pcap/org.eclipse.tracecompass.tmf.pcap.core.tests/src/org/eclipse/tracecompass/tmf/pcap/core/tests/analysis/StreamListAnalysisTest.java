@@ -22,6 +22,7 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import org.eclipse.tracecompass.internal.tmf.pcap.core.analysis.StreamListAnalysis;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.event.PacketFlow;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.event.TmfPacketStreamBuilder;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.trace.PcapTrace;
@@ -132,4 +133,51 @@ public class StreamListAnalysisTest {
         pcapTrace.dispose();
     }
 
+    /**
+     * Method that executes the analysis a second time and verifies that the
+     * flows are read back from the flow index.
+     *
+     * @throws TmfAnalysisException
+     *             Thrown when an analysis error occurs during the setup or
+     *             execution. Fails the test.
+     * @throws TmfTraceException
+     *             Thrown when the trace cannot be initialized. Fails the test.
+     */
+    @Test
+    public void executeAnalysisFromIndexTest() throws TmfAnalysisException, TmfTraceException {
+        PcapTestTrace trace = PcapTestTrace.MOSTLY_TCP;
+        assumeTrue(trace.exists());
+        String path = trace.getPath().toString();
+        PcapTrace pcapTrace = new PcapTrace();
+        pcapTrace.initTrace(null, path, null);
+
+        int[] nbStreams = new int[2];
+        long[] nbPackets = new long[2];
+        for (int i = 0; i < 2; i++) {
+            StreamListAnalysis analysis = new StreamListAnalysis();
+            analysis.setId(StreamListAnalysis.ID);
+            analysis.setTrace(pcapTrace);
+            analysis.schedule();
+            analysis.waitForCompletion();
+            assertTrue(analysis.isFinished());
+
+            TmfPacketStreamBuilder builder = analysis.getBuilder(TmfPcapProtocol.TCP);
+            if (builder == null) {
+                fail("The PacketStreamBuilder is null!");
+                return;
+            }
+            nbStreams[i] = builder.getNbStreams();
+            for (PacketFlow flow : analysis.getFlows(TmfPcapProtocol.TCP, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                nbPackets[i] += flow.getNbPacketsAtoB() + flow.getNbPacketsBtoA();
+            }
+            analysis.dispose();
+        }
+        assertEquals(2, nbStreams[1]);
+        assertEquals(nbStreams[0], nbStreams[1]);
+        assertEquals(nbPackets[0], nbPackets[1]);
+        assertTrue(nbPackets[1] > 0);
+
+        pcapTrace.dispose();
+    }
+
 }
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.pcap.core.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.event.PacketFlow;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
+
+/**
+ * The flow table of a pcap file, as saved by the {@link StreamListAnalysis}:
+ * the flows of each protocol, along with the number of packets that were read
+ * to build them and the state of the file at that moment.
+ * <p>
+ * Capture files only grow at the end, so when the file is bigger than it was
+ * and the bytes preceding the old end are unchanged, the table is still valid
+ * for the first packets, and only the following packets need to be read.
+ */
+public final class PacketFlowIndex {
+
+    /** State of a pcap file compared to the one that was indexed */
+    public enum State {
+        /** The file did not change, the index is complete */
+        UP_TO_DATE,
+        /** Packets were added at the end of the file */
+        GROWN,
+        /** The file changed, the index cannot be used */
+        INVALID
+    }
+
+    private static final int MAGIC = 0x50464958;
+    private static final int VERSION = 1;
+    /* Number of bytes before the indexed end of file used to detect changes */
+    private static final int TAIL_SIZE = 4096;
+
+    private final long fTraceSize;
+    private final long fTraceModified;
+    private final long fTailChecksum;
+    private final long fNbPackets;
+    private final Map<TmfPcapProtocol, List<PacketFlow>> fFlows;
+
+    /**
+     * Constructor
+     *
+     * @param traceSize
+     *            The size of the pcap file when it was indexed
+     * @param traceModified
+     *            The modification time of the pcap file when it was indexed
+     * @param tailChecksum
+     *            The checksum of the end of the pcap file, see
+     *            {@link #computeTailChecksum(Path, long)}
+     * @param nbPackets
+     *            The number of packets read to build the flows
+     * @param flows
+     *            The flows of each protocol, in ID order
+     */
+    public PacketFlowIndex(long traceSize, long traceModified, long tailChecksum, long nbPackets, Map<TmfPcapProtocol, List<PacketFlow>> flows) {
+        fTraceSize = traceSize;
+        fTraceModified = traceModified;
+        fTailChecksum = tailChecksum;
+        fNbPackets = nbPackets;
+        fFlows = flows;
+    }
+
+    /**
+     * Get the number of packets read to build the flows
+     *
+     * @return The number of indexed packets
+     */
+    public long getNbPackets() {
+        return fNbPackets;
+    }
+
+    /**
+     * Get the flows of a protocol
+     *
+     * @param protocol
+     *            The protocol
+     * @return The flows, in ID order
+     */
+    public List<PacketFlow> getFlows(TmfPcapProtocol protocol) {
+        List<PacketFlow> flows = fFlows.get(protocol);
+        return flows == null ? Collections.emptyList() : flows;
+    }
+
+    /**
+     * Compare the pcap file with the file that was indexed
+     *
+     * @param traceFile
+     *            The pcap file
+     * @return The state of the file
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public State check(Path traceFile) throws IOException {
+        long size = Files.size(traceFile);
+        if (size == fTraceSize && Files.getLastModifiedTime(traceFile).toMillis() == fTraceModified) {
+            return State.UP_TO_DATE;
+        }
+        if (size < fTraceSize || computeTailChecksum(traceFile, fTraceSize) != fTailChecksum) {
+            return State.INVALID;
+        }
+        return size == fTraceSize ? State.UP_TO_DATE : State.GROWN;
+    }
+
+    /**
+     * Compute the checksum of the bytes that precede a position in a file
+     *
+     * @param file
+     *            The file
+     * @param end
+     *            The end of the checked bytes
+     * @return The checksum
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public static long computeTailChecksum(Path file, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = Math.max(0, end - TAIL_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Save the index to a file
+     *
+     * @param indexFile
+     *            The file to write
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void save(Path indexFile) throws IOException {
+        Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fTraceSize);
+            out.writeLong(fTraceModified);
+            out.writeLong(fTailChecksum);
+            out.writeLong(fNbPackets);
+            out.writeInt(fFlows.size());
+            for (Map.Entry<TmfPcapProtocol, List<PacketFlow>> entry : fFlows.entrySet()) {
+                out.writeUTF(entry.getKey().name());
+                out.writeInt(entry.getValue().size());
+                for (PacketFlow flow : entry.getValue()) {
+                    flow.write(out);
+                }
+            }
+        }
+        Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Load an index from a file
+     *
+     * @param indexFile
+     *            The file to read
+     * @return The index, or null if the file does not exist or was written by
+     *         another version
+     * @throws IOException
+     *             If the file cannot be read
+     */
+    public static @Nullable PacketFlowIndex load(Path indexFile) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long traceSize = in.readLong();
+            long traceModified = in.readLong();
+            long tailChecksum = in.readLong();
+            long nbPackets = in.readLong();
+            int nbProtocols = in.readInt();
+            Map<TmfPcapProtocol, List<PacketFlow>> flows = new EnumMap<>(TmfPcapProtocol.class);
+            for (int i = 0; i < nbProtocols; i++) {
+                TmfPcapProtocol protocol;
+                try {
+                    protocol = TmfPcapProtocol.valueOf(in.readUTF());
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                int nbFlows = in.readInt();
+                if (nbFlows < 0) {
+                    return null;
+                }
+                List<PacketFlow> protocolFlows = new ArrayList<>(nbFlows);
+                for (int j = 0; j < nbFlows; j++) {
+                    protocolFlows.add(PacketFlow.read(in, protocol));
+                }
+                flows.put(protocol, protocolFlows);
+            }
+            return new PacketFlowIndex(traceSize, traceModified, tailChecksum, nbPackets, flows);
+        }
+    }
+}
@@ -14,6 +14,12 @@
 
 package org.eclipse.tracecompass.internal.tmf.pcap.core.analysis;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,10 +27,14 @@ import java.util.Map;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.Activator;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.event.PacketFlow;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.event.PcapEvent;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.event.TmfPacketStreamBuilder;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.trace.PcapTrace;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
@@ -32,10 +42,17 @@ import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
 
 /**
  * A pcap-specific analysis that parse an entire trace to find all the streams.
+ * <p>
+ * For a pcap trace, the flows found are saved in a flow index in the
+ * supplementary files of the trace. When the trace is opened again, the flows
+ * are read back from the index instead of parsing the trace, and if packets
+ * were appended to the file, only the new packets are parsed. The flows of
+ * each protocol can then be queried by time range from a segment store.
  *
  * @author Vincent Perot
  */
@@ -46,8 +63,12 @@ public class StreamListAnalysis extends TmfAbstractAnalysisModule {
      */
     public static final String ID = "org.eclipse.linuxtools.tmf.pcap.core.analysis.stream"; //$NON-NLS-1$
 
+    private static final String FLOW_INDEX_FILE_NAME = "stream-flows.idx"; //$NON-NLS-1$
+
     private @Nullable ITmfEventRequest fRequest;
     private final Map<TmfPcapProtocol, TmfPacketStreamBuilder> fBuilders;
+    private final Map<TmfPcapProtocol, ISegmentStore<PacketFlow>> fFlowStores = new EnumMap<>(TmfPcapProtocol.class);
+    private volatile boolean fLoadedFromIndex = false;
 
     /**
      * The default constructor. It initializes all variables.
@@ -101,9 +122,38 @@ public class StreamListAnalysis extends TmfAbstractAnalysisModule {
         if ((request != null) && (!request.isCompleted())) {
             request.cancel();
         }
+        fLoadedFromIndex = false;
+        synchronized (fFlowStores) {
+            fFlowStores.clear();
+        }
+
+        /* Start from the flows saved the last time, if the file allows it */
+        long startRank = 0;
+        Path traceFile = null;
+        Path indexFile = null;
+        if (trace instanceof PcapTrace) {
+            traceFile = Paths.get(trace.getPath());
+            indexFile = Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), FLOW_INDEX_FILE_NAME);
+            startRank = restoreFlows(traceFile, indexFile);
+            if (startRank < 0) {
+                fLoadedFromIndex = true;
+                return true;
+            }
+        }
+        long traceSize = 0;
+        long traceModified = 0;
+        if (traceFile != null) {
+            try {
+                traceSize = Files.size(traceFile);
+                traceModified = Files.getLastModifiedTime(traceFile).toMillis();
+            } catch (IOException e) {
+                Activator.logError("Error reading the attributes of " + traceFile, e); //$NON-NLS-1$
+                indexFile = null;
+            }
+        }
 
         request = new TmfEventRequest(PcapEvent.class,
-                TmfTimeRange.ETERNITY, 0L, ITmfEventRequest.ALL_DATA,
+                TmfTimeRange.ETERNITY, startRank, ITmfEventRequest.ALL_DATA,
                 ITmfEventRequest.ExecutionType.BACKGROUND) {
 
             @Override
@@ -129,8 +179,55 @@ public class StreamListAnalysis extends TmfAbstractAnalysisModule {
             return false;
         }
 
-        return !mon.isCanceled() && !request.isCancelled() && !request.isFailed();
+        boolean completed = !mon.isCanceled() && !request.isCancelled() && !request.isFailed();
+        if (completed && traceFile != null && indexFile != null) {
+            saveFlows(traceFile, indexFile, traceSize, traceModified, startRank + request.getNbRead());
+        }
+        return completed;
+
+    }
 
+    /**
+     * Fill the builders with the flows of the flow index
+     *
+     * @return -1 if the index is complete, otherwise the rank of the first
+     *         packet that is not indexed
+     */
+    private long restoreFlows(Path traceFile, Path indexFile) {
+        PacketFlowIndex index = null;
+        PacketFlowIndex.State state = PacketFlowIndex.State.INVALID;
+        try {
+            index = PacketFlowIndex.load(indexFile);
+            if (index != null) {
+                state = index.check(traceFile);
+            }
+        } catch (IOException e) {
+            Activator.logError("Error loading the flow index of " + traceFile, e); //$NON-NLS-1$
+        }
+        for (TmfPacketStreamBuilder builder : fBuilders.values()) {
+            if (index != null && state != PacketFlowIndex.State.INVALID) {
+                builder.setIndexedFlows(index.getFlows(builder.getProtocol()));
+            } else {
+                builder.setIndexedFlows(Collections.emptyList());
+            }
+        }
+        if (index == null || state == PacketFlowIndex.State.INVALID) {
+            return 0;
+        }
+        return state == PacketFlowIndex.State.UP_TO_DATE ? -1 : index.getNbPackets();
+    }
+
+    private void saveFlows(Path traceFile, Path indexFile, long traceSize, long traceModified, long nbPackets) {
+        Map<TmfPcapProtocol, List<PacketFlow>> flows = new EnumMap<>(TmfPcapProtocol.class);
+        for (TmfPacketStreamBuilder builder : fBuilders.values()) {
+            flows.put(builder.getProtocol(), builder.getFlows());
+        }
+        try {
+            long tailChecksum = PacketFlowIndex.computeTailChecksum(traceFile, traceSize);
+            new PacketFlowIndex(traceSize, traceModified, tailChecksum, nbPackets, flows).save(indexFile);
+        } catch (IOException e) {
+            Activator.logError("Error saving the flow index of " + traceFile, e); //$NON-NLS-1$
+        }
     }
 
     @Override
@@ -153,12 +250,59 @@ public class StreamListAnalysis extends TmfAbstractAnalysisModule {
         return fBuilders.get(protocol);
     }
 
+    /**
+     * Getter method that returns the flows of a protocol that are active in a
+     * time range. The flows are only available once the analysis is finished.
+     *
+     * @param protocol
+     *            The specified protocol.
+     * @param start
+     *            The start of the time range, in nanoseconds.
+     * @param end
+     *            The end of the time range, in nanoseconds.
+     * @return The flows that intersect the time range.
+     */
+    public Iterable<PacketFlow> getFlows(TmfPcapProtocol protocol, long start, long end) {
+        ISegmentStore<PacketFlow> store = getFlowStore(protocol);
+        if (store == null) {
+            return Collections.emptyList();
+        }
+        return store.getIntersectingElements(start, end);
+    }
+
+    /**
+     * Getter method that returns the segment store of the flows of a
+     * protocol.
+     *
+     * @param protocol
+     *            The specified protocol.
+     * @return The segment store, or null if the analysis is not finished or
+     *         the protocol does not support streams.
+     */
+    public @Nullable ISegmentStore<PacketFlow> getFlowStore(TmfPcapProtocol protocol) {
+        TmfPacketStreamBuilder builder = fBuilders.get(protocol);
+        if (builder == null || !isFinished()) {
+            return null;
+        }
+        synchronized (fFlowStores) {
+            ISegmentStore<PacketFlow> store = fFlowStores.get(protocol);
+            if (store == null) {
+                store = SegmentStoreFactory.createSegmentStore(builder.getFlows().toArray());
+                fFlowStores.put(protocol, store);
+            }
+            return store;
+        }
+    }
+
     /**
      * Method that indicates if the analysis is still running or has finished.
      *
      * @return Whether the analysis is finished or not.
      */
     public boolean isFinished() {
+        if (fLoadedFromIndex) {
+            return true;
+        }
         ITmfEventRequest req = fRequest;
         if (req == null) {
             return false;
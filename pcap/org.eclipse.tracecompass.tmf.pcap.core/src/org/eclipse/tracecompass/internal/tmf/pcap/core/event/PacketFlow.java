@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.pcap.core.event;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.eclipse.tracecompass.internal.pcap.core.stream.PacketStream;
+import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+
+/**
+ * Immutable summary of a stream (the flow between two endpoints of a
+ * protocol): its packet and byte counts in each direction, its time range and
+ * the range of ranks of its packets. Flows are segments spanning the time
+ * range of the stream, so that the flows active in a time range can be
+ * queried from a segment store. Unlike a {@link PacketStream}, a flow does not
+ * keep the endpoint objects, only their string representation, so it can be
+ * saved and read back without the packets.
+ */
+public final class PacketFlow implements ISegment {
+
+    private static final long serialVersionUID = -6083327127453364410L;
+
+    private final TmfPcapProtocol fProtocol;
+    private final int fId;
+    private final String fFirstEndpoint;
+    private final String fSecondEndpoint;
+    private final long fNbPacketsAtoB;
+    private final long fNbPacketsBtoA;
+    private final long fNbBytesAtoB;
+    private final long fNbBytesBtoA;
+    private final long fStartTime;
+    private final long fEndTime;
+    private final long fFirstRank;
+    private final long fLastRank;
+
+    private PacketFlow(TmfPcapProtocol protocol, int id, String firstEndpoint, String secondEndpoint,
+            long nbPacketsAtoB, long nbPacketsBtoA, long nbBytesAtoB, long nbBytesBtoA,
+            long startTime, long endTime, long firstRank, long lastRank) {
+        fProtocol = protocol;
+        fId = id;
+        fFirstEndpoint = firstEndpoint;
+        fSecondEndpoint = secondEndpoint;
+        fNbPacketsAtoB = nbPacketsAtoB;
+        fNbPacketsBtoA = nbPacketsBtoA;
+        fNbBytesAtoB = nbBytesAtoB;
+        fNbBytesBtoA = nbBytesBtoA;
+        fStartTime = startTime;
+        fEndTime = endTime;
+        fFirstRank = firstRank;
+        fLastRank = lastRank;
+    }
+
+    /**
+     * Create the flow summarizing the current state of a stream
+     *
+     * @param protocol
+     *            The protocol of the stream
+     * @param id
+     *            The ID of the flow
+     * @param stream
+     *            The stream
+     * @return The flow
+     */
+    public static PacketFlow create(TmfPcapProtocol protocol, int id, PacketStream stream) {
+        return new PacketFlow(protocol, id,
+                stream.getEndpointPair().getFirstEndpoint().toString(),
+                stream.getEndpointPair().getSecondEndpoint().toString(),
+                stream.getNbPacketsAtoB(), stream.getNbPacketsBtoA(),
+                stream.getNbBytesAtoB(), stream.getNbBytesBtoA(),
+                stream.getStartTime(), stream.getStopTime(),
+                stream.getFirstRank(), stream.getLastRank());
+    }
+
+    /**
+     * Get the key identifying the flow between two endpoints, whatever the
+     * direction
+     *
+     * @param firstEndpoint
+     *            The string representation of an endpoint
+     * @param secondEndpoint
+     *            The string representation of the other endpoint
+     * @return The key of the flow
+     */
+    public static String getKey(String firstEndpoint, String secondEndpoint) {
+        if (firstEndpoint.compareTo(secondEndpoint) <= 0) {
+            return firstEndpoint + " <--> " + secondEndpoint; //$NON-NLS-1$
+        }
+        return secondEndpoint + " <--> " + firstEndpoint; //$NON-NLS-1$
+    }
+
+    /**
+     * Get the key identifying this flow, see {@link #getKey(String, String)}
+     *
+     * @return The key of the flow
+     */
+    public String getKey() {
+        return getKey(fFirstEndpoint, fSecondEndpoint);
+    }
+
+    /**
+     * Combine this flow with the packets of the same flow that come after it
+     * in the file. The resulting flow has the ID and endpoint order of this
+     * flow.
+     *
+     * @param next
+     *            The flow of the following packets, between the same
+     *            endpoints
+     * @return The combined flow
+     */
+    public PacketFlow append(PacketFlow next) {
+        boolean sameDirection = fFirstEndpoint.equals(next.fFirstEndpoint);
+        return new PacketFlow(fProtocol, fId, fFirstEndpoint, fSecondEndpoint,
+                fNbPacketsAtoB + (sameDirection ? next.fNbPacketsAtoB : next.fNbPacketsBtoA),
+                fNbPacketsBtoA + (sameDirection ? next.fNbPacketsBtoA : next.fNbPacketsAtoB),
+                fNbBytesAtoB + (sameDirection ? next.fNbBytesAtoB : next.fNbBytesBtoA),
+                fNbBytesBtoA + (sameDirection ? next.fNbBytesBtoA : next.fNbBytesAtoB),
+                Math.min(fStartTime, next.fStartTime), Math.max(fEndTime, next.fEndTime),
+                Math.min(fFirstRank, next.fFirstRank), Math.max(fLastRank, next.fLastRank));
+    }
+
+    /**
+     * Get a copy of this flow with another ID
+     *
+     * @param id
+     *            The new ID
+     * @return The flow with the new ID
+     */
+    public PacketFlow withId(int id) {
+        if (id == fId) {
+            return this;
+        }
+        return new PacketFlow(fProtocol, id, fFirstEndpoint, fSecondEndpoint,
+                fNbPacketsAtoB, fNbPacketsBtoA, fNbBytesAtoB, fNbBytesBtoA,
+                fStartTime, fEndTime, fFirstRank, fLastRank);
+    }
+
+    /**
+     * Write this flow, the protocol is not written
+     *
+     * @param out
+     *            The output to write to
+     * @throws IOException
+     *             If the output cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(fId);
+        out.writeUTF(fFirstEndpoint);
+        out.writeUTF(fSecondEndpoint);
+        out.writeLong(fNbPacketsAtoB);
+        out.writeLong(fNbPacketsBtoA);
+        out.writeLong(fNbBytesAtoB);
+        out.writeLong(fNbBytesBtoA);
+        out.writeLong(fStartTime);
+        out.writeLong(fEndTime);
+        out.writeLong(fFirstRank);
+        out.writeLong(fLastRank);
+    }
+
+    /**
+     * Read a flow written by {@link #write(DataOutput)}
+     *
+     * @param in
+     *            The input to read from
+     * @param protocol
+     *            The protocol of the flow
+     * @return The flow
+     * @throws IOException
+     *             If the input cannot be read
+     */
+    public static PacketFlow read(DataInput in, TmfPcapProtocol protocol) throws IOException {
+        int id = in.readInt();
+        String firstEndpoint = in.readUTF();
+        String secondEndpoint = in.readUTF();
+        long nbPacketsAtoB = in.readLong();
+        long nbPacketsBtoA = in.readLong();
+        long nbBytesAtoB = in.readLong();
+        long nbBytesBtoA = in.readLong();
+        long startTime = in.readLong();
+        long endTime = in.readLong();
+        long firstRank = in.readLong();
+        long lastRank = in.readLong();
+        return new PacketFlow(protocol, id, firstEndpoint, secondEndpoint,
+                nbPacketsAtoB, nbPacketsBtoA, nbBytesAtoB, nbBytesBtoA,
+                startTime, endTime, firstRank, lastRank);
+    }
+
+    @Override
+    public long getStart() {
+        return fStartTime;
+    }
+
+    @Override
+    public long getEnd() {
+        return fEndTime;
+    }
+
+    /**
+     * Get the protocol of this flow
+     *
+     * @return The protocol
+     */
+    public TmfPcapProtocol getProtocol() {
+        return fProtocol;
+    }
+
+    /**
+     * Get the ID of this flow, unique for its protocol
+     *
+     * @return The ID
+     */
+    public int getID() {
+        return fId;
+    }
+
+    /**
+     * Get the first endpoint of this flow
+     *
+     * @return The string representation of the first endpoint
+     */
+    public String getFirstEndpoint() {
+        return fFirstEndpoint;
+    }
+
+    /**
+     * Get the second endpoint of this flow
+     *
+     * @return The string representation of the second endpoint
+     */
+    public String getSecondEndpoint() {
+        return fSecondEndpoint;
+    }
+
+    /**
+     * Get the number of packets going from the first endpoint to the second
+     *
+     * @return The number of packets from A to B
+     */
+    public long getNbPacketsAtoB() {
+        return fNbPacketsAtoB;
+    }
+
+    /**
+     * Get the number of packets going from the second endpoint to the first
+     *
+     * @return The number of packets from B to A
+     */
+    public long getNbPacketsBtoA() {
+        return fNbPacketsBtoA;
+    }
+
+    /**
+     * Get the number of bytes going from the first endpoint to the second
+     *
+     * @return The number of bytes from A to B
+     */
+    public long getNbBytesAtoB() {
+        return fNbBytesAtoB;
+    }
+
+    /**
+     * Get the number of bytes going from the second endpoint to the first
+     *
+     * @return The number of bytes from B to A
+     */
+    public long getNbBytesBtoA() {
+        return fNbBytesBtoA;
+    }
+
+    /**
+     * Get the rank of the first packet of this flow in the trace
+     *
+     * @return The rank of the first packet
+     */
+    public long getFirstRank() {
+        return fFirstRank;
+    }
+
+    /**
+     * Get the rank of the last packet of this flow in the trace
+     *
+     * @return The rank of the last packet
+     */
+    public long getLastRank() {
+        return fLastRank;
+    }
+
+    @Override
+    public String toString() {
+        return "Flow " + fProtocol.getShortName() + '.' + fId + ' ' + getKey() + //$NON-NLS-1$
+                ", Number of Packets: " + (fNbPacketsAtoB + fNbPacketsBtoA); //$NON-NLS-1$
+    }
+}
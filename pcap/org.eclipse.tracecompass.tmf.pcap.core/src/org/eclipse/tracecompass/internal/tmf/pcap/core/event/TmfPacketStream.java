@@ -20,14 +20,21 @@ import org.eclipse.tracecompass.internal.tmf.pcap.core.util.ProtocolConversion;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 
+import com.google.common.math.DoubleMath;
+
 /**
- * Class that wraps a Packet Stream.
+ * Class that wraps a Packet Stream. The stream is read through a
+ * {@link PacketFlow} snapshot, so it can also be a stream loaded from the flow
+ * index of the trace.
  *
  * @author Vincent Perot
  */
 public class TmfPacketStream {
 
-    private final PacketStream fPacketStream;
+    private static final double SECOND_TO_NANOSECOND = 1000000000.0;
+    private static final double DELTA = 0.000000001;
+
+    private final PacketFlow fFlow;
 
     /**
      * Class constructor.
@@ -36,7 +43,26 @@ public class TmfPacketStream {
      *            The stream to build the TmfPacketStream from.
      */
     public TmfPacketStream(PacketStream stream) {
-        fPacketStream = stream;
+        this(PacketFlow.create(ProtocolConversion.wrap(stream.getProtocol()), stream.getID(), stream));
+    }
+
+    /**
+     * Class constructor.
+     *
+     * @param flow
+     *            The flow to build the TmfPacketStream from.
+     */
+    public TmfPacketStream(PacketFlow flow) {
+        fFlow = flow;
+    }
+
+    /**
+     * Method that returns the flow summarizing this stream.
+     *
+     * @return The flow.
+     */
+    public PacketFlow getFlow() {
+        return fFlow;
     }
 
     /**
@@ -45,7 +71,7 @@ public class TmfPacketStream {
      * @return The first endpoint.
      */
     public String getFirstEndpoint() {
-        return fPacketStream.getEndpointPair().getFirstEndpoint().toString();
+        return fFlow.getFirstEndpoint();
     }
 
     /**
@@ -54,7 +80,7 @@ public class TmfPacketStream {
      * @return The second endpoint.
      */
     public String getSecondEndpoint() {
-        return fPacketStream.getEndpointPair().getSecondEndpoint().toString();
+        return fFlow.getSecondEndpoint();
     }
 
     /**
@@ -63,7 +89,7 @@ public class TmfPacketStream {
      * @return The ID of the packet stream.
      */
     public int getID() {
-        return fPacketStream.getID();
+        return fFlow.getID();
     }
 
     /**
@@ -72,7 +98,7 @@ public class TmfPacketStream {
      * @return The TmfProtocol of the packet stream.
      */
     public TmfPcapProtocol getProtocol() {
-        return ProtocolConversion.wrap(fPacketStream.getProtocol());
+        return fFlow.getProtocol();
     }
 
     /**
@@ -81,7 +107,7 @@ public class TmfPacketStream {
      * @return The number of packets from A to B.
      */
     public synchronized long getNbPacketsAtoB() {
-        return fPacketStream.getNbPacketsAtoB();
+        return fFlow.getNbPacketsAtoB();
     }
 
     /**
@@ -90,7 +116,7 @@ public class TmfPacketStream {
      * @return The number of packets from B to A.
      */
     public synchronized long getNbPacketsBtoA() {
-        return fPacketStream.getNbPacketsBtoA();
+        return fFlow.getNbPacketsBtoA();
     }
 
     /**
@@ -99,7 +125,7 @@ public class TmfPacketStream {
      * @return The total number of packets.
      */
     public synchronized long getNbPackets() {
-        return fPacketStream.getNbPackets();
+        return fFlow.getNbPacketsAtoB() + fFlow.getNbPacketsBtoA();
     }
 
     /**
@@ -108,7 +134,7 @@ public class TmfPacketStream {
      * @return The number of bytes from A to B.
      */
     public synchronized long getNbBytesAtoB() {
-        return fPacketStream.getNbBytesAtoB();
+        return fFlow.getNbBytesAtoB();
     }
 
     /**
@@ -117,7 +143,7 @@ public class TmfPacketStream {
      * @return The number of bytes from B to A.
      */
     public synchronized long getNbBytesBtoA() {
-        return fPacketStream.getNbBytesBtoA();
+        return fFlow.getNbBytesBtoA();
     }
 
     /**
@@ -126,7 +152,7 @@ public class TmfPacketStream {
      * @return The total number of bytes.
      */
     public synchronized long getNbBytes() {
-        return fPacketStream.getNbBytes();
+        return fFlow.getNbBytesAtoB() + fFlow.getNbBytesBtoA();
     }
 
     /**
@@ -135,7 +161,7 @@ public class TmfPacketStream {
      * @return The start time.
      */
     public synchronized ITmfTimestamp getStartTime() {
-        return TmfTimestamp.fromNanos(fPacketStream.getStartTime());
+        return TmfTimestamp.fromNanos(fFlow.getStart());
     }
 
     /**
@@ -144,7 +170,25 @@ public class TmfPacketStream {
      * @return The stop time.
      */
     public synchronized ITmfTimestamp getStopTime() {
-        return TmfTimestamp.fromNanos(fPacketStream.getStopTime());
+        return TmfTimestamp.fromNanos(fFlow.getEnd());
+    }
+
+    /**
+     * Get the rank of the first packet of this stream in the trace.
+     *
+     * @return The rank of the first packet.
+     */
+    public synchronized long getFirstRank() {
+        return fFlow.getFirstRank();
+    }
+
+    /**
+     * Get the rank of the last packet of this stream in the trace.
+     *
+     * @return The rank of the last packet.
+     */
+    public synchronized long getLastRank() {
+        return fFlow.getLastRank();
     }
 
     /**
@@ -153,7 +197,7 @@ public class TmfPacketStream {
      * @return The duration of this stream.
      */
     public synchronized double getDuration() {
-        return fPacketStream.getDuration();
+        return (fFlow.getEnd() - fFlow.getStart()) / SECOND_TO_NANOSECOND;
     }
 
     /**
@@ -162,7 +206,10 @@ public class TmfPacketStream {
      * @return the average byte per second from A to B.
      */
     public synchronized double getBPSAtoB() {
-        return fPacketStream.getBPSAtoB();
+        if (DoubleMath.fuzzyEquals(getDuration(), 0, DELTA)) {
+            return 0;
+        }
+        return fFlow.getNbBytesAtoB() / getDuration();
     }
 
     /**
@@ -171,7 +218,10 @@ public class TmfPacketStream {
      * @return the average byte per second from B to A.
      */
     public synchronized double getBPSBtoA() {
-        return fPacketStream.getBPSBtoA();
+        if (DoubleMath.fuzzyEquals(getDuration(), 0, DELTA)) {
+            return 0;
+        }
+        return fFlow.getNbBytesBtoA() / getDuration();
     }
 
 }
@@ -15,24 +15,38 @@
 package org.eclipse.tracecompass.internal.tmf.pcap.core.event;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import org.eclipse.tracecompass.internal.pcap.core.packet.Packet;
 import org.eclipse.tracecompass.internal.pcap.core.protocol.PcapProtocol;
 import org.eclipse.tracecompass.internal.pcap.core.protocol.pcap.PcapPacket;
+import org.eclipse.tracecompass.internal.pcap.core.stream.PacketStream;
 import org.eclipse.tracecompass.internal.pcap.core.stream.PacketStreamBuilder;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.protocol.TmfPcapProtocol;
 import org.eclipse.tracecompass.internal.tmf.pcap.core.util.ProtocolConversion;
 
 /**
- * Class that wraps a PacketStreamBuilder.
+ * Class that wraps a PacketStreamBuilder. The builder can start from the flows
+ * of a previous run, read from the flow index of the trace, in which case the
+ * packets added to the builder are appended to these flows.
  *
  * @author Vincent Perot
  */
 public class TmfPacketStreamBuilder {
 
+    private final TmfPcapProtocol fProtocol;
     private final PacketStreamBuilder fBuilder;
+    private final List<PacketFlow> fIndexedFlows = new ArrayList<>();
+    private final Map<String, Integer> fIndexedIds = new HashMap<>();
+    /* The streams of the builder in ID order, extended as streams are added */
+    private final List<PacketStream> fSortedStreams = new ArrayList<>();
+    /* The number of sorted streams that are not in an indexed flow */
+    private int fNbNewFlows = 0;
 
     /**
      * Constructor.
@@ -41,9 +55,80 @@ public class TmfPacketStreamBuilder {
      *            The protocol of the streams to build.
      */
     public TmfPacketStreamBuilder(TmfPcapProtocol protocol) {
+        fProtocol = protocol;
         fBuilder = new PacketStreamBuilder(ProtocolConversion.unwrap(protocol));
     }
 
+    /**
+     * Method that returns the protocol of the streams of this builder.
+     *
+     * @return The protocol.
+     */
+    public TmfPcapProtocol getProtocol() {
+        return fProtocol;
+    }
+
+    /**
+     * Method that resets this builder to the flows of a previous run. The
+     * streams built so far are discarded.
+     *
+     * @param flows
+     *            The flows, in ID order.
+     */
+    public synchronized void setIndexedFlows(Collection<PacketFlow> flows) {
+        fBuilder.clear();
+        fIndexedFlows.clear();
+        fIndexedIds.clear();
+        fSortedStreams.clear();
+        fNbNewFlows = 0;
+        for (PacketFlow flow : flows) {
+            PacketFlow indexed = flow.withId(fIndexedFlows.size());
+            fIndexedIds.put(indexed.getKey(), indexed.getID());
+            fIndexedFlows.add(indexed);
+        }
+    }
+
+    /**
+     * Method that returns a snapshot of the flows built so far, in ID order.
+     * Streams that continue a flow of a previous run are appended to it, new
+     * streams get the following IDs.
+     *
+     * @return The flows.
+     */
+    public synchronized List<PacketFlow> getFlows() {
+        List<PacketFlow> flows = new ArrayList<>(fIndexedFlows);
+        for (PacketStream stream : getSortedStreams()) {
+            PacketFlow flow = PacketFlow.create(fProtocol, flows.size(), stream);
+            Integer id = fIndexedIds.get(flow.getKey());
+            if (id == null) {
+                flows.add(flow);
+            } else {
+                flows.set(id, flows.get(id).append(flow));
+            }
+        }
+        return flows;
+    }
+
+    /*
+     * Get the streams in ID order. The builder numbers its streams in the
+     * order they are added, so only the new streams are added to the list.
+     */
+    private List<PacketStream> getSortedStreams() {
+        for (int id = fSortedStreams.size(); id < fBuilder.getNbStreams(); id++) {
+            PacketStream stream = fBuilder.getStream(id);
+            if (stream == null) {
+                break;
+            }
+            fSortedStreams.add(stream);
+            String key = PacketFlow.getKey(stream.getEndpointPair().getFirstEndpoint().toString(),
+                    stream.getEndpointPair().getSecondEndpoint().toString());
+            if (!fIndexedIds.containsKey(key)) {
+                fNbNewFlows++;
+            }
+        }
+        return fSortedStreams;
+    }
+
     /**
      * Method that adds an event to this builder.
      *
@@ -65,7 +150,11 @@ public class TmfPacketStreamBuilder {
      * @return The number of streams built.
      */
     public synchronized int getNbStreams() {
-        return fBuilder.getNbStreams();
+        if (fIndexedFlows.isEmpty()) {
+            return fBuilder.getNbStreams();
+        }
+        getSortedStreams();
+        return fIndexedFlows.size() + fNbNewFlows;
     }
 
     /**
@@ -76,7 +165,12 @@ public class TmfPacketStreamBuilder {
     public synchronized Iterable<TmfPacketStream> getStreams() {
         // We can't store in immutable list since the stream number/content can
         // change dynamically.
-        return StreamSupport.stream(fBuilder.getStreams().spliterator(), false)
+        if (fIndexedFlows.isEmpty()) {
+            return StreamSupport.stream(fBuilder.getStreams().spliterator(), false)
+                    .map(e -> new TmfPacketStream(e))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        return getFlows().stream()
                 .map(e -> new TmfPacketStream(e))
                 .collect(Collectors.toCollection(ArrayList::new));
     }
@@ -57,6 +57,7 @@ import org.eclipse.tracecompass.tmf.core.project.model.ITmfPropertiesProvider;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
 import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
@@ -85,7 +86,9 @@ public class PcapTrace extends TmfTrace implements ITmfPropertiesProvider {
 
     private static final String EMPTY_STRING = ""; //$NON-NLS-1$
     private static final int CONFIDENCE = 50;
+    private static final String INDEX_FILE_NAME = "pcap-packets.idx"; //$NON-NLS-1$
     private @Nullable PcapFile fPcapFile = null;
+    private @Nullable Path fIndexFile = null;
     private @Nullable Map<String, String> fTraceProperties = null;
 
     @Override
@@ -125,11 +128,21 @@ public class PcapTrace extends TmfTrace implements ITmfPropertiesProvider {
             throw new TmfTraceException("No path has been specified."); //$NON-NLS-1$
         }
         Path filePath = checkNotNull(Paths.get(path));
+        PcapFile pcap;
         try {
-            fPcapFile = PcapHelper.getPcapFile(filePath);
+            pcap = PcapHelper.getPcapFile(filePath);
+            fPcapFile = pcap;
         } catch (IOException | BadPcapFileException e) {
             throw new TmfTraceException(e.getMessage(), e);
         }
+        /* Reuse the packet positions found when the trace was last opened */
+        Path indexFile = checkNotNull(Paths.get(TmfTraceManager.getSupplementaryFileDir(this), INDEX_FILE_NAME));
+        fIndexFile = indexFile;
+        try {
+            pcap.loadIndex(indexFile);
+        } catch (IOException e) {
+            Activator.logError("Error loading the packet index of " + path, e); //$NON-NLS-1$
+        }
     }
 
     @Override
@@ -240,6 +253,14 @@ public class PcapTrace extends TmfTrace implements ITmfPropertiesProvider {
         if (pcap == null) {
             return;
         }
+        Path indexFile = fIndexFile;
+        if (indexFile != null) {
+            try {
+                pcap.saveIndex(indexFile);
+            } catch (IOException e) {
+                Activator.logError("Error saving the packet index of " + getPath(), e); //$NON-NLS-1$
+            }
+        }
         try {
             pcap.close();
             fPcapFile = null;
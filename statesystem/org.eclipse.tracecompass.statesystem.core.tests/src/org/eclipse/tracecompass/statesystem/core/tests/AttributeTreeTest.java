@@ -17,10 +17,14 @@ package org.eclipse.tracecompass.statesystem.core.tests;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.tracecompass.internal.statesystem.core.AttributeTree;
 import org.eclipse.tracecompass.internal.statesystem.core.StateSystem;
@@ -125,4 +129,75 @@ public class AttributeTreeTest {
             file.delete();
         }
     }
+
+    /**
+     * Test reading an attribute tree written after other data in a file, as
+     * in the history tree files.
+     *
+     * @throws IOException
+     *             if there is an error accessing the test file
+     */
+    @Test
+    public void testAttributeTreeSectionStorage() throws IOException {
+        File file = File.createTempFile("AttributeTreeTest", ".ht");
+        StateSystem ss1 = new StateSystem(StateHistoryBackendFactory.createNullBackend("test"));
+        AttributeTree attributeTree1 = new AttributeTree(ss1);
+        int status = attributeTree1.getQuarkAndAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS, "1", STATUS);
+        int cpu = attributeTree1.getQuarkAndAdd(ITmfStateSystem.ROOT_ATTRIBUTE, "CPUs", "1", STATUS);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(100);
+        }
+        attributeTree1.writeSelf(file, 100L);
+        ss1.dispose();
+
+        StateSystem ss2 = new StateSystem(StateHistoryBackendFactory.createNullBackend("test"));
+        try (FileInputStream fis = new FileInputStream(file)) {
+            fis.getChannel().position(100);
+            AttributeTree attributeTree2 = new AttributeTree(ss2, fis);
+            assertEquals(attributeTree1.getNbAttributes(), attributeTree2.getNbAttributes());
+            assertEquals(status, attributeTree2.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS, "1", STATUS));
+            assertEquals(cpu, attributeTree2.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, "CPUs", "1", STATUS));
+            assertEquals("CPUs/1/Status", attributeTree2.getFullAttributeName(cpu));
+        } finally {
+            ss2.dispose();
+            file.delete();
+        }
+    }
+
+    /**
+     * Test that the readers see consistent attributes while attributes are
+     * added.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        StateSystem ss = new StateSystem(StateHistoryBackendFactory.createNullBackend("test"));
+        AttributeTree attributeTree = new AttributeTree(ss);
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                int nbAttributes = attributeTree.getNbAttributes();
+                for (int quark = 0; quark < nbAttributes; quark++) {
+                    String[] path = attributeTree.getFullAttributePathArray(quark);
+                    if (attributeTree.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, path) != quark) {
+                        error.set(String.join("/", path));
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            attributeTree.getQuarkAndAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS, Integer.toString(i), STATUS);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(error.get());
+        assertEquals(4001, attributeTree.getNbAttributes());
+        assertEquals(2000, attributeTree.getSubAttributes(attributeTree.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS), false).size());
+        assertEquals(ITmfStateSystem.INVALID_ATTRIBUTE, attributeTree.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS, "2000"));
+        ss.dispose();
+    }
 }
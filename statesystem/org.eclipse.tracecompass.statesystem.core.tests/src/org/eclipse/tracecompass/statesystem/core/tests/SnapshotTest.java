@@ -110,6 +110,63 @@ public class SnapshotTest {
         }
     }
 
+    /**
+     * Test that a snapshot of a state system being built keeps the start times
+     * of the ongoing states and the event rank when it is saved and read
+     *
+     * @throws IOException
+     *             Failed to create the file
+     */
+    @Test
+    public void testResumeSnapshot() throws IOException {
+        Path dir = null;
+        try {
+            dir = checkNotNull(Files.createTempDirectory("ss-resume-test"));
+            String ssid = "test-ssid";
+            final int version = 3;
+            final long rank = 123456789012L;
+
+            IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend(ssid, 0);
+            ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+            int status = ssb.getQuarkAbsoluteAndAdd("Threads", "1000", "Status");
+            int name = ssb.getQuarkAbsoluteAndAdd("Threads", "1000", "Name");
+            int load = ssb.getQuarkAbsoluteAndAdd("CPUs", "0", "Load");
+            ssb.modifyAttribute(2, "Running", status);
+            ssb.modifyAttribute(5, "ls", name);
+            ssb.modifyAttribute(8, 0.5, load);
+            ssb.modifyAttribute(9, "Blocked", status);
+
+            StateSnapshot snapshot = StateSnapshot.createResumeSnapshot(ssb, 10, version, rank);
+            Path file = dir.resolve("resume.snapshot");
+            snapshot.writeFile(file);
+            StateSnapshot results = StateSnapshot.readFile(file);
+            assertNotNull(results);
+
+            assertEquals(version, results.getVersion());
+            assertEquals(ssid, results.getSsid());
+            assertEquals(10, results.getStartTime());
+            assertEquals(rank, results.getEventRank());
+            Map<List<String>, ITmfStateInterval> states = results.getStates();
+            assertEquals(ssb.getNbAttributes(), states.size());
+            assertInterval(states.get(Arrays.asList("Threads", "1000", "Status")), status, 9, "Blocked");
+            assertInterval(states.get(Arrays.asList("Threads", "1000", "Name")), name, 5, "ls");
+            assertInterval(states.get(Arrays.asList("CPUs", "0", "Load")), load, 8, 0.5);
+            assertInterval(states.get(Arrays.asList("Threads")), ssb.optQuarkAbsolute("Threads"), 0, null);
+            ssb.dispose();
+        } finally {
+            if (dir != null) {
+                FileUtils.deleteQuietly(dir.toFile());
+            }
+        }
+    }
+
+    private static void assertInterval(@Nullable ITmfStateInterval interval, int quark, long start, @Nullable Object value) {
+        assertNotNull(interval);
+        assertEquals(quark, interval.getAttribute());
+        assertEquals(start, interval.getStartTime());
+        assertEquals(value, interval.getValue());
+    }
+
     private static void populateSs(ITmfStateSystemBuilder ssb, Map<@NonNull List<@NonNull String>, @Nullable Object> expected, long start) {
         for (Entry<@NonNull List<@NonNull String>, @Nullable Object> entry : expected.entrySet()) {
             List<@NonNull String> key = Objects.requireNonNull(entry.getKey());
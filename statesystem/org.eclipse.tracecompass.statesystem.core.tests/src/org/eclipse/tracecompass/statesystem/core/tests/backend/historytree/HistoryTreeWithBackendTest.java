@@ -11,17 +11,26 @@
 
 package org.eclipse.tracecompass.statesystem.core.tests.backend.historytree;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.tracecompass.common.core.NonNullUtils;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTInterval;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNode;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HistoryTreeBackend;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.statesystem.core.tests.stubs.backend.HistoryTreeBackendStub;
 import org.eclipse.tracecompass.statesystem.core.tests.stubs.backend.HistoryTreeBackendStub.HistoryTreeType;
 import org.junit.Test;
@@ -132,4 +141,68 @@ public class HistoryTreeWithBackendTest {
         }
     }
 
+    /**
+     * Test queries on nodes read many times, which use the index of the
+     * node's intervals by attribute
+     *
+     * @throws IOException
+     *             If the history tree file cannot be created
+     * @throws StateSystemDisposedException
+     *             If the backend is disposed
+     */
+    @Test
+    public void testIndexedQueries() throws IOException, StateSystemDisposedException {
+        final int nbAttr = 4;
+        final long startTime = 1;
+        final long endTime = 3000;
+
+        File historyTreeFile = NonNullUtils.checkNotNull(File.createTempFile("HistoryTreeBackendTest", ".ht"));
+        HistoryTreeBackendStub.setTreeType(fHtType);
+        HistoryTreeBackendStub backend = new HistoryTreeBackendStub(SSID, historyTreeFile, PROVIDER_VERSION, startTime, BLOCK_SIZE, MAX_CHILDREN);
+        try {
+            /* The intervals of attribute i last 3 * (i + 1) */
+            for (long time = startTime; time <= endTime; time++) {
+                for (int attribute = 0; attribute < nbAttr; attribute++) {
+                    long duration = getDuration(attribute);
+                    if ((time - startTime + 1) % duration == 0) {
+                        backend.insertPastState(time - duration + 1, time, attribute, time - duration + 1);
+                    }
+                }
+            }
+            backend.finishedBuilding(endTime);
+
+            /* Query enough times for the nodes to be indexed */
+            for (int i = 0; i < 6; i++) {
+                for (long time = startTime; time <= endTime - 12; time += 97) {
+                    List<ITmfStateInterval> fullState = new ArrayList<>(Collections.nCopies(nbAttr, null));
+                    backend.doQuery(fullState, time);
+                    for (int attribute = 0; attribute < nbAttr; attribute++) {
+                        long expectedStart = time - ((time - startTime) % getDuration(attribute));
+                        ITmfStateInterval interval = backend.doSingularQuery(time, attribute);
+                        assertNotNull(interval);
+                        assertEquals(expectedStart, interval.getStartTime());
+                        interval = fullState.get(attribute);
+                        assertNotNull(interval);
+                        assertEquals(expectedStart, interval.getStartTime());
+                    }
+                }
+
+                int count = 0;
+                for (ITmfStateInterval interval : backend.query2D(IntegerRangeCondition.forDiscreteRange(Arrays.asList(1, 3)),
+                        TimeRangeCondition.forContinuousRange(startTime, endTime))) {
+                    assertEquals(interval.getStartTime(), interval.getValue());
+                    count++;
+                }
+                assertEquals(endTime / getDuration(1) + endTime / getDuration(3), count);
+            }
+        } finally {
+            backend.dispose();
+            historyTreeFile.delete();
+        }
+    }
+
+    private static long getDuration(int attribute) {
+        return 3 * (attribute + 1);
+    }
+
 }
@@ -17,7 +17,6 @@
 
 package org.eclipse.tracecompass.internal.statesystem.core;
 
-import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 import static org.eclipse.tracecompass.statesystem.core.ITmfStateSystem.INVALID_ATTRIBUTE;
 import static org.eclipse.tracecompass.statesystem.core.ITmfStateSystem.ROOT_ATTRIBUTE;
 
@@ -27,12 +26,20 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
@@ -42,6 +49,15 @@ import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
  * Each node of this tree is both like a file and a directory in the
  * "file system".
  *
+ * The nodes are stored in primitive arrays indexed by quark: the parent, the
+ * first child and the next sibling of each node, and the index of its name in
+ * a table of interned names. The children of a node are found through an open
+ * addressing hash table keyed by the parent and name index.
+ *
+ * There is a single writer at a time. Each addition publishes a new immutable
+ * view of the arrays, so the readers never take a lock: they only see the
+ * attributes that were completely added when they read the view.
+ *
  * @author alexmont
  *
  */
@@ -50,16 +66,126 @@ public final class AttributeTree {
     /* "Magic number" for attribute tree files or file sections */
     private static final int ATTRIB_TREE_MAGIC_NUMBER = 0x06EC3671;
 
+    /* "Magic number" of the attribute tree sections in the array format */
+    private static final int ATTRIB_TREE_ARRAY_MAGIC_NUMBER = 0x06EC3672;
+
+    /* First bytes of a Java serialization stream, used by the older format */
+    private static final int OBJECT_STREAM_MAGIC_NUMBER = 0xACED0005;
+
     /**
      * Character used to indicate an attribute path element is the same as the
      * previous attribute. Used for serialization.
      */
     private static final String SERIALIZATION_WILDCARD = "*"; //$NON-NLS-1$
 
+    private static final String WILDCARD = "*"; //$NON-NLS-1$
+    private static final String PARENT = ".."; //$NON-NLS-1$
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /* Node index of the root, the node of a quark is quark + 1 */
+    private static final int ROOT_NODE = 0;
+    private static final int NO_NODE = -1;
+
+    /* Pattern elements that are not names, see getQuarks() */
+    private static final int WILDCARD_ID = -1;
+    private static final int PARENT_ID = -2;
+
+    /**
+     * Immutable view of the tree, published to the readers after each
+     * addition. The arrays may be shared with the next views, but the entries
+     * of the nodes below the node count do not change, except the sibling
+     * links, which only ever point to a node added later.
+     */
+    private static final class Nodes {
+        private final int[] fParents;
+        private final int[] fNameIds;
+        private final int[] fFirstChildren;
+        private final int[] fNextSiblings;
+        /* Hash index of the children, 0 for an empty slot */
+        private final int[] fIndex;
+        private final String[] fNames;
+        private final int fCount;
+
+        private Nodes(int[] parents, int[] nameIds, int[] firstChildren, int[] nextSiblings, int[] index, String[] names, int count) {
+            fParents = parents;
+            fNameIds = nameIds;
+            fFirstChildren = firstChildren;
+            fNextSiblings = nextSiblings;
+            fIndex = index;
+            fNames = names;
+            fCount = count;
+        }
+
+        private int getNode(int quark) {
+            int node = quark + 1;
+            if (node < 0 || node >= fCount) {
+                throw new IndexOutOfBoundsException("Invalid quark " + quark + ", the tree has " + (fCount - 1) + " attributes"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            return node;
+        }
+
+        private int getChild(int parent, int nameId) {
+            int[] index = fIndex;
+            int mask = index.length - 1;
+            int slot = hash(parent, nameId) & mask;
+            while (true) {
+                int node = index[slot];
+                if (node == 0) {
+                    return NO_NODE;
+                }
+                /* Skip the nodes added after this view */
+                if (node < fCount && fParents[node] == parent && fNameIds[node] == nameId) {
+                    return node;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int getFirstChild(int node) {
+            int child = fFirstChildren[node];
+            return child < fCount ? child : NO_NODE;
+        }
+
+        private int getNextSibling(int node) {
+            int sibling = fNextSiblings[node];
+            return sibling < fCount ? sibling : NO_NODE;
+        }
+
+        private String getName(int node) {
+            return fNames[fNameIds[node]];
+        }
+
+        private @NonNull String @NonNull [] getPath(int node) {
+            int depth = 0;
+            for (int current = node; current != ROOT_NODE; current = fParents[current]) {
+                depth++;
+            }
+            @NonNull String[] path = new @NonNull String[depth];
+            for (int current = node; current != ROOT_NODE; current = fParents[current]) {
+                path[--depth] = getName(current);
+            }
+            return path;
+        }
+    }
+
     private final StateSystem fSs;
-    private final List<Attribute> fAttributeList;
-    private final Attribute fAttributeTreeRoot;
-    private final ReentrantReadWriteLock fLock = new ReentrantReadWriteLock();
+    private final Object fWriteLock = new Object();
+    /* Interned names, read without lock to resolve the paths */
+    private final Map<String, Integer> fNameIds = new ConcurrentHashMap<>();
+
+    /* The arrays being written, only accessed with the write lock */
+    private int[] fParents;
+    private int[] fNameIdArray;
+    private int[] fFirstChildren;
+    private int[] fLastChildren;
+    private int[] fNextSiblings;
+    private int[] fIndex;
+    private String[] fNames;
+    private int fNodeCount;
+    private int fNameCount;
+
+    private volatile Nodes fNodes;
 
     /**
      * Standard constructor, create a new empty Attribute Tree
@@ -69,8 +195,22 @@ public final class AttributeTree {
      */
     public AttributeTree(StateSystem ss) {
         fSs = ss;
-        fAttributeList = new ArrayList<>();
-        fAttributeTreeRoot = new Attribute(null, "root", ROOT_ATTRIBUTE); //$NON-NLS-1$
+        fParents = new int[INITIAL_CAPACITY];
+        fNameIdArray = new int[INITIAL_CAPACITY];
+        fFirstChildren = new int[INITIAL_CAPACITY];
+        fLastChildren = new int[INITIAL_CAPACITY];
+        fNextSiblings = new int[INITIAL_CAPACITY];
+        fIndex = new int[INITIAL_CAPACITY * 2];
+        fNames = new String[INITIAL_CAPACITY];
+        fNameCount = 0;
+        /* The root node */
+        fParents[ROOT_NODE] = NO_NODE;
+        fNameIdArray[ROOT_NODE] = internName("root"); //$NON-NLS-1$
+        fFirstChildren[ROOT_NODE] = NO_NODE;
+        fLastChildren[ROOT_NODE] = NO_NODE;
+        fNextSiblings[ROOT_NODE] = NO_NODE;
+        fNodeCount = 1;
+        publish();
     }
 
     /**
@@ -87,6 +227,25 @@ public final class AttributeTree {
      */
     public AttributeTree(StateSystem ss, FileInputStream fis) throws IOException {
         this(ss);
+        FileChannel fc = fis.getChannel();
+        long position = fc.position();
+        MappedByteBuffer buffer = fc.map(MapMode.READ_ONLY, position, fc.size() - position);
+        if (buffer.remaining() >= Integer.BYTES && buffer.getInt(0) == OBJECT_STREAM_MAGIC_NUMBER) {
+            readSerializedList(fis);
+            return;
+        }
+        try {
+            readArrays(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("The attribute tree file section is either invalid or corrupted.", e); //$NON-NLS-1$
+        }
+    }
+
+    /*
+     * Read the attribute tree sections written by the Java serialization of
+     * the list of attribute paths
+     */
+    private void readSerializedList(FileInputStream fis) throws IOException {
         ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(fis));
 
         /* Read the header of the Attribute Tree file (or file section) */
@@ -95,7 +254,6 @@ public final class AttributeTree {
             throw new IOException("The attribute tree file section is either invalid or corrupted."); //$NON-NLS-1$
         }
 
-
         ArrayList<@NonNull String @NonNull []> attribList;
         try {
             @SuppressWarnings("unchecked")
@@ -117,6 +275,46 @@ public final class AttributeTree {
         }
     }
 
+    /*
+     * Read the array format: the interned names, then the parent quark and
+     * name index of each attribute, in quark order
+     */
+    private void readArrays(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != ATTRIB_TREE_ARRAY_MAGIC_NUMBER) {
+            throw new IOException("The attribute tree file section is either invalid or corrupted."); //$NON-NLS-1$
+        }
+        int nameCount = checkCount(buffer.getInt(), buffer.remaining() / Integer.BYTES);
+        int[] nameIds = new int[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            byte[] bytes = new byte[checkCount(buffer.getInt(), buffer.remaining())];
+            buffer.get(bytes);
+            nameIds[i] = internName(new String(bytes, StandardCharsets.UTF_8));
+        }
+        int attributeCount = checkCount(buffer.getInt(), buffer.remaining() / (2 * Integer.BYTES));
+        IntBuffer entries = buffer.slice().asIntBuffer();
+        int[] attributes = new int[attributeCount * 2];
+        entries.get(attributes);
+
+        synchronized (fWriteLock) {
+            for (int quark = 0; quark < attributeCount; quark++) {
+                int parentQuark = attributes[quark * 2];
+                int nameId = attributes[quark * 2 + 1];
+                if (parentQuark < ROOT_ATTRIBUTE || parentQuark >= quark || nameId < 0 || nameId >= nameCount) {
+                    throw new IOException("The attribute tree file section is either invalid or corrupted."); //$NON-NLS-1$
+                }
+                addNode(parentQuark + 1, nameIds[nameId]);
+            }
+            publish();
+        }
+    }
+
+    private static int checkCount(int count, int max) throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("The attribute tree file section is either invalid or corrupted."); //$NON-NLS-1$
+        }
+        return count;
+    }
+
     /**
      * Tell the Attribute Tree to write itself somewhere in a file.
      *
@@ -126,63 +324,53 @@ public final class AttributeTree {
      *            The position (in bytes) in the file where to write
      */
     public void writeSelf(File file, long pos) {
-        fLock.readLock().lock();
+        Nodes nodes = fNodes;
+        int attributeCount = nodes.fCount - 1;
+
+        /* Only write the names used by the attributes */
+        int[] fileNameIds = new int[nodes.fNames.length];
+        Arrays.fill(fileNameIds, -1);
+        List<byte[]> names = new ArrayList<>();
+        int size = 3 * Integer.BYTES + attributeCount * 2 * Integer.BYTES;
+        for (int node = ROOT_NODE + 1; node < nodes.fCount; node++) {
+            int nameId = nodes.fNameIds[node];
+            if (fileNameIds[nameId] < 0) {
+                fileNameIds[nameId] = names.size();
+                byte[] bytes = nodes.fNames[nameId].getBytes(StandardCharsets.UTF_8);
+                names.add(bytes);
+                size += Integer.BYTES + bytes.length;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(ATTRIB_TREE_ARRAY_MAGIC_NUMBER);
+        buffer.putInt(names.size());
+        for (byte[] bytes : names) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.putInt(attributeCount);
+        for (int node = ROOT_NODE + 1; node < nodes.fCount; node++) {
+            buffer.putInt(nodes.fParents[node] - 1);
+            buffer.putInt(fileNameIds[nodes.fNameIds[node]]);
+        }
+        buffer.flip();
+
         try (FileOutputStream fos = new FileOutputStream(file, true);
                 FileChannel fc = fos.getChannel();) {
             fc.position(pos);
-            try (ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-
-                /* Write the almost-magic number */
-                oos.writeInt(ATTRIB_TREE_MAGIC_NUMBER);
-
-                /* Compute the serialized list of attributes and write it */
-                List<String[]> list = new ArrayList<>(fAttributeList.size());
-                String[] prevFullAttribute = null;
-                for (Attribute entry : fAttributeList) {
-                    String[] curFullAttribute = entry.getFullAttribute();
-                    String[] curEncodedAttribute = encodeFullAttribute(prevFullAttribute, entry.getFullAttribute());
-                    list.add(curEncodedAttribute);
-                    prevFullAttribute = curFullAttribute;
-                }
-                oos.writeObject(list);
+            while (buffer.hasRemaining()) {
+                fc.write(buffer);
             }
         } catch (IOException e) {
             Activator.getDefault().logError("Error writing the file " + file, e); //$NON-NLS-1$
-        } finally {
-            fLock.readLock().unlock();
-        }
-    }
-
-    /**
-     * Avoid repeating path elements that are the same from one attribute to the
-     * next, and replace identical path elements with "*".
-     *
-     * @param prevPath
-     *            The previous attribute's full attribute path
-     * @param curPath
-     *            The current attribute's full attribute path
-     * @return An encoded version of the current entry's full attribute path
-     *         where subpaths[i] equal to that of prevEntry's subpaths[i] is
-     *         replaced by "*" or curPath if prevPath is null.
-     */
-    private static String[] encodeFullAttribute(String[] prevPath, String[] curPath) {
-        if (prevPath == null) {
-            return curPath;
         }
-        String[] diff = new String[curPath.length];
-        for (int i = 0; i < curPath.length; i++) {
-            if (i < prevPath.length && prevPath[i].equals(curPath[i])) {
-                diff[i] = SERIALIZATION_WILDCARD;
-            } else {
-                diff[i] = curPath[i];
-            }
-        }
-        return diff;
     }
 
     /**
-     * Decode a full attribute path that was encoded by
-     * {@link #encodeFullAttribute}.
+     * Decode a full attribute path that was encoded by the older
+     * serialization, which replaced the path elements equal to those of the
+     * previous attribute with "*".
      *
      * @param prevPath
      *            The previous attribute's decoded full attribute path
@@ -207,6 +395,90 @@ public final class AttributeTree {
         return diff;
     }
 
+    // ------------------------------------------------------------------------
+    // Writer methods, called with the write lock
+    // ------------------------------------------------------------------------
+
+    private static int hash(int parent, int nameId) {
+        int h = parent * 0x9E3779B1 + nameId;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private int internName(String name) {
+        Integer id = fNameIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (fNameCount == fNames.length) {
+            fNames = Arrays.copyOf(fNames, fNames.length * 2);
+        }
+        int nameId = fNameCount;
+        /* The name must be in the table before its index is visible */
+        fNames[nameId] = name;
+        fNameCount++;
+        fNameIds.put(name, nameId);
+        return nameId;
+    }
+
+    /*
+     * Add a node, without publishing it to the readers
+     */
+    private int addNode(int parent, int nameId) {
+        if (fNodeCount == fParents.length) {
+            int capacity = fParents.length * 2;
+            fParents = Arrays.copyOf(fParents, capacity);
+            fNameIdArray = Arrays.copyOf(fNameIdArray, capacity);
+            fFirstChildren = Arrays.copyOf(fFirstChildren, capacity);
+            fLastChildren = Arrays.copyOf(fLastChildren, capacity);
+            fNextSiblings = Arrays.copyOf(fNextSiblings, capacity);
+        }
+        int node = fNodeCount;
+        fParents[node] = parent;
+        fNameIdArray[node] = nameId;
+        fFirstChildren[node] = NO_NODE;
+        fLastChildren[node] = NO_NODE;
+        fNextSiblings[node] = NO_NODE;
+        int lastChild = fLastChildren[parent];
+        if (lastChild == NO_NODE) {
+            fFirstChildren[parent] = node;
+        } else {
+            fNextSiblings[lastChild] = node;
+        }
+        fLastChildren[parent] = node;
+
+        /* Keep the index at most half full */
+        if ((fNodeCount + 1) * 2 > fIndex.length) {
+            int[] index = new int[fIndex.length * 2];
+            for (int i = ROOT_NODE + 1; i < fNodeCount; i++) {
+                insertInIndex(index, i);
+            }
+            fIndex = index;
+        }
+        insertInIndex(fIndex, node);
+        fNodeCount++;
+        fSs.addEmptyAttribute();
+        return node;
+    }
+
+    private void insertInIndex(int[] index, int node) {
+        int mask = index.length - 1;
+        int slot = hash(fParents[node], fNameIdArray[node]) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = node;
+    }
+
+    private void publish() {
+        fNodes = new Nodes(fParents, fNameIdArray, fFirstChildren, fNextSiblings, fIndex, fNames, fNodeCount);
+    }
+
+    // ------------------------------------------------------------------------
+    // Accessors
+    // ------------------------------------------------------------------------
+
     /**
      * Return the number of attributes this system as seen so far. Note that
      * this also equals the integer value (quark) the next added attribute will
@@ -215,12 +487,7 @@ public final class AttributeTree {
      * @return The current number of attributes in the tree
      */
     public int getNbAttributes() {
-        fLock.readLock().lock();
-        try {
-            return fAttributeList.size();
-        } finally {
-            fLock.readLock().unlock();
-        }
+        return fNodes.fCount - 1;
     }
 
     /**
@@ -245,16 +512,19 @@ public final class AttributeTree {
         if (subPath == null || subPath.length == 0) {
             return startingNodeQuark;
         }
-
-        fLock.readLock().lock();
-        try {
-
-            /* Get the "starting node" */
-            Attribute startingNode = getAttribute(startingNodeQuark);
-            return startingNode.getSubAttributeQuark(subPath);
-        } finally {
-            fLock.readLock().unlock();
+        Nodes nodes = fNodes;
+        int node = nodes.getNode(startingNodeQuark);
+        for (String name : subPath) {
+            Integer nameId = fNameIds.get(name);
+            if (nameId == null) {
+                return INVALID_ATTRIBUTE;
+            }
+            node = nodes.getChild(node, nameId);
+            if (node == NO_NODE) {
+                return INVALID_ATTRIBUTE;
+            }
         }
+        return node - 1;
     }
 
     /**
@@ -273,35 +543,34 @@ public final class AttributeTree {
      *             If the starting node quark is out of range
      */
     public int getQuarkAndAdd(int startingNodeQuark, String... subPath) {
-        fLock.writeLock().lock();
-        try {
-            /* Get the "starting node" */
-            Attribute prevNode = getAttribute(startingNodeQuark);
-
-            int knownQuark = prevNode.getSubAttributeQuark(subPath);
-            if (knownQuark == INVALID_ATTRIBUTE) {
-                /*
-                 * The attribute was not in the table previously, and we want to add it
-                 */
-                for (String curDirectory : subPath) {
-                    Attribute nextNode = prevNode.getSubAttributeNode(curDirectory);
-                    if (nextNode == null) {
-                        /* This is where we need to start adding */
-                        nextNode = new Attribute(prevNode, checkNotNull(curDirectory), fAttributeList.size());
-                        prevNode.addSubAttribute(nextNode);
-                        fAttributeList.add(nextNode);
-                        fSs.addEmptyAttribute();
-                    }
-                    prevNode = nextNode;
-                }
-                return fAttributeList.size() - 1;
-            }
+        int knownQuark = getQuarkDontAdd(startingNodeQuark, subPath);
+        if (knownQuark != INVALID_ATTRIBUTE) {
             /*
              * The attribute already existed, return the quark of that attribute
              */
             return knownQuark;
-        } finally {
-            fLock.writeLock().unlock();
+        }
+        synchronized (fWriteLock) {
+            /*
+             * The attribute was not in the table previously, and we want to add it
+             */
+            Nodes nodes = fNodes;
+            int node = nodes.getNode(startingNodeQuark);
+            boolean added = false;
+            for (String curDirectory : subPath) {
+                int nameId = internName(curDirectory);
+                int nextNode = added ? NO_NODE : nodes.getChild(node, nameId);
+                if (nextNode == NO_NODE) {
+                    /* This is where we need to start adding */
+                    nextNode = addNode(node, nameId);
+                    added = true;
+                }
+                node = nextNode;
+            }
+            if (added) {
+                publish();
+            }
+            return node - 1;
         }
     }
 
@@ -319,26 +588,78 @@ public final class AttributeTree {
      *             If the attribute quark is out of range
      */
     public @NonNull List<@NonNull Integer> getSubAttributes(int attributeQuark, boolean recursive) {
-        fLock.readLock().lock();
-        try {
-            List<@NonNull Integer> listOfChildren = new ArrayList<>();
-            /* Set up the node from which we'll start the search */
-            Attribute startingAttribute = getAttribute(attributeQuark);
+        Nodes nodes = fNodes;
+        List<@NonNull Integer> listOfChildren = new ArrayList<>();
+        /* Iterate through the sub-attributes and add them to the list */
+        addSubAttributes(nodes, listOfChildren, nodes.getNode(attributeQuark), recursive);
+        return listOfChildren;
+    }
 
-            /* Iterate through the sub-attributes and add them to the list */
-            addSubAttributes(listOfChildren, startingAttribute, recursive);
+    private static void addSubAttributes(Nodes nodes, List<@NonNull Integer> list, int node, boolean recursive) {
+        for (int child = nodes.getFirstChild(node); child != NO_NODE; child = nodes.getNextSibling(child)) {
+            list.add(child - 1);
+            if (recursive) {
+                addSubAttributes(nodes, list, child, true);
+            }
+        }
+    }
 
-            return listOfChildren;
-        } finally {
-            fLock.readLock().unlock();
+    /**
+     * Get the quarks matching a pattern of path elements, where "*" matches
+     * any attribute and ".." matches the parent attribute. The names of the
+     * pattern are resolved once, so the tree is walked without comparing
+     * strings.
+     *
+     * @param startingNodeQuark
+     *            The quark of the attribute from which the pattern starts
+     * @param pattern
+     *            The pattern, it must not be empty
+     * @param quarks
+     *            The collection where to add the matching quarks
+     * @throws IndexOutOfBoundsException
+     *             If the starting node quark is out of range
+     */
+    public void getQuarks(int startingNodeQuark, String[] pattern, Collection<@NonNull Integer> quarks) {
+        int[] elements = new int[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            String element = pattern[i];
+            if (element == null) {
+                return;
+            } else if (element.equals(WILDCARD)) {
+                elements[i] = WILDCARD_ID;
+            } else if (element.equals(PARENT)) {
+                elements[i] = PARENT_ID;
+            } else {
+                Integer nameId = fNameIds.get(element);
+                if (nameId == null) {
+                    /* No attribute has that name */
+                    return;
+                }
+                elements[i] = nameId;
+            }
         }
+        Nodes nodes = fNodes;
+        getQuarks(nodes, nodes.getNode(startingNodeQuark), elements, 0, quarks);
     }
 
-    private Attribute getAttribute(int startingNodeQuark) {
-        if (startingNodeQuark == ROOT_ATTRIBUTE) {
-            return fAttributeTreeRoot;
+    private static void getQuarks(Nodes nodes, int node, int[] elements, int index, Collection<@NonNull Integer> quarks) {
+        if (index == elements.length) {
+            quarks.add(node - 1);
+            return;
+        }
+        int element = elements[index];
+        if (element == WILDCARD_ID) {
+            for (int child = nodes.getFirstChild(node); child != NO_NODE; child = nodes.getNextSibling(child)) {
+                getQuarks(nodes, child, elements, index + 1, quarks);
+            }
+        } else if (element == PARENT_ID) {
+            getQuarks(nodes, node == ROOT_NODE ? ROOT_NODE : nodes.fParents[node], elements, index + 1, quarks);
+        } else {
+            int child = nodes.getChild(node, element);
+            if (child != NO_NODE) {
+                getQuarks(nodes, child, elements, index + 1, quarks);
+            }
         }
-        return fAttributeList.get(startingNodeQuark);
     }
 
     /**
@@ -356,22 +677,8 @@ public final class AttributeTree {
         if (quark == ROOT_ATTRIBUTE) {
             return quark;
         }
-        fLock.readLock().lock();
-        try {
-            return fAttributeList.get(quark).getParentAttributeQuark();
-        } finally {
-            fLock.readLock().unlock();
-        }
-    }
-
-    private void addSubAttributes(List<Integer> list, Attribute curAttribute,
-            boolean recursive) {
-        for (Attribute childNode : curAttribute.getSubAttributes()) {
-            list.add(childNode.getQuark());
-            if (recursive) {
-                addSubAttributes(list, childNode, true);
-            }
-        }
+        Nodes nodes = fNodes;
+        return nodes.fParents[nodes.getNode(quark)] - 1;
     }
 
     /**
@@ -384,12 +691,8 @@ public final class AttributeTree {
      *             If the quark is out of range
      */
     public @NonNull String getAttributeName(int quark) {
-        fLock.readLock().lock();
-        try {
-            return fAttributeList.get(quark).getName();
-        } finally {
-            fLock.readLock().unlock();
-        }
+        Nodes nodes = fNodes;
+        return String.valueOf(nodes.getName(nodes.getNode(checkNotRoot(quark))));
     }
 
     /**
@@ -402,12 +705,7 @@ public final class AttributeTree {
      *             If the quark is out of range
      */
     public @NonNull String getFullAttributeName(int quark) {
-        fLock.readLock().lock();
-        try {
-            return fAttributeList.get(quark).getFullAttributeName();
-        } finally {
-            fLock.readLock().unlock();
-        }
+        return String.join("/", getFullAttributePathArray(quark)); //$NON-NLS-1$
     }
 
     /**
@@ -421,12 +719,15 @@ public final class AttributeTree {
      *             If the quark is out of range
      */
     public String @NonNull [] getFullAttributePathArray(int quark) {
-        fLock.readLock().lock();
-        try {
-            return fAttributeList.get(quark).getFullAttribute();
-        } finally {
-            fLock.readLock().unlock();
+        Nodes nodes = fNodes;
+        return nodes.getPath(nodes.getNode(checkNotRoot(quark)));
+    }
+
+    private static int checkNotRoot(int quark) {
+        if (quark == ROOT_ATTRIBUTE) {
+            throw new IndexOutOfBoundsException("The root attribute has no name"); //$NON-NLS-1$
         }
+        return quark;
     }
 
     /**
@@ -436,11 +737,21 @@ public final class AttributeTree {
      *            The writer where to print the output
      */
     public void debugPrint(PrintWriter writer) {
-        fLock.readLock().lock();
-        try {
-            fAttributeTreeRoot.debugPrint(writer);
-        } finally {
-            fLock.readLock().unlock();
+        /* Only used for debugging, shouldn't be externalized */
+        Nodes nodes = fNodes;
+        writer.println("------------------------------"); //$NON-NLS-1$
+        writer.println("Attribute tree: (quark)\n"); //$NON-NLS-1$
+        debugPrint(writer, nodes, ROOT_NODE, 0);
+        writer.print('\n');
+    }
+
+    private static void debugPrint(PrintWriter writer, Nodes nodes, int node, int depth) {
+        writer.println(nodes.getName(node) + " (" + (node - 1) + ')'); //$NON-NLS-1$
+        for (int child = nodes.getFirstChild(node); child != NO_NODE; child = nodes.getNextSibling(child)) {
+            for (int j = 0; j <= depth; j++) {
+                writer.print("  "); //$NON-NLS-1$
+            }
+            debugPrint(writer, nodes, child, depth + 1);
         }
     }
 
@@ -21,8 +21,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -47,8 +49,7 @@ import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue.Type;
 import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
 
-import com.google.common.collect.ImmutableCollection.Builder;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 /**
@@ -67,8 +68,6 @@ import com.google.common.collect.Iterables;
 public class StateSystem implements ITmfStateSystemBuilder {
 
     private static final int MAX_STACK_DEPTH = 100000;
-    private static final String PARENT = ".."; //$NON-NLS-1$
-    private static final String WILDCARD = "*"; //$NON-NLS-1$
 
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(StateSystem.class);
 
@@ -323,44 +322,13 @@ public class StateSystem implements ITmfStateSystemBuilder {
 
     @Override
     public List<@NonNull Integer> getQuarks(int startingNodeQuark, String... pattern) {
-        Builder<@NonNull Integer> builder = ImmutableSet.builder();
-        if (pattern.length > 0) {
-            getQuarks(builder, startingNodeQuark, Arrays.asList(pattern));
-        } else {
-            builder.add(startingNodeQuark);
-        }
-        return builder.build().asList();
-    }
-
-    private void getQuarks(Builder<@NonNull Integer> builder, int quark, List<String> pattern) {
-        String element = pattern.get(0);
-        if (element == null) {
-            return;
-        }
-        List<String> remainder = pattern.subList(1, pattern.size());
-        if (remainder.isEmpty()) {
-            if (element.equals(WILDCARD)) {
-                builder.addAll(getSubAttributes(quark, false));
-            } else if (element.equals(PARENT)) {
-                builder.add(getParentAttributeQuark(quark));
-            } else {
-                int subQuark = optQuarkRelative(quark, element);
-                if (subQuark != INVALID_ATTRIBUTE) {
-                    builder.add(subQuark);
-                }
-            }
-        } else {
-            if (element.equals(WILDCARD)) {
-                getSubAttributes(quark, false).forEach(subquark -> getQuarks(builder, subquark, remainder));
-            } else if (element.equals(PARENT)) {
-                getQuarks(builder, getParentAttributeQuark(quark), remainder);
-            } else {
-                int subQuark = optQuarkRelative(quark, element);
-                if (subQuark != INVALID_ATTRIBUTE) {
-                    getQuarks(builder, subQuark, remainder);
-                }
-            }
+        if (pattern.length == 0) {
+            return ImmutableList.of(startingNodeQuark);
         }
+        /* The attribute tree resolves the names of the pattern only once */
+        Set<@NonNull Integer> quarks = new LinkedHashSet<>();
+        getAttributeTree().getQuarks(startingNodeQuark, pattern, quarks);
+        return ImmutableList.copyOf(quarks);
     }
 
     // --------------------------------------------------------------------------
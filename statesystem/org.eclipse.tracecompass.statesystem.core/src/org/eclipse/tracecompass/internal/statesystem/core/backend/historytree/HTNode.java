@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 Ericsson, École Polytechnique de Montréal, and others
+ * Copyright (c) 2010, 2026 Ericsson, École Polytechnique de Montréal, and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -30,6 +31,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
@@ -142,9 +144,21 @@ public abstract class HTNode {
     /* Vector containing all the intervals contained in this node */
     private final List<HTInterval> fIntervals;
 
+    /*
+     * Index of the intervals by attribute. It is built once the node is on
+     * disk and its intervals can no longer change, and only after a few
+     * queries, since nodes evicted from the cache are read again as new
+     * objects and the index would not pay off for a single query.
+     */
+    private volatile @Nullable AttributeIndex fAttributeIndex = null;
+    private volatile int fNbQueries = 0;
+
     /* Lock used to protect the accesses to intervals, nodeEnd and such */
     private final ReentrantReadWriteLock fRwl = new ReentrantReadWriteLock(false);
 
+    /** Number of queries on a node before its attribute index is built */
+    private static final int INDEX_QUERY_THRESHOLD = 4;
+
     /** Order of intervals in a HTNode: sorted by end times, then by start times. */
     private static final Comparator<ITmfStateInterval> NODE_ORDER = Comparator
             .comparingLong(ITmfStateInterval::getEndTime)
@@ -192,8 +206,6 @@ public abstract class HTNode {
      */
     public static final @NonNull HTNode readNode(HTConfig config, FileChannel fc, IHistoryTree.IHTNodeFactory nodeFactory)
             throws IOException {
-        HTNode newNode = null;
-
         ByteBuffer buffer = ByteBuffer.allocate(config.getBlockSize());
         buffer.order(ByteOrder.LITTLE_ENDIAN);
         buffer.clear();
@@ -202,6 +214,44 @@ public abstract class HTNode {
             throw new IOException("Expected " + config.getBlockSize() + " block size, but got " + res);  //$NON-NLS-1$//$NON-NLS-2$
         }
         buffer.flip();
+        return readNode(config, buffer, nodeFactory);
+    }
+
+    /**
+     * Reader factory method. Build a Node object (of the right type) by reading
+     * a block at a given position in the file. This does not change the
+     * position of the file channel, so many nodes can be read concurrently.
+     *
+     * @param config
+     *            Configuration of the History Tree
+     * @param fc
+     *            FileChannel to the history file
+     * @param position
+     *            The position of the start of the node in the file
+     * @param nodeFactory
+     *            The factory to create the nodes for this tree
+     * @return The node object
+     * @throws IOException
+     *             If there was an error reading from the file channel
+     */
+    public static final @NonNull HTNode readNode(HTConfig config, FileChannel fc, long position, IHistoryTree.IHTNodeFactory nodeFactory)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(config.getBlockSize());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int res = fc.read(buffer, position + buffer.position());
+            if (res < 0) {
+                throw new IOException("Expected " + config.getBlockSize() + " block size, but got " + buffer.position());  //$NON-NLS-1$//$NON-NLS-2$
+            }
+        }
+        buffer.flip();
+        return readNode(config, buffer, nodeFactory);
+    }
+
+    private static @NonNull HTNode readNode(HTConfig config, ByteBuffer buffer, IHistoryTree.IHTNodeFactory nodeFactory)
+            throws IOException {
+        HTNode newNode = null;
 
         /* Read the common header part */
         byte typeByte = buffer.get();
@@ -474,7 +524,22 @@ public abstract class HTNode {
         /* This is from a state system query, we are "reading" this node */
         fRwl.readLock().lock();
         try {
-            for (int i = getStartIndexFor(t); i < fIntervals.size(); i++) {
+            int startIndex = getStartIndexFor(t);
+            AttributeIndex index = getAttributeIndex();
+            if (index != null && index.getNbAttributes() < fIntervals.size() - startIndex) {
+                /*
+                 * Fewer attributes than intervals to scan, look for the
+                 * interval of each attribute instead.
+                 */
+                for (int group = 0; group < index.getNbAttributes() && index.getAttribute(group) < stateInfo.size(); group++) {
+                    HTInterval interval = index.getInterval(group, t);
+                    if (interval != null) {
+                        stateInfo.set(interval.getAttribute(), interval);
+                    }
+                }
+                return;
+            }
+            for (int i = startIndex; i < fIntervals.size(); i++) {
                 /*
                  * Now we only have to compare the Start times, since we now the
                  * End times necessarily fit.
@@ -512,6 +577,11 @@ public abstract class HTNode {
         try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINEST, "HTNode:singleQuery", //$NON-NLS-1$
                 "time", t, //$NON-NLS-1$
                 "attribute", key)) { //$NON-NLS-1$
+            AttributeIndex index = getAttributeIndex();
+            if (index != null) {
+                int group = index.getGroup(key);
+                return (group < 0 ? null : index.getInterval(group, t));
+            }
             for (int i = getStartIndexFor(t); i < fIntervals.size(); i++) {
                 HTInterval curInterval = fIntervals.get(i);
                 if (curInterval.getAttribute() == key
@@ -543,8 +613,17 @@ public abstract class HTNode {
         try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINEST, "HTNode:query2D", //$NON-NLS-1$
                 "quarks", quarks, //$NON-NLS-1$
                 "times", times)) { //$NON-NLS-1$
+            int startIndex = getStartIndexFor(times.min());
+            AttributeIndex index = getAttributeIndex();
+            if (index != null) {
+                int firstGroup = index.getFirstGroupFrom(quarks.min());
+                int lastGroup = index.getFirstGroupFrom(quarks.max() + 1L);
+                if (lastGroup - firstGroup < fIntervals.size() - startIndex) {
+                    return index.iterable2D(quarks, times, firstGroup, lastGroup);
+                }
+            }
             List<HTInterval> intervals = new ArrayList<>();
-            for (HTInterval interval : fIntervals.subList(getStartIndexFor(times.min()), fIntervals.size())) {
+            for (HTInterval interval : fIntervals.subList(startIndex, fIntervals.size())) {
                 if (quarks.test(interval.getAttribute())
                         && times.intersects(interval.getStartTime(), interval.getEndTime())) {
                     intervals.add(interval);
@@ -556,6 +635,21 @@ public abstract class HTNode {
         }
     }
 
+    /**
+     * Get the index of the intervals by attribute, building it if the node is
+     * on disk. Should only be called by methods with the readLock taken.
+     *
+     * @return The index, or <code>null</code> if the node can still change
+     */
+    private @Nullable AttributeIndex getAttributeIndex() {
+        AttributeIndex index = fAttributeIndex;
+        if (index == null && fIsOnDisk && ++fNbQueries > INDEX_QUERY_THRESHOLD) {
+            index = new AttributeIndex(fIntervals);
+            fAttributeIndex = index;
+        }
+        return index;
+    }
+
     private int getStartIndexFor(long t) throws TimeRangeException {
         /* Should only be called by methods with the readLock taken */
 
@@ -707,6 +801,149 @@ public abstract class HTNode {
         writer.println('\n');
     }
 
+    /**
+     * The intervals of a node grouped by attribute. The intervals of one
+     * attribute do not overlap, so within a group they are sorted by start
+     * time as well as by end time, and the interval at a given time can be
+     * found with a binary search.
+     */
+    private static final class AttributeIndex {
+
+        private final List<HTInterval> fNodeIntervals;
+        /* Positions in the node's intervals, sorted by attribute, then time */
+        private final int[] fOrder;
+        /* The attribute of each group, in increasing order */
+        private final int[] fAttributes;
+        /* The start of each group in fOrder, followed by the length of fOrder */
+        private final int[] fGroupStarts;
+
+        public AttributeIndex(List<HTInterval> intervals) {
+            fNodeIntervals = intervals;
+            int size = intervals.size();
+            /*
+             * Sort the attribute and position pairs as longs, the node order
+             * is also the time order for a single attribute.
+             */
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) intervals.get(i).getAttribute() << 32) | i;
+            }
+            Arrays.sort(keys);
+            fOrder = new int[size];
+            int[] attributes = new int[size];
+            int[] groupStarts = new int[size + 1];
+            int nbGroups = 0;
+            for (int i = 0; i < size; i++) {
+                int attribute = (int) (keys[i] >>> 32);
+                fOrder[i] = (int) keys[i];
+                if (nbGroups == 0 || attributes[nbGroups - 1] != attribute) {
+                    attributes[nbGroups] = attribute;
+                    groupStarts[nbGroups] = i;
+                    nbGroups++;
+                }
+            }
+            groupStarts[nbGroups] = size;
+            fAttributes = Arrays.copyOf(attributes, nbGroups);
+            fGroupStarts = Arrays.copyOf(groupStarts, nbGroups + 1);
+        }
+
+        public int getNbAttributes() {
+            return fAttributes.length;
+        }
+
+        public int getAttribute(int group) {
+            return fAttributes[group];
+        }
+
+        /**
+         * Get the group of an attribute, or a negative value if the node has
+         * no interval for it
+         */
+        public int getGroup(int attribute) {
+            return Arrays.binarySearch(fAttributes, attribute);
+        }
+
+        /**
+         * Get the first group whose attribute is greater or equal to a value
+         */
+        public int getFirstGroupFrom(long attribute) {
+            if (attribute > Integer.MAX_VALUE) {
+                return fAttributes.length;
+            }
+            int group = Arrays.binarySearch(fAttributes, (int) Long.max(attribute, Integer.MIN_VALUE));
+            return (group >= 0 ? group : -group - 1);
+        }
+
+        private HTInterval get(int position) {
+            return fNodeIntervals.get(fOrder[position]);
+        }
+
+        /**
+         * Get the first position in a group of the interval ending at or after
+         * a time
+         */
+        private int getFirstEndingFrom(int group, long t) {
+            int low = fGroupStarts[group];
+            int high = fGroupStarts[group + 1];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid).getEndTime() < t) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Get the interval of a group intersecting a time, or null if the node
+         * does not have it
+         */
+        public @Nullable HTInterval getInterval(int group, long t) {
+            int position = getFirstEndingFrom(group, t);
+            if (position < fGroupStarts[group + 1]) {
+                HTInterval interval = get(position);
+                if (interval.getStartTime() <= t) {
+                    return interval;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Get the intervals of a range of groups matching the conditions, in
+         * the order of the node
+         */
+        public List<HTInterval> iterable2D(IntegerRangeCondition quarks, TimeRangeCondition times, int firstGroup, int lastGroup) {
+            int[] positions = new int[16];
+            int count = 0;
+            for (int group = firstGroup; group < lastGroup; group++) {
+                if (!quarks.test(fAttributes[group])) {
+                    continue;
+                }
+                for (int position = getFirstEndingFrom(group, times.min()); position < fGroupStarts[group + 1]; position++) {
+                    HTInterval interval = get(position);
+                    if (interval.getStartTime() > times.max()) {
+                        break;
+                    }
+                    if (times.intersects(interval.getStartTime(), interval.getEndTime())) {
+                        if (count == positions.length) {
+                            positions = Arrays.copyOf(positions, count * 2);
+                        }
+                        positions[count++] = fOrder[position];
+                    }
+                }
+            }
+            Arrays.sort(positions, 0, count);
+            List<HTInterval> intervals = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                intervals.add(fNodeIntervals.get(positions[i]));
+            }
+            return intervals;
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Abstract methods
     // ------------------------------------------------------------------------
@@ -24,7 +24,14 @@ import java.nio.file.Files;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -100,16 +107,33 @@ public class HT_IO {
 
             TraceCompassLogUtils.traceInstant(LOGGER, Level.FINEST, "Ht_Io:CacheMiss", "seqNum", seqNb); //$NON-NLS-1$ //$NON-NLS-2$
 
-            synchronized (io) {
-                io.seekFCToNodePos(io.fFileChannelIn, seqNb);
-                return HTNode.readNode(io.fConfig, io.fFileChannelIn, key.fStateHistory.fNodeFactory);
-            }
+            /*
+             * Positional reads do not use the position of the channel, so
+             * nodes can be loaded concurrently. They do not need the lock of
+             * the writes either: a node is only read from disk once it left
+             * the latest branch, after writeNode() returned.
+             */
+            return HTNode.readNode(io.fConfig, io.fFileChannelIn, io.getNodePosition(seqNb), key.fStateHistory.fNodeFactory);
         }
     };
 
     private static final LoadingCache<CacheKey, HTNode> NODE_CACHE = CacheBuilder.newBuilder()
             .maximumSize(CACHE_SIZE).build(NODE_LOADER);
 
+    /** Threads reading the nodes that queries will need next */
+    private static final ExecutorService PREFETCH_EXECUTOR;
+
+    static {
+        int nbThreads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads, nbThreads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "History tree prefetch"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        PREFETCH_EXECUTOR = executor;
+    }
+
 
     // ------------------------------------------------------------------------
     // Instance fields
@@ -126,6 +150,9 @@ public class HT_IO {
 
     private final IHTNodeFactory fNodeFactory;
 
+    /* Sequence numbers of the nodes being prefetched */
+    private final Set<Integer> fPrefetching = ConcurrentHashMap.newKeySet();
+
     // ------------------------------------------------------------------------
     // Methods
     // ------------------------------------------------------------------------
@@ -241,6 +268,41 @@ public class HT_IO {
         return readNode(queue.pop());
     }
 
+    /**
+     * Start reading nodes from disk in the background, so that they are in the
+     * cache when a query needs them. Nodes that are cached or already being
+     * read are skipped. A query reading a node that is being prefetched waits
+     * for that read instead of reading it again.
+     *
+     * @param seqNumbers
+     *            The sequence numbers of the nodes to read. They must be on
+     *            disk.
+     */
+    public void prefetch(Iterable<Integer> seqNumbers) {
+        for (Integer seqNumber : seqNumbers) {
+            CacheKey key = new CacheKey(this, seqNumber);
+            if (NODE_CACHE.getIfPresent(key) != null || !fPrefetching.add(seqNumber)) {
+                continue;
+            }
+            try {
+                PREFETCH_EXECUTOR.execute(() -> {
+                    try {
+                        NODE_CACHE.get(key);
+                    } catch (ExecutionException | RuntimeException e) {
+                        /*
+                         * The file was probably closed, a query that needs this
+                         * node will read it again and handle the error.
+                         */
+                    } finally {
+                        fPrefetching.remove(seqNumber);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fPrefetching.remove(seqNumber);
+            }
+        }
+    }
+
     /**
      * Write the given node to disk.
      *
@@ -251,15 +313,19 @@ public class HT_IO {
         try {
             int seqNumber = node.getSequenceNumber();
 
-            /* "Write-back" the node into the cache */
-            CacheKey key = new CacheKey(this, seqNumber);
-            NODE_CACHE.put(key, node);
-
             /* Position ourselves at the start of the node and write it */
             synchronized (this) {
                 seekFCToNodePos(fFileChannelOut, seqNumber);
                 node.writeSelf(fFileChannelOut);
             }
+
+            /*
+             * "Write-back" the node into the cache, only once it is complete
+             * on disk, so that it is never read partially written after an
+             * eviction
+             */
+            CacheKey key = new CacheKey(this, seqNumber);
+            NODE_CACHE.put(key, node);
         } catch (IOException e) {
             /* If we were able to open the file, we should be fine now... */
             Activator.getDefault().logError(e.getMessage(), e);
@@ -334,8 +400,12 @@ public class HT_IO {
      */
     private void seekFCToNodePos(FileChannel fc, long seqNumber)
             throws IOException {
-        fc.position(IHistoryTree.TREE_HEADER_SIZE
-                + seqNumber * fConfig.getBlockSize());
+        fc.position(getNodePosition(seqNumber));
+    }
+
+    private long getNodePosition(long seqNumber) {
+        return IHistoryTree.TREE_HEADER_SIZE
+                + seqNumber * fConfig.getBlockSize();
     }
 
 }
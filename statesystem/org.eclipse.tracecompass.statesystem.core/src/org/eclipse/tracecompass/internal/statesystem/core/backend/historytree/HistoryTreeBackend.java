@@ -41,6 +41,7 @@ import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 
 /**
  * History Tree backend for storing a state history. This is the basic version
@@ -52,6 +53,9 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
 
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(HistoryTreeBackend.class);
 
+    /** Number of queued nodes to read ahead during 2D queries */
+    private static final int PREFETCH_COUNT = 8;
+
     private final @NonNull String fSsid;
 
     /**
@@ -382,6 +386,13 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
                                 if (currentNode.getNodeType() == HTNode.NodeType.CORE) {
                                     // Queue the relevant children nodes for BFS.
                                     ((ParentNode) currentNode).queueNextChildren2D(quarks, subTimes, seqNumberQueue, reverse);
+                                    /*
+                                     * Read the next nodes in the background while
+                                     * this one is iterated. Only a few are read
+                                     * ahead, so an iteration that stops early
+                                     * does not read the rest of the tree.
+                                     */
+                                    getSHT().prefetchNodes(Iterables.limit(seqNumberQueue, PREFETCH_COUNT));
                                 }
                                 intervalQueue = currentNode.iterable2D(quarks, subTimes).iterator();
                             }
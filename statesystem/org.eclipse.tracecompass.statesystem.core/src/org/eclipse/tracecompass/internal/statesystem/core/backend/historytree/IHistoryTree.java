@@ -172,6 +172,15 @@ public interface IHistoryTree {
      */
     HTNode readNode(Deque<Integer> queue) throws ClosedChannelException;
 
+    /**
+     * Start reading nodes in the background, so they are cached when they are
+     * read later. Nodes that are still in memory are not read.
+     *
+     * @param seqNumbers
+     *            The sequence numbers of the nodes that will be read soon
+     */
+    void prefetchNodes(Iterable<Integer> seqNumbers);
+
     /**
      * Write a node object to the history file.
      *
@@ -428,6 +428,19 @@ public class HistoryTreeClassic implements IHistoryTree {
         return fTreeIO.readNode(queue);
     }
 
+    @Override
+    public void prefetchNodes(Iterable<Integer> seqNumbers) {
+        List<Integer> onDisk = new ArrayList<>();
+        synchronized (fLatestBranch) {
+            for (Integer seqNumber : seqNumbers) {
+                if (fLatestBranch.stream().noneMatch(node -> node.getSequenceNumber() == seqNumber)) {
+                    onDisk.add(seqNumber);
+                }
+            }
+        }
+        fTreeIO.prefetch(onDisk);
+    }
+
     @Override
     public void writeNode(HTNode node) {
         fTreeIO.writeNode(node);
@@ -11,16 +11,25 @@
 
 package org.eclipse.tracecompass.statesystem.core.snapshot;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -29,6 +38,10 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferReader;
+import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferWriter;
+import org.eclipse.tracecompass.datastore.core.serialization.SafeByteBufferFactory;
+import org.eclipse.tracecompass.internal.provisional.statesystem.core.statevalue.CustomStateValue;
 import org.eclipse.tracecompass.internal.statesystem.core.Activator;
 import org.eclipse.tracecompass.internal.statesystem.core.interval.json.TmfIntervalDeserializer;
 import org.eclipse.tracecompass.internal.statesystem.core.interval.json.TmfIntervalSerializer;
@@ -37,7 +50,6 @@ import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedE
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.statesystem.core.interval.TmfStateInterval;
 
-import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -48,6 +60,11 @@ import com.google.gson.annotations.Since;
  * Wrapper object representing a full query, along with its corresponding
  * attributes. It allows to reconstruct an initial state from scratch.
  *
+ * Snapshots are saved in a compact binary format: the attribute paths are
+ * encoded as a tree of path elements, and the path elements and string values
+ * are written once in a dictionary and then referred to by index. Snapshots
+ * previously saved as JSON can still be read.
+ *
  * @author Alexandre Montplaisir
  * @author Philippe Proulx
  * @since 4.0
@@ -89,8 +106,24 @@ public class StateSnapshot {
     /** File format version. Bump if the format changes */
     private static final int SNAPSHOT_FORMAT_VERSION = 1;
 
+    /** Binary file format version. Bump if the format changes */
+    private static final int BINARY_FORMAT_VERSION = 1;
+    private static final int BINARY_MAGIC = 0x54435353;
+
+    /* Types of the values in the binary format */
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INTEGER = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_STRING = 4;
+    private static final byte TYPE_CUSTOM = 5;
+
+    /** Event rank of the snapshots that do not have one */
+    private static final long UNKNOWN_RANK = -1;
+
     private static final String SNAPSHOT_DIRECTORY = ".tc-states"; //$NON-NLS-1$
     private static final String FILE_SUFFIX = ".snapshot.json"; //$NON-NLS-1$
+    private static final String BINARY_FILE_SUFFIX = ".snapshot"; //$NON-NLS-1$
 
     private static final Gson GSON = Objects.requireNonNull(new GsonBuilder()
             .registerTypeAdapter(ITmfStateInterval.class, new TmfIntervalDeserializer())
@@ -122,6 +155,8 @@ public class StateSnapshot {
 
     private long fStartTime;
 
+    private transient long fEventRank = UNKNOWN_RANK;
+
     /**
      * Get the format version
      *
@@ -140,6 +175,29 @@ public class StateSnapshot {
         return fSsid;
     }
 
+    /**
+     * Get the timestamp at which the states were queried
+     *
+     * @return the timestamp of the snapshot
+     * @since 5.1
+     */
+    public long getStartTime() {
+        return fStartTime;
+    }
+
+    /**
+     * Get the rank of the first trace event that is not included in the
+     * states of this snapshot, see
+     * {@link #createResumeSnapshot(ITmfStateSystem, long, int, long)}
+     *
+     * @return the event rank, or a negative value if this snapshot was not
+     *         built to resume the construction of a state system
+     * @since 5.1
+     */
+    public long getEventRank() {
+        return fEventRank;
+    }
+
     /**
      * Get the states
      *
@@ -209,6 +267,48 @@ public class StateSnapshot {
         this(ss, timestamp, timestamp, version);
     }
 
+    /**
+     * Build a snapshot of the ongoing states of a state system being built, to
+     * resume its construction later. Unlike the snapshots built with the
+     * constructors, the intervals keep the start times of the ongoing states.
+     *
+     * @param ss
+     *            The state system for which to build the state dump
+     * @param timestamp
+     *            The time of the latest state change in the state system,
+     *            usually the time of the latest event handled by the state
+     *            provider
+     * @param version
+     *            Version of the snapshot
+     * @param eventRank
+     *            The rank of the first event that was not handled by the state
+     *            provider yet, where the construction should resume
+     * @return The snapshot
+     * @since 5.1
+     */
+    public static StateSnapshot createResumeSnapshot(ITmfStateSystem ss, long timestamp, int version, long eventRank) {
+        ImmutableList.Builder<@NonNull AttributeAndInterval> states = new ImmutableList.Builder<>();
+        int nbAttributes = ss.getNbAttributes();
+        for (int quark = 0; quark < nbAttributes; quark++) {
+            long start = ss.getOngoingStartTime(quark);
+            ITmfStateInterval interval = new TmfStateInterval(start, Math.max(start, timestamp), quark, ss.queryOngoing(quark));
+            states.add(new AttributeAndInterval(Arrays.asList(ss.getFullAttributePathArray(quark)), interval));
+        }
+        return new StateSnapshot(String.valueOf(ss.getSSID()), version, timestamp, timestamp, eventRank, states.build());
+    }
+
+    /*
+     * Constructor used when reading a binary snapshot
+     */
+    private StateSnapshot(String ssid, int version, long startTime, long endTime, long eventRank, Collection<AttributeAndInterval> attributes) {
+        fSsid = ssid;
+        fVersion = version;
+        fStartTime = startTime;
+        fEndTime = endTime;
+        fEventRank = eventRank;
+        fAttributes = attributes;
+    }
+
     /**
      * Get the version of this snapshot. Can be used to consider if a snapshot
      * should be read or not if the analysis changed since it was written.
@@ -236,17 +336,171 @@ public class StateSnapshot {
             Files.createDirectory(sdPath);
         }
 
-        /* Create state dump file */
-        String fileName = fSsid + FILE_SUFFIX;
-        Path filePath = sdPath.resolve(fileName);
-        if (filePath.toFile().exists()) {
-            Files.delete(filePath);
+        /* A JSON snapshot of a previous version would be obsolete */
+        Files.deleteIfExists(sdPath.resolve(fSsid + FILE_SUFFIX));
+        writeFile(sdPath.resolve(fSsid + BINARY_FILE_SUFFIX));
+    }
+
+    /**
+     * Save this snapshot in the given file, in the binary format. The file is
+     * replaced atomically, so a reader never sees a partially written
+     * snapshot.
+     *
+     * @param filePath
+     *            The snapshot file
+     * @throws IOException
+     *             If there are problems writing the file
+     * @since 5.1
+     */
+    public void writeFile(Path filePath) throws IOException {
+        Path tmpPath = filePath.resolveSibling(filePath.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+            writeBinary(out);
+        }
+        try {
+            Files.move(tmpPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeBinary(DataOutputStream out) throws IOException {
+        /* Dictionary of the path elements and string values */
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        /* Tree of the path elements, as (parent node, string index) pairs */
+        Map<List<String>, Integer> nodes = new HashMap<>();
+        List<int[]> nodeEntries = new ArrayList<>();
+        int[] attributeNodes = new int[fAttributes.size()];
+        int i = 0;
+        for (AttributeAndInterval attribute : fAttributes) {
+            List<String> path = attribute.getPath();
+            int parent = -1;
+            for (int depth = 1; depth <= path.size(); depth++) {
+                List<String> prefix = path.subList(0, depth);
+                Integer node = nodes.get(prefix);
+                if (node == null) {
+                    node = nodeEntries.size();
+                    nodes.put(prefix, node);
+                    nodeEntries.add(new int[] { parent, intern(path.get(depth - 1), dictionary, strings) });
+                }
+                parent = node;
+            }
+            attributeNodes[i++] = parent;
+            Object value = attribute.getInterval().getValue();
+            if (value != null && !isPrimitiveValue(value)) {
+                intern(value.toString(), dictionary, strings);
+            }
+        }
+
+        out.writeInt(BINARY_MAGIC);
+        out.writeInt(BINARY_FORMAT_VERSION);
+        writeString(out, fSsid);
+        out.writeInt(fVersion);
+        out.writeLong(fStartTime);
+        out.writeLong(fEndTime);
+        out.writeLong(fEventRank);
+
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+        out.writeInt(nodeEntries.size());
+        for (int[] node : nodeEntries) {
+            out.writeInt(node[0]);
+            out.writeInt(node[1]);
+        }
+        out.writeInt(fAttributes.size());
+        i = 0;
+        for (AttributeAndInterval attribute : fAttributes) {
+            ITmfStateInterval interval = attribute.getInterval();
+            out.writeInt(attributeNodes[i++]);
+            out.writeInt(interval.getAttribute());
+            out.writeLong(interval.getStartTime());
+            out.writeLong(interval.getEndTime());
+            writeValue(out, interval.getValue(), dictionary);
+        }
+    }
+
+    private static boolean isPrimitiveValue(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof CustomStateValue;
+    }
+
+    private static int intern(String string, Map<String, Integer> dictionary, List<String> strings) {
+        Integer index = dictionary.get(string);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        /* Not writeUTF(), which is limited to 64k bytes */
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(DataOutputStream out, @Nullable Object value, Map<String, Integer> dictionary) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof CustomStateValue) {
+            CustomStateValue customValue = (CustomStateValue) value;
+            int size = customValue.getSerializedSize();
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            ISafeByteBufferWriter sbbw = SafeByteBufferFactory.wrapWriter(buffer, size);
+            customValue.serialize(sbbw);
+            out.writeByte(TYPE_CUSTOM);
+            out.writeInt(size);
+            out.write(buffer.array());
+        } else {
+            /* Strings, and the last ditch attempt for other values */
+            Integer index = dictionary.get(value.toString());
+            if (index == null) {
+                throw new IOException("Value not in the snapshot dictionary: " + value); //$NON-NLS-1$
+            }
+            out.writeByte(TYPE_STRING);
+            out.writeInt(index);
         }
-        Files.createFile(filePath);
+    }
 
-        try (Writer bw = Files.newBufferedWriter(filePath, Charsets.UTF_8)) {
-            String json = GSON.toJson(this);
-            bw.write(json);
+    private static @Nullable Object readValue(DataInputStream in, String[] strings) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+        case TYPE_NULL:
+            return null;
+        case TYPE_INTEGER:
+            return in.readInt();
+        case TYPE_LONG:
+            return in.readLong();
+        case TYPE_DOUBLE:
+            return in.readDouble();
+        case TYPE_STRING:
+            return strings[in.readInt()];
+        case TYPE_CUSTOM:
+            byte[] serialized = new byte[in.readInt()];
+            in.readFully(serialized);
+            ISafeByteBufferReader sbbr = SafeByteBufferFactory.wrapReader(ByteBuffer.wrap(serialized), serialized.length);
+            return CustomStateValue.readSerializedValue(sbbr).unboxValue();
+        default:
+            throw new IOException("Unknown value type in snapshot: " + type); //$NON-NLS-1$
         }
     }
 
@@ -269,9 +523,12 @@ public class StateSnapshot {
             return null;
         }
 
-        /* Find the state dump file */
-        String fileName = ssid + FILE_SUFFIX;
-        Path filePath = sdPath.resolve(fileName);
+        /* Find the state dump file, in the binary format first */
+        Path filePath = sdPath.resolve(ssid + BINARY_FILE_SUFFIX);
+        if (filePath.toFile().exists()) {
+            return readFile(filePath);
+        }
+        filePath = sdPath.resolve(ssid + FILE_SUFFIX);
         if (!filePath.toFile().exists()) {
             return null;
         }
@@ -279,10 +536,72 @@ public class StateSnapshot {
         try (InputStreamReader in = new InputStreamReader(Files.newInputStream(filePath, StandardOpenOption.READ))) {
             BufferedReader bufReader = new BufferedReader(in);
             String json = bufReader.lines().collect(Collectors.joining("\n")); //$NON-NLS-1$
-            return GSON.fromJson(json, StateSnapshot.class);
+            StateSnapshot snapshot = GSON.fromJson(json, StateSnapshot.class);
+            if (snapshot != null) {
+                snapshot.fEventRank = UNKNOWN_RANK;
+            }
+            return snapshot;
         } catch (IOException e) {
             Activator.getDefault().logError("Error reading snapshot " + parentPath + " " + ssid, e); //$NON-NLS-1$ //$NON-NLS-2$
         }
         return null;
     }
+
+    /**
+     * Retrieve a snapshot saved in the binary format with
+     * {@link #writeFile(Path)}.
+     *
+     * @param filePath
+     *            The snapshot file
+     * @return The de-serialized snapshot, or null if the file does not exist
+     *         or is not a valid snapshot
+     * @since 5.1
+     */
+    public static @Nullable StateSnapshot readFile(Path filePath) {
+        if (!filePath.toFile().exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filePath, StandardOpenOption.READ)))) {
+            if (in.readInt() != BINARY_MAGIC || in.readInt() != BINARY_FORMAT_VERSION) {
+                return null;
+            }
+            String ssid = readString(in);
+            int version = in.readInt();
+            long startTime = in.readLong();
+            long endTime = in.readLong();
+            long eventRank = in.readLong();
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in);
+            }
+            int nbNodes = in.readInt();
+            @SuppressWarnings("null")
+            List<@NonNull String>[] paths = new List[nbNodes];
+            for (int i = 0; i < nbNodes; i++) {
+                int parent = in.readInt();
+                String name = strings[in.readInt()];
+                List<@NonNull String> path = new ArrayList<>(parent < 0 ? 1 : paths[parent].size() + 1);
+                if (parent >= 0) {
+                    path.addAll(paths[parent]);
+                }
+                path.add(name);
+                paths[i] = path;
+            }
+            int nbAttributes = in.readInt();
+            ImmutableList.Builder<@NonNull AttributeAndInterval> states = new ImmutableList.Builder<>();
+            for (int i = 0; i < nbAttributes; i++) {
+                List<@NonNull String> path = paths[in.readInt()];
+                int quark = in.readInt();
+                long start = in.readLong();
+                long end = in.readLong();
+                Object value = readValue(in, strings);
+                states.add(new AttributeAndInterval(path, new TmfStateInterval(start, end, quark, value)));
+            }
+            return new StateSnapshot(ssid, version, startTime, endTime, eventRank, states.build());
+        } catch (IOException | RuntimeException e) {
+            Activator.getDefault().logError("Error reading snapshot " + filePath, e); //$NON-NLS-1$
+        }
+        return null;
+    }
 }
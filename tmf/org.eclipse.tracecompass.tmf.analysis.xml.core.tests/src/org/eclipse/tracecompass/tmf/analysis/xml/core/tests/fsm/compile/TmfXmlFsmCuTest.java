@@ -478,6 +478,63 @@ public class TmfXmlFsmCuTest {
 
     };
 
+    private static final @NonNull CompilationResult VALID_CORRELATION_KEY = new CompilationResult() {
+
+        @Override
+        public String getName() {
+            return "valid_correlation_key";
+        }
+
+        @Override
+        public String getXmlString() {
+            return String.format(WRAPPER_STRING,
+                    TEST1 + ACTION1 + String.format(FSM_START, getName(), "maxScenarios=\"100\"") +
+                            "<correlationKey type=\"eventField\" value=\"tid\" />" +
+                            String.format(STATE_START, STATE1_NAME) +
+                            String.format(TRANSITION_STRING, EVENTS_STRING, String.format(ACTION_STRING, ACTION1_NAME), String.format(TEST_STRING, TEST1_NAME), String.format(TARGET_STRING, STATE1_NAME), StringUtils.EMPTY, StringUtils.EMPTY) +
+                            STATE_END +
+                            FSM_END);
+        }
+
+        @Override
+        public DataDrivenFsm getResult() {
+            DataDrivenFsmSimpleState state = new DataDrivenFsmSimpleState(STATE1_NAME,
+                    Collections.singletonList(new DataDrivenFsmStateTransition(EVENT_CONDITION,
+                            TEST1_DD,
+                            STATE1_NAME,
+                            Collections.singletonList(ACTION1_DD))),
+                    DataDrivenAction.NO_ACTION, DataDrivenAction.NO_ACTION);
+            return new DataDrivenFsm(getName(), state,
+                    ImmutableMap.of(STATE1_NAME, state), DataDrivenCondition.TRUE_CONDITION, true, true,
+                    new DataDrivenValueEventField(null, ITmfStateValue.Type.NULL, "tid"), 100);
+        }
+
+    };
+
+    private static final @NonNull CompilationResult INVALID_MAX_SCENARIOS = new CompilationResult() {
+
+        @Override
+        public String getName() {
+            return "invalid_max_scenarios";
+        }
+
+        @Override
+        public String getXmlString() {
+            return String.format(WRAPPER_STRING,
+                    TEST1 + ACTION1 + String.format(FSM_START, getName(), "maxScenarios=\"many\"") +
+                            String.format(STATE_START, STATE1_NAME) +
+                            String.format(TRANSITION_STRING, EVENTS_STRING, String.format(ACTION_STRING, ACTION1_NAME), String.format(TEST_STRING, TEST1_NAME), String.format(TARGET_STRING, STATE1_NAME), StringUtils.EMPTY, StringUtils.EMPTY) +
+                            STATE_END +
+                            FSM_END);
+        }
+
+        @Override
+        public DataDrivenFsm getResult() {
+            return null;
+        }
+
+    };
+
     private static final @NonNull CompilationResult INVALID_UNDEFINED_ACTION = new CompilationResult() {
 
         @Override
@@ -566,6 +623,8 @@ public class TmfXmlFsmCuTest {
                 { INVALID_UNDEFINED_CONDITION },
                 { INVALID_UNDEFINED_TARGET },
                 { VALID_NO_INITIAL },
+                { VALID_CORRELATION_KEY },
+                { INVALID_MAX_SCENARIOS },
         });
     }
 
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.analysis.xml.core.tests.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenEventNameIndex;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link DataDrivenEventNameIndex} class
+ */
+public class DataDrivenEventNameIndexTest {
+
+    /**
+     * Test exact names, prefix wildcards and regexes, in the order of the
+     * values
+     */
+    @Test
+    public void testMatches() {
+        ImmutableMap<String, List<String>> names = ImmutableMap.<String, List<String>> builder()
+                .put("exact", Collections.singletonList("sched_switch"))
+                .put("prefix", Collections.singletonList("syscall_entry_*"))
+                .put("all", Collections.singletonList("*"))
+                .put("regex", Arrays.asList("sched_(wakeup|waking)", "sched_process_*_end"))
+                .put("any", Collections.emptyList())
+                .put("shortPrefix", Arrays.asList("sys*", "sched_switch"))
+                .build();
+        DataDrivenEventNameIndex<String> index = new DataDrivenEventNameIndex<>(names.keySet().asList(), names::get);
+
+        assertEquals(ImmutableList.of("exact", "all", "any", "shortPrefix"), index.get("sched_switch"));
+        assertEquals(ImmutableList.of("all", "any"), index.get("sched_switch2"));
+        assertEquals(ImmutableList.of("prefix", "all", "any", "shortPrefix"), index.get("syscall_entry_open"));
+        assertEquals(ImmutableList.of("all", "any", "shortPrefix"), index.get("syscall_exit_open"));
+        assertEquals(ImmutableList.of("all", "regex", "any"), index.get("sched_waking"));
+        assertEquals(ImmutableList.of("all", "regex", "any"), index.get("sched_process_fork_end"));
+        assertEquals(ImmutableList.of("all", "any"), index.get(""));
+        /* Cached result */
+        assertEquals(ImmutableList.of("all", "regex", "any"), index.get("sched_waking"));
+    }
+
+    /**
+     * Test names that match nothing
+     */
+    @Test
+    public void testNoMatch() {
+        ImmutableMap<String, List<String>> names = ImmutableMap.of(
+                "a", Collections.singletonList("a.c"),
+                "b", Collections.singletonList("b*"));
+        DataDrivenEventNameIndex<String> index = new DataDrivenEventNameIndex<>(names.keySet().asList(), names::get);
+
+        assertTrue(index.matches("abc"));
+        assertTrue(index.matches("b"));
+        assertFalse(index.matches("ab"));
+        assertFalse(index.matches("cb"));
+        assertTrue(new DataDrivenEventNameIndex<>(Collections.emptyList(), v -> null).get("a").isEmpty());
+    }
+
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.analysis.xml.core.tests.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenAction;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenCondition;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsm;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmSimpleState;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmStateTransition;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenMappingGroup;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenRuntimeData;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenRuntimeFsm;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenario;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenarioHistoryBuilder.ScenarioStatusType;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueEventField;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueEventName;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module.IAnalysisDataContainer;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the scenarios of an FSM with a correlation key and a maximum number of
+ * scenarios
+ */
+public class DataDrivenRuntimeFsmTest {
+
+    private static final String START = "start";
+    private static final String END = "end";
+    private static final String TID = "tid";
+
+    private final TmfTraceStub fTrace = new TmfTraceStub();
+    private final DataDrivenRuntimeData fRuntimeData = new DataDrivenRuntimeData();
+    private @Nullable ITmfStateSystemBuilder fSs;
+    private @Nullable IAnalysisDataContainer fContainer;
+    private boolean fStarted = false;
+
+    /**
+     * Create the state system and container
+     */
+    @Before
+    public void setUp() {
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("test", 0));
+        fSs = ss;
+        fContainer = new IAnalysisDataContainer() {
+            @Override
+            public ITmfStateSystem getStateSystem() {
+                return ss;
+            }
+
+            @Override
+            public DataDrivenMappingGroup getMappingGroup(String id) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public DataDrivenRuntimeData getExecutionData() {
+                return fRuntimeData;
+            }
+        };
+    }
+
+    /**
+     * Dispose the state system and trace
+     */
+    @After
+    public void tearDown() {
+        ITmfStateSystemBuilder ss = fSs;
+        if (ss != null) {
+            ss.dispose();
+        }
+        fTrace.dispose();
+    }
+
+    /**
+     * Create an FSM whose scenarios start with a 'start' event and end with an
+     * 'end' event
+     */
+    private static DataDrivenFsm createFsm(@Nullable String correlationField, int maxScenarios) {
+        DataDrivenFsmSimpleState finalState = DataDrivenFsmSimpleState.createFinalState("final");
+        DataDrivenFsmSimpleState running = new DataDrivenFsmSimpleState("running",
+                Collections.singletonList(createTransition(END, "final")), DataDrivenAction.NO_ACTION, DataDrivenAction.NO_ACTION);
+        DataDrivenFsmSimpleState waiting = new DataDrivenFsmSimpleState("waiting",
+                Collections.singletonList(createTransition(START, "running")), DataDrivenAction.NO_ACTION, DataDrivenAction.NO_ACTION);
+        return new DataDrivenFsm("fsm", waiting, ImmutableMap.of("waiting", waiting, "running", running, "final", finalState),
+                DataDrivenCondition.TRUE_CONDITION, true, true,
+                correlationField == null ? null : new DataDrivenValueEventField(null, ITmfStateValue.Type.NULL, correlationField), maxScenarios);
+    }
+
+    private static DataDrivenFsmStateTransition createTransition(String eventName, String target) {
+        return new DataDrivenFsmStateTransition(new DataDrivenCondition.DataDrivenRegexCondition(Pattern.compile(eventName), new DataDrivenValueEventName(null)),
+                Collections.singletonList(eventName), DataDrivenCondition.TRUE_CONDITION, target, Collections.emptyList());
+    }
+
+    private @NonNull ITmfEvent createEvent(String name, long time, long tid) {
+        ITmfEventField content = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, null, new ITmfEventField[] { new TmfEventField(TID, tid, null) });
+        return new TmfEvent(fTrace, ITmfContext.UNKNOWN_RANK, TmfTimestamp.fromNanos(time), new TmfEventType(name, null), content);
+    }
+
+    /**
+     * Handle an event like the pattern event handler does
+     */
+    private void handleEvent(DataDrivenFsm fsm, ITmfEvent event) {
+        IAnalysisDataContainer container = fContainer;
+        assertTrue(container != null);
+        if (!fStarted) {
+            fsm.createScenario(event, true, fRuntimeData, container);
+            fStarted = true;
+        } else if (fsm.isNewScenarioAllowed(fRuntimeData.getRuntimeForFsm(fsm))) {
+            fsm.createScenario(event, false, fRuntimeData, container);
+        }
+        fsm.handleEvent(event, fRuntimeData, container);
+    }
+
+    private static List<@Nullable Object> getKeys(Collection<DataDrivenScenario> scenarios) {
+        return scenarios.stream().map(DataDrivenScenario::getCorrelationKey).collect(Collectors.toList());
+    }
+
+    /**
+     * Test that the events are handled by the scenarios with the same key
+     */
+    @Test
+    public void testCorrelationKey() {
+        DataDrivenFsm fsm = createFsm(TID, 0);
+        handleEvent(fsm, createEvent(START, 1, 1));
+        handleEvent(fsm, createEvent(START, 2, 2));
+        DataDrivenRuntimeFsm runtime = fRuntimeData.getRuntimeForFsm(fsm);
+        assertEquals(ImmutableList.of(1L, 2L), getKeys(runtime.getActiveScenarios()));
+
+        /* Without the key, the first scenario would take this event */
+        handleEvent(fsm, createEvent(END, 3, 2));
+        assertEquals(ImmutableList.of(1L), getKeys(runtime.getActiveScenarios()));
+        assertEquals(1, runtime.getActiveScenarios(1L).size());
+        assertTrue(runtime.getActiveScenarios(2L).isEmpty());
+
+        /* No scenario has this key */
+        handleEvent(fsm, createEvent(END, 4, 3));
+        assertEquals(ImmutableList.of(1L), getKeys(runtime.getActiveScenarios()));
+
+        handleEvent(fsm, createEvent(END, 5, 1));
+        assertTrue(runtime.getActiveScenarios().isEmpty());
+    }
+
+    /**
+     * Test that the events without a correlation key are handled by all the
+     * scenarios, in the order they were started
+     */
+    @Test
+    public void testNoCorrelationKey() {
+        DataDrivenFsm fsm = createFsm(null, 0);
+        handleEvent(fsm, createEvent(START, 1, 1));
+        handleEvent(fsm, createEvent(START, 2, 2));
+        DataDrivenRuntimeFsm runtime = fRuntimeData.getRuntimeForFsm(fsm);
+        List<DataDrivenScenario> scenarios = ImmutableList.copyOf(runtime.getActiveScenarios());
+        assertEquals(2, scenarios.size());
+
+        handleEvent(fsm, createEvent(END, 3, 2));
+        assertEquals(ScenarioStatusType.MATCHED, scenarios.get(0).getScenarioInfos().getStatus());
+        assertEquals(ImmutableList.of(scenarios.get(1)), ImmutableList.copyOf(runtime.getActiveScenarios()));
+    }
+
+    /**
+     * Test that the oldest scenarios are abandoned when there are too many
+     */
+    @Test
+    public void testMaxScenarios() {
+        DataDrivenFsm fsm = createFsm(TID, 2);
+        handleEvent(fsm, createEvent(START, 1, 1));
+        DataDrivenRuntimeFsm runtime = fRuntimeData.getRuntimeForFsm(fsm);
+        DataDrivenScenario first = runtime.getActiveScenarios().iterator().next();
+        handleEvent(fsm, createEvent(START, 2, 2));
+        handleEvent(fsm, createEvent(START, 3, 3));
+
+        assertEquals(ScenarioStatusType.ABANDONED, first.getScenarioInfos().getStatus());
+        assertEquals(ImmutableList.of(2L, 3L), getKeys(runtime.getActiveScenarios()));
+        assertTrue(runtime.getActiveScenarios(1L).isEmpty());
+    }
+
+}
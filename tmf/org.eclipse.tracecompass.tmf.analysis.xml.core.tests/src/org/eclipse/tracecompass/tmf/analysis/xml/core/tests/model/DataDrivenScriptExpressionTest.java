@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.analysis.xml.core.tests.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenMappingGroup;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenScriptExpression;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueConstant;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueScript;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module.IAnalysisDataContainer;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link DataDrivenScriptExpression} class, which should give the
+ * same results as the Nashorn script engine
+ */
+public class DataDrivenScriptExpressionTest {
+
+    private static final List<String> VARIABLES = Arrays.asList("ts", "op", "count", "empty");
+    private static final @Nullable Object[] VALUES = { 10L, "op1", 3, "" };
+
+    private static @Nullable Object evaluate(String script) {
+        DataDrivenScriptExpression expression = DataDrivenScriptExpression.compile(script, DataDrivenValueScript.DEFAULT_SCRIPT_ENGINE, VARIABLES);
+        assertNotNull(script, expression);
+        return expression.evaluate(VALUES);
+    }
+
+    /**
+     * Test the arithmetic operators, whose results are doubles, except for
+     * constant expressions
+     */
+    @Test
+    public void testArithmetic() {
+        assertEquals(12.0, evaluate("ts + 2"));
+        assertEquals(5.0, evaluate("ts / 2"));
+        assertEquals(1.0, evaluate("ts % count"));
+        assertEquals(-7.0, evaluate("count - ts"));
+        assertEquals(26.0, evaluate("(ts + 3) * 2"));
+        assertEquals(-3.0, evaluate("-count"));
+        assertEquals(3, evaluate("6 / 2"));
+        assertEquals(3.5, evaluate("7 / 2"));
+        assertEquals(-5, evaluate("-5"));
+        assertEquals(Double.POSITIVE_INFINITY, evaluate("count / 0"));
+    }
+
+    /**
+     * Test the string concatenation
+     */
+    @Test
+    public void testConcatenation() {
+        assertEquals("op1_10", evaluate("op + '_' + ts"));
+        assertEquals("x12", evaluate("'x' + (ts + 2)"));
+        assertEquals("x102", evaluate("'x' + ts + 2"));
+        assertEquals("12x", evaluate("ts + 2 + \"x\""));
+        assertEquals("it's 3.5", evaluate("'it\\'s ' + 7 / 2"));
+    }
+
+    /**
+     * Test the comparison, logical and conditional operators
+     */
+    @Test
+    public void testConditions() {
+        assertEquals("TRUE", evaluate("op == 'op1' ? 'TRUE' : 'FALSE'"));
+        assertEquals("FALSE", evaluate("op != 'op1' ? 'TRUE' : 'FALSE'"));
+        assertEquals(true, evaluate("count == '3'"));
+        assertEquals(false, evaluate("count === '3'"));
+        assertEquals(true, evaluate("ts > count && count >= 3"));
+        assertEquals(false, evaluate("op < 'a'"));
+        assertEquals("default", evaluate("empty || 'default'"));
+        assertEquals(3, evaluate("op && count"));
+        assertEquals(true, evaluate("!empty"));
+        assertEquals("small", evaluate("count > 5 ? 'big' : count > 2 ? 'small' : 'tiny'"));
+    }
+
+    /**
+     * Test that the scripts with unsupported syntax or for other script
+     * engines are not compiled
+     */
+    @Test
+    public void testUnsupported() {
+        for (String script : Arrays.asList("op.length", "Math.max(ts, 2)", "count = 2", "count++", "ts & 1", "unknown + 1", "typeof ts", "ts; op", "'\\u0041'", "ts +")) {
+            assertNull(script, DataDrivenScriptExpression.compile(script, DataDrivenValueScript.DEFAULT_SCRIPT_ENGINE, VARIABLES));
+        }
+        assertNull(DataDrivenScriptExpression.compile("ts + 2", "python", VARIABLES));
+        assertNotNull(DataDrivenScriptExpression.compile("ts + 2", "JavaScript", VARIABLES));
+    }
+
+    /**
+     * Test a script value that uses a compiled expression
+     */
+    @Test
+    public void testScriptValue() {
+        IAnalysisDataContainer container = new IAnalysisDataContainer() {
+            @Override
+            public ITmfStateSystem getStateSystem() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public DataDrivenMappingGroup getMappingGroup(String id) {
+                throw new IllegalStateException();
+            }
+        };
+        DataDrivenValueScript value = new DataDrivenValueScript(null, ITmfStateValue.Type.STRING,
+                ImmutableMap.of("ts", new DataDrivenValueConstant(null, ITmfStateValue.Type.NULL, 10L)), "ts + 2", "");
+        assertEquals("12.0", value.getValue(null, ITmfStateSystem.ROOT_ATTRIBUTE, null, container));
+
+        value = new DataDrivenValueScript(null, ITmfStateValue.Type.NULL, Collections.emptyMap(), "'a' + 'b'", DataDrivenValueScript.DEFAULT_SCRIPT_ENGINE);
+        assertEquals("ab", value.getValue(null, ITmfStateSystem.ROOT_ATTRIBUTE, null, container));
+    }
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.analysis.xml.core.tests.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenMappingGroup;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenStateSystemPath;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueConstant;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValueSelf;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module.IAnalysisDataContainer;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
+import org.junit.Test;
+
+/**
+ * Test the resolution of constant paths of {@link DataDrivenStateSystemPath}
+ * in many state systems
+ */
+public class DataDrivenStateSystemPathTest {
+
+    private static IAnalysisDataContainer createContainer(ITmfStateSystemBuilder ss) {
+        return new IAnalysisDataContainer() {
+            @Override
+            public ITmfStateSystem getStateSystem() {
+                return ss;
+            }
+
+            @Override
+            public DataDrivenMappingGroup getMappingGroup(String id) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public boolean isReadOnlyContainer() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Test that the quarks of a constant path are those of each state system
+     * and base quark
+     */
+    @Test
+    public void testConstantPath() {
+        ITmfStateSystemBuilder ss1 = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("ss1", 0));
+        ITmfStateSystemBuilder ss2 = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("ss2", 0));
+        ss2.getQuarkAbsoluteAndAdd("other");
+        IAnalysisDataContainer container1 = createContainer(ss1);
+        IAnalysisDataContainer container2 = createContainer(ss2);
+        try {
+            DataDrivenStateSystemPath path = new DataDrivenStateSystemPath(Arrays.asList(
+                    new DataDrivenValueConstant(null, ITmfStateValue.Type.NULL, "CPUs"),
+                    new DataDrivenValueConstant(null, ITmfStateValue.Type.STRING, 1),
+                    new DataDrivenValueSelf(ITmfStateValue.Type.NULL)));
+
+            /* The last attribute is the name of the quark of the path so far */
+            int quark1 = ss1.getQuarkAbsoluteAndAdd("CPUs", "1", "1");
+            int quark2 = ss2.getQuarkAbsoluteAndAdd("CPUs", "1", "1");
+            assertEquals(quark1, path.getQuark(ITmfStateSystem.ROOT_ATTRIBUTE, container1));
+            assertEquals(quark2, path.getQuark(ITmfStateSystem.ROOT_ATTRIBUTE, container2));
+            assertEquals(quark1, path.getQuark(ITmfStateSystem.ROOT_ATTRIBUTE, container1));
+
+            /* From another base quark */
+            int base = ss1.getQuarkAbsoluteAndAdd("Threads");
+            int expected = ss1.getQuarkRelativeAndAdd(base, "CPUs", "1", "1");
+            assertEquals(expected, path.getQuark(base, container1));
+            assertEquals(quark1, path.getQuark(ITmfStateSystem.ROOT_ATTRIBUTE, container1));
+        } finally {
+            ss1.dispose();
+            ss2.dispose();
+        }
+    }
+
+}
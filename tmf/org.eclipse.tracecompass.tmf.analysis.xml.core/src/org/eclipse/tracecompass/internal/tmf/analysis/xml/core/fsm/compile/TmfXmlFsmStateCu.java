@@ -26,6 +26,7 @@ import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDri
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmSimpleState;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmState;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmStateTransition;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValue;
 import org.eclipse.tracecompass.tmf.analysis.xml.core.module.TmfXmlStrings;
 import org.eclipse.tracecompass.tmf.analysis.xml.core.module.TmfXmlUtils;
 import org.w3c.dom.Element;
@@ -38,6 +39,11 @@ import org.w3c.dom.Element;
  */
 public abstract class TmfXmlFsmStateCu implements IDataDrivenCompilationUnit {
 
+    /** The element of the correlation key of the events of an FSM */
+    private static final String CORRELATION_KEY = "correlationKey"; //$NON-NLS-1$
+    /** The attribute of the maximum number of active scenarios of an FSM */
+    private static final String MAX_SCENARIOS = "maxScenarios"; //$NON-NLS-1$
+
     /**
      * Represents an FSM
      */
@@ -48,6 +54,8 @@ public abstract class TmfXmlFsmStateCu implements IDataDrivenCompilationUnit {
         private final TmfXmlConditionCu fPreCondition;
         private final boolean fConsuming;
         private final boolean fMultipleInstances;
+        private final @Nullable TmfXmlStateValueCu fCorrelationKey;
+        private final int fMaxScenarios;
 
         /**
          * Constructor
@@ -66,14 +74,23 @@ public abstract class TmfXmlFsmStateCu implements IDataDrivenCompilationUnit {
          *            parallel
          * @param preCondition
          *            The preconditions for this FSM
+         * @param correlationKey
+         *            The value of the correlation key of the events, or
+         *            <code>null</code> if the scenarios are not correlated
+         * @param maxScenarios
+         *            The maximum number of active scenarios, 0 if there is no
+         *            maximum
          */
-        private TmfXmlFsmCu(String id, TmfXmlFsmStateCu initialStateCu, Collection<TmfXmlFsmSimpleStateCu> states, boolean consuming, boolean instanceMultipleEnabled, TmfXmlConditionCu preCondition) {
+        private TmfXmlFsmCu(String id, TmfXmlFsmStateCu initialStateCu, Collection<TmfXmlFsmSimpleStateCu> states, boolean consuming, boolean instanceMultipleEnabled, TmfXmlConditionCu preCondition,
+                @Nullable TmfXmlStateValueCu correlationKey, int maxScenarios) {
             super(id);
             fInitialState = initialStateCu;
             fStates = states;
             fPreCondition = preCondition;
             fConsuming = consuming;
             fMultipleInstances = instanceMultipleEnabled;
+            fCorrelationKey = correlationKey;
+            fMaxScenarios = maxScenarios;
         }
 
         @Override
@@ -82,7 +99,9 @@ public abstract class TmfXmlFsmStateCu implements IDataDrivenCompilationUnit {
                     .map(TmfXmlFsmSimpleStateCu::generate)
                     .collect(Collectors.toMap(DataDrivenFsmState::getId, state -> state));
 
-            return new DataDrivenFsm(getId(), fInitialState.generate(), states, fPreCondition.generate(), fConsuming, fMultipleInstances);
+            TmfXmlStateValueCu correlationKeyCu = fCorrelationKey;
+            DataDrivenValue correlationKey = (correlationKeyCu == null ? null : correlationKeyCu.generate());
+            return new DataDrivenFsm(getId(), fInitialState.generate(), states, fPreCondition.generate(), fConsuming, fMultipleInstances, correlationKey, fMaxScenarios);
         }
 
     }
@@ -284,7 +303,28 @@ public abstract class TmfXmlFsmStateCu implements IDataDrivenCompilationUnit {
         }
         TmfXmlConditionCu preCondition = TmfXmlConditionCu.createOrCondition(preConditions);
 
-        TmfXmlFsmCu fsm = new TmfXmlFsmCu(id, initialStateCu, states.values(), consuming, instanceMultipleEnabled, preCondition);
+        // Compile the correlation key and maximum number of scenarios
+        TmfXmlStateValueCu correlationKey = null;
+        List<Element> correlationKeyElements = TmfXmlUtils.getChildElements(element, CORRELATION_KEY);
+        if (!correlationKeyElements.isEmpty()) {
+            correlationKey = TmfXmlStateValueCu.compileValue(analysisData, correlationKeyElements.get(0));
+            if (correlationKey == null) {
+                return null;
+            }
+        }
+        String maxScenariosStr = element.getAttribute(MAX_SCENARIOS);
+        int maxScenarios = 0;
+        if (!maxScenariosStr.isEmpty()) {
+            try {
+                maxScenarios = Integer.parseInt(maxScenariosStr);
+            } catch (NumberFormatException e) {
+                // TODO: Validation message here
+                Activator.logError("FSM " + id + ": The maximum number of scenarios is not a parseable integer"); //$NON-NLS-1$ //$NON-NLS-2$
+                return null;
+            }
+        }
+
+        TmfXmlFsmCu fsm = new TmfXmlFsmCu(id, initialStateCu, states.values(), consuming, instanceMultipleEnabled, preCondition, correlationKey, maxScenarios);
         analysisData.addFsm(id, fsm);
         return fsm;
     }
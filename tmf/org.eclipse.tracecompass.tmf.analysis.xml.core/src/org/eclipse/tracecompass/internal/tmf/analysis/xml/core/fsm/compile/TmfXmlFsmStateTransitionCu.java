@@ -60,14 +60,16 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
     private static final Pattern ALL_ACCEPT_PATTERN = Pattern.compile(".*"); //$NON-NLS-1$
 
     private final TmfXmlConditionCu fEvents;
+    private final List<String> fEventNames;
     private final TmfXmlConditionCu fConditions;
     private final TmfXmlFsmStateCu fTarget;
     private final List<TmfXmlActionCu> fActions;
     private final boolean fSaveFields;
     private final boolean fClearFields;
 
-    private TmfXmlFsmStateTransitionCu(TmfXmlConditionCu eventCond, TmfXmlConditionCu conditions, TmfXmlFsmStateCu target, List<TmfXmlActionCu> actions, boolean saveFields, boolean clearFields) {
+    private TmfXmlFsmStateTransitionCu(TmfXmlConditionCu eventCond, List<String> eventNames, TmfXmlConditionCu conditions, TmfXmlFsmStateCu target, List<TmfXmlActionCu> actions, boolean saveFields, boolean clearFields) {
         fEvents = eventCond;
+        fEventNames = eventNames;
         fConditions = conditions;
         fTarget = target;
         fActions = actions;
@@ -88,7 +90,7 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
         }
         // Do not generate the target, as the FSM may be recursive, it can cause
         // infinite loop
-        return new DataDrivenFsmStateTransition(fEvents.generate(), fConditions.generate(), fTarget.getId(), actions);
+        return new DataDrivenFsmStateTransition(fEvents.generate(), fEventNames, fConditions.generate(), fTarget.getId(), actions);
     }
 
     /**
@@ -105,7 +107,8 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
      */
     public static @Nullable TmfXmlFsmStateTransitionCu compile(AnalysisCompilationData analysisData, Element element, Map<String, TmfXmlFsmSimpleStateCu> states) {
         // Compile the events
-        TmfXmlConditionCu eventCond = compileEventsCondition(element);
+        List<String> eventNames = getEventNames(element);
+        TmfXmlConditionCu eventCond = compileEventsCondition(eventNames);
 
         // Compile the conditions
         TmfXmlConditionCu conditions = compileConditions(analysisData, element);
@@ -154,7 +157,7 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
             clearFields = Boolean.parseBoolean(clearSfStr);
         }
 
-        return new TmfXmlFsmStateTransitionCu(eventCond, conditions, target, actions, saveFields, clearFields);
+        return new TmfXmlFsmStateTransitionCu(eventCond, eventNames, conditions, target, actions, saveFields, clearFields);
     }
 
     /**
@@ -169,7 +172,7 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
      */
     public static @Nullable TmfXmlConditionCu compileAsCondition(AnalysisCompilationData analysisData, Element element) {
         // Compile the events
-        TmfXmlConditionCu event = compileEventsCondition(element);
+        TmfXmlConditionCu event = compileEventsCondition(getEventNames(element));
 
         // Compile the conditions
         TmfXmlConditionCu conditions = compileConditions(analysisData, element);
@@ -207,11 +210,18 @@ public class TmfXmlFsmStateTransitionCu implements IDataDrivenCompilationUnit {
         return TmfXmlConditionCu.createAndCondition(conditions);
     }
 
-    private static TmfXmlConditionCu compileEventsCondition(Element element) {
+    private static List<String> getEventNames(Element element) {
         String eventsStr = element.getAttribute(TmfXmlStrings.EVENT);
+        if (eventsStr.isEmpty()) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(eventsStr.split(TmfXmlStrings.OR_SEPARATOR));
+    }
+
+    private static TmfXmlConditionCu compileEventsCondition(List<String> eventNames) {
         List<Pattern> events = new ArrayList<>();
-        if (!eventsStr.isEmpty()) {
-            for (String eventName : eventsStr.split(TmfXmlStrings.OR_SEPARATOR)) {
+        if (!eventNames.isEmpty()) {
+            for (String eventName : eventNames) {
                 String name = WILDCARD_PATTERN.matcher(eventName).replaceAll(".*"); //$NON-NLS-1$
                 events.add(Pattern.compile(name));
             }
@@ -21,8 +21,10 @@ import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenEventHandler;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenMappingGroup;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module.DataDrivenStateProvider;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap.AbstractTmfMipmapStateProvider;
 import org.eclipse.tracecompass.tmf.analysis.xml.core.module.TmfXmlStrings;
 import org.eclipse.tracecompass.tmf.analysis.xml.core.module.TmfXmlUtils;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.w3c.dom.Element;
 
@@ -34,8 +36,16 @@ import org.w3c.dom.Element;
  */
 public class TmfXmlStateProviderCu {
 
+    private static final String MIPMAP = "mipmap"; //$NON-NLS-1$
+    private static final String FEATURES = "features"; //$NON-NLS-1$
+    private static final String RESOLUTION = "resolution"; //$NON-NLS-1$
+    private static final String DEFAULT_FEATURES = AbstractTmfMipmapStateProvider.AVG_STRING;
+    private static final int DEFAULT_RESOLUTION = 16;
+    private static final String PATH_SEPARATOR = "/"; //$NON-NLS-1$
+
     private final List<TmfXmlEventHandlerCu> fEventHandlers;
     private final List<TmfXmlMappingGroupCu> fMapGroups;
+    private final List<TmfMipmapRequest> fMipmapRequests;
     private final String fProviderId;
     private final int fVersion;
 
@@ -52,10 +62,13 @@ public class TmfXmlStateProviderCu {
      *            The mapping groups compilation units
      * @param eventHandlers
      *            The event handlers compilation units
+     * @param mipmapRequests
+     *            The requested mipmaps
      */
-    TmfXmlStateProviderCu(String providerId, int version, List<TmfXmlMappingGroupCu> mapGroups, List<TmfXmlEventHandlerCu> eventHandlers) {
+    TmfXmlStateProviderCu(String providerId, int version, List<TmfXmlMappingGroupCu> mapGroups, List<TmfXmlEventHandlerCu> eventHandlers, List<TmfMipmapRequest> mipmapRequests) {
         fEventHandlers = eventHandlers;
         fMapGroups = mapGroups;
+        fMipmapRequests = mipmapRequests;
         fProviderId = providerId;
         fVersion = version;
     }
@@ -74,7 +87,7 @@ public class TmfXmlStateProviderCu {
         List<DataDrivenMappingGroup> mappingGroups = fMapGroups.stream()
                 .map(TmfXmlMappingGroupCu::generate)
                 .collect(Collectors.toList());
-        return new DataDrivenStateProvider(trace, fProviderId, fVersion, eventHandlers, mappingGroups);
+        return new DataDrivenStateProvider(trace, fProviderId, fVersion, eventHandlers, mappingGroups, fMipmapRequests);
     }
 
     /**
@@ -127,6 +140,17 @@ public class TmfXmlStateProviderCu {
             mapGroups.add(compile);
         }
 
+        /* parser for the mipmaps */
+        List<TmfMipmapRequest> mipmapRequests = new ArrayList<>();
+        childElements = TmfXmlUtils.getChildElements(spEl, MIPMAP);
+        for (Element element : childElements) {
+            TmfMipmapRequest request = compileMipmap(element);
+            if (request == null) {
+                return null;
+            }
+            mipmapRequests.add(request);
+        }
+
         /* parser for the event handlers */
         childElements = TmfXmlUtils.getChildElements(spEl, TmfXmlStrings.EVENT_HANDLER);
         List<TmfXmlEventHandlerCu> handlers = new ArrayList<>();
@@ -137,7 +161,47 @@ public class TmfXmlStateProviderCu {
             }
             handlers.add(compile);
         }
-        return new TmfXmlStateProviderCu(providerId, version, mapGroups, handlers);
+        return new TmfXmlStateProviderCu(providerId, version, mapGroups, handlers, mipmapRequests);
+    }
+
+    private static @Nullable TmfMipmapRequest compileMipmap(Element element) {
+        String features = element.getAttribute(FEATURES);
+        int featureBits = 0;
+        for (String feature : (features.isEmpty() ? DEFAULT_FEATURES : features).trim().split("\\s+")) { //$NON-NLS-1$
+            switch (feature) {
+            case AbstractTmfMipmapStateProvider.MIN_STRING:
+                featureBits |= TmfMipmapRequest.MIN;
+                break;
+            case AbstractTmfMipmapStateProvider.MAX_STRING:
+                featureBits |= TmfMipmapRequest.MAX;
+                break;
+            case AbstractTmfMipmapStateProvider.AVG_STRING:
+                featureBits |= TmfMipmapRequest.AVG;
+                break;
+            default:
+                // TODO: Validation message here
+                Activator.logError("XmlStateProvider: Unknown mipmap feature " + feature); //$NON-NLS-1$
+                return null;
+            }
+        }
+
+        int resolution = DEFAULT_RESOLUTION;
+        String resolutionString = element.getAttribute(RESOLUTION);
+        if (!resolutionString.isEmpty()) {
+            try {
+                resolution = Integer.parseInt(resolutionString);
+            } catch (NumberFormatException e) {
+                // TODO: Validation message here
+                Activator.logError("XmlStateProvider: The mipmap resolution is not a parseable integer"); //$NON-NLS-1$
+                return null;
+            }
+        }
+        if (resolution <= 1) {
+            // TODO: Validation message here
+            Activator.logError("XmlStateProvider: The mipmap resolution should be greater than 1"); //$NON-NLS-1$
+            return null;
+        }
+        return new TmfMipmapRequest(featureBits, resolution, element.getAttribute(TmfXmlStrings.PATH).split(PATH_SEPARATOR));
     }
 
 }
@@ -30,6 +30,7 @@ public class DataDrivenEventHandler implements IDataDrivenRuntimeObject {
 
     private static final Pattern WILDCARD_PATTERN = Pattern.compile("\\*"); //$NON-NLS-1$
 
+    private final String fName;
     private final Pattern fEventName;
     private final List<DataDrivenAction> fStateChanges;
 
@@ -43,11 +44,22 @@ public class DataDrivenEventHandler implements IDataDrivenRuntimeObject {
      *            The list of actions to execution for the event
      */
     public DataDrivenEventHandler(String eventName, List<DataDrivenAction> actions) {
+        fName = eventName;
         String name = WILDCARD_PATTERN.matcher(eventName).replaceAll(".*"); //$NON-NLS-1$
         fEventName = Pattern.compile(name);
         fStateChanges = actions;
     }
 
+    /**
+     * Get the name of the event handled, as defined in the analysis, where a
+     * '*' character is a wildcard
+     *
+     * @return The event name
+     */
+    public String getEventName() {
+        return fName;
+    }
+
     private boolean appliesToEvent(ITmfEvent event) {
         String eventName = event.getName();
         return fEventName.matcher(eventName).matches();
@@ -67,6 +79,22 @@ public class DataDrivenEventHandler implements IDataDrivenRuntimeObject {
         if (!appliesToEvent(event)) {
             return;
         }
+        executeActions(event, scenarioInfo, container);
+    }
+
+    /**
+     * Execute the actions for an event, without checking the event name. This
+     * is for callers that already dispatched the event to the handlers of its
+     * name, see {@link DataDrivenEventNameIndex}
+     *
+     * @param event
+     *            The event to handle
+     * @param scenarioInfo
+     *            The scenario info
+     * @param container
+     *            The analysis data container
+     */
+    public void executeActions(ITmfEvent event, DataDrivenScenarioInfo scenarioInfo, DataDrivenStateProvider container) {
         fStateChanges.forEach(change -> change.eventHandle(event, scenarioInfo, container));
     }
 
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Index of objects by the names of the events they apply to. The event names
+ * are those of the XML analyses, where a '*' character is a wildcard and the
+ * name is otherwise a regex. Exact names are kept in a hash map, names ending
+ * with the only wildcard are kept in a prefix tree, and only the other names
+ * are matched with a pattern.
+ *
+ * The objects matching an event name are returned in the order they were
+ * given, and the result is cached for each event name, as traces usually have
+ * few distinct event names.
+ *
+ * @param <T>
+ *            The type of objects to index
+ */
+public class DataDrivenEventNameIndex<T> {
+
+    private static final Pattern WILDCARD_PATTERN = Pattern.compile("\\*"); //$NON-NLS-1$
+    private static final String REGEX_CHARACTERS = "\\^$.|?+()[]{}"; //$NON-NLS-1$
+    private static final char WILDCARD = '*';
+    private static final int MAX_CACHED_NAMES = 4096;
+
+    private final List<T> fValues;
+    private final Map<String, List<Integer>> fExactNames = new HashMap<>();
+    private final PrefixNode fPrefixes = new PrefixNode();
+    private final List<Pattern> fPatterns = new ArrayList<>();
+    private final List<Integer> fPatternIndexes = new ArrayList<>();
+    private final Map<String, List<T>> fCache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param values
+     *            The objects to index, in the order they should be returned
+     * @param eventNames
+     *            Function returning the event names an object applies to. If
+     *            it returns <code>null</code> or an empty collection, the
+     *            object applies to all events
+     */
+    public DataDrivenEventNameIndex(List<T> values, Function<T, @Nullable Collection<String>> eventNames) {
+        fValues = values;
+        for (int i = 0; i < values.size(); i++) {
+            Collection<String> names = eventNames.apply(values.get(i));
+            if (names == null || names.isEmpty()) {
+                fPrefixes.fIndexes.add(i);
+                continue;
+            }
+            for (String name : names) {
+                add(name, i);
+            }
+        }
+    }
+
+    private void add(String name, int index) {
+        int wildcard = name.indexOf(WILDCARD);
+        if (isRegex(name)) {
+            fPatterns.add(Pattern.compile(WILDCARD_PATTERN.matcher(name).replaceAll(".*"))); //$NON-NLS-1$
+            fPatternIndexes.add(index);
+        } else if (wildcard < 0) {
+            fExactNames.computeIfAbsent(name, n -> new ArrayList<>()).add(index);
+        } else {
+            PrefixNode node = fPrefixes;
+            for (int i = 0; i < wildcard; i++) {
+                node = node.fChildren.computeIfAbsent(name.charAt(i), c -> new PrefixNode());
+            }
+            node.fIndexes.add(index);
+        }
+    }
+
+    /**
+     * Whether the event name needs a pattern to be matched, ie it contains
+     * regex characters or a wildcard elsewhere than at the end
+     */
+    private static boolean isRegex(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (REGEX_CHARACTERS.indexOf(c) >= 0 || (c == WILDCARD && i != name.length() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the objects that apply to an event name
+     *
+     * @param eventName
+     *            The name of the event
+     * @return The objects applying to this event, in the order they were
+     *         given
+     */
+    public List<T> get(String eventName) {
+        List<T> values = fCache.get(eventName);
+        if (values != null) {
+            return values;
+        }
+        values = lookup(eventName);
+        if (fCache.size() < MAX_CACHED_NAMES) {
+            fCache.put(eventName, values);
+        }
+        return values;
+    }
+
+    /**
+     * Get whether any object applies to an event name
+     *
+     * @param eventName
+     *            The name of the event
+     * @return <code>true</code> if at least one object applies to this event
+     */
+    public boolean matches(String eventName) {
+        return !get(eventName).isEmpty();
+    }
+
+    private List<T> lookup(String eventName) {
+        BitSet matches = new BitSet(fValues.size());
+        List<Integer> exact = fExactNames.get(eventName);
+        if (exact != null) {
+            exact.forEach(matches::set);
+        }
+        PrefixNode node = fPrefixes;
+        node.fIndexes.forEach(matches::set);
+        for (int i = 0; i < eventName.length(); i++) {
+            node = node.fChildren.get(eventName.charAt(i));
+            if (node == null) {
+                break;
+            }
+            node.fIndexes.forEach(matches::set);
+        }
+        for (int i = 0; i < fPatterns.size(); i++) {
+            int index = fPatternIndexes.get(i);
+            if (!matches.get(index) && fPatterns.get(i).matcher(eventName).matches()) {
+                matches.set(index);
+            }
+        }
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> values = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            values.add(fValues.get(i));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * A node of the prefix tree
+     */
+    private static class PrefixNode {
+        private final Map<Character, PrefixNode> fChildren = new HashMap<>();
+        private final List<Integer> fIndexes = new ArrayList<>();
+    }
+
+}
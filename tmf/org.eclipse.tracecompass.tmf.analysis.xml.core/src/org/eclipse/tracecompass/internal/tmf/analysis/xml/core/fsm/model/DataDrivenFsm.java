@@ -12,6 +12,7 @@
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -21,7 +22,9 @@ import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenRuntimeFsm;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenario;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenarioInfo;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values.DataDrivenValue;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module.IAnalysisDataContainer;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 
 /**
@@ -37,6 +40,9 @@ public class DataDrivenFsm extends DataDrivenFsmState {
     private final DataDrivenCondition fPrecondition;
     private final boolean fConsuming;
     private final boolean fMultipleInstances;
+    private final @Nullable DataDrivenValue fCorrelationKey;
+    private final int fMaxScenarios;
+    private final DataDrivenEventNameIndex<DataDrivenFsmStateTransition> fTransitionsByName;
 
     /**
      * Constructor
@@ -58,12 +64,64 @@ public class DataDrivenFsm extends DataDrivenFsmState {
      *            Whether multiple scenarios are allowed for this state machine
      */
     public DataDrivenFsm(String id, DataDrivenFsmState initial, Map<String, DataDrivenFsmSimpleState> states, DataDrivenCondition preCondition, boolean consuming, boolean multipleInstances) {
+        this(id, initial, states, preCondition, consuming, multipleInstances, null, 0);
+    }
+
+    /**
+     * Constructor with a correlation key, so that each event is handled only
+     * by the scenarios started with the same key, and a maximum number of
+     * scenarios
+     *
+     * @param id
+     *            The ID of this FSM
+     * @param initial
+     *            The initial state
+     * @param states
+     *            The map of states for this state machine
+     * @param preCondition
+     *            The precondition that should be matched for this state machine
+     *            to be considered
+     * @param consuming
+     *            Whether the state machine is consuming, ie if a transition is
+     *            taken from any one scenario, then the other scenarios will not
+     *            be considered
+     * @param multipleInstances
+     *            Whether multiple scenarios are allowed for this state machine
+     * @param correlationKey
+     *            The value of the correlation key of an event, like a thread ID
+     *            or a request ID, or <code>null</code> if all events are
+     *            handled by all scenarios
+     * @param maxScenarios
+     *            The maximum number of active scenarios, the oldest scenarios
+     *            being abandoned when more are started. A value of 0 or less
+     *            means no maximum.
+     */
+    public DataDrivenFsm(String id, DataDrivenFsmState initial, Map<String, DataDrivenFsmSimpleState> states, DataDrivenCondition preCondition, boolean consuming, boolean multipleInstances,
+            @Nullable DataDrivenValue correlationKey, int maxScenarios) {
         super(id);
         fInitial = initial;
         fStates = states;
         fPrecondition = preCondition;
         fConsuming = consuming;
         fMultipleInstances = multipleInstances;
+        fCorrelationKey = correlationKey;
+        fMaxScenarios = maxScenarios;
+        List<DataDrivenFsmStateTransition> transitions = new ArrayList<>();
+        if (initial instanceof DataDrivenFsmSimpleState) {
+            transitions.addAll(((DataDrivenFsmSimpleState) initial).getTransitions());
+        }
+        states.values().forEach(state -> transitions.addAll(state.getTransitions()));
+        fTransitionsByName = new DataDrivenEventNameIndex<>(transitions, DataDrivenFsmStateTransition::getEventNames);
+    }
+
+    /**
+     * Get the maximum number of active scenarios of this FSM
+     *
+     * @return The maximum number of active scenarios, 0 or less if there is no
+     *         maximum
+     */
+    public int getMaxScenarios() {
+        return fMaxScenarios;
     }
 
     /**
@@ -109,6 +167,11 @@ public class DataDrivenFsm extends DataDrivenFsmState {
      *            The analysis data container
      */
     public void handleEvent(ITmfEvent event, DataDrivenRuntimeData executionData, IAnalysisDataContainer container) {
+        // No transition of this FSM is for this event, so no scenario can move
+        if (!fTransitionsByName.matches(event.getName())) {
+            return;
+        }
+
         // First validate the precondition
         // Preconditions should be stateless, so we don't need specific scenario
         // infos
@@ -118,14 +181,23 @@ public class DataDrivenFsm extends DataDrivenFsmState {
 
         DataDrivenRuntimeFsm runtimeFsm = executionData.getRuntimeForFsm(this);
         boolean eventConsumed = false;
+        Object key = getCorrelationKey(event, container);
 
         // First handle the active scenarios
-        eventConsumed = handleActiveScenarios(event, runtimeFsm, container);
+        eventConsumed = handleActiveScenarios(event, key, runtimeFsm, container);
         // Then handle the pending scenario
-        handlePendingScenario(event, eventConsumed, runtimeFsm, container);
+        handlePendingScenario(event, key, eventConsumed, runtimeFsm, container);
     }
 
-    private void handlePendingScenario(ITmfEvent event, boolean eventConsumed, DataDrivenRuntimeFsm runtimeFsm, IAnalysisDataContainer container) {
+    private @Nullable Object getCorrelationKey(ITmfEvent event, IAnalysisDataContainer container) {
+        DataDrivenValue correlationKey = fCorrelationKey;
+        if (correlationKey == null) {
+            return null;
+        }
+        return correlationKey.getValue(event, ITmfStateSystem.ROOT_ATTRIBUTE, DataDrivenScenarioInfo.DUMMY_SCENARIO, container);
+    }
+
+    private void handlePendingScenario(ITmfEvent event, @Nullable Object key, boolean eventConsumed, DataDrivenRuntimeFsm runtimeFsm, IAnalysisDataContainer container) {
         if (fConsuming && eventConsumed) {
             return;
         }
@@ -134,7 +206,7 @@ public class DataDrivenFsm extends DataDrivenFsmState {
         if (scenario != null) {
             scenario.handleEvent(event, container);
             if (!scenario.isPending()) {
-                runtimeFsm.activatePending();
+                runtimeFsm.activatePending(key);
             }
         }
     }
@@ -144,23 +216,32 @@ public class DataDrivenFsm extends DataDrivenFsmState {
      *
      * @param event
      *            The ongoing event
+     * @param key
+     *            The correlation key of the event, or <code>null</code> if
+     *            all the scenarios should handle it
      * @param runtimeFsm
      *            The map of transition
      * @param container
      *            The data container
      * @return True if the event has been consumed by the active scenarios
      */
-    private boolean handleActiveScenarios(ITmfEvent event, DataDrivenRuntimeFsm runtimeFsm, IAnalysisDataContainer container) {
+    private boolean handleActiveScenarios(ITmfEvent event, @Nullable Object key, DataDrivenRuntimeFsm runtimeFsm, IAnalysisDataContainer container) {
 
         boolean eventConsumed = false;
         List<DataDrivenScenario> toRemove = new ArrayList<>();
-        for (DataDrivenScenario scenario : runtimeFsm.getActiveScenarios()) {
+        Collection<DataDrivenScenario> scenarios = runtimeFsm.getActiveScenarios(key);
+        for (DataDrivenScenario scenario : scenarios) {
             // Remove inactive scenarios or handle the active ones.
             if (!scenario.isActive()) {
                 toRemove.add(scenario);
             } else {
                 if (scenario.isActive() || scenario.isPending()) {
                     eventConsumed |= scenario.handleEvent(event, container);
+                    // Remove the completed scenarios right away, as they may
+                    // not be visited again if they have a correlation key
+                    if (!scenario.isActive()) {
+                        toRemove.add(scenario);
+                    }
                     if (fConsuming && eventConsumed) {
                         break;
                     }
@@ -204,7 +285,7 @@ public class DataDrivenFsm extends DataDrivenFsmState {
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), fInitial, fStates, fPrecondition, fConsuming, fMultipleInstances);
+        return Objects.hash(super.hashCode(), fInitial, fStates, fPrecondition, fConsuming, fMultipleInstances, fCorrelationKey, fMaxScenarios);
     }
 
     @Override
@@ -218,6 +299,8 @@ public class DataDrivenFsm extends DataDrivenFsmState {
                 Objects.equals(fPrecondition, other.fPrecondition) &&
                 Objects.equals(fConsuming, other.fConsuming) &&
                 Objects.equals(fMultipleInstances, other.fMultipleInstances) &&
+                Objects.equals(fCorrelationKey, other.fCorrelationKey) &&
+                fMaxScenarios == other.fMaxScenarios &&
                 Objects.equals(fStates, other.fStates);
     }
 
@@ -29,6 +29,7 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 public class DataDrivenFsmSimpleState extends DataDrivenFsmState {
 
     private final List<DataDrivenFsmStateTransition> fTransitions;
+    private final DataDrivenEventNameIndex<DataDrivenFsmStateTransition> fTransitionsByName;
     private final DataDrivenAction fOnEntry;
     private final DataDrivenAction fOnExit;
 
@@ -59,14 +60,15 @@ public class DataDrivenFsmSimpleState extends DataDrivenFsmState {
     public DataDrivenFsmSimpleState(String id, List<DataDrivenFsmStateTransition> transitions, DataDrivenAction onEntry, DataDrivenAction onExit) {
         super(id);
         fTransitions = transitions;
+        fTransitionsByName = new DataDrivenEventNameIndex<>(transitions, DataDrivenFsmStateTransition::getEventNames);
         fOnEntry = onEntry;
         fOnExit = onExit;
     }
 
     @Override
     public @Nullable DataDrivenFsmState takeTransition(ITmfEvent event, DataDrivenScenarioInfo scenarioInfo, IAnalysisDataContainer container) {
-        for (DataDrivenFsmStateTransition transition : fTransitions) {
-            if (transition.canTake(event, scenarioInfo, container)) {
+        for (DataDrivenFsmStateTransition transition : fTransitionsByName.get(event.getName())) {
+            if (transition.canTakeMatchedEvent(event, scenarioInfo, container)) {
                 // We have a valid transition, start by executing the onExit actions
                 fOnExit.eventHandle(event, scenarioInfo, container);
                 // Take the transition and return the resulting state
@@ -80,6 +82,15 @@ public class DataDrivenFsmSimpleState extends DataDrivenFsmState {
         return null;
     }
 
+    /**
+     * Get the transitions out of this state
+     *
+     * @return The transitions
+     */
+    List<DataDrivenFsmStateTransition> getTransitions() {
+        return fTransitions;
+    }
+
     @Override
     public boolean isFinal() {
         return fTransitions.isEmpty();
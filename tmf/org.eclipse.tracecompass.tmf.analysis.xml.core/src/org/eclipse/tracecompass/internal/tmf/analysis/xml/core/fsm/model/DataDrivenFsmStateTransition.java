@@ -28,6 +28,7 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 public class DataDrivenFsmStateTransition implements IDataDrivenRuntimeObject {
 
     private final DataDrivenCondition fEvents;
+    private final @Nullable List<String> fEventNames;
     private final String fTarget;
     private final DataDrivenCondition fCondition;
     private final List<DataDrivenAction> fActions;
@@ -45,7 +46,30 @@ public class DataDrivenFsmStateTransition implements IDataDrivenRuntimeObject {
      *            The actions to execute on success
      */
     public DataDrivenFsmStateTransition(DataDrivenCondition eventCondition, DataDrivenCondition dataDrivenCondition, String target, List<DataDrivenAction> actions) {
+        this(eventCondition, null, dataDrivenCondition, target, actions);
+    }
+
+    /**
+     * Constructor with the names of the events of the transition, so the
+     * transitions of a state can be indexed by event name
+     *
+     * @param eventCondition
+     *            The condition for the events
+     * @param eventNames
+     *            The names of the events matched by the event condition, where
+     *            a '*' character is a wildcard. If empty, all events match
+     *            this transition. If <code>null</code>, the names are unknown
+     *            and the event condition is tested for every event
+     * @param dataDrivenCondition
+     *            The additional conditions for this transition to be taken
+     * @param target
+     *            The name of the target of the transition
+     * @param actions
+     *            The actions to execute on success
+     */
+    public DataDrivenFsmStateTransition(DataDrivenCondition eventCondition, @Nullable List<String> eventNames, DataDrivenCondition dataDrivenCondition, String target, List<DataDrivenAction> actions) {
         fEvents = eventCondition;
+        fEventNames = eventNames;
         fCondition = dataDrivenCondition;
         fTarget = target;
         fActions = actions;
@@ -67,6 +91,34 @@ public class DataDrivenFsmStateTransition implements IDataDrivenRuntimeObject {
         return fEvents.test(event, scenarioInfo, container) && fCondition.test(event, scenarioInfo, container);
     }
 
+    /**
+     * Get whether this transition can be taken for an event that was
+     * dispatched to it by a {@link DataDrivenEventNameIndex} built with
+     * {@link #getEventNames()}. The event condition is tested only if the
+     * event names are unknown.
+     *
+     * @param event
+     *            The current event to handle
+     * @param scenarioInfo
+     *            The scenario info
+     * @param container
+     *            The container
+     * @return Whether the transition can be taken
+     */
+    boolean canTakeMatchedEvent(ITmfEvent event, DataDrivenScenarioInfo scenarioInfo, IAnalysisDataContainer container) {
+        return (fEventNames != null || fEvents.test(event, scenarioInfo, container)) && fCondition.test(event, scenarioInfo, container);
+    }
+
+    /**
+     * Get the names of the events of this transition
+     *
+     * @return The event names, empty if all events match this transition, or
+     *         <code>null</code> if they are unknown
+     */
+    @Nullable List<String> getEventNames() {
+        return fEventNames;
+    }
+
     /**
      * Take this transition and return the next state
      *
@@ -11,6 +11,7 @@
 
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,12 +26,36 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 /**
  * This class represents a path in the state system.
  *
+ * The leading constant attributes of the path are resolved once, and the quark
+ * they lead to from the last base quark is cached, so only the variable part
+ * of the path is resolved for each event.
+ *
  * @author Geneviève Bastien
  */
 public class DataDrivenStateSystemPath implements IDataDrivenRuntimeObject {
 
     private final List<DataDrivenValue> fAttributes;
     private final IBaseQuarkProvider fQuarkProvider;
+    /* Number of constant attributes at the beginning of the path */
+    private final int fNbConstants;
+    private volatile String @Nullable [] fConstantPath = null;
+    private volatile @Nullable CachedQuark fCachedQuark = null;
+
+    /**
+     * The quark of the constant attributes of the path from a base quark in a
+     * state system
+     */
+    private static final class CachedQuark {
+        private final ITmfStateSystem fStateSystem;
+        private final int fBaseQuark;
+        private final int fQuark;
+
+        public CachedQuark(ITmfStateSystem stateSystem, int baseQuark, int quark) {
+            fStateSystem = stateSystem;
+            fBaseQuark = baseQuark;
+            fQuark = quark;
+        }
+    }
 
     /**
      * Constructor
@@ -56,6 +81,11 @@ public class DataDrivenStateSystemPath implements IDataDrivenRuntimeObject {
     public DataDrivenStateSystemPath(List<DataDrivenValue> attributes, IBaseQuarkProvider quarkProvider) {
         fAttributes = attributes;
         fQuarkProvider = quarkProvider;
+        int nbConstants = 0;
+        while (nbConstants < attributes.size() && attributes.get(nbConstants).isConstant()) {
+            nbConstants++;
+        }
+        fNbConstants = nbConstants;
     }
 
     /**
@@ -76,7 +106,16 @@ public class DataDrivenStateSystemPath implements IDataDrivenRuntimeObject {
      */
     public int getQuark(@Nullable ITmfEvent event, int baseQuark, @Nullable DataDrivenScenarioInfo scenarioInfo, IAnalysisDataContainer container) {
         int quark = fQuarkProvider.getBaseQuark(baseQuark, scenarioInfo);
-        for (DataDrivenValue val : fAttributes) {
+        String[] constantPath = getConstantPath(container);
+        if (constantPath.length > 0) {
+            quark = getConstantQuark(quark, constantPath, container, true);
+            if (quark < 0) {
+                Activator.logWarning("The attribute quark is invalid for event " + event + ": " + fAttributes); //$NON-NLS-1$//$NON-NLS-2$
+                return quark;
+            }
+        }
+        for (int i = constantPath.length; i < fAttributes.size(); i++) {
+            DataDrivenValue val = fAttributes.get(i);
             Object value = val.getValue(event, quark, scenarioInfo, container);
             if (value == null) {
                 Activator.logWarning("StateChange.handleEvent: A value is null: " + val); //$NON-NLS-1$
@@ -103,7 +142,16 @@ public class DataDrivenStateSystemPath implements IDataDrivenRuntimeObject {
      */
     public int getQuark(int baseQuark, IAnalysisDataContainer container) {
         int quark = fQuarkProvider.getBaseQuark(baseQuark, null);
-        for (DataDrivenValue val : fAttributes) {
+        String[] constantPath = getConstantPath(container);
+        if (constantPath.length > 0) {
+            quark = getConstantQuark(quark, constantPath, container, false);
+            if (quark < 0) {
+                Activator.logWarning("The attribute quark is invalid: " + fAttributes); //$NON-NLS-1$
+                return quark;
+            }
+        }
+        for (int i = constantPath.length; i < fAttributes.size(); i++) {
+            DataDrivenValue val = fAttributes.get(i);
             Object value = val.getValue(null, quark, null, container);
             if (value == null) {
                 Activator.logWarning("State system path, a value is null for " + val + " from quark " + quark); //$NON-NLS-1$ //$NON-NLS-2$
@@ -119,6 +167,45 @@ public class DataDrivenStateSystemPath implements IDataDrivenRuntimeObject {
         return quark;
     }
 
+    /**
+     * Get the resolved constant attributes at the beginning of the path. A
+     * constant that resolves to null ends the constant path, so the warning is
+     * logged when resolving the path.
+     */
+    private String[] getConstantPath(IAnalysisDataContainer container) {
+        String[] constantPath = fConstantPath;
+        if (constantPath == null) {
+            List<String> path = new ArrayList<>();
+            for (DataDrivenValue val : fAttributes.subList(0, fNbConstants)) {
+                Object value = val.getValue(null, ITmfStateSystem.ROOT_ATTRIBUTE, null, container);
+                if (value == null) {
+                    break;
+                }
+                path.add(String.valueOf(value));
+            }
+            constantPath = path.toArray(new String[path.size()]);
+            fConstantPath = constantPath;
+        }
+        return constantPath;
+    }
+
+    /**
+     * Get the quark of the constant path from the base quark, from the cache if
+     * the base quark and state system are those of the last call
+     */
+    private int getConstantQuark(int baseQuark, String[] constantPath, IAnalysisDataContainer container, boolean add) {
+        ITmfStateSystem stateSystem = container.getStateSystem();
+        CachedQuark cached = fCachedQuark;
+        if (cached != null && cached.fStateSystem == stateSystem && cached.fBaseQuark == baseQuark) {
+            return cached.fQuark;
+        }
+        int quark = add ? container.getQuarkRelativeAndAdd(baseQuark, constantPath) : stateSystem.optQuarkRelative(baseQuark, constantPath);
+        if (quark >= 0) {
+            fCachedQuark = new CachedQuark(stateSystem, baseQuark, quark);
+        }
+        return quark;
+    }
+
     @Override
     public String toString() {
         return "DataDrivenStateSystemPath: " + fAttributes; //$NON-NLS-1$
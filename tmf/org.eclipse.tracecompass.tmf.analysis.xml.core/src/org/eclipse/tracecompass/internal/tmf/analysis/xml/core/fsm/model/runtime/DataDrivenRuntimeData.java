@@ -40,7 +40,7 @@ public class DataDrivenRuntimeData {
      * @return The runtime data for this FSM
      */
     public DataDrivenRuntimeFsm getRuntimeForFsm(DataDrivenFsm fsm) {
-        return fFsmRuntime.computeIfAbsent(fsm, dataDrivenRuntimeFsm -> new DataDrivenRuntimeFsm());
+        return fFsmRuntime.computeIfAbsent(fsm, dataDrivenRuntimeFsm -> new DataDrivenRuntimeFsm(fsm.getMaxScenarios()));
     }
 
     /**
@@ -12,22 +12,56 @@
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * This class contains runtime data for a given FSM, like the scenarios, etc
  *
+ * The active scenarios are kept in activation order. When the FSM has a
+ * correlation key, they are also indexed by the key of the event that started
+ * them, so an event is handled only by the scenarios with the same key. The
+ * number of active scenarios can be capped, the oldest scenarios being
+ * abandoned to make room for the new ones.
+ *
  * FIXME: Update TmfXmlScenario classes when legacy code is gone
  *
  * @author Geneviève Bastien
  */
 public class DataDrivenRuntimeFsm {
 
+    private final int fMaxScenarios;
     private int fScenarioCount = 0;
     private @Nullable DataDrivenScenario fPendingScenario = null;
-    private List<DataDrivenScenario> fActiveScenarios = new ArrayList<>();
+    private final Set<DataDrivenScenario> fActiveScenarios = new LinkedHashSet<>();
+    private final Map<Object, Set<DataDrivenScenario>> fScenariosByKey = new HashMap<>();
+    private final Set<DataDrivenScenario> fScenariosWithoutKey = new LinkedHashSet<>();
+
+    /**
+     * Constructor, for an FSM without a maximum number of scenarios
+     */
+    public DataDrivenRuntimeFsm() {
+        this(0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxScenarios
+     *            The maximum number of active scenarios. If more scenarios are
+     *            activated, the oldest ones are abandoned. A value of 0 or less
+     *            means no maximum.
+     */
+    public DataDrivenRuntimeFsm(int maxScenarios) {
+        fMaxScenarios = maxScenarios;
+    }
 
     /**
      * Get the number of active scenarios
@@ -66,10 +100,37 @@ public class DataDrivenRuntimeFsm {
     /**
      * Get the active scenarios
      *
-     * @return The list of active scenarios
+     * @return The active scenarios, in activation order
      */
-    public List<DataDrivenScenario> getActiveScenarios() {
-        return fActiveScenarios;
+    public Collection<DataDrivenScenario> getActiveScenarios() {
+        return Collections.unmodifiableSet(fActiveScenarios);
+    }
+
+    /**
+     * Get the active scenarios that should handle an event with a
+     * correlation key: the scenarios started with this key, followed by those
+     * started without a key. If the key is <code>null</code>, all the active
+     * scenarios are returned.
+     *
+     * @param key
+     *            The correlation key of the event
+     * @return The active scenarios for this key
+     */
+    public Collection<DataDrivenScenario> getActiveScenarios(@Nullable Object key) {
+        if (key == null) {
+            return getActiveScenarios();
+        }
+        Set<DataDrivenScenario> scenarios = fScenariosByKey.get(key);
+        if (scenarios == null) {
+            return Collections.unmodifiableSet(fScenariosWithoutKey);
+        }
+        if (fScenariosWithoutKey.isEmpty()) {
+            return Collections.unmodifiableSet(scenarios);
+        }
+        List<DataDrivenScenario> all = new ArrayList<>(scenarios.size() + fScenariosWithoutKey.size());
+        all.addAll(scenarios);
+        all.addAll(fScenariosWithoutKey);
+        return all;
     }
 
     /**
@@ -81,6 +142,18 @@ public class DataDrivenRuntimeFsm {
     public void removeScenario(DataDrivenScenario scenario) {
         if (fActiveScenarios.remove(scenario)) {
             fScenarioCount--;
+            Object key = scenario.getCorrelationKey();
+            if (key == null) {
+                fScenariosWithoutKey.remove(scenario);
+                return;
+            }
+            Set<DataDrivenScenario> scenarios = fScenariosByKey.get(key);
+            if (scenarios != null) {
+                scenarios.remove(scenario);
+                if (scenarios.isEmpty()) {
+                    fScenariosByKey.remove(key);
+                }
+            }
         }
     }
 
@@ -88,10 +161,40 @@ public class DataDrivenRuntimeFsm {
      * Active the pending scenario. There will be no pending scenario after this
      */
     public synchronized void activatePending() {
+        activatePending(null);
+    }
+
+    /**
+     * Active the pending scenario with the correlation key of the event that
+     * started it. There will be no pending scenario after this. If there are
+     * too many active scenarios, the oldest one is abandoned.
+     *
+     * @param key
+     *            The correlation key of the scenario, or <code>null</code> if
+     *            it has none
+     */
+    public synchronized void activatePending(@Nullable Object key) {
         DataDrivenScenario pendingScenario = fPendingScenario;
-        if (pendingScenario != null) {
-            fPendingScenario = null;
-            fActiveScenarios.add(pendingScenario);
+        if (pendingScenario == null) {
+            return;
+        }
+        fPendingScenario = null;
+        if (!pendingScenario.isActive()) {
+            // The scenario was completed by the event that started it
+            fScenarioCount--;
+            return;
+        }
+        pendingScenario.setCorrelationKey(key);
+        fActiveScenarios.add(pendingScenario);
+        if (key == null) {
+            fScenariosWithoutKey.add(pendingScenario);
+        } else {
+            fScenariosByKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(pendingScenario);
+        }
+        if (fMaxScenarios > 0 && fActiveScenarios.size() > fMaxScenarios) {
+            DataDrivenScenario oldest = fActiveScenarios.iterator().next();
+            oldest.cancel();
+            removeScenario(oldest);
         }
     }
 
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsm;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenFsmState;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenarioHistoryBuilder.ScenarioStatusType;
@@ -25,6 +26,7 @@ public class DataDrivenScenario {
     private final DataDrivenFsm fFsm;
     private DataDrivenScenarioInfo fScenarioInfo;
     DataDrivenScenarioHistoryBuilder fHistoryBuilder;
+    private @Nullable Object fCorrelationKey = null;
 
     /**
      * Constructor
@@ -59,6 +61,26 @@ public class DataDrivenScenario {
         return fScenarioInfo;
     }
 
+    /**
+     * Get the correlation key of this scenario
+     *
+     * @return The correlation key of the event that started this scenario, or
+     *         <code>null</code> if it has none
+     */
+    public @Nullable Object getCorrelationKey() {
+        return fCorrelationKey;
+    }
+
+    /**
+     * Set the correlation key of this scenario
+     *
+     * @param key
+     *            The correlation key of the event that started this scenario
+     */
+    void setCorrelationKey(@Nullable Object key) {
+        fCorrelationKey = key;
+    }
+
     /**
      * Cancel the execution of this scenario
      */
@@ -0,0 +1,755 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A script expression compiled once into a tree of typed nodes, to evaluate
+ * the simple javascript expressions of the XML analyses without a script
+ * engine. It supports number, string, boolean and null literals, the values of
+ * the script, the arithmetic, comparison and logical operators, string
+ * concatenation and the conditional operator, with the javascript semantics.
+ * Numeric results are doubles, like they are with the Nashorn engine, except
+ * for constant expressions whose integral results are integers.
+ *
+ * The compiled expression has no state, so it can be evaluated concurrently.
+ * Scripts using other syntax are not compiled and should be run by the script
+ * engine.
+ */
+public final class DataDrivenScriptExpression {
+
+    /** The names of the script engines whose syntax this expression follows */
+    private static final ImmutableSet<String> JAVASCRIPT_ENGINES = ImmutableSet.of("nashorn", "javascript", "js", "ecmascript", "graal.js"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+    private final Node fRoot;
+
+    private DataDrivenScriptExpression(Node root) {
+        fRoot = root;
+    }
+
+    /**
+     * Compile a script
+     *
+     * @param script
+     *            The script to compile
+     * @param scriptEngine
+     *            The name of the script engine that would run this script
+     * @param variables
+     *            The names of the values of the script. The values are given to
+     *            {@link #evaluate(Object[])} in the same order.
+     * @return The compiled expression, or <code>null</code> if the script
+     *         engine is not a javascript engine or the script uses syntax that
+     *         is not supported
+     */
+    public static @Nullable DataDrivenScriptExpression compile(String script, String scriptEngine, List<String> variables) {
+        if (!JAVASCRIPT_ENGINES.contains(scriptEngine.toLowerCase())) {
+            return null;
+        }
+        Node root = new Parser(script, variables).parse();
+        return (root == null ? null : new DataDrivenScriptExpression(root));
+    }
+
+    /**
+     * Evaluate the expression
+     *
+     * @param values
+     *            The values of the script, in the order of the variables the
+     *            expression was compiled with
+     * @return The result of the expression
+     */
+    public @Nullable Object evaluate(@Nullable Object[] values) {
+        return fRoot.evaluate(values);
+    }
+
+    @Override
+    public String toString() {
+        return fRoot.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Javascript conversions
+    // ------------------------------------------------------------------------
+
+    private static boolean toBoolean(@Nullable Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return d != 0 && !Double.isNaN(d);
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        return true;
+    }
+
+    private static double toNumber(@Nullable Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1 : 0;
+        }
+        String str = String.valueOf(value).trim();
+        if (str.isEmpty()) {
+            return 0;
+        }
+        try {
+            if (str.startsWith("0x") || str.startsWith("0X")) { //$NON-NLS-1$ //$NON-NLS-2$
+                return Long.parseLong(str.substring(2), 16);
+            }
+            char last = str.charAt(str.length() - 1);
+            if (!Character.isDigit(last) && last != '.' && !str.endsWith("Infinity")) { //$NON-NLS-1$
+                /* Java also parses type suffixes like 'd' and 'f' */
+                return Double.NaN;
+            }
+            return Double.parseDouble(str);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String toJsString(@Nullable Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return numberToString(((Number) value).doubleValue());
+        }
+        return String.valueOf(value);
+    }
+
+    private static String numberToString(double d) {
+        if (Double.isNaN(d)) {
+            return "NaN"; //$NON-NLS-1$
+        }
+        if (Double.isInfinite(d)) {
+            return d > 0 ? "Infinity" : "-Infinity"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (d == 0) {
+            return "0"; //$NON-NLS-1$
+        }
+        double abs = Math.abs(d);
+        if (abs >= 1e-6 && abs < 1e21) {
+            if (d == (long) d) {
+                return Long.toString((long) d);
+            }
+            return new BigDecimal(Double.toString(d)).stripTrailingZeros().toPlainString();
+        }
+        /* Exponent notation, like 1e+21 or 1.5e-7 */
+        String str = Double.toString(d);
+        int exp = str.indexOf('E');
+        String mantissa = str.substring(0, exp);
+        if (mantissa.endsWith(".0")) { //$NON-NLS-1$
+            mantissa = mantissa.substring(0, mantissa.length() - 2);
+        }
+        String exponent = str.substring(exp + 1);
+        return mantissa + 'e' + (exponent.startsWith("-") ? exponent : '+' + exponent); //$NON-NLS-1$
+    }
+
+    /**
+     * Whether the value is an object for javascript, ie not a primitive value
+     */
+    private static boolean isObject(@Nullable Object value) {
+        return value != null && !(value instanceof Number) && !(value instanceof String) && !(value instanceof Boolean);
+    }
+
+    /**
+     * Whether the value is a javascript number. Other numbers, like longs, are
+     * objects converted to numbers by the operators, but compared by identity
+     * with other objects.
+     */
+    private static boolean isJsNumber(@Nullable Object value) {
+        return value instanceof Integer || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean looseEquals(@Nullable Object left, @Nullable Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            if (!isJsNumber(left) && !isJsNumber(right)) {
+                return left == right;
+            }
+            return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        }
+        if (left instanceof String && right instanceof String) {
+            return left.equals(right);
+        }
+        if (left instanceof Boolean && right instanceof Boolean) {
+            return left.equals(right);
+        }
+        if (isObject(left) && isObject(right)) {
+            return left == right;
+        }
+        if (isObject(left) || isObject(right)) {
+            /* Compare the object as a string */
+            return looseEquals(isObject(left) ? left.toString() : left, isObject(right) ? right.toString() : right);
+        }
+        /* Mixed primitive types are compared as numbers */
+        return toNumber(left) == toNumber(right);
+    }
+
+    private static boolean strictEquals(@Nullable Object left, @Nullable Object right) {
+        if (isJsNumber(left) && isJsNumber(right)) {
+            return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        }
+        if ((left instanceof String && right instanceof String) || (left instanceof Boolean && right instanceof Boolean)) {
+            return left.equals(right);
+        }
+        return left == right;
+    }
+
+    /**
+     * Convert the result of a constant expression like the Nashorn engine
+     * does, to an integer if the number is integral
+     */
+    private static @Nullable Object narrow(@Nullable Object value) {
+        if (value instanceof Double) {
+            double d = (Double) value;
+            if (d == (int) d && !(d == 0 && 1 / d < 0)) {
+                return (int) d;
+            }
+        }
+        return value;
+    }
+
+    // ------------------------------------------------------------------------
+    // Expression nodes
+    // ------------------------------------------------------------------------
+
+    private abstract static class Node {
+        public abstract @Nullable Object evaluate(@Nullable Object[] values);
+
+        public boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Literal extends Node {
+        private final @Nullable Object fValue;
+
+        public Literal(@Nullable Object value) {
+            fValue = value;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@Nullable Object[] values) {
+            return fValue;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            Object value = fValue;
+            return (value instanceof String ? '\'' + (String) value + '\'' : String.valueOf(value));
+        }
+    }
+
+    private static final class Variable extends Node {
+        private final String fName;
+        private final int fIndex;
+
+        public Variable(String name, int index) {
+            fName = name;
+            fIndex = index;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@Nullable Object[] values) {
+            return values[fIndex];
+        }
+
+        @Override
+        public String toString() {
+            return fName;
+        }
+    }
+
+    private enum Operator {
+        NOT("!"), //$NON-NLS-1$
+        NEGATE("-"), //$NON-NLS-1$
+        PLUS("+"), //$NON-NLS-1$
+        ADD("+"), //$NON-NLS-1$
+        SUBTRACT("-"), //$NON-NLS-1$
+        MULTIPLY("*"), //$NON-NLS-1$
+        DIVIDE("/"), //$NON-NLS-1$
+        REMAINDER("%"), //$NON-NLS-1$
+        EQUALS("=="), //$NON-NLS-1$
+        NOT_EQUALS("!="), //$NON-NLS-1$
+        STRICT_EQUALS("==="), //$NON-NLS-1$
+        STRICT_NOT_EQUALS("!=="), //$NON-NLS-1$
+        LESS("<"), //$NON-NLS-1$
+        LESS_OR_EQUAL("<="), //$NON-NLS-1$
+        GREATER(">"), //$NON-NLS-1$
+        GREATER_OR_EQUAL(">="), //$NON-NLS-1$
+        AND("&&"), //$NON-NLS-1$
+        OR("||"); //$NON-NLS-1$
+
+        private final String fSymbol;
+
+        private Operator(String symbol) {
+            fSymbol = symbol;
+        }
+    }
+
+    private static final class Unary extends Node {
+        private final Operator fOperator;
+        private final Node fOperand;
+
+        public Unary(Operator operator, Node operand) {
+            fOperator = operator;
+            fOperand = operand;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@Nullable Object[] values) {
+            Object value = fOperand.evaluate(values);
+            switch (fOperator) {
+            case NOT:
+                return !toBoolean(value);
+            case NEGATE:
+                return -toNumber(value);
+            case PLUS:
+                return toNumber(value);
+            default:
+                throw new IllegalStateException("Not a unary operator: " + fOperator); //$NON-NLS-1$
+            }
+        }
+
+        @Override
+        public boolean isConstant() {
+            return fOperand.isConstant();
+        }
+
+        @Override
+        public String toString() {
+            return fOperator.fSymbol + fOperand;
+        }
+    }
+
+    private static final class Binary extends Node {
+        private final Operator fOperator;
+        private final Node fLeft;
+        private final Node fRight;
+
+        public Binary(Operator operator, Node left, Node right) {
+            fOperator = operator;
+            fLeft = left;
+            fRight = right;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@Nullable Object[] values) {
+            Object left = fLeft.evaluate(values);
+            switch (fOperator) {
+            case AND:
+                return toBoolean(left) ? fRight.evaluate(values) : left;
+            case OR:
+                return toBoolean(left) ? left : fRight.evaluate(values);
+            default:
+                break;
+            }
+            Object right = fRight.evaluate(values);
+            switch (fOperator) {
+            case ADD:
+                if (left instanceof String || right instanceof String || isObject(left) || isObject(right)) {
+                    return toJsString(left) + toJsString(right);
+                }
+                return toNumber(left) + toNumber(right);
+            case SUBTRACT:
+                return toNumber(left) - toNumber(right);
+            case MULTIPLY:
+                return toNumber(left) * toNumber(right);
+            case DIVIDE:
+                return toNumber(left) / toNumber(right);
+            case REMAINDER:
+                return toNumber(left) % toNumber(right);
+            case EQUALS:
+                return looseEquals(left, right);
+            case NOT_EQUALS:
+                return !looseEquals(left, right);
+            case STRICT_EQUALS:
+                return strictEquals(left, right);
+            case STRICT_NOT_EQUALS:
+                return !strictEquals(left, right);
+            case LESS:
+                return compare(left, right) < 0;
+            case LESS_OR_EQUAL:
+                return compare(left, right) <= 0;
+            case GREATER:
+                return compare(left, right) > 0;
+            case GREATER_OR_EQUAL:
+                return compare(left, right) >= 0;
+            default:
+                throw new IllegalStateException("Not a binary operator: " + fOperator); //$NON-NLS-1$
+            }
+        }
+
+        /**
+         * Compare 2 values, strings lexicographically and other values as
+         * numbers. A comparison with NaN returns a value that makes all the
+         * relational operators false.
+         */
+        private int compare(@Nullable Object left, @Nullable Object right) {
+            if (left instanceof String && right instanceof String) {
+                return ((String) left).compareTo((String) right);
+            }
+            double l = toNumber(left);
+            double r = toNumber(right);
+            if (Double.isNaN(l) || Double.isNaN(r)) {
+                return (fOperator == Operator.LESS || fOperator == Operator.LESS_OR_EQUAL) ? 1 : -1;
+            }
+            return l < r ? -1 : (l > r ? 1 : 0);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return fLeft.isConstant() && fRight.isConstant();
+        }
+
+        @Override
+        public String toString() {
+            return "(" + fLeft + ' ' + fOperator.fSymbol + ' ' + fRight + ')'; //$NON-NLS-1$
+        }
+    }
+
+    private static final class Conditional extends Node {
+        private final Node fCondition;
+        private final Node fThen;
+        private final Node fElse;
+
+        public Conditional(Node condition, Node thenNode, Node elseNode) {
+            fCondition = condition;
+            fThen = thenNode;
+            fElse = elseNode;
+        }
+
+        @Override
+        public @Nullable Object evaluate(@Nullable Object[] values) {
+            return toBoolean(fCondition.evaluate(values)) ? fThen.evaluate(values) : fElse.evaluate(values);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + fCondition + " ? " + fThen + " : " + fElse + ')'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Parser
+    // ------------------------------------------------------------------------
+
+    /**
+     * Exception thrown when the script uses syntax that is not supported
+     */
+    private static final class UnsupportedSyntaxException extends Exception {
+        private static final long serialVersionUID = -6064311298473651512L;
+    }
+
+    /**
+     * Recursive descent parser for the expressions, with the precedence of the
+     * javascript operators
+     */
+    private static final class Parser {
+        private static final ImmutableSet<String> RESERVED_WORDS = ImmutableSet.of("undefined", "NaN", "Infinity", "this", "typeof", "instanceof", "in", "new", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+                "delete", "void", "var", "let", "const", "function", "return"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+
+        private final String fScript;
+        private final List<String> fVariables;
+        private int fPos = 0;
+
+        public Parser(String script, List<String> variables) {
+            fScript = script;
+            fVariables = variables;
+        }
+
+        public @Nullable Node parse() {
+            try {
+                Node root = parseConditional();
+                skipSpaces();
+                /* A single trailing semicolon ends the statement */
+                if (fPos < fScript.length() && fScript.charAt(fPos) == ';') {
+                    fPos++;
+                    skipSpaces();
+                }
+                if (fPos != fScript.length()) {
+                    return null;
+                }
+                return root;
+            } catch (UnsupportedSyntaxException e) {
+                return null;
+            }
+        }
+
+        private Node parseConditional() throws UnsupportedSyntaxException {
+            Node condition = parseBinary(0);
+            if (!consume("?")) { //$NON-NLS-1$
+                return condition;
+            }
+            Node thenNode = parseConditional();
+            expect(":"); //$NON-NLS-1$
+            Node elseNode = parseConditional();
+            if (condition.isConstant()) {
+                return toBoolean(condition.evaluate(new Object[0])) ? thenNode : elseNode;
+            }
+            return new Conditional(condition, thenNode, elseNode);
+        }
+
+        /** The binary operators by increasing precedence */
+        private static final Operator[][] BINARY_OPERATORS = {
+                { Operator.OR },
+                { Operator.AND },
+                /* Longer symbols first, so '==' does not match '===' */
+                { Operator.STRICT_EQUALS, Operator.STRICT_NOT_EQUALS, Operator.EQUALS, Operator.NOT_EQUALS },
+                { Operator.LESS_OR_EQUAL, Operator.GREATER_OR_EQUAL, Operator.LESS, Operator.GREATER },
+                { Operator.ADD, Operator.SUBTRACT },
+                { Operator.MULTIPLY, Operator.DIVIDE, Operator.REMAINDER }
+        };
+
+        private Node parseBinary(int level) throws UnsupportedSyntaxException {
+            if (level == BINARY_OPERATORS.length) {
+                return parseUnary();
+            }
+            Node left = parseBinary(level + 1);
+            while (true) {
+                Operator operator = consumeOperator(BINARY_OPERATORS[level]);
+                if (operator == null) {
+                    return left;
+                }
+                Node right = parseBinary(level + 1);
+                left = fold(new Binary(operator, left, right));
+            }
+        }
+
+        private Node parseUnary() throws UnsupportedSyntaxException {
+            skipSpaces();
+            Operator operator = null;
+            if (consumeOperator(new Operator[] { Operator.NOT }) != null) {
+                operator = Operator.NOT;
+            } else if (fPos < fScript.length() && fScript.startsWith("-", fPos) && !fScript.startsWith("--", fPos)) { //$NON-NLS-1$ //$NON-NLS-2$
+                fPos++;
+                operator = Operator.NEGATE;
+            } else if (fPos < fScript.length() && fScript.startsWith("+", fPos) && !fScript.startsWith("++", fPos)) { //$NON-NLS-1$ //$NON-NLS-2$
+                fPos++;
+                operator = Operator.PLUS;
+            }
+            if (operator == null) {
+                return parsePrimary();
+            }
+            return fold(new Unary(operator, parseUnary()));
+        }
+
+        private Node parsePrimary() throws UnsupportedSyntaxException {
+            skipSpaces();
+            if (fPos >= fScript.length()) {
+                throw new UnsupportedSyntaxException();
+            }
+            char c = fScript.charAt(fPos);
+            if (c == '(') {
+                fPos++;
+                Node node = parseConditional();
+                expect(")"); //$NON-NLS-1$
+                return node;
+            }
+            if (c == '\'' || c == '"') {
+                return new Literal(parseString(c));
+            }
+            if (Character.isDigit(c) || (c == '.' && fPos + 1 < fScript.length() && Character.isDigit(fScript.charAt(fPos + 1)))) {
+                return new Literal(narrow(parseNumber()));
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = fPos;
+                while (fPos < fScript.length() && Character.isJavaIdentifierPart(fScript.charAt(fPos))) {
+                    fPos++;
+                }
+                String name = fScript.substring(start, fPos);
+                switch (name) {
+                case "true": //$NON-NLS-1$
+                    return new Literal(Boolean.TRUE);
+                case "false": //$NON-NLS-1$
+                    return new Literal(Boolean.FALSE);
+                case "null": //$NON-NLS-1$
+                    return new Literal(null);
+                default:
+                    break;
+                }
+                int index = fVariables.indexOf(name);
+                if (index < 0 || RESERVED_WORDS.contains(name)) {
+                    throw new UnsupportedSyntaxException();
+                }
+                skipSpaces();
+                /* Member access, calls and indexes are left to the script engine */
+                if (fPos < fScript.length() && ".([".indexOf(fScript.charAt(fPos)) >= 0) { //$NON-NLS-1$
+                    throw new UnsupportedSyntaxException();
+                }
+                return new Variable(name, index);
+            }
+            throw new UnsupportedSyntaxException();
+        }
+
+        private String parseString(char quote) throws UnsupportedSyntaxException {
+            StringBuilder sb = new StringBuilder();
+            fPos++;
+            while (fPos < fScript.length()) {
+                char c = fScript.charAt(fPos++);
+                if (c == quote) {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (fPos >= fScript.length()) {
+                    break;
+                }
+                char escaped = fScript.charAt(fPos++);
+                switch (escaped) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case '\\':
+                case '\'':
+                case '"':
+                    sb.append(escaped);
+                    break;
+                default:
+                    throw new UnsupportedSyntaxException();
+                }
+            }
+            throw new UnsupportedSyntaxException();
+        }
+
+        private double parseNumber() throws UnsupportedSyntaxException {
+            int start = fPos;
+            if (fScript.startsWith("0x", fPos) || fScript.startsWith("0X", fPos)) { //$NON-NLS-1$ //$NON-NLS-2$
+                fPos += 2;
+                while (fPos < fScript.length() && Character.digit(fScript.charAt(fPos), 16) >= 0) {
+                    fPos++;
+                }
+                checkNumberEnd();
+                try {
+                    return Long.parseLong(fScript.substring(start + 2, fPos), 16);
+                } catch (NumberFormatException e) {
+                    throw new UnsupportedSyntaxException();
+                }
+            }
+            skipDigits();
+            if (fPos < fScript.length() && fScript.charAt(fPos) == '.') {
+                fPos++;
+                skipDigits();
+            }
+            if (fPos < fScript.length() && (fScript.charAt(fPos) == 'e' || fScript.charAt(fPos) == 'E')) {
+                fPos++;
+                if (fPos < fScript.length() && (fScript.charAt(fPos) == '+' || fScript.charAt(fPos) == '-')) {
+                    fPos++;
+                }
+                skipDigits();
+            }
+            checkNumberEnd();
+            String number = fScript.substring(start, fPos);
+            if (number.length() > 1 && number.charAt(0) == '0' && Character.isDigit(number.charAt(1))) {
+                /* Octal literal */
+                throw new UnsupportedSyntaxException();
+            }
+            try {
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw new UnsupportedSyntaxException();
+            }
+        }
+
+        private void skipDigits() {
+            while (fPos < fScript.length() && Character.isDigit(fScript.charAt(fPos))) {
+                fPos++;
+            }
+        }
+
+        private void checkNumberEnd() throws UnsupportedSyntaxException {
+            if (fPos < fScript.length() && (Character.isJavaIdentifierPart(fScript.charAt(fPos)) || fScript.charAt(fPos) == '.')) {
+                throw new UnsupportedSyntaxException();
+            }
+        }
+
+        private static Node fold(Node node) {
+            return node.isConstant() ? new Literal(narrow(node.evaluate(new Object[0]))) : node;
+        }
+
+        private void skipSpaces() {
+            while (fPos < fScript.length() && Character.isWhitespace(fScript.charAt(fPos))) {
+                fPos++;
+            }
+        }
+
+        private boolean consume(String symbol) {
+            skipSpaces();
+            if (fScript.startsWith(symbol, fPos)) {
+                fPos += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) throws UnsupportedSyntaxException {
+            if (!consume(symbol)) {
+                throw new UnsupportedSyntaxException();
+            }
+        }
+
+        private @Nullable Operator consumeOperator(Operator[] operators) throws UnsupportedSyntaxException {
+            skipSpaces();
+            for (Operator operator : operators) {
+                if (fScript.startsWith(operator.fSymbol, fPos)) {
+                    int end = fPos + operator.fSymbol.length();
+                    char next = end < fScript.length() ? fScript.charAt(end) : ' ';
+                    if (next == '=' && operator.fSymbol.length() == 1 && operator != Operator.LESS && operator != Operator.GREATER) {
+                        /* Compound assignment like '+=' */
+                        throw new UnsupportedSyntaxException();
+                    }
+                    if (next == '=' && (operator == Operator.LESS || operator == Operator.GREATER)) {
+                        continue;
+                    }
+                    if ((operator == Operator.ADD && next == '+') || (operator == Operator.SUBTRACT && next == '-')
+                            || (operator == Operator.LESS && next == '<') || (operator == Operator.GREATER && next == '>')
+                            || (operator == Operator.AND && next == '&') || (operator == Operator.OR && next == '|')) {
+                        /* Increments and shift operators */
+                        throw new UnsupportedSyntaxException();
+                    }
+                    fPos = end;
+                    return operator;
+                }
+            }
+            /* Other operators are left to the script engine by the end of parse() */
+            return null;
+        }
+    }
+}
@@ -54,6 +54,27 @@ public abstract class DataDrivenValue implements IDataDrivenRuntimeObject {
         fForcedType = forcedType;
     }
 
+    /**
+     * Get whether this value is a constant, ie it resolves to the same value
+     * whatever the event, scenario and container. Constant values can be
+     * resolved once and cached by their users.
+     *
+     * @return Whether this value is constant
+     */
+    public final boolean isConstant() {
+        return fMappingGroupId == null && hasConstantValue();
+    }
+
+    /**
+     * Get whether the resolved value, before mapping, is the same whatever the
+     * event, scenario and container. Values are not constant by default.
+     *
+     * @return Whether the resolved value is constant
+     */
+    protected boolean hasConstantValue() {
+        return false;
+    }
+
     /**
      * Resolve the value with the analysis data.
      *
@@ -114,12 +135,33 @@ public abstract class DataDrivenValue implements IDataDrivenRuntimeObject {
         }
 
         // Set the type of the value if a forced type is requested
-        if (fForcedType != Type.NULL) {
+        if (fForcedType != Type.NULL && !isOfForcedType(resolvedValue)) {
             resolvedValue = TmfXmlUtils.newTmfStateValueFromObjectWithForcedType(resolvedValue, fForcedType).unboxValue();
         }
         return resolvedValue;
     }
 
+    /**
+     * Whether the value already has the forced type, so it does not need to be
+     * converted to a state value and back
+     */
+    private boolean isOfForcedType(@Nullable Object value) {
+        switch (fForcedType) {
+        case INTEGER:
+            return value instanceof Integer;
+        case LONG:
+            return value instanceof Long;
+        case DOUBLE:
+            return value instanceof Double;
+        case STRING:
+            return value instanceof String;
+        case CUSTOM:
+        case NULL:
+        default:
+            return false;
+        }
+    }
+
     @Override
     public String toString() {
         return "TmfXmlValue: " + getClass().getSimpleName(); //$NON-NLS-1$
@@ -44,6 +44,11 @@ public class DataDrivenValueConstant extends DataDrivenValue {
         fValue = value;
     }
 
+    @Override
+    protected boolean hasConstantValue() {
+        return true;
+    }
+
     @Override
     protected @Nullable Object resolveValue(int baseQuark, IAnalysisDataContainer container) {
         return fValue;
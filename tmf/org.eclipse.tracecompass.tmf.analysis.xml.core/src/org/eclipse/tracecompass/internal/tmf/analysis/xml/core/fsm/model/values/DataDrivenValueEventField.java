@@ -11,7 +11,10 @@
 
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenarioInfo;
@@ -26,13 +29,31 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 /**
  * A value that resolves to the value of an event field
  *
+ * How the field is found for an event, either as a field, a field path or a
+ * special value, is remembered for each event name, so the next events of that
+ * name are resolved directly.
+ *
  * @author Geneviève Bastien
  * @author Florian Wininger
  * @author Jean-Christian Kouame
  */
 public class DataDrivenValueEventField extends DataDrivenValue {
 
+    /** Where the value of the field was found */
+    private enum FieldSource {
+        FIELD,
+        FIELD_PATH,
+        CPU,
+        TIMESTAMP,
+        HOST_ID,
+        ASPECT
+    }
+
+    private static final Pattern FIELD_PATH_SEPARATOR = Pattern.compile("\\."); //$NON-NLS-1$
+
     private final String fFieldName;
+    private final String[] fFieldPath;
+    private final Map<String, FieldSource> fSources = new ConcurrentHashMap<>();
 
     /**
      * Constructor
@@ -48,6 +69,7 @@ public class DataDrivenValueEventField extends DataDrivenValue {
     public DataDrivenValueEventField(@Nullable String mappingGroupId, ITmfStateValue.Type forcedType, String fieldName) {
         super(mappingGroupId, forcedType);
         fFieldName = fieldName;
+        fFieldPath = FIELD_PATH_SEPARATOR.split(fieldName);
     }
 
     @Override
@@ -57,42 +79,73 @@ public class DataDrivenValueEventField extends DataDrivenValue {
 
     @Override
     protected @Nullable Object resolveValue(ITmfEvent event, int baseQuark, DataDrivenScenarioInfo scenarioInfo, IAnalysisDataContainer container) {
+        FieldSource source = fSources.get(event.getName());
+        if (source != null) {
+            Object fieldValue = getValue(event, source);
+            if (fieldValue != null) {
+                return fieldValue;
+            }
+        }
         final ITmfEventField field = event.getContent().getField(fFieldName);
 
-        Object fieldValue = null;
-
         /* If the field does not exist, see if it's a special case */
         if (field == null) {
-            final ITmfEventField splitFieldName = event.getContent().getField(fFieldName.split("\\.")); //$NON-NLS-1$
+            final ITmfEventField splitFieldName = event.getContent().getField(fFieldPath);
             if (splitFieldName != null) {
-                fieldValue = splitFieldName.getValue();
+                Object fieldValue = splitFieldName.getValue();
                 if (fieldValue != null) {
-                    return fieldValue;
+                    return found(event, FieldSource.FIELD_PATH, fieldValue);
                 }
             } else if (fFieldName.equalsIgnoreCase(TmfXmlStrings.CPU)) {
                 /* A "CPU" field will return the CPU aspect if available */
-                Integer cpu = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
+                Object cpu = getValue(event, FieldSource.CPU);
                 if (cpu != null) {
-                    return cpu;
+                    return found(event, FieldSource.CPU, cpu);
                 }
             } else if (fFieldName.equalsIgnoreCase(TmfXmlStrings.TIMESTAMP)) {
                 /*
                  * Exception also for "TIMESTAMP", returns the timestamp of this event
                  */
-                return event.getTimestamp().getValue();
+                return found(event, FieldSource.TIMESTAMP, event.getTimestamp().getValue());
             } else if (fFieldName.equalsIgnoreCase(TmfXmlStrings.HOSTID)) {
                 /* Return the host ID of the trace containing the event */
-                return event.getTrace().getHostId();
+                return found(event, FieldSource.HOST_ID, event.getTrace().getHostId());
             }
             // This will allow to use any column as input
-            fieldValue = TmfTraceUtils.resolveAspectOfNameForEvent(event.getTrace(), fFieldName, event);
-        } else {
-            fieldValue = field.getValue();
+            return found(event, FieldSource.ASPECT, getValue(event, FieldSource.ASPECT));
         }
+        return found(event, FieldSource.FIELD, field.getValue());
+    }
 
+    private @Nullable Object found(ITmfEvent event, FieldSource source, @Nullable Object fieldValue) {
+        if (fieldValue != null) {
+            fSources.putIfAbsent(event.getName(), source);
+        }
         return fieldValue;
     }
 
+    private @Nullable Object getValue(ITmfEvent event, FieldSource source) {
+        switch (source) {
+        case FIELD: {
+            ITmfEventField field = event.getContent().getField(fFieldName);
+            return (field == null ? null : field.getValue());
+        }
+        case FIELD_PATH: {
+            ITmfEventField field = event.getContent().getField(fFieldPath);
+            return (field == null ? null : field.getValue());
+        }
+        case CPU:
+            return TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
+        case TIMESTAMP:
+            return event.getTimestamp().getValue();
+        case HOST_ID:
+            return event.getTrace().getHostId();
+        case ASPECT:
+        default:
+            return TmfTraceUtils.resolveAspectOfNameForEvent(event.getTrace(), fFieldName, event);
+        }
+    }
+
     @Override
     public String toString() {
         return "DataDrivenValueEventField: " + fFieldName; //$NON-NLS-1$
@@ -11,6 +11,8 @@
 
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.values;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -29,7 +31,10 @@ import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 
 /**
- * A value that resolves to the result of a scripts
+ * A value that resolves to the result of a scripts. Simple javascript
+ * expressions are compiled once to a {@link DataDrivenScriptExpression} and
+ * evaluated without a script engine, the other scripts are run by the script
+ * engine.
  *
  * @author Geneviève Bastien
  * @author Abdelrahmane Berhil
@@ -41,6 +46,8 @@ public class DataDrivenValueScript extends DataDrivenValue {
     private final Map<String, DataDrivenValue> fValues;
     private final String fScriptEngine;
     private final String fScript;
+    private final @Nullable DataDrivenScriptExpression fExpression;
+    private final DataDrivenValue[] fExpressionValues;
 
     /**
      * Constructor
@@ -63,6 +70,12 @@ public class DataDrivenValueScript extends DataDrivenValue {
         fScriptEngine = !scriptEngine.isEmpty() ? scriptEngine : DEFAULT_SCRIPT_ENGINE;
         fValues = values;
         fScript = script;
+        List<String> names = new ArrayList<>(values.keySet());
+        fExpression = DataDrivenScriptExpression.compile(script, fScriptEngine, names);
+        fExpressionValues = new DataDrivenValue[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            fExpressionValues[i] = Objects.requireNonNull(values.get(names.get(i)));
+        }
     }
 
     @Override
@@ -76,6 +89,15 @@ public class DataDrivenValueScript extends DataDrivenValue {
     }
 
     private @Nullable Object executeScript(Function<DataDrivenValue, @Nullable Object> function, IAnalysisDataContainer container) {
+        DataDrivenScriptExpression expression = fExpression;
+        if (expression != null) {
+            @Nullable Object[] values = new Object[fExpressionValues.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = function.apply(fExpressionValues[i]);
+            }
+            return expression.evaluate(values);
+        }
+
         Object result = null;
         ScriptEngine engine = null;
         engine = container.getScriptEngine(fScriptEngine);
@@ -12,6 +12,7 @@
 package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.module;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,7 @@ import javax.script.ScriptEngine;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenEventHandler;
+import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenEventNameIndex;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.DataDrivenMappingGroup;
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.fsm.model.runtime.DataDrivenScenarioInfo;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
@@ -30,6 +32,8 @@ import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.TmfAttributePool;
 import org.eclipse.tracecompass.tmf.core.statesystem.TmfAttributePool.QueueType;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.ITmfMipmapStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
@@ -37,10 +41,12 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  *
  * @author Geneviève Bastien
  */
-public class DataDrivenStateProvider extends AbstractTmfStateProvider implements IAnalysisDataContainer {
+public class DataDrivenStateProvider extends AbstractTmfStateProvider implements IAnalysisDataContainer, ITmfMipmapStateProvider {
 
     private final List<DataDrivenEventHandler> fEventHandlers;
+    private final DataDrivenEventNameIndex<DataDrivenEventHandler> fHandlersByName;
     private final Map<String, DataDrivenMappingGroup> fMappingGroups = new HashMap<>();
+    private final Collection<TmfMipmapRequest> fMipmapRequests;
     private Map<String, ScriptEngine> fScriptengine = new HashMap<>();
     private final String fId;
     private final int fVersion;
@@ -61,11 +67,16 @@ public class DataDrivenStateProvider extends AbstractTmfStateProvider implements
      *            The handlers for the events
      * @param mappingGroups
      *            The mapping groups used in this analysis
+     * @param mipmapRequests
+     *            The mipmaps requested by this analysis
      */
-    public DataDrivenStateProvider(ITmfTrace trace, String providerId, int version, List<DataDrivenEventHandler> eventHandlers, Collection<DataDrivenMappingGroup> mappingGroups) {
+    public DataDrivenStateProvider(ITmfTrace trace, String providerId, int version, List<DataDrivenEventHandler> eventHandlers, Collection<DataDrivenMappingGroup> mappingGroups,
+            Collection<TmfMipmapRequest> mipmapRequests) {
         super(trace, providerId);
         fEventHandlers = eventHandlers;
+        fHandlersByName = new DataDrivenEventNameIndex<>(eventHandlers, handler -> Collections.singleton(handler.getEventName()));
         mappingGroups.forEach(mg -> fMappingGroups.put(mg.getId(), mg));
+        fMipmapRequests = mipmapRequests;
         fId = providerId;
         fVersion = version;
     }
@@ -77,12 +88,19 @@ public class DataDrivenStateProvider extends AbstractTmfStateProvider implements
 
     @Override
     public ITmfStateProvider getNewInstance() {
-        return new DataDrivenStateProvider(getTrace(), fId, fVersion, fEventHandlers, fMappingGroups.values());
+        return new DataDrivenStateProvider(getTrace(), fId, fVersion, fEventHandlers, fMappingGroups.values(), fMipmapRequests);
+    }
+
+    @Override
+    public Collection<TmfMipmapRequest> getMipmapRequests() {
+        return fMipmapRequests;
     }
 
     @Override
     protected void eventHandle(ITmfEvent event) {
-        fEventHandlers.forEach(handler -> handler.handleEvent(event, DataDrivenScenarioInfo.DUMMY_SCENARIO, this));
+        for (DataDrivenEventHandler handler : fHandlersByName.get(event.getName())) {
+            handler.executeActions(event, DataDrivenScenarioInfo.DUMMY_SCENARIO, this);
+        }
     }
 
     @Override
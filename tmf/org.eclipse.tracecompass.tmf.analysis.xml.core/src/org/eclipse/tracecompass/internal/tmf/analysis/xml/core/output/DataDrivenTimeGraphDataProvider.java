@@ -14,7 +14,6 @@ package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.output;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,10 +31,10 @@ import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.output.DataDriven
 import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.output.DataDrivenOutputEntry.QuarkCallback;
 import org.eclipse.tracecompass.internal.tmf.core.model.AbstractTmfTraceDataProvider;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
+import org.eclipse.tracecompass.internal.tmf.core.model.timegraph.SampledStateQuery;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
-import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
 import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
 import org.eclipse.tracecompass.tmf.core.model.filters.SelectionTimeQueryFilter;
@@ -184,27 +183,23 @@ public class DataDrivenTimeGraphDataProvider extends AbstractTmfTraceDataProvide
             quarkToRow.put(entry.getKey(), new TimeGraphRowModel(entry.getValue(), new ArrayList<>()));
         }
         List<Long> timesRequested = DataProviderParameterUtils.extractTimeRequested(fetchParameters);
-        for (ITmfStateInterval interval : ss.query2D(idToDisplayQuark.keySet(), getTimes(ss, timesRequested))) {
-            if (monitor != null && monitor.isCanceled()) {
-                return Collections.emptyList();
-            }
-            ITimeGraphRowModel row = quarkToRow.get(interval.getAttribute());
-            if (row != null) {
-                List<@NonNull ITimeGraphState> states = row.getStates();
-                ITimeGraphState timeGraphState = getStateFromInterval(interval, currentEndTime);
-                applyFilterAndAddState(states, timeGraphState, row.getEntryID(), predicates, monitor);
-            }
+        SampledStateQuery sampled = SampledStateQuery.query(ss, idToDisplayQuark.keySet(), getTimes(ss, timesRequested), monitor);
+        if (sampled == null) {
+            return Collections.emptyList();
         }
-        for (ITimeGraphRowModel model : quarkToRow.values()) {
-            model.getStates().sort(Comparator.comparingLong(ITimeGraphState::getStartTime));
+        for (Entry<Integer, ITimeGraphRowModel> entry : quarkToRow.entrySet()) {
+            ITimeGraphRowModel row = entry.getValue();
+            List<@NonNull ITimeGraphState> states = row.getStates();
+            sampled.forEach(entry.getKey(), (quark, start, end, value) -> {
+                ITimeGraphState timeGraphState = getState(start, end, value, currentEndTime);
+                applyFilterAndAddState(states, timeGraphState, row.getEntryID(), predicates, monitor);
+            });
         }
         return quarkToRow.values();
     }
 
-    private static TimeGraphState getStateFromInterval(ITmfStateInterval statusInterval, long currentEndTime) {
-        long time = statusInterval.getStartTime();
-        long duration = Math.min(currentEndTime, statusInterval.getEndTime() + 1) - time;
-        Object o = statusInterval.getValue();
+    private static TimeGraphState getState(long time, long endTime, @Nullable Object o, long currentEndTime) {
+        long duration = Math.min(currentEndTime, endTime + 1) - time;
         if (o instanceof Integer) {
             return new TimeGraphState(time, duration, ((Integer) o).intValue(), String.valueOf(o));
         } else if (o instanceof Long) {
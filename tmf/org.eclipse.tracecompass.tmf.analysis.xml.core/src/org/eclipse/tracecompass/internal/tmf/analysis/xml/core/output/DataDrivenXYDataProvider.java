@@ -14,6 +14,7 @@ package org.eclipse.tracecompass.internal.tmf.analysis.xml.core.output;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -31,8 +32,11 @@ import org.eclipse.tracecompass.internal.tmf.analysis.xml.core.output.DataDriven
 import org.eclipse.tracecompass.internal.tmf.core.model.AbstractTmfTraceDataProvider;
 import org.eclipse.tracecompass.internal.tmf.core.model.TmfXyResponseFactory;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap.TmfStateSystemOperations;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
 import org.eclipse.tracecompass.tmf.core.model.YModel;
@@ -160,7 +164,9 @@ public class DataDrivenXYDataProvider extends AbstractTmfTraceDataProvider
         long currentEnd = ss.getCurrentEndTime();
 
         try {
-            for (int i = 0; i < xValues.length; i++) {
+            Map<DisplayElement, IYModel> sampled = new HashMap<>(map);
+            readMipmapSeries(sampled, xValues);
+            for (int i = 0; i < xValues.length && !sampled.isEmpty(); i++) {
                 if (monitor != null && monitor.isCanceled()) {
                     return TmfXyResponseFactory.createCancelledResponse(CommonStatusMessage.TASK_CANCELLED);
                 }
@@ -169,7 +175,7 @@ public class DataDrivenXYDataProvider extends AbstractTmfTraceDataProvider
                     break;
                 } else if (ss.getStartTime() <= time) {
                     List<@NonNull ITmfStateInterval> full = ss.queryFullState(time);
-                    for (Entry<DisplayElement, IYModel> series : map.entrySet()) {
+                    for (Entry<DisplayElement, IYModel> series : sampled.entrySet()) {
                         int attributeQuark = series.getKey().fQuark;
                         if (attributeQuark >= 0 && attributeQuark < full.size()) {
                             Object value = full.get(attributeQuark).getValue();
@@ -192,6 +198,35 @@ public class DataDrivenXYDataProvider extends AbstractTmfTraceDataProvider
         return TmfXyResponseFactory.create(TITLE, xValues, ImmutableList.copyOf(map.values()), complete);
     }
 
+    /**
+     * Read the absolute series whose attribute has an average mipmap from the
+     * mipmap, each value being the average since the previous requested time,
+     * so that zoomed out series do not read all the intervals of the
+     * attributes. The series that are read are removed from the map, the
+     * other ones are sampled at the requested times.
+     */
+    private static void readMipmapSeries(Map<DisplayElement, IYModel> map, long[] xValues) {
+        Iterator<Entry<DisplayElement, IYModel>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<DisplayElement, IYModel> series = iterator.next();
+            DisplayElement displayElement = series.getKey();
+            /* The mipmaps are complete once the state system is built */
+            if (displayElement.fDisplayType != DisplayType.ABSOLUTE || displayElement.fQuark < 0 || !displayElement.fStateSystem.waitUntilBuilt(0)) {
+                continue;
+            }
+            try {
+                double[] averages = TmfStateSystemOperations.queryRangeAverages(displayElement.fStateSystem, displayElement.fQuark, xValues);
+                if (averages != null) {
+                    double[] data = series.getValue().getData();
+                    System.arraycopy(averages, 0, data, 0, Math.min(averages.length, data.length));
+                    iterator.remove();
+                }
+            } catch (AttributeNotFoundException | StateValueTypeException e) {
+                /* Sample the values of this series instead */
+            }
+        }
+    }
+
     private static void getSeriesDelta(double[] data) {
         double prevData = data[0];
         data[0] = 0;
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAnalysisScheduler;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+/**
+ * Test suite for the {@link TmfAnalysisScheduler} class
+ */
+public class AnalysisSchedulerTest {
+
+    /** Test timeout */
+    @Rule
+    public TestRule timeoutRule = new Timeout(1, TimeUnit.MINUTES);
+
+    private final List<String> fStarted = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger fRunning = new AtomicInteger();
+    private final AtomicInteger fMaxRunning = new AtomicInteger();
+    private final List<IAnalysisModule> fModules = new ArrayList<>();
+    private ITmfTrace fTrace;
+
+    /**
+     * Analysis that records when it starts, and runs until it is released
+     */
+    private class RecordingAnalysis extends TmfAbstractAnalysisModule {
+        private final List<IAnalysisModule> fDependencies;
+        private final CountDownLatch fRelease;
+
+        public RecordingAnalysis(@NonNull String id, CountDownLatch release, IAnalysisModule... dependencies) {
+            fDependencies = Arrays.asList(dependencies);
+            fRelease = release;
+            setId(id);
+            setName(id);
+        }
+
+        @Override
+        protected Iterable<IAnalysisModule> getDependentAnalyses() {
+            return fDependencies;
+        }
+
+        @Override
+        protected boolean executeAnalysis(IProgressMonitor monitor) {
+            fStarted.add(getId());
+            int running = fRunning.incrementAndGet();
+            fMaxRunning.accumulateAndGet(running, Math::max);
+            try {
+                while (!fRelease.await(10, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCanceled()) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                return false;
+            } finally {
+                fRunning.decrementAndGet();
+            }
+            return true;
+        }
+
+        @Override
+        protected void canceling() {
+            // Nothing to do
+        }
+    }
+
+    /**
+     * Create the trace
+     */
+    @Before
+    public void setUp() {
+        fTrace = new TmfTraceStub();
+    }
+
+    /**
+     * Dispose the modules and the trace
+     */
+    @After
+    public void tearDown() {
+        fModules.forEach(IAnalysisModule::dispose);
+        fTrace.dispose();
+    }
+
+    private RecordingAnalysis createModule(@NonNull String id, CountDownLatch release, IAnalysisModule... dependencies) {
+        RecordingAnalysis module = new RecordingAnalysis(id, release, dependencies);
+        try {
+            assertTrue(module.setTrace(fTrace));
+        } catch (TmfAnalysisException e) {
+            fail(e.getMessage());
+        }
+        fModules.add(module);
+        return module;
+    }
+
+    private static void waitForScheduler(TmfAnalysisScheduler scheduler) throws InterruptedException {
+        while (scheduler.getWaitingCount() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Test that the modules of a diamond-shaped graph are started after their
+     * dependencies, with the same dependency levels as when they schedule
+     * their dependencies themselves
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted
+     */
+    @Test
+    public void testDependencyOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(0);
+        RecordingAnalysis moduleA = createModule("A", release);
+        RecordingAnalysis moduleB = createModule("B", release, moduleA);
+        RecordingAnalysis moduleC = createModule("C", release, moduleA);
+        RecordingAnalysis moduleD = createModule("D", release, moduleB, moduleC);
+
+        TmfAnalysisScheduler scheduler = new TmfAnalysisScheduler(4);
+        scheduler.schedule(Collections.singletonList(moduleD));
+        waitForScheduler(scheduler);
+        assertTrue(moduleD.waitForCompletion());
+
+        assertEquals(4, fStarted.size());
+        assertEquals("A", fStarted.get(0));
+        assertEquals("D", fStarted.get(3));
+        assertEquals(0, moduleA.getDependencyLevel());
+        assertEquals(1, moduleB.getDependencyLevel());
+        assertEquals(1, moduleC.getDependencyLevel());
+        assertEquals(4, moduleD.getDependencyLevel());
+    }
+
+    /**
+     * Test that the number of modules running at the same time is bounded
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted
+     */
+    @Test
+    public void testBoundedRunning() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<IAnalysisModule> modules = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            modules.add(createModule("M" + i, release));
+        }
+        TmfAnalysisScheduler scheduler = new TmfAnalysisScheduler(2);
+        IStatus status = scheduler.schedule(modules);
+        /* The statuses of the modules started right away are returned */
+        assertTrue(status.isOK());
+        assertEquals(2, status.getChildren().length);
+        while (fStarted.size() < 2) {
+            Thread.sleep(10);
+        }
+        assertEquals(4, scheduler.getWaitingCount());
+
+        release.countDown();
+        waitForScheduler(scheduler);
+        for (IAnalysisModule module : modules) {
+            assertTrue(module.waitForCompletion());
+        }
+        assertEquals(6, fStarted.size());
+        assertEquals(2, fMaxRunning.get());
+    }
+
+    /**
+     * Test that waiting for a queued module starts it right away, and that
+     * cancelling the scheduler does not start the other queued modules
+     *
+     * @throws InterruptedException
+     *             If the test is interrupted
+     */
+    @Test
+    public void testWaitAndCancel() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingAnalysis moduleA = createModule("A", blocked);
+        RecordingAnalysis moduleB = createModule("B", new CountDownLatch(0));
+        RecordingAnalysis moduleC = createModule("C", new CountDownLatch(0));
+
+        TmfAnalysisScheduler scheduler = new TmfAnalysisScheduler(1);
+        scheduler.schedule(Arrays.asList(moduleA, moduleB, moduleC));
+        assertEquals(2, scheduler.getWaitingCount());
+
+        /* B is started by waiting for it, while A is still running */
+        assertTrue(moduleB.waitForCompletion());
+        assertTrue(fStarted.contains("B"));
+
+        scheduler.cancel();
+        assertEquals(0, scheduler.getWaitingCount());
+        blocked.countDown();
+        assertTrue(moduleA.waitForCompletion());
+        assertFalse(fStarted.contains("C"));
+        /* C is not queued anymore, waiting for it does not start it */
+        moduleC.waitForCompletion();
+        assertFalse(fStarted.contains("C"));
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.model.timegraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.internal.tmf.core.model.timegraph.SampledStateQuery;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link SampledStateQuery} class
+ */
+public class SampledStateQueryTest {
+
+    private ITmfStateSystemBuilder fStateSystem;
+    private int fQuark1;
+    private int fQuark2;
+    private int fQuark3;
+
+    /**
+     * Build a state system with three attributes, changing every time unit,
+     * every 10 time units and every 100 time units
+     */
+    @Before
+    public void setUp() {
+        fStateSystem = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("test", 0));
+        fQuark1 = fStateSystem.getQuarkAbsoluteAndAdd("fast");
+        fQuark2 = fStateSystem.getQuarkAbsoluteAndAdd("slow");
+        fQuark3 = fStateSystem.getQuarkAbsoluteAndAdd("fastest");
+        for (long t = 0; t < 1000; t++) {
+            fStateSystem.modifyAttribute(t, t, fQuark3);
+        }
+        for (long t = 0; t < 1000; t += 10) {
+            fStateSystem.modifyAttribute(t, (int) (t / 10), fQuark1);
+            if (t % 100 == 0) {
+                fStateSystem.modifyAttribute(t, "value" + t / 100, fQuark2);
+            }
+        }
+        fStateSystem.closeHistory(1000);
+    }
+
+    /**
+     * Clean-up
+     */
+    @After
+    public void tearDown() {
+        fStateSystem.dispose();
+    }
+
+    /**
+     * Test the intervals of the rows at sampled times
+     *
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testQuery() throws StateSystemDisposedException {
+        SampledStateQuery query = SampledStateQuery.query(fStateSystem, Arrays.asList(fQuark2, fQuark1),
+                Arrays.asList(950L, 5L, 500L, 505L, 250L), null);
+        assertNotNull(query);
+        assertEquals(4, query.size(fQuark1));
+        assertEquals(4, query.size(fQuark2));
+        assertEquals(0, query.size(-5));
+
+        List<String> fast = new ArrayList<>();
+        query.forEach(fQuark1, (quark, start, end, value) -> fast.add(start + "-" + end + ":" + value));
+        assertEquals(Arrays.asList("0-9:0", "250-259:25", "500-509:50", "950-959:95"), fast);
+
+        List<String> all = new ArrayList<>();
+        query.forEach((quark, start, end, value) -> all.add(quark + "@" + start + ":" + value));
+        assertEquals(Arrays.asList(fQuark1 + "@0:0", fQuark1 + "@250:25", fQuark1 + "@500:50", fQuark1 + "@950:95",
+                fQuark2 + "@0:value0", fQuark2 + "@200:value2", fQuark2 + "@500:value5", fQuark2 + "@900:value9"), all);
+    }
+
+    /**
+     * Test that a row never has more than one state per pixel, and that the
+     * state of a pixel has the value at its sampled time
+     *
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testOneStatePerPixel() throws StateSystemDisposedException {
+        /* Unsorted pixels of 7 time units, one sampled twice */
+        List<Long> times = new ArrayList<>();
+        for (long t = 994; t >= 0; t -= 7) {
+            times.add(t);
+        }
+        times.add(497L);
+        SampledStateQuery query = SampledStateQuery.query(fStateSystem, Arrays.asList(fQuark3, fQuark1, fQuark2), times, null);
+        assertNotNull(query);
+
+        List<Long> pixels = new ArrayList<>(new TreeSet<>(times));
+        for (int row : Arrays.asList(fQuark3, fQuark1, fQuark2)) {
+            int[] statesPerPixel = new int[pixels.size()];
+            query.forEach(row, (q, start, end, value) -> {
+                int index = Collections.binarySearch(pixels, start);
+                int pixel = (index >= 0 ? index : Math.min(-index - 1, pixels.size() - 1));
+                statesPerPixel[pixel]++;
+                assertTrue(statesPerPixel[pixel] <= 1);
+            });
+            assertTrue(query.size(row) <= pixels.size());
+        }
+        assertEquals(pixels.size(), query.size(fQuark3));
+        List<Long> values = new ArrayList<>();
+        query.forEach(fQuark3, (q, start, end, value) -> values.add((Long) value));
+        assertEquals(pixels, values);
+    }
+
+    /**
+     * Test a query without any time or quark, and a cancelled query
+     *
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testEmptyAndCancelled() throws StateSystemDisposedException {
+        SampledStateQuery query = SampledStateQuery.query(fStateSystem, Arrays.asList(fQuark1), Arrays.asList(), null);
+        assertNotNull(query);
+        assertEquals(0, query.size(fQuark1));
+
+        query = SampledStateQuery.query(fStateSystem, Arrays.asList(), Arrays.asList(10L), null);
+        assertNotNull(query);
+        assertEquals(0, query.size(fQuark1));
+
+        NullProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        assertNull(SampledStateQuery.query(fStateSystem, Arrays.asList(fQuark1), Arrays.asList(10L), monitor));
+    }
+
+}
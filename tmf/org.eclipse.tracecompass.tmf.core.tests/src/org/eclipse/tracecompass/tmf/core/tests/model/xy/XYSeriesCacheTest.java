@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.model.xy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache;
+import org.eclipse.tracecompass.internal.tmf.core.model.xy.XYSeriesCache.SampleType;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.junit.Test;
+
+/**
+ * Test the {@link XYSeriesCache} class
+ */
+public class XYSeriesCacheTest {
+
+    private static final Object OWNER = new Object();
+    private static final long ID = 1L;
+    private static final long BUDGET = 1024L * 1024;
+
+    /**
+     * Sampler that records the sampled times and the starts of their ranges,
+     * the value at a time is a function of the time multiplied by the id
+     */
+    private static class RecordingSampler implements XYSeriesCache.ISeriesSampler {
+        private final List<Long> fSampled = new ArrayList<>();
+        private final List<Long> fStarts = new ArrayList<>();
+        private final LongUnaryOperator fFunction;
+
+        public RecordingSampler(LongUnaryOperator function) {
+            fFunction = function;
+        }
+
+        @Override
+        public @Nullable Map<Long, double[]> sample(Collection<Long> ids, long[] starts, long[] times) {
+            Map<Long, double[]> values = new HashMap<>();
+            for (Long id : ids) {
+                values.put(id, Arrays.stream(times).mapToDouble(t -> id * fFunction.applyAsLong(t)).toArray());
+            }
+            for (int i = 0; i < times.length; i++) {
+                fSampled.add(times[i]);
+                fStarts.add(starts[i]);
+            }
+            return values;
+        }
+    }
+
+    private static long[] grid(long start, long step, int n) {
+        return LongStream.range(0, n).map(i -> start + i * step).toArray();
+    }
+
+    private static double[] getSeries(XYSeriesCache cache, SampleType type, long[] times, RecordingSampler sampler) throws StateSystemDisposedException {
+        Map<Long, double[]> values = cache.getSeries(OWNER, Collections.emptySet(), type, Collections.singleton(ID), times, 0L, Long.MAX_VALUE, sampler);
+        assertNotNull(values);
+        double[] series = values.get(ID);
+        assertNotNull(series);
+        return series;
+    }
+
+    /**
+     * Test the detection of the grids of the requested times
+     */
+    @Test
+    public void testResolution() {
+        assertEquals(8L, XYSeriesCache.getResolution(grid(64, 8, 10)));
+        assertEquals(8L, XYSeriesCache.getResolution(grid(-64, 8, 10)));
+        assertEquals(1L, XYSeriesCache.getResolution(grid(3, 1, 10)));
+        assertEquals(-1L, XYSeriesCache.getResolution(grid(60, 8, 10)));
+        assertEquals(-1L, XYSeriesCache.getResolution(grid(60, 10, 10)));
+        assertEquals(-1L, XYSeriesCache.getResolution(new long[] { 0, 8, 24 }));
+        assertEquals(-1L, XYSeriesCache.getResolution(new long[] { 8 }));
+
+        assertArrayEquals(new long[] { 56, 64, 72 }, XYSeriesCache.getStarts(grid(64, 8, 3)));
+        assertArrayEquals(new long[] { 0, 10, 10, 20 }, XYSeriesCache.getStarts(new long[] { 10, 20, 20, 25 }));
+        assertArrayEquals(new long[] { 4, 4, 5 }, XYSeriesCache.getStarts(new long[] { 5, 5, 6 }));
+        assertArrayEquals(new long[] { 8 }, XYSeriesCache.getStarts(new long[] { 8 }));
+    }
+
+    /**
+     * Test that the values of times that are not on a grid are the values at
+     * these times, that the ranges of the times follow each other, and that a
+     * pan only samples the newly exposed times
+     *
+     * @throws StateSystemDisposedException
+     *             if the sampler fails
+     */
+    @Test
+    public void testExactTimes() throws StateSystemDisposedException {
+        XYSeriesCache cache = new XYSeriesCache(BUDGET);
+        RecordingSampler sampler = new RecordingSampler(t -> t * t);
+        long[] times = grid(1003, 15, 100);
+        for (SampleType type : SampleType.values()) {
+            double[] series = getSeries(cache, type, times, sampler);
+            for (int i = 0; i < times.length; i++) {
+                assertEquals(times[i] * times[i], series[i], 0.0);
+            }
+            assertEquals(988L, (long) sampler.fStarts.get(0));
+            for (int i = 1; i < times.length; i++) {
+                assertEquals(times[i - 1], (long) sampler.fStarts.get(i));
+            }
+            sampler.fSampled.clear();
+            sampler.fStarts.clear();
+        }
+
+        /* A pan only samples the new times */
+        times = grid(1003 + 10 * 15, 15, 100);
+        double[] series = getSeries(cache, SampleType.POINT, times, sampler);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i] * times[i], series[i], 0.0);
+        }
+        assertEquals(Arrays.asList(LongStream.range(100, 110).map(i -> 1003 + i * 15).boxed().toArray()), sampler.fSampled);
+
+        sampler.fSampled.clear();
+        getSeries(cache, SampleType.AVERAGE, times, sampler);
+        assertEquals(10, sampler.fSampled.size());
+
+        /* The same times with longer ranges only reuse the points */
+        sampler.fSampled.clear();
+        times = grid(1003, 30, 50);
+        getSeries(cache, SampleType.POINT, times, sampler);
+        assertTrue(sampler.fSampled.isEmpty());
+        getSeries(cache, SampleType.AVERAGE, times, sampler);
+        assertEquals(50, sampler.fSampled.size());
+
+        /* Duplicate times are sampled once and have the value of their time */
+        sampler.fSampled.clear();
+        long[] duplicates = LongStream.range(0, 128).map(i -> 5000 + (i / 2) * 7).toArray();
+        series = getSeries(cache, SampleType.POINT, duplicates, sampler);
+        for (int i = 0; i < duplicates.length; i++) {
+            assertEquals(duplicates[i] * duplicates[i], series[i], 0.0);
+        }
+        assertEquals(64, sampler.fSampled.size());
+    }
+
+    /**
+     * Test that a pan only samples the newly exposed times
+     *
+     * @throws StateSystemDisposedException
+     *             if the sampler fails
+     */
+    @Test
+    public void testPan() throws StateSystemDisposedException {
+        XYSeriesCache cache = new XYSeriesCache(BUDGET);
+        RecordingSampler sampler = new RecordingSampler(t -> t);
+        long[] times = grid(1024, 16, 100);
+        assertArrayEquals(Arrays.stream(times).asDoubleStream().toArray(), getSeries(cache, SampleType.POINT, times, sampler), 0.0);
+        assertEquals(100, sampler.fSampled.size());
+
+        sampler.fSampled.clear();
+        times = grid(1024 + 10 * 16, 16, 100);
+        assertArrayEquals(Arrays.stream(times).asDoubleStream().toArray(), getSeries(cache, SampleType.POINT, times, sampler), 0.0);
+        assertEquals(Arrays.asList(LongStream.range(100, 110).map(i -> 1024 + i * 16).boxed().toArray()), sampler.fSampled);
+
+        /* Another series is sampled at all the times */
+        sampler.fSampled.clear();
+        Map<Long, double[]> values = cache.getSeries(OWNER, Collections.emptySet(), SampleType.POINT, Arrays.asList(ID, 2L), times, 0L, Long.MAX_VALUE, sampler);
+        assertNotNull(values);
+        assertEquals(100, sampler.fSampled.size());
+        assertEquals(2.0 * times[5], values.get(2L)[5], 0.0);
+    }
+
+    /**
+     * Test that a zoom out reuses the finer samples
+     *
+     * @throws StateSystemDisposedException
+     *             if the sampler fails
+     */
+    @Test
+    public void testZoomOut() throws StateSystemDisposedException {
+        XYSeriesCache cache = new XYSeriesCache(BUDGET);
+        RecordingSampler sampler = new RecordingSampler(t -> t * t);
+        getSeries(cache, SampleType.POINT, grid(0, 4, 101), sampler);
+        getSeries(cache, SampleType.AVERAGE, grid(0, 4, 101), sampler);
+
+        sampler.fSampled.clear();
+        long[] times = grid(0, 16, 26);
+        double[] points = getSeries(cache, SampleType.POINT, times, sampler);
+        assertTrue(sampler.fSampled.isEmpty());
+        assertEquals(160.0 * 160.0, points[10], 0.0);
+
+        /* The averages are computed from the finer values */
+        double[] averages = getSeries(cache, SampleType.AVERAGE, times, sampler);
+        assertEquals(Collections.singletonList(0L), sampler.fSampled);
+        assertEquals((160 * 160 + 156 * 156 + 152 * 152 + 148 * 148) / 4.0, averages[10], 0.0);
+    }
+
+    /**
+     * Test that the values outside of the bounds are not cached, and that the
+     * values of series are evicted when the budget is exceeded
+     *
+     * @throws StateSystemDisposedException
+     *             if the sampler fails
+     */
+    @Test
+    public void testBoundsAndEviction() throws StateSystemDisposedException {
+        XYSeriesCache cache = new XYSeriesCache(BUDGET);
+        RecordingSampler sampler = new RecordingSampler(t -> t);
+        long[] times = grid(0, 2, 100);
+        cache.getSeries(OWNER, Collections.emptySet(), SampleType.POINT, Collections.singleton(ID), times, 50L, 100L, sampler);
+        sampler.fSampled.clear();
+        cache.getSeries(OWNER, Collections.emptySet(), SampleType.POINT, Collections.singleton(ID), times, 0L, 200L, sampler);
+        assertEquals(74, sampler.fSampled.size());
+
+        /* Times that are not sorted are not cached */
+        sampler.fSampled.clear();
+        getSeries(cache, SampleType.POINT, new long[] { 5, 0, 3 }, sampler);
+        getSeries(cache, SampleType.POINT, new long[] { 5, 0, 3 }, sampler);
+        assertEquals(6, sampler.fSampled.size());
+
+        XYSeriesCache small = new XYSeriesCache(1L);
+        for (long id = 0; id < 10; id++) {
+            small.getSeries(OWNER, Collections.emptySet(), SampleType.POINT, Collections.singleton(id), times, 0L, 200L, sampler);
+            assertTrue(small.getSize() <= 64 * 8 + 160);
+        }
+        cache.remove(OWNER);
+        assertEquals(0L, cache.getSize());
+    }
+}
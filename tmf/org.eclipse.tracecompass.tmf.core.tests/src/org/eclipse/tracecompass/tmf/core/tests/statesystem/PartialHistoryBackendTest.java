@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statesystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.partial.PartialHistoryBackend;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.partial.PartialStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestTrace;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.tests.stubs.analysis.TestStateSystemProvider;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the checkpoints and the queries of the {@link PartialHistoryBackend}
+ */
+public class PartialHistoryBackendTest {
+
+    private static final String SSID = "partial-test";
+    private static final String ATTRIBUTE = "Value";
+
+    /* The trace has one event per nanosecond, from 1 to 10000 */
+    private static final long TRACE_END = 10000;
+    /* The state changes at every event in this region... */
+    private static final long DENSE_START = 4000;
+    private static final long DENSE_END = 5000;
+    /* ... and every 100 events elsewhere */
+    private static final long SPARSE_PERIOD = 100;
+
+    private static final long GRANULARITY = 1000;
+    private static final long CHANGE_GRANULARITY = 50;
+
+    private File fDirectory;
+    private File fCheckpointsFile;
+    private ITmfTrace fTrace;
+    private PartialHistoryBackend fBackend;
+
+    /**
+     * Trace stub whose timestamps are in nanoseconds, as the partial history
+     * replays the events by their time in nanoseconds
+     */
+    private static class NanosTraceStub extends TmfTraceStub {
+
+        public NanosTraceStub(String path) throws TmfTraceException {
+            super(path, ITmfTrace.DEFAULT_TRACE_CACHE_SIZE, true, null);
+        }
+
+        @Override
+        public ITmfTimestamp createTimestamp(long ts) {
+            return TmfTimestamp.fromNanos(getTimestampTransform().transform(ts) / 1000000L);
+        }
+    }
+
+    /**
+     * Open the trace and set the state changes of the provider
+     *
+     * @throws IOException
+     *             If the temporary directory cannot be created
+     * @throws TmfTraceException
+     *             If the trace cannot be opened
+     */
+    @Before
+    public void setUp() throws IOException, TmfTraceException {
+        fDirectory = Files.createTempDirectory("partial-history").toFile();
+        fCheckpointsFile = new File(fDirectory, "test.ht.checkpoints");
+        fTrace = new NanosTraceStub(TmfTestTrace.A_TEST_10K.getFullPath());
+        TestStateSystemProvider.setEventHandler((ss, provider, event) -> {
+            long time = event.getTimestamp().getValue();
+            if (isStateChange(time)) {
+                ss.modifyAttribute(time, time, ss.getQuarkAbsoluteAndAdd(ATTRIBUTE));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Dispose the trace and delete the history files
+     */
+    @After
+    public void tearDown() {
+        TestStateSystemProvider.setEventHandler(null);
+        fTrace.dispose();
+        FileUtils.deleteQuietly(fDirectory);
+    }
+
+    private static boolean isStateChange(long time) {
+        return (time >= DENSE_START && time < DENSE_END) || time % SPARSE_PERIOD == 0;
+    }
+
+    /* The value of the attribute is the time of its latest change */
+    private static @Nullable Long getExpectedValue(long time) {
+        for (long t = time; t > 0; t--) {
+            if (isStateChange(t)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Build a partial history of the trace, the checkpoints are read from the
+     * checkpoints file if it is valid for the same parameters
+     */
+    private ITmfStateSystem buildHistory(long changeGranularity) throws IOException, InterruptedException {
+        TestStateSystemProvider provider = new TestStateSystemProvider(fTrace);
+        IStateHistoryBackend realBackend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(SSID,
+                new File(fDirectory, "test.ht"), provider.getVersion(), provider.getStartTime(), 0);
+        ITmfStateProvider partialProvider = provider.getNewInstance();
+        PartialStateSystem pss = new PartialStateSystem();
+        partialProvider.assignTargetStateSystem(pss);
+        fBackend = new PartialHistoryBackend(SSID + ".partial", partialProvider, pss, realBackend,
+                GRANULARITY, changeGranularity, fCheckpointsFile);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(fBackend);
+        pss.assignUpstream(ss);
+        provider.assignTargetStateSystem(ss);
+
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0,
+                ITmfEventRequest.ALL_DATA, ITmfEventRequest.ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                provider.processEvent(event);
+            }
+        };
+        fTrace.sendRequest(request);
+        request.waitForCompletion();
+        /* Disposing the provider closes the history at the last event */
+        provider.dispose();
+        ss.waitUntilBuilt();
+        assertEquals(TRACE_END, ss.getCurrentEndTime());
+        return ss;
+    }
+
+    private static @Nullable Object queryValue(ITmfStateSystem ss, long time) throws StateSystemDisposedException {
+        int quark = ss.optQuarkAbsolute(ATTRIBUTE);
+        return ss.queryFullState(time).get(quark).getValue();
+    }
+
+    private static long countCheckpoints(List<Long> checkpoints, long start, long end) {
+        return checkpoints.stream().filter(time -> time > start && time <= end).count();
+    }
+
+    /**
+     * Test that the checkpoints are closer in the regions where the state
+     * changes often
+     *
+     * @throws Exception
+     *             If the history cannot be built
+     */
+    @Test
+    public void testCheckpointPlacement() throws Exception {
+        ITmfStateSystem ss = buildHistory(CHANGE_GRANULARITY);
+        try {
+            List<Long> checkpoints = fBackend.getCheckpoints();
+            assertEquals(1L, (long) checkpoints.get(0));
+
+            /* Only the checkpoints every GRANULARITY events in sparse regions */
+            assertEquals(3, countCheckpoints(checkpoints, 1, 3000));
+            assertEquals(5, countCheckpoints(checkpoints, DENSE_END, TRACE_END));
+            for (long time = GRANULARITY; time <= TRACE_END; time += GRANULARITY) {
+                assertTrue(checkpoints.contains(time));
+            }
+
+            /* At most CHANGE_GRANULARITY state changes between the dense ones */
+            long dense = countCheckpoints(checkpoints, DENSE_START, DENSE_END);
+            assertTrue(String.valueOf(dense), dense >= (DENSE_END - DENSE_START) / CHANGE_GRANULARITY);
+            long previous = DENSE_START;
+            for (long checkpoint : checkpoints) {
+                if (checkpoint > DENSE_START && checkpoint <= DENSE_END) {
+                    assertTrue(checkpoint - previous <= CHANGE_GRANULARITY + 1);
+                    previous = checkpoint;
+                }
+            }
+        } finally {
+            ss.dispose();
+        }
+    }
+
+    /**
+     * Test the full queries at, between and around the checkpoints
+     *
+     * @throws Exception
+     *             If the history cannot be built or queried
+     */
+    @Test
+    public void testQueries() throws Exception {
+        ITmfStateSystem ss = buildHistory(CHANGE_GRANULARITY);
+        try {
+            long[] times = { 1, 99, 100, 1001, 2500, DENSE_START - 1, DENSE_START, 4321, DENSE_END - 1, DENSE_END, 5050, TRACE_END };
+            for (long time : times) {
+                assertEquals(String.valueOf(time), getExpectedValue(time), queryValue(ss, time));
+            }
+            /* At the checkpoints and just before, in the other window */
+            List<Long> checkpoints = fBackend.getCheckpoints();
+            for (long checkpoint : checkpoints.subList(checkpoints.size() / 2 - 2, checkpoints.size() / 2 + 2)) {
+                assertEquals(String.valueOf(checkpoint), getExpectedValue(checkpoint), queryValue(ss, checkpoint));
+                assertEquals(String.valueOf(checkpoint - 1), getExpectedValue(checkpoint - 1), queryValue(ss, checkpoint - 1));
+            }
+            /* Going back in time in the same checkpoint window */
+            assertEquals(getExpectedValue(4490), queryValue(ss, 4490));
+            assertEquals(getExpectedValue(4470), queryValue(ss, 4470));
+        } finally {
+            ss.dispose();
+        }
+    }
+
+    /**
+     * Test that the saved checkpoints are reloaded, and that a checkpoints
+     * file written for other parameters or corrupted is ignored
+     *
+     * @throws Exception
+     *             If the history cannot be built or queried
+     */
+    @Test
+    public void testReloadCheckpoints() throws Exception {
+        ITmfStateSystem ss = buildHistory(CHANGE_GRANULARITY);
+        List<Long> expected = fBackend.getCheckpoints();
+        ss.dispose();
+        assertTrue(fCheckpointsFile.exists());
+
+        /* The same checkpoints, without reading the trace again */
+        ss = buildHistory(CHANGE_GRANULARITY);
+        try {
+            assertEquals(expected, fBackend.getCheckpoints());
+            assertEquals(getExpectedValue(4321), queryValue(ss, 4321));
+        } finally {
+            ss.dispose();
+        }
+
+        /* A file saved with other parameters is stale */
+        ss = buildHistory(CHANGE_GRANULARITY * 4);
+        List<Long> sparser;
+        try {
+            sparser = fBackend.getCheckpoints();
+            assertNotEquals(expected, sparser);
+            assertTrue(sparser.size() < expected.size());
+            assertEquals(getExpectedValue(4321), queryValue(ss, 4321));
+        } finally {
+            ss.dispose();
+        }
+
+        /* Corrupted files are ignored */
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(fCheckpointsFile))) {
+            out.writeInt(0xdeadbeef);
+            out.writeLong(42);
+        }
+        ss = buildHistory(CHANGE_GRANULARITY * 4);
+        try {
+            assertEquals(sparser, fBackend.getCheckpoints());
+        } finally {
+            ss.dispose();
+        }
+        byte[] content = Files.readAllBytes(fCheckpointsFile.toPath());
+        Files.write(fCheckpointsFile.toPath(), Arrays.copyOf(content, content.length / 2));
+        ss = buildHistory(CHANGE_GRANULARITY * 4);
+        try {
+            assertEquals(sparser, fBackend.getCheckpoints());
+            assertEquals(getExpectedValue(4321), queryValue(ss, 4321));
+        } finally {
+            ss.dispose();
+        }
+        assertFalse(new File(fCheckpointsFile.getPath() + ".tmp").exists());
+    }
+
+    /**
+     * Test that concurrent queries return the same results as sequential ones
+     *
+     * @throws Exception
+     *             If the history cannot be built or queried
+     */
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        Random random = new Random(42);
+        List<@NonNull Long> times = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            times.add(1 + (long) random.nextInt((int) TRACE_END));
+        }
+
+        ITmfStateSystem ss = buildHistory(CHANGE_GRANULARITY);
+        List<@Nullable Object> sequential = new ArrayList<>();
+        try {
+            for (long time : times) {
+                sequential.add(queryValue(ss, time));
+            }
+        } finally {
+            ss.dispose();
+        }
+
+        ITmfStateSystem concurrentSs = buildHistory(CHANGE_GRANULARITY);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<@Nullable Object>> results = new ArrayList<>();
+            for (long time : times) {
+                results.add(executor.submit(() -> queryValue(concurrentSs, time)));
+            }
+            for (int i = 0; i < times.size(); i++) {
+                long time = times.get(i);
+                try {
+                    assertEquals(String.valueOf(time), sequential.get(i), results.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new AssertionError(e.getCause());
+                }
+                assertEquals(String.valueOf(time), getExpectedValue(time), sequential.get(i));
+            }
+        } finally {
+            executor.shutdown();
+            concurrentSs.dispose();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statesystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented.ResumedStateSystem;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented.SegmentedHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.statesystem.core.snapshot.StateSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link SegmentedHistoryBackend} and the resumption of a
+ * construction with {@link ResumedStateSystem}
+ */
+public class SegmentedHistoryBackendTest {
+
+    private static final String SSID = "segmented-test";
+    private static final int VERSION = 2;
+
+    private File fDirectory;
+    private File fHistoryFile;
+
+    /**
+     * Create the directory of the history files
+     *
+     * @throws IOException
+     *             If the directory cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fDirectory = Files.createTempDirectory("segmented-history").toFile();
+        fHistoryFile = new File(fDirectory, "test.ht");
+    }
+
+    /**
+     * Delete the history files
+     */
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(fDirectory);
+    }
+
+    /*
+     * Build the first part of the history, up to time 150, with a rotation at
+     * time 100
+     */
+    private static void buildFirstPart(ITmfStateSystemBuilder ss, SegmentedHistoryBackend backend) throws IOException {
+        int status = ss.getQuarkAbsoluteAndAdd("Threads", "1", "Status");
+        int cpu = ss.getQuarkAbsoluteAndAdd("CPUs", "0");
+        ss.modifyAttribute(10, "Running", status);
+        ss.modifyAttribute(20, 1L, cpu);
+        ss.modifyAttribute(60, 2L, cpu);
+        assertTrue(backend.rotate(ss, 100));
+        assertFalse(backend.rotate(ss, 100));
+        int name = ss.getQuarkAbsoluteAndAdd("Threads", "1", "Name");
+        ss.modifyAttribute(120, "ls", name);
+        ss.modifyAttribute(150, 3L, cpu);
+    }
+
+    /*
+     * Build the rest of the history, with a rotation at time 200
+     */
+    private static void buildSecondPart(ITmfStateSystemBuilder ss, SegmentedHistoryBackend backend) throws IOException {
+        int status = ss.optQuarkAbsolute("Threads", "1", "Status");
+        int cpu = ss.optQuarkAbsolute("CPUs", "0");
+        ss.modifyAttribute(180, 4L, cpu);
+        assertTrue(backend.rotate(ss, 200));
+        ss.modifyAttribute(250, "Blocked", status);
+        ss.closeHistory(300);
+    }
+
+    private static void assertInterval(ITmfStateInterval interval, long start, long end, @Nullable Object value) {
+        assertEquals(start, interval.getStartTime());
+        assertEquals(end, interval.getEndTime());
+        assertEquals(value, interval.getValue());
+    }
+
+    /*
+     * Get the intervals of a 2D query, sorted by start time
+     */
+    private static List<ITmfStateInterval> sorted(Iterable<ITmfStateInterval> intervals) {
+        List<ITmfStateInterval> list = new ArrayList<>();
+        intervals.forEach(list::add);
+        list.sort((a, b) -> Long.compare(a.getStartTime(), b.getStartTime()));
+        return list;
+    }
+
+    private static void verifyHistory(ITmfStateSystem ss) throws StateSystemDisposedException {
+        int status = ss.optQuarkAbsolute("Threads", "1", "Status");
+        int name = ss.optQuarkAbsolute("Threads", "1", "Name");
+        int cpu = ss.optQuarkAbsolute("CPUs", "0");
+
+        /* Intervals crossing the segments are merged */
+        assertInterval(ss.querySingleState(50, status), 10, 249, "Running");
+        assertInterval(ss.querySingleState(220, status), 10, 249, "Running");
+        assertInterval(ss.querySingleState(90, cpu), 60, 149, 2L);
+        assertInterval(ss.querySingleState(190, cpu), 180, 300, 4L);
+        assertInterval(ss.querySingleState(260, status), 250, 300, "Blocked");
+
+        /* An attribute created after the first segment */
+        assertNull(ss.querySingleState(50, name).getValue());
+        assertInterval(ss.querySingleState(130, name), 120, 300, "ls");
+
+        List<ITmfStateInterval> fullState = ss.queryFullState(99);
+        assertInterval(fullState.get(status), 10, 249, "Running");
+        assertInterval(fullState.get(cpu), 60, 149, 2L);
+        assertNull(fullState.get(name).getValue());
+
+        /* The 2D queries return each merged interval once, in both orders */
+        for (List<ITmfStateInterval> intervals : Arrays.asList(
+                sorted(ss.query2D(Collections.singleton(status), 0, 300)),
+                sorted(ss.query2D(Collections.singleton(status), 300, 0)))) {
+            assertEquals(3, intervals.size());
+            assertInterval(intervals.get(0), 0, 9, null);
+            assertInterval(intervals.get(1), 10, 249, "Running");
+            assertInterval(intervals.get(2), 250, 300, "Blocked");
+        }
+
+        /* Sampled times on both sides of the segment boundaries */
+        List<ITmfStateInterval> intervals = sorted(ss.query2D(Arrays.asList(status, cpu), Arrays.asList(50L, 99L, 100L, 149L, 199L, 200L, 260L)));
+        assertEquals(5, intervals.size());
+        assertInterval(intervals.get(0), 10, 249, "Running");
+        assertInterval(intervals.get(1), 20, 59, 1L);
+        assertInterval(intervals.get(2), 60, 149, 2L);
+        assertInterval(intervals.get(3), 180, 300, 4L);
+        assertInterval(intervals.get(4), 250, 300, "Blocked");
+
+        /* A time range within a single segment */
+        intervals = sorted(ss.query2D(Collections.singleton(cpu), 120, 130));
+        assertEquals(1, intervals.size());
+        assertInterval(intervals.get(0), 60, 149, 2L);
+    }
+
+    /**
+     * Test the queries on a segmented history while it is built and once it
+     * is reopened
+     *
+     * @throws IOException
+     *             If the history files cannot be written
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testBuildAndOpen() throws IOException, StateSystemDisposedException {
+        SegmentedHistoryBackend backend = SegmentedHistoryBackend.createNew(SSID, fHistoryFile, VERSION, 0, 0);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+        buildFirstPart(ss, backend);
+        buildSecondPart(ss, backend);
+        assertEquals(2, backend.getClosedSegmentCount());
+        verifyHistory(ss);
+        ss.dispose();
+
+        assertEquals(2, SegmentedHistoryBackend.getSegmentFiles(fHistoryFile).size());
+        SegmentedHistoryBackend reopened = SegmentedHistoryBackend.open(SSID, fHistoryFile, VERSION);
+        ITmfStateSystem ss2 = StateSystemFactory.newStateSystem(reopened, false);
+        assertEquals(0, ss2.getStartTime());
+        assertEquals(300, ss2.getCurrentEndTime());
+        verifyHistory(ss2);
+        ss2.dispose();
+    }
+
+    /**
+     * Test compacting the segments of a complete history in a single history
+     * file
+     *
+     * @throws IOException
+     *             If the history files cannot be written
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testCompact() throws IOException, StateSystemDisposedException {
+        SegmentedHistoryBackend backend = SegmentedHistoryBackend.createNew(SSID, fHistoryFile, VERSION, 0, 0);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+        buildFirstPart(ss, backend);
+        buildSecondPart(ss, backend);
+        /* A query started before the compaction reads the previous segments */
+        Iterable<ITmfStateInterval> ongoing = ss.query2D(Collections.singleton(ss.optQuarkAbsolute("Threads", "1", "Status")), 0, 300);
+        backend.compact(ss);
+        assertEquals(0, backend.getClosedSegmentCount());
+        assertTrue(SegmentedHistoryBackend.getSegmentFiles(fHistoryFile).isEmpty());
+        assertEquals(3, sorted(ongoing).size());
+        verifyHistory(ss);
+        /* The attribute created after the first segment has a single interval before its value */
+        int name = ss.optQuarkAbsolute("Threads", "1", "Name");
+        assertInterval(ss.querySingleState(50, name), 0, 119, null);
+        ss.dispose();
+
+        /* The compacted file is a plain history tree */
+        ITmfStateSystem ss2 = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(SSID, fHistoryFile, VERSION), false);
+        assertEquals(0, ss2.getStartTime());
+        assertEquals(300, ss2.getCurrentEndTime());
+        verifyHistory(ss2);
+        ss2.dispose();
+    }
+
+    /**
+     * Test opening a compacted history whose segment files were not deleted
+     *
+     * @throws IOException
+     *             If the history files cannot be written
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testOpenCompactedWithSegments() throws IOException, StateSystemDisposedException {
+        SegmentedHistoryBackend backend = SegmentedHistoryBackend.createNew(SSID, fHistoryFile, VERSION, 0, 0);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+        buildFirstPart(ss, backend);
+        buildSecondPart(ss, backend);
+        File copy = new File(fDirectory, "segment");
+        Files.copy(SegmentedHistoryBackend.getSegmentFile(fHistoryFile, 0).toPath(), copy.toPath());
+        backend.compact(ss);
+        ss.dispose();
+        Files.copy(copy.toPath(), SegmentedHistoryBackend.getSegmentFile(fHistoryFile, 0).toPath());
+
+        SegmentedHistoryBackend reopened = SegmentedHistoryBackend.open(SSID, fHistoryFile, VERSION);
+        assertEquals(0, reopened.getClosedSegmentCount());
+        assertTrue(SegmentedHistoryBackend.getSegmentFiles(fHistoryFile).isEmpty());
+        ITmfStateSystem ss2 = StateSystemFactory.newStateSystem(reopened, false);
+        verifyHistory(ss2);
+        ss2.dispose();
+    }
+
+    /**
+     * Test resuming an interrupted construction from a snapshot of the
+     * ongoing states
+     *
+     * @throws IOException
+     *             If the history files cannot be written
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testResume() throws IOException, StateSystemDisposedException {
+        SegmentedHistoryBackend backend = SegmentedHistoryBackend.createNew(SSID, fHistoryFile, VERSION, 0, 0);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+        buildFirstPart(ss, backend);
+        /* Checkpoint at the latest state change, then interrupt */
+        assertTrue(backend.rotate(ss, 150));
+        StateSnapshot snapshot = StateSnapshot.createResumeSnapshot(ss, 150, VERSION, 42);
+        ss.modifyAttribute(170, 10L, ss.optQuarkAbsolute("CPUs", "0"));
+        ss.dispose();
+        assertFalse(fHistoryFile.exists());
+
+        SegmentedHistoryBackend resumed = SegmentedHistoryBackend.resume(SSID, fHistoryFile, VERSION, snapshot.getStartTime(), 0);
+        ResumedStateSystem ss2 = new ResumedStateSystem(resumed);
+        assertTrue(ss2.restore(snapshot));
+        assertEquals(6, ss2.getNbAttributes());
+        ITmfStateInterval ongoing = ss2.querySingleState(160, ss2.optQuarkAbsolute("CPUs", "0"));
+        assertNotNull(ongoing);
+        assertEquals(150, ongoing.getStartTime());
+        assertEquals(3L, ongoing.getValue());
+        buildSecondPart(ss2, resumed);
+        /* The status is split by the three rotations */
+        verifyHistory(ss2);
+        ss2.dispose();
+    }
+
+    /**
+     * Test that an interval starting a segment with the value the previous
+     * one had is not merged with it
+     *
+     * @throws IOException
+     *             If the history files cannot be written
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testChangeAtBoundary() throws IOException, StateSystemDisposedException {
+        SegmentedHistoryBackend backend = SegmentedHistoryBackend.createNew(SSID, fHistoryFile, VERSION, 0, 0);
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+        int quark = ss.getQuarkAbsoluteAndAdd("CPUs", "0");
+        ss.modifyAttribute(10, 1L, quark);
+        assertTrue(backend.rotate(ss, 100));
+        /* The state changes at 100, back to the same value */
+        ss.modifyAttribute(100, null, quark);
+        ss.modifyAttribute(100, 1L, quark);
+        ss.closeHistory(200);
+
+        assertInterval(ss.querySingleState(50, quark), 10, 99, 1L);
+        assertInterval(ss.querySingleState(150, quark), 100, 200, 1L);
+        assertInterval(ss.queryFullState(99).get(quark), 10, 99, 1L);
+        List<ITmfStateInterval> intervals = sorted(ss.query2D(Collections.singleton(quark), 0, 200));
+        assertEquals(3, intervals.size());
+        assertInterval(intervals.get(1), 10, 99, 1L);
+        assertInterval(intervals.get(2), 100, 200, 1L);
+        ss.dispose();
+
+        ITmfStateSystem ss2 = StateSystemFactory.newStateSystem(SegmentedHistoryBackend.open(SSID, fHistoryFile, VERSION), false);
+        assertInterval(ss2.querySingleState(50, quark), 10, 99, 1L);
+        assertInterval(ss2.querySingleState(150, quark), 100, 200, 1L);
+        ss2.dispose();
+    }
+}
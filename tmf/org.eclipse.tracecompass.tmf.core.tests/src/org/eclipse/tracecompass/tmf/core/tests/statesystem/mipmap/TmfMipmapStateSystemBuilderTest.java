@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.statesystem.mipmap;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap.AbstractTmfMipmapStateProvider;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap.TmfStateSystemOperations;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.ITmfMipmapStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the mipmaps requested declaratively by a state provider, see
+ * {@link ITmfMipmapStateProvider}
+ */
+public class TmfMipmapStateSystemBuilderTest {
+
+    private static final @NonNull String SSID = "mipmap-request-test";
+    private static final String CPUS = "CPUs";
+    private static final String FREQUENCY = "Frequency";
+    private static final String STATUS = "Status";
+    private static final long INTERVAL = 1000L;
+    private static final int NB_EVENTS = 1000;
+    private static final double DELTA = 0.0001;
+    private static ITmfStateSystemBuilder fSs;
+
+    /**
+     * A state provider that sets the attribute whose path is the event name to
+     * the event's value, without calling any mipmap specific method
+     */
+    private static class MipmapRequestStateProviderStub extends AbstractTmfStateProvider implements ITmfMipmapStateProvider {
+
+        public MipmapRequestStateProviderStub() {
+            super(new TmfTraceStub(), SSID);
+        }
+
+        @Override
+        public Collection<@NonNull TmfMipmapRequest> getMipmapRequests() {
+            return Collections.singletonList(new TmfMipmapRequest(TmfMipmapRequest.MAX | TmfMipmapRequest.AVG, 4,
+                    CPUS, TmfMipmapRequest.WILDCARD, FREQUENCY));
+        }
+
+        @Override
+        protected void eventHandle(ITmfEvent event) {
+            ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
+            int quark = ss.getQuarkAbsoluteAndAdd(event.getName().split("/"));
+            ss.modifyAttribute(event.getTimestamp().toNanos(), event.getContent().getValue(), quark);
+        }
+
+        @Override
+        public int getVersion() {
+            return 0;
+        }
+
+        @Override
+        public ITmfStateProvider getNewInstance() {
+            return new MipmapRequestStateProviderStub();
+        }
+
+        @Override
+        public void dispose() {
+            super.dispose();
+            getTrace().dispose();
+        }
+
+        public @NonNull ITmfEvent createEvent(String path, long time, long value) {
+            ITmfEventField content = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, value, null);
+            return new TmfEvent(null, ITmfContext.UNKNOWN_RANK, TmfTimestamp.fromNanos(time), new TmfEventType(path, null), content);
+        }
+    }
+
+    /**
+     * Build a state system where the frequency of the CPUs repeatedly goes
+     * from 0 to 900 by steps of 100
+     */
+    @BeforeClass
+    public static void init() {
+        MipmapRequestStateProviderStub provider = new MipmapRequestStateProviderStub();
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend(SSID, 0));
+        provider.assignTargetStateSystem(ss);
+        fSs = ss;
+        for (int i = 0; i < NB_EVENTS; i++) {
+            long time = i * INTERVAL;
+            for (int cpu = 0; cpu < 2; cpu++) {
+                provider.processEvent(provider.createEvent(CPUS + '/' + cpu + '/' + FREQUENCY, time, (i % 10) * 100L));
+                provider.processEvent(provider.createEvent(CPUS + '/' + cpu + '/' + STATUS, time, i % 2));
+            }
+        }
+        provider.dispose();
+        ss.waitUntilBuilt();
+    }
+
+    /**
+     * Dispose the state system
+     */
+    @AfterClass
+    public static void tearDown() {
+        fSs.dispose();
+    }
+
+    /**
+     * Test that the mipmaps are only built for the requested attributes and
+     * features
+     */
+    @Test
+    public void testRequestedAttributes() {
+        ITmfStateSystem ss = fSs;
+        for (int cpu = 0; cpu < 2; cpu++) {
+            int frequencyQuark = ss.optQuarkAbsolute(CPUS, String.valueOf(cpu), FREQUENCY);
+            assertTrue(ss.optQuarkRelative(frequencyQuark, AbstractTmfMipmapStateProvider.MAX_STRING) >= 0);
+            assertTrue(ss.optQuarkRelative(frequencyQuark, AbstractTmfMipmapStateProvider.AVG_STRING) >= 0);
+            assertEquals(ITmfStateSystem.INVALID_ATTRIBUTE, ss.optQuarkRelative(frequencyQuark, AbstractTmfMipmapStateProvider.MIN_STRING));
+            int statusQuark = ss.optQuarkAbsolute(CPUS, String.valueOf(cpu), STATUS);
+            assertTrue(ss.getSubAttributes(statusQuark, false).isEmpty());
+        }
+    }
+
+    /**
+     * Test the range queries on the requested mipmaps
+     *
+     * @throws AttributeNotFoundException
+     *             If the attribute is not found
+     */
+    @Test
+    public void testRangeQueries() throws AttributeNotFoundException {
+        ITmfStateSystem ss = fSs;
+        int quark = ss.getQuarkAbsolute(CPUS, "1", FREQUENCY);
+        assertEquals(900, TmfStateSystemOperations.queryRangeMax(ss, 0, 500000, quark).unboxLong());
+        assertEquals(400, TmfStateSystemOperations.queryRangeMax(ss, 100000, 104000, quark).unboxLong());
+        assertEquals(450.0, TmfStateSystemOperations.queryRangeAverage(ss, 0, 500000, quark), DELTA);
+
+        /* Each range of 10 intervals has the same average */
+        long[] times = new long[50];
+        double[] expected = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i * 10 * INTERVAL;
+            expected[i] = (i == 0) ? 0.0 : 450.0;
+        }
+        double[] averages = TmfStateSystemOperations.queryRangeAverages(ss, quark, times);
+        assertNotNull(averages);
+        assertArrayEquals(expected, averages, DELTA);
+
+        /* The times outside of the state system have no value */
+        averages = TmfStateSystemOperations.queryRangeAverages(ss, quark, new long[] { -INTERVAL, 2 * NB_EVENTS * INTERVAL });
+        assertNotNull(averages);
+        assertArrayEquals(new double[] { 0.0, 0.0 }, averages, DELTA);
+
+        /* An attribute without mipmaps */
+        assertNull(TmfStateSystemOperations.queryRangeAverages(ss, ss.getQuarkAbsolute(CPUS, "1", STATUS), times));
+    }
+}
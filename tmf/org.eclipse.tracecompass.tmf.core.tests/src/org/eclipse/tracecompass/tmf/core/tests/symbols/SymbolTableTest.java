@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.symbols;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.tracecompass.internal.tmf.core.callstack.MappingFile;
+import org.eclipse.tracecompass.internal.tmf.core.callstack.SizedMappingFile;
+import org.eclipse.tracecompass.internal.tmf.core.callstack.SymbolTable;
+import org.eclipse.tracecompass.tmf.core.symbols.IMappingFile;
+import org.eclipse.tracecompass.tmf.core.symbols.TmfResolvedSymbol;
+import org.junit.Test;
+
+/**
+ * Test the {@link SymbolTable} class, written to a file and memory-mapped
+ */
+public class SymbolTableTest {
+
+    private static SymbolTable writeAndLoad(SymbolTable.Builder builder, Path directory) throws IOException {
+        Path file = directory.resolve("table.symtab");
+        builder.write(file);
+        return SymbolTable.load(file);
+    }
+
+    /**
+     * Test a table without sizes, unsorted and with duplicate addresses
+     *
+     * @throws IOException
+     *             If the table cannot be written
+     */
+    @Test
+    public void testSymbols() throws IOException {
+        Path directory = Files.createTempDirectory("symbols");
+        try (SymbolTable.Builder builder = new SymbolTable.Builder(false, directory)) {
+            builder.add(Long.parseUnsignedLong("ffeeddccbbaa0100", 16), 0, "Overflowing symbol");
+            builder.add(0x300, 0, "third");
+            builder.add(0x100, 0, "first");
+            builder.add(0x200, 0, "replaced");
+            builder.add(0x200, 0, "second");
+            builder.add(0x250, 0, "block END__");
+            SymbolTable table = writeAndLoad(builder, directory);
+            assertFalse(table.isSized());
+            assertEquals(5, table.size());
+            assertEquals(-1, table.floorIndex(0xff));
+            assertEquals("first", table.getName(table.floorIndex(0x100)));
+            assertEquals("second", table.getName(table.floorIndex(0x24f)));
+            assertEquals("Overflowing symbol", table.getName(table.floorIndex(-1L)));
+
+            IMappingFile mf = new MappingFile("table", false, table, -1);
+            long[] addresses = { 0x210, 0x50, 0x250, 0x260, 0x310, Long.parseUnsignedLong("ffeeddccbbaa0100", 16) };
+            TmfResolvedSymbol[] symbols = mf.getSymbolEntries(addresses);
+            assertEquals("second", symbols[0].getSymbolName());
+            assertNull(symbols[1]);
+            assertEquals("block END__", symbols[2].getSymbolName());
+            assertNull("After the end of a block", symbols[3]);
+            assertEquals("third", symbols[4].getSymbolName());
+            assertEquals("Overflowing symbol", symbols[5].getSymbolName());
+            assertNull("After the last symbol", mf.getSymbolEntry(-1L));
+        } finally {
+            Files.deleteIfExists(directory.resolve("table.symtab"));
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Test a table of sized symbols, some of which overlap
+     *
+     * @throws IOException
+     *             If the table cannot be written
+     */
+    @Test
+    public void testSizedSymbols() throws IOException {
+        Path directory = Files.createTempDirectory("symbols");
+        try (SymbolTable.Builder builder = new SymbolTable.Builder(true, directory)) {
+            builder.add(0x100, 0x1000, "outer");
+            builder.add(0x110, 0x20, "inner");
+            builder.add(0x200, 0x10, "second inner");
+            builder.add(0x2000, 0x10, "other");
+            SymbolTable table = writeAndLoad(builder, directory);
+            assertTrue(table.isSized());
+
+            IMappingFile mf = new SizedMappingFile("table", false, table, 12);
+            assertEquals(12, mf.getPid());
+            assertNull(mf.getSymbolEntry(0xff));
+            assertEquals("outer", getName(mf, 0x100));
+            assertEquals("inner", getName(mf, 0x120));
+            assertEquals("outer", getName(mf, 0x150));
+            assertEquals("second inner", getName(mf, 0x205));
+            /* Far after the inner symbols, but still in the outer one */
+            assertEquals("outer", getName(mf, 0x1050));
+            assertNull(mf.getSymbolEntry(0x1500));
+            assertEquals("other", getName(mf, 0x2010));
+            assertNull(mf.getSymbolEntry(0x2011));
+        } finally {
+            Files.deleteIfExists(directory.resolve("table.symtab"));
+            Files.delete(directory);
+        }
+    }
+
+    private static String getName(IMappingFile mf, long address) {
+        TmfResolvedSymbol symbol = mf.getSymbolEntry(address);
+        assertNotNull(symbol);
+        return symbol.getSymbolName();
+    }
+
+}
@@ -24,6 +24,8 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +67,8 @@ public final class FunctionNameMapper {
     private static final Pattern REMOVE_ZEROS_PATTERN = Pattern.compile("^0+(?!$)"); //$NON-NLS-1$
     private static final Pattern NM_PATTERN = Pattern.compile("([0-9a-f]+)([\\s][a-zA-Z][\\s])(.+)"); //$NON-NLS-1$
     private static final Pattern MAP_WITH_SIZE_PATTERN = Pattern.compile("([0-9a-f]+)[\\s]([a-f0-9]+)[\\s](.+)"); //$NON-NLS-1$
+    private static final String SYMBOL_TABLE_DIRECTORY = "symbols"; //$NON-NLS-1$
+    private static final String SYMBOL_TABLE_EXTENSION = ".symtab"; //$NON-NLS-1$
 
     /**
      * The type of mapping used in a file. Each type of mapping has its pattern
@@ -105,34 +109,9 @@ public final class FunctionNameMapper {
      */
     public static @Nullable Map<@NonNull Long, @NonNull TmfResolvedSymbol> mapFromNmTextFile(File mappingFile) {
         Map<@NonNull Long, @NonNull TmfResolvedSymbol> map = new TreeMap<>();
-
-        CPPFilt cppFilt = null;
-        try (FileReader fr = new FileReader(mappingFile);
-                BufferedReader reader = new BufferedReader(fr);) {
-            try {
-                cppFilt = new CPPFilt();
-            } catch (IOException e) {
-                Activator.logError("Error to instantiate the c++filt", e);  //$NON-NLS-1$
-            }
-            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                Matcher matcher = NM_PATTERN.matcher(line);
-                if (matcher.find()) {
-                    long address = Long.parseUnsignedLong(stripLeadingZeros(Objects.requireNonNull(matcher.group(1))), 16);
-                    String name = Objects.requireNonNull(matcher.group(3));
-                    name = (cppFilt == null) ? name : nameFromCppFilt(cppFilt, name);
-                    map.put(address, new TmfResolvedSymbol(address, Objects.requireNonNull(name)));
-                }
-            }
-        } catch (FileNotFoundException e) {
+        if (!readTextFile(mappingFile, MappingType.NM, (address, size, name) -> map.put(address, new TmfResolvedSymbol(address, name)))) {
             return null;
-        } catch (IOException e) {
-            /* Stop reading the file at this point */
-        } finally {
-            if (cppFilt != null) {
-                cppFilt.dispose();
-            }
         }
-
         return map.isEmpty() ? null : ImmutableMap.copyOf(map);
     }
 
@@ -146,7 +125,91 @@ public final class FunctionNameMapper {
      */
     public static @Nullable Map<@NonNull Long, @NonNull TmfResolvedSymbol> mapFromSizedTextFile(File mappingFile) {
         Map<@NonNull Long, @NonNull TmfResolvedSymbol> map = new TreeMap<>();
+        if (!readTextFile(mappingFile, MappingType.MAP_WITH_SIZE, (address, size, name) -> map.put(address, new TmfResolvedSizedSymbol(address, name, size)))) {
+            return null;
+        }
+        return map.isEmpty() ? null : ImmutableMap.copyOf(map);
+    }
+
+    /**
+     * Get the symbol table of a text mapping file. The table is generated the
+     * first time the file is read and saved in the plugin's state location, it
+     * is then memory-mapped instead of parsing the text file again.
+     *
+     * @param mappingFile
+     *            The file to import
+     * @param type
+     *            The type of mapping in the file, either
+     *            {@link MappingType#NM} or {@link MappingType#MAP_WITH_SIZE}
+     * @return The symbol table, or <code>null</code> if the file cannot be read
+     *         or does not contain any symbol
+     */
+    public static @Nullable SymbolTable getSymbolTableFromTextFile(File mappingFile, MappingType type) {
+        boolean sized = (type == MappingType.MAP_WITH_SIZE);
+        java.nio.file.Path directory = getSymbolTableDirectory();
+        if (directory == null) {
+            /* Not running in the platform, build the table in memory */
+            try (SymbolTable.Builder builder = new SymbolTable.Builder(sized)) {
+                if (!readTextFile(mappingFile, type, builder::add) || builder.size() == 0) {
+                    return null;
+                }
+                return builder.build();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(mappingFile.toPath(), BasicFileAttributes.class);
+            java.nio.file.Path tableFile = directory.resolve(mappingFile.getName() + '-' + Integer.toHexString(mappingFile.getAbsolutePath().hashCode()) + '-'
+                    + Long.toHexString(attributes.size()) + '-' + Long.toHexString(attributes.lastModifiedTime().toMillis()) + '-' + type + SYMBOL_TABLE_EXTENSION);
+            if (Files.isRegularFile(tableFile)) {
+                try {
+                    SymbolTable table = SymbolTable.load(tableFile);
+                    return table.size() == 0 ? null : table;
+                } catch (IOException e) {
+                    /* Invalid table, generate it again */
+                }
+            }
+            try (SymbolTable.Builder builder = new SymbolTable.Builder(sized, directory)) {
+                if (!readTextFile(mappingFile, type, builder::add)) {
+                    return null;
+                }
+                builder.write(tableFile);
+            }
+            SymbolTable table = SymbolTable.load(tableFile);
+            return table.size() == 0 ? null : table;
+        } catch (IOException e) {
+            Activator.logError("Error generating the symbol table of " + mappingFile, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private static java.nio.file.@Nullable Path getSymbolTableDirectory() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        try {
+            java.nio.file.Path directory = activator.getStateLocation().append(SYMBOL_TABLE_DIRECTORY).toFile().toPath();
+            Files.createDirectories(directory);
+            return directory;
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+    }
 
+    @FunctionalInterface
+    private interface SymbolConsumer {
+        void accept(long address, long size, String name) throws IOException;
+    }
+
+    /**
+     * Read the symbols of a text file, demangling the C++ names
+     *
+     * @return <code>false</code> if the file does not exist
+     */
+    private static boolean readTextFile(File mappingFile, MappingType type, SymbolConsumer consumer) {
+        Pattern pattern = (type == MappingType.MAP_WITH_SIZE) ? MAP_WITH_SIZE_PATTERN : NM_PATTERN;
         CPPFilt cppFilt = null;
         try (FileReader fr = new FileReader(mappingFile);
                 BufferedReader reader = new BufferedReader(fr);) {
@@ -156,17 +219,17 @@ public final class FunctionNameMapper {
                 Activator.logError("Error to instantiate the c++filt", e);  //$NON-NLS-1$
             }
             for (String line = reader.readLine(); line != null; line = reader.readLine()) {
-                Matcher matcher = MAP_WITH_SIZE_PATTERN.matcher(line);
+                Matcher matcher = pattern.matcher(line);
                 if (matcher.find()) {
                     long address = Long.parseUnsignedLong(stripLeadingZeros(Objects.requireNonNull(matcher.group(1))), 16);
-                    long size = Long.parseUnsignedLong(stripLeadingZeros(Objects.requireNonNull(matcher.group(2))), 16);
+                    long size = (type == MappingType.MAP_WITH_SIZE) ? Long.parseUnsignedLong(stripLeadingZeros(Objects.requireNonNull(matcher.group(2))), 16) : 0;
                     String name = Objects.requireNonNull(matcher.group(3));
                     name = (cppFilt == null) ? name : nameFromCppFilt(cppFilt, name);
-                    map.put(address, new TmfResolvedSizedSymbol(address, Objects.requireNonNull(name), size));
+                    consumer.accept(address, size, Objects.requireNonNull(name));
                 }
             }
         } catch (FileNotFoundException e) {
-            return null;
+            return false;
         } catch (IOException e) {
             /* Stop reading the file at this point */
         } finally {
@@ -174,8 +237,7 @@ public final class FunctionNameMapper {
                 cppFilt.dispose();
             }
         }
-
-        return map.isEmpty() ? null : ImmutableMap.copyOf(map);
+        return true;
     }
 
     /**
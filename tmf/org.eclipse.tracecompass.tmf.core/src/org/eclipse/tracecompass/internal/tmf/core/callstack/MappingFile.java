@@ -15,14 +15,9 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.callstack;
 
-import java.util.Comparator;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.NavigableMap;
 import java.util.Objects;
-import java.util.TreeMap;
 
-import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.symbols.IMappingFile;
 import org.eclipse.tracecompass.tmf.core.symbols.TmfResolvedSymbol;
@@ -40,11 +35,10 @@ import org.eclipse.tracecompass.tmf.core.symbols.TmfResolvedSymbol;
 public final class MappingFile implements IMappingFile {
 
     private static final String DEFAULT_END_SUFFIX = "END__"; //$NON-NLS-1$
-    private static Comparator<@NonNull Long> MAP_COMPARATOR = Long::compareUnsigned;
 
     private final String fFullPath;
     private final boolean fIsBinaryFile;
-    private final NavigableMap<Long, TmfResolvedSymbol> fSymbolMapping;
+    private final SymbolTable fSymbols;
     private final int fPid;
 
     /**
@@ -61,10 +55,26 @@ public final class MappingFile implements IMappingFile {
      *            means it applies to all processes
      */
     public MappingFile(String path, boolean isBinaryFile, Map<Long, TmfResolvedSymbol> results, int pid) {
+        this(path, isBinaryFile, SymbolTable.create(results), pid);
+    }
+
+    /**
+     * Create a new {@link MappingFile} from a symbol table
+     *
+     * @param path
+     *            Path leading to the mapping file
+     * @param isBinaryFile
+     *            Type of the mapping file
+     * @param symbols
+     *            The symbol table of the mapping file
+     * @param pid
+     *            The ID of the process this mapping applies to. A negative value
+     *            means it applies to all processes
+     */
+    public MappingFile(String path, boolean isBinaryFile, SymbolTable symbols, int pid) {
         fFullPath = path;
         fIsBinaryFile = isBinaryFile;
-        fSymbolMapping = new TreeMap<>(MAP_COMPARATOR);
-        fSymbolMapping.putAll(results);
+        fSymbols = symbols;
         fPid = pid;
     }
 
@@ -78,22 +88,19 @@ public final class MappingFile implements IMappingFile {
         return fIsBinaryFile;
     }
 
-    private long getLastAddress() {
-        return fSymbolMapping.lastKey();
-    }
-
     @Override
     public @Nullable TmfResolvedSymbol getSymbolEntry(long address) {
-        Entry<Long, TmfResolvedSymbol> floorEntry = fSymbolMapping.floorEntry(address);
-        if (floorEntry == null) {
+        int index = fSymbols.floorIndex(address);
+        if (index < 0) {
             return null;
         }
         // See if the symbol returned is the end of a block or the last symbol. In this
         // case, don't use the floor unless it hits the exact address
-        TmfResolvedSymbol symbol = Objects.requireNonNull(floorEntry.getValue());
-        long floorValue = symbol.getBaseAddress();
-        return ((symbol.getSymbolName().endsWith(getEndSuffix()) || floorValue == getLastAddress())
-                && floorValue != address) ? null : symbol;
+        long floorValue = fSymbols.getAddress(index);
+        if (floorValue != address && (index == fSymbols.size() - 1 || fSymbols.getName(index).endsWith(getEndSuffix()))) {
+            return null;
+        }
+        return fSymbols.getSymbol(index);
     }
 
     /**
@@ -112,7 +119,7 @@ public final class MappingFile implements IMappingFile {
 
     @Override
     public int hashCode() {
-        return Objects.hash(fFullPath, fIsBinaryFile, fSymbolMapping);
+        return Objects.hash(fFullPath, fIsBinaryFile, fSymbols);
     }
 
     @Override
@@ -128,6 +135,6 @@ public final class MappingFile implements IMappingFile {
         }
 
         MappingFile other = (MappingFile) obj;
-        return (fFullPath.equals(other.fFullPath)) && (fIsBinaryFile == other.fIsBinaryFile) && (fSymbolMapping.equals(other.fSymbolMapping));
+        return (fFullPath.equals(other.fFullPath)) && (fIsBinaryFile == other.fIsBinaryFile) && (fSymbols.equals(other.fSymbols));
     }
 }
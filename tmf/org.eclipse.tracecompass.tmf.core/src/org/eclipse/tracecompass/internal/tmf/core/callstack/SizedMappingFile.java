@@ -11,16 +11,15 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.callstack;
 
-import java.util.Iterator;
 import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
-import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
 import org.eclipse.tracecompass.tmf.core.symbols.IMappingFile;
 import org.eclipse.tracecompass.tmf.core.symbols.TmfResolvedSymbol;
 
+import com.google.common.collect.Maps;
+
 /**
  * This class maps addresses to their corresponding symbol, but the symbols have
  * sizes and some may overlap. This is the case for instance for symbols of
@@ -34,7 +33,7 @@ public class SizedMappingFile implements IMappingFile {
 
     private final String fFullPath;
     private final boolean fIsBinaryFile;
-    private final ISegmentStore<TmfResolvedSizedSymbol> fSymbolStore;
+    private final SymbolTable fSymbols;
     private final int fPid;
 
     /**
@@ -51,14 +50,26 @@ public class SizedMappingFile implements IMappingFile {
      *            means it applies to all processes
      */
     public SizedMappingFile(String path, boolean isBinaryFile, Map<Long, TmfResolvedSymbol> results, int pid) {
+        this(path, isBinaryFile, SymbolTable.create(Maps.filterValues(results, TmfResolvedSizedSymbol.class::isInstance)), pid);
+    }
+
+    /**
+     * Create a new {@link SizedMappingFile} from a symbol table
+     *
+     * @param path
+     *            Path leading to the mapping file
+     * @param isBinaryFile
+     *            Type of the mapping file
+     * @param symbols
+     *            The symbol table of the mapping file, with sized symbols
+     * @param pid
+     *            The ID of the process this mapping applies to. A negative value
+     *            means it applies to all processes
+     */
+    public SizedMappingFile(String path, boolean isBinaryFile, SymbolTable symbols, int pid) {
         fFullPath = path;
         fIsBinaryFile = isBinaryFile;
-        fSymbolStore = SegmentStoreFactory.createSegmentStore();
-        for (TmfResolvedSymbol symbol : results.values()) {
-            if (symbol instanceof TmfResolvedSizedSymbol) {
-                fSymbolStore.add((TmfResolvedSizedSymbol) symbol);
-            }
-        }
+        fSymbols = symbols;
         fPid = pid;
     }
 
@@ -74,16 +85,11 @@ public class SizedMappingFile implements IMappingFile {
 
     @Override
     public @Nullable TmfResolvedSymbol getSymbolEntry(long address) {
-        Iterable<TmfResolvedSizedSymbol> symbols = fSymbolStore.getIntersectingElements(address);
-        Iterator<TmfResolvedSizedSymbol> iterator = symbols.iterator();
-        TmfResolvedSizedSymbol symbol = null;
-        while (iterator.hasNext()) {
-            TmfResolvedSizedSymbol current = iterator.next();
-            if (symbol == null || symbol.getBaseAddress() < current.getBaseAddress()) {
-                symbol = current;
-            }
+        if (!fSymbols.isSized()) {
+            return null;
         }
-        return symbol;
+        int index = fSymbols.containingIndex(address);
+        return index < 0 ? null : fSymbols.getSymbol(index);
     }
 
     @Override
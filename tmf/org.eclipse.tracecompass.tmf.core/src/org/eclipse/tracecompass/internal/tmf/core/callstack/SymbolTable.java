@@ -0,0 +1,510 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.callstack;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.symbols.TmfResolvedSymbol;
+
+/**
+ * A table of symbols sorted by address. The table is a flat binary structure
+ * that can be written to a file once and memory-mapped afterwards: the
+ * addresses are searched in place and a symbol name is only decoded when it is
+ * returned.
+ *
+ * The symbols of a table may have a size, in which case a symbol only covers
+ * the addresses from its base address to its base address plus its size.
+ */
+public final class SymbolTable {
+
+    private static final int MAGIC = 0x53594d54;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SIZED_FLAG = 1;
+
+    private final ByteBuffer fBuffer;
+    private final int fCount;
+    private final LongBuffer fAddresses;
+    /* Sizes and prefix maximum of the end addresses, for sized symbols */
+    private final @Nullable LongBuffer fSizes;
+    private final @Nullable LongBuffer fMaxEnds;
+    private final IntBuffer fNameOffsets;
+    private final ByteBuffer fNames;
+
+    private SymbolTable(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a symbol table"); //$NON-NLS-1$
+        }
+        int count = buffer.getInt(8);
+        boolean sized = (buffer.getInt(12) & SIZED_FLAG) != 0;
+        long namesStart = HEADER_SIZE + (long) count * ((sized ? 3 : 1) * Long.BYTES + Integer.BYTES);
+        if (count < 0 || namesStart > buffer.limit()) {
+            throw new IOException("Invalid symbol table"); //$NON-NLS-1$
+        }
+        fBuffer = buffer;
+        fCount = count;
+        int position = HEADER_SIZE;
+        fAddresses = slice(buffer, position, count * Long.BYTES).asLongBuffer();
+        position += count * Long.BYTES;
+        if (sized) {
+            fSizes = slice(buffer, position, count * Long.BYTES).asLongBuffer();
+            position += count * Long.BYTES;
+            fMaxEnds = slice(buffer, position, count * Long.BYTES).asLongBuffer();
+            position += count * Long.BYTES;
+        } else {
+            fSizes = null;
+            fMaxEnds = null;
+        }
+        fNameOffsets = slice(buffer, position, count * Integer.BYTES).asIntBuffer();
+        position += count * Integer.BYTES;
+        /* The name lengths are written by a DataOutputStream */
+        fNames = slice(buffer, position, buffer.limit() - position).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return slice.slice().order(buffer.order());
+    }
+
+    /**
+     * Memory-map a symbol table file
+     *
+     * @param file
+     *            The file written by {@link Builder#write(Path)}
+     * @return The symbol table
+     * @throws IOException
+     *             If the file cannot be read or is not a symbol table
+     */
+    public static SymbolTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Symbol table too large: " + file); //$NON-NLS-1$
+            }
+            return new SymbolTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Create a symbol table in memory from resolved symbols
+     *
+     * @param symbols
+     *            The symbols, by address
+     * @return The symbol table
+     */
+    public static SymbolTable create(Map<Long, TmfResolvedSymbol> symbols) {
+        boolean sized = symbols.values().stream().anyMatch(TmfResolvedSizedSymbol.class::isInstance);
+        try (Builder builder = new Builder(sized)) {
+            for (TmfResolvedSymbol symbol : symbols.values()) {
+                long size = (symbol instanceof TmfResolvedSizedSymbol) ? ((TmfResolvedSizedSymbol) symbol).getLength() : 0;
+                builder.add(symbol.getBaseAddress(), size, symbol.getSymbolName());
+            }
+            return builder.build();
+        } catch (IOException e) {
+            /* Everything is in memory */
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the number of symbols
+     *
+     * @return The number of symbols
+     */
+    public int size() {
+        return fCount;
+    }
+
+    /**
+     * Whether the symbols of this table have a size
+     *
+     * @return <code>true</code> if the symbols have a size
+     */
+    public boolean isSized() {
+        return fSizes != null;
+    }
+
+    /**
+     * Get the base address of a symbol
+     *
+     * @param index
+     *            The index of the symbol
+     * @return The address
+     */
+    public long getAddress(int index) {
+        return fAddresses.get(index);
+    }
+
+    /**
+     * Get the name of a symbol
+     *
+     * @param index
+     *            The index of the symbol
+     * @return The name
+     */
+    public String getName(int index) {
+        int offset = fNameOffsets.get(index);
+        int length = fNames.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer name = fNames.duplicate();
+        name.position(offset + Integer.BYTES);
+        name.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a symbol
+     *
+     * @param index
+     *            The index of the symbol
+     * @return The symbol, a {@link TmfResolvedSizedSymbol} if the symbols of
+     *         this table have a size
+     */
+    public TmfResolvedSymbol getSymbol(int index) {
+        LongBuffer sizes = fSizes;
+        if (sizes != null) {
+            return new TmfResolvedSizedSymbol(getAddress(index), getName(index), sizes.get(index));
+        }
+        return new TmfResolvedSymbol(getAddress(index), getName(index));
+    }
+
+    /**
+     * Get the index of the last symbol whose base address is smaller or equal
+     * to an address
+     *
+     * @param address
+     *            The address
+     * @return The index of the symbol, or -1 if all symbols are after the
+     *         address
+     */
+    public int floorIndex(long address) {
+        int low = 0;
+        int high = fCount - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(fAddresses.get(mid), address) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of the symbol with the highest base address whose range
+     * contains an address. The symbols must have a size.
+     *
+     * @param address
+     *            The address
+     * @return The index of the symbol, or -1 if no symbol contains the address
+     */
+    public int containingIndex(long address) {
+        LongBuffer sizes = fSizes;
+        LongBuffer maxEnds = fMaxEnds;
+        if (sizes == null || maxEnds == null) {
+            throw new IllegalStateException("The symbols do not have a size"); //$NON-NLS-1$
+        }
+        /*
+         * Walk back from the floor while an earlier symbol may still end after
+         * the address, the symbols may overlap
+         */
+        for (int i = floorIndex(address); i >= 0 && Long.compareUnsigned(maxEnds.get(i), address) >= 0; i--) {
+            if (Long.compareUnsigned(fAddresses.get(i) + sizes.get(i), address) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int hashCode() {
+        return fBuffer.hashCode();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SymbolTable)) {
+            return false;
+        }
+        return fBuffer.equals(((SymbolTable) obj).fBuffer);
+    }
+
+    /**
+     * Builder of symbol tables. The names are kept in a temporary file while
+     * the symbols are added, so only the addresses are kept in memory.
+     */
+    public static final class Builder implements Closeable {
+
+        private final boolean fSized;
+        private final @Nullable Path fNamesFile;
+        private final DataOutputStream fNamesOut;
+        private final @Nullable ByteArrayOutputStream fNamesBytes;
+        private long[] fAddresses = new long[1024];
+        private long[] fSizes;
+        private int[] fNameOffsets = new int[1024];
+        private int fCount = 0;
+
+        /**
+         * Create a builder that keeps everything in memory
+         *
+         * @param sized
+         *            Whether the symbols have a size
+         */
+        public Builder(boolean sized) {
+            fSized = sized;
+            fSizes = new long[sized ? 1024 : 0];
+            fNamesFile = null;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            fNamesBytes = bytes;
+            fNamesOut = new DataOutputStream(bytes);
+        }
+
+        /**
+         * Create a builder that keeps the names in a temporary file
+         *
+         * @param sized
+         *            Whether the symbols have a size
+         * @param directory
+         *            The directory of the temporary file
+         * @throws IOException
+         *             If the temporary file cannot be created
+         */
+        public Builder(boolean sized, Path directory) throws IOException {
+            fSized = sized;
+            fSizes = new long[sized ? 1024 : 0];
+            Path namesFile = Files.createTempFile(directory, "symbols", ".names"); //$NON-NLS-1$ //$NON-NLS-2$
+            fNamesFile = namesFile;
+            fNamesBytes = null;
+            fNamesOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(namesFile)));
+        }
+
+        /**
+         * Add a symbol. If many symbols have the same address, the last one is
+         * kept.
+         *
+         * @param address
+         *            The base address of the symbol
+         * @param size
+         *            The size of the symbol, ignored if the symbols do not
+         *            have a size
+         * @param name
+         *            The name of the symbol
+         * @throws IOException
+         *             If the name cannot be written
+         */
+        public void add(long address, long size, String name) throws IOException {
+            if (fCount == fAddresses.length) {
+                fAddresses = Arrays.copyOf(fAddresses, fCount * 2);
+                fNameOffsets = Arrays.copyOf(fNameOffsets, fCount * 2);
+                if (fSized) {
+                    fSizes = Arrays.copyOf(fSizes, fCount * 2);
+                }
+            }
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            int offset = fNamesOut.size();
+            if (offset < 0 || (long) offset + Integer.BYTES + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Too many symbol names"); //$NON-NLS-1$
+            }
+            fNamesOut.writeInt(bytes.length);
+            fNamesOut.write(bytes);
+            fAddresses[fCount] = address;
+            fNameOffsets[fCount] = offset;
+            if (fSized) {
+                fSizes[fCount] = size;
+            }
+            fCount++;
+        }
+
+        /**
+         * Get the number of symbols added
+         *
+         * @return The number of symbols
+         */
+        public int size() {
+            return fCount;
+        }
+
+        /**
+         * Build the symbol table in memory
+         *
+         * @return The symbol table
+         * @throws IOException
+         *             If the names cannot be read
+         */
+        public SymbolTable build() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTable(Channels.newChannel(out));
+            return new SymbolTable(ByteBuffer.wrap(out.toByteArray()));
+        }
+
+        /**
+         * Write the symbol table to a file, to be loaded with
+         * {@link SymbolTable#load(Path)}
+         *
+         * @param file
+         *            The file to write
+         * @throws IOException
+         *             If the file cannot be written
+         */
+        public void write(Path file) throws IOException {
+            Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeTable(channel);
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        private void writeTable(WritableByteChannel channel) throws IOException {
+            fNamesOut.flush();
+            int[] order = sortedUniqueOrder();
+            int count = order.length;
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(fSized ? SIZED_FLAG : 0);
+            buffer.flip();
+            writeFully(channel, buffer);
+
+            buffer = ByteBuffer.allocate(count * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int index : order) {
+                buffer.putLong(fAddresses[index]);
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+            if (fSized) {
+                buffer.clear();
+                for (int index : order) {
+                    buffer.putLong(fSizes[index]);
+                }
+                buffer.flip();
+                writeFully(channel, buffer);
+                buffer.clear();
+                long maxEnd = 0;
+                for (int index : order) {
+                    long end = fAddresses[index] + fSizes[index];
+                    maxEnd = Long.compareUnsigned(end, maxEnd) > 0 ? end : maxEnd;
+                    buffer.putLong(maxEnd);
+                }
+                buffer.flip();
+                writeFully(channel, buffer);
+            }
+            buffer = ByteBuffer.allocate(count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int index : order) {
+                buffer.putInt(fNameOffsets[index]);
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+
+            ByteArrayOutputStream namesBytes = fNamesBytes;
+            Path namesFile = fNamesFile;
+            if (namesBytes != null) {
+                writeFully(channel, ByteBuffer.wrap(namesBytes.toByteArray()));
+            } else if (namesFile != null) {
+                try (FileChannel names = FileChannel.open(namesFile, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = names.size();
+                    while (position < size) {
+                        position += names.transferTo(position, size - position, channel);
+                    }
+                }
+            }
+        }
+
+        private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /*
+         * Stable sort of the symbol indexes by unsigned address, keeping the
+         * last symbol added at each address
+         */
+        private int[] sortedUniqueOrder() {
+            int[] order = new int[fCount];
+            for (int i = 0; i < fCount; i++) {
+                order[i] = i;
+            }
+            int[] tmp = new int[fCount];
+            for (int width = 1; width < fCount; width *= 2) {
+                for (int low = 0; low < fCount - width; low += 2 * width) {
+                    merge(order, tmp, low, low + width, Math.min(low + 2 * width, fCount));
+                }
+            }
+            int count = 0;
+            for (int i = 0; i < fCount; i++) {
+                if (i + 1 < fCount && fAddresses[order[i]] == fAddresses[order[i + 1]]) {
+                    continue;
+                }
+                order[count++] = order[i];
+            }
+            return Arrays.copyOf(order, count);
+        }
+
+        private void merge(int[] order, int[] tmp, int low, int mid, int high) {
+            int i = low;
+            int j = mid;
+            int k = low;
+            while (i < mid && j < high) {
+                if (Long.compareUnsigned(fAddresses[order[j]], fAddresses[order[i]]) < 0) {
+                    tmp[k++] = order[j++];
+                } else {
+                    tmp[k++] = order[i++];
+                }
+            }
+            while (i < mid) {
+                tmp[k++] = order[i++];
+            }
+            while (j < high) {
+                tmp[k++] = order[j++];
+            }
+            System.arraycopy(tmp, low, order, low, high - low);
+        }
+
+        @Override
+        public void close() throws IOException {
+            OutputStream out = fNamesOut;
+            out.close();
+            Path namesFile = fNamesFile;
+            if (namesFile != null) {
+                Files.deleteIfExists(namesFile);
+            }
+        }
+    }
+
+}
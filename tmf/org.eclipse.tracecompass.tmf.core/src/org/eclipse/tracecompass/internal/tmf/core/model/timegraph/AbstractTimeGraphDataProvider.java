@@ -27,6 +27,7 @@ import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedE
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
 import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
+import org.eclipse.tracecompass.tmf.core.model.filters.TimeQueryFilter;
 import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphDataProvider;
 import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphEntryModel;
 import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphStateFilter;
@@ -132,4 +133,27 @@ public abstract class AbstractTimeGraphDataProvider<A extends TmfStateSystemAnal
     protected abstract @Nullable TimeGraphModel getRowModel(ITmfStateSystem ss,
             Map<String, Object> parameters, @Nullable IProgressMonitor monitor)
             throws StateSystemDisposedException;
+
+    /**
+     * Query the states of some rows at the times sampled by a filter, in one
+     * pass over the state system and without keeping the intervals, see
+     * {@link SampledStateQuery}
+     *
+     * @param ss
+     *            the {@link ITmfStateSystem} to query
+     * @param quarks
+     *            the quarks of the rows
+     * @param filter
+     *            the query's filter, with the requested times
+     * @param monitor
+     *            progress monitor
+     * @return the sampled intervals of the rows, null if the query was
+     *         cancelled
+     * @throws StateSystemDisposedException
+     *             if the state system was closed during the query
+     */
+    protected static @Nullable SampledStateQuery querySampledStates(ITmfStateSystem ss, Collection<Integer> quarks,
+            TimeQueryFilter filter, @Nullable IProgressMonitor monitor) throws StateSystemDisposedException {
+        return SampledStateQuery.query(ss, quarks, getTimes(filter, ss.getStartTime(), ss.getCurrentEndTime()), monitor);
+    }
 }
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.model.timegraph;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Sampled query of the states of many rows of a time graph. The state system
+ * is queried in one pass at the sampled times, usually one per pixel. Each
+ * interval returned contains a sampled time and the intervals of a row do not
+ * overlap, so each row has at most one state per pixel. The start, end and
+ * value of the states are kept in arrays per row, sorted by time, instead of
+ * keeping the intervals in collections, and the providers create their states
+ * from them.
+ */
+public final class SampledStateQuery {
+
+    /**
+     * Consumer of the sampled intervals
+     */
+    @FunctionalInterface
+    public interface IIntervalConsumer {
+        /**
+         * Consume an interval
+         *
+         * @param quark
+         *            The quark of the row
+         * @param start
+         *            The start time of the interval
+         * @param end
+         *            The end time of the interval
+         * @param value
+         *            The value of the interval
+         */
+        void accept(int quark, long start, long end, @Nullable Object value);
+    }
+
+    private static final int INITIAL_ROW_SIZE = 16;
+
+    /* The quarks of the rows, sorted */
+    private final int[] fQuarks;
+    private final Row[] fRows;
+
+    private SampledStateQuery(int[] quarks) {
+        fQuarks = quarks;
+        fRows = new Row[quarks.length];
+        for (int i = 0; i < fRows.length; i++) {
+            fRows[i] = new Row();
+        }
+    }
+
+    /**
+     * Query the intervals of some quarks at the sampled times
+     *
+     * @param ss
+     *            The state system to query
+     * @param quarks
+     *            The quarks of the rows
+     * @param times
+     *            The sampled times
+     * @param monitor
+     *            The progress monitor, to cancel the query
+     * @return The result of the query, or <code>null</code> if it was
+     *         cancelled
+     * @throws StateSystemDisposedException
+     *             If the state system was disposed during the query
+     */
+    public static @Nullable SampledStateQuery query(ITmfStateSystem ss, Collection<Integer> quarks, Collection<Long> times,
+            @Nullable IProgressMonitor monitor) throws StateSystemDisposedException {
+        int[] sortedQuarks = quarks.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        SampledStateQuery query = new SampledStateQuery(sortedQuarks);
+        if (sortedQuarks.length == 0 || times.isEmpty()) {
+            return query;
+        }
+        for (ITmfStateInterval interval : ss.query2D(quarks, times)) {
+            if (monitor != null && monitor.isCanceled()) {
+                return null;
+            }
+            int index = Arrays.binarySearch(sortedQuarks, interval.getAttribute());
+            if (index >= 0) {
+                query.fRows[index].add(interval.getStartTime(), interval.getEndTime(), interval.getValue());
+            }
+        }
+        for (Row row : query.fRows) {
+            row.sort();
+        }
+        return query;
+    }
+
+    /**
+     * Get the number of intervals of a row
+     *
+     * @param quark
+     *            The quark of the row
+     * @return The number of intervals, 0 if the quark was not queried
+     */
+    public int size(int quark) {
+        int index = Arrays.binarySearch(fQuarks, quark);
+        return (index < 0 ? 0 : fRows[index].fSize);
+    }
+
+    /**
+     * Visit all the intervals, row by row, in time order
+     *
+     * @param consumer
+     *            The consumer of the intervals
+     */
+    public void forEach(IIntervalConsumer consumer) {
+        for (int i = 0; i < fQuarks.length; i++) {
+            Row row = fRows[i];
+            for (int j = 0; j < row.fSize; j++) {
+                consumer.accept(fQuarks[i], row.fStarts[j], row.fEnds[j], row.fValues[j]);
+            }
+        }
+    }
+
+    /**
+     * Visit the intervals of one row, in time order
+     *
+     * @param quark
+     *            The quark of the row
+     * @param consumer
+     *            The consumer of the intervals
+     */
+    public void forEach(int quark, IIntervalConsumer consumer) {
+        int index = Arrays.binarySearch(fQuarks, quark);
+        if (index < 0) {
+            return;
+        }
+        Row row = fRows[index];
+        for (int j = 0; j < row.fSize; j++) {
+            consumer.accept(quark, row.fStarts[j], row.fEnds[j], row.fValues[j]);
+        }
+    }
+
+    /**
+     * The intervals of one row, in parallel arrays
+     */
+    private static final class Row {
+        private long[] fStarts = new long[INITIAL_ROW_SIZE];
+        private long[] fEnds = new long[INITIAL_ROW_SIZE];
+        private @Nullable Object[] fValues = new Object[INITIAL_ROW_SIZE];
+        private int fSize = 0;
+        private boolean fSorted = true;
+
+        public void add(long start, long end, @Nullable Object value) {
+            if (fSize == fStarts.length) {
+                int newSize = fSize * 2;
+                fStarts = Arrays.copyOf(fStarts, newSize);
+                fEnds = Arrays.copyOf(fEnds, newSize);
+                fValues = Arrays.copyOf(fValues, newSize);
+            }
+            if (fSize > 0 && start < fStarts[fSize - 1]) {
+                fSorted = false;
+            }
+            fStarts[fSize] = start;
+            fEnds[fSize] = end;
+            fValues[fSize] = value;
+            fSize++;
+        }
+
+        /**
+         * Sort the intervals by start time. The intervals of a quark do not
+         * overlap, so they are also sorted by end time.
+         */
+        public void sort() {
+            if (!fSorted) {
+                quickSort(0, fSize - 1);
+                fSorted = true;
+            }
+        }
+
+        private void quickSort(int from, int to) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                long pivot = fStarts[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (fStarts[i] < pivot) {
+                        i++;
+                    }
+                    while (fStarts[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i, j);
+                        i++;
+                        j--;
+                    }
+                }
+                /* Recurse on the smaller part, loop on the larger one */
+                if (j - low < high - i) {
+                    quickSort(low, j);
+                    low = i;
+                } else {
+                    quickSort(i, high);
+                    high = j;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            long start = fStarts[i];
+            fStarts[i] = fStarts[j];
+            fStarts[j] = start;
+            long end = fEnds[i];
+            fEnds[i] = fEnds[j];
+            fEnds[j] = end;
+            Object value = fValues[i];
+            fValues[i] = fValues[j];
+            fValues[j] = value;
+        }
+    }
+}
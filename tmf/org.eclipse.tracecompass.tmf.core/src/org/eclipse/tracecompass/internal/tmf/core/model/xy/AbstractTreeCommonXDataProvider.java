@@ -55,6 +55,11 @@ import com.google.common.collect.ImmutableList;
 public abstract class AbstractTreeCommonXDataProvider<A extends TmfStateSystemAnalysisModule, M extends ITmfTreeDataModel>
     extends AbstractTreeDataProvider<A, M> implements ITmfTreeXYDataProvider<M> {
 
+    /** Memory budget of the series cache shared by the providers, in bytes */
+    private static final long SERIES_CACHE_BUDGET = 16L * 1024 * 1024;
+
+    private static final XYSeriesCache SERIES_CACHE = new XYSeriesCache(SERIES_CACHE_BUDGET);
+
     /**
      * Constructor
      *
@@ -102,6 +107,47 @@ public abstract class AbstractTreeCommonXDataProvider<A extends TmfStateSystemAn
         }
     }
 
+    /**
+     * Get the values of series at the requested times, through the series
+     * cache shared by the providers. The values cached by previous queries
+     * are reused and only the missing times are sampled, with the range of
+     * each time (see {@link XYSeriesCache#getStarts(long[])}). The values are
+     * only cached once the state system is built, for the times whose range
+     * is within it.
+     *
+     * @param ss
+     *            the state system of the analysis module
+     * @param signature
+     *            the fetch parameters, other than the times and entries, which
+     *            the values depend on
+     * @param type
+     *            how the values depend on the range of their time
+     * @param ids
+     *            the ids of the series
+     * @param times
+     *            the requested times
+     * @param sampler
+     *            the function that computes the values at the missing times
+     * @return the values of each series, with one value per requested time,
+     *         null if the query was cancelled
+     * @throws StateSystemDisposedException
+     *             if the state system was closed during the query or could not
+     *             be queried.
+     */
+    protected @Nullable Map<Long, double[]> getSeriesValues(ITmfStateSystem ss, Object signature, XYSeriesCache.SampleType type,
+            Collection<Long> ids, long[] times, XYSeriesCache.ISeriesSampler sampler) throws StateSystemDisposedException {
+        if (!ss.waitUntilBuilt(0)) {
+            return XYSeriesCache.sample(sampler, ids, times);
+        }
+        return SERIES_CACHE.getSeries(this, signature, type, ids, times, ss.getStartTime(), ss.getCurrentEndTime(), sampler);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        SERIES_CACHE.remove(this);
+    }
+
     /**
      * Abstract method to be implemented by the providers to return trees. Lets the
      * abstract class handle waiting for {@link ITmfStateSystem} initialization and
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.model.xy;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+
+/**
+ * Cache of the values of XY series, shared by the data providers. The values
+ * are always those of the requested times, and a query only samples the times
+ * that are not already cached. The range of a requested time is the time
+ * range since the previous distinct requested time, the range of the first
+ * time is as long as the range of the second one.
+ * <p>
+ * When the requested times are consecutive multiples of a power of two, the
+ * values are cached on that grid, for each (owner, signature, entry id, grid
+ * step), in blocks of consecutive grid times, so panning only computes the
+ * newly exposed samples. When a time is not cached at the resolution of the
+ * query, the finer grids are looked up: a {@link SampleType#POINT} value is
+ * the same at all resolutions, and a {@link SampleType#AVERAGE} value is the
+ * mean of the two values of the grid that is twice as fine. The values of the
+ * other times are cached for each (owner, signature, entry id, range). The
+ * least recently used blocks and values are evicted when the cache exceeds its
+ * memory budget.
+ */
+public class XYSeriesCache {
+
+    /**
+     * How the value at a sampled time depends on the resolution
+     */
+    public enum SampleType {
+        /** The value at a time, which does not depend on its range */
+        POINT,
+        /** The average over the range of the time */
+        AVERAGE
+    }
+
+    /**
+     * Function that computes the values of series at times
+     */
+    @FunctionalInterface
+    public interface ISeriesSampler {
+        /**
+         * Compute the values of series
+         *
+         * @param ids
+         *            The ids of the series
+         * @param starts
+         *            The start of the range of each time, the previous
+         *            requested time
+         * @param times
+         *            The times at which to compute the values
+         * @return The values of each series, with one value per time, or
+         *         <code>null</code> if the query was cancelled
+         * @throws StateSystemDisposedException
+         *             If the state system was disposed during the query
+         */
+        @Nullable Map<Long, double[]> sample(Collection<Long> ids, long[] starts, long[] times) throws StateSystemDisposedException;
+    }
+
+    /**
+     * Key of a block of grid times, or of the value of a time and its range
+     * start, whose level is {@link #EXACT_LEVEL}
+     */
+    private static final class Key {
+        private final Object fOwner;
+        private final Object fSignature;
+        private final long fId;
+        private final int fLevel;
+        private final long fStart;
+        private final long fBlock;
+
+        public Key(Object owner, Object signature, long id, int level, long start, long block) {
+            fOwner = owner;
+            fSignature = signature;
+            fId = id;
+            fLevel = level;
+            fStart = start;
+            fBlock = block;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fOwner, fSignature, fId, fLevel, fStart, fBlock);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fId == other.fId && fLevel == other.fLevel && fStart == other.fStart && fBlock == other.fBlock
+                    && fOwner.equals(other.fOwner) && fSignature.equals(other.fSignature);
+        }
+    }
+
+    private static final class Block {
+        private final double[] fValues = new double[BLOCK_SIZE];
+        private long fMask = 0L;
+    }
+
+    /** Number of consecutive grid times in a block */
+    private static final int BLOCK_SIZE = 64;
+    /** Approximate size of a block with its key and map entry, in bytes */
+    private static final long BLOCK_BYTES = BLOCK_SIZE * Double.BYTES + 160;
+    /** Approximate size of a value of a time with its key and map entry */
+    private static final long VALUE_BYTES = Double.BYTES + 160;
+    /** Maximum number of finer grids looked up for a value */
+    private static final int MAX_FINER_LEVELS = 3;
+    /** Level of the keys of the values of the times that are not on a grid */
+    private static final int EXACT_LEVEL = -1;
+
+    private final long fMaxBlocks;
+    private final long fMaxValues;
+    private final LinkedHashMap<Key, Block> fBlocks = new LinkedHashMap<Key, Block>(16, 0.75f, true) {
+        private static final long serialVersionUID = -6410927830497735236L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<Key, Block> eldest) {
+            return size() > fMaxBlocks;
+        }
+    };
+    private final LinkedHashMap<Key, Double> fValues = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+        private static final long serialVersionUID = 3514815163408453307L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<Key, Double> eldest) {
+            return size() > fMaxValues;
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param memoryBudget
+     *            The approximate maximum size of the cached values, in bytes,
+     *            shared equally by the grid values and the other values
+     */
+    public XYSeriesCache(long memoryBudget) {
+        fMaxBlocks = Math.max(1L, memoryBudget / 2 / BLOCK_BYTES);
+        fMaxValues = Math.max(1L, memoryBudget / 2 / VALUE_BYTES);
+    }
+
+    /**
+     * Get the step of the grid of the requested times
+     *
+     * @param times
+     *            The requested times
+     * @return The step of the grid, a power of two, or -1 if the times are not
+     *         consecutive multiples of a power of two
+     */
+    public static long getResolution(long[] times) {
+        if (times.length < 2) {
+            return -1;
+        }
+        long step = times[1] - times[0];
+        if (step <= 0 || Long.bitCount(step) != 1 || Math.floorMod(times[0], step) != 0) {
+            return -1;
+        }
+        for (int i = 2; i < times.length; i++) {
+            if (times[i] - times[i - 1] != step) {
+                return -1;
+            }
+        }
+        return step;
+    }
+
+    /**
+     * Get the start of the range of each requested time: the previous distinct
+     * requested time, or for the first time, the time before it by as much as
+     * the next distinct time is after it
+     *
+     * @param times
+     *            The requested times
+     * @return The start of the range of each time
+     */
+    public static long[] getStarts(long[] times) {
+        long[] starts = new long[times.length];
+        if (times.length == 0) {
+            return starts;
+        }
+        long first = times[0];
+        starts[0] = first;
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] != first) {
+                starts[0] = first - (times[i] - first);
+                break;
+            }
+        }
+        for (int i = 1; i < times.length; i++) {
+            starts[i] = (times[i] == times[i - 1]) ? starts[i - 1] : times[i - 1];
+        }
+        return starts;
+    }
+
+    /**
+     * Sample series at the requested times without the cache, with the range
+     * of each time (see {@link #getStarts(long[])})
+     *
+     * @param sampler
+     *            The function that computes the values
+     * @param ids
+     *            The ids of the series
+     * @param times
+     *            The requested times
+     * @return The values of each series, with one value per requested time,
+     *         or <code>null</code> if the query was cancelled
+     * @throws StateSystemDisposedException
+     *             If the state system was disposed during the query
+     */
+    public static @Nullable Map<Long, double[]> sample(ISeriesSampler sampler, Collection<Long> ids, long[] times) throws StateSystemDisposedException {
+        return sampler.sample(ids, getStarts(times), times);
+    }
+
+    /**
+     * Get the values of series at the requested times. The cached values are
+     * reused and only the missing times are sampled, once for duplicate
+     * times. Only the values of the times whose range is between the bounds
+     * are cached, so the values that may still change are never cached. NaN
+     * values are not cached. Times that are not sorted are sampled without
+     * the cache.
+     *
+     * @param owner
+     *            The owner of the series, usually the data provider
+     * @param signature
+     *            The parameters, other than the times and entries, which the
+     *            values depend on
+     * @param type
+     *            How the values depend on the range of their time
+     * @param ids
+     *            The ids of the series
+     * @param times
+     *            The requested times
+     * @param cacheStart
+     *            The first time of the ranges whose values can be cached
+     * @param cacheEnd
+     *            The last time whose value can be cached
+     * @param sampler
+     *            The function that computes the missing values
+     * @return The values of each series, with one value per requested time,
+     *         or <code>null</code> if the query was cancelled
+     * @throws StateSystemDisposedException
+     *             If the state system was disposed during the query
+     */
+    public @Nullable Map<Long, double[]> getSeries(Object owner, Object signature, SampleType type, Collection<Long> ids,
+            long[] times, long cacheStart, long cacheEnd, ISeriesSampler sampler) throws StateSystemDisposedException {
+        long[] starts = getStarts(times);
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) {
+                return sampler.sample(ids, starts, times);
+            }
+        }
+        if (ids.isEmpty() || times.length == 0) {
+            return sampler.sample(ids, starts, times);
+        }
+        long resolution = getResolution(times);
+        int level = (resolution > 0) ? Long.numberOfTrailingZeros(resolution) : EXACT_LEVEL;
+        Map<Long, double[]> values = new HashMap<>();
+        for (Long id : ids) {
+            values.put(id, new double[times.length]);
+        }
+
+        /* Fill the cached values and find the missing distinct times */
+        boolean[] cacheable = new boolean[times.length];
+        int[] sampleIndex = new int[times.length];
+        long[] missingStarts = new long[times.length];
+        long[] missingTimes = new long[times.length];
+        int nbSamples = 0;
+        synchronized (this) {
+            for (int i = 0; i < times.length; i++) {
+                long time = times[i];
+                long start = (type == SampleType.POINT) ? time : starts[i];
+                cacheable[i] = cacheStart <= start && time <= cacheEnd;
+                boolean found = cacheable[i];
+                for (Long id : ids) {
+                    if (!found) {
+                        break;
+                    }
+                    double value = (level == EXACT_LEVEL) ? lookupExact(owner, signature, id, type, starts[i], time) :
+                            lookup(owner, signature, id, level, type, time, MAX_FINER_LEVELS);
+                    found = !Double.isNaN(value);
+                    Objects.requireNonNull(values.get(id))[i] = value;
+                }
+                if (found) {
+                    sampleIndex[i] = -1;
+                    continue;
+                }
+                if (nbSamples == 0 || missingTimes[nbSamples - 1] != time) {
+                    missingStarts[nbSamples] = starts[i];
+                    missingTimes[nbSamples++] = time;
+                }
+                sampleIndex[i] = nbSamples - 1;
+            }
+        }
+        if (nbSamples == 0) {
+            return values;
+        }
+
+        /* Sample the missing times */
+        Map<Long, double[]> sampled = sampler.sample(ids, Arrays.copyOf(missingStarts, nbSamples), Arrays.copyOf(missingTimes, nbSamples));
+        if (sampled == null) {
+            return null;
+        }
+        synchronized (this) {
+            for (Long id : ids) {
+                double[] sampledValues = sampled.get(id);
+                double[] idValues = Objects.requireNonNull(values.get(id));
+                for (int i = 0; i < times.length; i++) {
+                    int j = sampleIndex[i];
+                    if (j < 0) {
+                        continue;
+                    }
+                    double value = (sampledValues == null) ? 0.0 : sampledValues[j];
+                    idValues[i] = value;
+                    if (sampledValues == null || !cacheable[i] || Double.isNaN(value)) {
+                        continue;
+                    }
+                    long time = times[i];
+                    if (level == EXACT_LEVEL) {
+                        long start = (type == SampleType.POINT) ? time : starts[i];
+                        fValues.put(new Key(owner, signature, id, EXACT_LEVEL, start, time), value);
+                    } else {
+                        store(new Key(owner, signature, id, level, 0L, Math.floorDiv(time >> level, BLOCK_SIZE)), time, value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Look up the cached value of a time that is not on a grid
+     *
+     * @return The value, or NaN if it is not cached
+     */
+    private double lookupExact(Object owner, Object signature, long id, SampleType type, long start, long time) {
+        Double value = fValues.get(new Key(owner, signature, id, EXACT_LEVEL, (type == SampleType.POINT) ? time : start, time));
+        return (value == null) ? Double.NaN : value;
+    }
+
+    /**
+     * Look up a cached value, or compute it from the values of finer grids
+     *
+     * @return The value, or NaN if it is not cached
+     */
+    private double lookup(Object owner, Object signature, long id, int level, SampleType type, long time, int finerLevels) {
+        long index = time >> level;
+        Block block = fBlocks.get(new Key(owner, signature, id, level, 0L, Math.floorDiv(index, BLOCK_SIZE)));
+        int slot = (int) Math.floorMod(index, BLOCK_SIZE);
+        if (block != null && (block.fMask & (1L << slot)) != 0) {
+            return block.fValues[slot];
+        }
+        if (finerLevels == 0 || level == 0) {
+            return Double.NaN;
+        }
+        double value = lookup(owner, signature, id, level - 1, type, time, finerLevels - 1);
+        if (type == SampleType.POINT || Double.isNaN(value)) {
+            return value;
+        }
+        double previous = lookup(owner, signature, id, level - 1, type, time - (1L << (level - 1)), finerLevels - 1);
+        return (value + previous) / 2;
+    }
+
+    private void store(Key key, long time, double value) {
+        Block block = fBlocks.get(key);
+        if (block == null) {
+            block = new Block();
+            fBlocks.put(key, block);
+        }
+        int slot = (int) Math.floorMod(time >> key.fLevel, BLOCK_SIZE);
+        block.fValues[slot] = value;
+        block.fMask |= 1L << slot;
+    }
+
+    /**
+     * Remove the values of an owner
+     *
+     * @param owner
+     *            The owner of the series
+     */
+    public synchronized void remove(Object owner) {
+        fBlocks.keySet().removeIf(key -> key.fOwner.equals(owner));
+        fValues.keySet().removeIf(key -> key.fOwner.equals(owner));
+    }
+
+    /**
+     * Remove all the values
+     */
+    public synchronized void clear() {
+        fBlocks.clear();
+        fValues.clear();
+    }
+
+    /**
+     * Get the approximate size of the cached values
+     *
+     * @return The size in bytes
+     */
+    public synchronized long getSize() {
+        return fBlocks.size() * BLOCK_BYTES + fValues.size() * VALUE_BYTES;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2016 Ericsson
+ * Copyright (c) 2013, 2026 Ericsson and others
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
  * accompanies this distribution, and is available at
@@ -16,8 +16,21 @@ package org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.partial;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNullContents;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -26,7 +39,9 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
@@ -39,8 +54,13 @@ import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Partial state history back-end.
  *
@@ -55,10 +75,27 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  * earlier checkpoint, and will re-feed the state-change-input with events from
  * the trace, to restore the real state at the time that was requested.
  *
+ * Since replaying a dense region of the trace is what makes queries slow, a
+ * checkpoint is also added when the number of state changes since the
+ * previous one reaches a second threshold. The checkpoints can be saved to a
+ * file so that rebuilding the history does not need to read the trace twice.
+ *
+ * Queries are served by a small pool of replayers, each with its own state
+ * provider and partial state system, so concurrent queries do not wait for
+ * each other. A replayer remembers the window and the time it was last
+ * replayed to, so a later query in the same checkpoint window resumes from
+ * there instead of from the checkpoint.
+ *
  * @author Alexandre Montplaisir
  */
 public class PartialHistoryBackend implements IStateHistoryBackend {
 
+    private static final int CHECKPOINTS_MAGIC = 0x50484350;
+    private static final int CHECKPOINTS_FORMAT_VERSION = 1;
+
+    /** Number of full states to keep in the caches */
+    private static final int CACHE_SIZE = 16;
+
     private final @NonNull String fSSID;
 
     /**
@@ -76,15 +113,36 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
     /** Reference to the "real" state history that is used for storage */
     private final @NonNull IStateHistoryBackend fInnerHistory;
 
-    /** Checkpoints map, <Timestamp, Rank in the trace> */
+    /**
+     * Checkpoints map, <Timestamp, Rank in the trace>. Checkpoints added
+     * because of the state changes have an unknown rank.
+     */
     private final @NonNull TreeMap<Long, Long> fCheckpoints = new TreeMap<>();
 
     /** Latch tracking if the initial checkpoint registration is done */
     private final @NonNull CountDownLatch fCheckpointsReady = new CountDownLatch(1);
 
     private final long fGranularity;
+    private final long fChangeGranularity;
+    private final @Nullable File fCheckpointsFile;
+
+    /** All the replayers, the first one uses the partial input */
+    private final List<Replayer> fReplayers = new ArrayList<>();
+    /** The replayers that are not used by a query, least recently used first */
+    private final Deque<Replayer> fIdleReplayers = new ArrayDeque<>();
+    private final int fMaxReplayers;
+
+    /** States at the checkpoints, read from the inner history */
+    private final Cache<Long, List<@NonNull ITmfStateInterval>> fCheckpointStates = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
+    /** Results of the latest queries, by query time */
+    private final Cache<Long, List<@NonNull ITmfStateInterval>> fResults = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
 
     private long fLatestTime;
+    private long fLastCheckpoint;
+    private long fChangesSinceCheckpoint = 0;
+    private boolean fDisposed = false;
 
     /**
      * Constructor
@@ -110,7 +168,44 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
             PartialStateSystem pss,
             IStateHistoryBackend realBackend,
             long granularity) {
-        if (granularity <= 0 || partialInput == null || pss == null ||
+        this(ssid, partialInput, pss, realBackend, granularity, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Constructor with adaptive and persisted checkpoints
+     *
+     * @param ssid
+     *            The state system's ID
+     * @param partialInput
+     *            The state change input object that was used to build the
+     *            upstream state system. This partial history will make its own
+     *            copy (since they have different targets).
+     * @param pss
+     *            The partial history's inner state system. It should already be
+     *            assigned to partialInput.
+     * @param realBackend
+     *            The real state history back-end to use. It's supposed to be
+     *            modular, so it should be able to be of any type.
+     * @param granularity
+     *            Configuration parameter indicating how many trace events there
+     *            should be between each checkpoint
+     * @param changeGranularity
+     *            Maximum number of state changes between two checkpoints, a
+     *            checkpoint is added earlier in regions where the state changes
+     *            a lot
+     * @param checkpointsFile
+     *            The file where to save the checkpoints, and where they are read
+     *            from if it was written for the same trace and parameters. If
+     *            <code>null</code>, the checkpoints are not saved.
+     */
+    public PartialHistoryBackend(@NonNull String ssid,
+            ITmfStateProvider partialInput,
+            PartialStateSystem pss,
+            IStateHistoryBackend realBackend,
+            long granularity,
+            long changeGranularity,
+            @Nullable File checkpointsFile) {
+        if (granularity <= 0 || changeGranularity <= 0 || partialInput == null || pss == null ||
                 partialInput.getAssignedStateSystem() != pss) {
             throw new IllegalArgumentException();
         }
@@ -123,10 +218,22 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
 
         fInnerHistory = realBackend;
         fGranularity = granularity;
+        fChangeGranularity = changeGranularity;
+        fCheckpointsFile = checkpointsFile;
 
         fLatestTime = startTime;
+        fLastCheckpoint = startTime;
 
-        registerCheckpoints();
+        Replayer first = new Replayer(partialInput, pss);
+        fReplayers.add(first);
+        fIdleReplayers.add(first);
+        fMaxReplayers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        if (checkpointsFile != null && readCheckpoints(checkpointsFile)) {
+            fCheckpointsReady.countDown();
+        } else {
+            registerCheckpoints();
+        }
     }
 
     private void registerCheckpoints() {
@@ -150,32 +257,63 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
         return fLatestTime;
     }
 
+    /**
+     * Get the timestamps of the checkpoints, once they are registered
+     *
+     * @return The timestamps of the checkpoints, in order
+     */
+    @VisibleForTesting
+    public List<Long> getCheckpoints() {
+        waitForCheckpoints();
+        return new ArrayList<>(fCheckpoints.keySet());
+    }
+
     @Override
     public void insertPastState(long stateStartTime, long stateEndTime,
             int quark, Object value) throws TimeRangeException {
         waitForCheckpoints();
 
         /* Update the latest time */
-        if (stateEndTime > fLatestTime) {
+        boolean inOrder = stateEndTime >= fLatestTime;
+        if (inOrder) {
             fLatestTime = stateEndTime;
         }
 
         /*
          * Check if the interval intersects the previous checkpoint. If so,
          * insert it in the real history back-end.
-         *
-         * FIXME since intervals are inserted in order of rank, we could avoid
-         * doing a map lookup every time here (just compare with the known
-         * previous one).
          */
-        if (stateStartTime <= fCheckpoints.floorKey(stateEndTime)) {
+        long checkpoint = fCheckpoints.floorKey(stateEndTime);
+        if (checkpoint > fLastCheckpoint) {
+            fLastCheckpoint = checkpoint;
+            fChangesSinceCheckpoint = 0;
+        }
+        if (stateStartTime <= checkpoint) {
             fInnerHistory.insertPastState(stateStartTime, stateEndTime, quark, value);
         }
+
+        /*
+         * Add a checkpoint if the state changed too often since the previous
+         * one. The interval ends just before the event that changed it, so
+         * the new checkpoint is at that event's timestamp. This is only
+         * possible if no interval ending after it was inserted yet.
+         */
+        fChangesSinceCheckpoint++;
+        if (inOrder && fChangesSinceCheckpoint >= fChangeGranularity) {
+            long newCheckpoint = stateEndTime + 1;
+            fCheckpoints.putIfAbsent(newCheckpoint, ITmfContext.UNKNOWN_RANK);
+            fLastCheckpoint = newCheckpoint;
+            fChangesSinceCheckpoint = 0;
+        }
     }
 
     @Override
     public void finishedBuilding(long endTime) throws TimeRangeException {
         fInnerHistory.finishedBuilding(endTime);
+        File checkpointsFile = fCheckpointsFile;
+        if (checkpointsFile != null) {
+            writeCheckpoints(checkpointsFile);
+        }
     }
 
     @Override
@@ -196,12 +334,27 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
     @Override
     public void removeFiles() {
         fInnerHistory.removeFiles();
+        File checkpointsFile = fCheckpointsFile;
+        if (checkpointsFile != null) {
+            try {
+                Files.deleteIfExists(checkpointsFile.toPath());
+            } catch (IOException e) {
+                Activator.logWarning("Could not delete the partial history checkpoints " + checkpointsFile, e); //$NON-NLS-1$
+            }
+        }
     }
 
     @Override
     public void dispose() {
-        fPartialInput.dispose();
-        fPartialSS.dispose();
+        List<Replayer> replayers;
+        synchronized (fIdleReplayers) {
+            fDisposed = true;
+            replayers = new ArrayList<>(fReplayers);
+            fIdleReplayers.notifyAll();
+        }
+        for (Replayer replayer : replayers) {
+            replayer.dispose();
+        }
         fInnerHistory.dispose();
     }
 
@@ -216,53 +369,20 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
             throw new TimeRangeException(fSSID + " Time:" + t + ", Start:" + getStartTime() + ", End:" + getEndTime()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
         }
 
-        /* Reload the previous checkpoint */
-        long checkpointTime = fCheckpoints.floorKey(t);
-        fInnerHistory.doQuery(currentStateInfo, checkpointTime);
-
-        /*
-         * Set the initial contents of the partial state system (which is the
-         * contents of the query at the checkpoint).
-         */
-        List<@NonNull ITmfStateInterval> filledStateInfo =
-                checkNotNullContents(currentStateInfo.stream()).collect(Collectors.toList());
-
-        fPartialSS.takeQueryLock();
-        fPartialSS.replaceOngoingState(filledStateInfo);
-
-        /* Send an event request to update the state system to the target time. */
-        TmfTimeRange range = new TmfTimeRange(
-                /*
-                 * The state at the checkpoint already includes any state change
-                 * caused by the event(s) happening exactly at 'checkpointTime',
-                 * if any. We must not include those events in the query.
-                 */
-                TmfTimestamp.fromNanos(checkpointTime + 1),
-                TmfTimestamp.fromNanos(t));
-        ITmfEventRequest request = new PartialStateSystemRequest(fPartialInput, range);
-        fPartialInput.getTrace().sendRequest(request);
-
-        try {
-            request.waitForCompletion();
-        } catch (InterruptedException e) {
-            // Do nothing
+        List<@NonNull ITmfStateInterval> result = fResults.getIfPresent(t);
+        if (result == null || result.size() != currentStateInfo.size()) {
+            long checkpointTime = fCheckpoints.floorKey(t);
+            Replayer replayer = acquireReplayer(checkpointTime, t);
+            try {
+                result = replayer.replay(checkpointTime, t, currentStateInfo);
+            } finally {
+                releaseReplayer(replayer);
+            }
+            fResults.put(t, result);
         }
-
-        /*
-         * Now the partial state system should have the ongoing time we are
-         * looking for. However, the method expects a List of *state intervals*,
-         * not state values, so we'll create intervals with a dummy end time.
-         */
         for (int i = 0; i < currentStateInfo.size(); i++) {
-            long start = 0;
-            start = ((ITmfStateSystem) fPartialSS).getOngoingStartTime(i);
-            @Nullable Object val = ((ITmfStateSystem) fPartialSS).queryOngoing(i);
-
-            ITmfStateInterval interval = new TmfStateInterval(start, t, i, val);
-            currentStateInfo.set(i, interval);
+            currentStateInfo.set(i, result.get(i));
         }
-
-        fPartialSS.releaseQueryLock();
     }
 
     /**
@@ -286,6 +406,231 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
         }
     }
 
+    // ------------------------------------------------------------------------
+    // Replayers
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get a replayer for a query. An idle replayer that can resume to the
+     * target time is preferred, then a new replayer if the pool is not full,
+     * then the least recently used one.
+     */
+    private Replayer acquireReplayer(long checkpointTime, long t) throws StateSystemDisposedException {
+        synchronized (fIdleReplayers) {
+            while (true) {
+                if (fDisposed) {
+                    throw new StateSystemDisposedException();
+                }
+                Iterator<Replayer> it = fIdleReplayers.iterator();
+                while (it.hasNext()) {
+                    Replayer replayer = it.next();
+                    if (replayer.canResume(checkpointTime, t)) {
+                        it.remove();
+                        return replayer;
+                    }
+                }
+                if (fReplayers.size() < fMaxReplayers) {
+                    Replayer replayer = createReplayer();
+                    fReplayers.add(replayer);
+                    return replayer;
+                }
+                Replayer replayer = fIdleReplayers.pollFirst();
+                if (replayer != null) {
+                    return replayer;
+                }
+                try {
+                    fIdleReplayers.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StateSystemDisposedException(e);
+                }
+            }
+        }
+    }
+
+    private void releaseReplayer(Replayer replayer) {
+        boolean dispose;
+        synchronized (fIdleReplayers) {
+            dispose = fDisposed;
+            if (!dispose) {
+                fIdleReplayers.addLast(replayer);
+                fIdleReplayers.notifyAll();
+            }
+        }
+        if (dispose) {
+            replayer.dispose();
+        }
+    }
+
+    private Replayer createReplayer() {
+        ITmfStateProvider input = fPartialInput.getNewInstance();
+        PartialStateSystem pss = new PartialStateSystem();
+        input.assignTargetStateSystem(pss);
+        pss.assignUpstream((ITmfStateSystemBuilder) fPartialSS.getUpstreamSS());
+        return new Replayer(input, pss);
+    }
+
+    /**
+     * Get the full state at a checkpoint, from the cache or from the inner
+     * history
+     */
+    private List<@NonNull ITmfStateInterval> getCheckpointState(long checkpointTime, int nbAttributes)
+            throws StateSystemDisposedException {
+        List<@NonNull ITmfStateInterval> state = fCheckpointStates.getIfPresent(checkpointTime);
+        if (state != null && state.size() == nbAttributes) {
+            return state;
+        }
+        List<@Nullable ITmfStateInterval> stateInfo = new ArrayList<>(Collections.nCopies(nbAttributes, null));
+        fInnerHistory.doQuery(stateInfo, checkpointTime);
+        state = Collections.unmodifiableList(checkNotNullContents(stateInfo.stream()).collect(Collectors.toList()));
+        fCheckpointStates.put(checkpointTime, state);
+        return state;
+    }
+
+    /**
+     * A state provider and partial state system used to replay the events
+     * from a checkpoint, by one query at a time.
+     */
+    private final class Replayer {
+
+        private final ITmfStateProvider fInput;
+        private final PartialStateSystem fSS;
+
+        /** The checkpoint the partial state system was loaded from */
+        private long fWindow = 0;
+        /** The time up to which the events were replayed */
+        private long fPosition = 0;
+        private boolean fValid = false;
+
+        public Replayer(ITmfStateProvider input, PartialStateSystem ss) {
+            fInput = input;
+            fSS = ss;
+        }
+
+        public boolean canResume(long checkpointTime, long t) {
+            return fValid && fWindow == checkpointTime && fPosition <= t;
+        }
+
+        public List<@NonNull ITmfStateInterval> replay(long checkpointTime, long t, List<@Nullable ITmfStateInterval> currentStateInfo)
+                throws StateSystemDisposedException {
+            int nbAttributes = currentStateInfo.size();
+            fSS.takeQueryLock();
+            try {
+                if (!canResume(checkpointTime, t)) {
+                    /*
+                     * Set the initial contents of the partial state system
+                     * (which is the contents of the query at the checkpoint).
+                     */
+                    fValid = false;
+                    fSS.replaceOngoingState(getCheckpointState(checkpointTime, nbAttributes));
+                    fWindow = checkpointTime;
+                    fPosition = checkpointTime;
+                    fValid = true;
+                }
+
+                if (t > fPosition) {
+                    /*
+                     * Send an event request to update the state system to the
+                     * target time. The state at the current position already
+                     * includes any state change caused by the event(s)
+                     * happening exactly at that time, if any. We must not
+                     * include those events in the query.
+                     */
+                    TmfTimeRange range = new TmfTimeRange(
+                            TmfTimestamp.fromNanos(fPosition + 1),
+                            TmfTimestamp.fromNanos(t));
+                    fValid = false;
+                    ITmfEventRequest request = new PartialStateSystemRequest(fInput, range);
+                    fInput.getTrace().sendRequest(request);
+                    try {
+                        request.waitForCompletion();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    fValid = request.isCompleted() && !request.isCancelled() && !request.isFailed();
+                    fPosition = t;
+                }
+
+                /*
+                 * Now the partial state system should have the ongoing time we
+                 * are looking for. However, the method expects a List of
+                 * *state intervals*, not state values, so we'll create
+                 * intervals with a dummy end time.
+                 */
+                List<@NonNull ITmfStateInterval> result = new ArrayList<>(nbAttributes);
+                for (int i = 0; i < nbAttributes; i++) {
+                    long start = ((ITmfStateSystem) fSS).getOngoingStartTime(i);
+                    @Nullable Object val = ((ITmfStateSystem) fSS).queryOngoing(i);
+                    result.add(new TmfStateInterval(start, t, i, val));
+                }
+                return Collections.unmodifiableList(result);
+            } finally {
+                fSS.releaseQueryLock();
+            }
+        }
+
+        public void dispose() {
+            fInput.dispose();
+            fSS.dispose();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Checkpoints file
+    // ------------------------------------------------------------------------
+
+    private boolean readCheckpoints(File file) {
+        if (!file.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != CHECKPOINTS_MAGIC ||
+                    in.readInt() != CHECKPOINTS_FORMAT_VERSION ||
+                    in.readInt() != fPartialInput.getVersion() ||
+                    in.readLong() != fPartialInput.getStartTime() ||
+                    in.readLong() != fGranularity ||
+                    in.readLong() != fChangeGranularity) {
+                return false;
+            }
+            int count = in.readInt();
+            Map<Long, Long> checkpoints = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                checkpoints.put(in.readLong(), in.readLong());
+            }
+            if (checkpoints.isEmpty()) {
+                return false;
+            }
+            fCheckpoints.clear();
+            fCheckpoints.putAll(checkpoints);
+            return true;
+        } catch (IOException e) {
+            Activator.logWarning("Could not read the partial history checkpoints " + file, e); //$NON-NLS-1$
+            return false;
+        }
+    }
+
+    private void writeCheckpoints(File file) {
+        File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(CHECKPOINTS_MAGIC);
+                out.writeInt(CHECKPOINTS_FORMAT_VERSION);
+                out.writeInt(fPartialInput.getVersion());
+                out.writeLong(fPartialInput.getStartTime());
+                out.writeLong(fGranularity);
+                out.writeLong(fChangeGranularity);
+                out.writeInt(fCheckpoints.size());
+                for (Map.Entry<Long, Long> entry : fCheckpoints.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Activator.logWarning("Could not save the partial history checkpoints " + file, e); //$NON-NLS-1$
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Event requests types
     // ------------------------------------------------------------------------
@@ -362,8 +707,8 @@ public class PartialHistoryBackend implements IStateHistoryBackend {
              * all events have been handled by the state system before doing
              * queries on it.
              */
-            if (fPartialInput instanceof AbstractTmfStateProvider) {
-                ((AbstractTmfStateProvider) fPartialInput).waitForEmptyQueue();
+            if (sci instanceof AbstractTmfStateProvider) {
+                ((AbstractTmfStateProvider) sci).waitForEmptyQueue();
             }
             super.handleCompleted();
         }
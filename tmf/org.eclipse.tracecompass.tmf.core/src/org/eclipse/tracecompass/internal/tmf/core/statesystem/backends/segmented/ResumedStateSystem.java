@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.statesystem.core.StateSystem;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.statesystem.core.snapshot.StateSnapshot;
+
+/**
+ * State system whose construction resumes from a snapshot of the ongoing
+ * states of a previous construction, see
+ * {@link StateSnapshot#createResumeSnapshot}.
+ *
+ * Unlike the initial states loaded from a snapshot by the state system
+ * analysis modules, the ongoing states keep their original start times, so
+ * the history written after the snapshot continues the one written before.
+ */
+@SuppressWarnings("restriction") /* We're using StateSystem directly */
+public class ResumedStateSystem extends StateSystem {
+
+    /**
+     * Constructor
+     *
+     * @param backend
+     *            The back-end, whose history ends right before the snapshot
+     */
+    public ResumedStateSystem(@NonNull SegmentedHistoryBackend backend) {
+        super(backend);
+    }
+
+    /**
+     * Restore the attributes and the ongoing states of the snapshot. This
+     * must be done before any state change.
+     *
+     * @param snapshot
+     *            The snapshot of the previous construction
+     * @return Whether the attributes were restored with the same quarks
+     */
+    public boolean restore(StateSnapshot snapshot) {
+        List<Entry<List<String>, ITmfStateInterval>> states = new ArrayList<>(snapshot.getStates().entrySet());
+        states.sort(Comparator.comparingInt(entry -> entry.getValue().getAttribute()));
+        List<@NonNull ITmfStateInterval> ongoing = new ArrayList<>(states.size());
+        for (Entry<List<String>, ITmfStateInterval> state : states) {
+            List<String> path = state.getKey();
+            ITmfStateInterval interval = state.getValue();
+            int quark = getQuarkAbsoluteAndAdd(path.toArray(new String[path.size()]));
+            if (quark != interval.getAttribute() || quark != ongoing.size()) {
+                Activator.logWarning("Cannot restore the attributes of " + getSSID() + " ( " + quark + " != " + interval.getAttribute() + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                return false;
+            }
+            ongoing.add(interval);
+        }
+        replaceOngoingState(ongoing);
+        return true;
+    }
+}
@@ -0,0 +1,921 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.statesystem.core.interval.TmfStateInterval;
+
+/**
+ * State history back-end made of consecutive history tree files, the
+ * segments.
+ *
+ * All the segments but the last one are closed and cover consecutive time
+ * ranges. The last segment, the live one, is the only one receiving the new
+ * intervals. Closing the live segment at a given time, with
+ * {@link #rotate(ITmfStateSystem, long)}, saves everything before that time in
+ * a complete history tree file, so that if the construction is interrupted,
+ * it can be resumed from that time without reading the trace from the
+ * beginning.
+ *
+ * The live segment is always saved in the history file of the state system,
+ * the closed segments are saved next to it, with the suffix
+ * {@link #SEGMENT_SUFFIX} and their index. The attribute tree is saved in the
+ * live segment, as it is the only one that knows all the attributes.
+ *
+ * The intervals crossing the start of a segment are split in the files. The
+ * attributes whose first interval in a segment continues the last one of the
+ * previous segment are saved with the segment, with the suffix
+ * {@link #SPLIT_SUFFIX} and its index, so that a state change at the start of
+ * a segment is never taken for a split. All the queries merge the parts of
+ * the split intervals, a 2D query returns a merged interval once, from the
+ * first segment where one of its parts matches the query.
+ *
+ * Once the construction completes, {@link #compact(ITmfStateSystem)} copies
+ * the merged intervals of all the segments in a single history tree file,
+ * which replaces the segments, so that a complete history is queried like any
+ * other history tree.
+ */
+public class SegmentedHistoryBackend implements IStateHistoryBackend {
+
+    /** Suffix of the files of the closed segments, followed by their index */
+    public static final String SEGMENT_SUFFIX = ".part"; //$NON-NLS-1$
+
+    /**
+     * Suffix of the files of the attributes split at the start of a segment,
+     * followed by the index of the segment
+     */
+    public static final String SPLIT_SUFFIX = ".split"; //$NON-NLS-1$
+
+    /* Suffix of the file of a history being compacted */
+    private static final String COMPACT_SUFFIX = ".compact"; //$NON-NLS-1$
+
+    /* Size of the segment files to read at once when compacting them */
+    private static final long COMPACT_WINDOW_SIZE = 16L * 1024 * 1024;
+
+    private final @NonNull String fSsid;
+    private final File fHistoryFile;
+    private final int fProviderVersion;
+    private final int fQueueSize;
+    private final List<IStateHistoryBackend> fClosedSegments;
+    private final ReadWriteLock fLock = new ReentrantReadWriteLock();
+    private IStateHistoryBackend fLiveSegment;
+    /* The attributes continued from the previous segment by the live segment */
+    private Set<Integer> fLiveSplits;
+    /* All the segments, the live one last, replaced when a segment is added */
+    private List<IStateHistoryBackend> fSegments;
+    /* The split attributes of each segment, replaced with the segments */
+    private List<Set<Integer>> fSplits;
+    /* Segments replaced by a compaction, kept open for the ongoing queries */
+    private final List<IStateHistoryBackend> fRetiredSegments = new ArrayList<>();
+    private boolean fDisposed = false;
+    private boolean fRemoved = false;
+
+    private SegmentedHistoryBackend(@NonNull String ssid, File historyFile, int providerVersion, int queueSize,
+            List<IStateHistoryBackend> closedSegments, List<Set<Integer>> closedSplits, IStateHistoryBackend liveSegment,
+            Set<Integer> liveSplits) {
+        fSsid = ssid;
+        fHistoryFile = historyFile;
+        fProviderVersion = providerVersion;
+        fQueueSize = queueSize;
+        fClosedSegments = closedSegments;
+        fLiveSegment = liveSegment;
+        fLiveSplits = liveSplits;
+        List<Set<Integer>> splits = new ArrayList<>(closedSplits);
+        splits.add(liveSplits);
+        fSplits = Collections.unmodifiableList(splits);
+        fSegments = buildSegments();
+    }
+
+    /**
+     * Create a new segmented history, with a single live segment
+     *
+     * @param ssid
+     *            The ID of the state system
+     * @param historyFile
+     *            The history file of the state system
+     * @param providerVersion
+     *            The version of the state provider
+     * @param startTime
+     *            The start time of the history
+     * @param queueSize
+     *            The size of the interval insertion queue, 0 for none
+     * @return The new back-end
+     * @throws IOException
+     *             If the history file cannot be created
+     */
+    public static SegmentedHistoryBackend createNew(@NonNull String ssid, File historyFile, int providerVersion,
+            long startTime, int queueSize) throws IOException {
+        IStateHistoryBackend live = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(ssid, historyFile, providerVersion, startTime, queueSize);
+        return new SegmentedHistoryBackend(ssid, historyFile, providerVersion, queueSize, new ArrayList<>(), Collections.emptyList(), live,
+                ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Resume the construction of a segmented history. The closed segments up
+     * to the given time are opened and a new live segment is started at that
+     * time. The segments closed after that time are deleted.
+     *
+     * @param ssid
+     *            The ID of the state system
+     * @param historyFile
+     *            The history file of the state system
+     * @param providerVersion
+     *            The version of the state provider
+     * @param resumeTime
+     *            The time where to resume the construction, a closed segment
+     *            must end right before
+     * @param queueSize
+     *            The size of the interval insertion queue, 0 for none
+     * @return The back-end
+     * @throws IOException
+     *             If no segment ends right before the resume time, if a
+     *             segment cannot be opened or if the history file cannot be
+     *             created
+     */
+    public static SegmentedHistoryBackend resume(@NonNull String ssid, File historyFile, int providerVersion,
+            long resumeTime, int queueSize) throws IOException {
+        List<IStateHistoryBackend> closed = new ArrayList<>();
+        List<Set<Integer>> closedSplits = new ArrayList<>();
+        try {
+            List<File> files = getSegmentFiles(historyFile);
+            for (File file : files) {
+                if (!closed.isEmpty() && closed.get(closed.size() - 1).getEndTime() >= resumeTime - 1) {
+                    /* Closed after the checkpoint was saved */
+                    Files.delete(file.toPath());
+                } else {
+                    closedSplits.add(readSplits(historyFile, closed.size()));
+                    closed.add(StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(ssid, file, providerVersion));
+                }
+            }
+            if (closed.isEmpty() || closed.get(closed.size() - 1).getEndTime() != resumeTime - 1) {
+                throw new IOException("No history segment ends before " + resumeTime + " for " + historyFile); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            for (int index = closed.size(); index <= files.size(); index++) {
+                Files.deleteIfExists(getSplitFile(historyFile, index).toPath());
+            }
+            Files.deleteIfExists(historyFile.toPath());
+            IStateHistoryBackend live = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(ssid, historyFile, providerVersion, resumeTime, queueSize);
+            return new SegmentedHistoryBackend(ssid, historyFile, providerVersion, queueSize, closed, closedSplits, live,
+                    ConcurrentHashMap.newKeySet());
+        } catch (IOException e) {
+            closed.forEach(IStateHistoryBackend::dispose);
+            throw e;
+        }
+    }
+
+    /**
+     * Open a complete segmented history
+     *
+     * @param ssid
+     *            The ID of the state system
+     * @param historyFile
+     *            The history file of the state system, the last segment
+     * @param providerVersion
+     *            The version of the state provider
+     * @return The back-end
+     * @throws IOException
+     *             If a segment cannot be opened
+     */
+    public static SegmentedHistoryBackend open(@NonNull String ssid, File historyFile, int providerVersion) throws IOException {
+        List<IStateHistoryBackend> closed = new ArrayList<>();
+        List<Set<Integer>> closedSplits = new ArrayList<>();
+        try {
+            for (File file : getSegmentFiles(historyFile)) {
+                closedSplits.add(readSplits(historyFile, closed.size()));
+                closed.add(StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(ssid, file, providerVersion));
+            }
+            Set<Integer> liveSplits = readSplits(historyFile, closed.size());
+            IStateHistoryBackend live = StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(ssid, historyFile, providerVersion);
+            if (!closed.isEmpty() && live.getStartTime() <= closed.get(0).getStartTime()) {
+                /* Compacted, but the segment files could not be deleted */
+                closed.forEach(IStateHistoryBackend::dispose);
+                closed.clear();
+                deleteSegmentFiles(historyFile);
+                return new SegmentedHistoryBackend(ssid, historyFile, providerVersion, 0, closed, Collections.emptyList(), live, Collections.emptySet());
+            }
+            return new SegmentedHistoryBackend(ssid, historyFile, providerVersion, 0, closed, closedSplits, live, liveSplits);
+        } catch (IOException e) {
+            closed.forEach(IStateHistoryBackend::dispose);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the file of a closed segment
+     *
+     * @param historyFile
+     *            The history file of the state system
+     * @param index
+     *            The index of the segment
+     * @return The segment file
+     */
+    public static File getSegmentFile(File historyFile, int index) {
+        return new File(historyFile.getPath() + SEGMENT_SUFFIX + index);
+    }
+
+    /**
+     * Get the file of the attributes split at the start of a segment
+     *
+     * @param historyFile
+     *            The history file of the state system
+     * @param index
+     *            The index of the segment, the live one being after the closed
+     *            ones
+     * @return The file of the split attributes
+     */
+    public static File getSplitFile(File historyFile, int index) {
+        return new File(historyFile.getPath() + SPLIT_SUFFIX + index);
+    }
+
+    private static File getCompactFile(File historyFile) {
+        return new File(historyFile.getPath() + COMPACT_SUFFIX);
+    }
+
+    /**
+     * Delete the files of the closed segments of a history, the files of the
+     * split attributes of all its segments and the file of an interrupted
+     * compaction
+     *
+     * @param historyFile
+     *            The history file of the state system
+     * @throws IOException
+     *             If a file cannot be deleted
+     */
+    public static void deleteSegmentFiles(File historyFile) throws IOException {
+        List<File> files = getSegmentFiles(historyFile);
+        for (File file : files) {
+            Files.delete(file.toPath());
+        }
+        for (int index = 0; index <= files.size(); index++) {
+            Files.deleteIfExists(getSplitFile(historyFile, index).toPath());
+        }
+        Files.deleteIfExists(getCompactFile(historyFile).toPath());
+    }
+
+    /*
+     * Read the split attributes of a segment, none if it has no file
+     */
+    private static Set<Integer> readSplits(File historyFile, int index) throws IOException {
+        File file = getSplitFile(historyFile, index);
+        if (!file.exists()) {
+            return Collections.emptySet();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid number of split attributes in " + file); //$NON-NLS-1$
+            }
+            Set<Integer> splits = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                splits.add(in.readInt());
+            }
+            return Collections.unmodifiableSet(splits);
+        }
+    }
+
+    /*
+     * Write the split attributes of the live segment. Must be called with the
+     * lock.
+     */
+    private void writeLiveSplits() throws IOException {
+        File file = getSplitFile(fHistoryFile, fClosedSegments.size());
+        List<Integer> splits = new ArrayList<>(fLiveSplits);
+        if (splits.isEmpty()) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            out.writeInt(splits.size());
+            for (int quark : splits) {
+                out.writeInt(quark);
+            }
+        }
+    }
+
+    /*
+     * Insert an interval in the live segment, the part before its start is
+     * already in the closed segments. Must be called with the lock.
+     */
+    private void insertLive(long start, long end, int quark, @Nullable Object value) {
+        IStateHistoryBackend live = fLiveSegment;
+        long liveStart = live.getStartTime();
+        if (start < liveStart && !fClosedSegments.isEmpty()) {
+            fLiveSplits.add(quark);
+        }
+        live.insertPastState(Math.max(start, liveStart), end, quark, value);
+    }
+
+    /**
+     * Get the existing files of the closed segments of a history, in order
+     *
+     * @param historyFile
+     *            The history file of the state system
+     * @return The segment files
+     */
+    public static List<File> getSegmentFiles(File historyFile) {
+        List<File> files = new ArrayList<>();
+        File file = getSegmentFile(historyFile, 0);
+        while (file.exists()) {
+            files.add(file);
+            file = getSegmentFile(historyFile, files.size());
+        }
+        return files;
+    }
+
+    /**
+     * Close the live segment at the given time and start a new one. The
+     * ongoing states of the state system are saved in the closed segment up
+     * to that time. The state system must not be modified during the
+     * rotation, so its state provider should have handled all its events.
+     *
+     * @param ss
+     *            The state system being built
+     * @param time
+     *            The start time of the new live segment, the closed one ends
+     *            right before. No state change can happen before this time
+     *            afterwards.
+     * @return Whether the live segment was closed, it is not if it starts at
+     *         or after the given time or if the back-end is disposed
+     * @throws IOException
+     *             If the segment files cannot be written
+     */
+    public boolean rotate(ITmfStateSystem ss, long time) throws IOException {
+        fLock.writeLock().lock();
+        try {
+            IStateHistoryBackend live = fLiveSegment;
+            long liveStart = live.getStartTime();
+            if (fDisposed || time <= liveStart) {
+                return false;
+            }
+            int nbAttributes = ss.getNbAttributes();
+            for (int quark = 0; quark < nbAttributes; quark++) {
+                long start = ss.getOngoingStartTime(quark);
+                if (start < time) {
+                    insertLive(start, time - 1, quark, ss.queryOngoing(quark));
+                }
+            }
+            live.finishedBuilding(Math.max(time - 1, live.getEndTime()));
+            live.dispose();
+            writeLiveSplits();
+
+            File segmentFile = getSegmentFile(fHistoryFile, fClosedSegments.size());
+            Files.move(fHistoryFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            fClosedSegments.add(StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(fSsid, segmentFile, fProviderVersion));
+            fLiveSegment = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(fSsid, fHistoryFile, fProviderVersion, time, fQueueSize);
+
+            /* The segments only change here */
+            List<Set<Integer>> splits = new ArrayList<>(fSplits);
+            splits.set(splits.size() - 1, Collections.unmodifiableSet(new HashSet<>(fLiveSplits)));
+            fLiveSplits = ConcurrentHashMap.newKeySet();
+            splits.add(fLiveSplits);
+            fSplits = Collections.unmodifiableList(splits);
+            fSegments = buildSegments();
+            return true;
+        } finally {
+            fLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the size of the file of the live segment, to know how much of the
+     * history was written since the last rotation
+     *
+     * @return The size of the live segment file, in bytes
+     */
+    public long getLiveFileSize() {
+        return fHistoryFile.length();
+    }
+
+    /**
+     * Compact the segments of a complete history in a single history tree
+     * file, which replaces them. The history can be queried during the
+     * compaction, the segments are replaced once the compacted file is
+     * complete. Nothing is done if there are no closed segments, or if the
+     * back-end is disposed or its files are removed in the meantime.
+     *
+     * @param ss
+     *            The state system of this history, its construction must be
+     *            complete
+     * @throws IOException
+     *             If the compacted file cannot be written or cannot replace
+     *             the segments, the segments are kept then
+     */
+    public void compact(ITmfStateSystem ss) throws IOException {
+        List<IStateHistoryBackend> segments;
+        fLock.readLock().lock();
+        try {
+            if (fDisposed || fRemoved || fClosedSegments.isEmpty()) {
+                return;
+            }
+            segments = fSegments;
+        } finally {
+            fLock.readLock().unlock();
+        }
+        File compactFile = getCompactFile(fHistoryFile);
+        Files.deleteIfExists(compactFile.toPath());
+        IStateHistoryBackend live = segments.get(segments.size() - 1);
+        long startTime = segments.get(0).getStartTime();
+        long endTime = live.getEndTime();
+        IStateHistoryBackend target = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(fSsid, compactFile, fProviderVersion, startTime, 0);
+        try {
+            copyIntervals(ss.getNbAttributes(), segments, target);
+            target.finishedBuilding(endTime);
+            copyAttributeTree(live, target);
+        } catch (StateSystemDisposedException | RuntimeException | IOException e) {
+            target.removeFiles();
+            target.dispose();
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            /* Disposed or removed during the copy */
+            return;
+        }
+        target.dispose();
+
+        fLock.writeLock().lock();
+        try {
+            if (fDisposed || fRemoved) {
+                Files.deleteIfExists(compactFile.toPath());
+                return;
+            }
+            Files.move(compactFile.toPath(), fHistoryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            IStateHistoryBackend compacted = StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(fSsid, fHistoryFile, fProviderVersion);
+            /* The ongoing queries still read the previous segments */
+            fRetiredSegments.addAll(fSegments);
+            fClosedSegments.clear();
+            fLiveSegment = compacted;
+            fLiveSplits = Collections.emptySet();
+            fSplits = Collections.singletonList(fLiveSplits);
+            fSegments = buildSegments();
+            try {
+                deleteSegmentFiles(fHistoryFile);
+            } catch (IOException e) {
+                /* They are deleted when the history is opened again */
+                Activator.logWarning("Cannot delete the compacted history segments of " + fHistoryFile, e); //$NON-NLS-1$
+            }
+        } finally {
+            fLock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Copy the merged intervals of the segments in a history, ordered by end
+     * time. The segments are read by time windows, each interval is copied
+     * with the window of its end time.
+     */
+    private void copyIntervals(int nbAttributes, List<IStateHistoryBackend> segments, IStateHistoryBackend target) throws StateSystemDisposedException {
+        List<Integer> quarks = new ArrayList<>(nbAttributes);
+        for (int quark = 0; quark < nbAttributes; quark++) {
+            quarks.add(quark);
+        }
+        IntegerRangeCondition quarkCondition = IntegerRangeCondition.forDiscreteRange(quarks);
+        long startTime = target.getStartTime();
+        BitSet copied = new BitSet(nbAttributes);
+        List<ITmfStateInterval> window = new ArrayList<>();
+        for (int index = 0; index < segments.size(); index++) {
+            IStateHistoryBackend segment = segments.get(index);
+            File file = (index == segments.size() - 1) ? fHistoryFile : getSegmentFile(fHistoryFile, index);
+            long nbWindows = Math.max(1, file.length() / COMPACT_WINDOW_SIZE);
+            long step = Math.max(1, (segment.getEndTime() - segment.getStartTime()) / nbWindows);
+            long low = segment.getStartTime();
+            while (low <= segment.getEndTime()) {
+                long high = (segment.getEndTime() - low < 2 * step) ? segment.getEndTime() : low + step - 1;
+                for (ITmfStateInterval interval : query2D(quarkCondition, TimeRangeCondition.forContinuousRange(low, high))) {
+                    if (interval.getEndTime() >= low && interval.getEndTime() <= high) {
+                        window.add(interval);
+                    }
+                }
+                checkDisposed();
+                window.sort(Comparator.comparingLong(ITmfStateInterval::getEndTime));
+                for (ITmfStateInterval interval : window) {
+                    int quark = interval.getAttribute();
+                    long start = interval.getStartTime();
+                    Object value = interval.getValue();
+                    if (!copied.get(quark) && start > startTime) {
+                        /* The attribute was created after the start of the history */
+                        if (value == null) {
+                            start = startTime;
+                        } else {
+                            target.insertPastState(startTime, start - 1, quark, null);
+                        }
+                    }
+                    copied.set(quark);
+                    target.insertPastState(start, interval.getEndTime(), quark, value);
+                }
+                window.clear();
+                low = high + 1;
+            }
+        }
+    }
+
+    /*
+     * The queries of a disposed segment silently return nothing, check that
+     * the intervals read from the segments are complete
+     */
+    private void checkDisposed() throws StateSystemDisposedException {
+        fLock.readLock().lock();
+        try {
+            if (fDisposed || fRemoved) {
+                throw new StateSystemDisposedException();
+            }
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Copy the attribute tree saved after the live segment after the
+     * compacted history
+     */
+    private void copyAttributeTree(IStateHistoryBackend live, IStateHistoryBackend target) throws IOException {
+        long position = live.supplyAttributeTreeWriterFilePosition();
+        try (FileChannel in = FileChannel.open(fHistoryFile.toPath(), StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target.supplyAttributeTreeWriterFile().toPath(), StandardOpenOption.WRITE)) {
+            long size = in.size() - position;
+            if (size <= 0) {
+                throw new IOException("No attribute tree in " + fHistoryFile); //$NON-NLS-1$
+            }
+            long outPosition = target.supplyAttributeTreeWriterFilePosition();
+            long copied = 0;
+            while (copied < size) {
+                copied += in.transferTo(position + copied, size - copied, out.position(outPosition + copied));
+            }
+        }
+    }
+
+    /**
+     * Get the number of closed segments
+     *
+     * @return The number of closed segments
+     */
+    public int getClosedSegmentCount() {
+        fLock.readLock().lock();
+        try {
+            return fClosedSegments.size();
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Delete the file of the live segment only, so that the construction can
+     * be resumed later from the closed segments.
+     */
+    public void removeLiveFile() {
+        fLock.readLock().lock();
+        try {
+            fLiveSegment.removeFiles();
+            Files.deleteIfExists(getSplitFile(fHistoryFile, fClosedSegments.size()).toPath());
+        } catch (IOException e) {
+            Activator.logWarning("Cannot delete the split attributes of " + fHistoryFile, e); //$NON-NLS-1$
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // IStateHistoryBackend
+    // ------------------------------------------------------------------------
+
+    @Override
+    public @NonNull String getSSID() {
+        return fSsid;
+    }
+
+    @Override
+    public long getStartTime() {
+        fLock.readLock().lock();
+        try {
+            return fClosedSegments.isEmpty() ? fLiveSegment.getStartTime() : fClosedSegments.get(0).getStartTime();
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getEndTime() {
+        fLock.readLock().lock();
+        try {
+            return fLiveSegment.getEndTime();
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void insertPastState(long stateStartTime, long stateEndTime, int quark, @Nullable Object value) throws TimeRangeException {
+        fLock.readLock().lock();
+        try {
+            if (stateEndTime < fLiveSegment.getStartTime()) {
+                /* Already saved in a closed segment */
+                return;
+            }
+            insertLive(stateStartTime, stateEndTime, quark, value);
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void finishedBuilding(long endTime) throws TimeRangeException {
+        fLock.readLock().lock();
+        try {
+            fLiveSegment.finishedBuilding(endTime);
+            writeLiveSplits();
+        } catch (IOException e) {
+            Activator.logWarning("Cannot save the split attributes of " + fHistoryFile, e); //$NON-NLS-1$
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public FileInputStream supplyAttributeTreeReader() {
+        return fLiveSegment.supplyAttributeTreeReader();
+    }
+
+    @Override
+    public File supplyAttributeTreeWriterFile() {
+        return fLiveSegment.supplyAttributeTreeWriterFile();
+    }
+
+    @Override
+    public long supplyAttributeTreeWriterFilePosition() {
+        return fLiveSegment.supplyAttributeTreeWriterFilePosition();
+    }
+
+    @Override
+    public void removeFiles() {
+        fLock.writeLock().lock();
+        try {
+            fRemoved = true;
+            fClosedSegments.forEach(IStateHistoryBackend::removeFiles);
+            fLiveSegment.removeFiles();
+            for (int index = 0; index <= fClosedSegments.size(); index++) {
+                Files.deleteIfExists(getSplitFile(fHistoryFile, index).toPath());
+            }
+            Files.deleteIfExists(getCompactFile(fHistoryFile).toPath());
+        } catch (IOException e) {
+            Activator.logWarning("Cannot delete the split attributes of " + fHistoryFile, e); //$NON-NLS-1$
+        } finally {
+            fLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        fLock.writeLock().lock();
+        try {
+            fDisposed = true;
+            fClosedSegments.forEach(IStateHistoryBackend::dispose);
+            fLiveSegment.dispose();
+            fRetiredSegments.forEach(IStateHistoryBackend::dispose);
+        } finally {
+            fLock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Query methods
+    // ------------------------------------------------------------------------
+
+    /*
+     * Build the list of the segments, the live one last. Must be called with
+     * the write lock, or from the constructor.
+     */
+    private List<IStateHistoryBackend> buildSegments() {
+        List<IStateHistoryBackend> segments = new ArrayList<>(fClosedSegments);
+        segments.add(fLiveSegment);
+        return Collections.unmodifiableList(segments);
+    }
+
+    private static int getSegmentIndex(List<IStateHistoryBackend> segments, long t) {
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (t <= segments.get(i).getEndTime()) {
+                return i;
+            }
+        }
+        return segments.size() - 1;
+    }
+
+    @Override
+    public void doQuery(@NonNull List<@Nullable ITmfStateInterval> currentStateInfo, long t) throws TimeRangeException, StateSystemDisposedException {
+        fLock.readLock().lock();
+        try {
+            List<IStateHistoryBackend> segments = fSegments;
+            List<Set<Integer>> splits = fSplits;
+            int index = getSegmentIndex(segments, t);
+            IStateHistoryBackend segment = segments.get(index);
+            segment.doQuery(currentStateInfo, t);
+            for (int quark = 0; quark < currentStateInfo.size(); quark++) {
+                ITmfStateInterval interval = currentStateInfo.get(quark);
+                if (interval == null) {
+                    /* The attribute did not exist yet in this segment */
+                    currentStateInfo.set(quark, new TmfStateInterval(segment.getStartTime(), segment.getEndTime(), quark, (Object) null));
+                } else if (isSplit(segments, splits, index, interval)) {
+                    currentStateInfo.set(quark, merge(segments, splits, index, interval));
+                }
+            }
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ITmfStateInterval doSingularQuery(long t, int attributeQuark) throws TimeRangeException, StateSystemDisposedException {
+        fLock.readLock().lock();
+        try {
+            List<IStateHistoryBackend> segments = fSegments;
+            int index = getSegmentIndex(segments, t);
+            IStateHistoryBackend segment = segments.get(index);
+            ITmfStateInterval interval = segment.doSingularQuery(t, attributeQuark);
+            if (interval == null) {
+                if (index == segments.size() - 1) {
+                    return null;
+                }
+                return new TmfStateInterval(segment.getStartTime(), segment.getEndTime(), attributeQuark, (Object) null);
+            }
+            return isSplit(segments, fSplits, index, interval) ? merge(segments, fSplits, index, interval) : interval;
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    private static boolean isSplit(List<IStateHistoryBackend> segments, List<Set<Integer>> splits, int index, ITmfStateInterval interval) {
+        int quark = interval.getAttribute();
+        return (index > 0 && interval.getStartTime() == segments.get(index).getStartTime() && splits.get(index).contains(quark)) ||
+                (index < segments.size() - 1 && interval.getEndTime() == segments.get(index).getEndTime() && splits.get(index + 1).contains(quark));
+    }
+
+    /*
+     * Merge an interval with its parts in the previous and next segments
+     */
+    private static ITmfStateInterval merge(List<IStateHistoryBackend> segments, List<Set<Integer>> splits, int index,
+            ITmfStateInterval interval) throws StateSystemDisposedException {
+        int quark = interval.getAttribute();
+        long start = interval.getStartTime();
+        for (int i = index; i > 0 && start == segments.get(i).getStartTime() && splits.get(i).contains(quark); i--) {
+            ITmfStateInterval previous = segments.get(i - 1).doSingularQuery(start - 1, quark);
+            if (previous == null) {
+                break;
+            }
+            start = previous.getStartTime();
+        }
+        long end = interval.getEndTime();
+        for (int i = index; i < segments.size() - 1 && end == segments.get(i).getEndTime() && splits.get(i + 1).contains(quark); i++) {
+            IStateHistoryBackend next = segments.get(i + 1);
+            if (end + 1 > next.getEndTime()) {
+                /* The live segment does not cover that time yet */
+                break;
+            }
+            ITmfStateInterval following = next.doSingularQuery(end + 1, quark);
+            if (following == null) {
+                break;
+            }
+            end = following.getEndTime();
+        }
+        return new TmfStateInterval(start, end, quark, interval.getValue());
+    }
+
+    /*
+     * Stitch a part returned by the 2D query of a segment with its other
+     * parts. Returns null if one of the parts in the segments visited before
+     * matches the time condition, as the merged interval was returned then.
+     */
+    private static @Nullable ITmfStateInterval stitch(List<IStateHistoryBackend> segments, List<Set<Integer>> splits, int index,
+            ITmfStateInterval part, TimeRangeCondition timeCondition, boolean reverse) {
+        if (!isSplit(segments, splits, index, part)) {
+            return part;
+        }
+        ITmfStateInterval merged;
+        try {
+            merged = merge(segments, splits, index, part);
+        } catch (StateSystemDisposedException e) {
+            /* Disposed during the query, return the part as is */
+            return part;
+        }
+        int step = reverse ? 1 : -1;
+        for (int i = index + step; i >= 0 && i < segments.size(); i += step) {
+            IStateHistoryBackend segment = segments.get(i);
+            long low = Math.max(merged.getStartTime(), segment.getStartTime());
+            long high = Math.min(merged.getEndTime(), segment.getEndTime());
+            if (low > high) {
+                break;
+            }
+            if (timeCondition.intersects(low, high)) {
+                return null;
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public Iterable<@NonNull ITmfStateInterval> query2D(IntegerRangeCondition quarkCondition, TimeRangeCondition timeCondition) throws TimeRangeException {
+        return query2D(quarkCondition, timeCondition, false);
+    }
+
+    @Override
+    public Iterable<@NonNull ITmfStateInterval> query2D(IntegerRangeCondition quarkCondition, TimeRangeCondition timeCondition, boolean reverse) throws TimeRangeException {
+        List<IStateHistoryBackend> segments;
+        List<Set<Integer>> splits;
+        fLock.readLock().lock();
+        try {
+            segments = fSegments;
+            splits = fSplits;
+        } finally {
+            fLock.readLock().unlock();
+        }
+        return () -> new Iterator<@NonNull ITmfStateInterval>() {
+            private int fVisited = 0;
+            private int fIndex = -1;
+            private Iterator<@NonNull ITmfStateInterval> fIntervals = Collections.emptyIterator();
+            private @Nullable ITmfStateInterval fNext = null;
+
+            @Override
+            public boolean hasNext() {
+                while (fNext == null) {
+                    while (!fIntervals.hasNext()) {
+                        if (fVisited == segments.size()) {
+                            return false;
+                        }
+                        fIndex = reverse ? segments.size() - 1 - fVisited : fVisited;
+                        fVisited++;
+                        IStateHistoryBackend segment = segments.get(fIndex);
+                        TimeRangeCondition subTimes = timeCondition.subCondition(segment.getStartTime(), segment.getEndTime());
+                        if (subTimes != null) {
+                            fIntervals = segment.query2D(quarkCondition, subTimes, reverse).iterator();
+                        }
+                    }
+                    fNext = stitch(segments, splits, fIndex, fIntervals.next(), timeCondition, reverse);
+                }
+                return true;
+            }
+
+            @Override
+            public @NonNull ITmfStateInterval next() {
+                ITmfStateInterval next = fNext;
+                if (next == null && hasNext()) {
+                    next = fNext;
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                fNext = null;
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        fLock.readLock().lock();
+        try {
+            return "SegmentedHistoryBackend [" + fSsid + ", " + (fClosedSegments.size() + 1) + " segments]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+}
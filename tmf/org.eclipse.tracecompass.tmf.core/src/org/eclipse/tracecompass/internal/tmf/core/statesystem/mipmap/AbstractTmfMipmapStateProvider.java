@@ -17,19 +17,18 @@ package org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
-import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
-import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue.Type;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
@@ -43,17 +42,17 @@ public abstract class AbstractTmfMipmapStateProvider extends AbstractTmfStatePro
     /**
      * Feature bit for the maximum mipmap feature (value is 1&lt;&lt;1).
      */
-    public static final int MAX = 1 << 1;
+    public static final int MAX = TmfMipmapRequest.MAX;
 
     /**
      * Feature bit for the minimum mipmap feature (value is 1&lt;&lt;2).
      */
-    public static final int MIN = 1 << 2;
+    public static final int MIN = TmfMipmapRequest.MIN;
 
     /**
      * Feature bit for the average mipmap feature (value is 1&lt;&lt;3).
      */
-    public static final int AVG = 1 << 3;
+    public static final int AVG = TmfMipmapRequest.AVG;
 
     /**
      * The string for maximum mipmap feature sub-attribute.
@@ -146,7 +145,7 @@ public abstract class AbstractTmfMipmapStateProvider extends AbstractTmfStatePro
             throws TimeRangeException, StateValueTypeException {
         ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
         ss.modifyAttribute(ts, value.unboxValue(), baseQuark);
-        if (value.getType() == Type.LONG || value.getType() == Type.INTEGER || value.getType() == Type.DOUBLE || value.isNull()) {
+        if (TmfMipmapStateSystemBuilder.isMipmapValue(value)) {
             Set<ITmfMipmapFeature> features = getFeatureSet(baseQuark, ts, value, mipmapFeatureBits, resolution);
             for (ITmfMipmapFeature mf : features) {
                 mf.updateMipmap(value, ts);
@@ -165,37 +164,11 @@ public abstract class AbstractTmfMipmapStateProvider extends AbstractTmfStatePro
         if (features != null) {
             return features;
         }
-        features = new LinkedHashSet<>();
         if (value.isNull()) {
-            return features;
+            return Collections.emptySet();
         }
+        features = TmfMipmapStateSystemBuilder.createFeatures(ss, baseQuark, ts, mipmapFeatureBits, resolution);
         featureMap.put(baseQuark, features);
-        if (resolution > 1) {
-            try {
-                if ((mipmapFeatureBits & MAX) != 0) {
-                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, MAX_STRING);
-                    ss.modifyAttribute(ts, 0, featureQuark);
-                    MaxMipmapFeature mf = new MaxMipmapFeature(baseQuark, featureQuark, resolution, ss);
-                    features.add(mf);
-                }
-                if ((mipmapFeatureBits & MIN) != 0) {
-                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, MIN_STRING);
-                    ss.modifyAttribute(ts, 0, featureQuark);
-                    MinMipmapFeature mf = new MinMipmapFeature(baseQuark, featureQuark, resolution, ss);
-                    features.add(mf);
-                }
-                if ((mipmapFeatureBits & AVG) != 0) {
-                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, AVG_STRING);
-                    ss.modifyAttribute(ts, 0, featureQuark);
-                    AvgMipmapFeature mf = new AvgMipmapFeature(baseQuark, featureQuark, resolution, ss);
-                    features.add(mf);
-                }
-            } catch (TimeRangeException e) {
-                Activator.logError("MipMapProvider : Time stamp outside of time range of state system", e); //$NON-NLS-1$
-            } catch (StateValueTypeException e) {
-                Activator.logError("MipMapProvider : Wrong state value type", e); //$NON-NLS-1$
-            }
-        }
         return features;
     }
 }
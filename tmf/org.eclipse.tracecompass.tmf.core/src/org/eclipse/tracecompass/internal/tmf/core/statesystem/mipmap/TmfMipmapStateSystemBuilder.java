@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
+import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue.Type;
+import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
+
+/**
+ * A state system builder that updates the mipmaps of the attributes matching
+ * {@link TmfMipmapRequest}s when they are modified, and delegates everything
+ * else to the wrapped state system builder.
+ * <p>
+ * Only the values set with {@link #modifyAttribute(long, Object, int)} are
+ * mipmapped, the stack and ongoing state operations are not. The mipmaps of an
+ * attribute are created with the first non-null numeric value of this
+ * attribute, and they are closed when the history is closed.
+ */
+public class TmfMipmapStateSystemBuilder implements ITmfStateSystemBuilder {
+
+    private final ITmfStateSystemBuilder fDelegate;
+    private final Collection<@NonNull TmfMipmapRequest> fRequests;
+
+    /** The mipmap features per base attribute quark */
+    private final Map<Integer, Set<ITmfMipmapFeature>> fFeatureMap = new HashMap<>();
+    /** The quarks that were matched with the requests */
+    private final BitSet fMatched = new BitSet();
+    /** The request of each matched quark that matches a request */
+    private final Map<Integer, TmfMipmapRequest> fQuarkRequests = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param delegate
+     *            The state system builder to fill
+     * @param requests
+     *            The mipmap requests
+     */
+    public TmfMipmapStateSystemBuilder(ITmfStateSystemBuilder delegate, Collection<@NonNull TmfMipmapRequest> requests) {
+        fDelegate = delegate;
+        fRequests = requests;
+    }
+
+    /**
+     * Create the mipmap features of an attribute and initialize their mipmap
+     * attributes
+     *
+     * @param ss
+     *            The state system builder
+     * @param baseQuark
+     *            The quark of the base attribute
+     * @param ts
+     *            The time of the first value of the base attribute
+     * @param mipmapFeatureBits
+     *            The mipmap feature bit(s)
+     * @param resolution
+     *            The mipmap resolution
+     * @return The mipmap features
+     */
+    static Set<ITmfMipmapFeature> createFeatures(ITmfStateSystemBuilder ss, int baseQuark, long ts, int mipmapFeatureBits, int resolution) {
+        Set<ITmfMipmapFeature> features = new LinkedHashSet<>();
+        if (resolution > 1) {
+            try {
+                if ((mipmapFeatureBits & AbstractTmfMipmapStateProvider.MAX) != 0) {
+                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, AbstractTmfMipmapStateProvider.MAX_STRING);
+                    ss.modifyAttribute(ts, 0, featureQuark);
+                    features.add(new MaxMipmapFeature(baseQuark, featureQuark, resolution, ss));
+                }
+                if ((mipmapFeatureBits & AbstractTmfMipmapStateProvider.MIN) != 0) {
+                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, AbstractTmfMipmapStateProvider.MIN_STRING);
+                    ss.modifyAttribute(ts, 0, featureQuark);
+                    features.add(new MinMipmapFeature(baseQuark, featureQuark, resolution, ss));
+                }
+                if ((mipmapFeatureBits & AbstractTmfMipmapStateProvider.AVG) != 0) {
+                    int featureQuark = ss.getQuarkRelativeAndAdd(baseQuark, AbstractTmfMipmapStateProvider.AVG_STRING);
+                    ss.modifyAttribute(ts, 0, featureQuark);
+                    features.add(new AvgMipmapFeature(baseQuark, featureQuark, resolution, ss));
+                }
+            } catch (TimeRangeException e) {
+                Activator.logError("MipMapProvider : Time stamp outside of time range of state system", e); //$NON-NLS-1$
+            } catch (StateValueTypeException e) {
+                Activator.logError("MipMapProvider : Wrong state value type", e); //$NON-NLS-1$
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Check if a state value can be mipmapped
+     *
+     * @param value
+     *            The state value
+     * @return true if the value is numeric or null
+     */
+    static boolean isMipmapValue(ITmfStateValue value) {
+        Type type = value.getType();
+        return type == Type.LONG || type == Type.INTEGER || type == Type.DOUBLE || value.isNull();
+    }
+
+    private @Nullable TmfMipmapRequest getRequest(int quark) {
+        if (!fMatched.get(quark)) {
+            fMatched.set(quark);
+            String[] path = fDelegate.getFullAttributePathArray(quark);
+            for (TmfMipmapRequest request : fRequests) {
+                if (request.matches(path)) {
+                    fQuarkRequests.put(quark, request);
+                    break;
+                }
+            }
+        }
+        return fQuarkRequests.get(quark);
+    }
+
+    private void updateMipmaps(long t, @Nullable Object value, int quark) {
+        Set<ITmfMipmapFeature> features = fFeatureMap.get(quark);
+        if (features == null) {
+            if (value == null || getRequest(quark) == null) {
+                return;
+            }
+        } else if (features.isEmpty()) {
+            return;
+        }
+        ITmfStateValue stateValue = TmfStateValue.newValue(value);
+        if (!isMipmapValue(stateValue)) {
+            return;
+        }
+        if (features == null) {
+            if (stateValue.isNull()) {
+                return;
+            }
+            TmfMipmapRequest request = Objects.requireNonNull(fQuarkRequests.get(quark));
+            features = createFeatures(fDelegate, quark, t, request.getFeatureBits(), request.getResolution());
+            fFeatureMap.put(quark, features);
+        }
+        for (ITmfMipmapFeature feature : features) {
+            feature.updateMipmap(stateValue, t);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ITmfStateSystemBuilder
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void modifyAttribute(long t, @Nullable Object value, int attributeQuark) throws StateValueTypeException {
+        fDelegate.modifyAttribute(t, value, attributeQuark);
+        updateMipmaps(t, value, attributeQuark);
+    }
+
+    @Override
+    public void closeHistory(long endTime) {
+        for (Set<ITmfMipmapFeature> features : fFeatureMap.values()) {
+            for (ITmfMipmapFeature feature : features) {
+                feature.updateAndCloseMipmap();
+            }
+        }
+        fFeatureMap.clear();
+        fDelegate.closeHistory(endTime);
+    }
+
+    @Override
+    public int getQuarkAbsoluteAndAdd(String... attribute) {
+        return fDelegate.getQuarkAbsoluteAndAdd(attribute);
+    }
+
+    @Override
+    public int getQuarkRelativeAndAdd(int startingNodeQuark, String... subPath) {
+        return fDelegate.getQuarkRelativeAndAdd(startingNodeQuark, subPath);
+    }
+
+    @Override
+    public void updateOngoingState(@NonNull ITmfStateValue newValue, int attributeQuark) {
+        fDelegate.updateOngoingState(newValue, attributeQuark);
+    }
+
+    @Override
+    public void updateOngoingState(@Nullable Object newValue, int attributeQuark) {
+        fDelegate.updateOngoingState(newValue, attributeQuark);
+    }
+
+    @Override
+    public void pushAttribute(long t, @Nullable Object value, int attributeQuark) throws StateValueTypeException {
+        fDelegate.pushAttribute(t, value, attributeQuark);
+    }
+
+    @Override
+    public ITmfStateValue popAttribute(long t, int attributeQuark) throws StateValueTypeException {
+        return fDelegate.popAttribute(t, attributeQuark);
+    }
+
+    @Override
+    public Object popAttributeObject(long t, int attributeQuark) throws StateValueTypeException {
+        return fDelegate.popAttributeObject(t, attributeQuark);
+    }
+
+    @Override
+    public void removeAttribute(long t, int attributeQuark) {
+        fDelegate.removeAttribute(t, attributeQuark);
+    }
+
+    @Override
+    public void removeFiles() {
+        fDelegate.removeFiles();
+    }
+
+    @Override
+    public List<@Nullable Object> queryOngoing() {
+        return fDelegate.queryOngoing();
+    }
+
+    // ------------------------------------------------------------------------
+    // ITmfStateSystem
+    // ------------------------------------------------------------------------
+
+    @Override
+    public @NonNull String getSSID() {
+        return fDelegate.getSSID();
+    }
+
+    @Override
+    public long getStartTime() {
+        return fDelegate.getStartTime();
+    }
+
+    @Override
+    public long getCurrentEndTime() {
+        return fDelegate.getCurrentEndTime();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return fDelegate.isCancelled();
+    }
+
+    @Override
+    public void waitUntilBuilt() {
+        fDelegate.waitUntilBuilt();
+    }
+
+    @Override
+    public boolean waitUntilBuilt(long timeout) {
+        return fDelegate.waitUntilBuilt(timeout);
+    }
+
+    @Override
+    public void dispose() {
+        fDelegate.dispose();
+    }
+
+    @Override
+    public int getNbAttributes() {
+        return fDelegate.getNbAttributes();
+    }
+
+    @Override
+    public int getQuarkAbsolute(String... attribute) throws AttributeNotFoundException {
+        return fDelegate.getQuarkAbsolute(attribute);
+    }
+
+    @Override
+    public int optQuarkAbsolute(String... attribute) {
+        return fDelegate.optQuarkAbsolute(attribute);
+    }
+
+    @Override
+    public int getQuarkRelative(int startingNodeQuark, String... subPath) throws AttributeNotFoundException {
+        return fDelegate.getQuarkRelative(startingNodeQuark, subPath);
+    }
+
+    @Override
+    public int optQuarkRelative(int startingNodeQuark, String... subPath) {
+        return fDelegate.optQuarkRelative(startingNodeQuark, subPath);
+    }
+
+    @Override
+    public @NonNull List<@NonNull Integer> getSubAttributes(int quark, boolean recursive) {
+        return fDelegate.getSubAttributes(quark, recursive);
+    }
+
+    @Override
+    public @NonNull List<@NonNull Integer> getSubAttributes(int quark, boolean recursive, String pattern) {
+        return fDelegate.getSubAttributes(quark, recursive, pattern);
+    }
+
+    @Override
+    public @NonNull List<@NonNull Integer> getQuarks(String... pattern) {
+        return fDelegate.getQuarks(pattern);
+    }
+
+    @Override
+    public @NonNull List<@NonNull Integer> getQuarks(int startingNodeQuark, String... pattern) {
+        return fDelegate.getQuarks(startingNodeQuark, pattern);
+    }
+
+    @Override
+    public @NonNull String getAttributeName(int attributeQuark) {
+        return fDelegate.getAttributeName(attributeQuark);
+    }
+
+    @Override
+    public @NonNull String getFullAttributePath(int attributeQuark) {
+        return fDelegate.getFullAttributePath(attributeQuark);
+    }
+
+    @Override
+    public String @NonNull [] getFullAttributePathArray(int attributeQuark) {
+        return fDelegate.getFullAttributePathArray(attributeQuark);
+    }
+
+    @Override
+    public int getParentAttributeQuark(int attributeQuark) {
+        return fDelegate.getParentAttributeQuark(attributeQuark);
+    }
+
+    @Override
+    public @NonNull ITmfStateValue queryOngoingState(int attributeQuark) {
+        return fDelegate.queryOngoingState(attributeQuark);
+    }
+
+    @Override
+    public @Nullable Object queryOngoing(int attributeQuark) {
+        return fDelegate.queryOngoing(attributeQuark);
+    }
+
+    @Override
+    public long getOngoingStartTime(int attributeQuark) {
+        return fDelegate.getOngoingStartTime(attributeQuark);
+    }
+
+    @Override
+    public @NonNull List<@NonNull ITmfStateInterval> queryFullState(long t) throws StateSystemDisposedException {
+        return fDelegate.queryFullState(t);
+    }
+
+    @Override
+    public @NonNull ITmfStateInterval querySingleState(long t, int attributeQuark) throws StateSystemDisposedException {
+        return fDelegate.querySingleState(t, attributeQuark);
+    }
+
+    @Override
+    public Iterable<@NonNull ITmfStateInterval> query2D(@NonNull Collection<Integer> quarks, @NonNull Collection<Long> times)
+            throws StateSystemDisposedException, IndexOutOfBoundsException, TimeRangeException {
+        return fDelegate.query2D(quarks, times);
+    }
+
+    @Override
+    public Iterable<@NonNull ITmfStateInterval> query2D(@NonNull Collection<Integer> quarks, long start, long end)
+            throws StateSystemDisposedException, IndexOutOfBoundsException, TimeRangeException {
+        return fDelegate.query2D(quarks, start, end);
+    }
+}
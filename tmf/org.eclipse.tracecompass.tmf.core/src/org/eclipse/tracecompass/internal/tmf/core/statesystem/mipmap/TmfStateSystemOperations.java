@@ -18,6 +18,7 @@ package org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.StateSystemUtils;
 import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
@@ -200,6 +201,52 @@ public final class TmfStateSystemOperations {
         return avg;
     }
 
+    /**
+     * Return the weighted average values of an attribute over consecutive time
+     * ranges, using the average mipmap of the attribute. Each range is read
+     * from the coarsest mipmap levels that fit in it, so the number of
+     * intervals read depends on the number of ranges rather than on the
+     * number of state changes of the attribute. The mipmaps are only complete
+     * once the state system is built. It is used by the XY data providers of
+     * the XML analyses.
+     *
+     * @param ss
+     *            The state system to query
+     * @param quark
+     *            The quark of the attribute
+     * @param times
+     *            The sorted end times of the ranges, each range starts at the
+     *            previous time
+     * @return The weighted average value of the attribute in each range, the
+     *         value at the first time for the first one and 0 for the times
+     *         outside of the state system, or <code>null</code> if the
+     *         attribute does not have an average mipmap
+     * @throws TimeRangeException
+     *             If an invalid time range is specified
+     * @throws AttributeNotFoundException
+     *             If the specified quark doesn't match an attribute
+     * @throws StateValueTypeException
+     *             If the state value type of the attribute does not support the
+     *             "Average" operation
+     */
+    public static double @Nullable [] queryRangeAverages(ITmfStateSystem ss, int quark, long[] times)
+            throws AttributeNotFoundException, TimeRangeException, StateValueTypeException {
+        if (ss.optQuarkRelative(quark, AbstractTmfMipmapStateProvider.AVG_STRING) == ITmfStateSystem.INVALID_ATTRIBUTE) {
+            return null;
+        }
+        double[] values = new double[times.length];
+        long start = ss.getStartTime();
+        long end = ss.getCurrentEndTime();
+        for (int i = 0; i < times.length; i++) {
+            long time = times[i];
+            if (start <= time && time <= end) {
+                long previous = (i == 0) ? time : Math.max(start, times[i - 1]);
+                values[i] = queryRangeAverage(ss, previous, time, quark);
+            }
+        }
+        return values;
+    }
+
     private static List<ITmfStateInterval> queryAttributeRange(ITmfStateSystem ss,
             long t1, long t2, int baseQuark, String featureString)
                     throws AttributeNotFoundException, TimeRangeException, StateValueTypeException {
@@ -68,6 +68,8 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
     private static final Logger LOGGER = TraceCompassLog.getLogger(TmfAbstractAnalysisModule.class);
     private @Nullable String fId;
     private boolean fAutomatic = false, fStarted = false;
+    /* Whether a scheduler will start this analysis once its dependencies are completed */
+    private boolean fQueued = false;
     private volatile @Nullable ITmfTrace fTrace;
     private final Map<String, @Nullable Object> fParameters = new HashMap<>();
     private final List<String> fParameterNames = new ArrayList<>();
@@ -81,6 +83,9 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
     /* Latch tracking if the analysis is completed or not */
     private CountDownLatch fFinishedLatch = new CountDownLatch(0);
 
+    /* Actions to run once the current execution is completed */
+    private final List<Runnable> fCompletionListeners = new ArrayList<>();
+
     private boolean fAnalysisCancelled = false;
 
     private @Nullable Throwable fFailureCause = null;
@@ -278,6 +283,11 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
      */
     @Override
     public final void cancel() {
+        cancelJob();
+        notifyCompletionListeners();
+    }
+
+    private void cancelJob() {
         synchronized (syncObj) {
             Job job = fJob;
             if (job != null) {
@@ -290,6 +300,51 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
         }
     }
 
+    /**
+     * Run an action once the current execution of this analysis is completed,
+     * whether normally or not. If the analysis is not running, the action is
+     * run right away.
+     *
+     * @param action
+     *            The action to run, it is run outside of any lock of this
+     *            module
+     */
+    void runWhenCompleted(Runnable action) {
+        synchronized (syncObj) {
+            if (fStarted) {
+                fCompletionListeners.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Mark this analysis as queued by a {@link TmfAnalysisScheduler}, that will
+     * start it once its dependencies are completed. Waiting for a queued
+     * analysis starts it right away.
+     *
+     * @param queued
+     *            Whether the analysis is queued
+     */
+    void setQueued(boolean queued) {
+        synchronized (syncObj) {
+            fQueued = queued;
+        }
+    }
+
+    private void notifyCompletionListeners() {
+        List<Runnable> listeners;
+        synchronized (syncObj) {
+            if (fStarted || fCompletionListeners.isEmpty()) {
+                return;
+            }
+            listeners = new ArrayList<>(fCompletionListeners);
+            fCompletionListeners.clear();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
     /**
      * @since 2.3
      */
@@ -410,6 +465,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
                             synchronized (syncObj) {
                                 setAnalysisCompleted();
                             }
+                            notifyCompletionListeners();
                             TmfTraceManager.refreshSupplementaryFiles(trace);
                         }
                         if (!fAnalysisCancelled) {
@@ -435,6 +491,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
     @Override
     public IStatus schedule() {
         synchronized (syncObj) {
+            fQueued = false;
             final ITmfTrace trace = getTrace();
             if (trace == null) {
                 return new Status(IStatus.ERROR, Activator.PLUGIN_ID, String.format("No trace specified for analysis %s", getName())); //$NON-NLS-1$
@@ -460,6 +517,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
 
     @Override
     public boolean waitForCompletion() {
+        startIfQueued();
         CountDownLatch finishedLatch;
         boolean started;
         synchronized (syncObj) {
@@ -478,6 +536,7 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
 
     @Override
     public boolean waitForCompletion(IProgressMonitor monitor) {
+        startIfQueued();
         try {
             while (!fFinishedLatch.await(500, TimeUnit.MILLISECONDS)) {
                 if (fAnalysisCancelled || monitor.isCanceled()) {
@@ -491,6 +550,20 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
         return (!fAnalysisCancelled && fFailureCause == null);
     }
 
+    /*
+     * Someone needs the results of a queued analysis now, so it does not wait
+     * for the scheduler
+     */
+    private void startIfQueued() {
+        boolean queued;
+        synchronized (syncObj) {
+            queued = fQueued;
+        }
+        if (queued) {
+            schedule();
+        }
+    }
+
     /**
      * Signal handler for trace closing
      *
@@ -501,11 +574,13 @@ public abstract class TmfAbstractAnalysisModule extends TmfComponent
     public void traceClosed(TmfTraceClosedSignal signal) {
         /* Is the closing trace the one that was requested? */
         synchronized (syncObj) {
-            if (signal.getTrace() == fTrace) {
-                cancel();
-                fTrace = null;
+            if (signal.getTrace() != fTrace) {
+                return;
             }
+            cancelJob();
+            fTrace = null;
         }
+        notifyCompletionListeners();
     }
 
     /**
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+
+/**
+ * Schedules a set of analysis modules according to their dependency graph.
+ *
+ * The graph of the modules and of all their transitive dependencies is built
+ * before anything is executed. A module is only started once all the modules
+ * it depends on are completed, so its job never blocks waiting for them, and
+ * the modules that become ready at the same time are started together, so
+ * that their event requests fall in the same coalescing window of the trace.
+ * The number of modules started by the scheduler and running at the same time
+ * is bounded. A module started in the meantime by someone else, for instance
+ * by an analysis that queries it, is not delayed by this bound.
+ *
+ * Waiting for the completion of a module that is not started yet starts it
+ * right away, as if it was not scheduled by this scheduler.
+ *
+ * Modules that do not extend {@link TmfAbstractAnalysisModule} are started
+ * right away, as their dependencies and completion cannot be observed.
+ *
+ * @since 7.2
+ */
+@NonNullByDefault
+public class TmfAnalysisScheduler {
+
+    /** Default maximum number of modules running at the same time */
+    public static final int DEFAULT_MAX_RUNNING = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final int fMaxRunning;
+    private final Object fLock = new Object();
+
+    /* The modules that are not completed yet, with their pending dependencies */
+    private final Map<IAnalysisModule, Set<IAnalysisModule>> fPending = new IdentityHashMap<>();
+    /* The modules waiting for each module */
+    private final Map<IAnalysisModule, List<IAnalysisModule>> fDependents = new IdentityHashMap<>();
+    private final Deque<IAnalysisModule> fReady = new ArrayDeque<>();
+    private int fRunning = 0;
+    private boolean fDispatching = false;
+    private boolean fCancelled = false;
+
+    /**
+     * Constructor, with the default maximum number of running modules
+     */
+    public TmfAnalysisScheduler() {
+        this(DEFAULT_MAX_RUNNING);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxRunning
+     *            The maximum number of modules started by this scheduler that
+     *            can run at the same time
+     */
+    public TmfAnalysisScheduler(int maxRunning) {
+        if (maxRunning < 1) {
+            throw new IllegalArgumentException("The maximum number of running modules must be positive: " + maxRunning); //$NON-NLS-1$
+        }
+        fMaxRunning = maxRunning;
+    }
+
+    /**
+     * Schedule the given modules and all the modules they depend on, in the
+     * order of their dependencies. This method does not wait for the modules
+     * to complete.
+     *
+     * @param modules
+     *            The modules to schedule
+     * @return The statuses of the modules started by this call. The modules
+     *         started later, once their dependencies are completed, log their
+     *         status if it is not OK.
+     */
+    public IStatus schedule(Collection<IAnalysisModule> modules) {
+        MultiStatus status = new MultiStatus(Activator.PLUGIN_ID, IStatus.OK, null, null);
+        synchronized (fLock) {
+            if (fCancelled) {
+                return status;
+            }
+            Set<IAnalysisModule> visiting = new HashSet<>();
+            for (IAnalysisModule module : modules) {
+                addModule(module, visiting);
+            }
+        }
+        dispatch(status);
+        return status;
+    }
+
+    /**
+     * Cancel the modules that were not started yet. The modules already
+     * started are not cancelled.
+     */
+    public void cancel() {
+        synchronized (fLock) {
+            fCancelled = true;
+            for (IAnalysisModule module : fPending.keySet()) {
+                if (module instanceof TmfAbstractAnalysisModule) {
+                    ((TmfAbstractAnalysisModule) module).setQueued(false);
+                }
+            }
+            fReady.clear();
+            fPending.clear();
+            fDependents.clear();
+            fRunning = 0;
+        }
+    }
+
+    /**
+     * Get the number of modules that are waiting for their dependencies or to
+     * be started
+     *
+     * @return The number of modules not started yet
+     */
+    public int getWaitingCount() {
+        synchronized (fLock) {
+            return fPending.size() - fRunning;
+        }
+    }
+
+    /**
+     * Add a module and its dependencies to the graph, with a depth-first
+     * traversal. A dependency cycle is broken at the module that closes it.
+     */
+    private void addModule(IAnalysisModule module, Set<IAnalysisModule> visiting) {
+        if (fPending.containsKey(module) || fDependents.containsKey(module)) {
+            /* Already in the graph, maybe already completed */
+            return;
+        }
+        Set<IAnalysisModule> dependencies = new HashSet<>();
+        fPending.put(module, dependencies);
+        fDependents.put(module, new ArrayList<>());
+        visiting.add(module);
+        if (module instanceof TmfAbstractAnalysisModule) {
+            ((TmfAbstractAnalysisModule) module).setQueued(true);
+            for (IAnalysisModule dependency : ((TmfAbstractAnalysisModule) module).getDependentAnalyses()) {
+                if (visiting.contains(dependency)) {
+                    Activator.logWarning("Dependency cycle between analyses " + module.getId() + " and " + dependency.getId()); //$NON-NLS-1$ //$NON-NLS-2$
+                    continue;
+                }
+                addModule(dependency, visiting);
+                if (fPending.containsKey(dependency)) {
+                    dependencies.add(dependency);
+                    List<IAnalysisModule> dependents = fDependents.get(dependency);
+                    if (dependents != null) {
+                        dependents.add(module);
+                    }
+                }
+            }
+        }
+        visiting.remove(module);
+        if (dependencies.isEmpty()) {
+            fReady.add(module);
+        }
+    }
+
+    /**
+     * Start the ready modules while the bound allows it. Only one thread
+     * dispatches at a time, the others only update the graph. The statuses of
+     * the started modules are added to the given status, or logged if it is
+     * null and they are not OK.
+     */
+    private void dispatch(@Nullable MultiStatus status) {
+        synchronized (fLock) {
+            if (fDispatching) {
+                return;
+            }
+            fDispatching = true;
+        }
+        while (true) {
+            IAnalysisModule module;
+            synchronized (fLock) {
+                if (fCancelled || fReady.isEmpty() || fRunning >= fMaxRunning) {
+                    fDispatching = false;
+                    return;
+                }
+                module = fReady.poll();
+                fRunning++;
+            }
+            start(module, status);
+        }
+    }
+
+    private void start(IAnalysisModule module, @Nullable MultiStatus status) {
+        IStatus moduleStatus = module.schedule();
+        if (status != null) {
+            status.add(moduleStatus);
+        } else if (!moduleStatus.isOK()) {
+            Activator.log(moduleStatus);
+        }
+        if (module instanceof TmfAbstractAnalysisModule) {
+            ((TmfAbstractAnalysisModule) module).runWhenCompleted(() -> completed(module));
+        } else {
+            completed(module);
+        }
+    }
+
+    private void completed(IAnalysisModule module) {
+        synchronized (fLock) {
+            if (fCancelled || fPending.remove(module) == null) {
+                return;
+            }
+            fRunning--;
+            List<IAnalysisModule> dependents = fDependents.get(module);
+            if (dependents != null) {
+                for (IAnalysisModule dependent : dependents) {
+                    Set<IAnalysisModule> dependencies = fPending.get(dependent);
+                    if (dependencies != null && dependencies.remove(module) && dependencies.isEmpty()) {
+                        fReady.add(dependent);
+                    }
+                }
+                dependents.clear();
+            }
+        }
+        dispatch(null);
+    }
+}
@@ -14,6 +14,7 @@
 
 package org.eclipse.tracecompass.tmf.core.statesystem;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.PriorityQueue;
 import java.util.Queue;
@@ -28,10 +29,13 @@ import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLogBuilder;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.mipmap.TmfMipmapStateSystemBuilder;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.ITmfMipmapStateProvider;
+import org.eclipse.tracecompass.tmf.core.statesystem.mipmap.TmfMipmapRequest;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
@@ -182,6 +186,13 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
     @Override
     public void assignTargetStateSystem(ITmfStateSystemBuilder ssb) {
         fSS = ssb;
+        if (this instanceof ITmfMipmapStateProvider) {
+            /* Update the requested mipmaps when the attributes are modified */
+            Collection<TmfMipmapRequest> requests = ((ITmfMipmapStateProvider) this).getMipmapRequests();
+            if (!requests.isEmpty()) {
+                fSS = new TmfMipmapStateSystemBuilder(ssb, requests);
+            }
+        }
         fStateSystemAssigned = true;
         fEventHandlerThread.start();
     }
@@ -256,6 +267,22 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
         }
     }
 
+    /**
+     * Run a task in the thread that handles the events, once the events
+     * queued before it are handled. The events queued after it are only
+     * handled once it is done, so the state system does not change while it
+     * runs. The task is not run if the provider is disposed or fails before.
+     * Like {@link #processEvent(ITmfEvent)}, it must be called from the
+     * thread that sends the events.
+     *
+     * @param task
+     *            The task to run
+     * @since 7.2
+     */
+    public void queueTask(Runnable task) {
+        fEventsQueue.put(new TaskEvent(task));
+    }
+
     // ------------------------------------------------------------------------
     // Special event types
     // ------------------------------------------------------------------------
@@ -276,6 +303,16 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
         }
     }
 
+    /** Fake event carrying a task to run in the event handler's thread */
+    private static class TaskEvent extends TmfEvent {
+        private final Runnable fTask;
+
+        public TaskEvent(Runnable task) {
+            super(null, ITmfContext.UNKNOWN_RANK, null, null, null);
+            fTask = task;
+        }
+    }
+
     private static final EndEvent END_EVENT = new EndEvent();
     private static final EmptyQueueEvent EMPTY_QUEUE_EVENT = new EmptyQueueEvent();
 
@@ -318,6 +355,11 @@ public abstract class AbstractTmfStateProvider implements ITmfStateProvider {
                         event = fEventsQueue.take();
                         continue;
                     }
+                    if (event instanceof TaskEvent) {
+                        ((TaskEvent) event).fTask.run();
+                        event = fEventsQueue.take();
+                        continue;
+                    }
                     currentEvent = event;
                     long currentTime = event.getTimestamp().toNanos();
                     fSafeTime = currentTime - 1;
@@ -35,6 +35,12 @@ public class Messages extends NLS {
      * File size property text
      */
     public static @Nullable String TmfStateSystemAnalysisModule_PropertiesFileSize;
+    /**
+     * Name of the job compacting the segments of a history
+     *
+     * @since 7.2
+     */
+    public static @Nullable String TmfStateSystemAnalysisModule_CompactingHistory;
 
     static {
         // initialize resource bundle
@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.tmf.core.statesystem;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,14 +32,19 @@ import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.ScopeLog;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.partial.PartialHistoryBackend;
 import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.partial.PartialStateSystem;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented.ResumedStateSystem;
+import org.eclipse.tracecompass.internal.tmf.core.statesystem.backends.segmented.SegmentedHistoryBackend;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
@@ -83,6 +89,13 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
     private static final Logger LOGGER = TraceCompassLog.getLogger(TmfStateSystemAnalysisModule.class);
 
     private static final String EXTENSION = ".ht"; //$NON-NLS-1$
+    private static final String RESUME_EXTENSION = ".resume"; //$NON-NLS-1$
+
+    /* Size of the blocking queue to use when building a state history */
+    private static final int QUEUE_SIZE = 10000;
+
+    /* Number of events between two checks of the size of a segmented history */
+    private static final int CHECKPOINT_CHECK_EVENTS = 100000;
 
     private final CountDownLatch fInitialized = new CountDownLatch(1);
     private final Object fRequestSyncObj = new Object();
@@ -95,6 +108,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
     private boolean fInitializationSucceeded;
 
     private volatile @Nullable ITmfStateProvider fStateProvider;
+    private volatile @Nullable SegmentedHistoryBackend fSegmentedBackend;
     private @Nullable Integer fProviderVersion = null;
 
     /**
@@ -165,6 +179,28 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         return StateSystemBackendType.FULL;
     }
 
+    /**
+     * Get the size of the history written between two checkpoints of the
+     * construction of a full history. At each checkpoint, the history built
+     * so far is saved in a complete file, along with a snapshot of the
+     * ongoing states, so that a construction that is cancelled, or that does
+     * not complete because the application stopped, resumes from the latest
+     * checkpoint the next time the analysis is executed instead of reading
+     * the trace from the beginning. Once the construction completes, the
+     * saved parts are compacted in a single history file in the background.
+     *
+     * Only a state provider that keeps all its state in the state system can
+     * resume from a checkpoint, its future events and other internal states
+     * are lost. The default is 0, for no checkpoints.
+     *
+     * @return The size in bytes of the history between two checkpoints, or 0
+     *         to disable them
+     * @since 7.2
+     */
+    protected long getCheckpointSize() {
+        return 0;
+    }
+
     /**
      * Get the supplementary file name where to save this state system. The default
      * is the ID of the analysis followed by the extension.
@@ -357,13 +393,25 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         // TODO for now we assume it's complete. Might be a good idea to check
         // at least if its range matches the trace's range.
 
-        if (htFile.exists()) {
+        final int version = provider.getVersion();
+        File resumeFile = getResumeFile(htFile);
+        if (resumeFile.exists()) {
+            /* A previous construction was interrupted */
+            if (getCheckpointSize() > 0 && resumeFullHistory(id, provider, htFile, resumeFile)) {
+                return;
+            }
+        } else if (htFile.exists()) {
             /* Load an existing history */
-            final int version = provider.getVersion();
             try {
-                IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(
-                        id, htFile, version);
-                fStateSystem = StateSystemFactory.newStateSystem(backend, false);
+                IStateHistoryBackend backend = SegmentedHistoryBackend.getSegmentFiles(htFile).isEmpty() ?
+                        StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(id, htFile, version) :
+                        SegmentedHistoryBackend.open(id, htFile, version);
+                ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend, false);
+                fStateSystem = ss;
+                if (backend instanceof SegmentedHistoryBackend) {
+                    /* The previous compaction did not complete */
+                    compactHistory(ss, (SegmentedHistoryBackend) backend);
+                }
                 analysisReady(true);
                 return;
             } catch (IOException e) {
@@ -374,16 +422,22 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
                  */
             }
         }
-
-        /* Size of the blocking queue to use when building a state history */
-        final int QUEUE_SIZE = 10000;
+        deleteSegmentFiles(htFile);
 
         try {
-            IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(
-                    id, htFile, provider.getVersion(), provider.getStartTime(), QUEUE_SIZE);
+            IStateHistoryBackend backend;
+            if (getCheckpointSize() > 0) {
+                SegmentedHistoryBackend segmentedBackend = SegmentedHistoryBackend.createNew(
+                        id, htFile, version, provider.getStartTime(), QUEUE_SIZE);
+                fSegmentedBackend = segmentedBackend;
+                backend = segmentedBackend;
+            } else {
+                backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(
+                        id, htFile, version, provider.getStartTime(), QUEUE_SIZE);
+            }
             fStateSystem = StateSystemFactory.newStateSystem(backend);
             provider.assignTargetStateSystem(fStateSystem);
-            build(provider);
+            build(provider, true);
         } catch (IOException e) {
             /*
              * If it fails here however, it means there was a problem writing to the disk,
@@ -393,6 +447,97 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         }
     }
 
+    /*
+     * Resume the construction of a full history from the latest checkpoint.
+     * Returns false if the checkpoint cannot be used.
+     */
+    private boolean resumeFullHistory(String id, ITmfStateProvider provider, File htFile, File resumeFile) {
+        StateSnapshot snapshot = StateSnapshot.readFile(resumeFile.toPath());
+        if (snapshot == null || snapshot.getVersion() != provider.getVersion() ||
+                snapshot.getEventRank() < 0 || snapshot.getEventRank() > Integer.MAX_VALUE) {
+            return false;
+        }
+        SegmentedHistoryBackend backend;
+        try {
+            backend = SegmentedHistoryBackend.resume(id, htFile, provider.getVersion(), snapshot.getStartTime(), QUEUE_SIZE);
+        } catch (IOException e) {
+            Activator.logWarning("Cannot resume the construction of the state system " + id, e); //$NON-NLS-1$
+            return false;
+        }
+        ResumedStateSystem ss = new ResumedStateSystem(backend);
+        if (!ss.restore(snapshot)) {
+            ss.dispose();
+            return false;
+        }
+        fSegmentedBackend = backend;
+        fStateSystem = ss;
+        fNbRead = (int) snapshot.getEventRank();
+        provider.assignTargetStateSystem(ss);
+        /* The initial state is part of the restored states */
+        build(provider, false);
+        return true;
+    }
+
+    private static File getResumeFile(File htFile) {
+        return new File(htFile.getPath() + RESUME_EXTENSION);
+    }
+
+    /*
+     * Delete the files of a previous segmented history that are not used
+     */
+    private static void deleteSegmentFiles(File htFile) {
+        try {
+            Files.deleteIfExists(getResumeFile(htFile).toPath());
+            SegmentedHistoryBackend.deleteSegmentFiles(htFile);
+        } catch (IOException e) {
+            Activator.logWarning("Cannot delete the history segments of " + htFile, e); //$NON-NLS-1$
+        }
+    }
+
+    /*
+     * Save a checkpoint of the construction of a segmented full history. The
+     * ongoing states are saved along with the rank of the next event to read.
+     * Must be called from the thread of the state provider, once it handled
+     * the events before that rank.
+     */
+    private void checkpoint(ITmfStateProvider provider, long eventRank) {
+        SegmentedHistoryBackend backend = fSegmentedBackend;
+        ITmfStateSystemBuilder ss = fStateSystem;
+        File htFile = getSsFile();
+        if (backend == null || ss == null || htFile == null) {
+            return;
+        }
+        long time = ss.getCurrentEndTime();
+        try {
+            if (backend.rotate(ss, time)) {
+                StateSnapshot.createResumeSnapshot(ss, time, provider.getVersion(), eventRank).writeFile(getResumeFile(htFile).toPath());
+            }
+        } catch (IOException e) {
+            Activator.logWarning("Cannot save a checkpoint of the state system " + ss.getSSID(), e); //$NON-NLS-1$
+        }
+    }
+
+    /*
+     * Compact the segments of a complete history in a single history file, in
+     * the background. The history can be queried meanwhile.
+     */
+    private static void compactHistory(ITmfStateSystem ss, SegmentedHistoryBackend backend) {
+        String jobName = NonNullUtils.nullToEmptyString(NLS.bind(Messages.TmfStateSystemAnalysisModule_CompactingHistory, backend.getSSID()));
+        Job job = new Job(jobName) {
+            @Override
+            protected IStatus run(@Nullable IProgressMonitor monitor) {
+                try {
+                    backend.compact(ss);
+                } catch (IOException e) {
+                    Activator.logWarning("Cannot compact the history segments of the state system " + backend.getSSID(), e); //$NON-NLS-1$
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
     /*
      * Create a new state system backed with a partial history. A partial history is
      * similar to a "full" one (which you get with {@link #newFullHistory}), except
@@ -424,11 +569,11 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
          * thing.</li></li>
          */
 
-        /* Size of the blocking queue to use when building a state history */
-        final int QUEUE_SIZE = 10000;
-
         final long granularity = 50000;
 
+        /* Maximum number of state changes between two checkpoints */
+        final long changeGranularity = 100000;
+
         /* 2 */
         IStateHistoryBackend realBackend = null;
         try {
@@ -448,7 +593,9 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         partialProvider.assignTargetStateSystem(pss);
 
         /* 3 */
-        IStateHistoryBackend partialBackend = new PartialHistoryBackend(id + ".partial", partialProvider, pss, realBackend, granularity); //$NON-NLS-1$
+        File checkpointsFile = new File(htPartialFile.getPath() + ".checkpoints"); //$NON-NLS-1$
+        IStateHistoryBackend partialBackend = new PartialHistoryBackend(id + ".partial", partialProvider, pss, realBackend, //$NON-NLS-1$
+                granularity, changeGranularity, checkpointsFile);
 
         /* 4 */
         ITmfStateSystemBuilder realSS = StateSystemFactory.newStateSystem(partialBackend);
@@ -462,7 +609,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         /* 7 */
         fStateSystem = realSS;
 
-        build(provider);
+        build(provider, true);
     }
 
     /*
@@ -474,7 +621,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         IStateHistoryBackend backend = StateHistoryBackendFactory.createNullBackend(id);
         fStateSystem = StateSystemFactory.newStateSystem(backend);
         provider.assignTargetStateSystem(fStateSystem);
-        build(provider);
+        build(provider, true);
     }
 
     /*
@@ -486,7 +633,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend(id, provider.getStartTime());
         fStateSystem = StateSystemFactory.newStateSystem(backend);
         provider.assignTargetStateSystem(fStateSystem);
-        build(provider);
+        build(provider, true);
     }
 
     private void createCustomHistory(String id, ITmfStateProvider provider) throws TmfTraceException {
@@ -503,7 +650,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         @NonNull ITmfStateSystemBuilder stateSystemBuilder = StateSystemFactory.newStateSystem(backend);
         fStateSystem = stateSystemBuilder;
         provider.assignTargetStateSystem(stateSystemBuilder);
-        build(provider);
+        build(provider, true);
     }
 
     /**
@@ -542,6 +689,9 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         if (shouldDeleteFiles && (fStateSystem != null)) {
             fStateSystem.removeFiles();
         }
+        if (shouldDeleteFiles || fSegmentedBackend == null) {
+            deleteResumeFile();
+        }
         completingBuild(shouldDeleteFiles);
     }
 
@@ -560,7 +710,18 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         // Nothing to do, classes may override this
     }
 
-    private void build(ITmfStateProvider provider) {
+    private void deleteResumeFile() {
+        File htFile = getSsFile();
+        if (htFile != null) {
+            try {
+                Files.deleteIfExists(getResumeFile(htFile).toPath());
+            } catch (IOException e) {
+                Activator.logWarning("Cannot delete the checkpoint of " + htFile, e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private void build(ITmfStateProvider provider, boolean loadInitialState) {
         if (fStateSystem == null) {
             throw new IllegalArgumentException();
         }
@@ -570,7 +731,9 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
          * signal listener below will start sending real trace events through the state
          * provider.
          */
-        loadInitialState(provider);
+        if (loadInitialState) {
+            loadInitialState(provider);
+        }
 
         /* Continue on initializing the event request to read trace events. */
         ITmfEventRequest request = fRequest;
@@ -684,6 +847,8 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
 
         private final ITmfStateProvider sci;
         private final ITmfTrace trace;
+        private final long fCheckpointSize = getCheckpointSize();
+        private volatile boolean fCheckpointPending = false;
 
         /**
          * Constructor
@@ -736,6 +901,28 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         public void handleData(final ITmfEvent event) {
             super.handleData(event);
             processEvent(event, trace);
+            if (fCheckpointSize > 0 && !fCheckpointPending && getNbRead() % CHECKPOINT_CHECK_EVENTS == 0) {
+                SegmentedHistoryBackend backend = fSegmentedBackend;
+                if (backend != null && backend.getLiveFileSize() >= fCheckpointSize) {
+                    queueCheckpoint();
+                }
+            }
+        }
+
+        /*
+         * Save a checkpoint once the state provider handled the events read
+         * so far, without waiting for it
+         */
+        private void queueCheckpoint() {
+            if (!(sci instanceof AbstractTmfStateProvider)) {
+                return;
+            }
+            long eventRank = getIndex() + getNbRead();
+            fCheckpointPending = true;
+            ((AbstractTmfStateProvider) sci).queueTask(() -> {
+                checkpoint(sci, eventRank);
+                fCheckpointPending = false;
+            });
         }
 
         private void processEvent(final ITmfEvent event, ITmfTrace tmfTrace) {
@@ -756,7 +943,13 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         public void handleSuccess() {
             super.handleSuccess();
             if (isCompleteTrace(trace)) {
+                SegmentedHistoryBackend backend = fSegmentedBackend;
+                ITmfStateSystem ss = fStateSystem;
+                fSegmentedBackend = null;
                 disposeProvider(false);
+                if (backend != null && ss != null) {
+                    compactHistory(ss, backend);
+                }
             } else {
                 fNbRead += getNbRead();
                 synchronized (fRequestSyncObj) {
@@ -771,7 +964,18 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         @Override
         public void handleCancel() {
             super.handleCancel();
-            disposeProvider(true);
+            SegmentedHistoryBackend backend = fSegmentedBackend;
+            if (backend == null) {
+                disposeProvider(true);
+                return;
+            }
+            /*
+             * Keep the history saved so far, the construction resumes from the
+             * checkpoint the next time
+             */
+            queueCheckpoint();
+            disposeProvider(false);
+            backend.removeLiveFile();
         }
 
         @Override
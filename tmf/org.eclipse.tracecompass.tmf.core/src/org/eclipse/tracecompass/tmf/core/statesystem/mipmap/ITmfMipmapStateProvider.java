@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.statesystem.mipmap;
+
+import java.util.Collection;
+
+/**
+ * Interface for state providers that declare the mipmaps of their numeric
+ * attributes. When a state provider extending
+ * {@link org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider}
+ * implements this interface, the mipmaps of the requested attributes are
+ * updated whenever the provider modifies them, without the provider having to
+ * call any mipmap specific method.
+ * <p>
+ * The mipmaps only speed up the data providers that query them. The XY data
+ * providers of the XML analyses read the average mipmaps of their absolute
+ * series. The data providers of the Java analyses, such as the kernel XY
+ * providers, still sample their attributes.
+ *
+ * @since 7.2
+ */
+public interface ITmfMipmapStateProvider {
+
+    /**
+     * Get the mipmaps requested by this state provider
+     *
+     * @return The mipmap requests, the first request that matches an
+     *         attribute is used
+     */
+    Collection<TmfMipmapRequest> getMipmapRequests();
+}
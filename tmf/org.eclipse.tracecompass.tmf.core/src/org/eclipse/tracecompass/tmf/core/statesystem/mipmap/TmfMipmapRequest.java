@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.statesystem.mipmap;
+
+import java.util.Arrays;
+
+/**
+ * A request for the mipmaps of the numeric attributes whose path matches a
+ * pattern. The pattern is an absolute attribute path, where the
+ * {@link #WILDCARD} element matches any attribute name at this level, for
+ * example <code>CPUs/&#42;/Frequency</code>.
+ *
+ * @see ITmfMipmapStateProvider
+ * @since 7.2
+ */
+public class TmfMipmapRequest {
+
+    /** The pattern element that matches any attribute name */
+    public static final String WILDCARD = "*"; //$NON-NLS-1$
+
+    /** Feature bit for the maximum mipmap feature */
+    public static final int MAX = 1 << 1;
+
+    /** Feature bit for the minimum mipmap feature */
+    public static final int MIN = 1 << 2;
+
+    /** Feature bit for the average mipmap feature */
+    public static final int AVG = 1 << 3;
+
+    private final String[] fPattern;
+    private final int fFeatureBits;
+    private final int fResolution;
+
+    /**
+     * Constructor
+     *
+     * @param featureBits
+     *            The mipmap feature bit(s), see {@link #MAX}, {@link #MIN}
+     *            and {@link #AVG}
+     * @param resolution
+     *            The mipmap resolution (must be greater than 1)
+     * @param pattern
+     *            The absolute path of the attributes, with optional wildcards
+     */
+    public TmfMipmapRequest(int featureBits, int resolution, String... pattern) {
+        if (resolution <= 1) {
+            throw new IllegalArgumentException("The mipmap resolution must be greater than 1: " + resolution); //$NON-NLS-1$
+        }
+        fFeatureBits = featureBits;
+        fResolution = resolution;
+        fPattern = pattern;
+    }
+
+    /**
+     * Get the mipmap feature bits
+     *
+     * @return The mipmap feature bit(s)
+     */
+    public int getFeatureBits() {
+        return fFeatureBits;
+    }
+
+    /**
+     * Get the mipmap resolution
+     *
+     * @return The number of lower-level intervals per mipmap interval
+     */
+    public int getResolution() {
+        return fResolution;
+    }
+
+    /**
+     * Check if an attribute matches the pattern of this request
+     *
+     * @param path
+     *            The full path of the attribute
+     * @return true if the mipmaps of this attribute are requested
+     */
+    public boolean matches(String[] path) {
+        if (path.length != fPattern.length) {
+            return false;
+        }
+        for (int i = 0; i < path.length; i++) {
+            if (!fPattern[i].equals(WILDCARD) && !fPattern[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "TmfMipmapRequest: " + Arrays.toString(fPattern) + ", features=" + fFeatureBits + ", resolution=" + fResolution; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
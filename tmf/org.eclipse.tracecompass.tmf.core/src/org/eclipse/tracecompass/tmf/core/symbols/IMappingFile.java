@@ -19,8 +19,10 @@ import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.callstack.FunctionNameMapper;
+import org.eclipse.tracecompass.internal.tmf.core.callstack.FunctionNameMapper.MappingType;
 import org.eclipse.tracecompass.internal.tmf.core.callstack.MappingFile;
 import org.eclipse.tracecompass.internal.tmf.core.callstack.SizedMappingFile;
+import org.eclipse.tracecompass.internal.tmf.core.callstack.SymbolTable;
 
 /**
  * Interface that mapping file classes must implement. This interface also
@@ -78,18 +80,20 @@ public interface IMappingFile {
     static @Nullable IMappingFile create(String fullPath, boolean isBinaryFile, int pid) {
         Path path = Paths.get(fullPath);
 
-        Map<Long, TmfResolvedSymbol> results = null;
         if (isBinaryFile) {
-            results = FunctionNameMapper.mapFromBinaryFile(path.toFile());
+            Map<Long, TmfResolvedSymbol> results = FunctionNameMapper.mapFromBinaryFile(path.toFile());
             return new MappingFile(fullPath, isBinaryFile, results, pid);
         }
-        switch(FunctionNameMapper.guessMappingType(path.toFile())) {
+        /* Text files are converted once to a memory-mapped symbol table */
+        MappingType type = FunctionNameMapper.guessMappingType(path.toFile());
+        SymbolTable symbols = null;
+        switch(type) {
         case MAP_WITH_SIZE:
-            results = FunctionNameMapper.mapFromSizedTextFile(path.toFile());
-            return results == null ? null : new SizedMappingFile(fullPath, isBinaryFile, results, pid);
+            symbols = FunctionNameMapper.getSymbolTableFromTextFile(path.toFile(), type);
+            return symbols == null ? null : new SizedMappingFile(fullPath, isBinaryFile, symbols, pid);
         case NM:
-            results = FunctionNameMapper.mapFromNmTextFile(path.toFile());
-            return results == null ? null : new MappingFile(fullPath, isBinaryFile, results, pid);
+            symbols = FunctionNameMapper.getSymbolTableFromTextFile(path.toFile(), type);
+            return symbols == null ? null : new MappingFile(fullPath, isBinaryFile, symbols, pid);
         case UNKNOWN: // Fall-through
         default:
             return null;
@@ -115,6 +119,23 @@ public interface IMappingFile {
      */
     @Nullable TmfResolvedSymbol getSymbolEntry(long address);
 
+    /**
+     * Get the entries that may correspond to many symbols at once
+     *
+     * @param addresses
+     *            The addresses of the symbols to look for
+     * @return The entries, at the same index as their address, or
+     *         <code>null</code> for the addresses outside this mapping's space
+     * @since 7.2
+     */
+    default @Nullable TmfResolvedSymbol[] getSymbolEntries(long[] addresses) {
+        @Nullable TmfResolvedSymbol[] symbols = new @Nullable TmfResolvedSymbol[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            symbols[i] = getSymbolEntry(addresses[i]);
+        }
+        return symbols;
+    }
+
     /**
      * Get the ID of the process this mapping is for.
      *
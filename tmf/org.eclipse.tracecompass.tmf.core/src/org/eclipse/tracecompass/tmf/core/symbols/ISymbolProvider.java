@@ -74,4 +74,29 @@ public interface ISymbolProvider {
      * @since 3.2
      */
     public @Nullable TmfResolvedSymbol getSymbol(int pid, long timestamp, long address);
+
+    /**
+     * Return the symbols corresponding to many pid/timestamp/address tuples of
+     * a same process, for example all the function addresses visible in a
+     * view. Implementations can override this method to resolve the addresses
+     * in a single pass over their symbols.
+     *
+     * @param pid
+     *            The process Id for which to query
+     * @param timestamps
+     *            The timestamps of the queries
+     * @param addresses
+     *            The addresses of the symbols, at the same index as their
+     *            timestamp
+     * @return The symbols, at the same index as their address, or
+     *         <code>null</code> for the symbols that cannot be found
+     * @since 7.2
+     */
+    default @Nullable TmfResolvedSymbol[] getSymbols(int pid, long[] timestamps, long[] addresses) {
+        @Nullable TmfResolvedSymbol[] symbols = new @Nullable TmfResolvedSymbol[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            symbols[i] = getSymbol(pid, timestamps[i], addresses[i]);
+        }
+        return symbols;
+    }
 }
@@ -70,6 +70,46 @@ public final class SymbolProviderUtils {
         return getSymbolText(providers, provider -> provider.getSymbol(pid, timestamp, address), address);
     }
 
+    /**
+     * Utility method to get the symbol texts of many addresses of a process
+     * from multiple symbol providers. Each provider resolves all the addresses
+     * at once, then the symbol whose base address is closest to each requested
+     * address is kept.
+     *
+     * @param providers
+     *            The collection of symbol providers to search for the symbols
+     * @param pid
+     *            The process Id for which to query
+     * @param timestamps
+     *            The timestamps of the queries
+     * @param addresses
+     *            The addresses of the symbols, at the same index as their
+     *            timestamp
+     * @return The strings the symbols resolve to, or their hexadecimal
+     *         representation if not found, at the same index as their address
+     * @since 7.2
+     */
+    public static String[] getSymbolTexts(Collection<ISymbolProvider> providers, int pid, long[] timestamps, long[] addresses) {
+        @Nullable TmfResolvedSymbol[] resolvedSymbols = new @Nullable TmfResolvedSymbol[addresses.length];
+        for (ISymbolProvider provider : providers) {
+            @Nullable TmfResolvedSymbol[] currentSymbols = provider.getSymbols(pid, timestamps, addresses);
+            for (int i = 0; i < addresses.length; i++) {
+                TmfResolvedSymbol currentSymbol = currentSymbols[i];
+                TmfResolvedSymbol resolvedSymbol = resolvedSymbols[i];
+                if (currentSymbol != null && (resolvedSymbol == null || Long.compareUnsigned(currentSymbol.getBaseAddress(), resolvedSymbol.getBaseAddress()) >= 0)) {
+                    resolvedSymbols[i] = currentSymbol;
+                }
+            }
+        }
+        String[] symbolTexts = new String[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            TmfResolvedSymbol resolvedSymbol = resolvedSymbols[i];
+            symbolTexts[i] = resolvedSymbol != null ? resolvedSymbol.getSymbolName() : "0x" + Long.toHexString(addresses[i]); //$NON-NLS-1$
+        }
+        TraceCompassLogUtils.traceInstant(LOGGER, Level.FINER, "Symbols returned", "pid", pid, "count", addresses.length); //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+        return symbolTexts;
+    }
+
     private static String getSymbolText(Collection<ISymbolProvider> providers, Function<ISymbolProvider, @Nullable TmfResolvedSymbol> func, long address) {
         TmfResolvedSymbol resolvedSymbol = null;
         for (ISymbolProvider provider : providers) {
@@ -19,6 +19,7 @@
 package org.eclipse.tracecompass.tmf.core.trace;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -39,6 +40,7 @@ import org.eclipse.tracecompass.internal.util.ByteBufferTracker;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModuleHelper;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAnalysisManager;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAnalysisScheduler;
 import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -142,6 +144,8 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
     private final Map<String, IAnalysisModule> fAnalysisModules =
             Collections.synchronizedMap(new LinkedHashMap<String, IAnalysisModule>());
 
+    private final TmfAnalysisScheduler fAnalysisScheduler = new TmfAnalysisScheduler();
+
     // ------------------------------------------------------------------------
     // Construction
     // ------------------------------------------------------------------------
@@ -304,12 +308,17 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
             }
         }
 
-        /* Once all modules are initialized, automatic modules are executed */
+        /*
+         * Once all modules are initialized, automatic modules are executed,
+         * each one once the modules it depends on are completed
+         */
+        List<IAnalysisModule> automaticModules = new ArrayList<>();
         for (IAnalysisModule module : getAnalysisModules()) {
             if (module.isAutomatic()) {
-                status.add(module.schedule());
+                automaticModules.add(module);
             }
         }
+        status.addAll(fAnalysisScheduler.schedule(automaticModules));
         return status;
     }
 
@@ -343,6 +352,7 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
         }
 
         /* Clean up the analysis modules */
+        fAnalysisScheduler.cancel();
         Iterable<IAnalysisModule> analysisModules = getAnalysisModules();
         for (IAnalysisModule module : analysisModules) {
             module.dispose();
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.ui.tests.views;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.tracecompass.internal.tmf.ui.views.timegraph.RowModelCache;
+import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphState;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphState;
+import org.junit.Test;
+
+/**
+ * Test the {@link RowModelCache} used by the data provider time graph views
+ */
+public class RowModelCacheTest {
+
+    private static final Object PROVIDER = new Object();
+    private static final Map<String, Object> NO_FILTER = Collections.emptyMap();
+
+    private static ITimeGraphRowModel createRow(long id, long start, long end, long duration) {
+        List<ITimeGraphState> states = new ArrayList<>();
+        for (long time = start; time < end; time += duration) {
+            states.add(new TimeGraphState(time, duration, (int) time));
+        }
+        return new TimeGraphRowModel(id, states);
+    }
+
+    /**
+     * Test that a row serves the queries it covers, clipped to the queried range
+     */
+    @Test
+    public void testCoveredQuery() {
+        RowModelCache cache = new RowModelCache(1000);
+        cache.put(PROVIDER, createRow(1, 0, 100, 10), 0, 100, 5, NO_FILTER);
+
+        ITimeGraphRowModel row = cache.get(PROVIDER, 1, 0, 100, 5, NO_FILTER);
+        assertNotNull(row);
+        assertEquals(10, row.getStates().size());
+
+        row = cache.get(PROVIDER, 1, 25, 45, 10, NO_FILTER);
+        assertNotNull(row);
+        assertEquals(1, row.getEntryID());
+        assertEquals(3, row.getStates().size());
+        assertEquals(20, row.getStates().get(0).getStartTime());
+        assertEquals(40, row.getStates().get(2).getStartTime());
+
+        /* Other entry, range not covered, finer resolution or other filters */
+        assertNull(cache.get(PROVIDER, 2, 0, 100, 5, NO_FILTER));
+        assertNull(cache.get(new Object(), 1, 0, 100, 5, NO_FILTER));
+        assertNull(cache.get(PROVIDER, 1, 0, 110, 5, NO_FILTER));
+        assertNull(cache.get(PROVIDER, 1, 0, 100, 4, NO_FILTER));
+        assertNull(cache.get(PROVIDER, 1, 0, 100, 5, Collections.singletonMap(DataProviderParameterUtils.FULL_SEARCH_KEY, Boolean.TRUE)));
+    }
+
+    /**
+     * Test that the requested times and items are not part of the signature
+     */
+    @Test
+    public void testSignature() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(DataProviderParameterUtils.REQUESTED_TIME_KEY, Collections.singletonList(0L));
+        parameters.put(DataProviderParameterUtils.REQUESTED_ITEMS_KEY, Collections.singletonList(1L));
+        assertEquals(NO_FILTER, RowModelCache.getSignature(parameters));
+    }
+
+    /**
+     * Test that the rows of several zoom levels are kept for the same entry
+     */
+    @Test
+    public void testZoomLevels() {
+        RowModelCache cache = new RowModelCache(1000);
+        cache.put(PROVIDER, createRow(1, 0, 100, 10), 0, 100, 10, NO_FILTER);
+        cache.put(PROVIDER, createRow(1, 0, 100, 5), 0, 100, 5, NO_FILTER);
+        /* The finer row replaces the coarser one on the same range */
+        assertEquals(20, cache.getNbStates());
+        cache.put(PROVIDER, createRow(1, -50, 150, 20), -50, 150, 20, NO_FILTER);
+        assertEquals(30, cache.getNbStates());
+
+        ITimeGraphRowModel row = cache.get(PROVIDER, 1, 10, 90, 5, NO_FILTER);
+        assertNotNull(row);
+        assertEquals(18, row.getStates().size());
+        row = cache.get(PROVIDER, 1, -50, 150, 20, NO_FILTER);
+        assertNotNull(row);
+        assertEquals(10, row.getStates().size());
+
+        /* A covered row is not added */
+        cache.put(PROVIDER, createRow(1, 0, 50, 10), 0, 50, 10, NO_FILTER);
+        assertEquals(30, cache.getNbStates());
+    }
+
+    /**
+     * Test the eviction of the least recently used entries
+     */
+    @Test
+    public void testEviction() {
+        RowModelCache cache = new RowModelCache(25);
+        cache.put(PROVIDER, createRow(1, 0, 100, 10), 0, 100, 10, NO_FILTER);
+        cache.put(PROVIDER, createRow(2, 0, 100, 10), 0, 100, 10, NO_FILTER);
+        assertNotNull(cache.get(PROVIDER, 1, 0, 100, 10, NO_FILTER));
+        cache.put(PROVIDER, createRow(3, 0, 100, 10), 0, 100, 10, NO_FILTER);
+        assertEquals(20, cache.getNbStates());
+        assertNotNull(cache.get(PROVIDER, 1, 0, 100, 10, NO_FILTER));
+        assertNull(cache.get(PROVIDER, 2, 0, 100, 10, NO_FILTER));
+        assertNotNull(cache.get(PROVIDER, 3, 0, 100, 10, NO_FILTER));
+
+        cache.remove(PROVIDER);
+        assertEquals(0, cache.getNbStates());
+        assertNull(cache.get(PROVIDER, 1, 0, 100, 10, NO_FILTER));
+    }
+}
@@ -104,6 +104,23 @@ public class BasicSymbolProvider implements ISymbolProvider {
                 .collect(Collectors.toList()));
     }
 
+    @Override
+    public @Nullable TmfResolvedSymbol @NonNull [] getSymbols(int pid, long @NonNull [] timestamps, long @NonNull [] addresses) {
+        // Select the mapping files once for all the addresses
+        List<IMappingFile> processFiles = fMappingFiles.stream()
+                .filter(mf -> mf.getPid() == pid)
+                .collect(Collectors.toList());
+        List<IMappingFile> globalFiles = fMappingFiles.stream()
+                .filter(mf -> mf.getPid() < 0)
+                .collect(Collectors.toList());
+        @Nullable TmfResolvedSymbol[] symbols = new @Nullable TmfResolvedSymbol[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            TmfResolvedSymbol symbol = getSymbol(addresses[i], processFiles);
+            symbols[i] = symbol != null ? symbol : getSymbol(addresses[i], globalFiles);
+        }
+        return symbols;
+    }
+
     private static @Nullable TmfResolvedSymbol getSymbol(long address, List<IMappingFile> mappingFiles) {
         TmfResolvedSymbol currentFloorEntry = null;
         for (IMappingFile mf : mappingFiles) {
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.ui.views.timegraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphState;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphRowModel;
+
+/**
+ * Cache of the row models fetched by a time graph view, for each (data
+ * provider, entry model id). A row fetched for a time range at a resolution
+ * can serve any later query for a time range that it covers, at the same or a
+ * coarser resolution, and with the same other fetch parameters (filters,
+ * etc.). This allows scrolling back to rows and zooming to a prefetched level
+ * without querying the data provider again.
+ * <p>
+ * A few rows are kept per entry, so that the rows of the current and
+ * neighbouring zoom levels can be cached together. The rows of the least
+ * recently used entries are evicted when the total number of cached states
+ * exceeds the maximum.
+ */
+public class RowModelCache {
+
+    private static final class Key {
+        private final Object fProvider;
+        private final long fId;
+
+        public Key(Object provider, long id) {
+            fProvider = provider;
+            fId = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fProvider, fId);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fProvider.equals(other.fProvider) && fId == other.fId;
+        }
+    }
+
+    private static final class CachedRow {
+        private final long fStart;
+        private final long fEnd;
+        private final long fResolution;
+        private final Map<String, Object> fSignature;
+        private final List<ITimeGraphState> fStates;
+
+        public CachedRow(long start, long end, long resolution, Map<String, Object> signature, List<ITimeGraphState> states) {
+            fStart = start;
+            fEnd = end;
+            fResolution = resolution;
+            fSignature = signature;
+            fStates = states;
+        }
+
+        public boolean covers(long start, long end, long resolution, Map<String, Object> signature) {
+            return fStart <= start && end <= fEnd && fResolution <= resolution && fSignature.equals(signature);
+        }
+
+        public boolean covers(CachedRow other) {
+            return covers(other.fStart, other.fEnd, other.fResolution, other.fSignature);
+        }
+    }
+
+    /** Maximum number of rows kept for the same entry */
+    private static final int MAX_ROWS_PER_ENTRY = 3;
+
+    private final int fMaxStates;
+    private final LinkedHashMap<Key, List<CachedRow>> fRows = new LinkedHashMap<>(16, 0.75f, true);
+    private int fNbStates = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxStates
+     *            The maximum number of states kept in the cache
+     */
+    public RowModelCache(int maxStates) {
+        fMaxStates = maxStates;
+    }
+
+    /**
+     * Get the signature of fetch parameters, that is the parameters without
+     * the requested times and items, which must match for a cached row to be
+     * reused.
+     *
+     * @param parameters
+     *            The fetch parameters
+     * @return The signature
+     */
+    public static Map<String, Object> getSignature(Map<String, Object> parameters) {
+        Map<String, Object> signature = new HashMap<>(parameters);
+        signature.remove(DataProviderParameterUtils.REQUESTED_TIME_KEY);
+        signature.remove(DataProviderParameterUtils.REQUESTED_ITEMS_KEY);
+        return signature;
+    }
+
+    /**
+     * Get a cached row for a query
+     *
+     * @param provider
+     *            The data provider
+     * @param id
+     *            The entry model id
+     * @param start
+     *            The start of the queried time range
+     * @param end
+     *            The end of the queried time range
+     * @param resolution
+     *            The queried resolution
+     * @param signature
+     *            The signature of the fetch parameters, see
+     *            {@link #getSignature(Map)}
+     * @return The row with the states that intersect the queried time range,
+     *         or null if no cached row can serve the query
+     */
+    public synchronized @Nullable ITimeGraphRowModel get(Object provider, long id, long start, long end, long resolution, Map<String, Object> signature) {
+        List<CachedRow> rows = fRows.get(new Key(provider, id));
+        if (rows == null) {
+            return null;
+        }
+        for (CachedRow row : rows) {
+            if (row.covers(start, end, resolution, signature)) {
+                List<ITimeGraphState> states = new ArrayList<>();
+                for (ITimeGraphState state : row.fStates) {
+                    if (state.getStartTime() <= end && state.getStartTime() + state.getDuration() >= start) {
+                        states.add(state);
+                    }
+                }
+                return new TimeGraphRowModel(id, states);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a fetched row to the cache. The row replaces the cached rows of the
+     * same entry that it can serve, and is ignored if a cached row can already
+     * serve the same queries.
+     *
+     * @param provider
+     *            The data provider
+     * @param row
+     *            The fetched row
+     * @param start
+     *            The start of the fetched time range
+     * @param end
+     *            The end of the fetched time range
+     * @param resolution
+     *            The fetched resolution
+     * @param signature
+     *            The signature of the fetch parameters, see
+     *            {@link #getSignature(Map)}
+     */
+    public synchronized void put(Object provider, ITimeGraphRowModel row, long start, long end, long resolution, Map<String, Object> signature) {
+        List<ITimeGraphState> states = row.getStates();
+        if (states.size() > fMaxStates) {
+            return;
+        }
+        CachedRow newRow = new CachedRow(start, end, resolution, signature, states);
+        List<CachedRow> rows = fRows.computeIfAbsent(new Key(provider, row.getEntryID()), k -> new ArrayList<>());
+        Iterator<CachedRow> rowIterator = rows.iterator();
+        while (rowIterator.hasNext()) {
+            CachedRow previous = rowIterator.next();
+            if (previous.covers(newRow)) {
+                return;
+            }
+            if (newRow.covers(previous)) {
+                fNbStates -= previous.fStates.size();
+                rowIterator.remove();
+            }
+        }
+        if (rows.size() >= MAX_ROWS_PER_ENTRY) {
+            fNbStates -= rows.remove(0).fStates.size();
+        }
+        rows.add(newRow);
+        fNbStates += states.size();
+        Iterator<List<CachedRow>> iterator = fRows.values().iterator();
+        while (fNbStates > fMaxStates && iterator.hasNext()) {
+            for (CachedRow evicted : iterator.next()) {
+                fNbStates -= evicted.fStates.size();
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Remove the rows of a data provider
+     *
+     * @param provider
+     *            The data provider
+     */
+    public synchronized void remove(Object provider) {
+        Iterator<Map.Entry<Key, List<CachedRow>>> iterator = fRows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, List<CachedRow>> entry = iterator.next();
+            if (entry.getKey().fProvider.equals(provider)) {
+                for (CachedRow row : entry.getValue()) {
+                    fNbStates -= row.fStates.size();
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the rows
+     */
+    public synchronized void clear() {
+        fRows.clear();
+        fNbStates = 0;
+    }
+
+    /**
+     * Get the number of states in the cache
+     *
+     * @return The number of cached states
+     */
+    public synchronized int getNbStates() {
+        return fNbStates;
+    }
+}
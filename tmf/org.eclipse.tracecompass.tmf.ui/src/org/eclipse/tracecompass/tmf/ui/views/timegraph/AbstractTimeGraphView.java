@@ -225,6 +225,8 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(AbstractTimeGraphView.class);
 
     private static final int DEFAULT_BUFFER_SIZE = 3;
+    /** Number of entries above and below the visible area that are prefetched */
+    private static final int PREFETCH_BUFFER_SIZE = 50;
 
     private static final String HIDE_LABELS_KEY = "hide.labels"; //$NON-NLS-1$
 
@@ -413,6 +415,14 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
      */
     private int fPrevTimeSpace = -1;
 
+    /**
+     * The sampling of the links currently displayed, null if they need to be
+     * fetched again. The links fetched while the entry lists are still being
+     * built are not kept, since more links may be available at the same
+     * sampling once the analyses have progressed.
+     */
+    private volatile @Nullable Sampling fLinksSampling = null;
+
     /**
      * Menu Manager for context-sensitive menu for time graph entries. This will be
      * used on the name space of the time graph viewer.
@@ -561,6 +571,7 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
         private final long fResolution;
         private int fScopeId = -1;
         private final @NonNull IProgressMonitor fMonitor;
+        private boolean fDirtyReleased = false;
 
         /**
          * Constructor
@@ -620,9 +631,21 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
             try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINE, "TimeGraphView:ZoomThread", "start", fZoomStartTime, "end", fZoomEndTime).setCategoryAndId(getViewId(), fScopeId).build()) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                 doRun();
             } finally {
-                if (fDirty.decrementAndGet() < 0) {
-                    Activator.getDefault().logError(DIRTY_UNDERFLOW_ERROR, new Throwable());
-                }
+                releaseDirty();
+            }
+        }
+
+        /**
+         * Mark the results of this thread as applied, the view is no longer
+         * dirty because of it even if the thread is still running.
+         */
+        private void releaseDirty() {
+            if (fDirtyReleased) {
+                return;
+            }
+            fDirtyReleased = true;
+            if (fDirty.decrementAndGet() < 0) {
+                Activator.getDefault().logError(DIRTY_UNDERFLOW_ERROR, new Throwable());
             }
         }
 
@@ -681,11 +704,32 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
     }
 
     private class ZoomThreadByEntry extends ZoomThread {
+        private final @NonNull Collection<@NonNull TimeGraphEntry> fViewportEntries;
         private final @NonNull Collection<@NonNull TimeGraphEntry> fEntries;
+        private final @NonNull Collection<@NonNull TimeGraphEntry> fNeighbourEntries;
 
         public ZoomThreadByEntry(@NonNull Collection<@NonNull TimeGraphEntry> entries, long startTime, long endTime, long resolution) {
+            this(entries, entries, Collections.emptySet(), startTime, endTime, resolution);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param viewportEntries
+         *            the entries in the visible area, zoomed first
+         * @param entries
+         *            all the entries to zoom on, including the viewport entries
+         *            and the buffer above and below
+         * @param neighbourEntries
+         *            the entries further away from the visible area, only
+         *            prefetched once the zoom is done
+         */
+        public ZoomThreadByEntry(@NonNull Collection<@NonNull TimeGraphEntry> viewportEntries, @NonNull Collection<@NonNull TimeGraphEntry> entries,
+                @NonNull Collection<@NonNull TimeGraphEntry> neighbourEntries, long startTime, long endTime, long resolution) {
             super(startTime, endTime, resolution);
+            fViewportEntries = viewportEntries;
             fEntries = entries;
+            fNeighbourEntries = neighbourEntries;
         }
 
         @Override
@@ -704,19 +748,59 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
             List<@NonNull TimeGraphEntry> incorrectSample = Objects.requireNonNull(
                     Lists.newArrayList(Iterables.filter(
                             fEntries, entry -> !sampling.equals(entry.getSampling()))));
+            /*
+             * The rows in the visible area are zoomed first, so that they are
+             * displayed before the links, markers and buffered rows are
+             * computed.
+             */
+            List<@NonNull TimeGraphEntry> viewportSample = new ArrayList<>();
+            List<@NonNull TimeGraphEntry> bufferSample = new ArrayList<>();
+            for (TimeGraphEntry entry : incorrectSample) {
+                (fViewportEntries.contains(entry) ? viewportSample : bufferSample).add(entry);
+            }
 
-            List<ILinkEvent> computedLinks;
-            try (TraceCompassLogUtils.ScopeLog linkLog = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:GettingLinks")) { //$NON-NLS-1$
-                /* Refresh the arrows when zooming */
-                computedLinks = getLinkList(zoomStartTime, zoomEndTime, resolution, monitor);
-                ViewFilterDialog filterDialog = getViewFilterDialog();
-                if (filterDialog != null && computedLinks != null) {
-                    if (filterDialog.hasActiveSavedFilters()) {
-                        computedLinks = Collections.emptyList();
-                    } else {
-                        computedLinks.forEach(link -> link.setProperty(CoreFilterProperty.DIMMED, filterDialog.isFilterActive()));
+            getTimeGraphViewer().setTimeEventFilterApplied(isFilterActive);
+            boolean hasSavedFilter = fTimeEventFilterDialog != null && fTimeEventFilterDialog.hasActiveSavedFilters();
+            getTimeGraphViewer().setSavedFilterStatus(hasSavedFilter || fIsHideRowsFilterActive);
+
+            if (!viewportSample.isEmpty()) {
+                try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:GettingVisibleStates")) { //$NON-NLS-1$
+                    // Sampling is cleared when calling restartZoomThread() so that
+                    // during filtering the entries are refreshed
+                    zoomEntries(viewportSample, zoomStartTime, zoomEndTime, resolution, monitor);
+                }
+                refreshIfCurrent();
+            }
+            if (monitor.isCanceled()) {
+                return;
+            }
+
+            List<ILinkEvent> computedLinks = null;
+            /*
+             * Check if the build is done before fetching the links, the links
+             * fetched while building can be incomplete
+             */
+            boolean building;
+            synchronized (fBuildJobMap) {
+                building = !fBuildJobMap.isEmpty();
+            }
+            /* The links do not depend on the entries, only fetch them again if the time range or resolution changed */
+            if (!sampling.equals(fLinksSampling)) {
+                try (TraceCompassLogUtils.ScopeLog linkLog = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:GettingLinks")) { //$NON-NLS-1$
+                    /* Refresh the arrows when zooming */
+                    computedLinks = getLinkList(zoomStartTime, zoomEndTime, resolution, monitor);
+                    ViewFilterDialog filterDialog = getViewFilterDialog();
+                    if (filterDialog != null && computedLinks != null) {
+                        if (filterDialog.hasActiveSavedFilters()) {
+                            computedLinks = Collections.emptyList();
+                        } else {
+                            computedLinks.forEach(link -> link.setProperty(CoreFilterProperty.DIMMED, filterDialog.isFilterActive()));
+                        }
                     }
                 }
+                if (monitor.isCanceled()) {
+                    return;
+                }
             }
             List<ILinkEvent> links = computedLinks;
             /* Refresh the view-specific markers when zooming */
@@ -724,9 +808,13 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
                 List<IMarkerEvent> newMarkers = new ArrayList<>(getViewMarkerList(incorrectSample, zoomStartTime, zoomEndTime, resolution, monitor));
                 /* Refresh the trace-specific markers when zooming */
                 newMarkers.addAll(getTraceMarkerList(zoomStartTime, zoomEndTime, resolution, monitor));
+                if (monitor.isCanceled()) {
+                    return;
+                }
                 applyResults(() -> {
                     if (links != null) {
                         fTimeGraphViewer.setLinks(links);
+                        fLinksSampling = building ? null : sampling;
                     }
                     fTimeGraphViewer.setMarkerCategories(getMarkerCategories());
                     Stream<IMarkerEvent> filteredMarkerStream = fTimeGraphViewer.getMarkers().parallelStream()
@@ -747,20 +835,9 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
 
             }
             try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:GettingStates")) { //$NON-NLS-1$
-                getTimeGraphViewer().setTimeEventFilterApplied(isFilterActive);
-
-                boolean hasSavedFilter = fTimeEventFilterDialog != null && fTimeEventFilterDialog.hasActiveSavedFilters();
-                getTimeGraphViewer().setSavedFilterStatus(hasSavedFilter || fIsHideRowsFilterActive);
-
-                // Sampling is cleared when calling restartZoomThread() so that
-                // during filtering the entries are refreshed
-                zoomEntries(incorrectSample, zoomStartTime, zoomEndTime, resolution, monitor);
-            }
-            synchronized (fZoomThreadResultLock) {
-                if (Thread.currentThread() == fZoomThread) {
-                    refresh();
-                }
+                zoomEntries(bufferSample, zoomStartTime, zoomEndTime, resolution, monitor);
             }
+            refreshIfCurrent();
             if (isFilterActive && Thread.currentThread() == fZoomThread) {
                 /* Do a full filter search as a second pass */
                 try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:GettingStatesFullSearch")) { //$NON-NLS-1$
@@ -772,9 +849,53 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
                         refresh();
                     }
                 }
+            } else if (!monitor.isCanceled() && Thread.currentThread() == fZoomThread) {
+                /* Warm up the models of the next rows and zoom levels while the user is idle */
+                super.releaseDirty();
+                try (TraceCompassLogUtils.ScopeLog log = new TraceCompassLogUtils.ScopeLog(LOGGER, Level.FINER, "ZoomThread:Prefetching")) { //$NON-NLS-1$
+                    prefetchEntries(fEntries, fNeighbourEntries, zoomStartTime, zoomEndTime, resolution, monitor);
+                }
+            }
+        }
+
+        private void refreshIfCurrent() {
+            synchronized (fZoomThreadResultLock) {
+                if (Thread.currentThread() == fZoomThread) {
+                    refresh();
+                }
             }
         }
+    }
 
+    /**
+     * Prefetch the models of entries in the background, once the zoom thread
+     * has applied the results of the visible entries, so that the next scroll
+     * or zoom can be served without waiting for the data.
+     * <p>
+     * Called from the ZoomThread. The implementation must not change the event
+     * lists of the entries, and should stop as soon as the monitor is
+     * canceled, which happens when a new zoom thread is started. The default
+     * implementation does nothing.
+     *
+     * @param entries
+     *            The entries that were just zoomed on, whose models can be
+     *            prefetched for the neighbouring zoom levels
+     * @param neighbourEntries
+     *            The entries further away from the visible area, whose models
+     *            can be prefetched for the current zoom level
+     * @param zoomStartTime
+     *            Start of the time range
+     * @param zoomEndTime
+     *            End of the time range
+     * @param resolution
+     *            The resolution
+     * @param monitor
+     *            The progress monitor of the zoom thread
+     * @since 7.2
+     */
+    protected void prefetchEntries(@NonNull Collection<@NonNull TimeGraphEntry> entries, @NonNull Collection<@NonNull TimeGraphEntry> neighbourEntries,
+            long zoomStartTime, long zoomEndTime, long resolution, @NonNull IProgressMonitor monitor) {
+        // do nothing
     }
 
     /**
@@ -2235,6 +2356,7 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
                              */
                             fTimeGraphViewer.setFilters(fFiltersMap.get(fTrace));
                             fTimeGraphViewer.setLinks(null);
+                            fLinksSampling = null;
                             fTimeGraphViewer.setBookmarks(refreshBookmarks(fEditorFile));
                             fTimeGraphViewer.setMarkerCategories(getMarkerCategories());
                             fTimeGraphViewer.setMarkers(null);
@@ -2395,7 +2517,10 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
      * @since 1.1
      */
     protected @Nullable ZoomThread createZoomThread(long startTime, long endTime, long resolution, boolean restart) {
-        return new ZoomThreadByEntry(getVisibleItems(DEFAULT_BUFFER_SIZE), startTime, endTime, resolution);
+        Set<@NonNull TimeGraphEntry> entries = getVisibleItems(DEFAULT_BUFFER_SIZE);
+        Set<@NonNull TimeGraphEntry> neighbourEntries = getVisibleItems(PREFETCH_BUFFER_SIZE);
+        neighbourEntries.removeAll(entries);
+        return new ZoomThreadByEntry(getVisibleItems(0), entries, neighbourEntries, startTime, endTime, resolution);
     }
 
     private void makeActions() {
@@ -2995,6 +3120,7 @@ public abstract class AbstractTimeGraphView extends TmfView implements ITmfTimeA
         Runnable runnable = () -> {
             // Clear the sampling to make sure all entries are refreshed
             clearSampling(getTrace());
+            fLinksSampling = null;
             startZoomThread(getTimeGraphViewer().getTime0(), getTimeGraphViewer().getTime1());
         };
         Display display = PlatformUI.getWorkbench().getDisplay();
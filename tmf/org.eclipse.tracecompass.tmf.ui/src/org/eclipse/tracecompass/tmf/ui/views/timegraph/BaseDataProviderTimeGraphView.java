@@ -46,6 +46,7 @@ import org.eclipse.tracecompass.internal.provisional.tmf.ui.widgets.ViewFilterDi
 import org.eclipse.tracecompass.internal.provisional.tmf.ui.widgets.timegraph.BaseDataProviderTimeGraphPresentationProvider;
 import org.eclipse.tracecompass.internal.tmf.ui.Activator;
 import org.eclipse.tracecompass.internal.tmf.ui.views.timegraph.Messages;
+import org.eclipse.tracecompass.internal.tmf.ui.views.timegraph.RowModelCache;
 import org.eclipse.tracecompass.statesystem.core.StateSystemUtils;
 import org.eclipse.tracecompass.tmf.core.TmfStrings;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderManager;
@@ -103,6 +104,12 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
 
     private static final Pattern SOURCE_REGEX = Pattern.compile("(.*):(\\d+)"); //$NON-NLS-1$
 
+    /** Maximum number of states kept in the row model cache */
+    private static final int ROW_MODEL_CACHE_SIZE = 250000;
+    /* Resolution factors of the zoom levels next to the current one, as zoomed by the time graph control */
+    private static final double ZOOM_IN_FACTOR = 0.8;
+    private static final double ZOOM_OUT_FACTOR = 1.25;
+
     /**
      * Table of (data provider, model id) to time graph entry. The table should be
      * filled by {@link #buildEntryList} and is read by {@link #zoomEntries} and
@@ -135,6 +142,9 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
 
     private final String fProviderId;
 
+    /** Cache of the fetched rows, shared by the zoom and prefetch queries */
+    private final RowModelCache fRowModelCache = new RowModelCache(ROW_MODEL_CACHE_SIZE);
+
     /**
      * Constructs a time graph view that contains a time graph viewer.
      *
@@ -409,18 +419,113 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
         SubMonitor subMonitor = SubMonitor.convert(monitor, getClass().getSimpleName() + "#zoomEntries", providersToModelIds.size()); //$NON-NLS-1$
 
         for (Entry<ITimeGraphDataProvider<? extends TimeGraphEntryModel>, Collection<Long>> entry : providersToModelIds.asMap().entrySet()) {
+            if (monitor.isCanceled()) {
+                return;
+            }
             ITimeGraphDataProvider<? extends TimeGraphEntryModel> dataProvider = entry.getKey();
-            Map<@NonNull String, @NonNull Object> parameters = getFetchRowModelParameters(start, end, resolution, fullSearch, entry.getValue());
-            TmfModelResponse<TimeGraphModel> response = dataProvider.fetchRowModel(parameters, monitor);
-
-            TimeGraphModel model = response.getModel();
-            if (model != null) {
-                zoomEntries(fEntries.row(dataProvider), model.getRows(), response.getStatus() == ITmfResponse.Status.COMPLETED, sampling);
+            List<ITimeGraphRowModel> rows = new ArrayList<>();
+            List<Long> missingIds = fetchRows(dataProvider, entry.getValue(), start, end, resolution, fullSearch, rows, monitor);
+            /* The sampling is only set if all the rows are complete */
+            boolean completed = missingIds.isEmpty();
+            if (monitor.isCanceled()) {
+                return;
             }
+            zoomEntries(fEntries.row(dataProvider), rows, completed, sampling);
             subMonitor.worked(1);
         }
     }
 
+    @Override
+    protected void prefetchEntries(@NonNull Collection<@NonNull TimeGraphEntry> entries, @NonNull Collection<@NonNull TimeGraphEntry> neighbourEntries,
+            long zoomStartTime, long zoomEndTime, long resolution, @NonNull IProgressMonitor monitor) {
+        long start = Long.min(zoomStartTime, zoomEndTime);
+        long end = Long.max(zoomStartTime, zoomEndTime);
+        long duration = end - start;
+        /* The rows above and below the visible area, at the current level */
+        prefetchRows(neighbourEntries, start, end, resolution, monitor);
+        /* The visible rows, at the next zoom in level */
+        prefetchRows(entries, start, end, Long.max(1, (long) (resolution * ZOOM_IN_FACTOR)), monitor);
+        /*
+         * The visible rows, at the next zoom out level, which can be centered
+         * on any point of the current range
+         */
+        long zoomOutMargin = (long) (duration * (ZOOM_OUT_FACTOR - 1));
+        long zoomOutStart = Long.max(getStartTime(), start - zoomOutMargin);
+        long zoomOutEnd = Long.min(getEndTime(), end + zoomOutMargin);
+        if (zoomOutStart < zoomOutEnd) {
+            prefetchRows(entries, zoomOutStart, zoomOutEnd, Long.max(1, (long) (resolution * ZOOM_OUT_FACTOR)), monitor);
+        }
+    }
+
+    private void prefetchRows(Iterable<@NonNull TimeGraphEntry> entries, long start, long end, long resolution, IProgressMonitor monitor) {
+        Multimap<ITimeGraphDataProvider<? extends TimeGraphEntryModel>, Long> providersToModelIds = HashMultimap.create();
+        for (TimeGraphEntry entry : entries) {
+            if (start <= entry.getEndTime() && end >= entry.getStartTime() && entry.hasTimeEvents()) {
+                synchronized (fEntries) {
+                    if (!fEntryIds.isEmpty()) {
+                        fEntryIds.row(entry).forEach(providersToModelIds::put);
+                    } else {
+                        ITimeGraphDataProvider<? extends TimeGraphEntryModel> provider = getProvider(entry);
+                        if (provider != null) {
+                            providersToModelIds.put(provider, entry.getEntryModel().getId());
+                        }
+                    }
+                }
+            }
+        }
+        for (Entry<ITimeGraphDataProvider<? extends TimeGraphEntryModel>, Collection<Long>> entry : providersToModelIds.asMap().entrySet()) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            fetchRows(entry.getKey(), entry.getValue(), start, end, resolution, false, new ArrayList<>(), monitor);
+        }
+    }
+
+    /**
+     * Get the rows of entries of a data provider, from the row model cache or
+     * from the data provider for the rows that are not cached. The complete
+     * rows that are fetched are added to the cache.
+     *
+     * @return the model ids whose rows are not complete
+     */
+    private List<Long> fetchRows(ITimeGraphDataProvider<? extends TimeGraphEntryModel> dataProvider, Collection<Long> ids,
+            long start, long end, long resolution, boolean fullSearch, List<ITimeGraphRowModel> rows, IProgressMonitor monitor) {
+        Map<@NonNull String, @NonNull Object> parameters = getFetchRowModelParameters(start, end, resolution, fullSearch, ids);
+        Map<String, Object> signature = RowModelCache.getSignature(parameters);
+        List<Long> missingIds = new ArrayList<>();
+        if (fullSearch) {
+            missingIds.addAll(ids);
+        } else {
+            for (Long id : ids) {
+                ITimeGraphRowModel row = fRowModelCache.get(dataProvider, id, start, end, resolution, signature);
+                if (row != null) {
+                    rows.add(row);
+                } else {
+                    missingIds.add(id);
+                }
+            }
+            if (missingIds.isEmpty()) {
+                return missingIds;
+            }
+            parameters = getFetchRowModelParameters(start, end, resolution, fullSearch, missingIds);
+        }
+        TmfModelResponse<TimeGraphModel> response = dataProvider.fetchRowModel(parameters, monitor);
+        TimeGraphModel model = response.getModel();
+        if (model == null) {
+            return missingIds;
+        }
+        rows.addAll(model.getRows());
+        if (response.getStatus() != ITmfResponse.Status.COMPLETED) {
+            return missingIds;
+        }
+        if (!fullSearch) {
+            for (ITimeGraphRowModel row : model.getRows()) {
+                fRowModelCache.put(dataProvider, row, start, end, resolution, signature);
+            }
+        }
+        return Collections.emptyList();
+    }
+
     /**
      * Filter the entries to return only the Non Null {@link TimeGraphEntry} which
      * intersect the time range.
@@ -758,6 +863,13 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
         };
     }
 
+    @Override
+    public void restartZoomThread() {
+        // The rows are fetched again when a refresh of all the entries is requested
+        fRowModelCache.clear();
+        super.restartZoomThread();
+    }
+
     @Override
     protected void resetView(ITmfTrace viewTrace) {
         List<@NonNull TimeGraphEntry> entryList = getEntryList(viewTrace);
@@ -767,6 +879,7 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
             synchronized (fEntries) {
                 if (!fProviders.isEmpty()) {
                     fProviders.removeAll(viewTrace).forEach(provider -> {
+                        fRowModelCache.remove(provider);
                         fEntries.row(provider).clear();
                         fEntryIds.column(provider).clear();
                         fMarkerCategories.remove(provider);
@@ -774,6 +887,7 @@ public class BaseDataProviderTimeGraphView extends AbstractTimeGraphView {
                 } else {
                     for (TimeGraphEntry entry : entryList) {
                         if (entry instanceof TraceEntry) {
+                            fRowModelCache.remove(((TraceEntry) entry).getProvider());
                             fEntries.row(((TraceEntry) entry).getProvider()).clear();
                         }
                     }